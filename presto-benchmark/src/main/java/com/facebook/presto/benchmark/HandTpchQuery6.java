@@ -27,6 +27,7 @@ import com.facebook.presto.sql.planner.plan.AggregationNode.Step;
 import com.facebook.presto.testing.LocalQueryRunner;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
 
@@ -107,19 +108,20 @@ public class HandTpchQuery6
 
         public TpchQuery6Operator(OperatorContext operatorContext)
         {
-            super(operatorContext, ImmutableList.of(DOUBLE));
+            super(operatorContext, ImmutableList.of(DOUBLE), ImmutableMap.<Integer, Integer>of());
         }
 
         @Override
-        protected void filterAndProjectRowOriented(Page page, PageBuilder pageBuilder)
+        protected int filterAndProjectRowOriented(Page page, int[] selectedPositions, PageBuilder pageBuilder)
         {
-            filterAndProjectRowOriented(pageBuilder, page.getBlock(0), page.getBlock(1), page.getBlock(2), page.getBlock(3));
+            return filterAndProjectRowOriented(selectedPositions, pageBuilder, page.getBlock(0), page.getBlock(1), page.getBlock(2), page.getBlock(3));
         }
 
-        private static void filterAndProjectRowOriented(PageBuilder pageBuilder, Block extendedPriceBlock, Block discountBlock, Block shipDateBlock, Block quantityBlock)
+        private static int filterAndProjectRowOriented(int[] selectedPositions, PageBuilder pageBuilder, Block extendedPriceBlock, Block discountBlock, Block shipDateBlock, Block quantityBlock)
         {
             int rows = extendedPriceBlock.getPositionCount();
 
+            int selectedCount = 0;
             for (int position = 0; position < rows; position++) {
                 // where shipdate >= '1994-01-01'
                 //    and shipdate < '1995-01-01'
@@ -127,9 +129,12 @@ public class HandTpchQuery6
                 //    and discount <= 0.07
                 //    and quantity < 24;
                 if (filter(position, discountBlock, shipDateBlock, quantityBlock)) {
+                    selectedPositions[selectedCount] = position;
+                    selectedCount++;
                     project(position, pageBuilder, extendedPriceBlock, discountBlock);
                 }
             }
+            return selectedCount;
         }
 
         private static void project(int position, PageBuilder pageBuilder, Block extendedPriceBlock, Block discountBlock)
@@ -0,0 +1,246 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableList;
+import io.airlift.stats.CounterStat;
+import io.airlift.stats.TimeStat;
+import io.airlift.units.Duration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Caches the located file listings of directories across queries.
+ * <p/>
+ * A cached listing is only used while the modification time of the directory is unchanged,
+ * so files added to or removed from a directory are seen immediately on HDFS. File systems
+ * that do not track directory modification times (e.g. S3) can return a listing that is
+ * stale by up to the cache TTL.
+ */
+@ThreadSafe
+public class CachingDirectoryLister
+        implements DirectoryLister
+{
+    private final DirectoryLister delegate;
+    private final boolean enabled;
+    private final Cache<Path, DirectoryListing> cache;
+
+    private final CounterStat hits = new CounterStat();
+    private final CounterStat misses = new CounterStat();
+    private final TimeStat validationTime = new TimeStat(MILLISECONDS);
+    private final TimeStat listingTime = new TimeStat(MILLISECONDS);
+
+    @Inject
+    public CachingDirectoryLister(HiveClientConfig hiveClientConfig)
+    {
+        this(new HadoopDirectoryLister(),
+                checkNotNull(hiveClientConfig, "hiveClientConfig is null").getFileStatusCacheTtl(),
+                hiveClientConfig.getFileStatusCacheMaxFiles());
+    }
+
+    public CachingDirectoryLister(DirectoryLister delegate, Duration cacheTtl, long maxFiles)
+    {
+        this.delegate = checkNotNull(delegate, "delegate is null");
+        checkNotNull(cacheTtl, "cacheTtl is null");
+        checkArgument(maxFiles >= 0, "maxFiles is negative");
+        this.enabled = (cacheTtl.toMillis() > 0) && (maxFiles > 0);
+
+        this.cache = CacheBuilder.newBuilder()
+                .expireAfterWrite(cacheTtl.toMillis(), MILLISECONDS)
+                .maximumWeight(maxFiles)
+                .weigher(new Weigher<Path, DirectoryListing>()
+                {
+                    @Override
+                    public int weigh(Path path, DirectoryListing listing)
+                    {
+                        return listing.getFiles().size();
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public RemoteIterator<LocatedFileStatus> list(FileSystem fs, Path path)
+            throws IOException
+    {
+        if (!enabled) {
+            return delegate.list(fs, path);
+        }
+
+        Path key = fs.makeQualified(path);
+
+        long modificationTime;
+        try (TimeStat.BlockTimer timer = validationTime.time()) {
+            modificationTime = fs.getFileStatus(path).getModificationTime();
+        }
+
+        DirectoryListing listing = cache.getIfPresent(key);
+        if (listing != null && listing.getModificationTime() == modificationTime) {
+            hits.update(1);
+            return remoteIterator(listing.getFiles().iterator());
+        }
+
+        misses.update(1);
+        return new CachingRemoteIterator(key, modificationTime, delegate.list(fs, path));
+    }
+
+    @Managed
+    public void flushCache()
+    {
+        cache.invalidateAll();
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return cache.size();
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getHits()
+    {
+        return hits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getMisses()
+    {
+        return misses;
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getValidationTime()
+    {
+        return validationTime;
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getListingTime()
+    {
+        return listingTime;
+    }
+
+    private static RemoteIterator<LocatedFileStatus> remoteIterator(final Iterator<LocatedFileStatus> iterator)
+    {
+        return new RemoteIterator<LocatedFileStatus>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public LocatedFileStatus next()
+            {
+                return iterator.next();
+            }
+        };
+    }
+
+    /**
+     * Streams the listing of the delegate and caches it once it has been fully read.
+     */
+    private class CachingRemoteIterator
+            implements RemoteIterator<LocatedFileStatus>
+    {
+        private final Path path;
+        private final long modificationTime;
+        private final RemoteIterator<LocatedFileStatus> iterator;
+        private final long start = System.nanoTime();
+        private final List<LocatedFileStatus> files = new ArrayList<>();
+        private boolean done;
+
+        private CachingRemoteIterator(Path path, long modificationTime, RemoteIterator<LocatedFileStatus> iterator)
+        {
+            this.path = path;
+            this.modificationTime = modificationTime;
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext()
+                throws IOException
+        {
+            if (iterator.hasNext()) {
+                return true;
+            }
+            if (!done) {
+                done = true;
+                listingTime.add(System.nanoTime() - start, NANOSECONDS);
+                cache.put(path, new DirectoryListing(modificationTime, files));
+            }
+            return false;
+        }
+
+        @Override
+        public LocatedFileStatus next()
+                throws IOException
+        {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            LocatedFileStatus status = iterator.next();
+            files.add(status);
+            return status;
+        }
+    }
+
+    private static class DirectoryListing
+    {
+        private final long modificationTime;
+        private final List<LocatedFileStatus> files;
+
+        private DirectoryListing(long modificationTime, List<LocatedFileStatus> files)
+        {
+            this.modificationTime = modificationTime;
+            this.files = ImmutableList.copyOf(files);
+        }
+
+        public long getModificationTime()
+        {
+            return modificationTime;
+        }
+
+        public List<LocatedFileStatus> getFiles()
+        {
+            return files;
+        }
+    }
+}
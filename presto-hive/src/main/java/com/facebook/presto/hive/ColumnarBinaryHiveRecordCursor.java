@@ -15,6 +15,8 @@ package com.facebook.presto.hive;
 
 import com.facebook.presto.hive.util.SerDeUtils;
 import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.type.ArrayType;
+import com.facebook.presto.spi.type.MapType;
 import com.facebook.presto.spi.type.Type;
 import com.google.common.base.Charsets;
 import com.google.common.base.Throwables;
@@ -243,12 +245,10 @@ class ColumnarBinaryHiveRecordCursor<K>
 
             // reset loaded flags
             // partition keys are already loaded, but everything else is not
+            // columns are decoded on first access (which also sets the null flag), so
+            // only the columns read by the filter are decoded for rows it rejects
             System.arraycopy(isPartitionColumn, 0, loaded, 0, isPartitionColumn.length);
 
-            // reset null flags
-            // todo this shouldn't be needed
-            Arrays.fill(nulls, false);
-
             return true;
         }
         catch (IOException | RuntimeException e) {
@@ -484,9 +484,9 @@ class ColumnarBinaryHiveRecordCursor<K>
     {
         checkState(!closed, "Cursor is closed");
 
-        if (!types[fieldId].equals(VARCHAR) && !types[fieldId].equals(VARBINARY)) {
+        if (types[fieldId].getJavaType() != Slice.class) {
             // we don't use Preconditions.checkArgument because it requires boxing fieldId, which affects inner loop performance
-            throw new IllegalArgumentException(String.format("Expected field to be VARCHAR or VARBINARY, actual %s (field %s)", types[fieldId], fieldId));
+            throw new IllegalArgumentException(String.format("Expected field to be VARCHAR, VARBINARY, array or map, actual %s (field %s)", types[fieldId], fieldId));
         }
 
         if (!loaded[fieldId]) {
@@ -534,13 +534,12 @@ class ColumnarBinaryHiveRecordCursor<K>
         else {
             nulls[column] = false;
             if (hiveTypes[column] == HiveType.MAP || hiveTypes[column] == HiveType.LIST || hiveTypes[column] == HiveType.STRUCT) {
-                // temporarily special case MAP, LIST, and STRUCT types as strings
-                // TODO: create a real parser for these complex types when we implement data types
+                // MAP and LIST are decoded into map and array values, and STRUCT is encoded as JSON
                 LazyBinaryObject<? extends ObjectInspector> lazyObject = LazyBinaryFactory.createLazyBinaryObject(fieldInspectors[column]);
                 ByteArrayRef byteArrayRef = new ByteArrayRef();
                 byteArrayRef.setData(bytes);
                 lazyObject.init(byteArrayRef, start, length);
-                slices[column] = Slices.wrappedBuffer(SerDeUtils.getJsonBytes(sessionTimeZone, lazyObject.getObject(), fieldInspectors[column]));
+                slices[column] = SerDeUtils.getComplexValue(sessionTimeZone, lazyObject.getObject(), fieldInspectors[column], types[column]);
             }
             else {
                 // TODO: zero length BINARY is not supported. See https://issues.apache.org/jira/browse/HIVE-2483
@@ -577,7 +576,7 @@ class ColumnarBinaryHiveRecordCursor<K>
         else if (DOUBLE.equals(type)) {
             parseDoubleColumn(column);
         }
-        else if (VARCHAR.equals(type) || VARBINARY.equals(type)) {
+        else if (VARCHAR.equals(type) || VARBINARY.equals(type) || type instanceof ArrayType || type instanceof MapType) {
             parseStringColumn(column);
         }
         else if (TIMESTAMP.equals(type)) {
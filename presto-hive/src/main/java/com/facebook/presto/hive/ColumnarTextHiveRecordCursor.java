@@ -16,6 +16,8 @@ package com.facebook.presto.hive;
 import com.facebook.presto.hive.shaded.org.apache.commons.codec.binary.Base64;
 import com.facebook.presto.hive.util.SerDeUtils;
 import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.type.ArrayType;
+import com.facebook.presto.spi.type.MapType;
 import com.facebook.presto.spi.type.Type;
 import com.google.common.base.Charsets;
 import com.google.common.base.Throwables;
@@ -238,12 +240,10 @@ class ColumnarTextHiveRecordCursor<K>
 
             // reset loaded flags
             // partition keys are already loaded, but everything else is not
+            // columns are decoded on first access (which also sets the null flag), so
+            // only the columns read by the filter are decoded for rows it rejects
             System.arraycopy(isPartitionColumn, 0, loaded, 0, isPartitionColumn.length);
 
-            // reset null flags
-            // todo this shouldn't be needed
-            Arrays.fill(nulls, false);
-
             return true;
         }
         catch (IOException | RuntimeException e) {
@@ -479,13 +479,12 @@ class ColumnarTextHiveRecordCursor<K>
             wasNull = true;
         }
         else if (hiveTypes[column] == HiveType.MAP || hiveTypes[column] == HiveType.LIST || hiveTypes[column] == HiveType.STRUCT) {
-            // temporarily special case MAP, LIST, and STRUCT types as strings
-            // TODO: create a real parser for these complex types when we implement data types
+            // MAP and LIST are decoded into map and array values, and STRUCT is encoded as JSON
             LazyObject<? extends ObjectInspector> lazyObject = LazyFactory.createLazyObject(fieldInspectors[column]);
             ByteArrayRef byteArrayRef = new ByteArrayRef();
             byteArrayRef.setData(bytes);
             lazyObject.init(byteArrayRef, start, length);
-            slices[column] = Slices.wrappedBuffer(SerDeUtils.getJsonBytes(sessionTimeZone, lazyObject.getObject(), fieldInspectors[column]));
+            slices[column] = SerDeUtils.getComplexValue(sessionTimeZone, lazyObject.getObject(), fieldInspectors[column], types[column]);
             wasNull = false;
         }
         else {
@@ -524,7 +523,7 @@ class ColumnarTextHiveRecordCursor<K>
         else if (type.equals(DOUBLE)) {
             parseDoubleColumn(column);
         }
-        else if (VARCHAR.equals(type) || VARBINARY.equals(type)) {
+        else if (VARCHAR.equals(type) || VARBINARY.equals(type) || type instanceof ArrayType || type instanceof MapType) {
             parseStringColumn(column);
         }
         else if (type.equals(TIMESTAMP)) {
@@ -0,0 +1,163 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.spi.type.Type;
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Reads the files of a combined split one after the other. The cursor of
+ * each file is only opened once the previous file has been read.
+ */
+class CombinedHiveRecordCursor
+        extends HiveRecordCursor
+{
+    private final List<Type> types;
+    private final Iterator<HiveSplit> fileSplits;
+    private final Function<HiveSplit, HiveRecordCursor> cursorFactory;
+    private final long totalBytes;
+
+    private HiveRecordCursor cursor;
+    private long completedBytes;
+    private long completedReadTimeNanos;
+    private boolean closed;
+
+    public CombinedHiveRecordCursor(List<Type> types, List<HiveSplit> fileSplits, Function<HiveSplit, HiveRecordCursor> cursorFactory)
+    {
+        this.types = ImmutableList.copyOf(checkNotNull(types, "types is null"));
+        this.fileSplits = ImmutableList.copyOf(checkNotNull(fileSplits, "fileSplits is null")).iterator();
+        this.cursorFactory = checkNotNull(cursorFactory, "cursorFactory is null");
+
+        long totalBytes = 0;
+        for (HiveSplit fileSplit : fileSplits) {
+            totalBytes += fileSplit.getLength();
+        }
+        this.totalBytes = totalBytes;
+    }
+
+    @Override
+    public long getTotalBytes()
+    {
+        return totalBytes;
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        if (cursor == null) {
+            return completedBytes;
+        }
+        return completedBytes + cursor.getCompletedBytes();
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        long readTimeNanos = super.getReadTimeNanos() + completedReadTimeNanos;
+        if (cursor == null) {
+            return readTimeNanos;
+        }
+        return readTimeNanos + cursor.getReadTimeNanos();
+    }
+
+    @Override
+    public Type getType(int field)
+    {
+        return types.get(field);
+    }
+
+    @Override
+    public boolean advanceNextPosition()
+    {
+        while (!closed) {
+            if (cursor != null && cursor.advanceNextPosition()) {
+                return true;
+            }
+            closeCursor();
+
+            if (!fileSplits.hasNext()) {
+                close();
+                return false;
+            }
+            cursor = cursorFactory.apply(fileSplits.next());
+        }
+        return false;
+    }
+
+    @Override
+    public boolean getBoolean(int field)
+    {
+        return currentCursor().getBoolean(field);
+    }
+
+    @Override
+    public long getLong(int field)
+    {
+        return currentCursor().getLong(field);
+    }
+
+    @Override
+    public double getDouble(int field)
+    {
+        return currentCursor().getDouble(field);
+    }
+
+    @Override
+    public Slice getSlice(int field)
+    {
+        return currentCursor().getSlice(field);
+    }
+
+    @Override
+    public boolean isNull(int field)
+    {
+        return currentCursor().isNull(field);
+    }
+
+    @Override
+    public void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        closeCursor();
+    }
+
+    private HiveRecordCursor currentCursor()
+    {
+        checkState(cursor != null, "Cursor is not positioned on a row");
+        return cursor;
+    }
+
+    private void closeCursor()
+    {
+        if (cursor == null) {
+            return;
+        }
+        HiveRecordCursor current = cursor;
+        cursor = null;
+        completedBytes += current.getCompletedBytes();
+        completedReadTimeNanos += current.getReadTimeNanos();
+        current.close();
+    }
+}
@@ -15,6 +15,8 @@ package com.facebook.presto.hive;
 
 import com.facebook.presto.hive.util.SerDeUtils;
 import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.type.ArrayType;
+import com.facebook.presto.spi.type.MapType;
 import com.facebook.presto.spi.type.Type;
 import com.google.common.base.Charsets;
 import com.google.common.base.Throwables;
@@ -397,8 +399,8 @@ class GenericHiveRecordCursor<K, V extends Writable>
             nulls[column] = true;
         }
         else if (hiveTypes[column] == HiveType.MAP || hiveTypes[column] == HiveType.LIST || hiveTypes[column] == HiveType.STRUCT) {
-            // temporarily special case MAP, LIST, and STRUCT types as strings
-            slices[column] = Slices.wrappedBuffer(SerDeUtils.getJsonBytes(sessionTimeZone, fieldData, fieldInspectors[column]));
+            // MAP and LIST are decoded into map and array values, and STRUCT is encoded as JSON
+            slices[column] = SerDeUtils.getComplexValue(sessionTimeZone, fieldData, fieldInspectors[column], types[column]);
             nulls[column] = false;
         }
         else {
@@ -440,7 +442,7 @@ class GenericHiveRecordCursor<K, V extends Writable>
         else if (DOUBLE.equals(type)) {
             parseDoubleColumn(column);
         }
-        else if (VARCHAR.equals(type) || VARBINARY.equals(type)) {
+        else if (VARCHAR.equals(type) || VARBINARY.equals(type) || type instanceof ArrayType || type instanceof MapType) {
             parseStringColumn(column);
         }
         else if (TIMESTAMP.equals(type)) {
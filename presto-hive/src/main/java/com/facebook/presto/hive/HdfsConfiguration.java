@@ -16,6 +16,7 @@ package com.facebook.presto.hive;
 import com.google.common.collect.ImmutableList;
 import com.google.common.net.HostAndPort;
 import com.google.common.primitives.Ints;
+import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
@@ -25,7 +26,6 @@ import org.apache.hadoop.net.SocksSocketFactory;
 import javax.inject.Inject;
 import javax.net.SocketFactory;
 
-import java.io.File;
 import java.util.List;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -46,7 +46,10 @@ public class HdfsConfiguration
     private final int s3MaxErrorRetries;
     private final Duration s3MaxBackoffTime;
     private final Duration s3ConnectTimeout;
-    private final File s3StagingDirectory;
+    private final DataSize s3MultipartPartSize;
+    private final int s3MultipartMaxConcurrentParts;
+    private final DataSize s3ReadChunkSize;
+    private final int s3ReadMaxConcurrentChunks;
     private final List<String> resourcePaths;
 
     @SuppressWarnings("ThreadLocalNotStaticFinal")
@@ -77,7 +80,10 @@ public class HdfsConfiguration
         this.s3MaxErrorRetries = hiveClientConfig.getS3MaxErrorRetries();
         this.s3MaxBackoffTime = hiveClientConfig.getS3MaxBackoffTime();
         this.s3ConnectTimeout = hiveClientConfig.getS3ConnectTimeout();
-        this.s3StagingDirectory = hiveClientConfig.getS3StagingDirectory();
+        this.s3MultipartPartSize = hiveClientConfig.getS3MultipartPartSize();
+        this.s3MultipartMaxConcurrentParts = hiveClientConfig.getS3MultipartMaxConcurrentParts();
+        this.s3ReadChunkSize = hiveClientConfig.getS3ReadChunkSize();
+        this.s3ReadMaxConcurrentChunks = hiveClientConfig.getS3ReadMaxConcurrentChunks();
         this.resourcePaths = hiveClientConfig.getResourceConfigFiles();
     }
 
@@ -141,7 +147,10 @@ public class HdfsConfiguration
         config.setInt(PrestoS3FileSystem.S3_MAX_ERROR_RETRIES, s3MaxErrorRetries);
         config.set(PrestoS3FileSystem.S3_MAX_BACKOFF_TIME, s3MaxBackoffTime.toString());
         config.set(PrestoS3FileSystem.S3_CONNECT_TIMEOUT, s3ConnectTimeout.toString());
-        config.set(PrestoS3FileSystem.S3_STAGING_DIRECTORY, s3StagingDirectory.toString());
+        config.set(PrestoS3FileSystem.S3_MULTIPART_PART_SIZE, s3MultipartPartSize.toString());
+        config.setInt(PrestoS3FileSystem.S3_MULTIPART_MAX_CONCURRENT_PARTS, s3MultipartMaxConcurrentParts);
+        config.set(PrestoS3FileSystem.S3_READ_CHUNK_SIZE, s3ReadChunkSize.toString());
+        config.setInt(PrestoS3FileSystem.S3_READ_MAX_CONCURRENT_CHUNKS, s3ReadMaxConcurrentChunks);
 
         updateConfiguration(config);
 
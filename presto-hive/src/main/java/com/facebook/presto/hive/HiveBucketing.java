@@ -14,6 +14,7 @@
 package com.facebook.presto.hive;
 
 import com.facebook.presto.spi.ConnectorColumnHandle;
+import com.google.common.base.Joiner;
 import com.google.common.base.Objects;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
@@ -29,7 +30,9 @@ import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.StructField;
 import org.apache.hadoop.hive.serde2.objectinspector.primitive.IntObjectInspector;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -67,54 +70,89 @@ final class HiveBucketing
 
     public static Optional<HiveBucket> getHiveBucket(Table table, Map<ConnectorColumnHandle, ?> bindings)
     {
-        if (!table.getSd().isSetBucketCols() || table.getSd().getBucketCols().isEmpty() ||
-                !table.getSd().isSetNumBuckets() || (table.getSd().getNumBuckets() <= 0) ||
-                bindings.isEmpty()) {
+        if (bindings.isEmpty()) {
             return Optional.absent();
         }
 
-        List<String> bucketColumns = table.getSd().getBucketCols();
-        Map<String, ObjectInspector> objectInspectors = new HashMap<>();
-
-        // Get column name to object inspector mapping
-        for (StructField field : getTableStructFields(table)) {
-            objectInspectors.put(field.getFieldName(), field.getFieldObjectInspector());
-        }
-
-        // Verify the bucket column types are supported
-        for (String column : bucketColumns) {
-            ObjectInspector inspector = objectInspectors.get(column);
-            if ((inspector == null) || (inspector.getCategory() != Category.PRIMITIVE)) {
-                return Optional.absent();
-            }
-            if (!SUPPORTED_TYPES.contains(((PrimitiveObjectInspector) inspector).getPrimitiveCategory())) {
-                return Optional.absent();
-            }
+        Optional<Map<String, ObjectInspector>> bucketColumns = getBucketColumns(table);
+        if (!bucketColumns.isPresent()) {
+            return Optional.absent();
         }
 
         // Get bindings for bucket columns
         Map<String, Object> bucketBindings = new HashMap<>();
         for (Entry<ConnectorColumnHandle, ?> entry : bindings.entrySet()) {
             HiveColumnHandle colHandle = (HiveColumnHandle) entry.getKey();
-            if (bucketColumns.contains(colHandle.getName())) {
+            if (bucketColumns.get().containsKey(colHandle.getName())) {
                 bucketBindings.put(colHandle.getName(), entry.getValue());
             }
         }
 
         // Check that we have bindings for all bucket columns
-        if (bucketBindings.size() != bucketColumns.size()) {
+        if (bucketBindings.size() != bucketColumns.get().size()) {
             return Optional.absent();
         }
 
         // Get bindings of bucket columns
         ImmutableList.Builder<Entry<ObjectInspector, Object>> columnBindings = ImmutableList.builder();
-        for (String column : bucketColumns) {
-            columnBindings.add(immutableEntry(objectInspectors.get(column), bucketBindings.get(column)));
+        for (Entry<String, ObjectInspector> column : bucketColumns.get().entrySet()) {
+            columnBindings.add(immutableEntry(column.getValue(), bucketBindings.get(column.getKey())));
         }
 
         return getHiveBucket(columnBindings.build(), table.getSd().getNumBuckets());
     }
 
+    /**
+     * Returns an identifier of the function used to assign the rows of the table to buckets, or absent
+     * if the table is not bucketed or the types of its bucket columns are not supported. Hive hashes
+     * values differently depending on their type, so the identifier includes the bucket column types.
+     */
+    public static Optional<String> getBucketFunction(Table table)
+    {
+        Optional<Map<String, ObjectInspector>> bucketColumns = getBucketColumns(table);
+        if (!bucketColumns.isPresent()) {
+            return Optional.absent();
+        }
+
+        List<String> types = new ArrayList<>();
+        for (ObjectInspector inspector : bucketColumns.get().values()) {
+            types.add(inspector.getTypeName());
+        }
+        return Optional.of("hive:" + Joiner.on(',').join(types));
+    }
+
+    /**
+     * Returns the object inspectors of the bucket columns in bucketing order, or absent if the table
+     * is not bucketed or the types of its bucket columns are not supported.
+     */
+    private static Optional<Map<String, ObjectInspector>> getBucketColumns(Table table)
+    {
+        if (!table.getSd().isSetBucketCols() || table.getSd().getBucketCols().isEmpty() ||
+                !table.getSd().isSetNumBuckets() || (table.getSd().getNumBuckets() <= 0)) {
+            return Optional.absent();
+        }
+
+        // Get column name to object inspector mapping
+        Map<String, ObjectInspector> objectInspectors = new HashMap<>();
+        for (StructField field : getTableStructFields(table)) {
+            objectInspectors.put(field.getFieldName(), field.getFieldObjectInspector());
+        }
+
+        // Verify the bucket column types are supported
+        Map<String, ObjectInspector> bucketColumns = new LinkedHashMap<>();
+        for (String column : table.getSd().getBucketCols()) {
+            ObjectInspector inspector = objectInspectors.get(column);
+            if ((inspector == null) || (inspector.getCategory() != Category.PRIMITIVE)) {
+                return Optional.absent();
+            }
+            if (!SUPPORTED_TYPES.contains(((PrimitiveObjectInspector) inspector).getPrimitiveCategory())) {
+                return Optional.absent();
+            }
+            bucketColumns.put(column, inspector);
+        }
+        return Optional.of(bucketColumns);
+    }
+
     public static Optional<HiveBucket> getHiveBucket(List<Entry<ObjectInspector, Object>> columnBindings, int bucketCount)
     {
         try {
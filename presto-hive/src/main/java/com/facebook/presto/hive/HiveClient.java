@@ -17,7 +17,9 @@ import com.facebook.presto.hadoop.HadoopFileSystemCache;
 import com.facebook.presto.hadoop.HadoopNative;
 import com.facebook.presto.hive.metastore.HiveMetastore;
 import com.facebook.presto.hive.util.BoundedExecutor;
+import com.facebook.presto.hive.util.PrefetchingIterable;
 import com.facebook.presto.spi.ColumnMetadata;
+import com.facebook.presto.spi.ConnectorBucketing;
 import com.facebook.presto.spi.ConnectorColumnHandle;
 import com.facebook.presto.spi.ConnectorHandleResolver;
 import com.facebook.presto.spi.ConnectorIndexHandle;
@@ -69,6 +71,7 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.metastore.ProtectMode;
 import org.apache.hadoop.hive.metastore.TableType;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
 import org.apache.hadoop.hive.metastore.api.Database;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.MetaException;
@@ -85,6 +88,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -94,12 +98,14 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import static com.facebook.presto.hive.HiveBucketing.HiveBucket;
+import static com.facebook.presto.hive.HiveBucketing.getBucketFunction;
 import static com.facebook.presto.hive.HiveBucketing.getHiveBucket;
 import static com.facebook.presto.hive.HiveColumnHandle.SAMPLE_WEIGHT_COLUMN_NAME;
 import static com.facebook.presto.hive.HiveColumnHandle.hiveColumnHandle;
 import static com.facebook.presto.hive.HivePartition.UNPARTITIONED_ID;
 import static com.facebook.presto.hive.HiveType.columnTypeToHiveType;
 import static com.facebook.presto.hive.HiveType.getHiveType;
+import static com.facebook.presto.hive.HiveType.getNativeType;
 import static com.facebook.presto.hive.HiveType.getSupportedHiveType;
 import static com.facebook.presto.hive.HiveType.hiveTypeNameGetter;
 import static com.facebook.presto.hive.HiveUtil.PRESTO_VIEW_FLAG;
@@ -146,11 +152,15 @@ public class HiveClient
 
     private static final Logger log = Logger.get(HiveClient.class);
 
+    // maximum number of partial partition specs used to list the partition names of a single query
+    private static final int MAX_PARTITION_SPECS = 64;
+
     private final String connectorId;
     private final int maxOutstandingSplits;
     private final int maxSplitIteratorThreads;
     private final int minPartitionBatchSize;
     private final int maxPartitionBatchSize;
+    private final int maxConcurrentPartitionBatches;
     private final boolean allowDropTable;
     private final HiveMetastore metastore;
     private final NamenodeStats namenodeStats;
@@ -161,8 +171,12 @@ public class HiveClient
     private final DataSize maxSplitSize;
     private final DataSize maxInitialSplitSize;
     private final int maxInitialSplits;
+    private final int maxCombinedSplitFiles;
     private final HiveStorageFormat hiveStorageFormat;
+    private final HiveCompressionCodec hiveCompressionCodec;
     private final boolean recursiveDfsWalkerEnabled;
+    private final boolean bucketExecutionEnabled;
+    private final boolean statisticsPruningEnabled;
 
     @Inject
     public HiveClient(HiveConnectorId connectorId,
@@ -185,11 +199,16 @@ public class HiveClient
                 hiveClientConfig.getMaxSplitIteratorThreads(),
                 hiveClientConfig.getMinPartitionBatchSize(),
                 hiveClientConfig.getMaxPartitionBatchSize(),
+                hiveClientConfig.getMaxConcurrentPartitionBatches(),
                 hiveClientConfig.getMaxInitialSplitSize(),
                 hiveClientConfig.getMaxInitialSplits(),
+                hiveClientConfig.getMaxCombinedSplitFiles(),
                 hiveClientConfig.getAllowDropTable(),
                 hiveClientConfig.getHiveStorageFormat(),
-                false);
+                hiveClientConfig.getHiveCompressionCodec(),
+                false,
+                hiveClientConfig.isBucketExecutionEnabled(),
+                hiveClientConfig.isStatisticsPruningEnabled());
     }
 
     public HiveClient(HiveConnectorId connectorId,
@@ -204,11 +223,16 @@ public class HiveClient
             int maxSplitIteratorThreads,
             int minPartitionBatchSize,
             int maxPartitionBatchSize,
+            int maxConcurrentPartitionBatches,
             DataSize maxInitialSplitSize,
             int maxInitialSplits,
+            int maxCombinedSplitFiles,
             boolean allowDropTable,
             HiveStorageFormat hiveStorageFormat,
-            boolean recursiveDfsWalkerEnabled)
+            HiveCompressionCodec hiveCompressionCodec,
+            boolean recursiveDfsWalkerEnabled,
+            boolean bucketExecutionEnabled,
+            boolean statisticsPruningEnabled)
     {
         this.connectorId = checkNotNull(connectorId, "connectorId is null").toString();
 
@@ -218,8 +242,12 @@ public class HiveClient
         this.maxSplitIteratorThreads = maxSplitIteratorThreads;
         this.minPartitionBatchSize = minPartitionBatchSize;
         this.maxPartitionBatchSize = maxPartitionBatchSize;
+        checkArgument(maxConcurrentPartitionBatches > 0, "maxConcurrentPartitionBatches must be at least 1");
+        this.maxConcurrentPartitionBatches = maxConcurrentPartitionBatches;
         this.maxInitialSplitSize = checkNotNull(maxInitialSplitSize, "maxInitialSplitSize is null");
         this.maxInitialSplits = maxInitialSplits;
+        checkArgument(maxCombinedSplitFiles > 0, "maxCombinedSplitFiles must be at least 1");
+        this.maxCombinedSplitFiles = maxCombinedSplitFiles;
         this.allowDropTable = allowDropTable;
 
         this.metastore = checkNotNull(metastore, "metastore is null");
@@ -231,7 +259,10 @@ public class HiveClient
         this.executor = checkNotNull(executor, "executor is null");
 
         this.recursiveDfsWalkerEnabled = recursiveDfsWalkerEnabled;
+        this.bucketExecutionEnabled = bucketExecutionEnabled;
+        this.statisticsPruningEnabled = statisticsPruningEnabled;
         this.hiveStorageFormat = hiveStorageFormat;
+        this.hiveCompressionCodec = checkNotNull(hiveCompressionCodec, "hiveCompressionCodec is null");
     }
 
     public HiveMetastore getMetastore()
@@ -371,7 +402,8 @@ public class HiveClient
             // ignore unsupported types rather than failing
             HiveType hiveType = getHiveType(field.getFieldObjectInspector());
             if (hiveType != null && (includeSampleWeight || !field.getFieldName().equals(SAMPLE_WEIGHT_COLUMN_NAME))) {
-                columns.add(new HiveColumnHandle(connectorId, field.getFieldName(), hiveColumnIndex, hiveType, hiveColumnIndex, false));
+                Type type = getNativeType(field.getFieldObjectInspector());
+                columns.add(new HiveColumnHandle(connectorId, field.getFieldName(), hiveColumnIndex, hiveType, type, hiveColumnIndex, false));
             }
             hiveColumnIndex++;
         }
@@ -600,7 +632,7 @@ public class HiveClient
         Path target = new Path(handle.getTemporaryPath(), randomUUID().toString());
         JobConf conf = new JobConf(hdfsEnvironment.getConfiguration(target));
 
-        return new HiveRecordSink(handle, target, conf);
+        return new HiveRecordSink(handle, target, conf, hiveCompressionCodec);
     }
 
     private Database getDatabase(String database)
@@ -782,6 +814,7 @@ public class HiveClient
 
         List<FieldSchema> partitionKeys;
         Optional<HiveBucket> bucket;
+        Optional<ConnectorBucketing> bucketing;
 
         try {
             Table table = metastore.getTable(tableName.getSchemaName(), tableName.getTableName());
@@ -798,38 +831,24 @@ public class HiveClient
 
             partitionKeys = table.getPartitionKeys();
             bucket = getHiveBucket(table, tupleDomain.extractFixedValues());
+            bucketing = Optional.absent();
+            if (!bucket.isPresent()) {
+                // when the query reads a single bucket the data is no longer bucketed from the point of view of the engine
+                bucketing = getBucketing(table);
+            }
         }
         catch (NoSuchObjectException e) {
             throw new TableNotFoundException(tableName);
         }
 
         ImmutableMap.Builder<String, ConnectorColumnHandle> partitionKeysByNameBuilder = ImmutableMap.builder();
-        List<String> filterPrefix = new ArrayList<>();
+        List<HiveColumnHandle> partitionColumns = new ArrayList<>();
         for (int i = 0; i < partitionKeys.size(); i++) {
             FieldSchema field = partitionKeys.get(i);
 
             HiveColumnHandle columnHandle = new HiveColumnHandle(connectorId, field.getName(), i, getSupportedHiveType(field.getType()), -1, true);
             partitionKeysByNameBuilder.put(field.getName(), columnHandle);
-
-            // only add to prefix if all previous keys have a value
-            if (filterPrefix.size() == i && !tupleDomain.isNone()) {
-                Domain domain = tupleDomain.getDomains().get(columnHandle);
-                if (domain != null && domain.getRanges().getRangeCount() == 1) {
-                    // We intentionally ignore whether NULL is in the domain since partition keys can never be NULL
-                    Range range = Iterables.getOnlyElement(domain.getRanges());
-                    if (range.isSingleValue()) {
-                        Comparable<?> value = range.getLow().getValue();
-                        checkArgument(value instanceof Boolean || value instanceof Slice || value instanceof Double || value instanceof Long,
-                                "Only Boolean, Slice (UTF8 String), Double and Long partition keys are supported");
-                        if (value instanceof Slice) {
-                            filterPrefix.add(((Slice) value).toStringUtf8());
-                        }
-                        else {
-                            filterPrefix.add(value.toString());
-                        }
-                    }
-                }
-            }
+            partitionColumns.add(columnHandle);
         }
 
         // fetch the partition names
@@ -838,11 +857,17 @@ public class HiveClient
             if (partitionKeys.isEmpty()) {
                 partitionNames = ImmutableList.of(UNPARTITIONED_ID);
             }
-            else if (filterPrefix.isEmpty()) {
-                partitionNames = metastore.getPartitionNames(tableName.getSchemaName(), tableName.getTableName());
+            else if (tupleDomain.isNone()) {
+                partitionNames = ImmutableList.of();
             }
             else {
-                partitionNames = metastore.getPartitionNamesByParts(tableName.getSchemaName(), tableName.getTableName(), filterPrefix);
+                List<List<String>> partitionSpecs = getPartitionSpecs(partitionColumns, tupleDomain);
+                if (partitionSpecs.isEmpty()) {
+                    partitionNames = metastore.getPartitionNames(tableName.getSchemaName(), tableName.getTableName());
+                }
+                else {
+                    partitionNames = ImmutableList.copyOf(concat(new PrefetchingIterable<>(partitionSpecs, partitionNamesByParts(tableName), executor, maxConcurrentPartitionBatches)));
+                }
             }
         }
         catch (NoSuchObjectException e) {
@@ -863,7 +888,156 @@ public class HiveClient
             remainingTupleDomain = TupleDomain.withColumnDomains(Maps.filterKeys(tupleDomain.getDomains(), not(in(partitionKeysByName.values()))));
         }
 
-        return new ConnectorPartitionResult(partitions, remainingTupleDomain);
+        if (statisticsPruningEnabled && !remainingTupleDomain.isAll() && !partitions.isEmpty()) {
+            partitions = filterPartitionsByStatistics(tableName, partitions, remainingTupleDomain);
+        }
+
+        return new ConnectorPartitionResult(partitions, remainingTupleDomain, bucketing.orNull());
+    }
+
+    /**
+     * Drops the partitions whose column statistics prove that none of their rows match the
+     * remaining (non partition key) predicate. Partitions without statistics are kept.
+     */
+    private List<ConnectorPartition> filterPartitionsByStatistics(SchemaTableName tableName, List<ConnectorPartition> partitions, TupleDomain<ConnectorColumnHandle> tupleDomain)
+    {
+        try {
+            if (partitions.size() == 1 && partitions.get(0).getPartitionId().equals(UNPARTITIONED_ID)) {
+                Map<String, ColumnStatisticsObj> statistics = metastore.getTableColumnStatistics(tableName.getSchemaName(), tableName.getTableName());
+                if (!HiveColumnStatistics.canMatch(tupleDomain, statistics)) {
+                    return ImmutableList.of();
+                }
+                return partitions;
+            }
+
+            ImmutableList.Builder<ConnectorPartition> matchingPartitions = ImmutableList.builder();
+            for (List<ConnectorPartition> batch : Lists.partition(partitions, maxPartitionBatchSize)) {
+                List<String> partitionNames = Lists.transform(batch, HiveUtil.partitionIdGetter());
+                Map<String, Map<String, ColumnStatisticsObj>> statistics = metastore.getPartitionColumnStatistics(tableName.getSchemaName(), tableName.getTableName(), partitionNames);
+                for (ConnectorPartition partition : batch) {
+                    Map<String, ColumnStatisticsObj> partitionStatistics = statistics.get(partition.getPartitionId());
+                    if (partitionStatistics == null || HiveColumnStatistics.canMatch(tupleDomain, partitionStatistics)) {
+                        matchingPartitions.add(partition);
+                    }
+                }
+            }
+            return matchingPartitions.build();
+        }
+        catch (NoSuchObjectException e) {
+            throw new TableNotFoundException(tableName);
+        }
+    }
+
+    /**
+     * Builds the partial partition specs used to list the matching partition names from the metastore.
+     * A partition key constrained to a set of values is expanded to one spec per value, and any other
+     * key is left empty, which the metastore treats as a wildcard. Returns an empty list if no key
+     * is constrained.
+     */
+    private static List<List<String>> getPartitionSpecs(List<HiveColumnHandle> partitionColumns, TupleDomain<ConnectorColumnHandle> tupleDomain)
+    {
+        List<List<String>> partitionSpecs = ImmutableList.<List<String>>of(ImmutableList.<String>of());
+        int constrainedLength = 0;
+        for (HiveColumnHandle column : partitionColumns) {
+            List<String> values = getPartitionKeyValues(column, tupleDomain.getDomains().get(column));
+            if (values.isEmpty() || partitionSpecs.size() * values.size() > MAX_PARTITION_SPECS) {
+                values = ImmutableList.of("");
+            }
+            else {
+                constrainedLength = partitionSpecs.get(0).size() + 1;
+            }
+
+            ImmutableList.Builder<List<String>> specs = ImmutableList.builder();
+            for (List<String> spec : partitionSpecs) {
+                for (String value : values) {
+                    specs.add(ImmutableList.<String>builder().addAll(spec).add(value).build());
+                }
+            }
+            partitionSpecs = specs.build();
+        }
+
+        // trailing wildcards do not restrict the partition names
+        ImmutableList.Builder<List<String>> specs = ImmutableList.builder();
+        for (List<String> spec : partitionSpecs) {
+            if (constrainedLength > 0) {
+                specs.add(spec.subList(0, constrainedLength));
+            }
+        }
+        return specs.build();
+    }
+
+    /**
+     * Returns the partition name values of the single values of the domain, or an empty list if the
+     * domain is not a set of single values.
+     */
+    private static List<String> getPartitionKeyValues(HiveColumnHandle column, Domain domain)
+    {
+        // the values of timestamp keys are converted to millis, which can not be matched to the partition names
+        if (domain == null || column.getHiveType() == HiveType.TIMESTAMP) {
+            return ImmutableList.of();
+        }
+
+        ImmutableList.Builder<String> values = ImmutableList.builder();
+        // We intentionally ignore whether NULL is in the domain since partition keys can never be NULL
+        for (Range range : domain.getRanges()) {
+            if (!range.isSingleValue()) {
+                return ImmutableList.of();
+            }
+            Comparable<?> value = range.getLow().getValue();
+            checkArgument(value instanceof Boolean || value instanceof Slice || value instanceof Double || value instanceof Long,
+                    "Only Boolean, Slice (UTF8 String), Double and Long partition keys are supported");
+            if (value instanceof Slice) {
+                values.add(((Slice) value).toStringUtf8());
+            }
+            else {
+                values.add(value.toString());
+            }
+        }
+        return values.build();
+    }
+
+    private Function<List<String>, List<String>> partitionNamesByParts(final SchemaTableName tableName)
+    {
+        return new Function<List<String>, List<String>>()
+        {
+            @Override
+            public List<String> apply(List<String> parts)
+            {
+                try {
+                    return metastore.getPartitionNamesByParts(tableName.getSchemaName(), tableName.getTableName(), parts);
+                }
+                catch (NoSuchObjectException e) {
+                    throw new TableNotFoundException(tableName);
+                }
+            }
+        };
+    }
+
+    private Optional<ConnectorBucketing> getBucketing(Table table)
+    {
+        if (!bucketExecutionEnabled) {
+            return Optional.absent();
+        }
+
+        Optional<String> bucketFunction = getBucketFunction(table);
+        if (!bucketFunction.isPresent()) {
+            return Optional.absent();
+        }
+
+        Map<String, HiveColumnHandle> columnHandles = new HashMap<>();
+        for (HiveColumnHandle columnHandle : getColumnHandles(table, true)) {
+            columnHandles.put(columnHandle.getName(), columnHandle);
+        }
+
+        ImmutableList.Builder<ConnectorColumnHandle> bucketColumns = ImmutableList.builder();
+        for (String column : table.getSd().getBucketCols()) {
+            HiveColumnHandle columnHandle = columnHandles.get(column);
+            if (columnHandle == null) {
+                return Optional.absent();
+            }
+            bucketColumns.add(columnHandle);
+        }
+        return Optional.of(new ConnectorBucketing(bucketColumns.build(), table.getSd().getNumBuckets(), bucketFunction.get()));
     }
 
     @Override
@@ -899,6 +1073,7 @@ public class HiveClient
                 partitionNames,
                 hivePartitions,
                 bucket,
+                bucketExecutionEnabled && getBucketFunction(table).isPresent(),
                 maxSplitSize,
                 maxOutstandingSplits,
                 maxSplitIteratorThreads,
@@ -910,6 +1085,7 @@ public class HiveClient
                 hiveTableHandle.getSession(),
                 maxInitialSplitSize,
                 maxInitialSplits,
+                maxCombinedSplitFiles,
                 recursiveDfsWalkerEnabled).get();
     }
 
@@ -920,8 +1096,9 @@ public class HiveClient
             return ImmutableList.of(UNPARTITIONED_PARTITION);
         }
 
+        // the batches are loaded ahead of the split generation, which starts as soon as the first (small) batch is loaded
         Iterable<List<String>> partitionNameBatches = partitionExponentially(partitionNames, minPartitionBatchSize, maxPartitionBatchSize);
-        Iterable<List<Partition>> partitionBatches = transform(partitionNameBatches, new Function<List<String>, List<Partition>>()
+        Iterable<List<Partition>> partitionBatches = new PrefetchingIterable<>(partitionNameBatches, new Function<List<String>, List<Partition>>()
         {
             @Override
             public List<Partition> apply(List<String> partitionNameBatch)
@@ -966,7 +1143,7 @@ public class HiveClient
                 assert exception != null; // impossible
                 throw Throwables.propagate(exception);
             }
-        });
+        }, executor, maxConcurrentPartitionBatches);
         return concat(partitionBatches);
     }
 
@@ -14,28 +14,30 @@
 package com.facebook.presto.hive;
 
 import com.google.common.base.Splitter;
-import com.google.common.base.StandardSystemProperty;
 import com.google.common.collect.ImmutableList;
 import com.google.common.net.HostAndPort;
 import io.airlift.configuration.Config;
 import io.airlift.configuration.ConfigDescription;
+import io.airlift.configuration.DefunctConfig;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.airlift.units.MinDuration;
 
+import javax.validation.constraints.AssertTrue;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
-import java.io.File;
 import java.util.List;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 
+@DefunctConfig("hive.s3.staging-directory")
 public class HiveClientConfig
 {
     private static final Splitter SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+    private static final DataSize MIN_S3_MULTIPART_PART_SIZE = new DataSize(5, MEGABYTE);
 
     private TimeZone timeZone = TimeZone.getDefault();
 
@@ -45,13 +47,23 @@ public class HiveClientConfig
     private int maxSplitIteratorThreads = 50;
     private int minPartitionBatchSize = 10;
     private int maxPartitionBatchSize = 100;
+    private int maxConcurrentPartitionBatches = 4;
     private int maxInitialSplits = 200;
     private DataSize maxInitialSplitSize;
+    private int maxCombinedSplitFiles = 100;
     private boolean allowDropTable;
+    private boolean bucketExecutionEnabled = true;
+    private boolean statisticsPruningEnabled;
 
     private Duration metastoreCacheTtl = new Duration(1, TimeUnit.HOURS);
     private Duration metastoreRefreshInterval = new Duration(2, TimeUnit.MINUTES);
     private int maxMetastoreRefreshThreads = 100;
+
+    private Duration metastoreNegativeCacheTtl = new Duration(30, TimeUnit.SECONDS);
+    private long metastoreCacheMaximumSize = 10_000;
+    private long metastorePartitionCacheMaximumColumns = 10_000_000;
+    private Duration fileStatusCacheTtl = new Duration(1, TimeUnit.MINUTES);
+    private long fileStatusCacheMaxFiles = 100_000;
     private HostAndPort metastoreSocksProxy;
     private Duration metastoreTimeout = new Duration(10, TimeUnit.SECONDS);
 
@@ -68,9 +80,13 @@ public class HiveClientConfig
     private int s3MaxErrorRetries = 10;
     private Duration s3MaxBackoffTime = new Duration(10, TimeUnit.MINUTES);
     private Duration s3ConnectTimeout = new Duration(5, TimeUnit.SECONDS);
-    private File s3StagingDirectory = new File(StandardSystemProperty.JAVA_IO_TMPDIR.value());
+    private DataSize s3MultipartPartSize = new DataSize(16, MEGABYTE);
+    private int s3MultipartMaxConcurrentParts = 4;
+    private DataSize s3ReadChunkSize = new DataSize(2, MEGABYTE);
+    private int s3ReadMaxConcurrentChunks = 4;
 
     private HiveStorageFormat hiveStorageFormat = HiveStorageFormat.RCBINARY;
+    private HiveCompressionCodec hiveCompressionCodec = HiveCompressionCodec.GZIP;
 
     private List<String> resourceConfigFiles;
 
@@ -101,6 +117,20 @@ public class HiveClientConfig
         return this;
     }
 
+    @Min(1)
+    public int getMaxCombinedSplitFiles()
+    {
+        return maxCombinedSplitFiles;
+    }
+
+    @Config("hive.max-combined-split-files")
+    @ConfigDescription("Maximum number of small files read by a single split, or 1 to disable combining small files")
+    public HiveClientConfig setMaxCombinedSplitFiles(int maxCombinedSplitFiles)
+    {
+        this.maxCombinedSplitFiles = maxCombinedSplitFiles;
+        return this;
+    }
+
     @NotNull
     public TimeZone getTimeZone()
     {
@@ -185,6 +215,32 @@ public class HiveClientConfig
         return this;
     }
 
+    public boolean isBucketExecutionEnabled()
+    {
+        return bucketExecutionEnabled;
+    }
+
+    @Config("hive.bucket-execution-enabled")
+    @ConfigDescription("Expose the bucketing of tables so that joins and aggregations on the bucket columns can run without an exchange")
+    public HiveClientConfig setBucketExecutionEnabled(boolean bucketExecutionEnabled)
+    {
+        this.bucketExecutionEnabled = bucketExecutionEnabled;
+        return this;
+    }
+
+    public boolean isStatisticsPruningEnabled()
+    {
+        return statisticsPruningEnabled;
+    }
+
+    @Config("hive.statistics-pruning-enabled")
+    @ConfigDescription("Skip partitions whose metastore column statistics do not match the query predicate (requires up to date statistics)")
+    public HiveClientConfig setStatisticsPruningEnabled(boolean statisticsPruningEnabled)
+    {
+        this.statisticsPruningEnabled = statisticsPruningEnabled;
+        return this;
+    }
+
     @NotNull
     public Duration getMetastoreCacheTtl()
     {
@@ -211,6 +267,76 @@ public class HiveClientConfig
         return this;
     }
 
+    @NotNull
+    public Duration getMetastoreNegativeCacheTtl()
+    {
+        return metastoreNegativeCacheTtl;
+    }
+
+    @Config("hive.metastore-negative-cache-ttl")
+    @ConfigDescription("Time tables that do not exist are cached, or zero to disable negative caching")
+    public HiveClientConfig setMetastoreNegativeCacheTtl(Duration metastoreNegativeCacheTtl)
+    {
+        this.metastoreNegativeCacheTtl = metastoreNegativeCacheTtl;
+        return this;
+    }
+
+    @Min(1)
+    public long getMetastoreCacheMaximumSize()
+    {
+        return metastoreCacheMaximumSize;
+    }
+
+    @Config("hive.metastore-cache-maximum-size")
+    @ConfigDescription("Maximum number of entries in each of the database and table metastore caches")
+    public HiveClientConfig setMetastoreCacheMaximumSize(long metastoreCacheMaximumSize)
+    {
+        this.metastoreCacheMaximumSize = metastoreCacheMaximumSize;
+        return this;
+    }
+
+    @Min(1)
+    public long getMetastorePartitionCacheMaximumColumns()
+    {
+        return metastorePartitionCacheMaximumColumns;
+    }
+
+    @Config("hive.metastore-partition-cache-maximum-columns")
+    @ConfigDescription("Maximum total number of columns of the partitions, and of the partition statistics, in the metastore caches")
+    public HiveClientConfig setMetastorePartitionCacheMaximumColumns(long metastorePartitionCacheMaximumColumns)
+    {
+        this.metastorePartitionCacheMaximumColumns = metastorePartitionCacheMaximumColumns;
+        return this;
+    }
+
+    @NotNull
+    public Duration getFileStatusCacheTtl()
+    {
+        return fileStatusCacheTtl;
+    }
+
+    @Config("hive.file-status-cache-ttl")
+    @ConfigDescription("Time the file listings of a directory are cached, or zero to disable the cache")
+    public HiveClientConfig setFileStatusCacheTtl(Duration fileStatusCacheTtl)
+    {
+        this.fileStatusCacheTtl = fileStatusCacheTtl;
+        return this;
+    }
+
+    @Min(0)
+    public long getFileStatusCacheMaxFiles()
+    {
+        return fileStatusCacheMaxFiles;
+    }
+
+    @Config("hive.file-status-cache-max-files")
+    @ConfigDescription("Maximum total number of files in the cached directory listings")
+    public HiveClientConfig setFileStatusCacheMaxFiles(long fileStatusCacheMaxFiles)
+    {
+        this.fileStatusCacheMaxFiles = fileStatusCacheMaxFiles;
+        return this;
+    }
+
     @Min(1)
     public int getMaxMetastoreRefreshThreads()
     {
@@ -275,6 +401,20 @@ public class HiveClientConfig
         return this;
     }
 
+    @Min(1)
+    public int getMaxConcurrentPartitionBatches()
+    {
+        return maxConcurrentPartitionBatches;
+    }
+
+    @Config("hive.metastore.partition-batch-concurrency")
+    @ConfigDescription("Maximum number of partition batches of a table loaded from the metastore concurrently")
+    public HiveClientConfig setMaxConcurrentPartitionBatches(int maxConcurrentPartitionBatches)
+    {
+        this.maxConcurrentPartitionBatches = maxConcurrentPartitionBatches;
+        return this;
+    }
+
     public List<String> getResourceConfigFiles()
     {
         return resourceConfigFiles;
@@ -346,6 +486,20 @@ public class HiveClientConfig
         return this;
     }
 
+    @NotNull
+    public HiveCompressionCodec getHiveCompressionCodec()
+    {
+        return hiveCompressionCodec;
+    }
+
+    @Config("hive.compression-codec")
+    @ConfigDescription("Compression codec used for the files of tables created by Presto")
+    public HiveClientConfig setHiveCompressionCodec(HiveCompressionCodec hiveCompressionCodec)
+    {
+        this.hiveCompressionCodec = hiveCompressionCodec;
+        return this;
+    }
+
     public String getDomainSocketPath()
     {
         return domainSocketPath;
@@ -449,16 +603,65 @@ public class HiveClientConfig
     }
 
     @NotNull
-    public File getS3StagingDirectory()
+    public DataSize getS3MultipartPartSize()
+    {
+        return s3MultipartPartSize;
+    }
+
+    @Config("hive.s3.multipart.part-size")
+    @ConfigDescription("Size of the parts uploaded to S3 while a file is written (at least 5MB)")
+    public HiveClientConfig setS3MultipartPartSize(DataSize s3MultipartPartSize)
+    {
+        this.s3MultipartPartSize = s3MultipartPartSize;
+        return this;
+    }
+
+    @AssertTrue(message = "S3 multipart part size must be at least 5MB")
+    public boolean isS3MultipartPartSizeValid()
+    {
+        // S3 requires every part of a multipart upload except the last to be at least 5MB
+        return s3MultipartPartSize == null || s3MultipartPartSize.toBytes() >= MIN_S3_MULTIPART_PART_SIZE.toBytes();
+    }
+
+    @Min(1)
+    public int getS3MultipartMaxConcurrentParts()
+    {
+        return s3MultipartMaxConcurrentParts;
+    }
+
+    @Config("hive.s3.multipart.max-concurrent-parts")
+    @ConfigDescription("Maximum number of parts of a file uploaded to S3 concurrently")
+    public HiveClientConfig setS3MultipartMaxConcurrentParts(int s3MultipartMaxConcurrentParts)
+    {
+        this.s3MultipartMaxConcurrentParts = s3MultipartMaxConcurrentParts;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getS3ReadChunkSize()
+    {
+        return s3ReadChunkSize;
+    }
+
+    @Config("hive.s3.read.chunk-size")
+    @ConfigDescription("Size of the ranged requests used to read files from S3")
+    public HiveClientConfig setS3ReadChunkSize(DataSize s3ReadChunkSize)
+    {
+        this.s3ReadChunkSize = s3ReadChunkSize;
+        return this;
+    }
+
+    @Min(1)
+    public int getS3ReadMaxConcurrentChunks()
     {
-        return s3StagingDirectory;
+        return s3ReadMaxConcurrentChunks;
     }
 
-    @Config("hive.s3.staging-directory")
-    @ConfigDescription("Temporary directory for staging files before uploading to S3")
-    public HiveClientConfig setS3StagingDirectory(File s3StagingDirectory)
+    @Config("hive.s3.read.max-concurrent-chunks")
+    @ConfigDescription("Maximum number of chunks of a file read from S3 concurrently, including the read ahead")
+    public HiveClientConfig setS3ReadMaxConcurrentChunks(int s3ReadMaxConcurrentChunks)
     {
-        this.s3StagingDirectory = s3StagingDirectory;
+        this.s3ReadMaxConcurrentChunks = s3ReadMaxConcurrentChunks;
         return this;
     }
 }
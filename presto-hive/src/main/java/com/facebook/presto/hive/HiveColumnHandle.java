@@ -41,15 +41,22 @@ public class HiveColumnHandle
     private final String name;
     private final int ordinalPosition;
     private final HiveType hiveType;
+    private final Type type;
     private final int hiveColumnIndex;
     private final boolean partitionKey;
 
+    public HiveColumnHandle(String clientId, String name, int ordinalPosition, HiveType hiveType, int hiveColumnIndex, boolean partitionKey)
+    {
+        this(clientId, name, ordinalPosition, hiveType, checkNotNull(hiveType, "hiveType is null").getNativeType(), hiveColumnIndex, partitionKey);
+    }
+
     @JsonCreator
     public HiveColumnHandle(
             @JsonProperty("clientId") String clientId,
             @JsonProperty("name") String name,
             @JsonProperty("ordinalPosition") int ordinalPosition,
             @JsonProperty("hiveType") HiveType hiveType,
+            @JsonProperty("type") Type type,
             @JsonProperty("hiveColumnIndex") int hiveColumnIndex,
             @JsonProperty("partitionKey") boolean partitionKey)
     {
@@ -60,6 +67,7 @@ public class HiveColumnHandle
         checkArgument(hiveColumnIndex >= 0 || partitionKey, "hiveColumnIndex is negative");
         this.hiveColumnIndex = hiveColumnIndex;
         this.hiveType = checkNotNull(hiveType, "hiveType is null");
+        this.type = checkNotNull(type, "type is null");
         this.partitionKey = partitionKey;
     }
 
@@ -87,6 +95,12 @@ public class HiveColumnHandle
         return hiveType;
     }
 
+    @JsonProperty
+    public Type getType()
+    {
+        return type;
+    }
+
     @JsonProperty
     public int getHiveColumnIndex()
     {
@@ -101,18 +115,13 @@ public class HiveColumnHandle
 
     public ColumnMetadata getColumnMetadata()
     {
-        return new ColumnMetadata(name, hiveType.getNativeType(), ordinalPosition, partitionKey);
-    }
-
-    public Type getType()
-    {
-        return hiveType.getNativeType();
+        return new ColumnMetadata(name, type, ordinalPosition, partitionKey);
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hashCode(clientId, name, hiveColumnIndex, hiveType, partitionKey);
+        return Objects.hashCode(clientId, name, hiveColumnIndex, hiveType, type, partitionKey);
     }
 
     @Override
@@ -129,6 +138,7 @@ public class HiveColumnHandle
                 Objects.equal(this.name, other.name) &&
                 Objects.equal(this.hiveColumnIndex, other.hiveColumnIndex) &&
                 Objects.equal(this.hiveType, other.hiveType) &&
+                Objects.equal(this.type, other.type) &&
                 Objects.equal(this.partitionKey, other.partitionKey);
     }
 
@@ -140,6 +150,7 @@ public class HiveColumnHandle
                 .add("name", name)
                 .add("ordinalPosition", ordinalPosition)
                 .add("hiveType", hiveType)
+                .add("type", type)
                 .add("hiveColumnIndex", hiveColumnIndex)
                 .add("partitionKey", partitionKey)
                 .toString();
@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.spi.ConnectorColumnHandle;
+import com.facebook.presto.spi.Domain;
+import com.facebook.presto.spi.Range;
+import com.facebook.presto.spi.SortedRangeSet;
+import com.facebook.presto.spi.TupleDomain;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import org.apache.hadoop.hive.metastore.api.BooleanColumnStatsData;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsData;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
+import org.apache.hadoop.hive.metastore.api.DoubleColumnStatsData;
+import org.apache.hadoop.hive.metastore.api.LongColumnStatsData;
+
+import java.util.Map;
+
+import static com.facebook.presto.hive.util.Types.checkType;
+
+/**
+ * Converts the column statistics of the metastore to domains, so partitions whose
+ * values can not match the predicate of a query are not read.
+ */
+final class HiveColumnStatistics
+{
+    private HiveColumnStatistics() {}
+
+    /**
+     * Returns false if the statistics prove that no row can match the tuple domain.
+     */
+    public static boolean canMatch(TupleDomain<ConnectorColumnHandle> tupleDomain, Map<String, ColumnStatisticsObj> statistics)
+    {
+        if (tupleDomain.isNone()) {
+            return false;
+        }
+
+        for (Map.Entry<ConnectorColumnHandle, Domain> entry : tupleDomain.getDomains().entrySet()) {
+            HiveColumnHandle column = checkType(entry.getKey(), HiveColumnHandle.class, "columnHandle");
+            ColumnStatisticsObj columnStatistics = statistics.get(column.getName());
+            if (columnStatistics == null) {
+                continue;
+            }
+
+            Optional<Domain> statisticsDomain = getDomain(column.getHiveType(), columnStatistics.getStatsData());
+            if (statisticsDomain.isPresent() && !entry.getValue().overlaps(statisticsDomain.get())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the domain containing all values of a column, if the statistics describe it.
+     */
+    public static Optional<Domain> getDomain(HiveType type, ColumnStatisticsData statistics)
+    {
+        switch (type) {
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+                if (statistics.isSetLongStats()) {
+                    LongColumnStatsData longStatistics = statistics.getLongStats();
+                    Range range = Range.range(longStatistics.getLowValue(), true, longStatistics.getHighValue(), true);
+                    return Optional.of(Domain.create(SortedRangeSet.of(range), longStatistics.getNumNulls() > 0));
+                }
+                break;
+            case FLOAT:
+            case DOUBLE:
+                if (statistics.isSetDoubleStats()) {
+                    DoubleColumnStatsData doubleStatistics = statistics.getDoubleStats();
+                    if (Double.isNaN(doubleStatistics.getLowValue()) || Double.isNaN(doubleStatistics.getHighValue())) {
+                        return Optional.absent();
+                    }
+                    Range range = Range.range(doubleStatistics.getLowValue(), true, doubleStatistics.getHighValue(), true);
+                    return Optional.of(Domain.create(SortedRangeSet.of(range), doubleStatistics.getNumNulls() > 0));
+                }
+                break;
+            case BOOLEAN:
+                if (statistics.isSetBooleanStats()) {
+                    BooleanColumnStatsData booleanStatistics = statistics.getBooleanStats();
+                    ImmutableList.Builder<Range> ranges = ImmutableList.builder();
+                    if (booleanStatistics.getNumTrues() > 0) {
+                        ranges.add(Range.equal(true));
+                    }
+                    if (booleanStatistics.getNumFalses() > 0) {
+                        ranges.add(Range.equal(false));
+                    }
+                    return Optional.of(Domain.create(SortedRangeSet.copyOf(Boolean.class, ranges.build()), booleanStatistics.getNumNulls() > 0));
+                }
+                break;
+            case STRING:
+                // string statistics have no min or max value, but tell whether the column contains nulls
+                if (statistics.isSetStringStats() && statistics.getStringStats().getNumNulls() == 0) {
+                    return Optional.of(Domain.notNull(Slice.class));
+                }
+                break;
+        }
+        return Optional.absent();
+    }
+}
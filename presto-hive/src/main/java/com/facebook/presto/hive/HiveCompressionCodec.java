@@ -0,0 +1,38 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.google.common.base.Optional;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.GzipCodec;
+import org.apache.hadoop.io.compress.SnappyCodec;
+
+public enum HiveCompressionCodec
+{
+    NONE(null),
+    SNAPPY(SnappyCodec.class),
+    GZIP(GzipCodec.class);
+
+    private final Class<? extends CompressionCodec> codec;
+
+    HiveCompressionCodec(Class<? extends CompressionCodec> codec)
+    {
+        this.codec = codec;
+    }
+
+    public Optional<Class<? extends CompressionCodec>> getCodec()
+    {
+        return Optional.<Class<? extends CompressionCodec>>fromNullable(codec);
+    }
+}
@@ -25,7 +25,8 @@ public enum HiveErrorCode
     HIVE_FILE_NOT_FOUND(0x0100_0004),
     HIVE_UNKNOWN_ERROR(0x0100_0005),
     HIVE_PARTITION_OFFLINE(0x0100_0006),
-    HIVE_BAD_DATA(0x0100_0007);
+    HIVE_BAD_DATA(0x0100_0007),
+    HIVE_INVALID_BUCKET_FILES(0x0100_0008);
 
     private final ErrorCode errorCode;
 
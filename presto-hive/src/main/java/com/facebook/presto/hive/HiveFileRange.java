@@ -0,0 +1,95 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Objects;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A range of a file read by a {@link HiveSplit}.
+ */
+public class HiveFileRange
+{
+    private final String path;
+    private final long start;
+    private final long length;
+
+    @JsonCreator
+    public HiveFileRange(
+            @JsonProperty("path") String path,
+            @JsonProperty("start") long start,
+            @JsonProperty("length") long length)
+    {
+        checkNotNull(path, "path is null");
+        checkArgument(start >= 0, "start must be positive");
+        checkArgument(length >= 0, "length must be positive");
+
+        this.path = path;
+        this.start = start;
+        this.length = length;
+    }
+
+    @JsonProperty
+    public String getPath()
+    {
+        return path;
+    }
+
+    @JsonProperty
+    public long getStart()
+    {
+        return start;
+    }
+
+    @JsonProperty
+    public long getLength()
+    {
+        return length;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hashCode(path, start, length);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        HiveFileRange other = (HiveFileRange) obj;
+        return Objects.equal(this.path, other.path) &&
+                Objects.equal(this.start, other.start) &&
+                Objects.equal(this.length, other.length);
+    }
+
+    @Override
+    public String toString()
+    {
+        return Objects.toStringHelper(this)
+                .addValue(path)
+                .addValue(start)
+                .addValue(length)
+                .toString();
+    }
+}
@@ -18,6 +18,7 @@ import com.facebook.presto.hadoop.HadoopNative;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.RecordSet;
 import com.facebook.presto.spi.type.Type;
+import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
@@ -108,6 +109,23 @@ public class HiveRecordSet
         // Tell hive the columns we would like to read, this lets hive optimize reading column oriented files
         ColumnProjectionUtils.setReadColumnIDs(configuration, readHiveColumnIndexes);
 
+        List<HiveSplit> fileSplits = split.getFileSplits();
+        if (fileSplits.size() == 1) {
+            return createCursor(split, path);
+        }
+
+        return new CombinedHiveRecordCursor(columnTypes, fileSplits, new Function<HiveSplit, HiveRecordCursor>()
+        {
+            @Override
+            public HiveRecordCursor apply(HiveSplit fileSplit)
+            {
+                return createCursor(fileSplit, new Path(fileSplit.getPath()));
+            }
+        });
+    }
+
+    private HiveRecordCursor createCursor(HiveSplit split, Path path)
+    {
         RecordReader<?, ?> recordReader = createRecordReader(split, configuration, path);
 
         for (HiveRecordCursorProvider provider : cursorProviders) {
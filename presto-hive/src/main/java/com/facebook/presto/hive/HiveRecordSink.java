@@ -1,17 +1,3 @@
-/*
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *     http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
 /*
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,86 +14,81 @@
 package com.facebook.presto.hive;
 
 import com.facebook.presto.spi.RecordSink;
-import com.google.common.base.Joiner;
+import com.google.common.base.Optional;
 import com.google.common.base.Throwables;
-import com.google.common.collect.ImmutableList;
-import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
-import org.apache.hadoop.hive.ql.io.HiveOutputFormat;
+import org.apache.hadoop.hive.ql.io.RCFile;
 import org.apache.hadoop.hive.ql.io.RCFileOutputFormat;
-import org.apache.hadoop.hive.serde2.SerDeException;
-import org.apache.hadoop.hive.serde2.Serializer;
-import org.apache.hadoop.hive.serde2.columnar.LazyBinaryColumnarSerDe;
-import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
-import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
-import org.apache.hadoop.hive.serde2.objectinspector.SettableStructObjectInspector;
-import org.apache.hadoop.hive.serde2.objectinspector.StructField;
-import org.apache.hadoop.io.Text;
+import org.apache.hadoop.hive.serde2.ByteStream;
+import org.apache.hadoop.hive.serde2.columnar.BytesRefArrayWritable;
+import org.apache.hadoop.io.compress.CompressionCodec;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.Reporter;
+import org.apache.hadoop.util.ReflectionUtils;
 
 import java.io.IOException;
-import java.util.List;
-import java.util.Properties;
 
-import static com.facebook.presto.hive.HiveType.columnTypeToHiveType;
-import static com.facebook.presto.hive.HiveType.hiveTypeNameGetter;
 import static com.facebook.presto.hive.HiveColumnHandle.SAMPLE_WEIGHT_COLUMN_NAME;
+import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
-import static com.google.common.collect.Iterables.transform;
-import static java.nio.charset.StandardCharsets.UTF_8;
-import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.META_TABLE_COLUMNS;
-import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.META_TABLE_COLUMN_TYPES;
-import static org.apache.hadoop.hive.ql.exec.FileSinkOperator.RecordWriter;
-import static org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory.getStandardStructObjectInspector;
-import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaBooleanObjectInspector;
-import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaDoubleObjectInspector;
-import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaLongObjectInspector;
-import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaStringObjectInspector;
-
+import static org.apache.hadoop.hive.serde2.lazybinary.LazyBinaryUtils.writeDouble;
+import static org.apache.hadoop.hive.serde2.lazybinary.LazyBinaryUtils.writeVLong;
+
+/**
+ * Writes rows in the RCBINARY format (RCFile with {@code LazyBinaryColumnarSerDe} encoding).
+ * <p/>
+ * Values are encoded directly into a reusable row buffer and handed to the RCFile writer,
+ * which accumulates each column in its own buffer and compresses the columns of a row
+ * group when it is flushed. This avoids the Java objects and object inspectors of the
+ * Hive serializer.
+ */
 public class HiveRecordSink
         implements RecordSink
 {
+    // LazyBinaryColumnarSerDe encodes NULL as an empty field, so the empty string is a special byte
+    private static final byte HIVE_EMPTY_STRING_BYTE = (byte) 0xbf;
+
     private final int fieldCount;
-    @SuppressWarnings("deprecation")
-    private final Serializer serializer;
-    private final RecordWriter recordWriter;
-    private final SettableStructObjectInspector tableInspector;
-    private final List<StructField> structFields;
-    private final Object row;
     private final int sampleWeightField;
+    private final RCFile.Writer writer;
+
+    private final ByteStream.Output buffer = new ByteStream.Output();
+    private final int[] fieldStarts;
+    private final int[] fieldEnds;
+    private final BytesRefArrayWritable row;
 
     private int field = -1;
 
-    public HiveRecordSink(HiveOutputTableHandle handle, Path target, JobConf conf)
+    public HiveRecordSink(HiveOutputTableHandle handle, Path target, JobConf conf, HiveCompressionCodec compressionCodec)
     {
-        fieldCount = handle.getColumnNames().size();
+        checkNotNull(handle, "handle is null");
+        checkNotNull(target, "target is null");
+        checkNotNull(conf, "conf is null");
+        checkNotNull(compressionCodec, "compressionCodec is null");
 
+        fieldCount = handle.getColumnNames().size();
         sampleWeightField = handle.getColumnNames().indexOf(SAMPLE_WEIGHT_COLUMN_NAME);
 
-        Iterable<HiveType> hiveTypes = transform(handle.getColumnTypes(), columnTypeToHiveType());
-        Iterable<String> hiveTypeNames = transform(hiveTypes, hiveTypeNameGetter());
-
-        Properties properties = new Properties();
-        properties.setProperty(META_TABLE_COLUMNS, Joiner.on(',').join(handle.getColumnNames()));
-        properties.setProperty(META_TABLE_COLUMN_TYPES, Joiner.on(':').join(hiveTypeNames));
+        fieldStarts = new int[fieldCount];
+        fieldEnds = new int[fieldCount];
+        row = new BytesRefArrayWritable(fieldCount);
+        row.resetValid(fieldCount);
 
-        serializer = initializeSerializer(conf, properties, new LazyBinaryColumnarSerDe());
-        recordWriter = createRecordWriter(target, conf, properties, new RCFileOutputFormat());
-
-        tableInspector = getStandardStructObjectInspector(handle.getColumnNames(), getJavaObjectInspectors(hiveTypes));
-        structFields = ImmutableList.copyOf(tableInspector.getAllStructFieldRefs());
-        row = tableInspector.create();
+        writer = createWriter(target, conf, fieldCount, compressionCodec);
     }
 
     @Override
     public void beginRecord(long sampleWeight)
     {
         checkState(field == -1, "already in record");
+        buffer.reset();
+        field = 0;
         if (sampleWeightField >= 0) {
-            tableInspector.setStructFieldData(row, structFields.get(sampleWeightField), sampleWeight);
+            fieldStarts[sampleWeightField] = buffer.getCount();
+            writeVLong(buffer, sampleWeight);
+            fieldEnds[sampleWeightField] = buffer.getCount();
         }
-        field = 0;
         if (sampleWeightField == 0) {
             field++;
         }
@@ -120,10 +101,16 @@ public class HiveRecordSink
         checkState(field == fieldCount, "not all fields set");
         field = -1;
 
+        // the buffer can be reallocated while the fields are appended, so the references are set last
+        byte[] data = buffer.getData();
+        for (int i = 0; i < fieldCount; i++) {
+            row.unCheckedGet(i).set(data, fieldStarts[i], fieldEnds[i] - fieldStarts[i]);
+        }
+
         try {
-            recordWriter.write(serializer.serialize(row, tableInspector));
+            writer.append(row);
         }
-        catch (SerDeException | IOException e) {
+        catch (IOException e) {
             throw Throwables.propagate(e);
         }
     }
@@ -131,31 +118,45 @@ public class HiveRecordSink
     @Override
     public void appendNull()
     {
-        append(null);
+        startField();
+        endField();
     }
 
     @Override
     public void appendBoolean(boolean value)
     {
-        append(value);
+        startField();
+        buffer.write(value ? 1 : 0);
+        endField();
     }
 
     @Override
     public void appendLong(long value)
     {
-        append(value);
+        startField();
+        writeVLong(buffer, value);
+        endField();
     }
 
     @Override
     public void appendDouble(double value)
     {
-        append(value);
+        startField();
+        writeDouble(buffer, value);
+        endField();
     }
 
     @Override
     public void appendString(byte[] value)
     {
-        append(new String(value, UTF_8));
+        startField();
+        if (value.length == 0) {
+            buffer.write(HIVE_EMPTY_STRING_BYTE);
+        }
+        else {
+            buffer.write(value, 0, value.length);
+        }
+        endField();
     }
 
     @Override
@@ -164,7 +165,7 @@ public class HiveRecordSink
         checkState(field == -1, "record not finished");
 
         try {
-            recordWriter.close(false);
+            writer.close();
         }
         catch (IOException e) {
             throw Throwables.propagate(e);
@@ -173,61 +174,39 @@ public class HiveRecordSink
         return ""; // the committer can list the directory
     }
 
-    private void append(Object value)
+    private void startField()
     {
         checkState(field != -1, "not in record");
         checkState(field < fieldCount, "all fields already set");
 
-        tableInspector.setStructFieldData(row, structFields.get(field), value);
+        fieldStarts[field] = buffer.getCount();
+    }
+
+    private void endField()
+    {
+        fieldEnds[field] = buffer.getCount();
         field++;
         if (field == sampleWeightField) {
             field++;
         }
     }
 
-    @SuppressWarnings("deprecation")
-    private static Serializer initializeSerializer(Configuration conf, Properties properties, Serializer serializer)
+    private static RCFile.Writer createWriter(Path target, JobConf conf, int fieldCount, HiveCompressionCodec compressionCodec)
     {
-        try {
-            serializer.initialize(conf, properties);
-        }
-        catch (SerDeException e) {
-            throw Throwables.propagate(e);
+        RCFileOutputFormat.setColumnNumber(conf, fieldCount);
+
+        CompressionCodec codec = null;
+        Optional<Class<? extends CompressionCodec>> codecClass = compressionCodec.getCodec();
+        if (codecClass.isPresent()) {
+            codec = ReflectionUtils.newInstance(codecClass.get(), conf);
         }
-        return serializer;
-    }
 
-    private static RecordWriter createRecordWriter(Path target, JobConf conf, Properties properties, HiveOutputFormat<?, ?> outputFormat)
-    {
         try {
-            return outputFormat.getHiveRecordWriter(conf, target, Text.class, false, properties, Reporter.NULL);
+            FileSystem fileSystem = target.getFileSystem(conf);
+            return new RCFile.Writer(fileSystem, conf, target, Reporter.NULL, codec);
         }
         catch (IOException e) {
             throw Throwables.propagate(e);
         }
     }
-
-    private static List<ObjectInspector> getJavaObjectInspectors(Iterable<HiveType> hiveTypes)
-    {
-        ImmutableList.Builder<ObjectInspector> list = ImmutableList.builder();
-        for (HiveType type : hiveTypes) {
-            list.add(getJavaObjectInspector(type));
-        }
-        return list.build();
-    }
-
-    private static PrimitiveObjectInspector getJavaObjectInspector(HiveType type)
-    {
-        switch (type) {
-            case BOOLEAN:
-                return javaBooleanObjectInspector;
-            case LONG:
-                return javaLongObjectInspector;
-            case DOUBLE:
-                return javaDoubleObjectInspector;
-            case STRING:
-                return javaStringObjectInspector;
-        }
-        throw new IllegalArgumentException("unsupported type: " + type);
-    }
 }
@@ -13,23 +13,27 @@
  */
 package com.facebook.presto.hive;
 
+import com.facebook.presto.spi.ConnectorBucketedSplit;
 import com.facebook.presto.spi.ConnectorSession;
-import com.facebook.presto.spi.ConnectorSplit;
 import com.facebook.presto.spi.HostAddress;
+import com.facebook.presto.spi.PrestoException;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Objects;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
 import java.util.List;
 import java.util.Properties;
 
+import static com.facebook.presto.hive.HiveErrorCode.HIVE_INVALID_BUCKET_FILES;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.String.format;
 
 public class HiveSplit
-        implements ConnectorSplit
+        implements ConnectorBucketedSplit
 {
     private final String clientId;
     private final String path;
@@ -41,7 +45,9 @@ public class HiveSplit
     private final String database;
     private final String table;
     private final String partitionName;
+    private final Optional<Integer> bucketNumber;
     private final ConnectorSession session;
+    private final List<HiveFileRange> combinedFiles;
 
     @JsonCreator
     public HiveSplit(
@@ -55,7 +61,9 @@ public class HiveSplit
             @JsonProperty("schema") Properties schema,
             @JsonProperty("partitionKeys") List<HivePartitionKey> partitionKeys,
             @JsonProperty("addresses") List<HostAddress> addresses,
-            @JsonProperty("session") ConnectorSession session)
+            @JsonProperty("bucketNumber") Optional<Integer> bucketNumber,
+            @JsonProperty("session") ConnectorSession session,
+            @JsonProperty("combinedFiles") List<HiveFileRange> combinedFiles)
     {
         this.session = session;
         checkNotNull(clientId, "clientId is null");
@@ -68,6 +76,9 @@ public class HiveSplit
         checkNotNull(schema, "schema is null");
         checkNotNull(partitionKeys, "partitionKeys is null");
         checkNotNull(addresses, "addresses is null");
+        checkNotNull(bucketNumber, "bucketNumber is null");
+        checkNotNull(combinedFiles, "combinedFiles is null");
+        checkArgument(combinedFiles.isEmpty() || !bucketNumber.isPresent(), "bucketed splits can not combine files");
 
         this.clientId = clientId;
         this.database = database;
@@ -79,6 +90,8 @@ public class HiveSplit
         this.schema = schema;
         this.partitionKeys = ImmutableList.copyOf(partitionKeys);
         this.addresses = ImmutableList.copyOf(addresses);
+        this.bucketNumber = bucketNumber;
+        this.combinedFiles = ImmutableList.copyOf(combinedFiles);
     }
 
     @JsonProperty
@@ -142,12 +155,54 @@ public class HiveSplit
         return addresses;
     }
 
+    @JsonProperty("bucketNumber")
+    public Optional<Integer> getOptionalBucketNumber()
+    {
+        return bucketNumber;
+    }
+
+    @Override
+    public int getBucketNumber()
+    {
+        if (!bucketNumber.isPresent()) {
+            // the files of the partition did not match the bucketing of the table when the splits were listed
+            throw new PrestoException(HIVE_INVALID_BUCKET_FILES.toErrorCode(), format("Partition %s of table %s.%s does not contain one file per bucket", partitionName, database, table));
+        }
+        return bucketNumber.get();
+    }
+
     @JsonProperty
     public ConnectorSession getSession()
     {
         return session;
     }
 
+    /**
+     * Small files of the same partition that are read by this split after the file at {@link #getPath()}.
+     */
+    @JsonProperty
+    public List<HiveFileRange> getCombinedFiles()
+    {
+        return combinedFiles;
+    }
+
+    /**
+     * Returns a split for each of the files read by this split.
+     */
+    public List<HiveSplit> getFileSplits()
+    {
+        if (combinedFiles.isEmpty()) {
+            return ImmutableList.of(this);
+        }
+
+        ImmutableList.Builder<HiveSplit> splits = ImmutableList.builder();
+        splits.add(new HiveSplit(clientId, database, table, partitionName, path, start, length, schema, partitionKeys, addresses, bucketNumber, session, ImmutableList.<HiveFileRange>of()));
+        for (HiveFileRange file : combinedFiles) {
+            splits.add(new HiveSplit(clientId, database, table, partitionName, file.getPath(), file.getStart(), file.getLength(), schema, partitionKeys, addresses, bucketNumber, session, ImmutableList.<HiveFileRange>of()));
+        }
+        return splits.build();
+    }
+
     @Override
     public boolean isRemotelyAccessible()
     {
@@ -165,6 +220,8 @@ public class HiveSplit
                 .put("database", database)
                 .put("table", table)
                 .put("partitionName", partitionName)
+                .put("bucketNumber", bucketNumber.isPresent() ? bucketNumber.get() : "none")
+                .put("combinedFiles", combinedFiles.size())
                 .build();
     }
 
@@ -175,6 +232,7 @@ public class HiveSplit
                 .addValue(path)
                 .addValue(start)
                 .addValue(length)
+                .add("combinedFiles", combinedFiles.size())
                 .toString();
     }
 }
@@ -24,6 +24,7 @@ import com.facebook.presto.spi.ConnectorSplitSource;
 import com.facebook.presto.spi.HostAddress;
 import com.facebook.presto.spi.PrestoException;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
@@ -35,7 +36,9 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.BlockLocation;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
 import org.apache.hadoop.hive.metastore.MetaStoreUtils;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.Partition;
@@ -107,6 +110,7 @@ class HiveSplitSourceProvider
     private final Iterable<String> partitionNames;
     private final Iterable<Partition> partitions;
     private final Optional<HiveBucket> bucket;
+    private final boolean bucketExecutionEnabled;
     private final int maxOutstandingSplits;
     private final int maxThreads;
     private final HdfsEnvironment hdfsEnvironment;
@@ -118,6 +122,7 @@ class HiveSplitSourceProvider
     private final int maxPartitionBatchSize;
     private final DataSize maxInitialSplitSize;
     private long remainingInitialSplits;
+    private final int maxCombinedSplitFiles;
     private final ConnectorSession session;
     private final boolean recursiveDirWalkerEnabled;
 
@@ -126,6 +131,7 @@ class HiveSplitSourceProvider
             Iterable<String> partitionNames,
             Iterable<Partition> partitions,
             Optional<HiveBucket> bucket,
+            boolean bucketExecutionEnabled,
             DataSize maxSplitSize,
             int maxOutstandingSplits,
             int maxThreads,
@@ -137,6 +143,7 @@ class HiveSplitSourceProvider
             ConnectorSession session,
             DataSize maxInitialSplitSize,
             int maxInitialSplits,
+            int maxCombinedSplitFiles,
             boolean recursiveDirWalkerEnabled)
     {
         this.connectorId = connectorId;
@@ -144,6 +151,7 @@ class HiveSplitSourceProvider
         this.partitionNames = partitionNames;
         this.partitions = partitions;
         this.bucket = bucket;
+        this.bucketExecutionEnabled = bucketExecutionEnabled;
         this.maxSplitSize = maxSplitSize;
         this.maxPartitionBatchSize = maxPartitionBatchSize;
         this.maxOutstandingSplits = maxOutstandingSplits;
@@ -156,6 +164,7 @@ class HiveSplitSourceProvider
         this.classLoader = Thread.currentThread().getContextClassLoader();
         this.maxInitialSplitSize = maxInitialSplitSize;
         this.remainingInitialSplits = maxInitialSplits;
+        this.maxCombinedSplitFiles = maxCombinedSplitFiles;
         this.recursiveDirWalkerEnabled = recursiveDirWalkerEnabled;
     }
 
@@ -220,6 +229,7 @@ class HiveSplitSourceProvider
                                 schema,
                                 partitionKeys,
                                 false,
+                                Optional.<Integer>absent(),
                                 session));
                     }
                     continue;
@@ -227,16 +237,30 @@ class HiveSplitSourceProvider
 
                 // TODO: this is currently serial across all partitions and should be done in suspendingExecutor
                 if (bucket.isPresent()) {
-                    Optional<FileStatus> bucketFile = getBucketFile(bucket.get(), fs, path);
+                    Optional<LocatedFileStatus> bucketFile = getBucketFile(bucket.get(), fs, path);
                     if (bucketFile.isPresent()) {
-                        FileStatus file = bucketFile.get();
-                        BlockLocation[] blockLocations = fs.getFileBlockLocations(file, 0, file.getLen());
+                        LocatedFileStatus file = bucketFile.get();
+                        BlockLocation[] blockLocations = file.getBlockLocations();
                         boolean splittable = isSplittable(inputFormat, fs, file.getPath());
 
-                        hiveSplitSource.addToQueue(createHiveSplits(partitionName, file, blockLocations, 0, file.getLen(), schema, partitionKeys, splittable, session));
+                        hiveSplitSource.addToQueue(createHiveSplits(partitionName, file, blockLocations, 0, file.getLen(), schema, partitionKeys, splittable, Optional.<Integer>absent(), session));
                         continue;
                     }
                 }
+                else if (bucketExecutionEnabled) {
+                    Optional<List<LocatedFileStatus>> bucketFiles = getBucketFiles(table.getSd().getNumBuckets(), fs, path);
+                    if (bucketFiles.isPresent()) {
+                        for (int bucketNumber = 0; bucketNumber < bucketFiles.get().size(); bucketNumber++) {
+                            LocatedFileStatus file = bucketFiles.get().get(bucketNumber);
+                            BlockLocation[] blockLocations = file.getBlockLocations();
+                            boolean splittable = isSplittable(inputFormat, fs, file.getPath());
+
+                            hiveSplitSource.addToQueue(createHiveSplits(partitionName, file, blockLocations, 0, file.getLen(), schema, partitionKeys, splittable, Optional.of(bucketNumber), session));
+                        }
+                        continue;
+                    }
+                    // otherwise the splits are created without bucket numbers, which fails the query only if it relies on the bucketing
+                }
 
                 // Acquire semaphore so that we only have a fixed number of outstanding partitions being processed asynchronously
                 // NOTE: there must not be any calls that throw in the space between acquiring the semaphore and setting the Future
@@ -249,15 +273,22 @@ class HiveSplitSourceProvider
                     return;
                 }
 
-                ListenableFuture<Void> partitionFuture = createAsyncWalker(fs, suspendingExecutor).beginWalk(path, new FileStatusCallback()
+                final CombinedSplitBuilder combinedSplitBuilder = new CombinedSplitBuilder(hiveSplitSource, partitionName, schema, partitionKeys);
+                ListenableFuture<Void> walkFuture = createAsyncWalker(fs, suspendingExecutor).beginWalk(path, new FileStatusCallback()
                 {
                     @Override
                     public void process(FileStatus file, BlockLocation[] blockLocations)
                     {
                         try {
+                            // small files are packed into combined splits instead of creating a split for each file
+                            if (maxCombinedSplitFiles > 1 && file.getLen() < getMaxSplitBytes()) {
+                                combinedSplitBuilder.add(file, blockLocations);
+                                return;
+                            }
+
                             boolean splittable = isSplittable(inputFormat, file.getPath().getFileSystem(configuration), file.getPath());
 
-                            hiveSplitSource.addToQueue(createHiveSplits(partitionName, file, blockLocations, 0, file.getLen(), schema, partitionKeys, splittable, session));
+                            hiveSplitSource.addToQueue(createHiveSplits(partitionName, file, blockLocations, 0, file.getLen(), schema, partitionKeys, splittable, Optional.<Integer>absent(), session));
                         }
                         catch (IOException e) {
                             hiveSplitSource.fail(e);
@@ -265,6 +296,17 @@ class HiveSplitSourceProvider
                     }
                 });
 
+                // queue the last combined split of the partition once all files have been listed
+                ListenableFuture<Void> partitionFuture = Futures.transform(walkFuture, new Function<Void, Void>()
+                {
+                    @Override
+                    public Void apply(Void input)
+                    {
+                        combinedSplitBuilder.flush();
+                        return null;
+                    }
+                });
+
                 // release the semaphore when the partition finishes
                 Futures.addCallback(partitionFuture, new FutureCallback<Void>()
                 {
@@ -311,17 +353,31 @@ class HiveSplitSourceProvider
         return new AsyncWalker(fs, suspendingExecutor, directoryLister, namenodeStats, recursiveDirWalkerEnabled);
     }
 
-    private static Optional<FileStatus> getBucketFile(HiveBucket bucket, FileSystem fs, Path path)
+    private Optional<LocatedFileStatus> getBucketFile(HiveBucket bucket, FileSystem fs, Path path)
+    {
+        Optional<List<LocatedFileStatus>> bucketFiles = getBucketFiles(bucket.getBucketCount(), fs, path);
+        if (!bucketFiles.isPresent()) {
+            return Optional.absent();
+        }
+        return Optional.of(bucketFiles.get().get(bucket.getBucketNumber()));
+    }
+
+    /**
+     * Returns the files of a bucketed partition ordered by bucket number, or absent if the
+     * partition does not contain exactly one file per bucket. The files are listed with their
+     * block locations, so no further namenode calls are needed to create the splits.
+     */
+    private Optional<List<LocatedFileStatus>> getBucketFiles(int bucketCount, FileSystem fs, Path path)
     {
-        FileStatus[] statuses = listStatus(fs, path);
+        List<LocatedFileStatus> statuses = listLocatedStatus(fs, path);
 
-        if (statuses.length != bucket.getBucketCount()) {
+        if (statuses.size() != bucketCount) {
             return Optional.absent();
         }
 
-        Map<String, FileStatus> map = new HashMap<>();
+        Map<String, LocatedFileStatus> map = new HashMap<>();
         List<String> paths = new ArrayList<>();
-        for (FileStatus status : statuses) {
+        for (LocatedFileStatus status : statuses) {
             if (!isFile(status)) {
                 return Optional.absent();
             }
@@ -333,14 +389,22 @@ class HiveSplitSourceProvider
         // Hive sorts the paths as strings lexicographically
         Collections.sort(paths);
 
-        String pathString = paths.get(bucket.getBucketNumber());
-        return Optional.of(map.get(pathString));
+        ImmutableList.Builder<LocatedFileStatus> files = ImmutableList.builder();
+        for (String pathString : paths) {
+            files.add(map.get(pathString));
+        }
+        return Optional.<List<LocatedFileStatus>>of(files.build());
     }
 
-    private static FileStatus[] listStatus(FileSystem fs, Path path)
+    private List<LocatedFileStatus> listLocatedStatus(FileSystem fs, Path path)
     {
         try {
-            return fs.listStatus(path);
+            ImmutableList.Builder<LocatedFileStatus> statuses = ImmutableList.builder();
+            RemoteIterator<LocatedFileStatus> iterator = directoryLister.list(fs, path);
+            while (iterator.hasNext()) {
+                statuses.add(iterator.next());
+            }
+            return statuses.build();
         }
         catch (IOException e) {
             throw Throwables.propagate(e);
@@ -356,6 +420,7 @@ class HiveSplitSourceProvider
             Properties schema,
             List<HivePartitionKey> partitionKeys,
             boolean splittable,
+            Optional<Integer> bucketNumber,
             ConnectorSession session)
             throws IOException
     {
@@ -365,11 +430,7 @@ class HiveSplitSourceProvider
                 // get the addresses for the block
                 List<HostAddress> addresses = toHostAddress(blockLocation.getHosts());
 
-                long maxBytes = maxSplitSize.toBytes();
-
-                if (remainingInitialSplits > 0) {
-                    maxBytes = maxInitialSplitSize.toBytes();
-                }
+                long maxBytes = getMaxSplitBytes();
 
                 // divide the block into uniform chunks that are smaller than the max split size
                 int chunks = Math.max(1, (int) (blockLocation.getLength() / maxBytes));
@@ -391,7 +452,9 @@ class HiveSplitSourceProvider
                             schema,
                             partitionKeys,
                             addresses,
-                            session));
+                            bucketNumber,
+                            session,
+                            ImmutableList.<HiveFileRange>of()));
 
                     chunkOffset += chunkLength;
                     remainingInitialSplits--;
@@ -416,11 +479,89 @@ class HiveSplitSourceProvider
                     schema,
                     partitionKeys,
                     addresses,
-                    session));
+                    bucketNumber,
+                    session,
+                    ImmutableList.<HiveFileRange>of()));
         }
         return builder.build();
     }
 
+    private long getMaxSplitBytes()
+    {
+        if (remainingInitialSplits > 0) {
+            return maxInitialSplitSize.toBytes();
+        }
+        return maxSplitSize.toBytes();
+    }
+
+    /**
+     * Packs the small files of a partition into splits of up to the max split size.
+     */
+    private class CombinedSplitBuilder
+    {
+        private final HiveSplitSource hiveSplitSource;
+        private final String partitionName;
+        private final Properties schema;
+        private final List<HivePartitionKey> partitionKeys;
+
+        @GuardedBy("this")
+        private final List<HiveFileRange> files = new ArrayList<>();
+        @GuardedBy("this")
+        private long size;
+        @GuardedBy("this")
+        private List<HostAddress> addresses = ImmutableList.of();
+
+        private CombinedSplitBuilder(HiveSplitSource hiveSplitSource, String partitionName, Properties schema, List<HivePartitionKey> partitionKeys)
+        {
+            this.hiveSplitSource = hiveSplitSource;
+            this.partitionName = partitionName;
+            this.schema = schema;
+            this.partitionKeys = partitionKeys;
+        }
+
+        public synchronized void add(FileStatus file, BlockLocation[] blockLocations)
+                throws IOException
+        {
+            if (!files.isEmpty() && ((size + file.getLen() > getMaxSplitBytes()) || (files.size() >= maxCombinedSplitFiles))) {
+                flush();
+            }
+
+            // the split is scheduled near the hosts of the first file
+            if (files.isEmpty() && blockLocations.length > 0) {
+                addresses = toHostAddress(blockLocations[0].getHosts());
+            }
+            files.add(new HiveFileRange(file.getPath().toString(), 0, file.getLen()));
+            size += file.getLen();
+        }
+
+        public synchronized void flush()
+        {
+            if (files.isEmpty()) {
+                return;
+            }
+
+            HiveFileRange first = files.get(0);
+            hiveSplitSource.addToQueue(new HiveSplit(connectorId,
+                    table.getDbName(),
+                    table.getTableName(),
+                    partitionName,
+                    first.getPath(),
+                    first.getStart(),
+                    first.getLength(),
+                    schema,
+                    partitionKeys,
+                    addresses,
+                    Optional.<Integer>absent(),
+                    session,
+                    files.subList(1, files.size())));
+            remainingInitialSplits--;
+
+            files.clear();
+            size = 0;
+            addresses = ImmutableList.of();
+        }
+    }
+
     private static List<HostAddress> toHostAddress(String[] hosts)
     {
         ImmutableList.Builder<HostAddress> builder = ImmutableList.builder();
@@ -13,9 +13,11 @@
  */
 package com.facebook.presto.hive;
 
+import com.facebook.presto.spi.type.ArrayType;
 import com.facebook.presto.spi.type.BigintType;
 import com.facebook.presto.spi.type.BooleanType;
 import com.facebook.presto.spi.type.DoubleType;
+import com.facebook.presto.spi.type.MapType;
 import com.facebook.presto.spi.type.TimestampType;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.VarbinaryType;
@@ -23,7 +25,10 @@ import com.facebook.presto.spi.type.VarcharType;
 import com.google.common.base.Function;
 import com.google.common.collect.BiMap;
 import com.google.common.collect.ImmutableBiMap;
+import org.apache.hadoop.hive.serde2.objectinspector.ListObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.MapObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector.Category;
 import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -162,6 +167,51 @@ public enum HiveType
         }
     }
 
+    /**
+     * Gets the Presto type for values of the specified inspector, or null if the
+     * values are not supported. Lists and maps are read as arrays and maps when
+     * all of their elements can be represented, with nested structs encoded as
+     * JSON. Other complex values are read as JSON encoded varchar.
+     */
+    public static Type getNativeType(ObjectInspector fieldInspector)
+    {
+        Category category = fieldInspector.getCategory();
+        if (category == Category.LIST || category == Category.MAP) {
+            Type type = getElementType(fieldInspector);
+            if (type != null) {
+                return type;
+            }
+        }
+
+        HiveType hiveType = getHiveType(fieldInspector);
+        if (hiveType == null) {
+            return null;
+        }
+        return hiveType.getNativeType();
+    }
+
+    private static Type getElementType(ObjectInspector inspector)
+    {
+        switch (inspector.getCategory()) {
+            case PRIMITIVE:
+                HiveType hiveType = getHiveType(((PrimitiveObjectInspector) inspector).getPrimitiveCategory());
+                return (hiveType == null) ? null : hiveType.getNativeType();
+            case LIST:
+                Type elementType = getElementType(((ListObjectInspector) inspector).getListElementObjectInspector());
+                return (elementType == null) ? null : new ArrayType(elementType);
+            case MAP:
+                MapObjectInspector mapInspector = (MapObjectInspector) inspector;
+                Type keyType = getElementType(mapInspector.getMapKeyObjectInspector());
+                Type valueType = getElementType(mapInspector.getMapValueObjectInspector());
+                return (keyType == null || valueType == null) ? null : new MapType(keyType, valueType);
+            case STRUCT:
+            case UNION:
+                return VarcharType.VARCHAR;
+            default:
+                return null;
+        }
+    }
+
     public static HiveType toHiveType(Type type)
     {
         if (BooleanType.BOOLEAN.equals(type)) {
@@ -20,18 +20,24 @@ import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3Client;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
 import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
 import com.amazonaws.services.s3.model.ListObjectsRequest;
 import com.amazonaws.services.s3.model.ObjectListing;
 import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
 import com.amazonaws.services.s3.model.S3Object;
-import com.amazonaws.services.s3.model.S3ObjectInputStream;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Throwables;
 import com.google.common.collect.AbstractSequentialIterator;
 import com.google.common.collect.Iterators;
+import com.google.common.io.ByteStreams;
 import com.google.common.primitives.Ints;
 import io.airlift.log.Logger;
 import io.airlift.units.DataSize;
@@ -51,19 +57,24 @@ import org.apache.hadoop.fs.permission.FsPermission;
 import org.apache.hadoop.fs.s3.S3Credentials;
 import org.apache.hadoop.util.Progressable;
 
-import java.io.BufferedOutputStream;
-import java.io.File;
+import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.concurrent.Callable;
-import java.util.concurrent.TimeUnit;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static com.facebook.presto.hive.RetryDriver.retry;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -72,10 +83,11 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Strings.nullToEmpty;
 import static com.google.common.base.Throwables.propagate;
 import static com.google.common.collect.Iterables.toArray;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.lang.Math.max;
-import static java.nio.file.Files.createDirectories;
-import static java.nio.file.Files.createTempFile;
+import static java.lang.Math.min;
+import static java.util.concurrent.Executors.newCachedThreadPool;
 
 public class PrestoS3FileSystem
         extends FileSystem
@@ -85,19 +97,26 @@ public class PrestoS3FileSystem
     public static final String S3_MAX_CLIENT_RETRIES = "presto.s3.max-client-retries";
     public static final String S3_MAX_BACKOFF_TIME = "presto.s3.max-backoff-time";
     public static final String S3_CONNECT_TIMEOUT = "presto.s3.connect-timeout";
-    public static final String S3_STAGING_DIRECTORY = "presto.s3.staging-directory";
+    public static final String S3_MULTIPART_PART_SIZE = "presto.s3.multipart.part-size";
+    public static final String S3_MULTIPART_MAX_CONCURRENT_PARTS = "presto.s3.multipart.max-concurrent-parts";
+    public static final String S3_READ_CHUNK_SIZE = "presto.s3.read.chunk-size";
+    public static final String S3_READ_MAX_CONCURRENT_CHUNKS = "presto.s3.read.max-concurrent-chunks";
 
     private static final Logger log = Logger.get(PrestoS3FileSystem.class);
 
     private static final DataSize BLOCK_SIZE = new DataSize(32, MEGABYTE);
-    private static final DataSize MAX_SKIP_SIZE = new DataSize(1, MEGABYTE);
+    private static final int INITIAL_PART_BUFFER_SIZE = 64 * 1024;
 
     private URI uri;
     private Path workingDirectory;
     private AmazonS3 s3;
-    private File stagingDirectory;
+    private ExecutorService executor;
     private int maxClientRetries;
     private Duration maxBackoffTime;
+    private long multipartPartSize;
+    private int multipartMaxConcurrentParts;
+    private long readChunkSize;
+    private int readMaxConcurrentChunks;
 
     @Override
     public void initialize(URI uri, Configuration conf)
@@ -110,12 +129,15 @@ public class PrestoS3FileSystem
         this.workingDirectory = new Path("/").makeQualified(this.uri, new Path("/"));
 
         HiveClientConfig defaults = new HiveClientConfig();
-        this.stagingDirectory = new File(conf.get(S3_STAGING_DIRECTORY, defaults.getS3StagingDirectory().toString()));
         this.maxClientRetries = conf.getInt(S3_MAX_CLIENT_RETRIES, defaults.getS3MaxClientRetries());
         this.maxBackoffTime = Duration.valueOf(conf.get(S3_MAX_BACKOFF_TIME, defaults.getS3MaxBackoffTime().toString()));
         int maxErrorRetries = conf.getInt(S3_MAX_ERROR_RETRIES, defaults.getS3MaxErrorRetries());
         boolean sslEnabled = conf.getBoolean(S3_SSL_ENABLED, defaults.isS3SslEnabled());
         Duration connectTimeout = Duration.valueOf(conf.get(S3_CONNECT_TIMEOUT, defaults.getS3ConnectTimeout().toString()));
+        this.multipartPartSize = DataSize.valueOf(conf.get(S3_MULTIPART_PART_SIZE, defaults.getS3MultipartPartSize().toString())).toBytes();
+        this.multipartMaxConcurrentParts = conf.getInt(S3_MULTIPART_MAX_CONCURRENT_PARTS, defaults.getS3MultipartMaxConcurrentParts());
+        this.readChunkSize = DataSize.valueOf(conf.get(S3_READ_CHUNK_SIZE, defaults.getS3ReadChunkSize().toString())).toBytes();
+        this.readMaxConcurrentChunks = conf.getInt(S3_READ_MAX_CONCURRENT_CHUNKS, defaults.getS3ReadMaxConcurrentChunks());
 
         ClientConfiguration configuration = new ClientConfiguration();
         configuration.setMaxErrorRetry(maxErrorRetries);
@@ -123,6 +145,25 @@ public class PrestoS3FileSystem
         configuration.setConnectionTimeout(Ints.checkedCast(connectTimeout.toMillis()));
 
         this.s3 = new AmazonS3Client(getAwsCredentials(uri, conf), configuration);
+        this.executor = newCachedThreadPool(daemonThreadsNamed("s3-" + this.uri.getHost() + "-%s"));
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        try {
+            super.close();
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @VisibleForTesting
+    void setS3Client(AmazonS3 client)
+    {
+        s3 = checkNotNull(client, "client is null");
     }
 
     @Override
@@ -225,9 +266,14 @@ public class PrestoS3FileSystem
     public FSDataInputStream open(Path path, int bufferSize)
             throws IOException
     {
+        ObjectMetadata metadata = getS3ObjectMetadata(path);
+        if (metadata == null) {
+            throw new FileNotFoundException("File does not exist: " + path);
+        }
+
         return new FSDataInputStream(
                 new BufferedFSInputStream(
-                        new PrestoS3InputStream(s3, uri.getHost(), path, maxClientRetries, maxBackoffTime),
+                        new PrestoS3InputStream(s3, uri.getHost(), path, metadata.getContentLength(), executor, readChunkSize, readMaxConcurrentChunks, maxClientRetries, maxBackoffTime),
                         bufferSize));
     }
 
@@ -239,12 +285,9 @@ public class PrestoS3FileSystem
             throw new IOException("File already exists:" + path);
         }
 
-        createDirectories(stagingDirectory.toPath());
-        File tempFile = createTempFile(stagingDirectory.toPath(), "presto-s3-", ".tmp").toFile();
-
         String key = keyFromPath(qualifiedPath(path));
         return new FSDataOutputStream(
-                new PrestoS3OutputStream(s3, uri.getHost(), key, tempFile),
+                new PrestoS3OutputStream(s3, uri.getHost(), key, executor, multipartPartSize, multipartMaxConcurrentParts),
                 statistics);
     }
 
@@ -425,24 +468,53 @@ public class PrestoS3FileSystem
         return new BasicAWSCredentials(credentials.getAccessKey(), credentials.getSecretAccessKey());
     }
 
+    /**
+     * Reads the object in fixed size chunks with ranged GETs. While the object is read sequentially,
+     * the following chunks are fetched concurrently ahead of the reader. Seeks within the fetched
+     * chunks, or back to the chunk before the current one, reuse them instead of opening a new request.
+     */
     private static class PrestoS3InputStream
             extends FSInputStream
     {
         private final AmazonS3 s3;
         private final String host;
         private final Path path;
+        private final long length;
+        private final ExecutorService executor;
+        private final long chunkSize;
+        private final int maxConcurrentChunks;
         private final int maxClientRetry;
         private final Duration maxBackoffTime;
 
+        // fetched and in-flight chunks by chunk number
+        private final Map<Long, Future<byte[]>> chunks = new HashMap<>();
+
         private boolean closed;
-        private S3ObjectInputStream in;
         private long position;
-
-        public PrestoS3InputStream(AmazonS3 s3, String host, Path path, int maxClientRetry, Duration maxBackoffTime)
+        private long lastChunk = -1;
+
+        public PrestoS3InputStream(
+                AmazonS3 s3,
+                String host,
+                Path path,
+                long length,
+                ExecutorService executor,
+                long chunkSize,
+                int maxConcurrentChunks,
+                int maxClientRetry,
+                Duration maxBackoffTime)
         {
             this.s3 = checkNotNull(s3, "s3 is null");
             this.host = checkNotNull(host, "host is null");
             this.path = checkNotNull(path, "path is null");
+            checkArgument(length >= 0, "length is negative");
+            this.length = length;
+            this.executor = checkNotNull(executor, "executor is null");
+
+            checkArgument(chunkSize > 0 && chunkSize <= Integer.MAX_VALUE, "invalid chunkSize: %s", chunkSize);
+            this.chunkSize = chunkSize;
+            checkArgument(maxConcurrentChunks > 0, "maxConcurrentChunks must be at least 1");
+            this.maxConcurrentChunks = maxConcurrentChunks;
 
             checkArgument(maxClientRetry >= 0, "maxClientRetries cannot be negative");
             this.maxClientRetry = maxClientRetry;
@@ -454,7 +526,10 @@ public class PrestoS3FileSystem
                 throws IOException
         {
             closed = true;
-            closeStream();
+            for (Future<byte[]> chunk : chunks.values()) {
+                chunk.cancel(true);
+            }
+            chunks.clear();
         }
 
         @Override
@@ -464,27 +539,8 @@ public class PrestoS3FileSystem
             checkState(!closed, "already closed");
             checkArgument(pos >= 0, "position is negative: %s", pos);
 
-            if ((in != null) && (pos == position)) {
-                // already at specified position
-                return;
-            }
-
-            if ((in != null) && (pos > position)) {
-                // seeking forwards
-                long skip = pos - position;
-                if (skip <= max(in.available(), MAX_SKIP_SIZE.toBytes())) {
-                    // already buffered or seek is small enough
-                    if (in.skip(skip) == skip) {
-                        position = pos;
-                        return;
-                    }
-                }
-            }
-
-            // close the stream and open at desired position
+            // the chunk is fetched on the next read
             position = pos;
-            closeStream();
-            openStream();
         }
 
         @Override
@@ -503,44 +559,22 @@ public class PrestoS3FileSystem
         }
 
         @Override
-        public int read(final byte[] buffer, final int offset, final int length)
+        public int read(byte[] buffer, int offset, int length)
                 throws IOException
         {
-            try {
-                int bytesRead = retry()
-                        .maxAttempts(maxClientRetry)
-                        .exponentialBackoff(new Duration(1, TimeUnit.SECONDS), maxBackoffTime, 2.0)
-                        .stopOn(InterruptedException.class)
-                        .run("readStream", new Callable<Integer>()
-                        {
-                            @Override
-                            public Integer call()
-                                    throws Exception
-                            {
-                                openStream();
-                                try {
-                                    return in.read(buffer, offset, length);
-                                }
-                                catch (Exception e) {
-                                    closeStream();
-                                    throw e;
-                                }
-                            }
-                        });
-
-                if (bytesRead != -1) {
-                    position += bytesRead;
-                }
-                return bytesRead;
-            }
-            catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw Throwables.propagate(e);
-            }
-            catch (Exception e) {
-                Throwables.propagateIfInstanceOf(e, IOException.class);
-                throw Throwables.propagate(e);
+            checkState(!closed, "already closed");
+            if (position >= this.length) {
+                return -1;
             }
+
+            long chunk = position / chunkSize;
+            byte[] data = getChunk(chunk);
+
+            int chunkOffset = (int) (position - (chunk * chunkSize));
+            int bytesRead = min(length, data.length - chunkOffset);
+            System.arraycopy(data, chunkOffset, buffer, offset, bytesRead);
+            position += bytesRead;
+            return bytesRead;
         }
 
         @Override
@@ -550,77 +584,149 @@ public class PrestoS3FileSystem
             return false;
         }
 
-        private S3Object getS3Object(final Path path, final long start)
+        private byte[] getChunk(long chunk)
                 throws IOException
         {
+            // only read ahead while the reader moves through the chunks in order
+            boolean sequential = chunks.containsKey(chunk) || (chunk == lastChunk + 1);
+            lastChunk = chunk;
+            long chunkCount = ((length - 1) / chunkSize) + 1;
+            long windowEnd = min(chunk + (sequential ? maxConcurrentChunks : 1), chunkCount);
+
+            Iterator<Map.Entry<Long, Future<byte[]>>> iterator = chunks.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Long, Future<byte[]>> entry = iterator.next();
+                // the previous chunk is kept for readers that seek back a short distance
+                if ((entry.getKey() < chunk - 1) || (entry.getKey() >= windowEnd)) {
+                    entry.getValue().cancel(true);
+                    iterator.remove();
+                }
+            }
+
+            for (long next = chunk; next < windowEnd; next++) {
+                if (!chunks.containsKey(next)) {
+                    chunks.put(next, executor.submit(fetchChunk(next)));
+                }
+            }
+
             try {
-                return retry()
-                        .maxAttempts(maxClientRetry)
-                        .exponentialBackoff(new Duration(1, TimeUnit.SECONDS), maxBackoffTime, 2.0)
-                        .stopOn(InterruptedException.class)
-                        .run("getS3Object", new Callable<S3Object>()
-                        {
-                            @Override
-                            public S3Object call()
-                                    throws Exception
-                            {
-                                return s3.getObject(new GetObjectRequest(host, keyFromPath(path)).withRange(start, Long.MAX_VALUE));
-                            }
-                        });
+                return chunks.get(chunk).get();
             }
             catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 throw Throwables.propagate(e);
             }
-            catch (Exception e) {
-                Throwables.propagateIfInstanceOf(e, IOException.class);
-                throw Throwables.propagate(e);
+            catch (ExecutionException e) {
+                // fetch the chunk again on the next read
+                chunks.remove(chunk);
+                Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+                throw Throwables.propagate(e.getCause());
             }
         }
 
-        private void openStream()
-                throws IOException
+        private Callable<byte[]> fetchChunk(long chunk)
         {
-            if (in == null) {
-                in = getS3Object(path, position).getObjectContent();
-            }
-        }
-
-        private void closeStream()
-                throws IOException
-        {
-            if (in != null) {
-                try {
-                    in.abort();
-                }
-                catch (IOException ignored) {
+            final long start = chunk * chunkSize;
+            final long end = min(start + chunkSize, length) - 1;
+            return new Callable<byte[]>()
+            {
+                @Override
+                public byte[] call()
+                        throws Exception
+                {
+                    return retry()
+                            .maxAttempts(maxClientRetry)
+                            .exponentialBackoff(new Duration(1, TimeUnit.SECONDS), maxBackoffTime, 2.0)
+                            .stopOn(InterruptedException.class)
+                            .run("getS3Object", new Callable<byte[]>()
+                            {
+                                @Override
+                                public byte[] call()
+                                        throws Exception
+                                {
+                                    S3Object object = s3.getObject(new GetObjectRequest(host, keyFromPath(path)).withRange(start, end));
+                                    try (InputStream in = object.getObjectContent()) {
+                                        byte[] data = new byte[Ints.checkedCast((end - start) + 1)];
+                                        ByteStreams.readFully(in, data);
+                                        return data;
+                                    }
+                                }
+                            });
                 }
-                in = null;
-            }
+            };
         }
     }
 
+    /**
+     * Uploads the object in parts while it is written, with a bounded number of part uploads
+     * in flight, so at most {@code maxConcurrentParts + 1} parts are buffered in memory.
+     * Objects smaller than a part are uploaded with a single request, and the buffer of the first
+     * part grows as it is written, so small objects do not allocate a full part.
+     */
     private static class PrestoS3OutputStream
-            extends FilterOutputStream
+            extends OutputStream
     {
         private final AmazonS3 s3;
         private final String host;
         private final String key;
-        private final File tempFile;
+        private final ExecutorService executor;
+        private final int partSize;
+        private final int maxConcurrentParts;
 
+        private final List<Future<PartETag>> parts = new ArrayList<>();
+        private int completedParts;
+        private String uploadId;
+
+        private byte[] buffer;
+        private int bufferSize;
         private boolean closed;
 
-        public PrestoS3OutputStream(AmazonS3 s3, String host, String key, File tempFile)
-                throws IOException
+        public PrestoS3OutputStream(AmazonS3 s3, String host, String key, ExecutorService executor, long partSize, int maxConcurrentParts)
         {
-            super(new BufferedOutputStream(new FileOutputStream(checkNotNull(tempFile, "tempFile is null"))));
-
             this.s3 = checkNotNull(s3, "s3 is null");
             this.host = checkNotNull(host, "host is null");
             this.key = checkNotNull(key, "key is null");
-            this.tempFile = tempFile;
+            this.executor = checkNotNull(executor, "executor is null");
+
+            checkArgument(partSize > 0 && partSize <= Integer.MAX_VALUE, "invalid partSize: %s", partSize);
+            this.partSize = (int) partSize;
+            checkArgument(maxConcurrentParts > 0, "maxConcurrentParts must be at least 1");
+            this.maxConcurrentParts = maxConcurrentParts;
 
-            log.debug("OutputStream for key '%s' using file: %s", key, tempFile);
+            this.buffer = new byte[min(this.partSize, INITIAL_PART_BUFFER_SIZE)];
+
+            log.debug("OutputStream for key '%s' using parts of %s bytes", key, partSize);
+        }
+
+        @Override
+        public void write(int b)
+                throws IOException
+        {
+            checkState(!closed, "already closed");
+            ensureBufferCapacity(bufferSize + 1);
+            buffer[bufferSize] = (byte) b;
+            bufferSize++;
+            if (bufferSize == partSize) {
+                uploadPart();
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length)
+                throws IOException
+        {
+            checkState(!closed, "already closed");
+            while (length > 0) {
+                int chunk = min(length, partSize - bufferSize);
+                ensureBufferCapacity(bufferSize + chunk);
+                System.arraycopy(bytes, offset, buffer, bufferSize, chunk);
+                bufferSize += chunk;
+                offset += chunk;
+                length -= chunk;
+                if (bufferSize == partSize) {
+                    uploadPart();
+                }
+            }
         }
 
         @Override
@@ -633,13 +739,30 @@ public class PrestoS3FileSystem
             closed = true;
 
             try {
-                super.close();
-                uploadObject();
+                if (uploadId == null) {
+                    uploadObject();
+                }
+                else {
+                    if (bufferSize > 0) {
+                        uploadPart();
+                    }
+                    completeUpload();
+                }
+            }
+            catch (IOException | RuntimeException e) {
+                abortUpload();
+                throw e;
             }
             finally {
-                if (!tempFile.delete()) {
-                    log.warn("Could not delete temporary file: %s", tempFile);
-                }
+                buffer = null;
+            }
+        }
+
+        private void ensureBufferCapacity(int capacity)
+        {
+            if (buffer.length < capacity) {
+                long newLength = max(capacity, buffer.length * 2L);
+                buffer = Arrays.copyOf(buffer, (int) min(newLength, partSize));
             }
         }
 
@@ -648,12 +771,107 @@ public class PrestoS3FileSystem
         {
             try {
                 log.debug("Starting upload for key: %s", key);
-                s3.putObject(host, key, tempFile);
+                ObjectMetadata metadata = new ObjectMetadata();
+                metadata.setContentLength(bufferSize);
+                s3.putObject(host, key, new ByteArrayInputStream(buffer, 0, bufferSize), metadata);
                 log.debug("Completed upload for key: %s", key);
             }
             catch (AmazonClientException e) {
                 throw new IOException(e);
             }
         }
+
+        private void uploadPart()
+                throws IOException
+        {
+            if (uploadId == null) {
+                try {
+                    log.debug("Starting multipart upload for key: %s", key);
+                    uploadId = s3.initiateMultipartUpload(new InitiateMultipartUploadRequest(host, key)).getUploadId();
+                }
+                catch (AmazonClientException e) {
+                    throw new IOException(e);
+                }
+            }
+
+            // wait for the oldest part to bound the memory of the parts in flight
+            while (parts.size() - completedParts >= maxConcurrentParts) {
+                getPartETag(parts.get(completedParts));
+                completedParts++;
+            }
+
+            final UploadPartRequest request = new UploadPartRequest()
+                    .withBucketName(host)
+                    .withKey(key)
+                    .withUploadId(uploadId)
+                    .withPartNumber(parts.size() + 1)
+                    .withPartSize(bufferSize)
+                    .withInputStream(new ByteArrayInputStream(buffer, 0, bufferSize));
+
+            parts.add(executor.submit(new Callable<PartETag>()
+            {
+                @Override
+                public PartETag call()
+                {
+                    return s3.uploadPart(request).getPartETag();
+                }
+            }));
+
+            // the object is uploaded in parts, so the following parts are likely to be full
+            buffer = new byte[partSize];
+            bufferSize = 0;
+        }
+
+        private void completeUpload()
+                throws IOException
+        {
+            List<PartETag> partETags = new ArrayList<>();
+            for (Future<PartETag> part : parts) {
+                partETags.add(getPartETag(part));
+            }
+
+            try {
+                s3.completeMultipartUpload(new CompleteMultipartUploadRequest(host, key, uploadId, partETags));
+                log.debug("Completed multipart upload for key: %s (%s parts)", key, partETags.size());
+            }
+            catch (AmazonClientException e) {
+                throw new IOException(e);
+            }
+        }
+
+        private void abortUpload()
+        {
+            if (uploadId == null) {
+                return;
+            }
+            for (Future<PartETag> part : parts) {
+                part.cancel(true);
+            }
+            try {
+                s3.abortMultipartUpload(new AbortMultipartUploadRequest(host, key, uploadId));
+            }
+            catch (AmazonClientException e) {
+                log.warn(e, "Could not abort multipart upload for key: %s", key);
+            }
+        }
+
+        private static PartETag getPartETag(Future<PartETag> part)
+                throws IOException
+        {
+            try {
+                return part.get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw Throwables.propagate(e);
+            }
+            catch (ExecutionException e) {
+                Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+                if (e.getCause() instanceof AmazonClientException) {
+                    throw new IOException(e.getCause());
+                }
+                throw Throwables.propagate(e.getCause());
+            }
+        }
     }
 }
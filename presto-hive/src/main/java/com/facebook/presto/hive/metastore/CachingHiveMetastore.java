@@ -21,6 +21,7 @@ import com.facebook.presto.hive.HiveErrorCode;
 import com.facebook.presto.hive.HiveMetastoreClient;
 import com.facebook.presto.hive.HiveViewNotSupportedException;
 import com.facebook.presto.hive.TableAlreadyExistsException;
+import com.facebook.presto.hive.shaded.org.apache.thrift.TApplicationException;
 import com.facebook.presto.hive.shaded.org.apache.thrift.TException;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.SchemaTableName;
@@ -28,8 +29,10 @@ import com.facebook.presto.spi.TableNotFoundException;
 import com.google.common.base.Function;
 import com.google.common.base.Objects;
 import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.LoadingCache;
+import com.google.common.cache.Weigher;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
@@ -41,12 +44,16 @@ import org.apache.hadoop.hive.common.FileUtils;
 import org.apache.hadoop.hive.metastore.TableType;
 import org.apache.hadoop.hive.metastore.Warehouse;
 import org.apache.hadoop.hive.metastore.api.AlreadyExistsException;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
 import org.apache.hadoop.hive.metastore.api.Database;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.InvalidObjectException;
 import org.apache.hadoop.hive.metastore.api.MetaException;
 import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
 import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.PartitionsStatsRequest;
 import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.hadoop.hive.metastore.api.TableStatsRequest;
 import org.apache.hadoop.hive.metastore.api.UnknownDBException;
 import org.weakref.jmx.Flatten;
 import org.weakref.jmx.Managed;
@@ -87,6 +94,9 @@ public class CachingHiveMetastore
     private final LoadingCache<HiveTableName, Table> tableCache;
     private final LoadingCache<HivePartitionName, Partition> partitionCache;
     private final LoadingCache<PartitionFilter, List<String>> partitionFilterCache;
+    private final LoadingCache<HiveTableName, Map<String, ColumnStatisticsObj>> tableColumnStatisticsCache;
+    private final LoadingCache<HivePartitionName, Map<String, ColumnStatisticsObj>> partitionColumnStatisticsCache;
+    private final Cache<HiveTableName, Boolean> nonexistentTableCache;
 
     @Inject
     public CachingHiveMetastore(HiveCluster hiveCluster, @ForHiveMetastore ExecutorService executor, HiveClientConfig hiveClientConfig)
@@ -94,21 +104,25 @@ public class CachingHiveMetastore
         this(checkNotNull(hiveCluster, "hiveCluster is null"),
                 checkNotNull(executor, "executor is null"),
                 checkNotNull(hiveClientConfig, "hiveClientConfig is null").getMetastoreCacheTtl(),
-                hiveClientConfig.getMetastoreRefreshInterval());
+                hiveClientConfig.getMetastoreRefreshInterval(),
+                hiveClientConfig.getMetastoreNegativeCacheTtl(),
+                hiveClientConfig.getMetastoreCacheMaximumSize(),
+                hiveClientConfig.getMetastorePartitionCacheMaximumColumns());
     }
 
-    public CachingHiveMetastore(HiveCluster hiveCluster, ExecutorService executor, Duration cacheTtl, Duration refreshInterval)
+    public CachingHiveMetastore(HiveCluster hiveCluster, ExecutorService executor, Duration cacheTtl, Duration refreshInterval, Duration negativeCacheTtl, long maximumSize, long maximumPartitionColumns)
     {
         this.clientProvider = checkNotNull(hiveCluster, "hiveCluster is null");
 
         long expiresAfterWriteMillis = checkNotNull(cacheTtl, "cacheTtl is null").toMillis();
         long refreshMills = checkNotNull(refreshInterval, "refreshInterval is null").toMillis();
+        checkNotNull(negativeCacheTtl, "negativeCacheTtl is null");
+        checkArgument(maximumSize > 0, "maximumSize must be at least 1");
+        checkArgument(maximumPartitionColumns > 0, "maximumPartitionColumns must be at least 1");
 
         ListeningExecutorService listeningExecutor = MoreExecutors.listeningDecorator(executor);
 
-        databaseNamesCache = CacheBuilder.newBuilder()
-                .expireAfterWrite(expiresAfterWriteMillis, MILLISECONDS)
-                .refreshAfterWrite(refreshMills, MILLISECONDS)
+        databaseNamesCache = newCacheBuilder(expiresAfterWriteMillis, refreshMills, maximumSize)
                 .build(new BackgroundCacheLoader<String, List<String>>(listeningExecutor)
                 {
                     @Override
@@ -119,9 +133,7 @@ public class CachingHiveMetastore
                     }
                 });
 
-        databaseCache = CacheBuilder.newBuilder()
-                .expireAfterWrite(expiresAfterWriteMillis, MILLISECONDS)
-                .refreshAfterWrite(refreshMills, MILLISECONDS)
+        databaseCache = newCacheBuilder(expiresAfterWriteMillis, refreshMills, maximumSize)
                 .build(new BackgroundCacheLoader<String, Database>(listeningExecutor)
                 {
                     @Override
@@ -132,9 +144,7 @@ public class CachingHiveMetastore
                     }
                 });
 
-        tableNamesCache = CacheBuilder.newBuilder()
-                .expireAfterWrite(expiresAfterWriteMillis, MILLISECONDS)
-                .refreshAfterWrite(refreshMills, MILLISECONDS)
+        tableNamesCache = newCacheBuilder(expiresAfterWriteMillis, refreshMills, maximumSize)
                 .build(new BackgroundCacheLoader<String, List<String>>(listeningExecutor)
                 {
                     @Override
@@ -145,9 +155,7 @@ public class CachingHiveMetastore
                     }
                 });
 
-        tableCache = CacheBuilder.newBuilder()
-                .expireAfterWrite(expiresAfterWriteMillis, MILLISECONDS)
-                .refreshAfterWrite(refreshMills, MILLISECONDS)
+        tableCache = newCacheBuilder(expiresAfterWriteMillis, refreshMills, maximumSize)
                 .build(new BackgroundCacheLoader<HiveTableName, Table>(listeningExecutor)
                 {
                     @Override
@@ -158,9 +166,7 @@ public class CachingHiveMetastore
                     }
                 });
 
-        viewNamesCache = CacheBuilder.newBuilder()
-                .expireAfterWrite(expiresAfterWriteMillis, MILLISECONDS)
-                .refreshAfterWrite(refreshMills, MILLISECONDS)
+        viewNamesCache = newCacheBuilder(expiresAfterWriteMillis, refreshMills, maximumSize)
                 .build(new BackgroundCacheLoader<String, List<String>>(listeningExecutor)
                 {
                     @Override
@@ -171,9 +177,7 @@ public class CachingHiveMetastore
                     }
                 });
 
-        partitionNamesCache = CacheBuilder.newBuilder()
-                .expireAfterWrite(expiresAfterWriteMillis, MILLISECONDS)
-                .refreshAfterWrite(refreshMills, MILLISECONDS)
+        partitionNamesCache = newCacheBuilder(expiresAfterWriteMillis, refreshMills, maximumSize)
                 .build(new BackgroundCacheLoader<HiveTableName, List<String>>(listeningExecutor)
                 {
                     @Override
@@ -184,9 +188,7 @@ public class CachingHiveMetastore
                     }
                 });
 
-        partitionFilterCache = CacheBuilder.newBuilder()
-                .expireAfterWrite(expiresAfterWriteMillis, MILLISECONDS)
-                .refreshAfterWrite(refreshMills, MILLISECONDS)
+        partitionFilterCache = newCacheBuilder(expiresAfterWriteMillis, refreshMills, maximumSize)
                 .build(new BackgroundCacheLoader<PartitionFilter, List<String>>(listeningExecutor)
                 {
                     @Override
@@ -197,9 +199,31 @@ public class CachingHiveMetastore
                     }
                 });
 
-        partitionCache = CacheBuilder.newBuilder()
-                .expireAfterWrite(expiresAfterWriteMillis, MILLISECONDS)
-                .refreshAfterWrite(refreshMills, MILLISECONDS)
+        tableColumnStatisticsCache = newCacheBuilder(expiresAfterWriteMillis, refreshMills, maximumSize)
+                .build(new BackgroundCacheLoader<HiveTableName, Map<String, ColumnStatisticsObj>>(listeningExecutor)
+                {
+                    @Override
+                    public Map<String, ColumnStatisticsObj> load(HiveTableName hiveTableName)
+                            throws Exception
+                    {
+                        return loadTableColumnStatistics(hiveTableName);
+                    }
+                });
+
+        // a table can have many more partitions than there are tables, so the partition caches are bounded by
+        // the number of columns they hold rather than by a number of entries shared with the table caches
+        partitionCache = newPartitionCacheBuilder(expiresAfterWriteMillis, refreshMills, maximumPartitionColumns)
+                .weigher(new Weigher<HivePartitionName, Partition>()
+                {
+                    @Override
+                    public int weigh(HivePartitionName partitionName, Partition partition)
+                    {
+                        if (partition.getSd() == null || partition.getSd().getCols() == null) {
+                            return 1;
+                        }
+                        return partition.getSd().getCols().size() + 1;
+                    }
+                })
                 .build(new BackgroundCacheLoader<HivePartitionName, Partition>(listeningExecutor)
                 {
                     @Override
@@ -216,6 +240,54 @@ public class CachingHiveMetastore
                         return loadPartitionsByNames(partitionNames);
                     }
                 });
+
+        partitionColumnStatisticsCache = newPartitionCacheBuilder(expiresAfterWriteMillis, refreshMills, maximumPartitionColumns)
+                .weigher(new Weigher<HivePartitionName, Map<String, ColumnStatisticsObj>>()
+                {
+                    @Override
+                    public int weigh(HivePartitionName partitionName, Map<String, ColumnStatisticsObj> columnStatistics)
+                    {
+                        return columnStatistics.size() + 1;
+                    }
+                })
+                .build(new BackgroundCacheLoader<HivePartitionName, Map<String, ColumnStatisticsObj>>(listeningExecutor)
+                {
+                    @Override
+                    public Map<String, ColumnStatisticsObj> load(HivePartitionName partitionName)
+                            throws Exception
+                    {
+                        return loadPartitionColumnStatistics(ImmutableList.of(partitionName)).get(partitionName);
+                    }
+
+                    @Override
+                    public Map<HivePartitionName, Map<String, ColumnStatisticsObj>> loadAll(Iterable<? extends HivePartitionName> partitionNames)
+                            throws Exception
+                    {
+                        return loadPartitionColumnStatistics(partitionNames);
+                    }
+                });
+
+        // tables that do not exist are cached separately, so they are seen soon after they are created outside of Presto
+        nonexistentTableCache = CacheBuilder.newBuilder()
+                .expireAfterWrite(negativeCacheTtl.toMillis(), MILLISECONDS)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    private static CacheBuilder<Object, Object> newCacheBuilder(long expiresAfterWriteMillis, long refreshMillis, long maximumSize)
+    {
+        return CacheBuilder.newBuilder()
+                .expireAfterWrite(expiresAfterWriteMillis, MILLISECONDS)
+                .refreshAfterWrite(refreshMillis, MILLISECONDS)
+                .maximumSize(maximumSize);
+    }
+
+    private static CacheBuilder<Object, Object> newPartitionCacheBuilder(long expiresAfterWriteMillis, long refreshMillis, long maximumColumns)
+    {
+        return CacheBuilder.newBuilder()
+                .expireAfterWrite(expiresAfterWriteMillis, MILLISECONDS)
+                .refreshAfterWrite(refreshMillis, MILLISECONDS)
+                .maximumWeight(maximumColumns);
     }
 
     @Managed
@@ -237,6 +309,61 @@ public class CachingHiveMetastore
         tableCache.invalidateAll();
         partitionCache.invalidateAll();
         partitionFilterCache.invalidateAll();
+        tableColumnStatisticsCache.invalidateAll();
+        partitionColumnStatisticsCache.invalidateAll();
+        nonexistentTableCache.invalidateAll();
+    }
+
+    /**
+     * Invalidates the cached metadata, partitions and statistics of a table,
+     * e.g. after it has been changed outside of Presto.
+     */
+    @Managed
+    public void flushTable(String databaseName, String tableName)
+    {
+        invalidateTable(HiveTableName.table(databaseName, tableName));
+    }
+
+    private void invalidateTable(HiveTableName hiveTableName)
+    {
+        tableCache.invalidate(hiveTableName);
+        nonexistentTableCache.invalidate(hiveTableName);
+        partitionNamesCache.invalidate(hiveTableName);
+        tableColumnStatisticsCache.invalidate(hiveTableName);
+
+        for (PartitionFilter partitionFilter : partitionFilterCache.asMap().keySet()) {
+            if (partitionFilter.getHiveTableName().equals(hiveTableName)) {
+                partitionFilterCache.invalidate(partitionFilter);
+            }
+        }
+        for (HivePartitionName partitionName : partitionCache.asMap().keySet()) {
+            if (partitionName.getHiveTableName().equals(hiveTableName)) {
+                partitionCache.invalidate(partitionName);
+            }
+        }
+        for (HivePartitionName partitionName : partitionColumnStatisticsCache.asMap().keySet()) {
+            if (partitionName.getHiveTableName().equals(hiveTableName)) {
+                partitionColumnStatisticsCache.invalidate(partitionName);
+            }
+        }
+    }
+
+    @Managed
+    public long getTableCacheSize()
+    {
+        return tableCache.size();
+    }
+
+    @Managed
+    public long getNonexistentTableCacheSize()
+    {
+        return nonexistentTableCache.size();
+    }
+
+    @Managed
+    public long getPartitionCacheSize()
+    {
+        return partitionCache.size();
     }
 
     private static <K, V, E extends Exception> V get(LoadingCache<K, V> cache, K key, Class<E> exceptionClass)
@@ -386,7 +513,17 @@ public class CachingHiveMetastore
     public Table getTable(String databaseName, String tableName)
             throws NoSuchObjectException
     {
-        return get(tableCache, HiveTableName.table(databaseName, tableName), NoSuchObjectException.class);
+        HiveTableName hiveTableName = HiveTableName.table(databaseName, tableName);
+        if (nonexistentTableCache.getIfPresent(hiveTableName) != null) {
+            throw new NoSuchObjectException(hiveTableName + " does not exist");
+        }
+        try {
+            return get(tableCache, hiveTableName, NoSuchObjectException.class);
+        }
+        catch (NoSuchObjectException e) {
+            nonexistentTableCache.put(hiveTableName, true);
+            throw e;
+        }
     }
 
     @Override
@@ -437,6 +574,7 @@ public class CachingHiveMetastore
                             try (HiveMetastoreClient client = clientProvider.createMetastoreClient()) {
                                 client.create_table(table);
                             }
+                            invalidateTable(HiveTableName.table(table.getDbName(), table.getTableName()));
                             tableNamesCache.invalidate(table.getDbName());
                             viewNamesCache.invalidate(table.getDbName());
                             return null;
@@ -473,7 +611,7 @@ public class CachingHiveMetastore
                     try (HiveMetastoreClient client = clientProvider.createMetastoreClient()) {
                         client.drop_table(databaseName, tableName, true);
                     }
-                    tableCache.invalidate(new HiveTableName(databaseName, tableName));
+                    invalidateTable(HiveTableName.table(databaseName, tableName));
                     tableNamesCache.invalidate(databaseName);
                     viewNamesCache.invalidate(databaseName);
                     return null;
@@ -671,6 +809,135 @@ public class CachingHiveMetastore
         }
     }
 
+    @Override
+    public Map<String, ColumnStatisticsObj> getTableColumnStatistics(String databaseName, String tableName)
+            throws NoSuchObjectException
+    {
+        return get(tableColumnStatisticsCache, HiveTableName.table(databaseName, tableName), NoSuchObjectException.class);
+    }
+
+    private Map<String, ColumnStatisticsObj> loadTableColumnStatistics(final HiveTableName hiveTableName)
+            throws Exception
+    {
+        final List<String> columnNames = getColumnNames(getTable(hiveTableName.getDatabaseName(), hiveTableName.getTableName()));
+        if (columnNames.isEmpty()) {
+            return ImmutableMap.of();
+        }
+
+        try {
+            return retry().stopOn(NoSuchObjectException.class, TApplicationException.class).stopOnIllegalExceptions().run("getTableColumnStatistics", stats.getGetTableColumnStatistics().wrap(new Callable<Map<String, ColumnStatisticsObj>>()
+            {
+                @Override
+                public Map<String, ColumnStatisticsObj> call()
+                        throws Exception
+                {
+                    try (HiveMetastoreClient client = clientProvider.createMetastoreClient()) {
+                        TableStatsRequest request = new TableStatsRequest(hiveTableName.getDatabaseName(), hiveTableName.getTableName(), columnNames);
+                        return indexByColumnName(client.get_table_statistics_req(request).getTableStats());
+                    }
+                }
+            }));
+        }
+        catch (NoSuchObjectException e) {
+            throw e;
+        }
+        catch (TApplicationException e) {
+            if (e.getType() == TApplicationException.UNKNOWN_METHOD) {
+                // older metastores do not support statistics requests
+                return ImmutableMap.of();
+            }
+            throw new PrestoException(HiveErrorCode.HIVE_METASTORE_ERROR.toErrorCode(), e);
+        }
+        catch (TException e) {
+            throw new PrestoException(HiveErrorCode.HIVE_METASTORE_ERROR.toErrorCode(), e);
+        }
+    }
+
+    @Override
+    public Map<String, Map<String, ColumnStatisticsObj>> getPartitionColumnStatistics(String databaseName, String tableName, List<String> partitionNames)
+            throws NoSuchObjectException
+    {
+        Iterable<HivePartitionName> names = transform(partitionNames, partitionNameCreator(databaseName, tableName));
+
+        ImmutableMap.Builder<String, Map<String, ColumnStatisticsObj>> statistics = ImmutableMap.builder();
+        for (Map.Entry<HivePartitionName, Map<String, ColumnStatisticsObj>> entry : getAll(partitionColumnStatisticsCache, names, NoSuchObjectException.class).entrySet()) {
+            statistics.put(entry.getKey().getPartitionName(), entry.getValue());
+        }
+        return statistics.build();
+    }
+
+    private Map<HivePartitionName, Map<String, ColumnStatisticsObj>> loadPartitionColumnStatistics(Iterable<? extends HivePartitionName> partitionNames)
+            throws Exception
+    {
+        checkNotNull(partitionNames, "partitionNames is null");
+        checkArgument(!Iterables.isEmpty(partitionNames), "partitionNames is empty");
+
+        final HiveTableName hiveTableName = Iterables.get(partitionNames, 0).getHiveTableName();
+        final List<String> partitionsToFetch = new ArrayList<>();
+        for (HivePartitionName partitionName : partitionNames) {
+            checkArgument(partitionName.getHiveTableName().equals(hiveTableName), "Expected table name %s but got %s", hiveTableName, partitionName.getHiveTableName());
+            partitionsToFetch.add(partitionName.getPartitionName());
+        }
+
+        final List<String> columnNames = getColumnNames(getTable(hiveTableName.getDatabaseName(), hiveTableName.getTableName()));
+
+        Map<String, List<ColumnStatisticsObj>> partitionStatistics = ImmutableMap.of();
+        if (!columnNames.isEmpty()) {
+            try {
+                partitionStatistics = retry().stopOn(NoSuchObjectException.class, TApplicationException.class).stopOnIllegalExceptions().run("getPartitionColumnStatistics", stats.getGetPartitionColumnStatistics().wrap(new Callable<Map<String, List<ColumnStatisticsObj>>>()
+                {
+                    @Override
+                    public Map<String, List<ColumnStatisticsObj>> call()
+                            throws Exception
+                    {
+                        try (HiveMetastoreClient client = clientProvider.createMetastoreClient()) {
+                            PartitionsStatsRequest request = new PartitionsStatsRequest(hiveTableName.getDatabaseName(), hiveTableName.getTableName(), columnNames, partitionsToFetch);
+                            return client.get_partitions_statistics_req(request).getPartStats();
+                        }
+                    }
+                }));
+            }
+            catch (NoSuchObjectException e) {
+                throw e;
+            }
+            catch (TApplicationException e) {
+                // older metastores do not support statistics requests
+                if (e.getType() != TApplicationException.UNKNOWN_METHOD) {
+                    throw new PrestoException(HiveErrorCode.HIVE_METASTORE_ERROR.toErrorCode(), e);
+                }
+            }
+            catch (TException e) {
+                throw new PrestoException(HiveErrorCode.HIVE_METASTORE_ERROR.toErrorCode(), e);
+            }
+        }
+
+        // partitions without statistics are cached as well
+        ImmutableMap.Builder<HivePartitionName, Map<String, ColumnStatisticsObj>> statistics = ImmutableMap.builder();
+        for (HivePartitionName partitionName : partitionNames) {
+            List<ColumnStatisticsObj> columnStatistics = partitionStatistics.get(partitionName.getPartitionName());
+            statistics.put(partitionName, indexByColumnName(columnStatistics == null ? ImmutableList.<ColumnStatisticsObj>of() : columnStatistics));
+        }
+        return statistics.build();
+    }
+
+    private static List<String> getColumnNames(Table table)
+    {
+        ImmutableList.Builder<String> columnNames = ImmutableList.builder();
+        for (FieldSchema field : table.getSd().getCols()) {
+            columnNames.add(field.getName());
+        }
+        return columnNames.build();
+    }
+
+    private static Map<String, ColumnStatisticsObj> indexByColumnName(List<ColumnStatisticsObj> columnStatistics)
+    {
+        ImmutableMap.Builder<String, ColumnStatisticsObj> statistics = ImmutableMap.builder();
+        for (ColumnStatisticsObj statistic : columnStatistics) {
+            statistics.put(statistic.getColName(), statistic);
+        }
+        return statistics.build();
+    }
+
     private static Function<String, HivePartitionName> partitionNameCreator(final String databaseName, final String tableName)
     {
         return new Function<String, HivePartitionName>()
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.hive.metastore;
 
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
 import org.apache.hadoop.hive.metastore.api.Database;
 import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
 import org.apache.hadoop.hive.metastore.api.Partition;
@@ -20,6 +21,7 @@ import org.apache.hadoop.hive.metastore.api.Table;
 import org.weakref.jmx.Managed;
 
 import java.util.List;
+import java.util.Map;
 
 public interface HiveMetastore
 {
@@ -52,4 +54,16 @@ public interface HiveMetastore
 
     Table getTable(String databaseName, String tableName)
             throws NoSuchObjectException;
+
+    /**
+     * Returns the statistics of the table columns by column name. Columns without statistics are not included.
+     */
+    Map<String, ColumnStatisticsObj> getTableColumnStatistics(String databaseName, String tableName)
+            throws NoSuchObjectException;
+
+    /**
+     * Returns the statistics of the table columns for each of the specified partitions, by partition name and column name.
+     */
+    Map<String, Map<String, ColumnStatisticsObj>> getPartitionColumnStatistics(String databaseName, String tableName, List<String> partitionNames)
+            throws NoSuchObjectException;
 }
@@ -17,7 +17,9 @@ import com.facebook.presto.hive.TableAlreadyExistsException;
 import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.TableNotFoundException;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import org.apache.hadoop.hive.metastore.TableType;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
 import org.apache.hadoop.hive.metastore.api.Database;
 import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
 import org.apache.hadoop.hive.metastore.api.Partition;
@@ -27,6 +29,7 @@ import org.apache.hadoop.hive.metastore.api.Table;
 import java.io.File;
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -154,6 +157,21 @@ public class InMemoryHiveMetastore
         return table;
     }
 
+    @Override
+    public Map<String, ColumnStatisticsObj> getTableColumnStatistics(String databaseName, String tableName)
+            throws NoSuchObjectException
+    {
+        getTable(databaseName, tableName);
+        return ImmutableMap.of();
+    }
+
+    @Override
+    public Map<String, Map<String, ColumnStatisticsObj>> getPartitionColumnStatistics(String databaseName, String tableName, List<String> partitionNames)
+            throws NoSuchObjectException
+    {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public void flushCache()
     {
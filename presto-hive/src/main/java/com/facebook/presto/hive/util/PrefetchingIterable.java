@@ -0,0 +1,105 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.util;
+
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Transforms the elements of an iterable on an executor, keeping up to a fixed number of
+ * transformations in flight ahead of the consumer. Results are returned in source order.
+ * <p/>
+ * When the consumer reaches an element whose transformation has not been started by the
+ * executor, the consumer runs it directly, so iteration makes progress even when all
+ * threads of a bounded executor are busy (e.g. with the consumer itself).
+ */
+public class PrefetchingIterable<F, T>
+        implements Iterable<T>
+{
+    private final Iterable<F> source;
+    private final Function<? super F, T> function;
+    private final Executor executor;
+    private final int maxPrefetch;
+
+    public PrefetchingIterable(Iterable<F> source, Function<? super F, T> function, Executor executor, int maxPrefetch)
+    {
+        this.source = checkNotNull(source, "source is null");
+        this.function = checkNotNull(function, "function is null");
+        this.executor = checkNotNull(executor, "executor is null");
+        checkArgument(maxPrefetch > 0, "maxPrefetch must be greater than zero");
+        this.maxPrefetch = maxPrefetch;
+    }
+
+    @Override
+    public Iterator<T> iterator()
+    {
+        final Iterator<F> sourceIterator = source.iterator();
+        return new AbstractIterator<T>()
+        {
+            private final Queue<FutureTask<T>> inFlight = new ArrayDeque<>();
+
+            @Override
+            protected T computeNext()
+            {
+                while (inFlight.size() < maxPrefetch && sourceIterator.hasNext()) {
+                    FutureTask<T> task = createTask(sourceIterator.next());
+                    inFlight.add(task);
+                    executor.execute(task);
+                }
+
+                FutureTask<T> task = inFlight.poll();
+                if (task == null) {
+                    return endOfData();
+                }
+
+                // run the task in this thread if the executor has not started it yet; this is a no-op otherwise
+                task.run();
+                try {
+                    return task.get();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw Throwables.propagate(e);
+                }
+                catch (ExecutionException e) {
+                    throw Throwables.propagate(e.getCause());
+                }
+            }
+        };
+    }
+
+    private FutureTask<T> createTask(final F element)
+    {
+        return new FutureTask<>(new Callable<T>()
+        {
+            @Override
+            public T call()
+            {
+                return function.apply(element);
+            }
+        });
+    }
+}
@@ -13,10 +13,15 @@
  */
 package com.facebook.presto.hive.util;
 
+import com.facebook.presto.spi.type.ArrayType;
+import com.facebook.presto.spi.type.MapType;
+import com.facebook.presto.spi.type.Type;
 import com.fasterxml.jackson.core.Base64Variants;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.common.base.Throwables;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
 import org.apache.hadoop.hive.serde2.io.TimestampWritable;
 import org.apache.hadoop.hive.serde2.objectinspector.ListObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.MapObjectInspector;
@@ -43,11 +48,14 @@ import org.joda.time.format.DateTimeFormatter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import static com.facebook.presto.hive.util.Types.checkType;
+import static org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector.PrimitiveCategory.TIMESTAMP;
 
 public final class SerDeUtils
 {
@@ -55,6 +63,104 @@ public final class SerDeUtils
 
     private SerDeUtils() {}
 
+    /**
+     * Gets the value of a Hive list, map or struct as the stack representation of
+     * the specified type. Lists and maps are read as array and map values, and
+     * other values, such as structs, are read as JSON.
+     */
+    public static Slice getComplexValue(DateTimeZone sessionTimeZone, Object object, ObjectInspector objectInspector, Type type)
+    {
+        if (type instanceof ArrayType || type instanceof MapType) {
+            return (Slice) getStackValue(sessionTimeZone, object, objectInspector, type);
+        }
+        return Slices.wrappedBuffer(getJsonBytes(sessionTimeZone, object, objectInspector));
+    }
+
+    private static Object getStackValue(DateTimeZone sessionTimeZone, Object object, ObjectInspector inspector, Type type)
+    {
+        if (object == null) {
+            return null;
+        }
+
+        switch (inspector.getCategory()) {
+            case PRIMITIVE:
+                return getPrimitiveStackValue(object, (PrimitiveObjectInspector) inspector);
+            case LIST:
+                return getListStackValue(sessionTimeZone, object, (ListObjectInspector) inspector, checkType(type, ArrayType.class, "type"));
+            case MAP:
+                return getMapStackValue(sessionTimeZone, object, (MapObjectInspector) inspector, checkType(type, MapType.class, "type"));
+            default:
+                return Slices.wrappedBuffer(getJsonBytes(sessionTimeZone, object, inspector));
+        }
+    }
+
+    private static Object getPrimitiveStackValue(Object object, PrimitiveObjectInspector inspector)
+    {
+        if (inspector.getPrimitiveCategory() == TIMESTAMP) {
+            return getTimestamp(object, (TimestampObjectInspector) inspector).getTime();
+        }
+
+        Object value = inspector.getPrimitiveJavaObject(object);
+        if (value == null) {
+            return null;
+        }
+
+        switch (inspector.getPrimitiveCategory()) {
+            case BOOLEAN:
+                return value;
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+                return ((Number) value).longValue();
+            case FLOAT:
+            case DOUBLE:
+                return ((Number) value).doubleValue();
+            case STRING:
+                return Slices.utf8Slice((String) value);
+            case BINARY:
+                return Slices.wrappedBuffer((byte[]) value);
+        }
+        throw new RuntimeException("Unknown primitive type: " + inspector.getPrimitiveCategory());
+    }
+
+    private static Slice getListStackValue(DateTimeZone sessionTimeZone, Object object, ListObjectInspector inspector, ArrayType type)
+    {
+        List<?> list = inspector.getList(object);
+        if (list == null) {
+            return null;
+        }
+
+        ObjectInspector elementInspector = inspector.getListElementObjectInspector();
+
+        List<Object> elements = new ArrayList<>(list.size());
+        for (Object element : list) {
+            elements.add(getStackValue(sessionTimeZone, element, elementInspector, type.getElementType()));
+        }
+        return type.toStackRepresentation(elements);
+    }
+
+    private static Slice getMapStackValue(DateTimeZone sessionTimeZone, Object object, MapObjectInspector inspector, MapType type)
+    {
+        Map<?, ?> map = inspector.getMap(object);
+        if (map == null) {
+            return null;
+        }
+
+        ObjectInspector keyInspector = inspector.getMapKeyObjectInspector();
+        ObjectInspector valueInspector = inspector.getMapValueObjectInspector();
+
+        // entries with null keys are skipped, like Hive does
+        Map<Object, Object> entries = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            Object key = getStackValue(sessionTimeZone, entry.getKey(), keyInspector, type.getKeyType());
+            if (key != null) {
+                entries.put(key, getStackValue(sessionTimeZone, entry.getValue(), valueInspector, type.getValueType()));
+            }
+        }
+        return type.toStackRepresentation(entries);
+    }
+
     public static byte[] getJsonBytes(DateTimeZone sessionTimeZone, Object object, ObjectInspector objectInspector)
     {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
@@ -199,7 +199,7 @@ public abstract class AbstractTestHiveClient
         HiveCluster hiveCluster = new TestingHiveCluster(hiveClientConfig, host, port);
         ExecutorService executor = newCachedThreadPool(daemonThreadsNamed("hive-%s"));
 
-        metastoreClient = new CachingHiveMetastore(hiveCluster, executor, Duration.valueOf("1m"), Duration.valueOf("15s"));
+        metastoreClient = new CachingHiveMetastore(hiveCluster, executor, Duration.valueOf("1m"), Duration.valueOf("15s"), Duration.valueOf("15s"), 10_000, 10_000_000);
 
         HiveClient client = new HiveClient(
                 new HiveConnectorId(connectorName),
@@ -214,10 +214,15 @@ public abstract class AbstractTestHiveClient
                 maxThreads,
                 hiveClientConfig.getMinPartitionBatchSize(),
                 hiveClientConfig.getMaxPartitionBatchSize(),
+                hiveClientConfig.getMaxConcurrentPartitionBatches(),
                 hiveClientConfig.getMaxInitialSplitSize(),
                 hiveClientConfig.getMaxInitialSplits(),
+                hiveClientConfig.getMaxCombinedSplitFiles(),
                 false,
                 hiveClientConfig.getHiveStorageFormat(),
+                hiveClientConfig.getHiveCompressionCodec(),
+                false,
+                true,
                 false);
 
         metadata = client;
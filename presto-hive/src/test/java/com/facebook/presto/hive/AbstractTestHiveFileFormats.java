@@ -13,11 +13,14 @@
  */
 package com.facebook.presto.hive;
 
+import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.RecordCursor;
+import com.facebook.presto.spi.type.ArrayType;
+import com.facebook.presto.spi.type.MapType;
+import com.facebook.presto.spi.type.SqlTimestamp;
 import com.facebook.presto.spi.type.TimestampType;
 import com.facebook.presto.spi.type.Type;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.facebook.presto.spi.type.VariableWidthType;
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
@@ -42,7 +45,6 @@ import org.apache.hadoop.mapred.FileSplit;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.util.Progressable;
 import org.joda.time.DateTime;
-import org.joda.time.format.DateTimeFormat;
 import org.testng.annotations.Test;
 
 import java.io.File;
@@ -50,11 +52,13 @@ import java.io.IOException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Properties;
 
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.TimeZoneKey.UTC_KEY;
 import static com.facebook.presto.spi.type.VarbinaryType.VARBINARY;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.google.common.collect.Iterables.transform;
@@ -172,7 +176,9 @@ public abstract class AbstractTestHiveFileFormats
     protected static final String COLUMN_NAMES_STRING = Joiner.on(",").join(COLUMN_NAMES);
 
     public static final long TIMESTAMP = new DateTime(2011, 5, 6, 7, 8, 9, 123).getMillis();
-    public static final String TIMESTAMP_STRING = DateTimeFormat.forPattern("yyyy-MM-dd HH:mm:ss.SSS").print(TIMESTAMP);
+
+    private static final ConnectorSession SESSION = new ConnectorSession("user", "test", "catalog", "test", UTC_KEY, Locale.ENGLISH, null, null);
+    private static final SqlTimestamp SQL_TIMESTAMP = new SqlTimestamp(TIMESTAMP, UTC_KEY);
 
     // Pairs of <value-to-write-to-Hive, value-expected-from-Presto>
     @SuppressWarnings("unchecked")
@@ -190,32 +196,34 @@ public abstract class AbstractTestHiveFileFormats
                 Pair.<Object, Object>of(true, true),
                 Pair.<Object, Object>of(new Timestamp(TIMESTAMP), TIMESTAMP),
                 Pair.<Object, Object>of(Slices.utf8Slice("test2"), Slices.utf8Slice("test2")),
-                Pair.<Object, Object>of(ImmutableMap.of("test", "test"), "{\"test\":\"test\"}"),
-                Pair.<Object, Object>of(ImmutableMap.of((byte) 1, (byte) 1), "{\"1\":1}"),
-                Pair.<Object, Object>of(ImmutableMap.of((short) 2, (short) 2), "{\"2\":2}"),
-                Pair.<Object, Object>of(ImmutableMap.of(3, 3), "{\"3\":3}"),
-                Pair.<Object, Object>of(ImmutableMap.of(4L, 4L), "{\"4\":4}"),
-                Pair.<Object, Object>of(ImmutableMap.of(5.0f, 5.0f), "{\"5.0\":5.0}"),
-                Pair.<Object, Object>of(ImmutableMap.of(6.0, 6.0), "{\"6.0\":6.0}"),
-                Pair.<Object, Object>of(ImmutableMap.of(true, true), "{\"true\":true}"),
-                Pair.<Object, Object>of(ImmutableMap.of(new Timestamp(TIMESTAMP), new Timestamp(TIMESTAMP)), String.format("{\"%s\":\"%s\"}", TIMESTAMP_STRING, TIMESTAMP_STRING)),
-                Pair.<Object, Object>of(ImmutableList.of("test"), "[\"test\"]"),
-                Pair.<Object, Object>of(ImmutableList.of((byte) 1), "[1]"),
-                Pair.<Object, Object>of(ImmutableList.of((short) 2), "[2]"),
-                Pair.<Object, Object>of(ImmutableList.of(3), "[3]"),
-                Pair.<Object, Object>of(ImmutableList.of(4L), "[4]"),
-                Pair.<Object, Object>of(ImmutableList.of(5.0f), "[5.0]"),
-                Pair.<Object, Object>of(ImmutableList.of(6.0), "[6.0]"),
-                Pair.<Object, Object>of(ImmutableList.of(true), "[true]"),
-                Pair.<Object, Object>of(ImmutableList.of(new Timestamp(TIMESTAMP)), String.format("[\"%s\"]", TIMESTAMP_STRING)),
-                Pair.<Object, Object>of(ImmutableMap.of("test", ImmutableList.<Object>of(new Integer[] {1})), "{\"test\":[{\"s_int\":1}]}")
+                Pair.<Object, Object>of(ImmutableMap.of("test", "test"), ImmutableMap.of("test", "test")),
+                Pair.<Object, Object>of(ImmutableMap.of((byte) 1, (byte) 1), ImmutableMap.of(1L, 1L)),
+                Pair.<Object, Object>of(ImmutableMap.of((short) 2, (short) 2), ImmutableMap.of(2L, 2L)),
+                Pair.<Object, Object>of(ImmutableMap.of(3, 3), ImmutableMap.of(3L, 3L)),
+                Pair.<Object, Object>of(ImmutableMap.of(4L, 4L), ImmutableMap.of(4L, 4L)),
+                Pair.<Object, Object>of(ImmutableMap.of(5.0f, 5.0f), ImmutableMap.of(5.0, 5.0)),
+                Pair.<Object, Object>of(ImmutableMap.of(6.0, 6.0), ImmutableMap.of(6.0, 6.0)),
+                Pair.<Object, Object>of(ImmutableMap.of(true, true), ImmutableMap.of(true, true)),
+                Pair.<Object, Object>of(ImmutableMap.of(new Timestamp(TIMESTAMP), new Timestamp(TIMESTAMP)), ImmutableMap.of(SQL_TIMESTAMP, SQL_TIMESTAMP)),
+                Pair.<Object, Object>of(ImmutableList.of("test"), ImmutableList.of("test")),
+                Pair.<Object, Object>of(ImmutableList.of((byte) 1), ImmutableList.of(1L)),
+                Pair.<Object, Object>of(ImmutableList.of((short) 2), ImmutableList.of(2L)),
+                Pair.<Object, Object>of(ImmutableList.of(3), ImmutableList.of(3L)),
+                Pair.<Object, Object>of(ImmutableList.of(4L), ImmutableList.of(4L)),
+                Pair.<Object, Object>of(ImmutableList.of(5.0f), ImmutableList.of(5.0)),
+                Pair.<Object, Object>of(ImmutableList.of(6.0), ImmutableList.of(6.0)),
+                Pair.<Object, Object>of(ImmutableList.of(true), ImmutableList.of(true)),
+                Pair.<Object, Object>of(ImmutableList.of(new Timestamp(TIMESTAMP)), ImmutableList.of(SQL_TIMESTAMP)),
+                // structs are read as JSON
+                Pair.<Object, Object>of(ImmutableMap.of("test", ImmutableList.<Object>of(new Integer[] {1})), ImmutableMap.of("test", ImmutableList.of("{\"s_int\":1}")))
         );
 
     protected List<HiveColumnHandle> getColumns()
     {
         List<HiveColumnHandle> columns = new ArrayList<>();
         for (int i = 0; i < COLUMN_NAMES.size(); i++) {
-            columns.add(new HiveColumnHandle("client_id=0", COLUMN_NAMES.get(i), i, HiveType.getHiveType(FIELD_INSPECTORS.get(i)), i, false));
+            ObjectInspector inspector = FIELD_INSPECTORS.get(i);
+            columns.add(new HiveColumnHandle("client_id=0", COLUMN_NAMES.get(i), i, HiveType.getHiveType(inspector), HiveType.getNativeType(inspector), i, false));
         }
         return columns;
     }
@@ -291,7 +299,7 @@ public abstract class AbstractTestHiveFileFormats
             for (int i = 2; i < TEST_VALUES.size(); i++) {
                 Object fieldFromCursor;
 
-                Type type = HiveType.getHiveType(FIELD_INSPECTORS.get(i)).getNativeType();
+                Type type = HiveType.getNativeType(FIELD_INSPECTORS.get(i));
                 if (BOOLEAN.equals(type)) {
                     fieldFromCursor = cursor.getBoolean(i);
                 }
@@ -310,6 +318,10 @@ public abstract class AbstractTestHiveFileFormats
                 else if (TimestampType.TIMESTAMP.equals(type)) {
                     fieldFromCursor = cursor.getLong(i);
                 }
+                else if (type instanceof ArrayType || type instanceof MapType) {
+                    Slice slice = cursor.getSlice(i);
+                    fieldFromCursor = ((VariableWidthType) type).getObjectValue(SESSION, slice, 0, slice.length());
+                }
                 else {
                     throw new RuntimeException("unknown type");
                 }
@@ -318,14 +330,8 @@ public abstract class AbstractTestHiveFileFormats
                         FIELD_INSPECTORS.get(i).getTypeName().equals("double")) {
                     assertEquals((double) fieldFromCursor, (double) TEST_VALUES.get(i).getValue(), EPSILON);
                 }
-                else if (FIELD_INSPECTORS.get(i).getCategory() == ObjectInspector.Category.PRIMITIVE) {
-                    assertEquals(fieldFromCursor, TEST_VALUES.get(i).getValue(), String.format("Wrong value for column %d", i));
-                }
                 else {
-                    ObjectMapper mapper = new ObjectMapper();
-                    JsonNode expected = mapper.readTree((String) TEST_VALUES.get(i).getValue());
-                    JsonNode actual = mapper.readTree(((Slice) fieldFromCursor).getBytes());
-                    assertEquals(actual, expected, String.format("Wrong value for column %s", COLUMN_NAMES.get(i)));
+                    assertEquals(fieldFromCursor, TEST_VALUES.get(i).getValue(), String.format("Wrong value for column %s", COLUMN_NAMES.get(i)));
                 }
             }
         }
@@ -0,0 +1,162 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+import io.airlift.units.Duration;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.airlift.testing.FileUtils.deleteRecursively;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestCachingDirectoryLister
+{
+    private File tempDir;
+    private FileSystem fs;
+    private CountingDirectoryLister delegate;
+
+    @BeforeMethod
+    public void setUp()
+            throws Exception
+    {
+        tempDir = Files.createTempDir();
+        fs = FileSystem.getLocal(new Configuration());
+        delegate = new CountingDirectoryLister();
+    }
+
+    @AfterMethod
+    public void tearDown()
+    {
+        deleteRecursively(tempDir);
+    }
+
+    @Test
+    public void testCachedUntilModified()
+            throws Exception
+    {
+        CachingDirectoryLister lister = new CachingDirectoryLister(delegate, new Duration(1, TimeUnit.HOURS), 1000);
+        Path path = new Path(tempDir.toURI());
+        assertTrue(new File(tempDir, "a").createNewFile());
+        assertTrue(new File(tempDir, "b").createNewFile());
+
+        assertEquals(list(lister, path), ImmutableSet.of("a", "b"));
+        assertEquals(list(lister, path), ImmutableSet.of("a", "b"));
+        assertEquals(delegate.getCalls(), 1);
+        assertEquals(lister.getHits().getTotalCount(), 1);
+        assertEquals(lister.getMisses().getTotalCount(), 1);
+
+        // adding a file changes the modification time of the directory
+        assertTrue(new File(tempDir, "c").createNewFile());
+        assertTrue(tempDir.setLastModified(tempDir.lastModified() + 10_000));
+
+        assertEquals(list(lister, path), ImmutableSet.of("a", "b", "c"));
+        assertEquals(delegate.getCalls(), 2);
+        assertEquals(list(lister, path), ImmutableSet.of("a", "b", "c"));
+        assertEquals(delegate.getCalls(), 2);
+    }
+
+    @Test
+    public void testPartialListingNotCached()
+            throws Exception
+    {
+        CachingDirectoryLister lister = new CachingDirectoryLister(delegate, new Duration(1, TimeUnit.HOURS), 1000);
+        Path path = new Path(tempDir.toURI());
+        assertTrue(new File(tempDir, "a").createNewFile());
+        assertTrue(new File(tempDir, "b").createNewFile());
+
+        lister.list(fs, path).next();
+        assertEquals(lister.getSize(), 0);
+
+        assertEquals(list(lister, path), ImmutableSet.of("a", "b"));
+        assertEquals(list(lister, path), ImmutableSet.of("a", "b"));
+        assertEquals(delegate.getCalls(), 2);
+    }
+
+    @Test
+    public void testDisabled()
+            throws Exception
+    {
+        CachingDirectoryLister lister = new CachingDirectoryLister(delegate, new Duration(0, TimeUnit.SECONDS), 1000);
+        Path path = new Path(tempDir.toURI());
+        assertTrue(new File(tempDir, "a").createNewFile());
+
+        assertEquals(list(lister, path), ImmutableSet.of("a"));
+        assertEquals(list(lister, path), ImmutableSet.of("a"));
+        assertEquals(delegate.getCalls(), 2);
+        assertEquals(lister.getHits().getTotalCount(), 0);
+
+        // the directory is listed directly, without checking its modification time
+        assertEquals(lister.getMisses().getTotalCount(), 0);
+        assertEquals(lister.getSize(), 0);
+    }
+
+    @Test
+    public void testMaxFiles()
+            throws Exception
+    {
+        CachingDirectoryLister lister = new CachingDirectoryLister(delegate, new Duration(1, TimeUnit.HOURS), 1);
+        Path path = new Path(tempDir.toURI());
+        assertTrue(new File(tempDir, "a").createNewFile());
+        assertTrue(new File(tempDir, "b").createNewFile());
+
+        list(lister, path);
+        list(lister, path);
+        assertEquals(delegate.getCalls(), 2);
+    }
+
+    private ImmutableSet<String> list(DirectoryLister lister, Path path)
+            throws IOException
+    {
+        ImmutableSet.Builder<String> names = ImmutableSet.builder();
+        RemoteIterator<LocatedFileStatus> iterator = lister.list(fs, path);
+        while (iterator.hasNext()) {
+            names.add(iterator.next().getPath().getName());
+        }
+        return names.build();
+    }
+
+    private static class CountingDirectoryLister
+            extends HadoopDirectoryLister
+    {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public RemoteIterator<LocatedFileStatus> list(FileSystem fs, Path path)
+                throws IOException
+        {
+            calls.incrementAndGet();
+            return super.list(fs, path);
+        }
+
+        public int getCalls()
+        {
+            return calls.get();
+        }
+    }
+}
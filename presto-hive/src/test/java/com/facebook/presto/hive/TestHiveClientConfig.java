@@ -13,7 +13,6 @@
  */
 package com.facebook.presto.hive;
 
-import com.google.common.base.StandardSystemProperty;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.net.HostAndPort;
@@ -24,12 +23,15 @@ import io.airlift.units.DataSize.Unit;
 import io.airlift.units.Duration;
 import org.testng.annotations.Test;
 
-import java.io.File;
+import javax.validation.constraints.AssertTrue;
+
 import java.util.Map;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
 import static com.facebook.presto.hive.TestHiveUtil.nonDefaultTimeZone;
+import static io.airlift.testing.ValidationAssertions.assertFailsValidation;
+import static io.airlift.testing.ValidationAssertions.assertValidates;
 
 @DefunctConfig("hive.file-system-cache-ttl")
 public class TestHiveClientConfig
@@ -44,20 +46,30 @@ public class TestHiveClientConfig
                 .setMaxGlobalSplitIteratorThreads(1_000)
                 .setMaxSplitIteratorThreads(50)
                 .setAllowDropTable(false)
+                .setBucketExecutionEnabled(true)
+                .setStatisticsPruningEnabled(false)
                 .setMetastoreCacheTtl(new Duration(1, TimeUnit.HOURS))
                 .setMetastoreRefreshInterval(new Duration(2, TimeUnit.MINUTES))
+                .setMetastoreNegativeCacheTtl(new Duration(30, TimeUnit.SECONDS))
+                .setMetastoreCacheMaximumSize(10_000)
+                .setMetastorePartitionCacheMaximumColumns(10_000_000)
                 .setMaxMetastoreRefreshThreads(100)
+                .setFileStatusCacheTtl(new Duration(1, TimeUnit.MINUTES))
+                .setFileStatusCacheMaxFiles(100_000)
                 .setMetastoreSocksProxy(null)
                 .setMetastoreTimeout(new Duration(10, TimeUnit.SECONDS))
                 .setMinPartitionBatchSize(10)
                 .setMaxPartitionBatchSize(100)
+                .setMaxConcurrentPartitionBatches(4)
                 .setMaxInitialSplits(200)
                 .setMaxInitialSplitSize(new DataSize(32, Unit.MEGABYTE))
+                .setMaxCombinedSplitFiles(100)
                 .setDfsTimeout(new Duration(10, TimeUnit.SECONDS))
                 .setDfsConnectTimeout(new Duration(500, TimeUnit.MILLISECONDS))
                 .setDfsConnectMaxRetries(5)
                 .setResourceConfigFiles((String) null)
                 .setHiveStorageFormat(HiveStorageFormat.RCBINARY)
+                .setHiveCompressionCodec(HiveCompressionCodec.GZIP)
                 .setDomainSocketPath(null)
                 .setS3AwsAccessKey(null)
                 .setS3AwsSecretKey(null)
@@ -66,7 +78,10 @@ public class TestHiveClientConfig
                 .setS3MaxErrorRetries(10)
                 .setS3MaxBackoffTime(new Duration(10, TimeUnit.MINUTES))
                 .setS3ConnectTimeout(new Duration(5, TimeUnit.SECONDS))
-                .setS3StagingDirectory(new File(StandardSystemProperty.JAVA_IO_TMPDIR.value())));
+                .setS3MultipartPartSize(new DataSize(16, Unit.MEGABYTE))
+                .setS3MultipartMaxConcurrentParts(4)
+                .setS3ReadChunkSize(new DataSize(2, Unit.MEGABYTE))
+                .setS3ReadMaxConcurrentChunks(4));
     }
 
     @Test
@@ -79,20 +94,30 @@ public class TestHiveClientConfig
                 .put("hive.max-global-split-iterator-threads", "10")
                 .put("hive.max-split-iterator-threads", "2")
                 .put("hive.allow-drop-table", "true")
+                .put("hive.bucket-execution-enabled", "false")
+                .put("hive.statistics-pruning-enabled", "true")
                 .put("hive.metastore-cache-ttl", "2h")
                 .put("hive.metastore-refresh-interval", "30m")
+                .put("hive.metastore-negative-cache-ttl", "5s")
+                .put("hive.metastore-cache-maximum-size", "5000")
+                .put("hive.metastore-partition-cache-maximum-columns", "1000")
                 .put("hive.metastore-refresh-max-threads", "2500")
+                .put("hive.file-status-cache-ttl", "5m")
+                .put("hive.file-status-cache-max-files", "1000")
                 .put("hive.metastore.thrift.client.socks-proxy", "localhost:1080")
                 .put("hive.metastore-timeout", "20s")
                 .put("hive.metastore.partition-batch-size.min", "1")
                 .put("hive.metastore.partition-batch-size.max", "1000")
+                .put("hive.metastore.partition-batch-concurrency", "8")
                 .put("hive.dfs-timeout", "33s")
                 .put("hive.dfs.connect.timeout", "20s")
                 .put("hive.dfs.connect.max-retries", "10")
                 .put("hive.config.resources", "/foo.xml,/bar.xml")
                 .put("hive.max-initial-splits", "10")
                 .put("hive.max-initial-split-size", "16MB")
+                .put("hive.max-combined-split-files", "20")
                 .put("hive.storage-format", "SEQUENCEFILE")
+                .put("hive.compression-codec", "NONE")
                 .put("dfs.domain-socket-path", "/foo")
                 .put("hive.s3.aws-access-key", "abc123")
                 .put("hive.s3.aws-secret-key", "secret")
@@ -101,7 +126,10 @@ public class TestHiveClientConfig
                 .put("hive.s3.max-error-retries", "8")
                 .put("hive.s3.max-backoff-time", "4m")
                 .put("hive.s3.connect-timeout", "8s")
-                .put("hive.s3.staging-directory", "/s3-staging")
+                .put("hive.s3.multipart.part-size", "32MB")
+                .put("hive.s3.multipart.max-concurrent-parts", "6")
+                .put("hive.s3.read.chunk-size", "8MB")
+                .put("hive.s3.read.max-concurrent-chunks", "3")
                 .build();
 
         HiveClientConfig expected = new HiveClientConfig()
@@ -111,20 +139,30 @@ public class TestHiveClientConfig
                 .setMaxGlobalSplitIteratorThreads(10)
                 .setMaxSplitIteratorThreads(2)
                 .setAllowDropTable(true)
+                .setBucketExecutionEnabled(false)
+                .setStatisticsPruningEnabled(true)
                 .setMetastoreCacheTtl(new Duration(2, TimeUnit.HOURS))
                 .setMetastoreRefreshInterval(new Duration(30, TimeUnit.MINUTES))
+                .setMetastoreNegativeCacheTtl(new Duration(5, TimeUnit.SECONDS))
+                .setMetastoreCacheMaximumSize(5000)
+                .setMetastorePartitionCacheMaximumColumns(1000)
                 .setMaxMetastoreRefreshThreads(2500)
+                .setFileStatusCacheTtl(new Duration(5, TimeUnit.MINUTES))
+                .setFileStatusCacheMaxFiles(1000)
                 .setMetastoreSocksProxy(HostAndPort.fromParts("localhost", 1080))
                 .setMetastoreTimeout(new Duration(20, TimeUnit.SECONDS))
                 .setMinPartitionBatchSize(1)
                 .setMaxPartitionBatchSize(1000)
+                .setMaxConcurrentPartitionBatches(8)
                 .setMaxInitialSplits(10)
                 .setMaxInitialSplitSize(new DataSize(16, Unit.MEGABYTE))
+                .setMaxCombinedSplitFiles(20)
                 .setDfsTimeout(new Duration(33, TimeUnit.SECONDS))
                 .setDfsConnectTimeout(new Duration(20, TimeUnit.SECONDS))
                 .setDfsConnectMaxRetries(10)
                 .setResourceConfigFiles(ImmutableList.of("/foo.xml", "/bar.xml"))
                 .setHiveStorageFormat(HiveStorageFormat.SEQUENCEFILE)
+                .setHiveCompressionCodec(HiveCompressionCodec.NONE)
                 .setDomainSocketPath("/foo")
                 .setS3AwsAccessKey("abc123")
                 .setS3AwsSecretKey("secret")
@@ -133,8 +171,17 @@ public class TestHiveClientConfig
                 .setS3MaxErrorRetries(8)
                 .setS3MaxBackoffTime(new Duration(4, TimeUnit.MINUTES))
                 .setS3ConnectTimeout(new Duration(8, TimeUnit.SECONDS))
-                .setS3StagingDirectory(new File("/s3-staging"));
+                .setS3MultipartPartSize(new DataSize(32, Unit.MEGABYTE))
+                .setS3MultipartMaxConcurrentParts(6)
+                .setS3ReadChunkSize(new DataSize(8, Unit.MEGABYTE))
+                .setS3ReadMaxConcurrentChunks(3);
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
+    @Test
+    public void testValidations()
+    {
+        assertValidates(new HiveClientConfig().setS3MultipartPartSize(new DataSize(5, Unit.MEGABYTE)));
+        assertFailsValidation(new HiveClientConfig().setS3MultipartPartSize(new DataSize(4, Unit.MEGABYTE)), "s3MultipartPartSizeValid", "S3 multipart part size must be at least 5MB", AssertTrue.class);
+    }
 }
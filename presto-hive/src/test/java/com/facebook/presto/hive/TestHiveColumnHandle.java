@@ -13,20 +13,48 @@
  */
 package com.facebook.presto.hive;
 
+import com.facebook.presto.spi.type.ArrayType;
+import com.facebook.presto.spi.type.MapType;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.type.TypeDeserializer;
+import com.facebook.presto.type.TypeRegistry;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.google.common.collect.ImmutableMap;
 import io.airlift.json.JsonCodec;
+import io.airlift.json.JsonCodecFactory;
+import io.airlift.json.ObjectMapperProvider;
 import org.testng.annotations.Test;
 
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static org.testng.Assert.assertEquals;
 
 public class TestHiveColumnHandle
 {
-    private final JsonCodec<HiveColumnHandle> codec = JsonCodec.jsonCodec(HiveColumnHandle.class);
+    private final JsonCodec<HiveColumnHandle> codec;
+
+    public TestHiveColumnHandle()
+    {
+        ObjectMapperProvider objectMapperProvider = new ObjectMapperProvider();
+        objectMapperProvider.setJsonDeserializers(ImmutableMap.<Class<?>, JsonDeserializer<?>>of(Type.class, new TypeDeserializer(new TypeRegistry())));
+        codec = new JsonCodecFactory(objectMapperProvider).jsonCodec(HiveColumnHandle.class);
+    }
 
     @Test
     public void testRoundTrip()
     {
-        HiveColumnHandle expected = new HiveColumnHandle("client", "name", 42, HiveType.FLOAT, 88, true);
+        assertRoundTrip(new HiveColumnHandle("client", "name", 42, HiveType.FLOAT, 88, true));
+    }
 
+    @Test
+    public void testMapRoundTrip()
+    {
+        Type type = new MapType(VARCHAR, new ArrayType(BIGINT));
+        assertRoundTrip(new HiveColumnHandle("client", "name", 42, HiveType.MAP, type, 88, false));
+    }
+
+    private void assertRoundTrip(HiveColumnHandle expected)
+    {
         String json = codec.toJson(expected);
         HiveColumnHandle actual = codec.fromJson(json);
 
@@ -34,6 +62,7 @@ public class TestHiveColumnHandle
         assertEquals(actual.getName(), expected.getName());
         assertEquals(actual.getOrdinalPosition(), expected.getOrdinalPosition());
         assertEquals(actual.getHiveType(), expected.getHiveType());
+        assertEquals(actual.getType(), expected.getType());
         assertEquals(actual.getHiveColumnIndex(), expected.getHiveColumnIndex());
         assertEquals(actual.isPartitionKey(), expected.isPartitionKey());
     }
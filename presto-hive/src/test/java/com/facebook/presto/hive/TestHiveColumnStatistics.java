@@ -0,0 +1,97 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.spi.ConnectorColumnHandle;
+import com.facebook.presto.spi.Domain;
+import com.facebook.presto.spi.Range;
+import com.facebook.presto.spi.SortedRangeSet;
+import com.facebook.presto.spi.TupleDomain;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.Slice;
+import org.apache.hadoop.hive.metastore.api.BooleanColumnStatsData;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsData;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
+import org.apache.hadoop.hive.metastore.api.DoubleColumnStatsData;
+import org.apache.hadoop.hive.metastore.api.LongColumnStatsData;
+import org.apache.hadoop.hive.metastore.api.StringColumnStatsData;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestHiveColumnStatistics
+{
+    private static final HiveColumnHandle LONG_COLUMN = new HiveColumnHandle("test", "t_long", 0, HiveType.LONG, 0, false);
+    private static final HiveColumnHandle DOUBLE_COLUMN = new HiveColumnHandle("test", "t_double", 1, HiveType.DOUBLE, 1, false);
+    private static final HiveColumnHandle BOOLEAN_COLUMN = new HiveColumnHandle("test", "t_boolean", 2, HiveType.BOOLEAN, 2, false);
+    private static final HiveColumnHandle STRING_COLUMN = new HiveColumnHandle("test", "t_string", 3, HiveType.STRING, 3, false);
+
+    private static final Map<String, ColumnStatisticsObj> STATISTICS = ImmutableMap.of(
+            "t_long", new ColumnStatisticsObj("t_long", "bigint", ColumnStatisticsData.longStats(new LongColumnStatsData(100, 200, 0, 50))),
+            "t_double", new ColumnStatisticsObj("t_double", "double", ColumnStatisticsData.doubleStats(new DoubleColumnStatsData(-1.5, 1.5, 3, 50))),
+            "t_boolean", new ColumnStatisticsObj("t_boolean", "boolean", ColumnStatisticsData.booleanStats(new BooleanColumnStatsData(10, 0, 0))),
+            "t_string", new ColumnStatisticsObj("t_string", "string", ColumnStatisticsData.stringStats(new StringColumnStatsData(10, 5.5, 0, 20))));
+
+    @Test
+    public void testLongRange()
+    {
+        assertTrue(canMatch(LONG_COLUMN, Domain.singleValue(150L)));
+        assertTrue(canMatch(LONG_COLUMN, Domain.singleValue(200L)));
+        assertTrue(canMatch(LONG_COLUMN, Domain.create(SortedRangeSet.of(Range.greaterThan(199L)), false)));
+        assertFalse(canMatch(LONG_COLUMN, Domain.singleValue(99L)));
+        assertFalse(canMatch(LONG_COLUMN, Domain.create(SortedRangeSet.of(Range.greaterThan(200L)), false)));
+        assertFalse(canMatch(LONG_COLUMN, Domain.onlyNull(Long.class)));
+    }
+
+    @Test
+    public void testDoubleRange()
+    {
+        assertTrue(canMatch(DOUBLE_COLUMN, Domain.create(SortedRangeSet.of(Range.lessThan(-1.0)), false)));
+        assertFalse(canMatch(DOUBLE_COLUMN, Domain.create(SortedRangeSet.of(Range.lessThan(-1.5)), false)));
+        // the column contains nulls
+        assertTrue(canMatch(DOUBLE_COLUMN, Domain.onlyNull(Double.class)));
+    }
+
+    @Test
+    public void testBoolean()
+    {
+        assertTrue(canMatch(BOOLEAN_COLUMN, Domain.singleValue(true)));
+        assertFalse(canMatch(BOOLEAN_COLUMN, Domain.singleValue(false)));
+    }
+
+    @Test
+    public void testString()
+    {
+        // string statistics only describe nulls
+        assertTrue(canMatch(STRING_COLUMN, Domain.singleValue(utf8Slice("foo"))));
+        assertFalse(canMatch(STRING_COLUMN, Domain.onlyNull(Slice.class)));
+    }
+
+    @Test
+    public void testMissingStatistics()
+    {
+        TupleDomain<ConnectorColumnHandle> tupleDomain = TupleDomain.withColumnDomains(ImmutableMap.<ConnectorColumnHandle, Domain>of(LONG_COLUMN, Domain.singleValue(0L)));
+        assertTrue(HiveColumnStatistics.canMatch(tupleDomain, ImmutableMap.<String, ColumnStatisticsObj>of()));
+        assertFalse(HiveColumnStatistics.canMatch(TupleDomain.<ConnectorColumnHandle>none(), ImmutableMap.<String, ColumnStatisticsObj>of()));
+    }
+
+    private static boolean canMatch(HiveColumnHandle column, Domain domain)
+    {
+        return HiveColumnStatistics.canMatch(TupleDomain.withColumnDomains(ImmutableMap.<ConnectorColumnHandle, Domain>of(column, domain)), STATISTICS);
+    }
+}
@@ -22,26 +22,35 @@ import com.facebook.presto.tests.DistributedQueryRunner;
 import com.facebook.presto.tpch.TpchMetadata;
 import com.facebook.presto.tpch.TpchPlugin;
 import com.facebook.presto.tpch.testing.SampledTpchPlugin;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.airlift.log.Logger;
 import org.apache.hadoop.hive.metastore.api.Database;
+import org.apache.hadoop.hive.metastore.api.Table;
 import org.intellij.lang.annotations.Language;
 import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
 
 import java.io.File;
+import java.io.FilenameFilter;
+import java.net.URI;
 import java.util.Map;
 
 import static com.facebook.presto.spi.type.TimeZoneKey.UTC_KEY;
 import static com.facebook.presto.util.Types.checkType;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static io.airlift.units.Duration.nanosSince;
 import static java.lang.String.format;
 import static java.util.Locale.ENGLISH;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class TestHiveDistributedQueries
         extends AbstractTestDistributedQueries
 {
     private static final Logger log = Logger.get("TestQueries");
+    private static final int BUCKET_COUNT = 7;
 
     public TestHiveDistributedQueries()
             throws Exception
@@ -49,6 +58,49 @@ public class TestHiveDistributedQueries
         super(createQueryRunner(), createSession("tpch_sampled"));
     }
 
+    @Test
+    public void testBucketedJoin()
+            throws Exception
+    {
+        assertQuery(
+                "SELECT o.orderkey, o.orderstatus, l.linenumber FROM tpch_bucketed.orders o JOIN tpch_bucketed.lineitem l ON o.orderkey = l.orderkey",
+                "SELECT o.orderkey, o.orderstatus, l.linenumber FROM orders o JOIN lineitem l ON o.orderkey = l.orderkey");
+    }
+
+    @Test
+    public void testBucketedRightJoin()
+            throws Exception
+    {
+        assertQuery(
+                "SELECT o.orderkey, l.linenumber FROM (SELECT * FROM tpch_bucketed.orders WHERE orderstatus = 'F') o RIGHT JOIN tpch_bucketed.lineitem l ON o.orderkey = l.orderkey",
+                "SELECT o.orderkey, l.linenumber FROM (SELECT * FROM orders WHERE orderstatus = 'F') o RIGHT JOIN lineitem l ON o.orderkey = l.orderkey");
+    }
+
+    @Test
+    public void testBucketedAggregation()
+            throws Exception
+    {
+        assertQuery(
+                "SELECT orderkey, count(*), sum(quantity) FROM tpch_bucketed.lineitem GROUP BY orderkey",
+                "SELECT orderkey, count(*), sum(quantity) FROM lineitem GROUP BY orderkey");
+    }
+
+    @Test
+    public void testBucketedJoinAndAggregationHaveNoExchange()
+            throws Exception
+    {
+        @Language("SQL") String query = "" +
+                "SELECT o.orderkey, count(*) " +
+                "FROM tpch_bucketed.orders o JOIN tpch_bucketed.lineitem l ON o.orderkey = l.orderkey " +
+                "GROUP BY o.orderkey";
+
+        assertQuery(query, "SELECT o.orderkey, count(*) FROM orders o JOIN lineitem l ON o.orderkey = l.orderkey GROUP BY o.orderkey");
+
+        // the only exchange is the one gathering the output
+        String plan = (String) getOnlyElement(computeActual("EXPLAIN (TYPE DISTRIBUTED) " + query).getMaterializedRows()).getField(0);
+        assertEquals(plan.split("- Exchange\\[", -1).length - 1, 1, plan);
+    }
+
     @AfterClass(alwaysRun = true)
     public void destroy()
     {
@@ -71,11 +123,14 @@ public class TestHiveDistributedQueries
             InMemoryHiveMetastore metastore = new InMemoryHiveMetastore();
             metastore.createDatabase(new Database("tpch", null, new File(baseDir, "tpch").toURI().toString(), null));
             metastore.createDatabase(new Database("tpch_sampled", null, new File(baseDir, "tpch_sampled").toURI().toString(), null));
+            metastore.createDatabase(new Database("tpch_bucketed", null, new File(baseDir, "tpch_bucketed").toURI().toString(), null));
 
             queryRunner.installPlugin(new HivePlugin("hive", metastore));
             Map<String, String> hiveProperties = ImmutableMap.<String, String>builder()
                     .put("hive.metastore.uri", "thrift://localhost:8080")
                     .put("hive.allow-drop-table", "true")
+                    // combine small files into a few splits per table, so sampling by split can return a partial table
+                    .put("hive.max-combined-split-files", "2")
                     .build();
             queryRunner.createCatalog("hive", "hive", hiveProperties);
 
@@ -85,6 +140,9 @@ public class TestHiveDistributedQueries
             distributeData(queryRunner, "tpch_sampled", TpchMetadata.TINY_SCHEMA_NAME, createSession("tpch_sampled"));
             log.info("Loading complete in %s", nanosSince(startTime).toString(SECONDS));
 
+            createBucketedTable(queryRunner, metastore, "orders", "orderkey");
+            createBucketedTable(queryRunner, metastore, "lineitem", "orderkey");
+
             return queryRunner;
         }
         catch (Exception e) {
@@ -107,6 +165,51 @@ public class TestHiveDistributedQueries
         }
     }
 
+    /**
+     * Creates a copy of the table in the tpch_bucketed schema, bucketed on a bigint column. Hive hashes
+     * a small positive bigint to itself, so bucket N is written by selecting the rows with the column
+     * equal to N modulo the bucket count. Each bucket is written by a single writer, and the files are
+     * then moved into one directory in bucket order.
+     */
+    private static void createBucketedTable(QueryRunner queryRunner, InMemoryHiveMetastore metastore, String tableName, String bucketColumn)
+            throws Exception
+    {
+        ConnectorSession session = createSession("tpch");
+
+        Table bucketedTable = null;
+        File bucketedDirectory = null;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            String bucketTableName = format("%s_bucket_%s", tableName, bucket);
+            // the sort forces the rows through a single writer, so the bucket is written to a single file
+            queryRunner.execute(session, format("CREATE TABLE tpch_bucketed.%s AS SELECT * FROM %s WHERE %s %% %s = %s ORDER BY %s", bucketTableName, tableName, bucketColumn, BUCKET_COUNT, bucket, bucketColumn));
+
+            Table table = metastore.getTable("tpch_bucketed", bucketTableName);
+            if (bucketedTable == null) {
+                bucketedTable = table.deepCopy();
+                bucketedDirectory = new File(new File(URI.create(table.getSd().getLocation())).getParentFile(), tableName);
+                assertTrue(bucketedDirectory.mkdirs(), "Unable to create " + bucketedDirectory);
+            }
+
+            File[] files = new File(URI.create(table.getSd().getLocation())).listFiles(new FilenameFilter()
+            {
+                @Override
+                public boolean accept(File dir, String name)
+                {
+                    return !name.startsWith(".") && !name.startsWith("_");
+                }
+            });
+            assertEquals(files.length, 1, "files for bucket " + bucket);
+            assertTrue(files[0].renameTo(new File(bucketedDirectory, format("%06d_0", bucket))));
+            metastore.dropTable("tpch_bucketed", bucketTableName);
+        }
+
+        bucketedTable.setTableName(tableName);
+        bucketedTable.getSd().setLocation(bucketedDirectory.toURI().toString());
+        bucketedTable.getSd().setBucketCols(ImmutableList.of(bucketColumn));
+        bucketedTable.getSd().setNumBuckets(BUCKET_COUNT);
+        metastore.createTable(bucketedTable);
+    }
+
     private static ConnectorSession createSession(String schema)
     {
         return new ConnectorSession("user", "test", "hive", schema, UTC_KEY, ENGLISH, null, null);
@@ -0,0 +1,164 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.hadoop.HadoopNative;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.io.RCFile;
+import org.apache.hadoop.hive.serde2.columnar.BytesRefArrayWritable;
+import org.apache.hadoop.hive.serde2.columnar.LazyBinaryColumnarSerDe;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.StructField;
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapred.JobConf;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import static com.facebook.presto.hive.HiveColumnHandle.SAMPLE_WEIGHT_COLUMN_NAME;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static io.airlift.testing.FileUtils.deleteRecursively;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.UUID.randomUUID;
+import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.META_TABLE_COLUMNS;
+import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.META_TABLE_COLUMN_TYPES;
+import static org.testng.Assert.assertEquals;
+
+public class TestHiveRecordSink
+{
+    private File tempDir;
+
+    @BeforeClass
+    public void setUp()
+    {
+        HadoopNative.requireHadoopNative();
+        tempDir = Files.createTempDir();
+    }
+
+    @AfterClass
+    public void tearDown()
+    {
+        deleteRecursively(tempDir);
+    }
+
+    @DataProvider(name = "codecs")
+    public Object[][] codecs()
+    {
+        HiveCompressionCodec[] codecs = HiveCompressionCodec.values();
+        Object[][] data = new Object[codecs.length][];
+        for (int i = 0; i < codecs.length; i++) {
+            data[i] = new Object[] {codecs[i]};
+        }
+        return data;
+    }
+
+    @Test(dataProvider = "codecs")
+    public void testReadableByHive(HiveCompressionCodec codec)
+            throws Exception
+    {
+        HiveOutputTableHandle handle = new HiveOutputTableHandle(
+                "test",
+                "test_schema",
+                "test_table",
+                ImmutableList.of("t_bigint", SAMPLE_WEIGHT_COLUMN_NAME, "t_string", "t_double", "t_boolean"),
+                ImmutableList.of(BIGINT, BIGINT, VARCHAR, DOUBLE, BOOLEAN),
+                "owner",
+                tempDir.getAbsolutePath(),
+                tempDir.getAbsolutePath());
+        Path target = new Path(new File(tempDir, randomUUID().toString()).toURI());
+        JobConf conf = new JobConf();
+
+        HiveRecordSink sink = new HiveRecordSink(handle, target, conf, codec);
+
+        List<List<Object>> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            sink.beginRecord(i + 1);
+            sink.appendLong((i * 1_000_003L) - 500_000_000L);
+            sink.appendString(("value " + i).getBytes(UTF_8));
+            sink.appendDouble(i / 7.0);
+            sink.appendBoolean(i % 3 == 0);
+            sink.finishRecord();
+            expected.add(Arrays.<Object>asList((i * 1_000_003L) - 500_000_000L, i + 1L, "value " + i, i / 7.0, i % 3 == 0));
+        }
+
+        sink.beginRecord(1);
+        sink.appendNull();
+        sink.appendString(new byte[0]);
+        sink.appendNull();
+        sink.appendNull();
+        sink.finishRecord();
+        expected.add(Arrays.<Object>asList(null, 1L, "", null, null));
+
+        sink.beginRecord(1);
+        sink.appendLong(Long.MIN_VALUE);
+        sink.appendNull();
+        sink.appendDouble(Double.NaN);
+        sink.appendBoolean(false);
+        sink.finishRecord();
+        expected.add(Arrays.<Object>asList(Long.MIN_VALUE, 1L, null, Double.NaN, false));
+
+        sink.commit();
+
+        assertEquals(readWithHive(target, conf), expected);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static List<List<Object>> readWithHive(Path path, JobConf conf)
+            throws Exception
+    {
+        Properties properties = new Properties();
+        properties.setProperty(META_TABLE_COLUMNS, "t_bigint," + SAMPLE_WEIGHT_COLUMN_NAME + ",t_string,t_double,t_boolean");
+        properties.setProperty(META_TABLE_COLUMN_TYPES, "bigint:bigint:string:double:boolean");
+
+        LazyBinaryColumnarSerDe serDe = new LazyBinaryColumnarSerDe();
+        serDe.initialize(conf, properties);
+        StructObjectInspector inspector = (StructObjectInspector) serDe.getObjectInspector();
+
+        List<List<Object>> rows = new ArrayList<>();
+        RCFile.Reader reader = new RCFile.Reader(FileSystem.getLocal(conf), path, conf);
+        try {
+            LongWritable rowId = new LongWritable();
+            BytesRefArrayWritable value = new BytesRefArrayWritable();
+            while (reader.next(rowId)) {
+                reader.getCurrentRow(value);
+                Object data = serDe.deserialize(value);
+
+                List<Object> row = new ArrayList<>();
+                for (StructField field : inspector.getAllStructFieldRefs()) {
+                    PrimitiveObjectInspector fieldInspector = (PrimitiveObjectInspector) field.getFieldObjectInspector();
+                    row.add(fieldInspector.getPrimitiveJavaObject(inspector.getStructFieldData(data, field)));
+                }
+                rows.add(row);
+            }
+        }
+        finally {
+            reader.close();
+        }
+        return rows;
+    }
+}
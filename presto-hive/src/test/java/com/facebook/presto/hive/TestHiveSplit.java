@@ -15,10 +15,12 @@ package com.facebook.presto.hive;
 
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.HostAddress;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import io.airlift.json.JsonCodec;
 import org.testng.annotations.Test;
 
+import java.util.List;
 import java.util.Locale;
 import java.util.Properties;
 
@@ -39,7 +41,7 @@ public class TestHiveSplit
 
         ImmutableList<HivePartitionKey> partitionKeys = ImmutableList.of(new HivePartitionKey("a", HiveType.STRING, "apple"), new HivePartitionKey("b", HiveType.LONG, "42"));
         ImmutableList<HostAddress> addresses = ImmutableList.of(HostAddress.fromParts("127.0.0.1", 44), HostAddress.fromParts("127.0.0.1", 45));
-        HiveSplit expected = new HiveSplit("clientId", "db", "table", "partitionId", "path", 42, 88, schema, partitionKeys, addresses, SESSION);
+        HiveSplit expected = new HiveSplit("clientId", "db", "table", "partitionId", "path", 42, 88, schema, partitionKeys, addresses, Optional.of(3), SESSION, ImmutableList.<HiveFileRange>of());
 
         String json = codec.toJson(expected);
         HiveSplit actual = codec.fromJson(json);
@@ -54,9 +56,34 @@ public class TestHiveSplit
         assertEquals(actual.getSchema(), expected.getSchema());
         assertEquals(actual.getPartitionKeys(), expected.getPartitionKeys());
         assertEquals(actual.getAddresses(), expected.getAddresses());
+        assertEquals(actual.getBucketNumber(), expected.getBucketNumber());
+        assertEquals(actual.getCombinedFiles(), expected.getCombinedFiles());
         assertEquals(actual.getSession().getUser(), expected.getSession().getUser());
         assertEquals(actual.getSession().getLocale(), expected.getSession().getLocale());
         assertEquals(actual.getSession().getTimeZoneKey(), expected.getSession().getTimeZoneKey());
         assertEquals(actual.getSession().getStartTime(), expected.getSession().getStartTime());
     }
+
+    @Test
+    public void testCombinedFiles()
+    {
+        Properties schema = new Properties();
+        ImmutableList<HostAddress> addresses = ImmutableList.of(HostAddress.fromParts("127.0.0.1", 44));
+        List<HiveFileRange> combinedFiles = ImmutableList.of(new HiveFileRange("path2", 0, 55), new HiveFileRange("path3", 0, 66));
+        HiveSplit split = new HiveSplit("clientId", "db", "table", "partitionId", "path", 0, 44, schema, ImmutableList.<HivePartitionKey>of(), addresses, Optional.<Integer>absent(), SESSION, combinedFiles);
+
+        HiveSplit actual = codec.fromJson(codec.toJson(split));
+        assertEquals(actual.getCombinedFiles(), combinedFiles);
+
+        List<HiveSplit> fileSplits = actual.getFileSplits();
+        assertEquals(fileSplits.size(), 3);
+        assertEquals(fileSplits.get(0).getPath(), "path");
+        assertEquals(fileSplits.get(0).getLength(), 44);
+        assertEquals(fileSplits.get(2).getPath(), "path3");
+        assertEquals(fileSplits.get(2).getLength(), 66);
+        for (HiveSplit fileSplit : fileSplits) {
+            assertEquals(fileSplit.getCombinedFiles(), ImmutableList.of());
+            assertEquals(fileSplit.getAddresses(), addresses);
+        }
+    }
 }
@@ -15,7 +15,11 @@ package com.facebook.presto.hive;
 
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.SchemaTableName;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.type.TypeDeserializer;
+import com.facebook.presto.type.TypeRegistry;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableMap;
 import io.airlift.json.ObjectMapperProvider;
@@ -24,6 +28,7 @@ import org.testng.annotations.Test;
 import java.util.Locale;
 import java.util.Map;
 
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
 import static com.facebook.presto.spi.type.TimeZoneKey.UTC_KEY;
 import static io.airlift.testing.Assertions.assertEqualsIgnoreOrder;
 import static org.testng.Assert.assertEquals;
@@ -53,11 +58,19 @@ public class TestJsonHiveHandles
             .put("name", "column")
             .put("ordinalPosition", 42)
             .put("hiveType", "FLOAT")
+            .put("type", "double")
             .put("hiveColumnIndex", -1)
             .put("partitionKey", true)
             .build();
 
-    private final ObjectMapper objectMapper = new ObjectMapperProvider().get();
+    private final ObjectMapper objectMapper;
+
+    public TestJsonHiveHandles()
+    {
+        ObjectMapperProvider objectMapperProvider = new ObjectMapperProvider();
+        objectMapperProvider.setJsonDeserializers(ImmutableMap.<Class<?>, JsonDeserializer<?>>of(Type.class, new TypeDeserializer(new TypeRegistry())));
+        objectMapper = objectMapperProvider.get();
+    }
 
     @Test
     public void testTableHandleSerialize()
@@ -106,6 +119,7 @@ public class TestJsonHiveHandles
         assertEquals(columnHandle.getName(), "column");
         assertEquals(columnHandle.getOrdinalPosition(), 42);
         assertEquals(columnHandle.getHiveType(), HiveType.FLOAT);
+        assertEquals(columnHandle.getType(), DOUBLE);
         assertEquals(columnHandle.getHiveColumnIndex(), -1);
         assertEquals(columnHandle.isPartitionKey(), true);
     }
@@ -0,0 +1,394 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+import com.google.common.io.ByteStreams;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.Path;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static com.facebook.presto.hive.PrestoS3FileSystem.S3_MULTIPART_MAX_CONCURRENT_PARTS;
+import static com.facebook.presto.hive.PrestoS3FileSystem.S3_MULTIPART_PART_SIZE;
+import static com.facebook.presto.hive.PrestoS3FileSystem.S3_READ_CHUNK_SIZE;
+import static com.facebook.presto.hive.PrestoS3FileSystem.S3_READ_MAX_CONCURRENT_CHUNKS;
+import static java.util.Collections.frequency;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+@Test(singleThreaded = true)
+public class TestPrestoS3FileSystem
+{
+    private static final int PART_SIZE = 1024;
+    private static final int CHUNK_SIZE = 1024;
+
+    private InMemoryS3 s3;
+    private PrestoS3FileSystem fs;
+
+    @BeforeMethod
+    public void setUp()
+            throws Exception
+    {
+        Configuration conf = new Configuration();
+        conf.set("fs.s3.awsAccessKeyId", "test");
+        conf.set("fs.s3.awsSecretAccessKey", "test");
+        conf.set(S3_MULTIPART_PART_SIZE, PART_SIZE + "B");
+        conf.setInt(S3_MULTIPART_MAX_CONCURRENT_PARTS, 2);
+        conf.set(S3_READ_CHUNK_SIZE, CHUNK_SIZE + "B");
+        conf.setInt(S3_READ_MAX_CONCURRENT_CHUNKS, 3);
+
+        s3 = new InMemoryS3();
+        fs = new PrestoS3FileSystem();
+        fs.setConf(conf);
+        fs.initialize(new URI("s3://test-bucket/"), conf);
+        fs.setS3Client(s3.getClient());
+    }
+
+    @AfterMethod
+    public void tearDown()
+            throws Exception
+    {
+        fs.close();
+    }
+
+    @Test
+    public void testSmallObjectUsesSingleRequest()
+            throws Exception
+    {
+        byte[] data = randomBytes(100);
+        write("s3://test-bucket/small", data);
+
+        assertEquals(s3.getPutRequests(), 1);
+        assertEquals(s3.getUploadedParts(), 0);
+        assertEquals(s3.getObject("small"), data);
+        assertEquals(read("s3://test-bucket/small"), data);
+    }
+
+    @Test
+    public void testMultipartUpload()
+            throws Exception
+    {
+        byte[] data = randomBytes((PART_SIZE * 9) + 100);
+        write("s3://test-bucket/large", data);
+
+        assertEquals(s3.getPutRequests(), 0);
+        assertEquals(s3.getUploadedParts(), 10);
+        assertEquals(s3.getAbortedUploads(), 0);
+        assertEquals(s3.getObject("large"), data);
+    }
+
+    @Test
+    public void testFailedMultipartUploadIsAborted()
+            throws Exception
+    {
+        s3.failPart(3);
+        try {
+            write("s3://test-bucket/failed", randomBytes(PART_SIZE * 5));
+            fail("expected IOException");
+        }
+        catch (IOException e) {
+            assertTrue(e.getCause() instanceof AmazonServiceException);
+        }
+
+        assertEquals(s3.getAbortedUploads(), 1);
+        assertFalse(s3.hasObject("failed"));
+    }
+
+    @Test
+    public void testChunkedRead()
+            throws Exception
+    {
+        byte[] data = randomBytes((CHUNK_SIZE * 7) + 10);
+        s3.putObject("data", data);
+
+        assertEquals(read("s3://test-bucket/data"), data);
+
+        // every chunk is fetched exactly once
+        List<Long> expected = new ArrayList<>();
+        for (long start = 0; start < data.length; start += CHUNK_SIZE) {
+            expected.add(start);
+        }
+        assertEquals(Ordering.natural().sortedCopy(s3.getRangeStarts()), expected);
+    }
+
+    @Test
+    public void testSeekWithinFetchedChunks()
+            throws Exception
+    {
+        byte[] data = randomBytes(CHUNK_SIZE * 10);
+        s3.putObject("data", data);
+
+        try (FSDataInputStream in = fs.open(new Path("s3://test-bucket/data"), 16)) {
+            // seeks within a chunk reuse the fetched chunk
+            assertRead(in, data, 10, 20);
+            assertRead(in, data, 500, 20);
+            assertRead(in, data, 100, 20);
+            assertEquals(frequency(s3.getRangeStarts(), 0L), 1);
+
+            // random access does not read ahead
+            assertRead(in, data, CHUNK_SIZE * 5, 20);
+            assertEquals(frequency(s3.getRangeStarts(), CHUNK_SIZE * 5L), 1);
+            assertFalse(s3.getRangeStarts().contains(CHUNK_SIZE * 6L));
+
+            // sequential access reads ahead, and a seek within the read ahead reuses the fetched chunks
+            assertRead(in, data, (CHUNK_SIZE * 6) + 10, 20);
+            assertRead(in, data, (CHUNK_SIZE * 8) + 10, 20);
+            assertEquals(frequency(s3.getRangeStarts(), CHUNK_SIZE * 6L), 1);
+            assertEquals(frequency(s3.getRangeStarts(), CHUNK_SIZE * 8L), 1);
+        }
+    }
+
+    @Test(expectedExceptions = FileNotFoundException.class)
+    public void testOpenMissingFile()
+            throws Exception
+    {
+        fs.open(new Path("s3://test-bucket/missing"));
+    }
+
+    private void write(String path, byte[] data)
+            throws IOException
+    {
+        try (FSDataOutputStream out = fs.create(new Path(path))) {
+            // write in uneven pieces to cross the part boundaries
+            int offset = 0;
+            int length = 1;
+            while (offset < data.length) {
+                int size = Math.min(length, data.length - offset);
+                out.write(data, offset, size);
+                offset += size;
+                length = (length * 3) + 1;
+            }
+        }
+    }
+
+    private byte[] read(String path)
+            throws IOException
+    {
+        try (InputStream in = fs.open(new Path(path))) {
+            return ByteStreams.toByteArray(in);
+        }
+    }
+
+    private static void assertRead(FSDataInputStream in, byte[] data, int position, int length)
+            throws IOException
+    {
+        byte[] buffer = new byte[length];
+        in.seek(position);
+        in.readFully(buffer);
+        assertEquals(buffer, Arrays.copyOfRange(data, position, position + length));
+    }
+
+    private static byte[] randomBytes(int length)
+    {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * Minimal S3 stand-in that keeps the objects in memory and implements only
+     * the requests used by the file system streams.
+     */
+    private static class InMemoryS3
+            implements InvocationHandler
+    {
+        private final Map<String, byte[]> objects = new HashMap<>();
+        private final Map<String, Map<Integer, byte[]>> uploads = new HashMap<>();
+        private final List<Long> rangeStarts = new ArrayList<>();
+        private int putRequests;
+        private int uploadedParts;
+        private int abortedUploads;
+        private int failedPart = -1;
+
+        public AmazonS3 getClient()
+        {
+            return (AmazonS3) Proxy.newProxyInstance(AmazonS3.class.getClassLoader(), new Class<?>[] {AmazonS3.class}, this);
+        }
+
+        public synchronized void putObject(String key, byte[] data)
+        {
+            objects.put(key, data);
+        }
+
+        public synchronized byte[] getObject(String key)
+        {
+            return objects.get(key);
+        }
+
+        public synchronized boolean hasObject(String key)
+        {
+            return objects.containsKey(key);
+        }
+
+        public synchronized void failPart(int partNumber)
+        {
+            failedPart = partNumber;
+        }
+
+        public synchronized List<Long> getRangeStarts()
+        {
+            return ImmutableList.copyOf(rangeStarts);
+        }
+
+        public synchronized int getPutRequests()
+        {
+            return putRequests;
+        }
+
+        public synchronized int getUploadedParts()
+        {
+            return uploadedParts;
+        }
+
+        public synchronized int getAbortedUploads()
+        {
+            return abortedUploads;
+        }
+
+        @Override
+        public synchronized Object invoke(Object proxy, Method method, Object[] args)
+                throws Throwable
+        {
+            switch (method.getName()) {
+                case "getObjectMetadata":
+                    return getObjectMetadata((String) args[1]);
+                case "getObject":
+                    return getObject((GetObjectRequest) args[0]);
+                case "putObject":
+                    return putObject((String) args[1], (InputStream) args[2]);
+                case "initiateMultipartUpload":
+                    return initiateMultipartUpload();
+                case "uploadPart":
+                    return uploadPart((UploadPartRequest) args[0]);
+                case "completeMultipartUpload":
+                    return completeMultipartUpload((CompleteMultipartUploadRequest) args[0]);
+                case "abortMultipartUpload":
+                    uploads.remove(((AbortMultipartUploadRequest) args[0]).getUploadId());
+                    abortedUploads++;
+                    return null;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        }
+
+        private ObjectMetadata getObjectMetadata(String key)
+        {
+            byte[] data = objects.get(key);
+            if (data == null) {
+                AmazonS3Exception exception = new AmazonS3Exception("Not Found");
+                exception.setStatusCode(404);
+                throw exception;
+            }
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setContentLength(data.length);
+            return metadata;
+        }
+
+        private S3Object getObject(GetObjectRequest request)
+        {
+            byte[] data = objects.get(request.getKey());
+            long[] range = request.getRange();
+            rangeStarts.add(range[0]);
+
+            S3Object object = new S3Object();
+            object.setObjectContent(new ByteArrayInputStream(Arrays.copyOfRange(data, (int) range[0], (int) Math.min(range[1] + 1, data.length))));
+            return object;
+        }
+
+        private PutObjectResult putObject(String key, InputStream in)
+                throws IOException
+        {
+            objects.put(key, ByteStreams.toByteArray(in));
+            putRequests++;
+            return new PutObjectResult();
+        }
+
+        private InitiateMultipartUploadResult initiateMultipartUpload()
+        {
+            String uploadId = "upload-" + uploads.size();
+            uploads.put(uploadId, new TreeMap<Integer, byte[]>());
+
+            InitiateMultipartUploadResult result = new InitiateMultipartUploadResult();
+            result.setUploadId(uploadId);
+            return result;
+        }
+
+        private UploadPartResult uploadPart(UploadPartRequest request)
+                throws IOException
+        {
+            if (request.getPartNumber() == failedPart) {
+                throw new AmazonServiceException("test failure");
+            }
+
+            byte[] data = ByteStreams.toByteArray(request.getInputStream());
+            assertEquals(data.length, request.getPartSize());
+            uploads.get(request.getUploadId()).put(request.getPartNumber(), data);
+            uploadedParts++;
+
+            UploadPartResult result = new UploadPartResult();
+            result.setPartNumber(request.getPartNumber());
+            result.setETag("etag-" + request.getPartNumber());
+            return result;
+        }
+
+        private CompleteMultipartUploadResult completeMultipartUpload(CompleteMultipartUploadRequest request)
+                throws IOException
+        {
+            Map<Integer, byte[]> parts = uploads.remove(request.getUploadId());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (PartETag partETag : request.getPartETags()) {
+                out.write(parts.get(partETag.getPartNumber()));
+            }
+            objects.put(request.getKey(), out.toByteArray());
+            return new CompleteMultipartUploadResult();
+        }
+    }
+}
@@ -18,15 +18,24 @@ import com.facebook.presto.hive.shaded.org.apache.thrift.TException;
 import com.google.common.base.Function;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import org.apache.hadoop.hive.metastore.Warehouse;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsData;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
 import org.apache.hadoop.hive.metastore.api.Database;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.MetaException;
 import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
 import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.PartitionsStatsRequest;
+import org.apache.hadoop.hive.metastore.api.PartitionsStatsResult;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.hadoop.hive.metastore.api.StringColumnStatsData;
 import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.hadoop.hive.metastore.api.TableStatsRequest;
+import org.apache.hadoop.hive.metastore.api.TableStatsResult;
 
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -39,6 +48,7 @@ public class MockHiveMetastoreClient
     static final String TEST_TABLE = "testtbl";
     static final String TEST_PARTITION1 = "key=testpartition1";
     static final String TEST_PARTITION2 = "key=testpartition2";
+    static final ColumnStatisticsObj TEST_COLUMN_STATISTICS = new ColumnStatisticsObj("value", "string", ColumnStatisticsData.stringStats(new StringColumnStatsData(10, 5.5, 0, 2)));
 
     private final AtomicInteger accessCount = new AtomicInteger();
     private boolean throwException;
@@ -108,7 +118,9 @@ public class MockHiveMetastoreClient
         if (!dbName.equals(TEST_DATABASE) || !tableName.equals(TEST_TABLE)) {
             throw new NoSuchObjectException();
         }
-        return new Table(TEST_TABLE, TEST_DATABASE, "", 0, 0, 0, null, ImmutableList.of(new FieldSchema("key", "String", null)), null, "", "", "");
+        StorageDescriptor sd = new StorageDescriptor();
+        sd.setCols(ImmutableList.of(new FieldSchema("value", "string", null)));
+        return new Table(TEST_TABLE, TEST_DATABASE, "", 0, 0, 0, sd, ImmutableList.of(new FieldSchema("key", "String", null)), null, "", "", "");
     }
 
     @Override
@@ -179,6 +191,39 @@ public class MockHiveMetastoreClient
         });
     }
 
+    @Override
+    public TableStatsResult get_table_statistics_req(TableStatsRequest request)
+            throws TException
+    {
+        accessCount.incrementAndGet();
+        if (throwException) {
+            throw new RuntimeException();
+        }
+        if (!request.getDbName().equals(TEST_DATABASE) || !request.getTblName().equals(TEST_TABLE)) {
+            throw new NoSuchObjectException();
+        }
+        return new TableStatsResult(ImmutableList.of(TEST_COLUMN_STATISTICS));
+    }
+
+    @Override
+    public PartitionsStatsResult get_partitions_statistics_req(PartitionsStatsRequest request)
+            throws TException
+    {
+        accessCount.incrementAndGet();
+        if (throwException) {
+            throw new RuntimeException();
+        }
+        if (!request.getDbName().equals(TEST_DATABASE) || !request.getTblName().equals(TEST_TABLE)) {
+            throw new NoSuchObjectException();
+        }
+        // only the first partition has statistics
+        ImmutableMap.Builder<String, List<ColumnStatisticsObj>> statistics = ImmutableMap.builder();
+        if (request.getPartNames().contains(TEST_PARTITION1)) {
+            statistics.put(TEST_PARTITION1, ImmutableList.of(TEST_COLUMN_STATISTICS));
+        }
+        return new PartitionsStatsResult(statistics.build());
+    }
+
     @Override
     public void close()
     {
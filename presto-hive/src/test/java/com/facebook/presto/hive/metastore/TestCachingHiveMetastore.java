@@ -16,15 +16,19 @@ package com.facebook.presto.hive.metastore;
 import com.facebook.presto.hive.HiveCluster;
 import com.facebook.presto.hive.HiveMetastoreClient;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import io.airlift.units.Duration;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
 import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import static com.facebook.presto.hive.metastore.MockHiveMetastoreClient.BAD_DATABASE;
+import static com.facebook.presto.hive.metastore.MockHiveMetastoreClient.TEST_COLUMN_STATISTICS;
 import static com.facebook.presto.hive.metastore.MockHiveMetastoreClient.TEST_DATABASE;
 import static com.facebook.presto.hive.metastore.MockHiveMetastoreClient.TEST_PARTITION1;
 import static com.facebook.presto.hive.metastore.MockHiveMetastoreClient.TEST_PARTITION2;
@@ -34,12 +38,13 @@ import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.fail;
 
 @Test(singleThreaded = true)
 public class TestCachingHiveMetastore
 {
     private MockHiveMetastoreClient mockClient;
-    private HiveMetastore metastore;
+    private CachingHiveMetastore metastore;
 
     @BeforeMethod
     public void setUp()
@@ -48,7 +53,7 @@ public class TestCachingHiveMetastore
         mockClient = new MockHiveMetastoreClient();
         MockHiveCluster mockHiveCluster = new MockHiveCluster(mockClient);
         ListeningExecutorService executor = listeningDecorator(newCachedThreadPool(daemonThreadsNamed("test-%s")));
-        metastore = new CachingHiveMetastore(mockHiveCluster, executor, new Duration(5, TimeUnit.MINUTES), new Duration(1, TimeUnit.MINUTES));
+        metastore = new CachingHiveMetastore(mockHiveCluster, executor, new Duration(5, TimeUnit.MINUTES), new Duration(1, TimeUnit.MINUTES), new Duration(1, TimeUnit.MINUTES), 10_000, 10_000_000);
     }
 
     @Test
@@ -201,6 +206,90 @@ public class TestCachingHiveMetastore
         metastore.getPartitionsByNames(BAD_DATABASE, TEST_TABLE, ImmutableList.of(TEST_PARTITION1));
     }
 
+    @Test
+    public void testGetTableColumnStatistics()
+            throws Exception
+    {
+        assertEquals(mockClient.getAccessCount(), 0);
+        assertEquals(metastore.getTableColumnStatistics(TEST_DATABASE, TEST_TABLE), ImmutableMap.of("value", TEST_COLUMN_STATISTICS));
+        // one access to load the table columns and one to load the statistics
+        assertEquals(mockClient.getAccessCount(), 2);
+        assertEquals(metastore.getTableColumnStatistics(TEST_DATABASE, TEST_TABLE), ImmutableMap.of("value", TEST_COLUMN_STATISTICS));
+        assertEquals(mockClient.getAccessCount(), 2);
+
+        metastore.flushCache();
+
+        assertEquals(metastore.getTableColumnStatistics(TEST_DATABASE, TEST_TABLE), ImmutableMap.of("value", TEST_COLUMN_STATISTICS));
+        assertEquals(mockClient.getAccessCount(), 4);
+    }
+
+    @Test
+    public void testGetPartitionColumnStatistics()
+            throws Exception
+    {
+        metastore.getTable(TEST_DATABASE, TEST_TABLE);
+        assertEquals(mockClient.getAccessCount(), 1);
+
+        Map<String, Map<String, ColumnStatisticsObj>> statistics = metastore.getPartitionColumnStatistics(TEST_DATABASE, TEST_TABLE, ImmutableList.of(TEST_PARTITION1, TEST_PARTITION2));
+        assertEquals(statistics, ImmutableMap.of(
+                TEST_PARTITION1, ImmutableMap.of("value", TEST_COLUMN_STATISTICS),
+                TEST_PARTITION2, ImmutableMap.<String, ColumnStatisticsObj>of()));
+        // both partitions are loaded with one batched access
+        assertEquals(mockClient.getAccessCount(), 2);
+
+        // partitions without statistics are cached as well
+        metastore.getPartitionColumnStatistics(TEST_DATABASE, TEST_TABLE, ImmutableList.of(TEST_PARTITION2));
+        metastore.getPartitionColumnStatistics(TEST_DATABASE, TEST_TABLE, ImmutableList.of(TEST_PARTITION1, TEST_PARTITION2));
+        assertEquals(mockClient.getAccessCount(), 2);
+    }
+
+    @Test
+    public void testFlushTable()
+            throws Exception
+    {
+        metastore.getTable(TEST_DATABASE, TEST_TABLE);
+        metastore.getPartitionNames(TEST_DATABASE, TEST_TABLE);
+        metastore.getPartitionsByNames(TEST_DATABASE, TEST_TABLE, ImmutableList.of(TEST_PARTITION1));
+        metastore.getAllTables(TEST_DATABASE);
+        assertEquals(mockClient.getAccessCount(), 4);
+
+        metastore.flushTable(TEST_DATABASE, TEST_TABLE);
+
+        // the table listing of the database is still cached
+        metastore.getAllTables(TEST_DATABASE);
+        assertEquals(mockClient.getAccessCount(), 4);
+
+        metastore.getTable(TEST_DATABASE, TEST_TABLE);
+        metastore.getPartitionNames(TEST_DATABASE, TEST_TABLE);
+        metastore.getPartitionsByNames(TEST_DATABASE, TEST_TABLE, ImmutableList.of(TEST_PARTITION1));
+        assertEquals(mockClient.getAccessCount(), 7);
+    }
+
+    @Test
+    public void testNonexistentTableCached()
+            throws Exception
+    {
+        for (int i = 0; i < 2; i++) {
+            try {
+                metastore.getTable(TEST_DATABASE, "missing");
+                fail("expected NoSuchObjectException");
+            }
+            catch (NoSuchObjectException ignored) {
+            }
+        }
+        assertEquals(mockClient.getAccessCount(), 1);
+
+        metastore.flushTable(TEST_DATABASE, "missing");
+
+        try {
+            metastore.getTable(TEST_DATABASE, "missing");
+            fail("expected NoSuchObjectException");
+        }
+        catch (NoSuchObjectException ignored) {
+        }
+        assertEquals(mockClient.getAccessCount(), 2);
+    }
+
     @Test
     public void testNoCacheExceptions()
             throws Exception
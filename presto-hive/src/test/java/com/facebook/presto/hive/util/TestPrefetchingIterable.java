@@ -0,0 +1,146 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.util;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestPrefetchingIterable
+{
+    private static final Function<Integer, Integer> SQUARE = new Function<Integer, Integer>()
+    {
+        @Override
+        public Integer apply(Integer input)
+        {
+            return input * input;
+        }
+    };
+
+    @Test
+    public void testOrder()
+            throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Integer> values = new ArrayList<>();
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                values.add(i);
+                expected.add(i * i);
+            }
+            assertEquals(ImmutableList.copyOf(new PrefetchingIterable<>(values, SQUARE, executor, 8)), expected);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPrefetchLimit()
+            throws Exception
+    {
+        final AtomicInteger started = new AtomicInteger();
+        Function<Integer, Integer> function = new Function<Integer, Integer>()
+        {
+            @Override
+            public Integer apply(Integer input)
+            {
+                started.incrementAndGet();
+                return input;
+            }
+        };
+
+        // tasks queued on an executor that never runs them are run by the consumer
+        List<Runnable> queued = new ArrayList<>();
+        Iterator<Integer> iterator = new PrefetchingIterable<>(ImmutableList.of(1, 2, 3, 4, 5), function, new QueueingExecutor(queued), 2).iterator();
+
+        assertTrue(iterator.hasNext());
+        assertEquals(iterator.next(), (Integer) 1);
+        assertEquals(queued.size(), 2);
+        assertEquals(started.get(), 1);
+
+        assertEquals(iterator.next(), (Integer) 2);
+        assertEquals(queued.size(), 3);
+        assertEquals(started.get(), 2);
+
+        assertEquals(ImmutableList.copyOf(iterator), ImmutableList.of(3, 4, 5));
+        assertEquals(queued.size(), 5);
+        assertEquals(started.get(), 5);
+
+        // running the tasks again does not transform the elements twice
+        for (Runnable task : queued) {
+            task.run();
+        }
+        assertEquals(started.get(), 5);
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testFailure()
+            throws Exception
+    {
+        Function<Integer, Integer> function = new Function<Integer, Integer>()
+        {
+            @Override
+            public Integer apply(Integer input)
+            {
+                if (input == 2) {
+                    throw new IllegalStateException("test failure");
+                }
+                return input;
+            }
+        };
+
+        Iterator<Integer> iterator = new PrefetchingIterable<>(ImmutableList.of(1, 2, 3), function, new QueueingExecutor(new ArrayList<Runnable>()), 3).iterator();
+        assertEquals(iterator.next(), (Integer) 1);
+        try {
+            iterator.next();
+            fail("expected exception");
+        }
+        catch (IllegalStateException e) {
+            assertEquals(e.getMessage(), "test failure");
+        }
+    }
+
+    private static class QueueingExecutor
+            implements Executor
+    {
+        private final List<Runnable> queue;
+
+        private QueueingExecutor(List<Runnable> queue)
+        {
+            this.queue = queue;
+        }
+
+        @Override
+        public void execute(Runnable command)
+        {
+            queue.add(command);
+        }
+    }
+}
@@ -16,7 +16,10 @@ package com.facebook.presto.block;
 import com.facebook.presto.spi.block.BlockEncoding;
 import com.facebook.presto.spi.block.BlockEncodingFactory;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
+import com.facebook.presto.spi.block.VariableWidthBlockEncoding.VariableWidthBlockEncodingFactory;
+import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeManager;
+import com.facebook.presto.spi.type.VariableWidthType;
 import com.google.common.base.Charsets;
 import com.google.common.collect.ImmutableSet;
 import io.airlift.slice.SliceInput;
@@ -65,7 +68,7 @@ public final class BlockEncodingManager
         String encodingName = readLengthPrefixedString(input);
 
         // look up the encoding factory
-        BlockEncodingFactory<?> blockEncoding = blockEncodings.get(encodingName);
+        BlockEncodingFactory<?> blockEncoding = getBlockEncodingFactory(encodingName);
         checkArgument(blockEncoding != null, "Unknown block encoding %s", encodingName);
 
         // load read the encoding factory from the output stream
@@ -79,7 +82,7 @@ public final class BlockEncodingManager
         String encodingName = encoding.getName();
 
         // look up the encoding factory
-        BlockEncodingFactory<BlockEncoding> blockEncoding = (BlockEncodingFactory<BlockEncoding>) blockEncodings.get(encodingName);
+        BlockEncodingFactory<BlockEncoding> blockEncoding = (BlockEncodingFactory<BlockEncoding>) getBlockEncodingFactory(encodingName);
         checkArgument(blockEncoding != null, "Unknown block encoding %s", encodingName);
 
         // write the name to the output
@@ -89,6 +92,23 @@ public final class BlockEncodingManager
         blockEncoding.writeEncoding(this, output, encoding);
     }
 
+    private BlockEncodingFactory<?> getBlockEncodingFactory(String encodingName)
+    {
+        BlockEncodingFactory<?> blockEncoding = blockEncodings.get(encodingName);
+        if (blockEncoding != null) {
+            return blockEncoding;
+        }
+
+        // parametric types, such as arrays and maps, are not registered up front,
+        // so the encoding of their variable width blocks is created on first use
+        Type type = typeManager.getType(encodingName);
+        if (!(type instanceof VariableWidthType)) {
+            return null;
+        }
+        blockEncodings.putIfAbsent(encodingName, new VariableWidthBlockEncodingFactory(type));
+        return blockEncodings.get(encodingName);
+    }
+
     private static String readLengthPrefixedString(SliceInput input)
     {
         int length = input.readInt();
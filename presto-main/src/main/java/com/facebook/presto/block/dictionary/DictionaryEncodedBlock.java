@@ -121,6 +121,12 @@ public class DictionaryEncodedBlock
         return dictionary.isNull(getDictionaryKey(position));
     }
 
+    @Override
+    public boolean mayHaveNull()
+    {
+        return dictionary.mayHaveNull();
+    }
+
     @Override
     public boolean equalTo(int position, Block otherBlock, int otherPosition)
     {
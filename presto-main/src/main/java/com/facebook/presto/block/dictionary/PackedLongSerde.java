@@ -70,6 +70,31 @@ public class PackedLongSerde
         new Footer(itemCount, bitWidth).serialize(sliceOutput);
     }
 
+    /**
+     * Serializes the first itemCount values of the array in the same format as {@link #serialize(Iterable, SliceOutput)}.
+     */
+    public void serialize(long[] items, int itemCount, SliceOutput sliceOutput)
+    {
+        checkArgument(itemCount >= 0 && itemCount <= items.length, "itemCount is out of range");
+        int packCapacity = Long.SIZE / bitWidth;
+        long mask = -1L >>> (Long.SIZE - bitWidth);
+
+        // Write the packed longs
+        for (int packStart = 0; packStart < itemCount; packStart += packCapacity) {
+            long pack = 0;
+            int packEnd = Math.min(packStart + packCapacity, itemCount);
+            for (int index = packStart; index < packEnd; index++) {
+                long rawValue = items[index];
+                checkArgument(min <= rawValue && rawValue <= max, "Provided value does not fit into bitspace");
+                pack |= (rawValue & mask) << (bitWidth * (index - packStart));
+            }
+            sliceOutput.writeLong(pack);
+        }
+
+        // Write the Footer
+        new Footer(itemCount, bitWidth).serialize(sliceOutput);
+    }
+
     public static Iterable<Long> deserialize(final SliceInput sliceInput)
     {
         checkArgument(sliceInput.available() >= Footer.BYTE_SIZE, "sliceInput not large enough to read a footer");
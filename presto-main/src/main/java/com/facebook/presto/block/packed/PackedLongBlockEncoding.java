@@ -0,0 +1,208 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.block.packed;
+
+import com.facebook.presto.block.dictionary.PackedLongSerde;
+import com.facebook.presto.serde.TypeSerde;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.block.BlockEncoding;
+import com.facebook.presto.spi.block.BlockEncodingFactory;
+import com.facebook.presto.spi.block.BlockEncodingSerde;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spi.type.TypeManager;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+
+import java.util.Iterator;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stores the values of a long block bit packed, either as offsets from the minimum
+ * value of the block or as deltas between consecutive values, whichever needs fewer
+ * bits. Deltas are small for sorted values such as timestamps, and offsets are small
+ * for values within a narrow range.
+ */
+public class PackedLongBlockEncoding
+        implements BlockEncoding
+{
+    public static final BlockEncodingFactory<PackedLongBlockEncoding> FACTORY = new PackedLongBlockEncodingFactory();
+    private static final String NAME = "PACKED_LONG";
+
+    private static final byte FRAME_OF_REFERENCE = 0;
+    private static final byte DELTA = 1;
+
+    private final Type type;
+
+    public PackedLongBlockEncoding(Type type)
+    {
+        this.type = checkNotNull(type, "type is null");
+        checkArgument(type.getJavaType() == long.class, "type %s is not a long type", type);
+    }
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    @Override
+    public Type getType()
+    {
+        return type;
+    }
+
+    @Override
+    public void writeBlock(SliceOutput sliceOutput, Block block)
+    {
+        int positionCount = block.getPositionCount();
+        sliceOutput.writeInt(positionCount);
+
+        long[] values = new long[positionCount];
+        int valueCount = 0;
+        byte[] nulls = new byte[(positionCount + 7) / 8];
+        boolean hasNulls = false;
+        for (int position = 0; position < positionCount; position++) {
+            if (block.isNull(position)) {
+                nulls[position / 8] |= 1 << (position % 8);
+                hasNulls = true;
+            }
+            else {
+                values[valueCount] = block.getLong(position);
+                valueCount++;
+            }
+        }
+
+        sliceOutput.writeByte(hasNulls ? 1 : 0);
+        if (hasNulls) {
+            sliceOutput.writeBytes(nulls);
+        }
+
+        // choose the representation that needs the fewest bits per value
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        long minDelta = 0;
+        long maxDelta = 0;
+        for (int i = 0; i < valueCount; i++) {
+            long value = values[i];
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            if (i > 0) {
+                long delta = value - values[i - 1];
+                minDelta = Math.min(minDelta, delta);
+                maxDelta = Math.max(maxDelta, delta);
+            }
+        }
+
+        byte mode = FRAME_OF_REFERENCE;
+        long base = valueCount == 0 ? 0 : min;
+        int bitWidth = valueCount == 0 ? 1 : bitWidth(0, max - min);
+        if (valueCount > 1) {
+            int deltaBitWidth = bitWidth(minDelta, maxDelta);
+            if (deltaBitWidth < bitWidth) {
+                mode = DELTA;
+                base = values[0];
+                bitWidth = deltaBitWidth;
+            }
+        }
+
+        // replace the values with the packed differences, last to first so each delta reads the original previous value
+        for (int i = valueCount - 1; i >= 0; i--) {
+            long previous = (mode == DELTA && i > 0) ? values[i - 1] : base;
+            values[i] -= previous;
+        }
+
+        DynamicSliceOutput packedOutput = new DynamicSliceOutput(((valueCount * bitWidth) / 8) + 64);
+        new PackedLongSerde(bitWidth).serialize(values, valueCount, packedOutput);
+
+        sliceOutput.writeByte(mode);
+        sliceOutput.writeLong(base);
+        sliceOutput.writeInt(packedOutput.size());
+        sliceOutput.writeBytes(packedOutput.slice());
+    }
+
+    @Override
+    public Block readBlock(SliceInput sliceInput)
+    {
+        int positionCount = sliceInput.readInt();
+
+        boolean hasNulls = sliceInput.readByte() != 0;
+        byte[] nulls = null;
+        if (hasNulls) {
+            nulls = new byte[(positionCount + 7) / 8];
+            sliceInput.readBytes(nulls);
+        }
+
+        byte mode = sliceInput.readByte();
+        long previous = sliceInput.readLong();
+        int length = sliceInput.readInt();
+        Slice packed = sliceInput.readSlice(length);
+        Iterator<Long> values = PackedLongSerde.deserialize(packed.getInput()).iterator();
+
+        BlockBuilder blockBuilder = type.createBlockBuilder(new BlockBuilderStatus());
+        for (int position = 0; position < positionCount; position++) {
+            if (hasNulls && (nulls[position / 8] & (1 << (position % 8))) != 0) {
+                blockBuilder.appendNull();
+                continue;
+            }
+            long value = previous + values.next();
+            if (mode == DELTA) {
+                previous = value;
+            }
+            blockBuilder.appendLong(value);
+        }
+        return blockBuilder.build();
+    }
+
+    /**
+     * Returns the number of bits needed to store all values between min and max as two's complement.
+     * Values are added and subtracted with overflow, so an overflowed range needs all bits.
+     */
+    private static int bitWidth(long min, long max)
+    {
+        if (max < min) {
+            return Long.SIZE;
+        }
+        long magnitude = Math.max(max, 0) | (min < 0 ? ~min : 0);
+        return Math.min(Long.SIZE - Long.numberOfLeadingZeros(magnitude) + 1, Long.SIZE);
+    }
+
+    private static class PackedLongBlockEncodingFactory
+            implements BlockEncodingFactory<PackedLongBlockEncoding>
+    {
+        @Override
+        public String getName()
+        {
+            return NAME;
+        }
+
+        @Override
+        public PackedLongBlockEncoding readEncoding(TypeManager manager, BlockEncodingSerde serde, SliceInput input)
+        {
+            Type type = TypeSerde.readType(manager, input);
+            return new PackedLongBlockEncoding(type);
+        }
+
+        @Override
+        public void writeEncoding(BlockEncodingSerde serde, SliceOutput output, PackedLongBlockEncoding blockEncoding)
+        {
+            TypeSerde.writeInfo(output, blockEncoding.getType());
+        }
+    }
+}
@@ -128,6 +128,12 @@ public class RunLengthEncodedBlock
         return value.isNull(0);
     }
 
+    @Override
+    public boolean mayHaveNull()
+    {
+        return value.isNull(0);
+    }
+
     @Override
     public boolean equalTo(int position, Block otherBlock, int otherPosition)
     {
@@ -0,0 +1,214 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.block.selection;
+
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.block.BlockEncoding;
+import com.facebook.presto.spi.block.SortOrder;
+import com.facebook.presto.spi.block.VariableWidthBlockEncoding;
+import com.facebook.presto.spi.type.FixedWidthType;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.primitives.Ints;
+import io.airlift.slice.Slice;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+
+/**
+ * A view of the selected positions of another block. The values are not
+ * copied: each position of this block reads the value at the corresponding
+ * selected position of the source block. The values are only copied when
+ * the block is serialized.
+ */
+public class SelectedPositionsBlock
+        implements Block
+{
+    private final Block source;
+    private final int[] selectedPositions;
+    private final int offset;
+    private final int positionCount;
+
+    public SelectedPositionsBlock(Block source, int[] selectedPositions, int positionCount)
+    {
+        this(source, selectedPositions, 0, positionCount);
+    }
+
+    private SelectedPositionsBlock(Block source, int[] selectedPositions, int offset, int positionCount)
+    {
+        this.source = checkNotNull(source, "source is null");
+        this.selectedPositions = checkNotNull(selectedPositions, "selectedPositions is null");
+        checkPositionIndexes(offset, offset + positionCount, selectedPositions.length);
+        this.offset = offset;
+        this.positionCount = positionCount;
+    }
+
+    public Block getSource()
+    {
+        return source;
+    }
+
+    /**
+     * Copies the selected values into a new block.
+     */
+    public Block copyPositions()
+    {
+        BlockBuilder blockBuilder = getType().createBlockBuilder(new BlockBuilderStatus());
+        for (int position = 0; position < positionCount; position++) {
+            source.appendTo(selectedPositions[offset + position], blockBuilder);
+        }
+        return blockBuilder.build();
+    }
+
+    @Override
+    public Type getType()
+    {
+        return source.getType();
+    }
+
+    @Override
+    public int getPositionCount()
+    {
+        return positionCount;
+    }
+
+    @Override
+    public int getSizeInBytes()
+    {
+        // only count the selected part, since the source block is counted by the page that owns it
+        long selectedSize = (long) source.getSizeInBytes() * positionCount / Math.max(source.getPositionCount(), 1);
+        return Ints.checkedCast(selectedSize + (long) positionCount * Ints.BYTES);
+    }
+
+    @Override
+    public BlockEncoding getEncoding()
+    {
+        // the selected values are written with the plain encoding of their type; fixed width blocks
+        // are loaded in a class loader of their type, so the encoding must come from a builder
+        Type type = getType();
+        BlockEncoding valueBlockEncoding;
+        if (type instanceof FixedWidthType) {
+            valueBlockEncoding = ((FixedWidthType) type).createFixedSizeBlockBuilder(0).getEncoding();
+        }
+        else {
+            valueBlockEncoding = new VariableWidthBlockEncoding(type);
+        }
+        return new SelectedPositionsBlockEncoding(valueBlockEncoding);
+    }
+
+    @Override
+    public Block getRegion(int positionOffset, int length)
+    {
+        checkPositionIndexes(positionOffset, positionOffset + length, positionCount);
+        return new SelectedPositionsBlock(source, selectedPositions, offset + positionOffset, length);
+    }
+
+    @Override
+    public boolean getBoolean(int position)
+    {
+        return source.getBoolean(getSourcePosition(position));
+    }
+
+    @Override
+    public long getLong(int position)
+    {
+        return source.getLong(getSourcePosition(position));
+    }
+
+    @Override
+    public double getDouble(int position)
+    {
+        return source.getDouble(getSourcePosition(position));
+    }
+
+    @Override
+    public Slice getSlice(int position)
+    {
+        return source.getSlice(getSourcePosition(position));
+    }
+
+    @Override
+    public Block getSingleValueBlock(int position)
+    {
+        return source.getSingleValueBlock(getSourcePosition(position));
+    }
+
+    @Override
+    public Object getObjectValue(ConnectorSession session, int position)
+    {
+        return source.getObjectValue(session, getSourcePosition(position));
+    }
+
+    @Override
+    public boolean isNull(int position)
+    {
+        return source.isNull(getSourcePosition(position));
+    }
+
+    @Override
+    public boolean mayHaveNull()
+    {
+        return source.mayHaveNull();
+    }
+
+    @Override
+    public boolean equalTo(int position, Block otherBlock, int otherPosition)
+    {
+        return source.equalTo(getSourcePosition(position), otherBlock, otherPosition);
+    }
+
+    @Override
+    public boolean equalTo(int position, Slice otherSlice, int otherOffset, int otherLength)
+    {
+        return source.equalTo(getSourcePosition(position), otherSlice, otherOffset, otherLength);
+    }
+
+    @Override
+    public int hash(int position)
+    {
+        return source.hash(getSourcePosition(position));
+    }
+
+    @Override
+    public int compareTo(SortOrder sortOrder, int position, Block otherBlock, int otherPosition)
+    {
+        return source.compareTo(sortOrder, getSourcePosition(position), otherBlock, otherPosition);
+    }
+
+    @Override
+    public int compareTo(int position, Slice otherSlice, int otherOffset, int otherLength)
+    {
+        return source.compareTo(getSourcePosition(position), otherSlice, otherOffset, otherLength);
+    }
+
+    @Override
+    public void appendTo(int position, BlockBuilder blockBuilder)
+    {
+        source.appendTo(getSourcePosition(position), blockBuilder);
+    }
+
+    /**
+     * Gets the position in the source block of the value at the specified position.
+     *
+     * @throws IllegalArgumentException if this position is not valid
+     */
+    public int getSourcePosition(int position)
+    {
+        checkArgument(position >= 0 && position < positionCount, "position is not valid");
+        return selectedPositions[offset + position];
+    }
+}
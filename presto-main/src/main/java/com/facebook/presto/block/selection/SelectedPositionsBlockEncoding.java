@@ -0,0 +1,96 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.block.selection;
+
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockEncoding;
+import com.facebook.presto.spi.block.BlockEncodingFactory;
+import com.facebook.presto.spi.block.BlockEncodingSerde;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spi.type.TypeManager;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Writes the selected values of a {@link SelectedPositionsBlock} with the encoding
+ * of its type, so the block is read back as a plain block holding only those values.
+ */
+public class SelectedPositionsBlockEncoding
+        implements BlockEncoding
+{
+    public static final BlockEncodingFactory<SelectedPositionsBlockEncoding> FACTORY = new SelectedPositionsBlockEncodingFactory();
+    private static final String NAME = "SELECTED";
+
+    private final BlockEncoding valueBlockEncoding;
+
+    public SelectedPositionsBlockEncoding(BlockEncoding valueBlockEncoding)
+    {
+        this.valueBlockEncoding = checkNotNull(valueBlockEncoding, "valueBlockEncoding is null");
+    }
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    @Override
+    public Type getType()
+    {
+        return valueBlockEncoding.getType();
+    }
+
+    public BlockEncoding getValueBlockEncoding()
+    {
+        return valueBlockEncoding;
+    }
+
+    @Override
+    public void writeBlock(SliceOutput sliceOutput, Block block)
+    {
+        SelectedPositionsBlock selectedPositionsBlock = (SelectedPositionsBlock) block;
+        valueBlockEncoding.writeBlock(sliceOutput, selectedPositionsBlock.copyPositions());
+    }
+
+    @Override
+    public Block readBlock(SliceInput sliceInput)
+    {
+        return valueBlockEncoding.readBlock(sliceInput);
+    }
+
+    private static class SelectedPositionsBlockEncodingFactory
+            implements BlockEncodingFactory<SelectedPositionsBlockEncoding>
+    {
+        @Override
+        public String getName()
+        {
+            return NAME;
+        }
+
+        @Override
+        public SelectedPositionsBlockEncoding readEncoding(TypeManager manager, BlockEncodingSerde serde, SliceInput input)
+        {
+            BlockEncoding valueBlockEncoding = serde.readBlockEncoding(input);
+            return new SelectedPositionsBlockEncoding(valueBlockEncoding);
+        }
+
+        @Override
+        public void writeEncoding(BlockEncodingSerde serde, SliceOutput output, SelectedPositionsBlockEncoding blockEncoding)
+        {
+            serde.writeBlockEncoding(output, blockEncoding.getValueBlockEncoding());
+        }
+    }
+}
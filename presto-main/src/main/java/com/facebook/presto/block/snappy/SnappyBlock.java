@@ -166,6 +166,13 @@ public class SnappyBlock
         return getUncompressedBlock().isNull(position);
     }
 
+    @Override
+    public boolean mayHaveNull()
+    {
+        // answering exactly would require decompressing the block
+        return true;
+    }
+
     @Override
     public boolean equalTo(int position, Block otherBlock, int otherPosition)
     {
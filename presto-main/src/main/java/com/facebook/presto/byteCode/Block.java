@@ -987,6 +987,18 @@ public class Block
         return this;
     }
 
+    public Block getIntArrayElement()
+    {
+        nodes.add(OpCodes.IALOAD);
+        return this;
+    }
+
+    public Block putIntArrayElement()
+    {
+        nodes.add(OpCodes.IASTORE);
+        return this;
+    }
+
     public Block visitLineNumber(int line)
     {
         if (line <= 0) {
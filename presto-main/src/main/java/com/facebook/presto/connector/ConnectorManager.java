@@ -20,7 +20,8 @@ import com.facebook.presto.connector.informationSchema.InformationSchemaSplitMan
 import com.facebook.presto.metadata.HandleResolver;
 import com.facebook.presto.metadata.MetadataManager;
 import com.facebook.presto.metadata.OutputTableHandleResolver;
-import com.facebook.presto.operator.RecordSinkManager;
+import com.facebook.presto.operator.ConnectorPageSinkProvider;
+import com.facebook.presto.operator.PageSinkManager;
 import com.facebook.presto.spi.Connector;
 import com.facebook.presto.spi.ConnectorFactory;
 import com.facebook.presto.spi.ConnectorHandleResolver;
@@ -35,6 +36,7 @@ import com.facebook.presto.split.ConnectorDataStreamProvider;
 import com.facebook.presto.split.DataStreamManager;
 import com.facebook.presto.split.RecordSetDataStreamProvider;
 import com.facebook.presto.split.SplitManager;
+import com.google.common.base.Optional;
 import com.google.inject.Inject;
 
 import javax.annotation.Nullable;
@@ -57,7 +59,7 @@ public class ConnectorManager
     private final DataStreamManager dataStreamManager;
     private final IndexManager indexManager;
 
-    private final RecordSinkManager recordSinkManager;
+    private final PageSinkManager pageSinkManager;
     private final HandleResolver handleResolver;
     private final OutputTableHandleResolver outputTableHandleResolver;
     private final NodeManager nodeManager;
@@ -66,12 +68,14 @@ public class ConnectorManager
 
     private final ConcurrentMap<String, Connector> connectors = new ConcurrentHashMap<>();
 
+    private final ConcurrentMap<String, Object> httpResources = new ConcurrentHashMap<>();
+
     @Inject
     public ConnectorManager(MetadataManager metadataManager,
             SplitManager splitManager,
             DataStreamManager dataStreamManager,
             IndexManager indexManager,
-            RecordSinkManager recordSinkManager,
+            PageSinkManager pageSinkManager,
             HandleResolver handleResolver,
             OutputTableHandleResolver outputTableHandleResolver,
             Map<String, ConnectorFactory> connectorFactories,
@@ -82,7 +86,7 @@ public class ConnectorManager
         this.splitManager = splitManager;
         this.dataStreamManager = dataStreamManager;
         this.indexManager = indexManager;
-        this.recordSinkManager = recordSinkManager;
+        this.pageSinkManager = pageSinkManager;
         this.handleResolver = handleResolver;
         this.outputTableHandleResolver = outputTableHandleResolver;
         this.nodeManager = nodeManager;
@@ -163,12 +167,24 @@ public class ConnectorManager
         ConnectorHandleResolver connectorHandleResolver = connector.getHandleResolver();
         checkNotNull("Connector %s does not have a handle resolver", connectorId);
 
-        ConnectorRecordSinkProvider connectorRecordSinkProvider = null;
-        try {
-            connectorRecordSinkProvider = connector.getRecordSinkProvider();
-            checkNotNull(connectorRecordSinkProvider, "Connector %s returned a null record sink provider", connectorId);
+        ConnectorPageSinkProvider connectorPageSinkProvider = null;
+        if (connector instanceof InternalConnector) {
+            try {
+                connectorPageSinkProvider = ((InternalConnector) connector).getPageSinkProvider();
+                checkNotNull(connectorPageSinkProvider, "Connector %s returned a null page sink provider", connectorId);
+            }
+            catch (UnsupportedOperationException ignored) {
+            }
         }
-        catch (UnsupportedOperationException ignored) {
+
+        ConnectorRecordSinkProvider connectorRecordSinkProvider = null;
+        if (connectorPageSinkProvider == null) {
+            try {
+                connectorRecordSinkProvider = connector.getRecordSinkProvider();
+                checkNotNull(connectorRecordSinkProvider, "Connector %s returned a null record sink provider", connectorId);
+            }
+            catch (UnsupportedOperationException ignored) {
+            }
         }
 
         ConnectorOutputHandleResolver connectorOutputHandleResolver = null;
@@ -187,6 +203,16 @@ public class ConnectorManager
         catch (UnsupportedOperationException ignored) {
         }
 
+        Object httpResource = null;
+        if (connector instanceof InternalConnector) {
+            try {
+                httpResource = ((InternalConnector) connector).getHttpResource();
+                checkNotNull(httpResource, "Connector %s returned a null HTTP resource", connectorId);
+            }
+            catch (UnsupportedOperationException ignored) {
+            }
+        }
+
         // IMPORTANT: all the instances need to be fetched from the connector *before* we add them to the corresponding managers.
         // Otherwise, a broken connector would leave the managers in an inconsistent state with respect to each other
 
@@ -205,8 +231,11 @@ public class ConnectorManager
         handleResolver.addHandleResolver(connectorId, connectorHandleResolver);
         dataStreamManager.addConnectorDataStreamProvider(connectorId, connectorDataStreamProvider);
 
-        if (connectorRecordSinkProvider != null) {
-            recordSinkManager.addConnectorRecordSinkProvider(connectorId, connectorRecordSinkProvider);
+        if (connectorPageSinkProvider != null) {
+            pageSinkManager.addConnectorPageSinkProvider(connectorId, connectorPageSinkProvider);
+        }
+        else if (connectorRecordSinkProvider != null) {
+            pageSinkManager.addConnectorRecordSinkProvider(connectorId, connectorRecordSinkProvider);
         }
 
         if (connectorOutputHandleResolver != null) {
@@ -216,6 +245,15 @@ public class ConnectorManager
         if (indexResolver != null) {
             indexManager.addIndexResolver(connectorId, indexResolver);
         }
+
+        if (httpResource != null) {
+            httpResources.put(connectorId, httpResource);
+        }
+    }
+
+    public Optional<Object> getHttpResource(String connectorId)
+    {
+        return Optional.fromNullable(httpResources.get(connectorId));
     }
 
     private static String makeInformationSchemaConnectorId(String connectorId)
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.connector;
 
+import com.facebook.presto.operator.ConnectorPageSinkProvider;
 import com.facebook.presto.spi.Connector;
 import com.facebook.presto.split.ConnectorDataStreamProvider;
 
@@ -20,4 +21,17 @@ public interface InternalConnector
     extends Connector
 {
     ConnectorDataStreamProvider getDataStreamProvider();
+
+    /**
+     * @throws UnsupportedOperationException if this connector doesn't write pages directly,
+     * in which case rows are written to the record sink provider
+     */
+    ConnectorPageSinkProvider getPageSinkProvider();
+
+    /**
+     * Returns a JAX-RS resource that is served under the id of the connector.
+     *
+     * @throws UnsupportedOperationException if this connector doesn't serve HTTP requests
+     */
+    Object getHttpResource();
 }
@@ -58,6 +58,7 @@ public class NodeScheduler
     private final int minCandidates;
     private final boolean locationAwareScheduling;
     private final boolean includeCoordinator;
+    private final boolean strictLocality;
 
     @Inject
     public NodeScheduler(NodeManager nodeManager, NodeSchedulerConfig config)
@@ -66,6 +67,7 @@ public class NodeScheduler
         this.minCandidates = config.getMinCandidates();
         this.locationAwareScheduling = config.isLocationAwareSchedulingEnabled();
         this.includeCoordinator = config.isIncludeCoordinator();
+        this.strictLocality = config.isStrictLocalityEnabled();
     }
 
     @Managed
@@ -212,6 +214,51 @@ public class NodeScheduler
             return assignment;
         }
 
+        /**
+         * Assigns bucket N to the node at position N modulo the number of nodes, so that the
+         * same bucket of different tables is always assigned to the same node. A split that is
+         * not remotely accessible is assigned to the node of its first address instead, as the
+         * connector has placed all splits of a bucket on the same node.
+         */
+        public Multimap<Node, Split> computeBucketAssignments(Set<Split> splits, List<Node> nodes)
+        {
+            checkArgument(!nodes.isEmpty(), "nodes is empty");
+
+            Multimap<Node, Split> assignment = HashMultimap.create();
+            for (Split split : splits) {
+                Node node;
+                if (split.isRemotelyAccessible()) {
+                    node = nodes.get(split.getBucketNumber() % nodes.size());
+                }
+                else {
+                    node = selectAddressedNode(split, nodes);
+                }
+
+                RemoteTask task = taskMap.get(node);
+                int currentSplits = (task == null) ? 0 : task.getQueuedSplits();
+                if (currentSplits + assignment.get(node).size() < maxPendingSplitsPerTask) {
+                    assignment.put(node, split);
+                }
+            }
+            return assignment;
+        }
+
+        private Node selectAddressedNode(Split split, List<Node> nodes)
+        {
+            checkCondition(!split.getAddresses().isEmpty(), NO_NODES_AVAILABLE, "No address for bucket %s", split.getBucketNumber());
+            HostAddress address = split.getAddresses().get(0);
+
+            Node addressedNode = null;
+            for (Node node : nodes) {
+                if (node.getHostAndPort().equals(address)) {
+                    addressedNode = node;
+                    break;
+                }
+            }
+            checkCondition(addressedNode != null, NO_NODES_AVAILABLE, "Node %s for bucket %s is not available", address, split.getBucketNumber());
+            return addressedNode;
+        }
+
         private List<Node> selectCandidateNodes(NodeMap nodeMap, Split split)
         {
             Set<Node> chosen = new LinkedHashSet<>(minCandidates);
@@ -244,6 +291,12 @@ public class NodeScheduler
                 }
             }
 
+            // with strict locality, a split is only scheduled on the nodes holding its data, even when they are busy,
+            // so that it is read from local disk (e.g. with HDFS short-circuit reads)
+            if (strictLocality && !chosen.isEmpty()) {
+                return ImmutableList.copyOf(chosen);
+            }
+
             // add nodes in same rack, if below the minimum count
             if (split.isRemotelyAccessible() && chosen.size() < minCandidates) {
                 for (HostAddress hint : split.getAddresses()) {
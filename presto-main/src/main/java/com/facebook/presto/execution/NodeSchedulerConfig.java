@@ -14,6 +14,7 @@
 package com.facebook.presto.execution;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 
 import javax.validation.constraints.Min;
 
@@ -22,6 +23,7 @@ public class NodeSchedulerConfig
     private int minCandidates = 10;
     private boolean locationAwareScheduling = true;
     private boolean includeCoordinator = true;
+    private boolean strictLocality;
 
     @Min(1)
     public int getMinCandidates()
@@ -59,4 +61,17 @@ public class NodeSchedulerConfig
         this.includeCoordinator = includeCoordinator;
         return this;
     }
+
+    public boolean isStrictLocalityEnabled()
+    {
+        return strictLocality;
+    }
+
+    @Config("node-scheduler.strict-locality-enabled")
+    @ConfigDescription("Only schedule splits on the nodes that hold their data, when any of these nodes is active")
+    public NodeSchedulerConfig setStrictLocalityEnabled(boolean strictLocality)
+    {
+        this.strictLocality = strictLocality;
+        return this;
+    }
 }
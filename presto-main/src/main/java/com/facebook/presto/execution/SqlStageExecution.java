@@ -109,6 +109,7 @@ public class SqlStageExecution
     private final ConcurrentMap<Node, RemoteTask> tasks = new ConcurrentHashMap<>();
 
     private final Optional<SplitSource> dataSource;
+    private final Map<PlanNodeId, SplitSource> colocatedDataSources;
     private final RemoteTaskFactory remoteTaskFactory;
     private final ConnectorSession session; // only used for remote task factory
     private final int splitBatchSize;
@@ -198,6 +199,7 @@ public class SqlStageExecution
             this.location = locationFactory.createStageLocation(stageId);
             this.fragment = plan.getFragment();
             this.dataSource = plan.getDataSource();
+            this.colocatedDataSources = plan.getColocatedDataSources();
             this.remoteTaskFactory = remoteTaskFactory;
             this.session = session;
             this.splitBatchSize = splitBatchSize;
@@ -550,6 +552,9 @@ public class SqlStageExecution
                 else if (fragment.getDistribution() == PlanDistribution.SOURCE) {
                     scheduleSourcePartitionedNodes();
                 }
+                else if (fragment.getDistribution() == PlanDistribution.BUCKETED) {
+                    scheduleBucketedNodes();
+                }
                 else if (fragment.getDistribution() == PlanDistribution.COORDINATOR_ONLY) {
                     scheduleOnCurrentNode();
                 }
@@ -652,6 +657,65 @@ public class SqlStageExecution
         setNoMoreStageNodes();
     }
 
+    private void scheduleBucketedNodes()
+            throws InterruptedException
+    {
+        // bucket N of every source must be processed by the same task, so create a task on every node before assigning any split
+        List<Node> nodes = nodeSelector.selectRandomNodes(Integer.MAX_VALUE);
+        checkCondition(!nodes.isEmpty(), NO_NODES_AVAILABLE, "No worker nodes available");
+        for (int taskId = 0; taskId < nodes.size(); taskId++) {
+            scheduleTask(taskId, nodes.get(taskId));
+        }
+
+        // tell sub stages about all nodes and that there will not be more nodes
+        for (StageExecutionNode subStage : subStages.values()) {
+            subStage.parentNodesAdded(nodes, true);
+        }
+
+        // the colocated sources are the build sides of joins, which must be complete before the partitioned source can finish
+        for (Entry<PlanNodeId, SplitSource> entry : colocatedDataSources.entrySet()) {
+            scheduleBucketedSplits(entry.getKey(), entry.getValue(), nodes);
+        }
+        scheduleBucketedSplits(fragment.getPartitionedSource(), dataSource.get(), nodes);
+    }
+
+    private void scheduleBucketedSplits(PlanNodeId sourceId, SplitSource bucketedSplitSource, List<Node> nodes)
+            throws InterruptedException
+    {
+        try (SplitSource splitSource = bucketedSplitSource) {
+            while (!splitSource.isFinished()) {
+                // if query has been canceled, exit cleanly; query will never run regardless
+                if (getState().isDone()) {
+                    break;
+                }
+
+                long start = System.nanoTime();
+                Set<Split> pendingSplits = ImmutableSet.copyOf(splitSource.getNextBatch(splitBatchSize));
+                getSplitDistribution.add(System.nanoTime() - start);
+
+                while (!pendingSplits.isEmpty() && !getState().isDone()) {
+                    Multimap<Node, Split> splitAssignment = nodeSelector.computeBucketAssignments(pendingSplits, nodes);
+                    pendingSplits = ImmutableSet.copyOf(Sets.difference(pendingSplits, ImmutableSet.copyOf(splitAssignment.values())));
+
+                    for (Entry<Node, Collection<Split>> taskSplits : splitAssignment.asMap().entrySet()) {
+                        long scheduleSplitStart = System.nanoTime();
+                        tasks.get(taskSplits.getKey()).addSplits(sourceId, taskSplits.getValue());
+                        addSplitDistribution.add(System.nanoTime() - scheduleSplitStart);
+                    }
+
+                    if (!pendingSplits.isEmpty()) {
+                        waitForTaskProgress();
+                    }
+                }
+            }
+        }
+
+        for (RemoteTask task : tasks.values()) {
+            task.noMoreSplits(sourceId);
+        }
+        completeSources.add(sourceId);
+    }
+
     private void assignSplits(AtomicInteger nextTaskId, Multimap<Node, Split> splitAssignment)
     {
         for (Entry<Node, Collection<Split>> taskSplits : splitAssignment.asMap().entrySet()) {
@@ -687,6 +751,11 @@ public class SqlStageExecution
             setNoMoreStageNodes();
         }
 
+        waitForTaskProgress();
+    }
+
+    private void waitForTaskProgress()
+    {
         synchronized (this) {
             // otherwise wait for some tasks to complete
             try {
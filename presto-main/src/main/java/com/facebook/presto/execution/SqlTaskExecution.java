@@ -36,7 +36,10 @@ import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.facebook.presto.util.SetThreadName;
 import com.google.common.base.Objects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -53,6 +56,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -102,7 +106,7 @@ public class SqlTaskExecution
     private final AtomicReference<DateTime> lastHeartbeat = new AtomicReference<>(DateTime.now());
 
     private final PlanNodeId partitionedSourceId;
-    private final DriverSplitRunnerFactory partitionedDriverFactory;
+    private final Map<PlanNodeId, DriverSplitRunnerFactory> partitionedDriverFactories;
 
     private final List<DriverSplitRunnerFactory> unpartitionedDriverFactories;
 
@@ -211,28 +215,32 @@ public class SqlTaskExecution
 
             taskHandle = taskExecutor.addTask(taskId);
 
-            LocalExecutionPlan localExecutionPlan = planner.plan(session, fragment.getRoot(), fragment.getSymbols(), new TaskOutputFactory(sharedBuffer));
+            List<PlanNodeId> partitionedSources = fragment.getPartitionedSources();
+            LocalExecutionPlan localExecutionPlan = planner.plan(session, fragment.getRoot(), fragment.getSymbols(), new TaskOutputFactory(sharedBuffer), partitionedSources);
             List<DriverFactory> driverFactories = localExecutionPlan.getDriverFactories();
 
             // index driver factories
-            DriverSplitRunnerFactory partitionedDriverFactory = null;
+            Map<PlanNodeId, DriverSplitRunnerFactory> partitionedDriverFactories = new HashMap<>();
             ImmutableList.Builder<DriverSplitRunnerFactory> unpartitionedDriverFactories = ImmutableList.builder();
             for (DriverFactory driverFactory : driverFactories) {
-                if (driverFactory.getSourceIds().contains(fragment.getPartitionedSource())) {
-                    checkState(partitionedDriverFactory == null, "multiple partitioned sources are not supported");
-                    partitionedDriverFactory = new DriverSplitRunnerFactory(driverFactory);
+                Set<PlanNodeId> driverPartitionedSources = Sets.intersection(driverFactory.getSourceIds(), ImmutableSet.copyOf(partitionedSources));
+                if (!driverPartitionedSources.isEmpty()) {
+                    checkState(driverPartitionedSources.size() == 1, "multiple partitioned sources in a single driver are not supported");
+                    PlanNodeId sourceId = Iterables.getOnlyElement(driverPartitionedSources);
+                    checkState(!partitionedDriverFactories.containsKey(sourceId), "multiple drivers for partitioned source %s are not supported", sourceId);
+                    partitionedDriverFactories.put(sourceId, new DriverSplitRunnerFactory(driverFactory, sourceId));
                 }
                 else {
-                    unpartitionedDriverFactories.add(new DriverSplitRunnerFactory(driverFactory));
+                    unpartitionedDriverFactories.add(new DriverSplitRunnerFactory(driverFactory, null));
                 }
             }
             this.unpartitionedDriverFactories = unpartitionedDriverFactories.build();
 
-            if (fragment.getDistribution() == PlanDistribution.SOURCE) {
-                checkArgument(partitionedDriverFactory != null, "Fragment is partitioned, but no partitioned driver found");
+            if (fragment.getDistribution() == PlanDistribution.SOURCE || fragment.getDistribution() == PlanDistribution.BUCKETED) {
+                checkArgument(partitionedDriverFactories.containsKey(fragment.getPartitionedSource()), "Fragment is partitioned, but no partitioned driver found");
             }
             this.partitionedSourceId = fragment.getPartitionedSource();
-            this.partitionedDriverFactory = partitionedDriverFactory;
+            this.partitionedDriverFactories = ImmutableMap.copyOf(partitionedDriverFactories);
         }
     }
 
@@ -337,7 +345,8 @@ public class SqlTaskExecution
 
         for (TaskSource source : sources) {
             PlanNodeId sourceId = source.getPlanNodeId();
-            if (sourceId.equals(partitionedSourceId)) {
+            DriverSplitRunnerFactory partitionedDriverFactory = partitionedDriverFactories.get(sourceId);
+            if (partitionedDriverFactory != null) {
                 // partitioned split
                 ImmutableList.Builder<DriverSplitRunner> runners = ImmutableList.builder();
                 for (ScheduledSplit scheduledSplit : source.getSplits()) {
@@ -349,7 +358,9 @@ public class SqlTaskExecution
                     }
                 }
 
-                enqueueDrivers(false, runners.build());
+                // splits of colocated sources feed the build side of a bucketed join, which the
+                // drivers of the primary partitioned source block on, so they must never be queued behind them
+                enqueueDrivers(!sourceId.equals(partitionedSourceId), runners.build());
                 if (source.isNoMoreSplits()) {
                     partitionedDriverFactory.setNoMoreSplits();
                 }
@@ -457,8 +468,10 @@ public class SqlTaskExecution
     private Set<PlanNodeId> getNoMoreSplits()
     {
         ImmutableSet.Builder<PlanNodeId> noMoreSplits = ImmutableSet.builder();
-        if (partitionedDriverFactory != null && partitionedDriverFactory.isNoMoreSplits()) {
-            noMoreSplits.add(partitionedSourceId);
+        for (Entry<PlanNodeId, DriverSplitRunnerFactory> entry : partitionedDriverFactories.entrySet()) {
+            if (entry.getValue().isNoMoreSplits()) {
+                noMoreSplits.add(entry.getKey());
+            }
         }
         for (TaskSource taskSource : unpartitionedSources.values()) {
             if (taskSource.isNoMoreSplits()) {
@@ -475,8 +488,10 @@ public class SqlTaskExecution
         }
 
         // are there more partition splits expected?
-        if (partitionedDriverFactory != null && !partitionedDriverFactory.isNoMoreSplits()) {
-            return;
+        for (DriverSplitRunnerFactory partitionedDriverFactory : partitionedDriverFactories.values()) {
+            if (!partitionedDriverFactory.isNoMoreSplits()) {
+                return;
+            }
         }
         // do we still have running tasks?
         if (remainingDrivers.get() != 0) {
@@ -552,14 +567,17 @@ public class SqlTaskExecution
     private class DriverSplitRunnerFactory
     {
         private final DriverFactory driverFactory;
+        @Nullable
+        private final PlanNodeId partitionedSourceId;
         private final PipelineContext pipelineContext;
 
         private final AtomicInteger pendingCreation = new AtomicInteger();
         private final AtomicBoolean noMoreSplits = new AtomicBoolean();
 
-        private DriverSplitRunnerFactory(DriverFactory driverFactory)
+        private DriverSplitRunnerFactory(DriverFactory driverFactory, @Nullable PlanNodeId partitionedSourceId)
         {
             this.driverFactory = driverFactory;
+            this.partitionedSourceId = partitionedSourceId;
             this.pipelineContext = taskContext.addPipelineContext(driverFactory.isInputDriver(), driverFactory.isOutputDriver());
         }
 
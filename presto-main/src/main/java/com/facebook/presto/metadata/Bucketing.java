@@ -0,0 +1,105 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.metadata;
+
+import com.facebook.presto.spi.ConnectorBucketing;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import java.util.List;
+import java.util.Objects;
+
+import static com.facebook.presto.metadata.ColumnHandle.fromConnectorHandle;
+import static com.google.common.base.Objects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public final class Bucketing
+{
+    private final List<ColumnHandle> columns;
+    private final int bucketCount;
+    private final String bucketFunction;
+
+    public Bucketing(List<ColumnHandle> columns, int bucketCount, String bucketFunction)
+    {
+        checkNotNull(columns, "columns is null");
+        checkArgument(!columns.isEmpty(), "columns is empty");
+        checkArgument(bucketCount > 0, "bucketCount must be greater than zero");
+        this.columns = ImmutableList.copyOf(columns);
+        this.bucketCount = bucketCount;
+        this.bucketFunction = checkNotNull(bucketFunction, "bucketFunction is null");
+    }
+
+    public static Bucketing fromConnectorBucketing(String connectorId, ConnectorBucketing bucketing)
+    {
+        return new Bucketing(Lists.transform(bucketing.getColumns(), fromConnectorHandle(connectorId)), bucketing.getBucketCount(), bucketing.getBucketFunction());
+    }
+
+    public List<ColumnHandle> getColumns()
+    {
+        return columns;
+    }
+
+    public int getBucketCount()
+    {
+        return bucketCount;
+    }
+
+    public String getBucketFunction()
+    {
+        return bucketFunction;
+    }
+
+    /**
+     * Two bucketings are compatible when rows with equal values in the (positionally corresponding)
+     * bucket columns are always placed in buckets with the same number.
+     */
+    public boolean isCompatibleWith(Bucketing other)
+    {
+        return columns.size() == other.columns.size() &&
+                bucketCount == other.bucketCount &&
+                bucketFunction.equals(other.bucketFunction);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(columns, bucketCount, bucketFunction);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        Bucketing other = (Bucketing) obj;
+        return Objects.equals(this.columns, other.columns) &&
+                this.bucketCount == other.bucketCount &&
+                Objects.equals(this.bucketFunction, other.bucketFunction);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("columns", columns)
+                .add("bucketCount", bucketCount)
+                .add("bucketFunction", bucketFunction)
+                .toString();
+    }
+}
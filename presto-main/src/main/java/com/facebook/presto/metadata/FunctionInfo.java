@@ -16,6 +16,7 @@ package com.facebook.presto.metadata;
 import com.facebook.presto.operator.AggregationFunctionDefinition;
 import com.facebook.presto.operator.WindowFunctionDefinition;
 import com.facebook.presto.operator.aggregation.AggregationFunction;
+import com.facebook.presto.operator.window.AggregateWindowFunction;
 import com.facebook.presto.operator.window.WindowFunctionSupplier;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.gen.FunctionBinder;
@@ -156,7 +157,10 @@ public final class FunctionInfo
 
     public WindowFunctionDefinition bindWindowFunction(List<Integer> inputs)
     {
-        checkState(isWindow, "not a window function");
+        checkState(isWindow || isAggregate, "not a window function");
+        if (isAggregate) {
+            return window(AggregateWindowFunction.supplier(signature, aggregationFunction), inputs);
+        }
         return window(windowFunctionSupplier, inputs);
     }
 
@@ -15,6 +15,7 @@ package com.facebook.presto.metadata;
 
 import com.facebook.presto.operator.Description;
 import com.facebook.presto.operator.aggregation.AggregationFunction;
+import com.facebook.presto.operator.scalar.CollectionFunctions;
 import com.facebook.presto.operator.scalar.ColorFunctions;
 import com.facebook.presto.operator.scalar.DateTimeFunctions;
 import com.facebook.presto.operator.scalar.HyperLogLogFunctions;
@@ -57,6 +58,8 @@ import com.facebook.presto.operator.window.WindowFunctionSupplier;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.StandardErrorCode;
+import com.facebook.presto.spi.type.ArrayType;
+import com.facebook.presto.spi.type.MapType;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeManager;
 import com.facebook.presto.sql.gen.DefaultFunctionBinder;
@@ -160,6 +163,8 @@ import static com.facebook.presto.operator.aggregation.VarianceAggregations.LONG
 import static com.facebook.presto.operator.aggregation.VarianceAggregations.LONG_STDDEV_POP_INSTANCE;
 import static com.facebook.presto.operator.aggregation.VarianceAggregations.LONG_VARIANCE_INSTANCE;
 import static com.facebook.presto.operator.aggregation.VarianceAggregations.LONG_VARIANCE_POP_INSTANCE;
+import static com.facebook.presto.operator.scalar.CollectionFunctions.CARDINALITY;
+import static com.facebook.presto.operator.scalar.CollectionFunctions.ELEMENT_AT;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.spi.type.DateType.DATE;
@@ -362,6 +367,12 @@ public class FunctionRegistry
             }
         }
 
+        // search for a function specialized for array or map arguments
+        FunctionInfo collectionFunction = getCollectionFunction(name.getSuffix(), parameterTypes);
+        if (collectionFunction != null) {
+            return collectionFunction;
+        }
+
         List<String> expectedParameters = new ArrayList<>();
         for (FunctionInfo functionInfo : candidates) {
             expectedParameters.add(format("%s(%s)", name, Joiner.on(", ").join(functionInfo.getArgumentTypes())));
@@ -405,7 +416,52 @@ public class FunctionRegistry
 
     public FunctionInfo getExactFunction(Signature signature)
     {
-        return functions.get(signature);
+        FunctionInfo functionInfo = functions.get(signature);
+        if (functionInfo == null && !signature.isApproximate() && !signature.isInternal()) {
+            functionInfo = getCollectionFunction(signature.getName(), signature.getArgumentTypes());
+            if (functionInfo != null && !functionInfo.getSignature().equals(signature)) {
+                return null;
+            }
+        }
+        return functionInfo;
+    }
+
+    /**
+     * Creates the element_at or cardinality function for the specified array or
+     * map argument types, or returns null if the arguments are not supported.
+     * These functions are created on demand, because a function must be
+     * specialized for the element types of the collection.
+     */
+    private static FunctionInfo getCollectionFunction(String name, List<? extends Type> parameterTypes)
+    {
+        if (name.equals(CARDINALITY) && parameterTypes.size() == 1) {
+            Type type = parameterTypes.get(0);
+            if (type instanceof ArrayType || type instanceof MapType) {
+                MethodHandle methodHandle = CollectionFunctions.cardinality(type);
+                return collectionFunctionInfo(name, BIGINT, parameterTypes, methodHandle, false);
+            }
+        }
+
+        if (name.equals(ELEMENT_AT) && parameterTypes.size() == 2) {
+            Type type = parameterTypes.get(0);
+            if (type instanceof ArrayType && canCoerce(parameterTypes.get(1), BIGINT)) {
+                ArrayType arrayType = (ArrayType) type;
+                MethodHandle methodHandle = CollectionFunctions.arrayElementAt(arrayType);
+                return collectionFunctionInfo(name, arrayType.getElementType(), ImmutableList.of(arrayType, BIGINT), methodHandle, true);
+            }
+            if (type instanceof MapType && canCoerce(parameterTypes.get(1), ((MapType) type).getKeyType())) {
+                MapType mapType = (MapType) type;
+                MethodHandle methodHandle = CollectionFunctions.mapElementAt(mapType);
+                return collectionFunctionInfo(name, mapType.getValueType(), ImmutableList.of(mapType, mapType.getKeyType()), methodHandle, true);
+            }
+        }
+        return null;
+    }
+
+    private static FunctionInfo collectionFunctionInfo(String name, Type returnType, List<? extends Type> argumentTypes, MethodHandle methodHandle, boolean nullable)
+    {
+        Signature signature = new Signature(name, returnType, argumentTypes, false, false);
+        return new FunctionInfo(signature, null, true, methodHandle, true, new DefaultFunctionBinder(methodHandle, nullable));
     }
 
     public FunctionInfo resolveOperator(OperatorType operatorType, List<? extends Type> argumentTypes)
@@ -15,11 +15,13 @@ package com.facebook.presto.metadata;
 
 import com.facebook.presto.spi.ConnectorPartitionResult;
 import com.facebook.presto.spi.TupleDomain;
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 
 import java.util.List;
 
+import static com.facebook.presto.metadata.Bucketing.fromConnectorBucketing;
 import static com.facebook.presto.metadata.Partition.fromConnectorPartition;
 import static com.facebook.presto.metadata.Util.fromConnectorDomain;
 
@@ -27,6 +29,7 @@ public class PartitionResult
 {
     private final List<Partition> partitions;
     private final TupleDomain<ColumnHandle> undeterminedTupleDomain;
+    private final Optional<Bucketing> bucketing;
 
     public PartitionResult(String connectorId, ConnectorPartitionResult connectorPartitionResult)
     {
@@ -35,6 +38,12 @@ public class PartitionResult
 
         partitions = Lists.transform(connectorPartitionResult.getPartitions(), fromConnectorPartition(connectorId));
         undeterminedTupleDomain = fromConnectorDomain(connectorId, connectorPartitionResult.getUndeterminedTupleDomain());
+        if (connectorPartitionResult.getBucketing() != null) {
+            bucketing = Optional.of(fromConnectorBucketing(connectorId, connectorPartitionResult.getBucketing()));
+        }
+        else {
+            bucketing = Optional.absent();
+        }
     }
 
     public List<Partition> getPartitions()
@@ -46,4 +55,9 @@ public class PartitionResult
     {
         return undeterminedTupleDomain;
     }
+
+    public Optional<Bucketing> getBucketing()
+    {
+        return bucketing;
+    }
 }
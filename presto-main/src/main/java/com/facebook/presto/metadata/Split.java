@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.metadata;
 
+import com.facebook.presto.spi.ConnectorBucketedSplit;
 import com.facebook.presto.spi.ConnectorSplit;
 import com.facebook.presto.spi.HostAddress;
 import com.fasterxml.jackson.annotation.JsonCreator;
@@ -23,6 +24,7 @@ import com.google.common.base.Objects;
 import java.util.List;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 
 public final class Split
 {
@@ -65,6 +67,12 @@ public final class Split
         return connectorSplit.isRemotelyAccessible();
     }
 
+    public int getBucketNumber()
+    {
+        checkState(connectorSplit instanceof ConnectorBucketedSplit, "Split is not bucketed: %s", connectorSplit);
+        return ((ConnectorBucketedSplit) connectorSplit).getBucketNumber();
+    }
+
     @Override
     public String toString()
     {
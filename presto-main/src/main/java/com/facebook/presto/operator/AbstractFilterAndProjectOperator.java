@@ -18,6 +18,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
 
 import java.util.List;
+import java.util.Map;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
@@ -28,17 +29,27 @@ public abstract class AbstractFilterAndProjectOperator
     private final OperatorContext operatorContext;
     private final List<Type> types;
 
-    private final PageBuilder pageBuilder;
+    private final SelectedPositionsPageBuilder pageBuilder;
     private boolean finishing;
 
-    public AbstractFilterAndProjectOperator(OperatorContext operatorContext, Iterable<? extends Type> types)
+    /**
+     * @param passThroughChannels the output channels that are a copy of an input channel, mapped to that input channel
+     */
+    public AbstractFilterAndProjectOperator(OperatorContext operatorContext, Iterable<? extends Type> types, Map<Integer, Integer> passThroughChannels)
     {
         this.operatorContext = checkNotNull(operatorContext, "operatorContext is null");
         this.types = ImmutableList.copyOf(checkNotNull(types, "types is null"));
-        this.pageBuilder = new PageBuilder(getTypes());
+        this.pageBuilder = new SelectedPositionsPageBuilder(getTypes(), passThroughChannels);
     }
 
-    protected abstract void filterAndProjectRowOriented(Page page, PageBuilder pageBuilder);
+    /**
+     * Stores the positions of the page that pass the filter in selectedPositions, and
+     * appends the projections of those positions, except for the pass through channels,
+     * to the page builder.
+     *
+     * @return the number of positions that pass the filter
+     */
+    protected abstract int filterAndProjectRowOriented(Page page, int[] selectedPositions, PageBuilder pageBuilder);
 
     @Override
     public OperatorContext getOperatorContext()
@@ -73,7 +84,7 @@ public abstract class AbstractFilterAndProjectOperator
     @Override
     public final boolean needsInput()
     {
-        return !finishing && !pageBuilder.isFull();
+        return !finishing && pageBuilder.needsInput();
     }
 
     @Override
@@ -81,20 +92,16 @@ public abstract class AbstractFilterAndProjectOperator
     {
         checkState(!finishing, "Operator is already finishing");
         checkNotNull(page, "page is null");
-        checkState(!pageBuilder.isFull(), "Page buffer is full");
+        checkState(pageBuilder.needsInput(), "Operator still has pending output");
 
-        filterAndProjectRowOriented(page, pageBuilder);
+        int[] selectedPositions = pageBuilder.getSelectedPositions(page.getPositionCount());
+        int positionCount = filterAndProjectRowOriented(page, selectedPositions, pageBuilder.getProjectionPageBuilder());
+        pageBuilder.addPage(page, positionCount);
     }
 
     @Override
     public final Page getOutput()
     {
-        if (needsInput() || pageBuilder.isEmpty()) {
-            return null;
-        }
-
-        Page page = pageBuilder.build();
-        pageBuilder.reset();
-        return page;
+        return pageBuilder.getOutput(finishing);
     }
 }
@@ -28,6 +28,7 @@ import javax.annotation.concurrent.GuardedBy;
 
 import java.io.Closeable;
 import java.util.List;
+import java.util.Map;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
@@ -42,6 +43,7 @@ public abstract class AbstractScanFilterAndProjectOperator
     private final List<Type> types;
     private final List<ColumnHandle> columns;
     private final PageBuilder pageBuilder;
+    private final SelectedPositionsPageBuilder selectedPositionsPageBuilder;
 
     @GuardedBy("this")
     private RecordCursor cursor;
@@ -59,7 +61,8 @@ public abstract class AbstractScanFilterAndProjectOperator
             PlanNodeId sourceId,
             DataStreamProvider dataStreamProvider,
             Iterable<ColumnHandle> columns,
-            Iterable<Type> types)
+            Iterable<Type> types,
+            Map<Integer, Integer> passThroughChannels)
     {
         this.operatorContext = checkNotNull(operatorContext, "operatorContext is null");
         this.planNodeId = checkNotNull(sourceId, "sourceId is null");
@@ -68,9 +71,17 @@ public abstract class AbstractScanFilterAndProjectOperator
         this.columns = ImmutableList.copyOf(checkNotNull(columns, "columns is null"));
 
         this.pageBuilder = new PageBuilder(getTypes());
+        this.selectedPositionsPageBuilder = new SelectedPositionsPageBuilder(getTypes(), passThroughChannels);
     }
 
-    protected abstract void filterAndProjectRowOriented(Page page, PageBuilder pageBuilder);
+    /**
+     * Stores the positions of the page that pass the filter in selectedPositions, and
+     * appends the projections of those positions, except for the pass through channels,
+     * to the page builder.
+     *
+     * @return the number of positions that pass the filter
+     */
+    protected abstract int filterAndProjectRowOriented(Page page, int[] selectedPositions, PageBuilder pageBuilder);
 
     protected abstract int filterAndProjectRowOriented(RecordCursor cursor, PageBuilder pageBuilder);
 
@@ -145,7 +156,7 @@ public abstract class AbstractScanFilterAndProjectOperator
             finishing = true;
         }
 
-        return finishing && pageBuilder.isEmpty();
+        return finishing && pageBuilder.isEmpty() && selectedPositionsPageBuilder.isEmpty();
     }
 
     @Override
@@ -184,14 +195,20 @@ public abstract class AbstractScanFilterAndProjectOperator
                     finishing = true;
                 }
             }
-            else {
+            else if (selectedPositionsPageBuilder.needsInput()) {
                 Page output = operator.getOutput();
                 if (output != null) {
-                    filterAndProjectRowOriented(output, pageBuilder);
+                    int[] selectedPositions = selectedPositionsPageBuilder.getSelectedPositions(output.getPositionCount());
+                    int positionCount = filterAndProjectRowOriented(output, selectedPositions, selectedPositionsPageBuilder.getProjectionPageBuilder());
+                    selectedPositionsPageBuilder.addPage(output, positionCount);
                 }
             }
         }
 
+        if (operator != null) {
+            return selectedPositionsPageBuilder.getOutput(finishing || operator.isFinished());
+        }
+
         // only return a full page is buffer is full or we are finishing
         if (pageBuilder.isEmpty() || (!finishing && !pageBuilder.isFull())) {
             return null;
@@ -18,6 +18,8 @@ import com.google.common.collect.ImmutableList;
 
 import java.util.List;
 
+import static com.facebook.presto.operator.ProjectionFunctions.getEvaluatedProjections;
+import static com.facebook.presto.operator.ProjectionFunctions.getPassThroughChannels;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
@@ -63,29 +65,32 @@ public class FilterAndProjectOperator
     }
 
     private final FilterFunction filterFunction;
-    private final List<ProjectionFunction> projections;
+    private final List<ProjectionFunction> evaluatedProjections;
 
-    public FilterAndProjectOperator(OperatorContext operatorContext, FilterFunction filterFunction, Iterable<? extends ProjectionFunction> projections)
+    public FilterAndProjectOperator(OperatorContext operatorContext, FilterFunction filterFunction, List<? extends ProjectionFunction> projections)
     {
-        super(operatorContext, toTypes(checkNotNull(projections, "projections is null")));
+        super(operatorContext, toTypes(checkNotNull(projections, "projections is null")), getPassThroughChannels(projections));
         this.filterFunction = checkNotNull(filterFunction, "filterFunction is null");
-        this.projections = ImmutableList.copyOf(projections);
+        this.evaluatedProjections = getEvaluatedProjections(projections);
     }
 
     @Override
-    protected void filterAndProjectRowOriented(Page page, PageBuilder pageBuilder)
+    protected int filterAndProjectRowOriented(Page page, int[] selectedPositions, PageBuilder pageBuilder)
     {
         int rows = page.getPositionCount();
 
+        int selectedPositionCount = 0;
         for (int position = 0; position < rows; position++) {
             if (filterFunction.filter(position, page.getBlocks())) {
-                pageBuilder.declarePosition();
-                for (int i = 0; i < projections.size(); i++) {
+                selectedPositions[selectedPositionCount] = position;
+                selectedPositionCount++;
+                for (int i = 0; i < evaluatedProjections.size(); i++) {
                     // todo: if the projection function increases the size of the data significantly, this could cause the servers to OOM
-                    projections.get(i).project(position, page.getBlocks(), pageBuilder.getBlockBuilder(i));
+                    evaluatedProjections.get(i).project(position, page.getBlocks(), pageBuilder.getBlockBuilder(i));
                 }
             }
         }
+        return selectedPositionCount;
     }
 
     private static List<Type> toTypes(Iterable<? extends ProjectionFunction> projections)
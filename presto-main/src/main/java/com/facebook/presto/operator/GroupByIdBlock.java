@@ -98,6 +98,12 @@ public class GroupByIdBlock
         return block.isNull(position);
     }
 
+    @Override
+    public boolean mayHaveNull()
+    {
+        return block.mayHaveNull();
+    }
+
     @Override
     public boolean equalTo(int position, Block otherBlock, int otherPosition)
     {
@@ -0,0 +1,229 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.type.FixedWidthType;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Replicates every input row once per grouping set. The output contains the
+ * grouping columns (set to null when the column is not part of the current set),
+ * followed by the argument columns and a bigint group id identifying the set.
+ */
+public class GroupIdOperator
+        implements Operator
+{
+    public static class GroupIdOperatorFactory
+            implements OperatorFactory
+    {
+        private final int operatorId;
+        private final List<Type> types;
+        private final int[] groupingChannels;
+        private final boolean[][] groupingSetColumns;
+        private final int[] argumentChannels;
+        private boolean closed;
+
+        public GroupIdOperatorFactory(int operatorId, List<? extends Type> sourceTypes, List<Integer> groupingChannels, List<Set<Integer>> groupingSets, List<Integer> argumentChannels)
+        {
+            this.operatorId = operatorId;
+            checkNotNull(sourceTypes, "sourceTypes is null");
+            checkNotNull(groupingChannels, "groupingChannels is null");
+            checkNotNull(groupingSets, "groupingSets is null");
+            checkNotNull(argumentChannels, "argumentChannels is null");
+            checkArgument(!groupingSets.isEmpty(), "groupingSets is empty");
+
+            this.groupingChannels = Ints.toArray(groupingChannels);
+            this.argumentChannels = Ints.toArray(argumentChannels);
+
+            // groupingSets refer to positions in groupingChannels
+            this.groupingSetColumns = new boolean[groupingSets.size()][groupingChannels.size()];
+            for (int set = 0; set < groupingSets.size(); set++) {
+                for (int column : groupingSets.get(set)) {
+                    checkArgument(column >= 0 && column < groupingChannels.size(), "Invalid grouping column %s", column);
+                    groupingSetColumns[set][column] = true;
+                }
+            }
+
+            ImmutableList.Builder<Type> types = ImmutableList.builder();
+            for (int channel : groupingChannels) {
+                types.add(sourceTypes.get(channel));
+            }
+            for (int channel : argumentChannels) {
+                types.add(sourceTypes.get(channel));
+            }
+            types.add(BIGINT);
+            this.types = types.build();
+        }
+
+        @Override
+        public List<Type> getTypes()
+        {
+            return types;
+        }
+
+        @Override
+        public Operator createOperator(DriverContext driverContext)
+        {
+            checkState(!closed, "Factory is already closed");
+            OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, GroupIdOperator.class.getSimpleName());
+            return new GroupIdOperator(operatorContext, types, groupingChannels, groupingSetColumns, argumentChannels);
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+    }
+
+    private final OperatorContext operatorContext;
+    private final List<Type> types;
+    private final int[] groupingChannels;
+    private final boolean[][] groupingSetColumns;
+    private final int[] argumentChannels;
+
+    private Page currentPage;
+    private int currentGroupingSet;
+    private boolean finishing;
+
+    public GroupIdOperator(OperatorContext operatorContext, List<Type> types, int[] groupingChannels, boolean[][] groupingSetColumns, int[] argumentChannels)
+    {
+        this.operatorContext = checkNotNull(operatorContext, "operatorContext is null");
+        this.types = ImmutableList.copyOf(checkNotNull(types, "types is null"));
+        this.groupingChannels = checkNotNull(groupingChannels, "groupingChannels is null");
+        this.groupingSetColumns = checkNotNull(groupingSetColumns, "groupingSetColumns is null");
+        this.argumentChannels = checkNotNull(argumentChannels, "argumentChannels is null");
+    }
+
+    @Override
+    public OperatorContext getOperatorContext()
+    {
+        return operatorContext;
+    }
+
+    @Override
+    public List<Type> getTypes()
+    {
+        return types;
+    }
+
+    @Override
+    public void finish()
+    {
+        finishing = true;
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return finishing && currentPage == null;
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        return NOT_BLOCKED;
+    }
+
+    @Override
+    public boolean needsInput()
+    {
+        return !finishing && currentPage == null;
+    }
+
+    @Override
+    public void addInput(Page page)
+    {
+        checkNotNull(page, "page is null");
+        checkState(!finishing, "Operator is finishing");
+        checkState(currentPage == null, "Current page has not been completely processed yet");
+
+        currentPage = page;
+        currentGroupingSet = 0;
+    }
+
+    @Override
+    public Page getOutput()
+    {
+        if (currentPage == null) {
+            return null;
+        }
+
+        int positionCount = currentPage.getPositionCount();
+        boolean[] columns = groupingSetColumns[currentGroupingSet];
+
+        // the source blocks are shared between all grouping sets, only the nulled columns and the group id are new
+        Block[] outputBlocks = new Block[types.size()];
+        int outputChannel = 0;
+        for (int i = 0; i < groupingChannels.length; i++) {
+            if (columns[i]) {
+                outputBlocks[outputChannel] = currentPage.getBlock(groupingChannels[i]);
+            }
+            else {
+                outputBlocks[outputChannel] = createNullBlock(types.get(outputChannel), positionCount);
+            }
+            outputChannel++;
+        }
+        for (int channel : argumentChannels) {
+            outputBlocks[outputChannel] = currentPage.getBlock(channel);
+            outputChannel++;
+        }
+        outputBlocks[outputChannel] = createGroupIdBlock(currentGroupingSet, positionCount);
+
+        currentGroupingSet++;
+        if (currentGroupingSet == groupingSetColumns.length) {
+            currentPage = null;
+        }
+
+        return new Page(outputBlocks);
+    }
+
+    private static Block createNullBlock(Type type, int positionCount)
+    {
+        BlockBuilder blockBuilder;
+        if (type instanceof FixedWidthType) {
+            blockBuilder = ((FixedWidthType) type).createFixedSizeBlockBuilder(positionCount);
+        }
+        else {
+            blockBuilder = type.createBlockBuilder(new BlockBuilderStatus());
+        }
+        for (int position = 0; position < positionCount; position++) {
+            blockBuilder.appendNull();
+        }
+        return blockBuilder.build();
+    }
+
+    private static Block createGroupIdBlock(int groupId, int positionCount)
+    {
+        BlockBuilder blockBuilder = BIGINT.createFixedSizeBlockBuilder(positionCount);
+        for (int position = 0; position < positionCount; position++) {
+            blockBuilder.appendLong(groupId);
+        }
+        return blockBuilder.build();
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Objects;
+
+public class HashAggregationInfo
+{
+    private final boolean partialAggregationBypassed;
+    private final long aggregatedPositions;
+    private final long aggregatedGroups;
+    private final long bypassedPositions;
+
+    @JsonCreator
+    public HashAggregationInfo(
+            @JsonProperty("partialAggregationBypassed") boolean partialAggregationBypassed,
+            @JsonProperty("aggregatedPositions") long aggregatedPositions,
+            @JsonProperty("aggregatedGroups") long aggregatedGroups,
+            @JsonProperty("bypassedPositions") long bypassedPositions)
+    {
+        this.partialAggregationBypassed = partialAggregationBypassed;
+        this.aggregatedPositions = aggregatedPositions;
+        this.aggregatedGroups = aggregatedGroups;
+        this.bypassedPositions = bypassedPositions;
+    }
+
+    /**
+     * True if the partial aggregation stopped grouping its input because
+     * it did not reduce the number of rows enough to be worth the cost.
+     */
+    @JsonProperty
+    public boolean isPartialAggregationBypassed()
+    {
+        return partialAggregationBypassed;
+    }
+
+    @JsonProperty
+    public long getAggregatedPositions()
+    {
+        return aggregatedPositions;
+    }
+
+    @JsonProperty
+    public long getAggregatedGroups()
+    {
+        return aggregatedGroups;
+    }
+
+    @JsonProperty
+    public long getBypassedPositions()
+    {
+        return bypassedPositions;
+    }
+
+    @Override
+    public String toString()
+    {
+        return Objects.toStringHelper(this)
+                .add("partialAggregationBypassed", partialAggregationBypassed)
+                .add("aggregatedPositions", aggregatedPositions)
+                .add("aggregatedGroups", aggregatedGroups)
+                .add("bypassedPositions", bypassedPositions)
+                .toString();
+    }
+}
@@ -16,9 +16,12 @@ package com.facebook.presto.operator;
 import com.facebook.presto.ExceededMemoryLimitException;
 import com.facebook.presto.operator.aggregation.AggregationFunction;
 import com.facebook.presto.operator.aggregation.GroupedAccumulator;
+import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.planner.plan.AggregationNode.Step;
+import com.google.common.base.Supplier;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
@@ -28,6 +31,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
@@ -35,6 +39,12 @@ import static com.google.common.base.Preconditions.checkState;
 public class HashAggregationOperator
         implements Operator
 {
+    // number of rows a partial aggregation processes before checking whether grouping is worth it
+    public static final int DEFAULT_PARTIAL_AGGREGATION_BYPASS_CHECK_POSITIONS = 100_000;
+
+    // a partial aggregation that produces more groups than this fraction of its input rows is bypassed
+    private static final double PARTIAL_AGGREGATION_BYPASS_GROUP_RATIO = 0.8;
+
     public static class HashAggregationOperatorFactory
             implements OperatorFactory
     {
@@ -44,6 +54,7 @@ public class HashAggregationOperator
         private final Step step;
         private final List<AggregationFunctionDefinition> functionDefinitions;
         private final int expectedGroups;
+        private final int bypassCheckPositions;
         private final List<Type> types;
         private boolean closed;
 
@@ -55,12 +66,27 @@ public class HashAggregationOperator
                 List<AggregationFunctionDefinition> functionDefinitions,
                 int expectedGroups)
         {
+            this(operatorId, groupByTypes, groupByChannels, step, functionDefinitions, expectedGroups, DEFAULT_PARTIAL_AGGREGATION_BYPASS_CHECK_POSITIONS);
+        }
+
+        public HashAggregationOperatorFactory(
+                int operatorId,
+                List<? extends Type> groupByTypes,
+                List<Integer> groupByChannels,
+                Step step,
+                List<AggregationFunctionDefinition> functionDefinitions,
+                int expectedGroups,
+                int bypassCheckPositions)
+        {
+            checkArgument(bypassCheckPositions > 0, "bypassCheckPositions must be positive");
+
             this.operatorId = operatorId;
             this.groupByTypes = ImmutableList.copyOf(groupByTypes);
             this.groupByChannels = groupByChannels;
             this.step = step;
             this.functionDefinitions = functionDefinitions;
             this.expectedGroups = expectedGroups;
+            this.bypassCheckPositions = bypassCheckPositions;
 
             this.types = toTypes(groupByTypes, step, functionDefinitions);
         }
@@ -83,8 +109,8 @@ public class HashAggregationOperator
                     groupByChannels,
                     step,
                     functionDefinitions,
-                    expectedGroups
-            );
+                    expectedGroups,
+                    bypassCheckPositions);
         }
 
         @Override
@@ -100,14 +126,21 @@ public class HashAggregationOperator
     private final Step step;
     private final List<AggregationFunctionDefinition> functionDefinitions;
     private final int expectedGroups;
+    private final int bypassCheckPositions;
 
     private final List<Type> types;
     private final MemoryManager memoryManager;
 
     private GroupByHashAggregationBuilder aggregationBuilder;
     private Iterator<Page> outputIterator;
+    private Page bypassedPage;
     private boolean finishing;
 
+    private volatile boolean bypassed;
+    private volatile long aggregatedPositions;
+    private volatile long aggregatedGroups;
+    private volatile long bypassedPositions;
+
     public HashAggregationOperator(
             OperatorContext operatorContext,
             List<Type> groupByTypes,
@@ -115,6 +148,18 @@ public class HashAggregationOperator
             Step step,
             List<AggregationFunctionDefinition> functionDefinitions,
             int expectedGroups)
+    {
+        this(operatorContext, groupByTypes, groupByChannels, step, functionDefinitions, expectedGroups, DEFAULT_PARTIAL_AGGREGATION_BYPASS_CHECK_POSITIONS);
+    }
+
+    public HashAggregationOperator(
+            OperatorContext operatorContext,
+            List<Type> groupByTypes,
+            List<Integer> groupByChannels,
+            Step step,
+            List<AggregationFunctionDefinition> functionDefinitions,
+            int expectedGroups,
+            int bypassCheckPositions)
     {
         this.operatorContext = checkNotNull(operatorContext, "operatorContext is null");
         checkNotNull(step, "step is null");
@@ -126,9 +171,19 @@ public class HashAggregationOperator
         this.functionDefinitions = ImmutableList.copyOf(functionDefinitions);
         this.step = step;
         this.expectedGroups = expectedGroups;
+        this.bypassCheckPositions = bypassCheckPositions;
         this.memoryManager = new MemoryManager(operatorContext);
 
         this.types = toTypes(groupByTypes, step, functionDefinitions);
+
+        operatorContext.setInfoSupplier(new Supplier<Object>()
+        {
+            @Override
+            public Object get()
+            {
+                return new HashAggregationInfo(bypassed, aggregatedPositions, aggregatedGroups, bypassedPositions);
+            }
+        });
     }
 
     @Override
@@ -152,7 +207,7 @@ public class HashAggregationOperator
     @Override
     public boolean isFinished()
     {
-        return finishing && aggregationBuilder == null && (outputIterator == null || !outputIterator.hasNext());
+        return finishing && aggregationBuilder == null && !hasBufferedOutput();
     }
 
     @Override
@@ -164,7 +219,12 @@ public class HashAggregationOperator
     @Override
     public boolean needsInput()
     {
-        return !finishing && outputIterator == null && (aggregationBuilder == null || !aggregationBuilder.isFull());
+        return !finishing && !hasBufferedOutput() && (aggregationBuilder == null || !aggregationBuilder.isFull());
+    }
+
+    private boolean hasBufferedOutput()
+    {
+        return bypassedPage != null || (outputIterator != null && outputIterator.hasNext());
     }
 
     @Override
@@ -172,6 +232,13 @@ public class HashAggregationOperator
     {
         checkState(!finishing, "Operator is already finishing");
         checkNotNull(page, "page is null");
+
+        if (bypassed) {
+            bypassedPage = toIntermediatePage(page);
+            bypassedPositions += page.getPositionCount();
+            return;
+        }
+
         if (aggregationBuilder == null) {
             aggregationBuilder = new GroupByHashAggregationBuilder(
                     functionDefinitions,
@@ -187,11 +254,65 @@ public class HashAggregationOperator
             checkState(!aggregationBuilder.isFull(), "Aggregation buffer is full");
         }
         aggregationBuilder.processPage(page);
+        aggregatedPositions += page.getPositionCount();
+
+        // When a partial aggregation barely reduces the number of rows, grouping is pure overhead,
+        // so output the groups collected so far and convert the remaining rows directly.
+        if (step == Step.PARTIAL &&
+                aggregationBuilder.getInputPositions() >= bypassCheckPositions &&
+                aggregationBuilder.getGroupCount() > aggregationBuilder.getInputPositions() * PARTIAL_AGGREGATION_BYPASS_GROUP_RATIO) {
+            bypassed = true;
+            flushAggregationBuilder();
+        }
+    }
+
+    private void flushAggregationBuilder()
+    {
+        aggregatedGroups += aggregationBuilder.getGroupCount();
+        outputIterator = aggregationBuilder.build();
+        aggregationBuilder = null;
+    }
+
+    /**
+     * Converts each row of the page to a group of its own, so the output has the
+     * same layout as the output of a partial aggregation that did group the rows.
+     */
+    private Page toIntermediatePage(Page page)
+    {
+        int positionCount = page.getPositionCount();
+
+        BlockBuilder groupIdBuilder = BIGINT.createBlockBuilder(new BlockBuilderStatus());
+        for (int position = 0; position < positionCount; position++) {
+            groupIdBuilder.appendLong(position);
+        }
+        GroupByIdBlock groupIds = new GroupByIdBlock(positionCount, groupIdBuilder.build());
+
+        Block[] blocks = new Block[types.size()];
+        for (int i = 0; i < groupByChannels.size(); i++) {
+            blocks[i] = page.getBlock(groupByChannels.get(i));
+        }
+        for (int i = 0; i < functionDefinitions.size(); i++) {
+            Aggregator aggregator = new Aggregator(functionDefinitions.get(i), step);
+            aggregator.processPage(groupIds, page);
+
+            BlockBuilder output = aggregator.getType().createBlockBuilder(new BlockBuilderStatus());
+            for (int position = 0; position < positionCount; position++) {
+                aggregator.evaluate(position, output);
+            }
+            blocks[groupByChannels.size() + i] = output.build();
+        }
+        return new Page(blocks);
     }
 
     @Override
     public Page getOutput()
     {
+        if (bypassedPage != null && (outputIterator == null || !outputIterator.hasNext())) {
+            Page page = bypassedPage;
+            bypassedPage = null;
+            return page;
+        }
+
         if (outputIterator == null || !outputIterator.hasNext()) {
             // no data
             if (aggregationBuilder == null) {
@@ -208,8 +329,7 @@ public class HashAggregationOperator
                 throw new ExceededMemoryLimitException(memoryManager.getMaxMemorySize());
             }
 
-            outputIterator = aggregationBuilder.build();
-            aggregationBuilder = null;
+            flushAggregationBuilder();
 
             if (!outputIterator.hasNext()) {
                 return null;
@@ -239,6 +359,7 @@ public class HashAggregationOperator
         private final GroupByHash groupByHash;
         private final List<Aggregator> aggregators;
         private final MemoryManager memoryManager;
+        private long inputPositions;
 
         private GroupByHashAggregationBuilder(
                 List<AggregationFunctionDefinition> functionDefinitions,
@@ -266,6 +387,17 @@ public class HashAggregationOperator
             for (Aggregator aggregator : aggregators) {
                 aggregator.processPage(groupIds, page);
             }
+            inputPositions += page.getPositionCount();
+        }
+
+        public long getInputPositions()
+        {
+            return inputPositions;
+        }
+
+        public int getGroupCount()
+        {
+            return groupByHash.getGroupCount();
         }
 
         public boolean isFull()
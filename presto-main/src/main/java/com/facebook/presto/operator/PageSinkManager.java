@@ -15,31 +15,35 @@ package com.facebook.presto.operator;
 
 import com.facebook.presto.metadata.OutputTableHandle;
 import com.facebook.presto.spi.ConnectorRecordSinkProvider;
-import com.facebook.presto.spi.RecordSink;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
-public class RecordSinkManager
-        implements RecordSinkProvider
+public class PageSinkManager
+        implements PageSinkProvider
 {
-    private final ConcurrentMap<String, ConnectorRecordSinkProvider> recordSinkProviders = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConnectorPageSinkProvider> pageSinkProviders = new ConcurrentHashMap<>();
+
+    public void addConnectorPageSinkProvider(String connectorId, ConnectorPageSinkProvider pageSinkProvider)
+    {
+        ConnectorPageSinkProvider previous = pageSinkProviders.putIfAbsent(connectorId, pageSinkProvider);
+        checkArgument(previous == null, "Page sink provider already registered for connector '%s'", connectorId);
+    }
 
     public void addConnectorRecordSinkProvider(String connectorId, ConnectorRecordSinkProvider recordSinkProvider)
     {
-        ConnectorRecordSinkProvider previous = recordSinkProviders.putIfAbsent(connectorId, recordSinkProvider);
-        checkArgument(previous == null, "Record sink provider already registered for connector '%s'", connectorId);
+        addConnectorPageSinkProvider(connectorId, new RecordPageSinkProvider(recordSinkProvider));
     }
 
     @Override
-    public RecordSink getRecordSink(OutputTableHandle tableHandle)
+    public ConnectorPageSink getPageSink(OutputTableHandle tableHandle)
     {
-        ConnectorRecordSinkProvider provider = recordSinkProviders.get(tableHandle.getConnectorId());
+        ConnectorPageSinkProvider provider = pageSinkProviders.get(tableHandle.getConnectorId());
 
-        checkArgument(provider != null, "No record sink for '%s'", tableHandle.getConnectorId());
+        checkArgument(provider != null, "No page sink for '%s'", tableHandle.getConnectorId());
 
-        return provider.getRecordSink(tableHandle.getConnectorHandle());
+        return provider.getPageSink(tableHandle.getConnectorHandle());
     }
 }
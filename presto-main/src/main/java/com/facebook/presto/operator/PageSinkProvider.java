@@ -14,9 +14,8 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.metadata.OutputTableHandle;
-import com.facebook.presto.spi.RecordSink;
 
-public interface RecordSinkProvider
+public interface PageSinkProvider
 {
-    RecordSink getRecordSink(OutputTableHandle tableHandle);
+    ConnectorPageSink getPageSink(OutputTableHandle tableHandle);
 }
@@ -37,6 +37,7 @@ import static com.facebook.presto.operator.SyntheticAddress.decodePosition;
 import static com.facebook.presto.operator.SyntheticAddress.decodeSliceIndex;
 import static com.facebook.presto.operator.SyntheticAddress.encodeSyntheticAddress;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
 import static io.airlift.slice.SizeOf.sizeOf;
 
 /**
@@ -120,6 +121,21 @@ public class PagesIndex
         estimatedSize = operatorContext.setMemoryReservation(calculateEstimatedSize());
     }
 
+    /**
+     * Removes all positions and pages from this index.
+     */
+    public void clear()
+    {
+        for (ObjectArrayList<Block> channel : channels) {
+            channel.clear();
+        }
+        valueAddresses.clear();
+        positionCount = 0;
+        pagesMemorySize = 0;
+
+        estimatedSize = operatorContext.setMemoryReservation(calculateEstimatedSize());
+    }
+
     public DataSize getEstimatedSize()
     {
         return new DataSize(estimatedSize, Unit.BYTE);
@@ -261,7 +277,13 @@ public class PagesIndex
 
     public void sort(List<Integer> sortChannels, List<SortOrder> sortOrders)
     {
-        orderingCompiler.compilePagesIndexOrdering(sortChannels, sortOrders).sort(this);
+        sort(sortChannels, sortOrders, 0, positionCount);
+    }
+
+    public void sort(List<Integer> sortChannels, List<SortOrder> sortOrders, int startPosition, int endPosition)
+    {
+        checkPositionIndexes(startPosition, endPosition, positionCount);
+        orderingCompiler.compilePagesIndexOrdering(sortChannels, sortOrders).sort(this, startPosition, endPosition);
     }
 
     public IntComparator createComparator(final List<Integer> sortChannels, final List<SortOrder> sortOrders)
@@ -34,7 +34,12 @@ public class PagesIndexOrdering
 
     public void sort(PagesIndex pagesIndex)
     {
-        quickSort(pagesIndex, 0, pagesIndex.getPositionCount());
+        sort(pagesIndex, 0, pagesIndex.getPositionCount());
+    }
+
+    public void sort(PagesIndex pagesIndex, int startPosition, int endPosition)
+    {
+        quickSort(pagesIndex, startPosition, endPosition);
     }
 
     /**
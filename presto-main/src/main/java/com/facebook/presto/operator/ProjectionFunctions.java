@@ -18,8 +18,13 @@ import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.type.Type;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.airlift.slice.Slice;
 
+import java.util.List;
+import java.util.Map;
+
 public final class ProjectionFunctions
 {
     private ProjectionFunctions() {}
@@ -29,6 +34,35 @@ public final class ProjectionFunctions
         return new SingleColumnProjection(columnType, channelIndex);
     }
 
+    /**
+     * Gets the projections that copy an input channel, mapped to that channel.
+     */
+    public static Map<Integer, Integer> getPassThroughChannels(List<? extends ProjectionFunction> projections)
+    {
+        ImmutableMap.Builder<Integer, Integer> passThroughChannels = ImmutableMap.builder();
+        for (int i = 0; i < projections.size(); i++) {
+            ProjectionFunction projection = projections.get(i);
+            if (projection instanceof SingleColumnProjection) {
+                passThroughChannels.put(i, ((SingleColumnProjection) projection).channelIndex);
+            }
+        }
+        return passThroughChannels.build();
+    }
+
+    /**
+     * Gets the projections that do not copy an input channel.
+     */
+    public static List<ProjectionFunction> getEvaluatedProjections(List<? extends ProjectionFunction> projections)
+    {
+        ImmutableList.Builder<ProjectionFunction> evaluatedProjections = ImmutableList.builder();
+        for (ProjectionFunction projection : projections) {
+            if (!(projection instanceof SingleColumnProjection)) {
+                evaluatedProjections.add(projection);
+            }
+        }
+        return evaluatedProjections.build();
+    }
+
     private static class SingleColumnProjection
             implements ProjectionFunction
     {
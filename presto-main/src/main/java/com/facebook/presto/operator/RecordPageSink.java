@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.RecordSink;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Writes pages to a connector that only supports writing one field at a time.
+ */
+public class RecordPageSink
+        implements ConnectorPageSink
+{
+    private final RecordSink recordSink;
+
+    public RecordPageSink(RecordSink recordSink)
+    {
+        this.recordSink = checkNotNull(recordSink, "recordSink is null");
+    }
+
+    @Override
+    public void appendPage(Page page, Block sampleWeightBlock)
+    {
+        checkNotNull(page, "page is null");
+
+        Block[] blocks = page.getBlocks();
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            long sampleWeight = 1;
+            if (sampleWeightBlock != null) {
+                sampleWeight = sampleWeightBlock.getLong(position);
+            }
+            recordSink.beginRecord(sampleWeight);
+            for (Block block : blocks) {
+                writeField(position, block);
+            }
+            recordSink.finishRecord();
+        }
+    }
+
+    @Override
+    public String commit()
+    {
+        return recordSink.commit();
+    }
+
+    private void writeField(int position, Block block)
+    {
+        if (block.isNull(position)) {
+            recordSink.appendNull();
+            return;
+        }
+
+        Type type = block.getType();
+        if (type.equals(BOOLEAN)) {
+            recordSink.appendBoolean(block.getBoolean(position));
+        }
+        else if (type.equals(BIGINT)) {
+            recordSink.appendLong(block.getLong(position));
+        }
+        else if (type.equals(DOUBLE)) {
+            recordSink.appendDouble(block.getDouble(position));
+        }
+        else if (type.equals(VARCHAR)) {
+            recordSink.appendString(block.getSlice(position).getBytes());
+        }
+        else {
+            throw new AssertionError("unimplemented type: " + type);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.ConnectorOutputTableHandle;
+import com.facebook.presto.spi.ConnectorRecordSinkProvider;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public class RecordPageSinkProvider
+        implements ConnectorPageSinkProvider
+{
+    private final ConnectorRecordSinkProvider recordSinkProvider;
+
+    public RecordPageSinkProvider(ConnectorRecordSinkProvider recordSinkProvider)
+    {
+        this.recordSinkProvider = checkNotNull(recordSinkProvider, "recordSinkProvider is null");
+    }
+
+    @Override
+    public ConnectorPageSink getPageSink(ConnectorOutputTableHandle tableHandle)
+    {
+        return new RecordPageSink(recordSinkProvider.getRecordSink(tableHandle));
+    }
+}
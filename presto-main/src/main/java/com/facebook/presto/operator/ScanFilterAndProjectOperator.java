@@ -22,6 +22,8 @@ import com.google.common.collect.ImmutableList;
 
 import java.util.List;
 
+import static com.facebook.presto.operator.ProjectionFunctions.getEvaluatedProjections;
+import static com.facebook.presto.operator.ProjectionFunctions.getPassThroughChannels;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
@@ -86,6 +88,7 @@ public class ScanFilterAndProjectOperator
 
     private final FilterFunction filterFunction;
     private final List<ProjectionFunction> projections;
+    private final List<ProjectionFunction> evaluatedProjections;
 
     public ScanFilterAndProjectOperator(
             OperatorContext operatorContext,
@@ -99,25 +102,30 @@ public class ScanFilterAndProjectOperator
                 sourceId,
                 dataStreamProvider,
                 columns,
-                toTypes(ImmutableList.copyOf(checkNotNull(projections, "projections is null"))));
+                toTypes(ImmutableList.copyOf(checkNotNull(projections, "projections is null"))),
+                getPassThroughChannels(ImmutableList.copyOf(projections)));
         this.filterFunction = checkNotNull(filterFunction, "filterFunction is null");
-        this.projections = ImmutableList.copyOf(checkNotNull(projections, "projections is null"));
+        this.projections = ImmutableList.copyOf(projections);
+        this.evaluatedProjections = getEvaluatedProjections(this.projections);
     }
 
     @Override
-    protected void filterAndProjectRowOriented(Page page, PageBuilder pageBuilder)
+    protected int filterAndProjectRowOriented(Page page, int[] selectedPositions, PageBuilder pageBuilder)
     {
         int rows = page.getPositionCount();
 
+        int selectedPositionCount = 0;
         for (int position = 0; position < rows; position++) {
             if (filterFunction.filter(position, page.getBlocks())) {
-                pageBuilder.declarePosition();
-                for (int i = 0; i < projections.size(); i++) {
+                selectedPositions[selectedPositionCount] = position;
+                selectedPositionCount++;
+                for (int i = 0; i < evaluatedProjections.size(); i++) {
                     // todo: if the projection function increases the size of the data significantly, this could cause the servers to OOM
-                    projections.get(i).project(position, page.getBlocks(), pageBuilder.getBlockBuilder(i));
+                    evaluatedProjections.get(i).project(position, page.getBlocks(), pageBuilder.getBlockBuilder(i));
                 }
             }
         }
+        return selectedPositionCount;
     }
 
     @Override
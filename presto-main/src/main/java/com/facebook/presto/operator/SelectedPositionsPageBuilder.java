@@ -0,0 +1,194 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.block.selection.SelectedPositionsBlock;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Builds the output pages of a filter and projection from the positions of the input
+ * pages that pass the filter. When most positions of a page are selected, output channels
+ * that pass an input channel through are not copied, but reference the input block through
+ * the selected positions. Smaller selections are copied into a buffer shared by consecutive
+ * pages, so they do not keep the whole input page alive and are not emitted as tiny pages.
+ * The other channels are projected into a page builder, one value per selected position.
+ */
+class SelectedPositionsPageBuilder
+{
+    private final List<Type> types;
+    private final Map<Integer, Integer> passThroughChannels;
+    private final PageBuilder projectionPageBuilder;
+    private final PageBuilder pageBuilder;
+
+    private int[] selectedPositions = new int[0];
+    private boolean selectedPositionsReferenced;
+    private Page pendingPage;
+
+    SelectedPositionsPageBuilder(List<Type> types, Map<Integer, Integer> passThroughChannels)
+    {
+        this.types = ImmutableList.copyOf(checkNotNull(types, "types is null"));
+        this.passThroughChannels = ImmutableMap.copyOf(checkNotNull(passThroughChannels, "passThroughChannels is null"));
+
+        ImmutableList.Builder<Type> projectionTypes = ImmutableList.builder();
+        for (int channel = 0; channel < this.types.size(); channel++) {
+            if (!this.passThroughChannels.containsKey(channel)) {
+                projectionTypes.add(this.types.get(channel));
+            }
+        }
+        this.projectionPageBuilder = new PageBuilder(projectionTypes.build());
+        this.pageBuilder = new PageBuilder(this.types);
+    }
+
+    /**
+     * Gets the page builder for the channels that are not passed through, in output order.
+     */
+    PageBuilder getProjectionPageBuilder()
+    {
+        return projectionPageBuilder;
+    }
+
+    /**
+     * Gets an array for the selected positions of a page with the specified number of
+     * positions. The array is reused unless it is referenced by an output page.
+     */
+    int[] getSelectedPositions(int positionCount)
+    {
+        if (selectedPositionsReferenced || selectedPositions.length < positionCount) {
+            selectedPositions = new int[positionCount];
+            selectedPositionsReferenced = false;
+        }
+        return selectedPositions;
+    }
+
+    boolean needsInput()
+    {
+        return pendingPage == null && !pageBuilder.isFull();
+    }
+
+    boolean isEmpty()
+    {
+        return pendingPage == null && pageBuilder.isEmpty();
+    }
+
+    /**
+     * Adds the projected values and the first positionCount selected positions of the
+     * input page, which must have been stored in the array from {@link #getSelectedPositions}.
+     * The selected positions must be increasing.
+     */
+    void addPage(Page page, int positionCount)
+    {
+        checkState(pendingPage == null, "output page has not been consumed");
+        checkArgument(positionCount <= page.getPositionCount(), "positionCount is greater than the page position count");
+
+        Page projectedPage = projectionPageBuilder.build();
+        projectionPageBuilder.reset();
+        if (positionCount == 0) {
+            return;
+        }
+
+        if (positionCount * 2 < page.getPositionCount()) {
+            copyPositions(page, projectedPage, positionCount);
+            return;
+        }
+
+        Block[] blocks = new Block[types.size()];
+        int projectedChannel = 0;
+        for (int channel = 0; channel < blocks.length; channel++) {
+            Integer inputChannel = passThroughChannels.get(channel);
+            if (inputChannel != null) {
+                blocks[channel] = selectPositions(page.getBlock(inputChannel), positionCount);
+            }
+            else {
+                blocks[channel] = projectedPage.getBlock(projectedChannel);
+                projectedChannel++;
+            }
+        }
+        pendingPage = new Page(positionCount, blocks);
+    }
+
+    /**
+     * Gets the next output page, if one is ready. When finishing, the buffered
+     * positions are returned even if the buffer is not full.
+     */
+    Page getOutput(boolean finishing)
+    {
+        // the buffered positions precede the pending page
+        if (!pageBuilder.isEmpty() && (finishing || pageBuilder.isFull() || pendingPage != null)) {
+            Page page = pageBuilder.build();
+            pageBuilder.reset();
+            return page;
+        }
+
+        Page page = pendingPage;
+        pendingPage = null;
+        return page;
+    }
+
+    private void copyPositions(Page page, Page projectedPage, int positionCount)
+    {
+        int projectedChannel = 0;
+        for (int channel = 0; channel < types.size(); channel++) {
+            BlockBuilder blockBuilder = pageBuilder.getBlockBuilder(channel);
+            Integer inputChannel = passThroughChannels.get(channel);
+            if (inputChannel != null) {
+                Block block = page.getBlock(inputChannel);
+                for (int i = 0; i < positionCount; i++) {
+                    block.appendTo(selectedPositions[i], blockBuilder);
+                }
+            }
+            else {
+                Block block = projectedPage.getBlock(projectedChannel);
+                for (int i = 0; i < positionCount; i++) {
+                    block.appendTo(i, blockBuilder);
+                }
+                projectedChannel++;
+            }
+        }
+        for (int i = 0; i < positionCount; i++) {
+            pageBuilder.declarePosition();
+        }
+    }
+
+    private Block selectPositions(Block block, int positionCount)
+    {
+        if (positionCount == block.getPositionCount()) {
+            // the positions are increasing, so every position is selected
+            return block;
+        }
+
+        if (block instanceof SelectedPositionsBlock) {
+            // select from the underlying block so reads do not go through a chain of views
+            SelectedPositionsBlock selectedPositionsBlock = (SelectedPositionsBlock) block;
+            int[] sourcePositions = new int[positionCount];
+            for (int i = 0; i < positionCount; i++) {
+                sourcePositions[i] = selectedPositionsBlock.getSourcePosition(selectedPositions[i]);
+            }
+            return new SelectedPositionsBlock(selectedPositionsBlock.getSource(), sourcePositions, positionCount);
+        }
+
+        selectedPositionsReferenced = true;
+        return new SelectedPositionsBlock(block, selectedPositions, positionCount);
+    }
+}
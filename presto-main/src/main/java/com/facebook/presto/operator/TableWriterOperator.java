@@ -13,21 +13,16 @@
  */
 package com.facebook.presto.operator;
 
-import com.facebook.presto.spi.RecordSink;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.type.Type;
-import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.slice.Slices;
 
 import java.util.List;
 
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
-import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
-import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
@@ -41,27 +36,16 @@ public class TableWriterOperator
             implements OperatorFactory
     {
         private final int operatorId;
-        private final RecordSink recordSink;
+        private final ConnectorPageSink pageSink;
         private final List<Integer> inputChannels;
-        private final List<Type> recordTypes;
         private final Optional<Integer> sampleWeightChannel;
         private boolean closed;
 
-        public TableWriterOperatorFactory(int operatorId, RecordSink recordSink, List<Type> recordTypes, List<Integer> inputChannels, Optional<Integer> sampleWeightChannel)
+        public TableWriterOperatorFactory(int operatorId, ConnectorPageSink pageSink, List<Integer> inputChannels, Optional<Integer> sampleWeightChannel)
         {
             this.operatorId = operatorId;
             this.inputChannels = checkNotNull(inputChannels, "inputChannels is null");
-            this.recordSink = checkNotNull(recordSink, "recordSink is null");
-
-            checkNotNull(recordTypes, "types is null");
-            this.recordTypes = ImmutableList.copyOf(Iterables.transform(recordTypes, new Function<Type, Type>()
-            {
-                public Type apply(Type type)
-                {
-                    return type;
-                }
-            }));
-
+            this.pageSink = checkNotNull(pageSink, "pageSink is null");
             this.sampleWeightChannel = checkNotNull(sampleWeightChannel, "sampleWeightChannel is null");
         }
 
@@ -76,7 +60,7 @@ public class TableWriterOperator
         {
             checkState(!closed, "Factory is already closed");
             OperatorContext context = driverContext.addOperatorContext(operatorId, TableWriterOperator.class.getSimpleName());
-            return new TableWriterOperator(context, recordSink, recordTypes, inputChannels, sampleWeightChannel);
+            return new TableWriterOperator(context, pageSink, inputChannels, sampleWeightChannel);
         }
 
         @Override
@@ -92,23 +76,20 @@ public class TableWriterOperator
     }
 
     private final OperatorContext operatorContext;
-    private final RecordSink recordSink;
+    private final ConnectorPageSink pageSink;
     private final Optional<Integer> sampleWeightChannel;
-    private final List<Type> recordTypes;
     private final List<Integer> inputChannels;
 
     private State state = State.RUNNING;
     private long rowCount;
 
     public TableWriterOperator(OperatorContext operatorContext,
-            RecordSink recordSink,
-            List<Type> recordTypes,
+            ConnectorPageSink pageSink,
             List<Integer> inputChannels,
             Optional<Integer> sampleWeightChannel)
     {
         this.operatorContext = checkNotNull(operatorContext, "operatorContext is null");
-        this.recordSink = checkNotNull(recordSink, "recordSink is null");
-        this.recordTypes = recordTypes;
+        this.pageSink = checkNotNull(pageSink, "pageSink is null");
         this.sampleWeightChannel = checkNotNull(sampleWeightChannel, "sampleWeightChannel is null");
         this.inputChannels = checkNotNull(inputChannels, "inputChannels is null");
     }
@@ -167,43 +148,15 @@ public class TableWriterOperator
             blocks[outputChannel] = page.getBlock(inputChannels.get(outputChannel));
         }
 
-        int rows = 0;
-        for (int position = 0; position < page.getPositionCount(); position++) {
-            long sampleWeight = 1;
-            if (sampleWeightBlock != null) {
-                sampleWeight = sampleWeightBlock.getLong(position);
-            }
-            rows += sampleWeight;
-            recordSink.beginRecord(sampleWeight);
-            for (int i = 0; i < blocks.length; i++) {
-                writeField(position, blocks[i], recordTypes.get(i));
-            }
-            recordSink.finishRecord();
-        }
-        rowCount += rows;
-    }
+        pageSink.appendPage(new Page(page.getPositionCount(), blocks), sampleWeightBlock);
 
-    private void writeField(int position, Block block, Type type)
-    {
-        if (block.isNull(position)) {
-            recordSink.appendNull();
-            return;
-        }
-
-        if (type.equals(BOOLEAN)) {
-            recordSink.appendBoolean(block.getBoolean(position));
-        }
-        else if (type.equals(BIGINT)) {
-            recordSink.appendLong(block.getLong(position));
-        }
-        else if (type.equals(DOUBLE)) {
-            recordSink.appendDouble(block.getDouble(position));
-        }
-        else if (type.equals(VARCHAR)) {
-            recordSink.appendString(block.getSlice(position).getBytes());
+        if (sampleWeightBlock == null) {
+            rowCount += page.getPositionCount();
         }
         else {
-            throw new AssertionError("unimplemented type: " + type);
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                rowCount += sampleWeightBlock.getLong(position);
+            }
         }
     }
 
@@ -215,7 +168,7 @@ public class TableWriterOperator
         }
         state = State.FINISHED;
 
-        String fragment = recordSink.commit();
+        String fragment = pageSink.commit();
 
         PageBuilder page = new PageBuilder(TYPES);
         page.getBlockBuilder(0).appendLong(rowCount);
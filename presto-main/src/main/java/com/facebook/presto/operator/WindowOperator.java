@@ -13,10 +13,14 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.operator.window.FrameInfo;
 import com.facebook.presto.operator.window.WindowFunction;
+import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.tree.FrameBound;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.primitives.Ints;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -25,7 +29,10 @@ import it.unimi.dsi.fastutil.ints.IntComparator;
 import java.util.Collections;
 import java.util.List;
 
+import static com.facebook.presto.spi.StandardErrorCode.INVALID_FUNCTION_ARGUMENT;
 import static com.facebook.presto.spi.block.SortOrder.ASC_NULLS_LAST;
+import static com.facebook.presto.sql.tree.WindowFrame.Type.ROWS;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
@@ -40,8 +47,11 @@ public class WindowOperator
         private final List<Integer> outputChannels;
         private final List<WindowFunctionDefinition> windowFunctionDefinitions;
         private final List<Integer> partitionChannels;
+        private final List<Integer> preGroupedChannels;
         private final List<Integer> sortChannels;
         private final List<SortOrder> sortOrder;
+        private final int preSortedChannelPrefix;
+        private final FrameInfo frameInfo;
         private final int expectedPositions;
         private final List<Type> types;
         private boolean closed;
@@ -52,17 +62,27 @@ public class WindowOperator
                 List<Integer> outputChannels,
                 List<WindowFunctionDefinition> windowFunctionDefinitions,
                 List<Integer> partitionChannels,
+                List<Integer> preGroupedChannels,
                 List<Integer> sortChannels,
                 List<SortOrder> sortOrder,
+                int preSortedChannelPrefix,
+                FrameInfo frameInfo,
                 int expectedPositions)
         {
+            checkArgument(partitionChannels.containsAll(preGroupedChannels), "preGroupedChannels must be a subset of partitionChannels");
+            checkArgument(preSortedChannelPrefix >= 0 && preSortedChannelPrefix <= sortChannels.size(), "preSortedChannelPrefix is out of range");
+            checkArgument(preSortedChannelPrefix == 0 || ImmutableSet.copyOf(preGroupedChannels).equals(ImmutableSet.copyOf(partitionChannels)), "preSortedChannelPrefix requires all partition channels to be pre-grouped");
+
             this.operatorId = operatorId;
             this.sourceTypes = ImmutableList.copyOf(sourceTypes);
             this.outputChannels = ImmutableList.copyOf(checkNotNull(outputChannels, "outputChannels is null"));
             this.windowFunctionDefinitions = windowFunctionDefinitions;
             this.partitionChannels = ImmutableList.copyOf(checkNotNull(partitionChannels, "partitionChannels is null"));
+            this.preGroupedChannels = ImmutableList.copyOf(checkNotNull(preGroupedChannels, "preGroupedChannels is null"));
             this.sortChannels = ImmutableList.copyOf(checkNotNull(sortChannels, "sortChannels is null"));
             this.sortOrder = ImmutableList.copyOf(checkNotNull(sortOrder, "sortOrder is null"));
+            this.preSortedChannelPrefix = preSortedChannelPrefix;
+            this.frameInfo = checkNotNull(frameInfo, "frameInfo is null");
             this.expectedPositions = expectedPositions;
 
             this.types = toTypes(sourceTypes, outputChannels, toWindowFunctions(windowFunctionDefinitions));
@@ -86,8 +106,11 @@ public class WindowOperator
                     outputChannels,
                     windowFunctionDefinitions,
                     partitionChannels,
+                    preGroupedChannels,
                     sortChannels,
                     sortOrder,
+                    preSortedChannelPrefix,
+                    frameInfo,
                     expectedPositions);
         }
 
@@ -108,23 +131,33 @@ public class WindowOperator
     private final OperatorContext operatorContext;
     private final int[] outputChannels;
     private final List<WindowFunction> windowFunctions;
-    private final List<Integer> partitionChannels;
-    private final List<Integer> sortChannels;
-    private final List<SortOrder> sortOrder;
+    private final List<Integer> orderChannels;
+    private final List<SortOrder> ordering;
+    private final boolean preSorted;
+    private final FrameInfo frameInfo;
+    private final int frameStartChannel;
+    private final int frameEndChannel;
     private final List<Type> types;
 
     private final PagesIndex pagesIndex;
 
     private final PageBuilder pageBuilder;
 
+    private final IntComparator preGroupedComparator;
+    private final IntComparator partitionComparator;
+    private final IntComparator orderComparator;
+
     private State state = State.NEEDS_INPUT;
+    private boolean inputFinished;
 
-    private int currentPosition;
+    // positions before this one contain only complete pre-grouped partitions
+    private int completePositions;
 
-    private IntComparator partitionComparator;
-    private IntComparator orderComparator;
+    private int currentPosition;
 
+    private int partitionStart;
     private int partitionEnd;
+    private int peerGroupStart;
     private int peerGroupEnd;
     private int peerGroupCount;
 
@@ -134,21 +167,48 @@ public class WindowOperator
             List<Integer> outputChannels,
             List<WindowFunctionDefinition> windowFunctionDefinitions,
             List<Integer> partitionChannels,
+            List<Integer> preGroupedChannels,
             List<Integer> sortChannels,
             List<SortOrder> sortOrder,
+            int preSortedChannelPrefix,
+            FrameInfo frameInfo,
             int expectedPositions)
     {
         this.operatorContext = checkNotNull(operatorContext, "operatorContext is null");
         this.outputChannels = Ints.toArray(checkNotNull(outputChannels, "outputChannels is null"));
         this.windowFunctions = toWindowFunctions(checkNotNull(windowFunctionDefinitions, "windowFunctionDefinitions is null"));
-        this.partitionChannels = ImmutableList.copyOf(checkNotNull(partitionChannels, "partitionChannels is null"));
-        this.sortChannels = ImmutableList.copyOf(checkNotNull(sortChannels, "sortChannels is null"));
-        this.sortOrder = ImmutableList.copyOf(checkNotNull(sortOrder, "sortOrder is null"));
+        checkNotNull(partitionChannels, "partitionChannels is null");
+        checkNotNull(preGroupedChannels, "preGroupedChannels is null");
+        checkNotNull(sortChannels, "sortChannels is null");
+        checkNotNull(sortOrder, "sortOrder is null");
+
+        this.frameInfo = checkNotNull(frameInfo, "frameInfo is null");
+        this.frameStartChannel = frameInfo.getStartChannel().or(-1);
+        this.frameEndChannel = frameInfo.getEndChannel().or(-1);
 
         this.types = toTypes(sourceTypes, outputChannels, windowFunctions);
 
         this.pagesIndex = new PagesIndex(sourceTypes, expectedPositions, operatorContext);
         this.pageBuilder = new PageBuilder(this.types);
+
+        // we partition by ordering the values so partitions are sequential values
+        List<SortOrder> partitionOrder = Collections.nCopies(partitionChannels.size(), ASC_NULLS_LAST);
+
+        // sort everything by partition channels, then sort channels
+        this.orderChannels = ImmutableList.copyOf(Iterables.concat(partitionChannels, sortChannels));
+        this.ordering = ImmutableList.copyOf(Iterables.concat(partitionOrder, sortOrder));
+
+        // if the input is grouped by all partition channels and sorted within each partition, there is nothing to sort
+        this.preSorted = ImmutableSet.copyOf(preGroupedChannels).equals(ImmutableSet.copyOf(partitionChannels)) && (preSortedChannelPrefix == sortChannels.size());
+
+        if (preGroupedChannels.isEmpty()) {
+            preGroupedComparator = null;
+        }
+        else {
+            preGroupedComparator = pagesIndex.createComparator(preGroupedChannels, Collections.nCopies(preGroupedChannels.size(), ASC_NULLS_LAST));
+        }
+        partitionComparator = pagesIndex.createComparator(partitionChannels, partitionOrder);
+        orderComparator = pagesIndex.createComparator(sortChannels, sortOrder);
     }
 
     @Override
@@ -166,24 +226,18 @@ public class WindowOperator
     @Override
     public void finish()
     {
-        if (state == State.NEEDS_INPUT) {
-            state = State.HAS_OUTPUT;
-
-            // we partition by ordering the values so partitions are sequential values
-            List<SortOrder> partitionOrder = Collections.nCopies(partitionChannels.size(), ASC_NULLS_LAST);
-
-            // sort everything by partition channels, then sort channels
-            List<Integer> orderChannels = ImmutableList.copyOf(Iterables.concat(partitionChannels, sortChannels));
-            List<SortOrder> ordering = ImmutableList.copyOf(Iterables.concat(partitionOrder, sortOrder));
-
-            // sort the index
-            pagesIndex.sort(orderChannels, ordering);
-
-            // create partition comparator
-            partitionComparator = pagesIndex.createComparator(partitionChannels, partitionOrder);
+        if (inputFinished) {
+            return;
+        }
+        inputFinished = true;
 
-            // create order comparator
-            orderComparator = pagesIndex.createComparator(sortChannels, sortOrder);
+        if (state == State.NEEDS_INPUT) {
+            if (pagesIndex.getPositionCount() == 0) {
+                state = State.FINISHED;
+            }
+            else {
+                startOutput(pagesIndex.getPositionCount());
+            }
         }
     }
 
@@ -202,16 +256,44 @@ public class WindowOperator
     @Override
     public boolean needsInput()
     {
-        return state == State.NEEDS_INPUT;
+        return state == State.NEEDS_INPUT && !inputFinished;
     }
 
     @Override
     public void addInput(Page page)
     {
-        checkState(state == State.NEEDS_INPUT, "Operator is already finishing");
+        checkState(needsInput(), "Operator can not take input at this time");
         checkNotNull(page, "page is null");
 
+        int previousPositionCount = pagesIndex.getPositionCount();
         pagesIndex.addPage(page);
+
+        if (preGroupedComparator == null) {
+            return;
+        }
+
+        // When the input is already grouped by some of the partition channels, every row before the
+        // start of the last pre-grouped partition is complete and can be output without waiting for
+        // the rest of the input. Only the new rows need to be checked for the start of a partition.
+        for (int position = pagesIndex.getPositionCount() - 1; position >= Math.max(previousPositionCount, 1); position--) {
+            if (preGroupedComparator.compare(position - 1, position) != 0) {
+                startOutput(position);
+                return;
+            }
+        }
+    }
+
+    private void startOutput(int endPosition)
+    {
+        if (!preSorted) {
+            pagesIndex.sort(orderChannels, ordering, 0, endPosition);
+        }
+
+        completePositions = endPosition;
+        currentPosition = 0;
+        partitionEnd = 0;
+        peerGroupEnd = 0;
+        state = State.HAS_OUTPUT;
     }
 
     @Override
@@ -221,27 +303,23 @@ public class WindowOperator
             return null;
         }
 
-        if (currentPosition >= pagesIndex.getPositionCount()) {
-            state = State.FINISHED;
-            return null;
-        }
-
         // iterate through the positions sequentially until we have one full page
         pageBuilder.reset();
-        while (!pageBuilder.isFull() && currentPosition < pagesIndex.getPositionCount()) {
+        while (!pageBuilder.isFull() && currentPosition < completePositions) {
             // check for new partition
-            boolean newPartition = (currentPosition == 0) || (currentPosition == partitionEnd);
+            boolean newPartition = (currentPosition == partitionEnd);
             if (newPartition) {
                 // find end of partition
+                partitionStart = currentPosition;
                 partitionEnd++;
-                while ((partitionEnd < pagesIndex.getPositionCount()) &&
+                while ((partitionEnd < completePositions) &&
                         (partitionComparator.compare(partitionEnd - 1, partitionEnd) == 0)) {
                     partitionEnd++;
                 }
 
                 // reset functions for new partition
                 for (WindowFunction function : windowFunctions) {
-                    function.reset(partitionEnd - currentPosition, pagesIndex);
+                    function.reset(partitionStart, partitionEnd - partitionStart, pagesIndex);
                 }
             }
 
@@ -256,6 +334,7 @@ public class WindowOperator
             boolean newPeerGroup = newPartition || (currentPosition == peerGroupEnd);
             if (newPeerGroup) {
                 // find end of peer group
+                peerGroupStart = currentPosition;
                 peerGroupEnd++;
                 while ((peerGroupEnd < partitionEnd) &&
                         (orderComparator.compare(peerGroupEnd - 1, peerGroupEnd) == 0)) {
@@ -264,23 +343,111 @@ public class WindowOperator
                 peerGroupCount = peerGroupEnd - currentPosition;
             }
 
+            // compute window frame, clipped to the partition
+            int frameStart = -1;
+            int frameEnd = -1;
+            long start = getFrameBound(frameInfo.getStartType(), frameStartChannel, true);
+            long end = getFrameBound(frameInfo.getEndType(), frameEndChannel, false);
+            if ((start <= end) && (start < partitionEnd) && (end >= partitionStart)) {
+                frameStart = (int) Math.max(start, partitionStart);
+                frameEnd = (int) Math.min(end, partitionEnd - 1);
+            }
+
             // process window functions
             for (WindowFunction function : windowFunctions) {
-                function.processRow(pageBuilder.getBlockBuilder(channel), newPeerGroup, peerGroupCount);
+                function.processRow(pageBuilder.getBlockBuilder(channel), newPeerGroup, peerGroupCount, frameStart, frameEnd);
                 channel++;
             }
 
             currentPosition++;
         }
 
-        // output the page if we have any data
-        if (pageBuilder.isEmpty()) {
+        if (currentPosition >= completePositions) {
+            finishOutput();
+        }
+
+        return pageBuilder.build();
+    }
+
+    private void finishOutput()
+    {
+        removeCompletePositions();
+
+        if (!inputFinished) {
+            state = State.NEEDS_INPUT;
+        }
+        else if (pagesIndex.getPositionCount() > 0) {
+            // the rest of the input is the last partition
+            startOutput(pagesIndex.getPositionCount());
+        }
+        else {
             state = State.FINISHED;
-            return null;
         }
+    }
 
-        Page page = pageBuilder.build();
-        return page;
+    private void removeCompletePositions()
+    {
+        int positionCount = pagesIndex.getPositionCount();
+        if (completePositions == positionCount) {
+            pagesIndex.clear();
+            return;
+        }
+
+        // copy the rows after the complete partitions, which may span several input pages, to new pages,
+        // so the index no longer references the pages of the partitions that have been output
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        int[] channels = new int[pagesIndex.getTypes().size()];
+        for (int channel = 0; channel < channels.length; channel++) {
+            channels[channel] = channel;
+        }
+        PageBuilder remaining = new PageBuilder(pagesIndex.getTypes());
+        int position = completePositions;
+        while (position < positionCount) {
+            remaining.reset();
+            position = pagesIndex.buildPage(position, channels, remaining);
+            pages.add(remaining.build());
+        }
+
+        pagesIndex.clear();
+        for (Page page : pages.build()) {
+            pagesIndex.addPage(page);
+        }
+        completePositions = 0;
+    }
+
+    private long getFrameBound(FrameBound.Type type, int channel, boolean start)
+    {
+        switch (type) {
+            case UNBOUNDED_PRECEDING:
+                return partitionStart;
+            case PRECEDING:
+                // offsets reaching past the partition are clamped to just before it, so they cannot overflow
+                return currentPosition - Math.min(getFrameOffset(channel), currentPosition - partitionStart + 1);
+            case CURRENT_ROW:
+                if (frameInfo.getType() == ROWS) {
+                    return currentPosition;
+                }
+                // in RANGE mode, the current row includes all of its peers
+                return start ? peerGroupStart : (peerGroupEnd - 1);
+            case FOLLOWING:
+                return currentPosition + Math.min(getFrameOffset(channel), partitionEnd - currentPosition);
+            case UNBOUNDED_FOLLOWING:
+                return partitionEnd - 1;
+            default:
+                throw new IllegalArgumentException("Unsupported frame bound type: " + type);
+        }
+    }
+
+    private long getFrameOffset(int channel)
+    {
+        if (pagesIndex.isNull(channel, currentPosition)) {
+            throw new PrestoException(INVALID_FUNCTION_ARGUMENT.toErrorCode(), "Window frame offset must not be null");
+        }
+        long offset = pagesIndex.getLong(channel, currentPosition);
+        if (offset < 0) {
+            throw new PrestoException(INVALID_FUNCTION_ARGUMENT.toErrorCode(), "Window frame offset must not be negative");
+        }
+        return offset;
     }
 
     private static List<Type> toTypes(List<? extends Type> sourceTypes, List<Integer> outputChannels, List<WindowFunction> windowFunctions)
@@ -64,6 +64,15 @@ public abstract class AbstractAggregationFunction<T extends AccumulatorState>
         combineState(state, scratchState);
     }
 
+    /**
+     * Removes a value previously added with processInput. Functions that support this
+     * must override it and implement {@link RemovableAggregationFunction}.
+     */
+    protected void removeInput(T state, Block block, int index)
+    {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support removing input");
+    }
+
     /**
      * Combines two pieces of state. The result should be stored in state.
      */
@@ -236,7 +245,7 @@ public abstract class AbstractAggregationFunction<T extends AccumulatorState>
     }
 
     public final class GenericAccumulator
-            implements Accumulator
+            implements RemovableAccumulator
     {
         private final T state;
         private final double confidence;
@@ -281,6 +290,19 @@ public abstract class AbstractAggregationFunction<T extends AccumulatorState>
             }
         }
 
+        @Override
+        public void removeInput(Page page)
+        {
+            checkState(!maskChannel.isPresent() && !sampleWeightChannel.isPresent(), "Removing masked or sampled input is not supported");
+
+            Block values = page.getBlock(valueChannel);
+            for (int position = 0; position < values.getPositionCount(); position++) {
+                if (!values.isNull(position)) {
+                    AbstractAggregationFunction.this.removeInput(state, values, position);
+                }
+            }
+        }
+
         @Override
         public void addIntermediate(Block block)
         {
@@ -29,7 +29,7 @@ import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.google.common.base.Preconditions.checkArgument;
 
 public class CountAggregation
-        implements AggregationFunction
+        implements RemovableAggregationFunction
 {
     public static final CountAggregation COUNT = new CountAggregation();
 
@@ -156,8 +156,14 @@ public class CountAggregation
         return new CountAccumulator(Optional.<Integer>absent());
     }
 
+    @Override
+    public CountAccumulator createRemovableAggregation(int... argumentChannels)
+    {
+        return new CountAccumulator(Optional.<Integer>absent());
+    }
+
     public static class CountAccumulator
-            implements Accumulator
+            implements RemovableAccumulator
     {
         private long count;
         private final Optional<Integer> maskChannel;
@@ -201,6 +207,22 @@ public class CountAggregation
             }
         }
 
+        @Override
+        public void removeInput(Page page)
+        {
+            if (!maskChannel.isPresent()) {
+                count -= page.getPositionCount();
+            }
+            else {
+                Block masks = page.getBlock(maskChannel.get());
+                for (int position = 0; position < page.getPositionCount(); position++) {
+                    if (masks.getBoolean(position)) {
+                        count--;
+                    }
+                }
+            }
+        }
+
         @Override
         public void addIntermediate(Block intermediates)
         {
@@ -16,11 +16,13 @@ package com.facebook.presto.operator.aggregation;
 import com.facebook.presto.operator.aggregation.state.LongState;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.type.Type;
+import com.google.common.base.Optional;
 
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 
 public class CountColumnAggregation
         extends AbstractExactAggregationFunction<LongState>
+        implements RemovableAggregationFunction
 {
     public CountColumnAggregation(Type parameterType)
     {
@@ -33,6 +35,18 @@ public class CountColumnAggregation
         state.setLong(state.getLong() + 1);
     }
 
+    @Override
+    protected void removeInput(LongState state, Block block, int index)
+    {
+        state.setLong(state.getLong() - 1);
+    }
+
+    @Override
+    public RemovableAccumulator createRemovableAggregation(int... argumentChannels)
+    {
+        return new GenericAccumulator(argumentChannels[0], Optional.<Integer>absent(), Optional.<Integer>absent(), 1.0);
+    }
+
     @Override
     protected void combineState(LongState state, LongState otherState)
     {
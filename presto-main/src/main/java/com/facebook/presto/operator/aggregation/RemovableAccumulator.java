@@ -0,0 +1,27 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.aggregation;
+
+import com.facebook.presto.operator.Page;
+
+/**
+ * An accumulator that can retract input previously added with {@link #addInput}.
+ * This allows a sliding window frame to be maintained by adding the rows that
+ * enter the frame and removing the rows that leave it.
+ */
+public interface RemovableAccumulator
+        extends Accumulator
+{
+    void removeInput(Page page);
+}
@@ -0,0 +1,26 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.aggregation;
+
+/**
+ * An aggregation function whose raw input can be removed from the accumulated state.
+ * Removal must be exact, so the result is the same as accumulating the remaining
+ * input from scratch. Floating point sums are not exact, since a NaN or infinity
+ * can not be removed and subtraction accumulates rounding errors.
+ */
+public interface RemovableAggregationFunction
+        extends AggregationFunction
+{
+    RemovableAccumulator createRemovableAggregation(int... argumentChannels);
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.scalar;
+
+import com.facebook.presto.spi.type.ArrayType;
+import com.facebook.presto.spi.type.MapType;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.base.Throwables;
+import io.airlift.slice.Slice;
+
+import java.lang.invoke.MethodHandle;
+
+import static com.facebook.presto.spi.type.ArrayType.getElementCount;
+import static com.facebook.presto.spi.type.ArrayType.isElementNull;
+import static com.facebook.presto.spi.type.MapType.getKeys;
+import static com.facebook.presto.spi.type.MapType.getValues;
+import static com.google.common.primitives.Primitives.wrap;
+import static java.lang.invoke.MethodHandles.insertArguments;
+import static java.lang.invoke.MethodHandles.lookup;
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Functions on array and map values. The functions are specialized for the element
+ * types of their arguments, and read the elements directly from the value.
+ */
+public final class CollectionFunctions
+{
+    public static final String ELEMENT_AT = "element_at";
+    public static final String CARDINALITY = "cardinality";
+
+    private static final MethodHandle ARRAY_CARDINALITY;
+    private static final MethodHandle MAP_CARDINALITY;
+    private static final MethodHandle ARRAY_ELEMENT_AT;
+
+    static {
+        try {
+            ARRAY_CARDINALITY = lookup().findStatic(CollectionFunctions.class, "arrayCardinality", methodType(long.class, Slice.class));
+            MAP_CARDINALITY = lookup().findStatic(CollectionFunctions.class, "mapCardinality", methodType(long.class, Slice.class));
+            ARRAY_ELEMENT_AT = lookup().findStatic(CollectionFunctions.class, "arrayElementAt", methodType(Object.class, ArrayType.class, Slice.class, long.class));
+        }
+        catch (ReflectiveOperationException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    private CollectionFunctions() {}
+
+    public static MethodHandle cardinality(Type type)
+    {
+        if (type instanceof ArrayType) {
+            return ARRAY_CARDINALITY;
+        }
+        if (type instanceof MapType) {
+            return MAP_CARDINALITY;
+        }
+        throw new IllegalArgumentException("Unsupported type: " + type);
+    }
+
+    /**
+     * Gets the method handle for element_at on an array type, which returns
+     * the boxed element or null.
+     */
+    public static MethodHandle arrayElementAt(ArrayType type)
+    {
+        MethodHandle methodHandle = insertArguments(ARRAY_ELEMENT_AT, 0, type);
+        return methodHandle.asType(methodType(wrap(type.getElementType().getJavaType()), Slice.class, long.class));
+    }
+
+    /**
+     * Gets the method handle for element_at on a map type, which returns
+     * the boxed value or null.
+     */
+    public static MethodHandle mapElementAt(MapType type)
+    {
+        Class<?> keyJavaType = type.getKeyType().getJavaType();
+        MethodHandle methodHandle;
+        try {
+            methodHandle = lookup().findStatic(CollectionFunctions.class, "mapElementAt", methodType(Object.class, MapType.class, Slice.class, keyJavaType));
+        }
+        catch (ReflectiveOperationException e) {
+            throw Throwables.propagate(e);
+        }
+        methodHandle = insertArguments(methodHandle, 0, type);
+        return methodHandle.asType(methodType(wrap(type.getValueType().getJavaType()), Slice.class, keyJavaType));
+    }
+
+    public static long arrayCardinality(Slice array)
+    {
+        return getElementCount(array);
+    }
+
+    public static long mapCardinality(Slice map)
+    {
+        return getElementCount(getKeys(map));
+    }
+
+    public static Object arrayElementAt(ArrayType type, Slice array, long index)
+    {
+        // SQL arrays are one based
+        if (index < 1 || index > getElementCount(array)) {
+            return null;
+        }
+        return getElement(type, array, (int) (index - 1));
+    }
+
+    public static Object mapElementAt(MapType type, Slice map, boolean key)
+    {
+        Slice keys = getKeys(map);
+        ArrayType keysType = type.getKeysType();
+        for (int index = 0; index < getElementCount(keys); index++) {
+            if (!isElementNull(keys, index) && keysType.getBoolean(keys, index) == key) {
+                return getElement(type.getValuesType(), getValues(map), index);
+            }
+        }
+        return null;
+    }
+
+    public static Object mapElementAt(MapType type, Slice map, long key)
+    {
+        Slice keys = getKeys(map);
+        ArrayType keysType = type.getKeysType();
+        for (int index = 0; index < getElementCount(keys); index++) {
+            if (!isElementNull(keys, index) && keysType.getLong(keys, index) == key) {
+                return getElement(type.getValuesType(), getValues(map), index);
+            }
+        }
+        return null;
+    }
+
+    public static Object mapElementAt(MapType type, Slice map, double key)
+    {
+        Slice keys = getKeys(map);
+        ArrayType keysType = type.getKeysType();
+        for (int index = 0; index < getElementCount(keys); index++) {
+            if (!isElementNull(keys, index) && keysType.getDouble(keys, index) == key) {
+                return getElement(type.getValuesType(), getValues(map), index);
+            }
+        }
+        return null;
+    }
+
+    public static Object mapElementAt(MapType type, Slice map, Slice key)
+    {
+        Slice keys = getKeys(map);
+        ArrayType keysType = type.getKeysType();
+        for (int index = 0; index < getElementCount(keys); index++) {
+            if (!isElementNull(keys, index) && keysType.getSlice(keys, index).equals(key)) {
+                return getElement(type.getValuesType(), getValues(map), index);
+            }
+        }
+        return null;
+    }
+
+    private static Object getElement(ArrayType type, Slice array, int index)
+    {
+        if (isElementNull(array, index)) {
+            return null;
+        }
+
+        Class<?> javaType = type.getElementType().getJavaType();
+        if (javaType == boolean.class) {
+            return type.getBoolean(array, index);
+        }
+        if (javaType == long.class) {
+            return type.getLong(array, index);
+        }
+        if (javaType == double.class) {
+            return type.getDouble(array, index);
+        }
+        return type.getSlice(array, index);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.window;
+
+import com.facebook.presto.operator.GroupByIdBlock;
+import com.facebook.presto.operator.Page;
+import com.facebook.presto.operator.aggregation.Accumulator;
+import com.facebook.presto.operator.aggregation.AggregationFunction;
+import com.facebook.presto.operator.aggregation.GroupedAccumulator;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A segment tree of intermediate aggregation results over the rows of a partition.
+ * <p/>
+ * The leaves hold the intermediate result of each row, and every node of the level
+ * above holds the combined intermediate result of two adjacent nodes. The aggregate
+ * of any range of rows is computed by combining at most two nodes per level.
+ */
+class AggregateSegmentTree
+{
+    private final AggregationFunction function;
+    private final int offset;
+    private final List<Block> levels;
+
+    public AggregateSegmentTree(AggregationFunction function, int[] argumentChannels, List<Page> pages, int offset)
+    {
+        this.function = checkNotNull(function, "function is null");
+        checkArgument(function.isDecomposable(), "function is not decomposable");
+        checkNotNull(argumentChannels, "argumentChannels is null");
+        checkNotNull(pages, "pages is null");
+        this.offset = offset;
+
+        int rowCount = 0;
+        for (Page page : pages) {
+            rowCount += page.getPositionCount();
+        }
+
+        ImmutableList.Builder<Block> levels = ImmutableList.builder();
+
+        // each row is its own group in the leaf level
+        GroupedAccumulator leaves = function.createGroupedAggregation(Optional.<Integer>absent(), Optional.<Integer>absent(), 1.0, argumentChannels);
+        int groupId = 0;
+        for (Page page : pages) {
+            BlockBuilder groupIds = BIGINT.createBlockBuilder(new BlockBuilderStatus());
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                groupIds.appendLong(groupId);
+                groupId++;
+            }
+            leaves.addInput(new GroupByIdBlock(rowCount, groupIds.build()), page);
+        }
+        Block level = evaluateIntermediate(leaves, rowCount);
+        levels.add(level);
+
+        // each node combines two nodes of the level below
+        while (level.getPositionCount() > 1) {
+            int nodeCount = (level.getPositionCount() + 1) / 2;
+
+            BlockBuilder parentIds = BIGINT.createBlockBuilder(new BlockBuilderStatus());
+            for (int position = 0; position < level.getPositionCount(); position++) {
+                parentIds.appendLong(position / 2);
+            }
+
+            GroupedAccumulator nodes = function.createGroupedIntermediateAggregation(1.0);
+            nodes.addIntermediate(new GroupByIdBlock(nodeCount, parentIds.build()), level);
+            level = evaluateIntermediate(nodes, nodeCount);
+            levels.add(level);
+        }
+
+        this.levels = levels.build();
+    }
+
+    /**
+     * Outputs the final aggregate of the rows between start (inclusive) and end (exclusive).
+     */
+    public void evaluateFinal(int start, int end, BlockBuilder output)
+    {
+        BlockBuilder nodes = function.getIntermediateType().createBlockBuilder(new BlockBuilderStatus());
+
+        int left = start - offset;
+        int right = end - offset;
+        for (int level = 0; left < right; level++) {
+            Block block = levels.get(level);
+            if ((left & 1) == 1) {
+                block.appendTo(left, nodes);
+                left++;
+            }
+            if ((right & 1) == 1) {
+                right--;
+                block.appendTo(right, nodes);
+            }
+            left >>= 1;
+            right >>= 1;
+        }
+
+        Accumulator accumulator = function.createIntermediateAggregation(1.0);
+        accumulator.addIntermediate(nodes.build());
+        accumulator.evaluateFinal().appendTo(0, output);
+    }
+
+    private Block evaluateIntermediate(GroupedAccumulator accumulator, int groupCount)
+    {
+        BlockBuilder builder = function.getIntermediateType().createBlockBuilder(new BlockBuilderStatus());
+        for (int groupId = 0; groupId < groupCount; groupId++) {
+            accumulator.evaluateIntermediate(groupId, builder);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.window;
+
+import com.facebook.presto.metadata.Signature;
+import com.facebook.presto.operator.Page;
+import com.facebook.presto.operator.PageBuilder;
+import com.facebook.presto.operator.PagesIndex;
+import com.facebook.presto.operator.aggregation.Accumulator;
+import com.facebook.presto.operator.aggregation.AggregationFunction;
+import com.facebook.presto.operator.aggregation.RemovableAccumulator;
+import com.facebook.presto.operator.aggregation.RemovableAggregationFunction;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Evaluates an aggregation function over the window frame of each row.
+ * <p/>
+ * The accumulated rows are reused between rows whenever possible: frames that
+ * only grow at the end (such as the default frame) add the new rows, and frames
+ * that slide are maintained by adding and removing rows if the function
+ * supports removal. Other frames of decomposable functions are evaluated with a
+ * segment tree of intermediate results, so the cost per row is logarithmic in
+ * the partition size instead of linear in the frame size.
+ */
+public class AggregateWindowFunction
+        implements WindowFunction
+{
+    private final AggregationFunction function;
+    private final boolean removable;
+    private final int[] argumentChannels;
+    private final int[] accumulatorChannels;
+    private final PageBuilder pageBuilder;
+
+    private PagesIndex pagesIndex;
+    private int partitionStart;
+    private int partitionEnd;
+
+    private Accumulator accumulator;
+    private int accumulatorStart;
+    private int accumulatorEnd;
+
+    private AggregateSegmentTree segmentTree;
+
+    private AggregateWindowFunction(AggregationFunction function, List<Integer> argumentChannels)
+    {
+        this.function = checkNotNull(function, "function is null");
+        this.removable = function instanceof RemovableAggregationFunction;
+        this.argumentChannels = Ints.toArray(checkNotNull(argumentChannels, "argumentChannels is null"));
+        this.pageBuilder = new PageBuilder(function.getParameterTypes());
+
+        // the accumulators read the arguments from pages containing only the argument channels
+        this.accumulatorChannels = new int[this.argumentChannels.length];
+        for (int i = 0; i < accumulatorChannels.length; i++) {
+            accumulatorChannels[i] = i;
+        }
+    }
+
+    public static WindowFunctionSupplier supplier(Signature signature, final AggregationFunction function)
+    {
+        checkNotNull(function, "function is null");
+        return new AbstractWindowFunctionSupplier(signature, null)
+        {
+            @Override
+            protected WindowFunction newWindowFunction(List<Integer> inputs)
+            {
+                return new AggregateWindowFunction(function, inputs);
+            }
+        };
+    }
+
+    @Override
+    public Type getType()
+    {
+        return function.getFinalType();
+    }
+
+    @Override
+    public void reset(int partitionStartPosition, int partitionRowCount, PagesIndex pagesIndex)
+    {
+        this.pagesIndex = pagesIndex;
+        partitionStart = partitionStartPosition;
+        partitionEnd = partitionStartPosition + partitionRowCount;
+
+        resetAccumulator();
+        segmentTree = null;
+    }
+
+    @Override
+    public void processRow(BlockBuilder output, boolean newPeerGroup, int peerGroupCount, int frameStart, int frameEnd)
+    {
+        if (frameStart < 0) {
+            // empty frame
+            resetAccumulator();
+        }
+        else if ((frameStart == accumulatorStart) && (frameEnd >= accumulatorEnd - 1)) {
+            // frame only grew at the end
+            addRows(accumulatorEnd, frameEnd + 1);
+        }
+        else if (removable && (frameStart >= accumulatorStart) && (frameEnd >= accumulatorEnd - 1)) {
+            // frame slid forward
+            removeRows(accumulatorStart, Math.min(frameStart, accumulatorEnd));
+            addRows(Math.max(frameStart, accumulatorEnd), frameEnd + 1);
+            accumulatorStart = frameStart;
+        }
+        else if (function.isDecomposable()) {
+            if (segmentTree == null) {
+                segmentTree = new AggregateSegmentTree(function, accumulatorChannels, buildPages(partitionStart, partitionEnd), partitionStart);
+            }
+            segmentTree.evaluateFinal(frameStart, frameEnd + 1, output);
+            return;
+        }
+        else {
+            resetAccumulator();
+            accumulatorStart = frameStart;
+            accumulatorEnd = frameStart;
+            addRows(frameStart, frameEnd + 1);
+        }
+
+        accumulator.evaluateFinal().appendTo(0, output);
+    }
+
+    private void resetAccumulator()
+    {
+        if (removable) {
+            accumulator = ((RemovableAggregationFunction) function).createRemovableAggregation(accumulatorChannels);
+        }
+        else {
+            accumulator = function.createAggregation(Optional.<Integer>absent(), Optional.<Integer>absent(), 1.0, accumulatorChannels);
+        }
+        accumulatorStart = partitionStart;
+        accumulatorEnd = partitionStart;
+    }
+
+    private void addRows(int start, int end)
+    {
+        int position = start;
+        while (position < end) {
+            Page page = buildPage(position, end);
+            accumulator.addInput(page);
+            position += page.getPositionCount();
+        }
+        accumulatorEnd = Math.max(accumulatorEnd, end);
+    }
+
+    private void removeRows(int start, int end)
+    {
+        int position = start;
+        while (position < end) {
+            Page page = buildPage(position, end);
+            ((RemovableAccumulator) accumulator).removeInput(page);
+            position += page.getPositionCount();
+        }
+    }
+
+    private List<Page> buildPages(int start, int end)
+    {
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        int position = start;
+        while (position < end) {
+            Page page = buildPage(position, end);
+            pages.add(page);
+            position += page.getPositionCount();
+        }
+        return pages.build();
+    }
+
+    /**
+     * Builds a page containing only the argument channels of the rows starting at
+     * the specified position, stopping at the end position or when the page is full.
+     */
+    private Page buildPage(int start, int end)
+    {
+        pageBuilder.reset();
+        for (int position = start; !pageBuilder.isFull() && position < end; position++) {
+            for (int i = 0; i < argumentChannels.length; i++) {
+                pagesIndex.appendTo(argumentChannels[i], position, pageBuilder.getBlockBuilder(i));
+            }
+            pageBuilder.declarePosition();
+        }
+        return pageBuilder.build();
+    }
+}
@@ -32,14 +32,14 @@ public class CumulativeDistributionFunction
     }
 
     @Override
-    public void reset(int partitionRowCount, PagesIndex pagesIndex)
+    public void reset(int partitionStartPosition, int partitionRowCount, PagesIndex pagesIndex)
     {
         totalCount = partitionRowCount;
         count = 0;
     }
 
     @Override
-    public void processRow(BlockBuilder output, boolean newPeerGroup, int peerGroupCount)
+    public void processRow(BlockBuilder output, boolean newPeerGroup, int peerGroupCount, int frameStart, int frameEnd)
     {
         if (newPeerGroup) {
             count += peerGroupCount;
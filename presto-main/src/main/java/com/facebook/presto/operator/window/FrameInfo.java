@@ -0,0 +1,122 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.window;
+
+import com.facebook.presto.sql.tree.FrameBound;
+import com.facebook.presto.sql.tree.WindowFrame;
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public class FrameInfo
+{
+    private final WindowFrame.Type type;
+    private final FrameBound.Type startType;
+    private final Optional<Integer> startChannel;
+    private final FrameBound.Type endType;
+    private final Optional<Integer> endChannel;
+
+    public FrameInfo(
+            WindowFrame.Type type,
+            FrameBound.Type startType,
+            Optional<Integer> startChannel,
+            FrameBound.Type endType,
+            Optional<Integer> endChannel)
+    {
+        this.type = checkNotNull(type, "type is null");
+        this.startType = checkNotNull(startType, "startType is null");
+        this.startChannel = checkNotNull(startChannel, "startChannel is null");
+        this.endType = checkNotNull(endType, "endType is null");
+        this.endChannel = checkNotNull(endChannel, "endChannel is null");
+
+        checkArgument(startChannel.isPresent() == hasOffset(startType), "startChannel does not match startType %s", startType);
+        checkArgument(endChannel.isPresent() == hasOffset(endType), "endChannel does not match endType %s", endType);
+    }
+
+    /**
+     * The frame used when the window specification has no frame clause:
+     * RANGE BETWEEN UNBOUNDED PRECEDING AND CURRENT ROW
+     */
+    public static FrameInfo defaultFrame()
+    {
+        return new FrameInfo(WindowFrame.Type.RANGE, FrameBound.Type.UNBOUNDED_PRECEDING, Optional.<Integer>absent(), FrameBound.Type.CURRENT_ROW, Optional.<Integer>absent());
+    }
+
+    public WindowFrame.Type getType()
+    {
+        return type;
+    }
+
+    public FrameBound.Type getStartType()
+    {
+        return startType;
+    }
+
+    public Optional<Integer> getStartChannel()
+    {
+        return startChannel;
+    }
+
+    public FrameBound.Type getEndType()
+    {
+        return endType;
+    }
+
+    public Optional<Integer> getEndChannel()
+    {
+        return endChannel;
+    }
+
+    private static boolean hasOffset(FrameBound.Type type)
+    {
+        return (type == FrameBound.Type.PRECEDING) || (type == FrameBound.Type.FOLLOWING);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        FrameInfo other = (FrameInfo) obj;
+        return Objects.equal(this.type, other.type) &&
+                Objects.equal(this.startType, other.startType) &&
+                Objects.equal(this.startChannel, other.startChannel) &&
+                Objects.equal(this.endType, other.endType) &&
+                Objects.equal(this.endChannel, other.endChannel);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hashCode(type, startType, startChannel, endType, endChannel);
+    }
+
+    @Override
+    public String toString()
+    {
+        return Objects.toStringHelper(this)
+                .add("type", type)
+                .add("startType", startType)
+                .add("startChannel", startChannel)
+                .add("endType", endType)
+                .add("endChannel", endChannel)
+                .toString();
+    }
+}
@@ -101,10 +101,10 @@ public class LagFunction
     }
 
     @Override
-    public void reset(int partitionRowCount, PagesIndex pagesIndex)
+    public void reset(int partitionStartPosition, int partitionRowCount, PagesIndex pagesIndex)
     {
         this.pagesIndex = pagesIndex;
-        this.partitionStartPosition += this.partitionRowCount;
+        this.partitionStartPosition = partitionStartPosition;
         // start before the first row of the partition
         this.currentPosition = partitionStartPosition - 1;
 
@@ -112,7 +112,7 @@ public class LagFunction
     }
 
     @Override
-    public void processRow(BlockBuilder output, boolean newPeerGroup, int peerGroupCount)
+    public void processRow(BlockBuilder output, boolean newPeerGroup, int peerGroupCount, int frameStart, int frameEnd)
     {
         currentPosition++;
 
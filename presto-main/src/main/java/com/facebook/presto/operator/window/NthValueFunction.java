@@ -89,9 +89,9 @@ public class NthValueFunction
     }
 
     @Override
-    public void reset(int partitionRowCount, PagesIndex pagesIndex)
+    public void reset(int partitionStartPosition, int partitionRowCount, PagesIndex pagesIndex)
     {
-        this.partitionStartPosition += this.partitionRowCount;
+        this.partitionStartPosition = partitionStartPosition;
         // start before the first row of the partition
         this.currentPosition = partitionStartPosition - 1;
 
@@ -100,7 +100,7 @@ public class NthValueFunction
     }
 
     @Override
-    public void processRow(BlockBuilder output, boolean newPeerGroup, int peerGroupCount)
+    public void processRow(BlockBuilder output, boolean newPeerGroup, int peerGroupCount, int frameStart, int frameEnd)
     {
         currentPosition++;
 
@@ -24,10 +24,11 @@ public interface WindowFunction
     /**
      * Reset state for a new partition (including the first one).
      *
+     * @param partitionStartPosition the position of the first row of the new partition in the pages index
      * @param partitionRowCount the total number of rows in the new partition
      * @param pageIndex the pages index which contains sorted values
      */
-    void reset(int partitionRowCount, PagesIndex pageIndex);
+    void reset(int partitionStartPosition, int partitionRowCount, PagesIndex pageIndex);
 
     /**
      * Process a row by outputting the result of the window function.
@@ -36,9 +37,16 @@ public interface WindowFunction
      * of the rows that are peers within the specified ordering. Rows are peers if they
      * compare equal to each other using the specified ordering expression. The ordering
      * of rows within a peer group is undefined (otherwise they would not be peers).
+     * <p/>
+     * This method also provides the bounds of the window frame for the row. The bounds
+     * are positions in the pages index and are both inclusive. If the frame is empty,
+     * both bounds are -1. Functions that are not frame-aware, such as the ranking
+     * functions, ignore the frame.
      *
      * @param newPeerGroup if this row starts a new peer group
      * @param peerGroupCount the total number of rows in this peer group
+     * @param frameStart the position of the first row in the window frame
+     * @param frameEnd the position of the last row in the window frame
      */
-    void processRow(BlockBuilder output, boolean newPeerGroup, int peerGroupCount);
+    void processRow(BlockBuilder output, boolean newPeerGroup, int peerGroupCount, int frameStart, int frameEnd);
 }
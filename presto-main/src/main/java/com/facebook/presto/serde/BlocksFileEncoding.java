@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.serde;
 
+import com.facebook.presto.spi.type.Type;
 import io.airlift.slice.SliceOutput;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -51,6 +52,14 @@ public enum BlocksFileEncoding
                     return new DictionaryEncoder(new RunLengthEncoder(sliceOutput));
                 }
             },
+    DIC_PACKED("dic-packed")
+            {
+                @Override
+                public Encoder createBlocksWriter(SliceOutput sliceOutput)
+                {
+                    return new DictionaryEncoder(new PackedLongEncoder(sliceOutput));
+                }
+            },
     SNAPPY("snappy")
             {
                 @Override
@@ -58,6 +67,20 @@ public enum BlocksFileEncoding
                 {
                     return new SnappyEncoder(sliceOutput);
                 }
+            },
+    PACKED("packed")
+            {
+                @Override
+                public Encoder createBlocksWriter(SliceOutput sliceOutput)
+                {
+                    return new PackedLongEncoder(sliceOutput);
+                }
+
+                @Override
+                public boolean supports(Type type)
+                {
+                    return type.getJavaType() == long.class;
+                }
             };
 
     private final String name;
@@ -73,4 +96,9 @@ public enum BlocksFileEncoding
     }
 
     public abstract Encoder createBlocksWriter(SliceOutput sliceOutput);
+
+    public boolean supports(Type type)
+    {
+        return true;
+    }
 }
@@ -0,0 +1,83 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.serde;
+
+import com.facebook.presto.block.packed.PackedLongBlockEncoding;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.block.BlockEncoding;
+import com.facebook.presto.spi.type.Type;
+import io.airlift.slice.SliceOutput;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+public class PackedLongEncoder
+        implements Encoder
+{
+    private final SliceOutput sliceOutput;
+
+    private Type type;
+    private PackedLongBlockEncoding encoding;
+    private BlockBuilder blockBuilder;
+    private boolean finished;
+
+    public PackedLongEncoder(SliceOutput sliceOutput)
+    {
+        this.sliceOutput = checkNotNull(sliceOutput, "sliceOutput is null");
+    }
+
+    @Override
+    public Encoder append(Block block)
+    {
+        checkNotNull(block, "block is null");
+        checkState(!finished, "already finished");
+
+        if (encoding == null) {
+            type = block.getType();
+            checkArgument(type.getJavaType() == long.class, "type %s is not a long type", type);
+            encoding = new PackedLongBlockEncoding(type);
+            blockBuilder = type.createBlockBuilder(new BlockBuilderStatus());
+        }
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            block.appendTo(position, blockBuilder);
+            if (blockBuilder.isFull()) {
+                writeBlock();
+            }
+        }
+
+        return this;
+    }
+
+    @Override
+    public BlockEncoding finish()
+    {
+        checkState(encoding != null, "nothing appended");
+        checkState(!finished, "already finished");
+        finished = true;
+
+        if (!blockBuilder.isEmpty()) {
+            writeBlock();
+        }
+        return encoding;
+    }
+
+    private void writeBlock()
+    {
+        encoding.writeBlock(sliceOutput, blockBuilder.build());
+        blockBuilder = type.createBlockBuilder(new BlockBuilderStatus());
+    }
+}
@@ -13,8 +13,13 @@
  */
 package com.facebook.presto.serde;
 
+import com.facebook.presto.block.dictionary.DictionaryEncodedBlock;
+import com.facebook.presto.block.rle.RunLengthEncodedBlock;
+import com.facebook.presto.block.selection.SelectedPositionsBlock;
 import com.facebook.presto.operator.Page;
 import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.facebook.presto.spi.block.BlockEncoding;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
 import com.google.common.collect.AbstractIterator;
@@ -74,7 +79,7 @@ public final class PagesSerde
                 blockEncodings = new BlockEncoding[blocks.length];
                 sliceOutput.writeInt(blocks.length);
                 for (int i = 0; i < blocks.length; i++) {
-                    Block block = blocks[i];
+                    Block block = flatten(blocks[i]);
                     BlockEncoding blockEncoding = block.getEncoding();
                     blockEncodings[i] = blockEncoding;
                     blockEncodingSerde.writeBlockEncoding(sliceOutput, blockEncoding);
@@ -84,11 +89,32 @@ public final class PagesSerde
             sliceOutput.writeInt(page.getPositionCount());
             Block[] blocks = page.getBlocks();
             for (int i = 0; i < blocks.length; i++) {
-                blockEncodings[i].writeBlock(sliceOutput, blocks[i]);
+                blockEncodings[i].writeBlock(sliceOutput, flatten(blocks[i]));
             }
 
             return this;
         }
+
+        /**
+         * The encoding of each channel is written once for the whole stream, but dictionary and
+         * run length encoded blocks (e.g., from different shards) do not share an encoding, and
+         * a filter may emit either a selection over its input or the input itself, so these
+         * blocks are written with the plain encoding of their type.
+         */
+        private static Block flatten(Block block)
+        {
+            if (block instanceof SelectedPositionsBlock) {
+                return ((SelectedPositionsBlock) block).copyPositions();
+            }
+            if (!(block instanceof DictionaryEncodedBlock) && !(block instanceof RunLengthEncodedBlock)) {
+                return block;
+            }
+            BlockBuilder blockBuilder = block.getType().createBlockBuilder(new BlockBuilderStatus());
+            for (int position = 0; position < block.getPositionCount(); position++) {
+                block.appendTo(position, blockBuilder);
+            }
+            return blockBuilder.build();
+        }
     }
 
     private static class PagesReader
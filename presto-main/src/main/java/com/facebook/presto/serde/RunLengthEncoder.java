@@ -16,7 +16,11 @@ package com.facebook.presto.serde;
 import com.facebook.presto.block.rle.RunLengthBlockEncoding;
 import com.facebook.presto.block.rle.RunLengthEncodedBlock;
 import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.BlockEncoding;
+import com.facebook.presto.spi.block.VariableWidthBlockEncoding;
+import com.facebook.presto.spi.type.FixedWidthType;
+import com.facebook.presto.spi.type.Type;
 import io.airlift.slice.SliceOutput;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -44,16 +48,16 @@ public class RunLengthEncoder
         checkState(!finished, "already finished");
 
         if (encoding == null) {
-            encoding = new RunLengthBlockEncoding(block.getEncoding());
+            encoding = new RunLengthBlockEncoding(createValueEncoding(block.getType()));
         }
 
         for (int position = 0; position < block.getPositionCount(); position++) {
             if (lastValue == null) {
-                lastValue = block.getSingleValueBlock(position);
+                lastValue = copyValue(block, position);
             }
             else if (!lastValue.equalTo(0, block, position)) {
                 writeBlock();
-                lastValue = block.getSingleValueBlock(position);
+                lastValue = copyValue(block, position);
             }
             positionCount++;
         }
@@ -70,6 +74,28 @@ public class RunLengthEncoder
         positionCount = 0;
     }
 
+    private static Block copyValue(Block block, int position)
+    {
+        // fixed width blocks are loaded in a class loader of a type, which may not be the type of the
+        // block when it was read from a file, so the value is copied to a builder sized for one value
+        Type type = block.getType();
+        if (type instanceof FixedWidthType) {
+            BlockBuilder blockBuilder = ((FixedWidthType) type).createFixedSizeBlockBuilder(1);
+            block.appendTo(position, blockBuilder);
+            return blockBuilder.build();
+        }
+        return block.getSingleValueBlock(position);
+    }
+
+    private static BlockEncoding createValueEncoding(Type type)
+    {
+        // values are always flat blocks, so the input block may use any encoding
+        if (type instanceof FixedWidthType) {
+            return ((FixedWidthType) type).createFixedSizeBlockBuilder(0).getEncoding();
+        }
+        return new VariableWidthBlockEncoding(type);
+    }
+
     @Override
     public BlockEncoding finish()
     {
@@ -45,8 +45,9 @@ public class SnappyEncoder
         checkState(!finished, "already finished");
 
         if (encoding == null) {
-            encoding = new SnappyBlockEncoding(block.getType(), block.getEncoding());
+            // the values are copied to a builder, so the input block may use any encoding
             blockBuilder = block.getType().createBlockBuilder(new BlockBuilderStatus());
+            encoding = new SnappyBlockEncoding(block.getType(), blockBuilder.getEncoding());
         }
         for (int position = 0; position < block.getPositionCount(); position++) {
             block.appendTo(position, blockBuilder);
@@ -0,0 +1,49 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.server;
+
+import com.facebook.presto.connector.ConnectorManager;
+import com.google.common.base.Optional;
+
+import javax.inject.Inject;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Serves the HTTP resources of connectors that expose one, under the id of the connector.
+ */
+@Path("/v1/connector")
+public class ConnectorResource
+{
+    private final ConnectorManager connectorManager;
+
+    @Inject
+    public ConnectorResource(ConnectorManager connectorManager)
+    {
+        this.connectorManager = checkNotNull(connectorManager, "connectorManager is null");
+    }
+
+    @Path("{connectorId}")
+    public Object getConnectorResource(@PathParam("connectorId") String connectorId)
+    {
+        Optional<Object> resource = connectorManager.getHttpResource(connectorId);
+        if (!resource.isPresent()) {
+            throw new NotFoundException("Connector has no HTTP resource: " + connectorId);
+        }
+        return resource.get();
+    }
+}
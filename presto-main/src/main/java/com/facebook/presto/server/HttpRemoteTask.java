@@ -279,7 +279,10 @@ public class HttpRemoteTask
     public synchronized int getQueuedSplits()
     {
         try (SetThreadName ignored = new SetThreadName("HttpRemoteTask-%s", taskId)) {
-            int pendingSplitCount = pendingSplits.get(planFragment.getPartitionedSource()).size();
+            int pendingSplitCount = 0;
+            for (PlanNodeId partitionedSource : planFragment.getPartitionedSources()) {
+                pendingSplitCount += pendingSplits.get(partitionedSource).size();
+            }
             return pendingSplitCount + taskInfo.get().getStats().getQueuedDrivers();
         }
     }
@@ -15,7 +15,9 @@ package com.facebook.presto.server;
 
 import com.facebook.presto.block.BlockEncodingManager;
 import com.facebook.presto.block.dictionary.DictionaryBlockEncoding;
+import com.facebook.presto.block.packed.PackedLongBlockEncoding;
 import com.facebook.presto.block.rle.RunLengthBlockEncoding;
+import com.facebook.presto.block.selection.SelectedPositionsBlockEncoding;
 import com.facebook.presto.block.snappy.SnappyBlockEncoding;
 import com.facebook.presto.client.QueryResults;
 import com.facebook.presto.connector.ConnectorManager;
@@ -49,8 +51,8 @@ import com.facebook.presto.operator.ExchangeClientConfig;
 import com.facebook.presto.operator.ExchangeClientFactory;
 import com.facebook.presto.operator.ForExchange;
 import com.facebook.presto.operator.ForScheduler;
-import com.facebook.presto.operator.RecordSinkManager;
-import com.facebook.presto.operator.RecordSinkProvider;
+import com.facebook.presto.operator.PageSinkManager;
+import com.facebook.presto.operator.PageSinkProvider;
 import com.facebook.presto.spi.ConnectorFactory;
 import com.facebook.presto.spi.ConnectorRecordSinkProvider;
 import com.facebook.presto.spi.ConnectorSplit;
@@ -180,9 +182,9 @@ public class ServerMainModule
         binder.bind(DataStreamProvider.class).to(DataStreamManager.class).in(Scopes.SINGLETON);
         newSetBinder(binder, ConnectorDataStreamProvider.class);
 
-        // record sink provider
-        binder.bind(RecordSinkManager.class).in(Scopes.SINGLETON);
-        binder.bind(RecordSinkProvider.class).to(RecordSinkManager.class).in(Scopes.SINGLETON);
+        // page sink provider
+        binder.bind(PageSinkManager.class).in(Scopes.SINGLETON);
+        binder.bind(PageSinkProvider.class).to(PageSinkManager.class).in(Scopes.SINGLETON);
         newSetBinder(binder, ConnectorRecordSinkProvider.class);
 
         // metadata
@@ -205,6 +207,7 @@ public class ServerMainModule
 
         // connector
         binder.bind(ConnectorManager.class).in(Scopes.SINGLETON);
+        jaxrsBinder(binder).bind(ConnectorResource.class);
         MapBinder<String, ConnectorFactory> connectorFactoryBinder = newMapBinder(binder, String.class, ConnectorFactory.class);
 
         // jmx connector
@@ -283,6 +286,8 @@ public class ServerMainModule
         blockEncodingFactoryBinder.addBinding().toInstance(RunLengthBlockEncoding.FACTORY);
         blockEncodingFactoryBinder.addBinding().toInstance(DictionaryBlockEncoding.FACTORY);
         blockEncodingFactoryBinder.addBinding().toInstance(SnappyBlockEncoding.FACTORY);
+        blockEncodingFactoryBinder.addBinding().toInstance(PackedLongBlockEncoding.FACTORY);
+        blockEncodingFactoryBinder.addBinding().toInstance(SelectedPositionsBlockEncoding.FACTORY);
         blockEncodingFactoryBinder.addBinding().toInstance(HyperLogLogType.BLOCK_ENCODING_FACTORY);
         blockEncodingFactoryBinder.addBinding().toInstance(ColorType.BLOCK_ENCODING_FACTORY);
 
@@ -32,6 +32,7 @@ import com.google.common.base.Objects;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.SetMultimap;
 
@@ -54,6 +55,7 @@ public class Analysis
 
     private final IdentityHashMap<QuerySpecification, List<FunctionCall>> aggregates = new IdentityHashMap<>();
     private final IdentityHashMap<QuerySpecification, List<FieldOrExpression>> groupByExpressions = new IdentityHashMap<>();
+    private final IdentityHashMap<QuerySpecification, List<Set<FieldOrExpression>>> groupingSets = new IdentityHashMap<>();
     private final IdentityHashMap<QuerySpecification, Expression> where = new IdentityHashMap<>();
     private final IdentityHashMap<QuerySpecification, Expression> having = new IdentityHashMap<>();
     private final IdentityHashMap<Node, List<FieldOrExpression>> orderByExpressions = new IdentityHashMap<>();
@@ -76,6 +78,7 @@ public class Analysis
 
     // for create table
     private Optional<QualifiedTableName> createTableDestination = Optional.absent();
+    private Map<String, Object> createTableProperties = ImmutableMap.of();
 
     public Query getQuery()
     {
@@ -133,6 +136,20 @@ public class Analysis
         return groupByExpressions.get(node);
     }
 
+    public void setGroupingSets(QuerySpecification node, List<Set<FieldOrExpression>> sets)
+    {
+        groupingSets.put(node, sets);
+    }
+
+    /**
+     * Returns the grouping sets of the query, each a subset of the group by expressions.
+     * A query with a plain GROUP BY (or no GROUP BY) has a single grouping set.
+     */
+    public List<Set<FieldOrExpression>> getGroupingSets(QuerySpecification node)
+    {
+        return groupingSets.get(node);
+    }
+
     public void setWhere(QuerySpecification node, Expression expression)
     {
         where.put(node, expression);
@@ -304,6 +321,16 @@ public class Analysis
         return createTableDestination;
     }
 
+    public void setCreateTableProperties(Map<String, Object> createTableProperties)
+    {
+        this.createTableProperties = ImmutableMap.copyOf(checkNotNull(createTableProperties, "createTableProperties is null"));
+    }
+
+    public Map<String, Object> getCreateTableProperties()
+    {
+        return createTableProperties;
+    }
+
     public Query getNamedQuery(Table table)
     {
         return namedQueries.get(table);
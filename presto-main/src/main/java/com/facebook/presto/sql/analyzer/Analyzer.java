@@ -15,6 +15,9 @@ package com.facebook.presto.sql.analyzer;
 
 import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.type.ArrayType;
+import com.facebook.presto.spi.type.MapType;
+import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.parser.SqlParser;
 import com.facebook.presto.sql.tree.Expression;
 import com.facebook.presto.sql.tree.FunctionCall;
@@ -26,6 +29,7 @@ import com.google.common.collect.Iterables;
 import java.util.List;
 
 import static com.facebook.presto.sql.analyzer.SemanticErrorCode.CANNOT_HAVE_AGGREGATIONS_OR_WINDOWS;
+import static com.facebook.presto.sql.analyzer.SemanticErrorCode.TYPE_MISMATCH;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 public class Analyzer
@@ -68,4 +72,12 @@ public class Analyzer
             throw new SemanticException(CANNOT_HAVE_AGGREGATIONS_OR_WINDOWS, predicate, "%s clause cannot contain aggregations or window functions: %s", clause, found);
         }
     }
+
+    static void verifyOrderable(Type type, Expression sortKey, String clause)
+    {
+        // array and map values can be compared for equality, but have no ordering
+        if (type instanceof ArrayType || type instanceof MapType) {
+            throw new SemanticException(TYPE_MISMATCH, sortKey, "%s clause cannot sort by type %s: %s", clause, type, sortKey);
+        }
+    }
 }
@@ -61,6 +61,7 @@ import com.facebook.presto.sql.tree.SubqueryExpression;
 import com.facebook.presto.sql.tree.TimeLiteral;
 import com.facebook.presto.sql.tree.TimestampLiteral;
 import com.facebook.presto.sql.tree.WhenClause;
+import com.facebook.presto.sql.tree.WindowFrame;
 import com.facebook.presto.util.IterableTransformer;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
@@ -510,6 +511,18 @@ public class ExpressionAnalyzer
                 for (SortItem sortItem : node.getWindow().get().getOrderBy()) {
                     process(sortItem.getSortKey(), context);
                 }
+
+                if (node.getWindow().get().getFrame().isPresent()) {
+                    WindowFrame frame = node.getWindow().get().getFrame().get();
+
+                    if (frame.getStart().getValue().isPresent()) {
+                        process(frame.getStart().getValue().get(), context);
+                    }
+
+                    if (frame.getEnd().isPresent() && frame.getEnd().get().getValue().isPresent()) {
+                        process(frame.getEnd().get().getValue().get(), context);
+                    }
+                }
             }
 
             ImmutableList.Builder<Type> argumentTypes = ImmutableList.builder();
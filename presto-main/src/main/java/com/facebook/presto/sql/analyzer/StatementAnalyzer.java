@@ -19,7 +19,11 @@ import com.facebook.presto.metadata.QualifiedTableName;
 import com.facebook.presto.metadata.TableHandle;
 import com.facebook.presto.spi.ColumnMetadata;
 import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.analyzer.TupleAnalyzer.DependencyExtractor;
 import com.facebook.presto.sql.parser.SqlParser;
+import com.facebook.presto.sql.planner.NoOpSymbolResolver;
+import com.facebook.presto.sql.planner.Symbol;
 import com.facebook.presto.sql.tree.AllColumns;
 import com.facebook.presto.sql.tree.Approximate;
 import com.facebook.presto.sql.tree.BooleanLiteral;
@@ -33,6 +37,7 @@ import com.facebook.presto.sql.tree.ExplainFormat;
 import com.facebook.presto.sql.tree.ExplainOption;
 import com.facebook.presto.sql.tree.ExplainType;
 import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.GroupingElement;
 import com.facebook.presto.sql.tree.IfExpression;
 import com.facebook.presto.sql.tree.LikePredicate;
 import com.facebook.presto.sql.tree.LongLiteral;
@@ -40,6 +45,7 @@ import com.facebook.presto.sql.tree.QualifiedName;
 import com.facebook.presto.sql.tree.Query;
 import com.facebook.presto.sql.tree.QuerySpecification;
 import com.facebook.presto.sql.tree.SelectItem;
+import com.facebook.presto.sql.tree.SimpleGroupBy;
 import com.facebook.presto.sql.tree.ShowCatalogs;
 import com.facebook.presto.sql.tree.ShowColumns;
 import com.facebook.presto.sql.tree.ShowFunctions;
@@ -55,9 +61,13 @@ import com.facebook.presto.sql.tree.With;
 import com.facebook.presto.sql.tree.WithQuery;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.Slice;
 
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static com.facebook.presto.connector.informationSchema.InformationSchemaMetadata.TABLE_COLUMNS;
@@ -82,14 +92,17 @@ import static com.facebook.presto.sql.QueryUtil.subquery;
 import static com.facebook.presto.sql.QueryUtil.table;
 import static com.facebook.presto.sql.QueryUtil.unaliasedName;
 import static com.facebook.presto.sql.QueryUtil.values;
+import static com.facebook.presto.sql.analyzer.ExpressionAnalyzer.getExpressionTypes;
 import static com.facebook.presto.sql.analyzer.SemanticErrorCode.COLUMN_NAME_NOT_SPECIFIED;
 import static com.facebook.presto.sql.analyzer.SemanticErrorCode.DUPLICATE_COLUMN_NAME;
 import static com.facebook.presto.sql.analyzer.SemanticErrorCode.DUPLICATE_RELATION;
 import static com.facebook.presto.sql.analyzer.SemanticErrorCode.INVALID_ORDINAL;
 import static com.facebook.presto.sql.analyzer.SemanticErrorCode.INVALID_SCHEMA_NAME;
+import static com.facebook.presto.sql.analyzer.SemanticErrorCode.INVALID_TABLE_PROPERTY;
 import static com.facebook.presto.sql.analyzer.SemanticErrorCode.MISSING_TABLE;
 import static com.facebook.presto.sql.analyzer.SemanticErrorCode.NOT_SUPPORTED;
 import static com.facebook.presto.sql.analyzer.SemanticErrorCode.TABLE_ALREADY_EXISTS;
+import static com.facebook.presto.sql.planner.ExpressionInterpreter.expressionOptimizer;
 import static com.facebook.presto.sql.tree.ExplainFormat.Type.TEXT;
 import static com.facebook.presto.sql.tree.ExplainType.Type.LOGICAL;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -155,7 +168,7 @@ class StatementAnalyzer
                         selectList(aliasedName("table_name", "Table")),
                         table(QualifiedName.of(catalogName, TABLE_TABLES.getSchemaName(), TABLE_TABLES.getTableName())),
                         Optional.of(predicate),
-                        ImmutableList.<Expression>of(),
+                        ImmutableList.<GroupingElement>of(),
                         Optional.<Expression>absent(),
                         ImmutableList.of(ascending("table_name")),
                         Optional.<String>absent()
@@ -176,7 +189,7 @@ class StatementAnalyzer
                         selectList(aliasedName("schema_name", "Schema")),
                         table(QualifiedName.of(node.getCatalog().or(session.getCatalog()), TABLE_SCHEMATA.getSchemaName(), TABLE_SCHEMATA.getTableName())),
                         Optional.<Expression>absent(),
-                        ImmutableList.<Expression>of(),
+                        ImmutableList.<GroupingElement>of(),
                         Optional.<Expression>absent(),
                         ImmutableList.of(ascending("schema_name")),
                         Optional.<String>absent()
@@ -197,7 +210,7 @@ class StatementAnalyzer
                         selectList(aliasedName("catalog_name", "Catalog")),
                         table(QualifiedName.of(session.getCatalog(), CATALOG_TABLE_NAME.getSchemaName(), CATALOG_TABLE_NAME.getTableName())),
                         Optional.<Expression>absent(),
-                        ImmutableList.<Expression>of(),
+                        ImmutableList.<GroupingElement>of(),
                         Optional.<Expression>absent(),
                         ImmutableList.of(ascending("catalog_name")),
                         Optional.<String>absent()
@@ -232,7 +245,7 @@ class StatementAnalyzer
                         Optional.of(logicalAnd(
                                 equal(nameReference("table_schema"), new StringLiteral(tableName.getSchemaName())),
                                 equal(nameReference("table_name"), new StringLiteral(tableName.getTableName())))),
-                        ImmutableList.<Expression>of(),
+                        ImmutableList.<GroupingElement>of(),
                         Optional.<Expression>absent(),
                         ImmutableList.of(ascending("ordinal_position")),
                         Optional.<String>absent()
@@ -312,7 +325,7 @@ class StatementAnalyzer
                         Optional.of(logicalAnd(
                                 equal(nameReference("table_schema"), new StringLiteral(table.getSchemaName())),
                                 equal(nameReference("table_name"), new StringLiteral(table.getTableName())))),
-                        ImmutableList.of(nameReference("partition_number")),
+                        ImmutableList.<GroupingElement>of(new SimpleGroupBy(ImmutableList.<Expression>of(nameReference("partition_number")))),
                         Optional.<Expression>absent(),
                         ImmutableList.<SortItem>of(),
                         Optional.<String>absent()),
@@ -326,7 +339,7 @@ class StatementAnalyzer
                         selectAll(wrappedList.build()),
                         subquery(query),
                         showPartitions.getWhere(),
-                        ImmutableList.<Expression>of(),
+                        ImmutableList.<GroupingElement>of(),
                         Optional.<Expression>absent(),
                         ImmutableList.<SortItem>builder()
                                 .addAll(showPartitions.getOrderBy())
@@ -354,7 +367,7 @@ class StatementAnalyzer
                                 aliasedName("description", "Description")),
                         table(QualifiedName.of(TABLE_INTERNAL_FUNCTIONS.getSchemaName(), TABLE_INTERNAL_FUNCTIONS.getTableName())),
                         Optional.<Expression>absent(),
-                        ImmutableList.<Expression>of(),
+                        ImmutableList.<GroupingElement>of(),
                         Optional.<Expression>absent(),
                         ImmutableList.of(
                                 ascending("function_name"),
@@ -376,6 +389,7 @@ class StatementAnalyzer
         // turn this into a query that has a new table writer node on top.
         QualifiedTableName targetTable = MetadataUtil.createQualifiedTableName(session, node.getName());
         analysis.setCreateTableDestination(targetTable);
+        analysis.setCreateTableProperties(evaluateTableProperties(node.getProperties()));
 
         Optional<TableHandle> targetTableHandle = metadata.getTableHandle(session, targetTable);
         if (targetTableHandle.isPresent()) {
@@ -401,6 +415,29 @@ class StatementAnalyzer
         return descriptor;
     }
 
+    private Map<String, Object> evaluateTableProperties(Map<String, Expression> properties)
+    {
+        ImmutableMap.Builder<String, Object> values = ImmutableMap.builder();
+        for (Map.Entry<String, Expression> entry : properties.entrySet()) {
+            String name = entry.getKey();
+            Expression expression = entry.getValue();
+            if (!DependencyExtractor.extract(expression).isEmpty()) {
+                throw new SemanticException(INVALID_TABLE_PROPERTY, expression, "Table property '%s' cannot contain column references", name);
+            }
+
+            IdentityHashMap<Expression, Type> expressionTypes = getExpressionTypes(session, metadata, sqlParser, ImmutableMap.<Symbol, Type>of(), expression);
+            Object value = expressionOptimizer(expression, metadata, session, expressionTypes).optimize(NoOpSymbolResolver.INSTANCE);
+            if (value instanceof Slice) {
+                value = ((Slice) value).toStringUtf8();
+            }
+            if (!(value instanceof Long) && !(value instanceof Double) && !(value instanceof Boolean) && !(value instanceof String)) {
+                throw new SemanticException(INVALID_TABLE_PROPERTY, expression, "Table property '%s' must be a constant number, boolean or string", name);
+            }
+            values.put(name, value);
+        }
+        return values.build();
+    }
+
     private static void validateColumnNames(Statement node, TupleDescriptor descriptor)
     {
         // verify that all column names are specified and unique
@@ -452,7 +489,7 @@ class StatementAnalyzer
                                 ImmutableList.of("Query Plan")
                         )),
                         Optional.<Expression>absent(),
-                        ImmutableList.<Expression>of(),
+                        ImmutableList.<GroupingElement>of(),
                         Optional.<Expression>absent(),
                         ImmutableList.<SortItem>of(),
                         Optional.<String>absent()
@@ -563,6 +600,7 @@ class StatementAnalyzer
                     }
 
                     orderByField = new FieldOrExpression((int) (ordinal - 1));
+                    Analyzer.verifyOrderable(tupleDescriptor.getFieldByIndex(orderByField.getFieldIndex()).getType(), expression, "ORDER BY");
                 }
                 else {
                     // otherwise, just use the expression as is
@@ -576,6 +614,7 @@ class StatementAnalyzer
                             context,
                             orderByField.getExpression());
                     analysis.addInPredicates(node, expressionAnalysis.getSubqueryInPredicates());
+                    Analyzer.verifyOrderable(expressionAnalysis.getType(orderByField.getExpression()), expression, "ORDER BY");
                 }
 
                 orderByFieldsBuilder.add(orderByField);
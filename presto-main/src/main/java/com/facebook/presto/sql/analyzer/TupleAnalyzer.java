@@ -39,7 +39,9 @@ import com.facebook.presto.sql.tree.DefaultExpressionTraversalVisitor;
 import com.facebook.presto.sql.tree.DefaultTraversalVisitor;
 import com.facebook.presto.sql.tree.Except;
 import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.FrameBound;
 import com.facebook.presto.sql.tree.FunctionCall;
+import com.facebook.presto.sql.tree.GroupingElement;
 import com.facebook.presto.sql.tree.Intersect;
 import com.facebook.presto.sql.tree.Join;
 import com.facebook.presto.sql.tree.JoinCriteria;
@@ -47,6 +49,7 @@ import com.facebook.presto.sql.tree.JoinOn;
 import com.facebook.presto.sql.tree.JoinUsing;
 import com.facebook.presto.sql.tree.LongLiteral;
 import com.facebook.presto.sql.tree.NaturalJoin;
+import com.facebook.presto.sql.tree.NegativeExpression;
 import com.facebook.presto.sql.tree.QualifiedName;
 import com.facebook.presto.sql.tree.QualifiedNameReference;
 import com.facebook.presto.sql.tree.Query;
@@ -63,6 +66,7 @@ import com.facebook.presto.sql.tree.TableSubquery;
 import com.facebook.presto.sql.tree.Union;
 import com.facebook.presto.sql.tree.Values;
 import com.facebook.presto.sql.tree.Window;
+import com.facebook.presto.sql.tree.WindowFrame;
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
@@ -77,18 +81,22 @@ import com.google.common.collect.Sets;
 
 import java.util.Collection;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import static com.facebook.presto.metadata.ViewDefinition.ViewColumn;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.sql.analyzer.ExpressionAnalyzer.getExpressionTypes;
 import static com.facebook.presto.sql.analyzer.Field.typeGetter;
 import static com.facebook.presto.sql.analyzer.SemanticErrorCode.AMBIGUOUS_ATTRIBUTE;
 import static com.facebook.presto.sql.analyzer.SemanticErrorCode.DUPLICATE_RELATION;
 import static com.facebook.presto.sql.analyzer.SemanticErrorCode.INVALID_ORDINAL;
+import static com.facebook.presto.sql.analyzer.SemanticErrorCode.INVALID_WINDOW_FRAME;
 import static com.facebook.presto.sql.analyzer.SemanticErrorCode.MISMATCHED_COLUMN_ALIASES;
 import static com.facebook.presto.sql.analyzer.SemanticErrorCode.MISMATCHED_SET_COLUMN_TYPES;
 import static com.facebook.presto.sql.analyzer.SemanticErrorCode.MISSING_CATALOG;
@@ -106,6 +114,12 @@ import static com.facebook.presto.sql.analyzer.SemanticErrorCode.VIEW_IS_STALE;
 import static com.facebook.presto.sql.analyzer.SemanticErrorCode.VIEW_PARSE_ERROR;
 import static com.facebook.presto.sql.analyzer.SemanticErrorCode.WILDCARD_WITHOUT_FROM;
 import static com.facebook.presto.sql.planner.ExpressionInterpreter.expressionOptimizer;
+import static com.facebook.presto.sql.tree.FrameBound.Type.CURRENT_ROW;
+import static com.facebook.presto.sql.tree.FrameBound.Type.FOLLOWING;
+import static com.facebook.presto.sql.tree.FrameBound.Type.PRECEDING;
+import static com.facebook.presto.sql.tree.FrameBound.Type.UNBOUNDED_FOLLOWING;
+import static com.facebook.presto.sql.tree.FrameBound.Type.UNBOUNDED_PRECEDING;
+import static com.facebook.presto.sql.tree.WindowFrame.Type.RANGE;
 import static com.facebook.presto.type.UnknownType.UNKNOWN;
 import static com.facebook.presto.util.Types.checkType;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -591,7 +605,7 @@ class TupleAnalyzer
             }
 
             if (window.getFrame().isPresent()) {
-                throw new SemanticException(NOT_SUPPORTED, node, "Window frames not yet supported");
+                analyzeWindowFrame(window.getFrame().get());
             }
 
             List<Type> argumentTypes = Lists.transform(windowFunction.getArguments(), new Function<Expression, Type>()
@@ -603,15 +617,68 @@ class TupleAnalyzer
                 }
             });
 
+            for (SortItem sortItem : window.getOrderBy()) {
+                Analyzer.verifyOrderable(analysis.getType(sortItem.getSortKey()), sortItem.getSortKey(), "Window ORDER BY");
+            }
+
             FunctionInfo info = metadata.resolveFunction(windowFunction.getName(), argumentTypes, false);
-            if (!info.isWindow()) {
+            if (!info.isWindow() && !info.isAggregate()) {
                 throw new SemanticException(MUST_BE_WINDOW_FUNCTION, node, "Not a window function: %s", windowFunction.getName());
             }
+            // the ranking and value functions are computed over the whole partition
+            if (window.getFrame().isPresent() && !info.isAggregate()) {
+                throw new SemanticException(INVALID_WINDOW_FRAME, window.getFrame().get(), "Window frame is only supported for aggregation functions: %s", windowFunction.getName());
+            }
         }
 
         analysis.setWindowFunctions(node, windowFunctions);
     }
 
+    private void analyzeWindowFrame(WindowFrame frame)
+    {
+        FrameBound.Type startType = frame.getStart().getType();
+        FrameBound.Type endType = frame.getEnd().isPresent() ? frame.getEnd().get().getType() : CURRENT_ROW;
+
+        if (startType == UNBOUNDED_FOLLOWING) {
+            throw new SemanticException(INVALID_WINDOW_FRAME, frame, "Window frame start cannot be UNBOUNDED FOLLOWING");
+        }
+        if (endType == UNBOUNDED_PRECEDING) {
+            throw new SemanticException(INVALID_WINDOW_FRAME, frame, "Window frame end cannot be UNBOUNDED PRECEDING");
+        }
+        if ((startType == CURRENT_ROW) && (endType == PRECEDING)) {
+            throw new SemanticException(INVALID_WINDOW_FRAME, frame, "Window frame starting from CURRENT ROW cannot end with PRECEDING");
+        }
+        if ((startType == FOLLOWING) && (endType == PRECEDING)) {
+            throw new SemanticException(INVALID_WINDOW_FRAME, frame, "Window frame starting from FOLLOWING cannot end with PRECEDING");
+        }
+        if ((startType == FOLLOWING) && (endType == CURRENT_ROW)) {
+            throw new SemanticException(INVALID_WINDOW_FRAME, frame, "Window frame starting from FOLLOWING cannot end with CURRENT ROW");
+        }
+        if ((frame.getType() == RANGE) && ((startType == PRECEDING) || (endType == PRECEDING) || (startType == FOLLOWING) || (endType == FOLLOWING))) {
+            throw new SemanticException(NOT_SUPPORTED, frame, "Window frame RANGE PRECEDING and FOLLOWING are only supported with UNBOUNDED");
+        }
+
+        if (frame.getStart().getValue().isPresent()) {
+            analyzeWindowFrameOffset(frame.getStart().getValue().get());
+        }
+        if (frame.getEnd().isPresent() && frame.getEnd().get().getValue().isPresent()) {
+            analyzeWindowFrameOffset(frame.getEnd().get().getValue().get());
+        }
+    }
+
+    private void analyzeWindowFrameOffset(Expression offset)
+    {
+        Type type = analysis.getType(offset);
+        if (!type.equals(BIGINT)) {
+            throw new SemanticException(TYPE_MISMATCH, offset, "Window frame offset value must be BIGINT (actual %s)", type);
+        }
+        if ((offset instanceof NegativeExpression) && (((NegativeExpression) offset).getValue() instanceof LongLiteral)) {
+            if (((LongLiteral) ((NegativeExpression) offset).getValue()).getValue() > 0) {
+                throw new SemanticException(INVALID_WINDOW_FRAME, offset, "Window frame offset value must not be negative");
+            }
+        }
+    }
+
     private void analyzeHaving(QuerySpecification node, TupleDescriptor tupleDescriptor, AnalysisContext context)
     {
         if (node.getHaving().isPresent()) {
@@ -701,6 +768,15 @@ class TupleAnalyzer
                     analysis.addInPredicates(node, expressionAnalysis.getSubqueryInPredicates());
                 }
 
+                Type type;
+                if (orderByExpression.isExpression()) {
+                    type = analysis.getType(orderByExpression.getExpression());
+                }
+                else {
+                    type = tupleDescriptor.getFieldByIndex(orderByExpression.getFieldIndex()).getType();
+                }
+                Analyzer.verifyOrderable(type, expression, "ORDER BY");
+
                 orderByExpressionsBuilder.add(orderByExpression);
             }
         }
@@ -716,45 +792,84 @@ class TupleAnalyzer
 
     private List<FieldOrExpression> analyzeGroupBy(QuerySpecification node, TupleDescriptor tupleDescriptor, AnalysisContext context, List<FieldOrExpression> outputExpressions)
     {
-        ImmutableList.Builder<FieldOrExpression> groupByExpressionsBuilder = ImmutableList.builder();
-        if (!node.getGroupBy().isEmpty()) {
-            // Translate group by expressions that reference ordinals
-            for (Expression expression : node.getGroupBy()) {
-                // first, see if this is an ordinal
-                FieldOrExpression groupByExpression;
-
-                if (expression instanceof LongLiteral) {
-                    long ordinal = ((LongLiteral) expression).getValue();
-                    if (ordinal < 1 || ordinal > outputExpressions.size()) {
-                        throw new SemanticException(INVALID_ORDINAL, expression, "GROUP BY position %s is not in select list", ordinal);
+        // the grouping sets of the query are the cross product of the grouping sets of each element
+        List<Set<FieldOrExpression>> groupingSets = ImmutableList.<Set<FieldOrExpression>>of(ImmutableSet.<FieldOrExpression>of());
+        Map<Expression, FieldOrExpression> resolved = new HashMap<>();
+        Set<FieldOrExpression> groupByExpressions = new LinkedHashSet<>();
+        for (GroupingElement groupingElement : node.getGroupBy()) {
+            ImmutableList.Builder<Set<FieldOrExpression>> elementSets = ImmutableList.builder();
+            for (Set<Expression> groupingSet : groupingElement.enumerateGroupingSets()) {
+                ImmutableSet.Builder<FieldOrExpression> elementSet = ImmutableSet.builder();
+                for (Expression expression : groupingSet) {
+                    FieldOrExpression groupByExpression = resolved.get(expression);
+                    if (groupByExpression == null) {
+                        groupByExpression = analyzeGroupByExpression(node, tupleDescriptor, context, outputExpressions, expression);
+                        resolved.put(expression, groupByExpression);
                     }
-
-                    groupByExpression = outputExpressions.get((int) (ordinal - 1));
-                }
-                else {
-                    ExpressionAnalysis expressionAnalysis = ExpressionAnalyzer.analyzeExpression(session,
-                            metadata,
-                            sqlParser,
-                            tupleDescriptor,
-                            analysis,
-                            experimentalSyntaxEnabled,
-                            context,
-                            expression);
-                    analysis.addInPredicates(node, expressionAnalysis.getSubqueryInPredicates());
-                    groupByExpression = new FieldOrExpression(expression);
+                    elementSet.add(groupByExpression);
                 }
+                elementSets.add(elementSet.build());
+            }
 
-                if (groupByExpression.isExpression()) {
-                    Analyzer.verifyNoAggregatesOrWindowFunctions(metadata, groupByExpression.getExpression(), "GROUP BY");
+            ImmutableList.Builder<Set<FieldOrExpression>> product = ImmutableList.builder();
+            for (Set<FieldOrExpression> current : groupingSets) {
+                for (Set<FieldOrExpression> elementSet : elementSets.build()) {
+                    product.add(ImmutableSet.copyOf(Sets.union(current, elementSet)));
                 }
+            }
+            groupingSets = product.build();
 
-                groupByExpressionsBuilder.add(groupByExpression);
+            // keep the group by expressions in the order they appear in the query
+            for (Expression expression : getGroupingExpressions(groupingElement)) {
+                groupByExpressions.add(resolved.get(expression));
             }
         }
 
-        List<FieldOrExpression> groupByExpressions = groupByExpressionsBuilder.build();
-        analysis.setGroupByExpressions(node, groupByExpressions);
-        return groupByExpressions;
+        analysis.setGroupingSets(node, groupingSets);
+        analysis.setGroupByExpressions(node, ImmutableList.copyOf(groupByExpressions));
+        return ImmutableList.copyOf(groupByExpressions);
+    }
+
+    private FieldOrExpression analyzeGroupByExpression(QuerySpecification node, TupleDescriptor tupleDescriptor, AnalysisContext context, List<FieldOrExpression> outputExpressions, Expression expression)
+    {
+        // first, see if this is an ordinal
+        FieldOrExpression groupByExpression;
+
+        if (expression instanceof LongLiteral) {
+            long ordinal = ((LongLiteral) expression).getValue();
+            if (ordinal < 1 || ordinal > outputExpressions.size()) {
+                throw new SemanticException(INVALID_ORDINAL, expression, "GROUP BY position %s is not in select list", ordinal);
+            }
+
+            groupByExpression = outputExpressions.get((int) (ordinal - 1));
+        }
+        else {
+            ExpressionAnalysis expressionAnalysis = ExpressionAnalyzer.analyzeExpression(session,
+                    metadata,
+                    sqlParser,
+                    tupleDescriptor,
+                    analysis,
+                    experimentalSyntaxEnabled,
+                    context,
+                    expression);
+            analysis.addInPredicates(node, expressionAnalysis.getSubqueryInPredicates());
+            groupByExpression = new FieldOrExpression(expression);
+        }
+
+        if (groupByExpression.isExpression()) {
+            Analyzer.verifyNoAggregatesOrWindowFunctions(metadata, groupByExpression.getExpression(), "GROUP BY");
+        }
+
+        return groupByExpression;
+    }
+
+    private static Set<Expression> getGroupingExpressions(GroupingElement groupingElement)
+    {
+        ImmutableSet.Builder<Expression> expressions = ImmutableSet.builder();
+        for (Set<Expression> groupingSet : groupingElement.enumerateGroupingSets()) {
+            expressions.addAll(groupingSet);
+        }
+        return expressions.build();
     }
 
     private TupleDescriptor computeOutputDescriptor(QuerySpecification node, TupleDescriptor inputTupleDescriptor)
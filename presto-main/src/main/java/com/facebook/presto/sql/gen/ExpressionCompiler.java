@@ -63,6 +63,7 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.io.Files;
 import io.airlift.log.Logger;
@@ -199,12 +200,12 @@ public class ExpressionCompiler
 
         Constructor<? extends Operator> constructor;
         try {
-            constructor = typedOperatorClass.getOperatorClass().getConstructor(OperatorContext.class, Iterable.class);
+            constructor = typedOperatorClass.getOperatorClass().getConstructor(OperatorContext.class, Iterable.class, Map.class);
         }
         catch (NoSuchMethodException e) {
             throw Throwables.propagate(e);
         }
-        FilterAndProjectOperatorFactoryFactory operatorFactoryFactory = new FilterAndProjectOperatorFactoryFactory(constructor, typedOperatorClass.getTypes());
+        FilterAndProjectOperatorFactoryFactory operatorFactoryFactory = new FilterAndProjectOperatorFactoryFactory(constructor, typedOperatorClass.getTypes(), getPassThroughChannels(projections));
 
         return operatorFactoryFactory;
     }
@@ -230,13 +231,15 @@ public class ExpressionCompiler
         classDefinition.declareConstructor(new CompilerContext(bootstrap.getBootstrapMethod()),
                 a(PUBLIC),
                 arg("operatorContext", OperatorContext.class),
-                arg("types", type(Iterable.class, Type.class)))
+                arg("types", type(Iterable.class, Type.class)),
+                arg("passThroughChannels", type(Map.class, Integer.class, Integer.class)))
                 .getBody()
-                .comment("super(operatorContext, types);")
+                .comment("super(operatorContext, types, passThroughChannels);")
                 .pushThis()
                 .getVariable("operatorContext")
                 .getVariable("types")
-                .invokeConstructor(AbstractFilterAndProjectOperator.class, OperatorContext.class, Iterable.class)
+                .getVariable("passThroughChannels")
+                .invokeConstructor(AbstractFilterAndProjectOperator.class, OperatorContext.class, Iterable.class, Map.class)
                 .comment("this.session = operatorContext.getSession();")
                 .pushThis()
                 .getVariable("operatorContext")
@@ -244,7 +247,7 @@ public class ExpressionCompiler
                 .putField(sessionField)
                 .ret();
 
-        generateFilterAndProjectRowOriented(bootstrap, classDefinition, filter, projections, expressionTypes);
+        generateFilterAndProjectRowOriented(bootstrap, classDefinition, filter, projections);
 
         //
         // filter method
@@ -313,7 +316,8 @@ public class ExpressionCompiler
                     PlanNodeId.class,
                     DataStreamProvider.class,
                     Iterable.class,
-                    Iterable.class);
+                    Iterable.class,
+                    Map.class);
         }
         catch (NoSuchMethodException e) {
             throw Throwables.propagate(e);
@@ -322,7 +326,8 @@ public class ExpressionCompiler
         ScanFilterAndProjectOperatorFactoryFactory operatorFactoryFactory = new ScanFilterAndProjectOperatorFactoryFactory(
                 constructor,
                 sourceId,
-                typedOperatorClass.getTypes());
+                typedOperatorClass.getTypes(),
+                getPassThroughChannels(projections));
 
         return operatorFactoryFactory;
     }
@@ -351,16 +356,18 @@ public class ExpressionCompiler
                 arg("sourceId", PlanNodeId.class),
                 arg("dataStreamProvider", DataStreamProvider.class),
                 arg("columns", type(Iterable.class, ColumnHandle.class)),
-                arg("types", type(Iterable.class, Type.class)))
+                arg("types", type(Iterable.class, Type.class)),
+                arg("passThroughChannels", type(Map.class, Integer.class, Integer.class)))
                 .getBody()
-                .comment("super(operatorContext, sourceId, dataStreamProvider, columns, types);")
+                .comment("super(operatorContext, sourceId, dataStreamProvider, columns, types, passThroughChannels);")
                 .pushThis()
                 .getVariable("operatorContext")
                 .getVariable("sourceId")
                 .getVariable("dataStreamProvider")
                 .getVariable("columns")
                 .getVariable("types")
-                .invokeConstructor(AbstractScanFilterAndProjectOperator.class, OperatorContext.class, PlanNodeId.class, DataStreamProvider.class, Iterable.class, Iterable.class)
+                .getVariable("passThroughChannels")
+                .invokeConstructor(AbstractScanFilterAndProjectOperator.class, OperatorContext.class, PlanNodeId.class, DataStreamProvider.class, Iterable.class, Iterable.class, Map.class)
                 .comment("this.session = operatorContext.getSession();")
                 .pushThis()
                 .getVariable("operatorContext")
@@ -368,7 +375,7 @@ public class ExpressionCompiler
                 .putField(sessionField)
                 .ret();
 
-        generateFilterAndProjectRowOriented(bootstrap, classDefinition, filter, projections, expressionTypes);
+        generateFilterAndProjectRowOriented(bootstrap, classDefinition, filter, projections);
         generateFilterAndProjectCursorMethod(bootstrap, classDefinition, projections);
 
         //
@@ -408,14 +415,14 @@ public class ExpressionCompiler
             BootstrapEntry bootstrap,
             ClassDefinition classDefinition,
             Expression filter,
-            List<Expression> projections,
-            IdentityHashMap<Expression, Type> expressionTypes)
+            List<Expression> projections)
     {
         MethodDefinition filterAndProjectMethod = classDefinition.declareMethod(new CompilerContext(bootstrap.getBootstrapMethod()),
                 a(PUBLIC),
                 "filterAndProjectRowOriented",
-                type(void.class),
+                type(int.class),
                 arg("page", com.facebook.presto.operator.Page.class),
+                arg("selectedPositions", int[].class),
                 arg("pageBuilder", PageBuilder.class));
 
         CompilerContext compilerContext = filterAndProjectMethod.getCompilerContext();
@@ -429,7 +436,21 @@ public class ExpressionCompiler
                 .invokeVirtual(com.facebook.presto.operator.Page.class, "getPositionCount", int.class)
                 .putVariable(rowsVariable);
 
-        List<Integer> allInputChannels = getInputChannels(Iterables.concat(projections, ImmutableList.of(filter)));
+        LocalVariableDefinition selectedPositionCountVariable = compilerContext.declareVariable(int.class, "selectedPositionCount");
+        filterAndProjectMethod.getBody()
+                .comment("int selectedPositionCount = 0;")
+                .putVariable(selectedPositionCountVariable, 0);
+
+        // the pass through projections are not evaluated here, the operator selects their positions from the input blocks
+        Map<Integer, Integer> passThroughChannels = getPassThroughChannels(projections);
+        List<Expression> evaluatedProjections = new ArrayList<>();
+        for (int projectionIndex = 0; projectionIndex < projections.size(); projectionIndex++) {
+            if (!passThroughChannels.containsKey(projectionIndex)) {
+                evaluatedProjections.add(projections.get(projectionIndex));
+            }
+        }
+
+        List<Integer> allInputChannels = getInputChannels(Iterables.concat(evaluatedProjections, ImmutableList.of(filter)));
         for (int channel : allInputChannels) {
             LocalVariableDefinition blockVariable = compilerContext.declareVariable(com.facebook.presto.spi.block.Block.class, "block_" + channel);
             filterAndProjectMethod.getBody()
@@ -474,46 +495,55 @@ public class ExpressionCompiler
                         .build());
         ifStatement.condition(condition);
 
-        Block trueBlock = new Block(compilerContext);
-        if (projections.isEmpty()) {
-            trueBlock
-                    .comment("pageBuilder.declarePosition()")
-                    .getVariable("pageBuilder")
-                    .invokeVirtual(PageBuilder.class, "declarePosition", void.class);
-        }
-        else {
-            // pageBuilder.getBlockBuilder(0).append(block.getDouble(0);
-            for (int projectionIndex = 0; projectionIndex < projections.size(); projectionIndex++) {
-                trueBlock.comment("project_%s(position, blocks..., pageBuilder.getBlockBuilder(%s))", projectionIndex, projectionIndex);
-                trueBlock.pushThis();
-                List<Integer> projectionInputs = getInputChannels(projections.get(projectionIndex));
-                trueBlock.getVariable(positionVariable);
-                for (int channel : projectionInputs) {
-                    trueBlock.getVariable("block_" + channel);
-                }
-
-                // pageBuilder.getBlockBuilder(0)
-                trueBlock.getVariable("pageBuilder")
-                        .push(projectionIndex)
-                        .invokeVirtual(PageBuilder.class, "getBlockBuilder", BlockBuilder.class, int.class);
+        Block trueBlock = new Block(compilerContext)
+                .comment("selectedPositions[selectedPositionCount] = position;")
+                .getVariable("selectedPositions")
+                .getVariable(selectedPositionCountVariable)
+                .getVariable(positionVariable)
+                .putIntArrayElement()
+                .comment("selectedPositionCount++;")
+                .incrementVariable(selectedPositionCountVariable, (byte) 1);
+
+        // pageBuilder.getBlockBuilder(0).append(block.getDouble(0);
+        int blockBuilderIndex = 0;
+        for (int projectionIndex = 0; projectionIndex < projections.size(); projectionIndex++) {
+            if (passThroughChannels.containsKey(projectionIndex)) {
+                continue;
+            }
 
-                // project(position, block_0, block_1, blockBuilder)
-                trueBlock.invokeVirtual(classDefinition.getType(),
-                        "project_" + projectionIndex,
-                        type(void.class),
-                        ImmutableList.<ParameterizedType>builder()
-                                .add(type(int.class))
-                                .addAll(nCopies(projectionInputs.size(), type(com.facebook.presto.spi.block.Block.class)))
-                                .add(type(BlockBuilder.class))
-                                .build());
+            trueBlock.comment("project_%s(position, blocks..., pageBuilder.getBlockBuilder(%s))", projectionIndex, blockBuilderIndex);
+            trueBlock.pushThis();
+            List<Integer> projectionInputs = getInputChannels(projections.get(projectionIndex));
+            trueBlock.getVariable(positionVariable);
+            for (int channel : projectionInputs) {
+                trueBlock.getVariable("block_" + channel);
             }
+
+            // pageBuilder.getBlockBuilder(0)
+            trueBlock.getVariable("pageBuilder")
+                    .push(blockBuilderIndex)
+                    .invokeVirtual(PageBuilder.class, "getBlockBuilder", BlockBuilder.class, int.class);
+
+            // project(position, block_0, block_1, blockBuilder)
+            trueBlock.invokeVirtual(classDefinition.getType(),
+                    "project_" + projectionIndex,
+                    type(void.class),
+                    ImmutableList.<ParameterizedType>builder()
+                            .add(type(int.class))
+                            .addAll(nCopies(projectionInputs.size(), type(com.facebook.presto.spi.block.Block.class)))
+                            .add(type(BlockBuilder.class))
+                            .build());
+            blockBuilderIndex++;
         }
         ifStatement.ifTrue(trueBlock);
 
         forLoopBody.append(ifStatement.build());
         filterAndProjectMethod.getBody().append(forLoop.body(forLoopBody).build());
 
-        filterAndProjectMethod.getBody().ret();
+        filterAndProjectMethod.getBody()
+                .comment("return selectedPositionCount;")
+                .getVariable(selectedPositionCountVariable)
+                .retInt();
     }
 
     private void generateFilterAndProjectCursorMethod(BootstrapEntry bootstrap, ClassDefinition classDefinition, List<Expression> projections)
@@ -764,6 +794,21 @@ public class ExpressionCompiler
         return projectionType.getJavaType();
     }
 
+    /**
+     * Gets the projections that are a direct reference to an input channel, mapped to that channel.
+     */
+    private static Map<Integer, Integer> getPassThroughChannels(List<Expression> projections)
+    {
+        ImmutableMap.Builder<Integer, Integer> passThroughChannels = ImmutableMap.builder();
+        for (int projectionIndex = 0; projectionIndex < projections.size(); projectionIndex++) {
+            Expression projection = projections.get(projectionIndex);
+            if (projection instanceof InputReference) {
+                passThroughChannels.put(projectionIndex, ((InputReference) projection).getChannel());
+            }
+        }
+        return passThroughChannels.build();
+    }
+
     private static List<Integer> getInputChannels(Expression expression)
     {
         return getInputChannels(ImmutableList.of(expression));
@@ -1000,16 +1045,18 @@ public class ExpressionCompiler
     {
         private final Constructor<? extends Operator> constructor;
         private final List<Type> types;
+        private final Map<Integer, Integer> passThroughChannels;
 
-        public FilterAndProjectOperatorFactoryFactory(Constructor<? extends Operator> constructor, List<Type> types)
+        public FilterAndProjectOperatorFactoryFactory(Constructor<? extends Operator> constructor, List<Type> types, Map<Integer, Integer> passThroughChannels)
         {
             this.constructor = checkNotNull(constructor, "constructor is null");
             this.types = ImmutableList.copyOf(checkNotNull(types, "types is null"));
+            this.passThroughChannels = ImmutableMap.copyOf(checkNotNull(passThroughChannels, "passThroughChannels is null"));
         }
 
         public OperatorFactory create(int operatorId)
         {
-            return new FilterAndProjectOperatorFactory(constructor, operatorId, types);
+            return new FilterAndProjectOperatorFactory(constructor, operatorId, types, passThroughChannels);
         }
     }
 
@@ -1019,16 +1066,19 @@ public class ExpressionCompiler
         private final Constructor<? extends Operator> constructor;
         private final int operatorId;
         private final List<Type> types;
+        private final Map<Integer, Integer> passThroughChannels;
         private boolean closed;
 
         public FilterAndProjectOperatorFactory(
                 Constructor<? extends Operator> constructor,
                 int operatorId,
-                List<Type> types)
+                List<Type> types,
+                Map<Integer, Integer> passThroughChannels)
         {
             this.constructor = checkNotNull(constructor, "constructor is null");
             this.operatorId = operatorId;
             this.types = ImmutableList.copyOf(checkNotNull(types, "types is null"));
+            this.passThroughChannels = ImmutableMap.copyOf(checkNotNull(passThroughChannels, "passThroughChannels is null"));
         }
 
         @Override
@@ -1043,7 +1093,7 @@ public class ExpressionCompiler
             checkState(!closed, "Factory is already closed");
             OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, constructor.getDeclaringClass().getSimpleName());
             try {
-                return constructor.newInstance(operatorContext, types);
+                return constructor.newInstance(operatorContext, types, passThroughChannels);
             }
             catch (InvocationTargetException e) {
                 throw Throwables.propagate(e.getCause());
@@ -1065,20 +1115,23 @@ public class ExpressionCompiler
         private final Constructor<? extends SourceOperator> constructor;
         private final PlanNodeId sourceId;
         private final List<Type> types;
+        private final Map<Integer, Integer> passThroughChannels;
 
         public ScanFilterAndProjectOperatorFactoryFactory(
                 Constructor<? extends SourceOperator> constructor,
                 PlanNodeId sourceId,
-                List<Type> types)
+                List<Type> types,
+                Map<Integer, Integer> passThroughChannels)
         {
             this.sourceId = checkNotNull(sourceId, "sourceId is null");
             this.constructor = checkNotNull(constructor, "constructor is null");
             this.types = ImmutableList.copyOf(checkNotNull(types, "types is null"));
+            this.passThroughChannels = ImmutableMap.copyOf(checkNotNull(passThroughChannels, "passThroughChannels is null"));
         }
 
         public SourceOperatorFactory create(int operatorId, DataStreamProvider dataStreamProvider, List<ColumnHandle> columns)
         {
-            return new ScanFilterAndProjectOperatorFactory(constructor, operatorId, sourceId, dataStreamProvider, columns, types);
+            return new ScanFilterAndProjectOperatorFactory(constructor, operatorId, sourceId, dataStreamProvider, columns, types, passThroughChannels);
         }
     }
 
@@ -1091,6 +1144,7 @@ public class ExpressionCompiler
         private final DataStreamProvider dataStreamProvider;
         private final List<ColumnHandle> columns;
         private final List<Type> types;
+        private final Map<Integer, Integer> passThroughChannels;
         private boolean closed;
 
         public ScanFilterAndProjectOperatorFactory(
@@ -1099,7 +1153,8 @@ public class ExpressionCompiler
                 PlanNodeId sourceId,
                 DataStreamProvider dataStreamProvider,
                 List<ColumnHandle> columns,
-                List<Type> types)
+                List<Type> types,
+                Map<Integer, Integer> passThroughChannels)
         {
             this.constructor = checkNotNull(constructor, "constructor is null");
             this.operatorId = operatorId;
@@ -1107,6 +1162,7 @@ public class ExpressionCompiler
             this.dataStreamProvider = checkNotNull(dataStreamProvider, "dataStreamProvider is null");
             this.columns = ImmutableList.copyOf(checkNotNull(columns, "columns is null"));
             this.types = ImmutableList.copyOf(checkNotNull(types, "types is null"));
+            this.passThroughChannels = ImmutableMap.copyOf(checkNotNull(passThroughChannels, "passThroughChannels is null"));
         }
 
         @Override
@@ -1127,7 +1183,7 @@ public class ExpressionCompiler
             checkState(!closed, "Factory is already closed");
             OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, constructor.getDeclaringClass().getSimpleName());
             try {
-                return constructor.newInstance(operatorContext, sourceId, dataStreamProvider, columns, types);
+                return constructor.newInstance(operatorContext, sourceId, dataStreamProvider, columns, types, passThroughChannels);
             }
             catch (InvocationTargetException e) {
                 throw Throwables.propagate(e.getCause());
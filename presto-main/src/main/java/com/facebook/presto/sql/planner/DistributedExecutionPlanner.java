@@ -24,6 +24,7 @@ import com.facebook.presto.sql.planner.plan.AggregationNode;
 import com.facebook.presto.sql.planner.plan.DistinctLimitNode;
 import com.facebook.presto.sql.planner.plan.ExchangeNode;
 import com.facebook.presto.sql.planner.plan.FilterNode;
+import com.facebook.presto.sql.planner.plan.GroupIdNode;
 import com.facebook.presto.sql.planner.plan.IndexJoinNode;
 import com.facebook.presto.sql.planner.plan.JoinNode;
 import com.facebook.presto.sql.planner.plan.LimitNode;
@@ -31,6 +32,7 @@ import com.facebook.presto.sql.planner.plan.MarkDistinctNode;
 import com.facebook.presto.sql.planner.plan.MaterializeSampleNode;
 import com.facebook.presto.sql.planner.plan.OutputNode;
 import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.facebook.presto.sql.planner.plan.PlanVisitor;
 import com.facebook.presto.sql.planner.plan.ProjectNode;
 import com.facebook.presto.sql.planner.plan.SampleNode;
@@ -45,10 +47,14 @@ import com.facebook.presto.sql.planner.plan.ValuesNode;
 import com.facebook.presto.sql.planner.plan.WindowNode;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 import javax.inject.Inject;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -67,7 +73,7 @@ public class DistributedExecutionPlanner
         PlanFragment currentFragment = root.getFragment();
 
         // get splits for this fragment, this is lazy so split assignments aren't actually calculated here
-        Visitor visitor = new Visitor();
+        Visitor visitor = new Visitor(currentFragment.getColocatedSources());
         Optional<SplitSource> splits = currentFragment.getRoot().accept(visitor, null);
 
         // create child stages
@@ -78,6 +84,7 @@ public class DistributedExecutionPlanner
 
         return new StageExecutionPlan(currentFragment,
                 splits,
+                visitor.getColocatedSplits(),
                 dependencies.build()
         );
     }
@@ -85,12 +92,30 @@ public class DistributedExecutionPlanner
     private final class Visitor
             extends PlanVisitor<Void, Optional<SplitSource>>
     {
+        private final Set<PlanNodeId> colocatedSources;
+        private final Map<PlanNodeId, SplitSource> colocatedSplits = new LinkedHashMap<>();
+
+        private Visitor(List<PlanNodeId> colocatedSources)
+        {
+            this.colocatedSources = ImmutableSet.copyOf(colocatedSources);
+        }
+
+        public Map<PlanNodeId, SplitSource> getColocatedSplits()
+        {
+            return colocatedSplits;
+        }
+
         @Override
         public Optional<SplitSource> visitTableScan(TableScanNode node, Void context)
         {
             // get dataSource for table
             SplitSource splitSource = splitManager.getPartitionSplits(node.getTable(), getPartitions(node));
 
+            if (colocatedSources.contains(node.getId())) {
+                // the splits of colocated sources are scheduled along with the splits of the partitioned source
+                colocatedSplits.put(node.getId(), splitSource);
+                return Optional.absent();
+            }
             return Optional.of(splitSource);
         }
 
@@ -186,6 +211,12 @@ public class DistributedExecutionPlanner
             return node.getSource().accept(this, context);
         }
 
+        @Override
+        public Optional<SplitSource> visitGroupId(GroupIdNode node, Void context)
+        {
+            return node.getSource().accept(this, context);
+        }
+
         @Override
         public Optional<SplitSource> visitMarkDistinct(MarkDistinctNode node, Void context)
         {
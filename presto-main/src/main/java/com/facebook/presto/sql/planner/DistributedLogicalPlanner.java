@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.sql.planner;
 
+import com.facebook.presto.metadata.Bucketing;
+import com.facebook.presto.metadata.ColumnHandle;
 import com.facebook.presto.metadata.FunctionInfo;
 import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.metadata.OutputTableHandle;
@@ -24,6 +26,7 @@ import com.facebook.presto.sql.planner.plan.AggregationNode;
 import com.facebook.presto.sql.planner.plan.DistinctLimitNode;
 import com.facebook.presto.sql.planner.plan.ExchangeNode;
 import com.facebook.presto.sql.planner.plan.FilterNode;
+import com.facebook.presto.sql.planner.plan.GroupIdNode;
 import com.facebook.presto.sql.planner.plan.IndexJoinNode;
 import com.facebook.presto.sql.planner.plan.JoinNode;
 import com.facebook.presto.sql.planner.plan.LimitNode;
@@ -50,6 +53,7 @@ import com.facebook.presto.sql.tree.Expression;
 import com.facebook.presto.sql.tree.FunctionCall;
 import com.facebook.presto.sql.tree.QualifiedNameReference;
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableBiMap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -130,13 +134,31 @@ public class DistributedLogicalPlanner
                 }
             }
 
+            // if the input is split by bucket and every group is contained in a single bucket, the aggregation
+            // can be computed by the tasks that read the buckets, provided all splits of a bucket go to the same task
+            boolean bucketed = current.getBucketing().isPresent() && groupBy.containsAll(current.getBucketSymbols());
+
             // else, we need to "close" the current fragment and create an unpartitioned fragment for the final aggregation
             if (decomposable) {
-                return addDistributedAggregation(current, aggregations, functions, masks, groupBy, node.getSampleWeight(), node.getConfidence());
+                return addDistributedAggregation(current, aggregations, functions, masks, groupBy, node.getSampleWeight(), node.getConfidence(), bucketed);
+            }
+            if (bucketed) {
+                current.setRoot(new AggregationNode(node.getId(), current.getRoot(), groupBy, aggregations, functions, masks, SINGLE, node.getSampleWeight(), node.getConfidence()))
+                        .setBucketedDistribution(ImmutableList.<PlanNodeId>of());
+                return current;
             }
             return addSingleNodeAggregation(current, aggregations, functions, masks, groupBy, node.getSampleWeight(), node.getConfidence());
         }
 
+        @Override
+        public SubPlanBuilder visitGroupId(GroupIdNode node, Void context)
+        {
+            SubPlanBuilder current = node.getSource().accept(this, context);
+            current.setRoot(new GroupIdNode(node.getId(), current.getRoot(), node.getGroupingSets(), node.getGroupingColumns(), node.getArgumentSymbols(), node.getGroupIdSymbol()))
+                    .clearBucketing();
+            return current;
+        }
+
         @Override
         public SubPlanBuilder visitMarkDistinct(MarkDistinctNode node, Void context)
         {
@@ -181,7 +203,7 @@ public class DistributedLogicalPlanner
             return plan;
         }
 
-        private SubPlanBuilder addDistributedAggregation(SubPlanBuilder plan, Map<Symbol, FunctionCall> aggregations, Map<Symbol, Signature> functions, Map<Symbol, Symbol> masks, List<Symbol> groupBy, Optional<Symbol> sampleWeight, double confidence)
+        private SubPlanBuilder addDistributedAggregation(SubPlanBuilder plan, Map<Symbol, FunctionCall> aggregations, Map<Symbol, Signature> functions, Map<Symbol, Symbol> masks, List<Symbol> groupBy, Optional<Symbol> sampleWeight, double confidence, boolean bucketed)
         {
             Map<Symbol, FunctionCall> finalCalls = new HashMap<>();
             Map<Symbol, FunctionCall> intermediateCalls = new HashMap<>();
@@ -204,6 +226,14 @@ public class DistributedLogicalPlanner
 
             // create partial aggregation plan
             AggregationNode partialAggregation = new AggregationNode(idAllocator.getNextId(), plan.getRoot(), groupBy, intermediateCalls, intermediateFunctions, intermediateMask, PARTIAL, sampleWeight, confidence);
+
+            if (bucketed) {
+                // the final aggregation runs in the same fragment, on the partial results of all the splits of the buckets assigned to the task
+                AggregationNode finalAggregation = new AggregationNode(idAllocator.getNextId(), partialAggregation, groupBy, finalCalls, functions, ImmutableMap.<Symbol, Symbol>of(), FINAL, Optional.<Symbol>absent(), confidence);
+                return plan.setRoot(finalAggregation)
+                        .setBucketedDistribution(ImmutableList.<PlanNodeId>of());
+            }
+
             plan.setRoot(new SinkNode(idAllocator.getNextId(), partialAggregation, partialAggregation.getOutputSymbols()));
 
             // create final aggregation plan
@@ -227,7 +257,7 @@ public class DistributedLogicalPlanner
         {
             SubPlanBuilder current = node.getSource().accept(this, context);
 
-            if (current.isDistributed()) {
+            if (current.isDistributed() && !isPartitionedBySubsetOf(current, node.getPartitionBy())) {
                 List<Symbol> partitionedBy = node.getPartitionBy();
                 current.setRoot(new SinkNode(idAllocator.getNextId(), current.getRoot(), current.getRoot().getOutputSymbols()));
 
@@ -244,11 +274,31 @@ public class DistributedLogicalPlanner
                 }
             }
 
-            current.setRoot(new WindowNode(node.getId(), current.getRoot(), node.getPartitionBy(), node.getOrderBy(), node.getOrderings(), node.getWindowFunctions(), node.getSignatures()));
+            current.setRoot(new WindowNode(node.getId(), current.getRoot(), node.getPartitionBy(), node.getOrderBy(), node.getOrderings(), node.getFrame(), node.getWindowFunctions(), node.getSignatures(), node.getPrePartitionedInputs(), node.getPreSortedOrderPrefix()));
 
             return current;
         }
 
+        /**
+         * Checks if the plan is already hash partitioned by a non-empty subset of the specified symbols,
+         * in which case all rows with equal values for the symbols are already on the same node.
+         */
+        private boolean isPartitionedBySubsetOf(SubPlanBuilder current, List<Symbol> symbols)
+        {
+            if (current.getDistribution() != PlanDistribution.FIXED) {
+                return false;
+            }
+            for (SubPlan child : current.getChildren()) {
+                List<Symbol> partitionBy = child.getFragment().getPartitionBy();
+                if (child.getFragment().getOutputPartitioning() == OutputPartitioning.HASH &&
+                        !partitionBy.isEmpty() &&
+                        symbols.containsAll(partitionBy)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
         @Override
         public SubPlanBuilder visitFilter(FilterNode node, Void context)
         {
@@ -261,7 +311,8 @@ public class DistributedLogicalPlanner
         public SubPlanBuilder visitSample(SampleNode node, Void context)
         {
             SubPlanBuilder current = node.getSource().accept(this, context);
-            current.setRoot(new SampleNode(node.getId(), current.getRoot(), node.getSampleRatio(), node.getSampleType(), node.isRescaled(), node.getSampleWeightSymbol()));
+            current.setRoot(new SampleNode(node.getId(), current.getRoot(), node.getSampleRatio(), node.getSampleType(), node.isRescaled(), node.getSampleWeightSymbol()))
+                    .clearBucketing();
             return current;
         }
 
@@ -278,9 +329,34 @@ public class DistributedLogicalPlanner
         {
             SubPlanBuilder current = node.getSource().accept(this, context);
             current.setRoot(new ProjectNode(node.getId(), current.getRoot(), node.getOutputMap()));
+
+            if (current.getBucketing().isPresent()) {
+                // follow the bucket symbols through the projection
+                ImmutableList.Builder<Symbol> bucketSymbols = ImmutableList.builder();
+                for (Symbol symbol : current.getBucketSymbols()) {
+                    Optional<Symbol> output = findIdentityAssignment(node.getOutputMap(), symbol);
+                    if (!output.isPresent()) {
+                        current.clearBucketing();
+                        return current;
+                    }
+                    bucketSymbols.add(output.get());
+                }
+                current.setBucketing(current.getBucketing().get(), bucketSymbols.build());
+            }
             return current;
         }
 
+        private Optional<Symbol> findIdentityAssignment(Map<Symbol, Expression> assignments, Symbol symbol)
+        {
+            Expression reference = new QualifiedNameReference(symbol.toQualifiedName());
+            for (Map.Entry<Symbol, Expression> entry : assignments.entrySet()) {
+                if (entry.getValue().equals(reference)) {
+                    return Optional.of(entry.getKey());
+                }
+            }
+            return Optional.absent();
+        }
+
         @Override
         public SubPlanBuilder visitTopN(TopNNode node, Void context)
         {
@@ -380,7 +456,24 @@ public class DistributedLogicalPlanner
         @Override
         public SubPlanBuilder visitTableScan(TableScanNode node, Void context)
         {
-            return createSourceDistributionPlan(node, node.getId());
+            SubPlanBuilder current = createSourceDistributionPlan(node, node.getId());
+
+            if (createSingleNodePlan || !node.getGeneratedPartitions().isPresent() || !node.getGeneratedPartitions().get().getBucketing().isPresent()) {
+                return current;
+            }
+
+            Bucketing bucketing = node.getGeneratedPartitions().get().getBucketing().get();
+            Map<ColumnHandle, Symbol> columnSymbols = ImmutableBiMap.copyOf(node.getAssignments()).inverse();
+            ImmutableList.Builder<Symbol> bucketSymbols = ImmutableList.builder();
+            for (ColumnHandle column : bucketing.getColumns()) {
+                Symbol symbol = columnSymbols.get(column);
+                if (symbol == null) {
+                    // the bucket columns are not read, so nothing can take advantage of the bucketing
+                    return current;
+                }
+                bucketSymbols.add(symbol);
+            }
+            return current.setBucketing(bucketing, bucketSymbols.build());
         }
 
         @Override
@@ -398,7 +491,8 @@ public class DistributedLogicalPlanner
             OutputTableHandle target = metadata.beginCreateTable(session, node.getCatalog(), node.getTableMetadata());
 
             SubPlanBuilder current = node.getSource().accept(this, context);
-            current.setRoot(new TableWriterNode(node.getId(), current.getRoot(), target, node.getColumns(), node.getColumnNames(), node.getOutputSymbols(), node.getSampleWeightSymbol()));
+            current.setRoot(new TableWriterNode(node.getId(), current.getRoot(), target, node.getColumns(), node.getColumnNames(), node.getOutputSymbols(), node.getSampleWeightSymbol()))
+                    .clearBucketing();
             return current;
         }
 
@@ -429,6 +523,21 @@ public class DistributedLogicalPlanner
             SubPlanBuilder left = node.getLeft().accept(this, context);
             SubPlanBuilder right = node.getRight().accept(this, context);
 
+            if (isColocated(left, right, node.getCriteria())) {
+                // bucket N of the build side only joins with bucket N of the probe side, so both sides can
+                // be read by the same fragment as long as each task receives the same buckets of both tables
+                JoinNode join = new JoinNode(node.getId(), node.getType(), left.getRoot(), right.getRoot(), node.getCriteria());
+                switch (node.getType()) {
+                    case INNER:
+                    case LEFT:
+                        return addColocatedJoin(join, left, right);
+                    case RIGHT:
+                        return addColocatedJoin(join, right, left);
+                    default:
+                        throw new UnsupportedOperationException("Unsupported join type: " + node.getType());
+                }
+            }
+
             if (left.isDistributed() || right.isDistributed()) {
                 switch (node.getType()) {
                     case INNER:
@@ -463,6 +572,40 @@ public class DistributedLogicalPlanner
             }
         }
 
+        private boolean isColocated(SubPlanBuilder left, SubPlanBuilder right, List<JoinNode.EquiJoinClause> criteria)
+        {
+            if (!left.getBucketing().isPresent() || !right.getBucketing().isPresent() || !left.getBucketing().get().isCompatibleWith(right.getBucketing().get())) {
+                return false;
+            }
+
+            // rows are only guaranteed to be in buckets with the same number if the join requires all bucket columns to be equal
+            for (int i = 0; i < left.getBucketSymbols().size(); i++) {
+                Symbol leftSymbol = left.getBucketSymbols().get(i);
+                Symbol rightSymbol = right.getBucketSymbols().get(i);
+                boolean found = false;
+                for (JoinNode.EquiJoinClause clause : criteria) {
+                    if (clause.getLeft().equals(leftSymbol) && clause.getRight().equals(rightSymbol)) {
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private SubPlanBuilder addColocatedJoin(JoinNode join, SubPlanBuilder probe, SubPlanBuilder build)
+        {
+            return probe.setRoot(join)
+                    .setBucketedDistribution(ImmutableList.<PlanNodeId>builder()
+                            .add(build.getPartitionedSource())
+                            .addAll(build.getColocatedSources())
+                            .build())
+                    .setChildren(Iterables.concat(probe.getChildren(), build.getChildren()));
+        }
+
         @Override
         public SubPlanBuilder visitSemiJoin(SemiJoinNode node, Void context)
         {
@@ -20,12 +20,14 @@ import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.metadata.Signature;
 import com.facebook.presto.operator.AggregationFunctionDefinition;
 import com.facebook.presto.operator.AggregationOperator.AggregationOperatorFactory;
+import com.facebook.presto.operator.ConnectorPageSink;
 import com.facebook.presto.operator.DriverFactory;
 import com.facebook.presto.operator.ExchangeClient;
 import com.facebook.presto.operator.ExchangeOperator.ExchangeOperatorFactory;
 import com.facebook.presto.operator.FilterAndProjectOperator.FilterAndProjectOperatorFactory;
 import com.facebook.presto.operator.FilterFunction;
 import com.facebook.presto.operator.FilterFunctions;
+import com.facebook.presto.operator.GroupIdOperator.GroupIdOperatorFactory;
 import com.facebook.presto.operator.HashAggregationOperator.HashAggregationOperatorFactory;
 import com.facebook.presto.operator.HashBuilderOperator.HashBuilderOperatorFactory;
 import com.facebook.presto.operator.HashSemiJoinOperator.HashSemiJoinOperatorFactory;
@@ -40,9 +42,9 @@ import com.facebook.presto.operator.OperatorFactory;
 import com.facebook.presto.operator.OrderByOperator.OrderByOperatorFactory;
 import com.facebook.presto.operator.OutputFactory;
 import com.facebook.presto.operator.PageBuilder;
+import com.facebook.presto.operator.PageSinkManager;
 import com.facebook.presto.operator.ProjectionFunction;
 import com.facebook.presto.operator.ProjectionFunctions;
-import com.facebook.presto.operator.RecordSinkManager;
 import com.facebook.presto.operator.SampleOperator.SampleOperatorFactory;
 import com.facebook.presto.operator.ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory;
 import com.facebook.presto.operator.SetBuilderOperator.SetBuilderOperatorFactory;
@@ -56,10 +58,10 @@ import com.facebook.presto.operator.WindowOperator.WindowOperatorFactory;
 import com.facebook.presto.operator.index.FieldSetFilteringRecordSet;
 import com.facebook.presto.operator.index.IndexLookupSourceSupplier;
 import com.facebook.presto.operator.index.IndexSourceOperator;
+import com.facebook.presto.operator.window.FrameInfo;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.Index;
 import com.facebook.presto.spi.RecordSet;
-import com.facebook.presto.spi.RecordSink;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.split.DataStreamProvider;
@@ -71,6 +73,7 @@ import com.facebook.presto.sql.planner.plan.AggregationNode;
 import com.facebook.presto.sql.planner.plan.DistinctLimitNode;
 import com.facebook.presto.sql.planner.plan.ExchangeNode;
 import com.facebook.presto.sql.planner.plan.FilterNode;
+import com.facebook.presto.sql.planner.plan.GroupIdNode;
 import com.facebook.presto.sql.planner.plan.IndexJoinNode;
 import com.facebook.presto.sql.planner.plan.IndexSourceNode;
 import com.facebook.presto.sql.planner.plan.JoinNode;
@@ -79,6 +82,7 @@ import com.facebook.presto.sql.planner.plan.MarkDistinctNode;
 import com.facebook.presto.sql.planner.plan.MaterializeSampleNode;
 import com.facebook.presto.sql.planner.plan.OutputNode;
 import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.facebook.presto.sql.planner.plan.PlanVisitor;
 import com.facebook.presto.sql.planner.plan.ProjectNode;
 import com.facebook.presto.sql.planner.plan.SampleNode;
@@ -156,7 +160,7 @@ public class LocalExecutionPlanner
 
     private final DataStreamProvider dataStreamProvider;
     private final IndexManager indexManager;
-    private final RecordSinkManager recordSinkManager;
+    private final PageSinkManager pageSinkManager;
     private final Supplier<ExchangeClient> exchangeClientSupplier;
     private final ExpressionCompiler compiler;
     private final boolean interpreterEnabled;
@@ -167,7 +171,7 @@ public class LocalExecutionPlanner
             SqlParser sqlParser,
             DataStreamProvider dataStreamProvider,
             IndexManager indexManager,
-            RecordSinkManager recordSinkManager,
+            PageSinkManager pageSinkManager,
             Supplier<ExchangeClient> exchangeClientSupplier,
             ExpressionCompiler compiler,
             CompilerConfig config)
@@ -178,7 +182,7 @@ public class LocalExecutionPlanner
         this.exchangeClientSupplier = exchangeClientSupplier;
         this.metadata = checkNotNull(metadata, "metadata is null");
         this.sqlParser = checkNotNull(sqlParser, "sqlParser is null");
-        this.recordSinkManager = checkNotNull(recordSinkManager, "recordSinkManager is null");
+        this.pageSinkManager = checkNotNull(pageSinkManager, "pageSinkManager is null");
         this.compiler = checkNotNull(compiler, "compiler is null");
 
         interpreterEnabled = config.isInterpreterEnabled();
@@ -188,10 +192,19 @@ public class LocalExecutionPlanner
             PlanNode plan,
             Map<Symbol, Type> types,
             OutputFactory outputOperatorFactory)
+    {
+        return plan(session, plan, types, outputOperatorFactory, ImmutableSet.<PlanNodeId>of());
+    }
+
+    public LocalExecutionPlan plan(ConnectorSession session,
+            PlanNode plan,
+            Map<Symbol, Type> types,
+            OutputFactory outputOperatorFactory,
+            Collection<PlanNodeId> partitionedSourceIds)
     {
         LocalExecutionPlanContext context = new LocalExecutionPlanContext(session, types);
 
-        PhysicalOperation physicalOperation = plan.accept(new Visitor(session), context);
+        PhysicalOperation physicalOperation = plan.accept(new Visitor(session, partitionedSourceIds), context);
         DriverFactory driverFactory = new DriverFactory(
                 context.isInputDriver(),
                 true,
@@ -313,10 +326,12 @@ public class LocalExecutionPlanner
             extends PlanVisitor<LocalExecutionPlanContext, PhysicalOperation>
     {
         private final ConnectorSession session;
+        private final Set<PlanNodeId> partitionedSourceIds;
 
-        private Visitor(ConnectorSession session)
+        private Visitor(ConnectorSession session, Collection<PlanNodeId> partitionedSourceIds)
         {
             this.session = session;
+            this.partitionedSourceIds = ImmutableSet.copyOf(checkNotNull(partitionedSourceIds, "partitionedSourceIds is null"));
         }
 
         @Override
@@ -378,6 +393,12 @@ public class LocalExecutionPlanner
                 partitionChannels.add(source.getLayout().get(symbol));
             }
 
+            // the source is already grouped by these partition channels
+            ImmutableList.Builder<Integer> preGroupedChannels = ImmutableList.builder();
+            for (Symbol symbol : node.getPrePartitionedInputs()) {
+                preGroupedChannels.add(source.getLayout().get(symbol));
+            }
+
             ImmutableList.Builder<Integer> sortChannels = ImmutableList.builder();
             ImmutableList.Builder<SortOrder> sortOrder = ImmutableList.builder();
             for (Symbol symbol : orderBySymbols) {
@@ -385,6 +406,17 @@ public class LocalExecutionPlanner
                 sortOrder.add(node.getOrderings().get(symbol));
             }
 
+            WindowNode.Frame frame = node.getFrame();
+            Optional<Integer> frameStartChannel = Optional.absent();
+            Optional<Integer> frameEndChannel = Optional.absent();
+            if (frame.getStartValue().isPresent()) {
+                frameStartChannel = Optional.of(source.getLayout().get(frame.getStartValue().get()));
+            }
+            if (frame.getEndValue().isPresent()) {
+                frameEndChannel = Optional.of(source.getLayout().get(frame.getEndValue().get()));
+            }
+            FrameInfo frameInfo = new FrameInfo(frame.getType(), frame.getStartType(), frameStartChannel, frame.getEndType(), frameEndChannel);
+
             ImmutableList.Builder<Integer> outputChannels = ImmutableList.builder();
             for (int i = 0; i < source.getTypes().size(); i++) {
                 outputChannels.add(i);
@@ -423,8 +455,11 @@ public class LocalExecutionPlanner
                     outputChannels.build(),
                     windowFunctions.build(),
                     partitionChannels.build(),
+                    preGroupedChannels.build(),
                     sortChannels.build(),
                     sortOrder.build(),
+                    node.getPreSortedOrderPrefix(),
+                    frameInfo,
                     1_000_000);
 
             return new PhysicalOperation(operatorFactory, outputMappings.build(), source);
@@ -513,7 +548,15 @@ public class LocalExecutionPlanner
         @Override
         public PhysicalOperation visitAggregation(AggregationNode node, LocalExecutionPlanContext context)
         {
-            PhysicalOperation source = node.getSource().accept(this, context);
+            PhysicalOperation source;
+            if (node.getStep() != AggregationNode.Step.PARTIAL && containsPartitionedSource(node.getSource())) {
+                // a partitioned source is read by one driver per split, so the rows of all
+                // splits must be gathered before a final aggregation can be computed
+                source = createInMemoryExchange(node.getSource(), context);
+            }
+            else {
+                source = node.getSource().accept(this, context);
+            }
 
             if (node.getGroupBy().isEmpty()) {
                 return planGlobalAggregation(context.getNextOperatorId(), node, source);
@@ -540,6 +583,44 @@ public class LocalExecutionPlanner
             return new PhysicalOperation(operator, outputMappings, source);
         }
 
+        @Override
+        public PhysicalOperation visitGroupId(GroupIdNode node, LocalExecutionPlanContext context)
+        {
+            PhysicalOperation source = node.getSource().accept(this, context);
+
+            // Grouping columns are laid out first, followed by the argument columns and the group id
+            ImmutableMap.Builder<Symbol, Integer> outputMappings = ImmutableMap.builder();
+            ImmutableList.Builder<Integer> groupingChannels = ImmutableList.builder();
+            Map<Symbol, Integer> groupingColumnPositions = new HashMap<>();
+            int outputChannel = 0;
+            for (Map.Entry<Symbol, Symbol> entry : node.getGroupingColumns().entrySet()) {
+                groupingChannels.add(source.getLayout().get(entry.getValue()));
+                groupingColumnPositions.put(entry.getKey(), outputChannel);
+                outputMappings.put(entry.getKey(), outputChannel);
+                outputChannel++;
+            }
+
+            ImmutableList.Builder<Integer> argumentChannels = ImmutableList.builder();
+            for (Symbol argument : node.getArgumentSymbols()) {
+                argumentChannels.add(source.getLayout().get(argument));
+                outputMappings.put(argument, outputChannel);
+                outputChannel++;
+            }
+            outputMappings.put(node.getGroupIdSymbol(), outputChannel);
+
+            ImmutableList.Builder<Set<Integer>> groupingSets = ImmutableList.builder();
+            for (List<Symbol> groupingSet : node.getGroupingSets()) {
+                ImmutableSet.Builder<Integer> columns = ImmutableSet.builder();
+                for (Symbol symbol : groupingSet) {
+                    columns.add(groupingColumnPositions.get(symbol));
+                }
+                groupingSets.add(columns.build());
+            }
+
+            OperatorFactory operatorFactory = new GroupIdOperatorFactory(context.getNextOperatorId(), source.getTypes(), groupingChannels.build(), groupingSets.build(), argumentChannels.build());
+            return new PhysicalOperation(operatorFactory, outputMappings.build(), source);
+        }
+
         @Override
         public PhysicalOperation visitMaterializeSample(MaterializeSampleNode node, LocalExecutionPlanContext context)
         {
@@ -1022,7 +1103,14 @@ public class LocalExecutionPlanner
 
             // do the same on the build side
             LocalExecutionPlanContext buildContext = context.createSubContext();
-            PhysicalOperation buildSource = buildNode.accept(this, buildContext);
+            PhysicalOperation buildSource;
+            if (containsPartitionedSource(buildNode)) {
+                // the build side of a bucketed join is read by one driver per split, but there can only be one hash builder
+                buildSource = createInMemoryExchange(buildNode, buildContext);
+            }
+            else {
+                buildSource = buildNode.accept(this, buildContext);
+            }
             List<Integer> buildChannels = ImmutableList.copyOf(getChannelsForSymbols(buildSymbols, buildSource.getLayout()));
 
             HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(
@@ -1139,17 +1227,13 @@ public class LocalExecutionPlanner
             Optional<Integer> sampleWeightChannel = node.getSampleWeightSymbol().transform(exchange.channelGetter());
 
             // create the table writer
-            RecordSink recordSink = recordSinkManager.getRecordSink(node.getTarget());
-
-            List<Type> types = IterableTransformer.on(node.getColumns())
-                    .transform(Functions.forMap(context.getTypes()))
-                    .list();
+            ConnectorPageSink pageSink = pageSinkManager.getPageSink(node.getTarget());
 
             List<Integer> inputChannels = IterableTransformer.on(node.getColumns())
                     .transform(exchange.channelGetter())
                     .list();
 
-            OperatorFactory operatorFactory = new TableWriterOperatorFactory(context.getNextOperatorId(), recordSink, types, inputChannels, sampleWeightChannel);
+            OperatorFactory operatorFactory = new TableWriterOperatorFactory(context.getNextOperatorId(), pageSink, inputChannels, sampleWeightChannel);
 
             Map<Symbol, Integer> layout = ImmutableMap.<Symbol, Integer>builder()
                     .put(node.getOutputSymbols().get(0), 0)
@@ -1164,7 +1248,7 @@ public class LocalExecutionPlanner
             LocalExecutionPlanContext subContext = context.createSubContext();
             PhysicalOperation source = node.accept(this, subContext);
 
-            InMemoryExchange exchange = new InMemoryExchange(getSourceOperatorTypes(node, context.getTypes()));
+            InMemoryExchange exchange = new InMemoryExchange(source.getTypes());
 
             // create exchange sink
             List<OperatorFactory> factories = ImmutableList.<OperatorFactory>builder()
@@ -1180,15 +1264,26 @@ public class LocalExecutionPlanner
             // the main driver is not an input: the source is the input for the plan
             context.setInputDriver(false);
 
-            List<Symbol> layout = node.getOutputSymbols();
-            ImmutableMap.Builder<Symbol, Integer> outputMappings = ImmutableMap.builder();
-            for (int i = 0; i < layout.size(); i++) {
-                outputMappings.put(layout.get(i), i);
-            }
-
             // add exchange source as first operator in the current context
+            // the exchange passes pages through unchanged, so the layout of the source is preserved
             OperatorFactory factory = new InMemoryExchangeSourceOperatorFactory(context.getNextOperatorId(), exchange);
-            return new PhysicalOperation(factory, outputMappings.build());
+            return new PhysicalOperation(factory, source.getLayout());
+        }
+
+        private boolean containsPartitionedSource(PlanNode node)
+        {
+            if (partitionedSourceIds.isEmpty()) {
+                return false;
+            }
+            if (node instanceof TableScanNode) {
+                return partitionedSourceIds.contains(node.getId());
+            }
+            for (PlanNode source : node.getSources()) {
+                if (containsPartitionedSource(source)) {
+                    return true;
+                }
+            }
+            return false;
         }
 
         @Override
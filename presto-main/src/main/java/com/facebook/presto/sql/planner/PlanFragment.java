@@ -34,6 +34,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
@@ -45,6 +46,8 @@ public class PlanFragment
         NONE,
         FIXED,
         SOURCE,
+        // like SOURCE, but bucket N of the partitioned source and of all colocated sources is processed by the same task
+        BUCKETED,
         COORDINATOR_ONLY
     }
 
@@ -59,12 +62,25 @@ public class PlanFragment
     private final Map<Symbol, Type> symbols;
     private final PlanDistribution distribution;
     private final PlanNodeId partitionedSource;
+    private final List<PlanNodeId> colocatedSources;
     private final List<Type> types;
     private final List<PlanNode> sources;
     private final Set<PlanNodeId> sourceIds;
     private final OutputPartitioning outputPartitioning;
     private final List<Symbol> partitionBy;
 
+    public PlanFragment(
+            PlanFragmentId id,
+            PlanNode root,
+            Map<Symbol, Type> symbols,
+            PlanDistribution distribution,
+            PlanNodeId partitionedSource,
+            OutputPartitioning outputPartitioning,
+            List<Symbol> partitionBy)
+    {
+        this(id, root, symbols, distribution, partitionedSource, ImmutableList.<PlanNodeId>of(), outputPartitioning, partitionBy);
+    }
+
     @JsonCreator
     public PlanFragment(
             @JsonProperty("id") PlanFragmentId id,
@@ -72,6 +88,7 @@ public class PlanFragment
             @JsonProperty("symbols") Map<Symbol, Type> symbols,
             @JsonProperty("distribution") PlanDistribution distribution,
             @JsonProperty("partitionedSource") PlanNodeId partitionedSource,
+            @JsonProperty("colocatedSources") List<PlanNodeId> colocatedSources,
             @JsonProperty("outputPartitioning") OutputPartitioning outputPartitioning,
             @JsonProperty("partitionBy") List<Symbol> partitionBy)
     {
@@ -80,6 +97,8 @@ public class PlanFragment
         this.symbols = checkNotNull(symbols, "symbols is null");
         this.distribution = checkNotNull(distribution, "distribution is null");
         this.partitionedSource = partitionedSource;
+        this.colocatedSources = ImmutableList.copyOf(checkNotNull(colocatedSources, "colocatedSources is null"));
+        checkArgument(colocatedSources.isEmpty() || distribution == PlanDistribution.BUCKETED, "only bucketed fragments can have colocated sources");
         this.partitionBy = ImmutableList.copyOf(checkNotNull(partitionBy, "partitionBy is null"));
 
         types = ImmutableList.copyOf(IterableTransformer.on(root.getOutputSymbols())
@@ -132,6 +151,30 @@ public class PlanFragment
         return partitionedSource;
     }
 
+    /**
+     * Table scans that are split by bucket like the partitioned source. The scheduler sends bucket N
+     * of these sources to the task that processes bucket N of the partitioned source.
+     */
+    @JsonProperty
+    public List<PlanNodeId> getColocatedSources()
+    {
+        return colocatedSources;
+    }
+
+    /**
+     * Returns the sources that are processed with a driver per split: the partitioned source, followed by the colocated sources
+     */
+    public List<PlanNodeId> getPartitionedSources()
+    {
+        if (partitionedSource == null) {
+            return ImmutableList.of();
+        }
+        return ImmutableList.<PlanNodeId>builder()
+                .add(partitionedSource)
+                .addAll(colocatedSources)
+                .build();
+    }
+
     @JsonProperty
     public OutputPartitioning getOutputPartitioning()
     {
@@ -192,6 +235,7 @@ public class PlanFragment
                 .add("id", id)
                 .add("distribution", distribution)
                 .add("partitionedSource", partitionedSource)
+                .add("colocatedSources", colocatedSources)
                 .add("outputPartitioning", outputPartitioning)
                 .toString();
     }
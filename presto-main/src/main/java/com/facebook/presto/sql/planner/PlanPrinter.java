@@ -31,6 +31,7 @@ import com.facebook.presto.sql.planner.plan.AggregationNode;
 import com.facebook.presto.sql.planner.plan.DistinctLimitNode;
 import com.facebook.presto.sql.planner.plan.ExchangeNode;
 import com.facebook.presto.sql.planner.plan.FilterNode;
+import com.facebook.presto.sql.planner.plan.GroupIdNode;
 import com.facebook.presto.sql.planner.plan.IndexJoinNode;
 import com.facebook.presto.sql.planner.plan.IndexSourceNode;
 import com.facebook.presto.sql.planner.plan.JoinNode;
@@ -55,6 +56,7 @@ import com.facebook.presto.sql.planner.plan.ValuesNode;
 import com.facebook.presto.sql.planner.plan.WindowNode;
 import com.facebook.presto.sql.tree.ComparisonExpression;
 import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.FrameBound;
 import com.facebook.presto.sql.tree.FunctionCall;
 import com.facebook.presto.sql.tree.QualifiedNameReference;
 import com.facebook.presto.util.GraphvizPrinter;
@@ -258,6 +260,24 @@ public class PlanPrinter
             return processChildren(node, indent + 1);
         }
 
+        @Override
+        public Void visitGroupId(GroupIdNode node, Integer indent)
+        {
+            List<String> groupingSets = new ArrayList<>();
+            for (List<Symbol> groupingSet : node.getGroupingSets()) {
+                groupingSets.add("(" + Joiner.on(", ").join(groupingSet) + ")");
+            }
+
+            print(indent, "- GroupId[%s] => [%s]", Joiner.on(", ").join(groupingSets), formatOutputs(node.getOutputSymbols()));
+            for (Map.Entry<Symbol, Symbol> entry : node.getGroupingColumns().entrySet()) {
+                if (!entry.getKey().equals(entry.getValue())) {
+                    print(indent + 2, "%s := %s", entry.getKey(), entry.getValue());
+                }
+            }
+
+            return processChildren(node, indent + 1);
+        }
+
         @Override
         public Void visitMarkDistinct(MarkDistinctNode node, Integer indent)
         {
@@ -286,6 +306,15 @@ public class PlanPrinter
             if (!orderBy.isEmpty()) {
                 args.add(format("order by (%s)", Joiner.on(", ").join(orderBy)));
             }
+            if (!node.getFrame().equals(WindowNode.Frame.defaultFrame())) {
+                args.add(formatFrame(node.getFrame()));
+            }
+            if (!node.getPrePartitionedInputs().isEmpty()) {
+                args.add(format("pre-partitioned (%s)", Joiner.on(", ").join(node.getPrePartitionedInputs())));
+            }
+            if (node.getPreSortedOrderPrefix() > 0) {
+                args.add(format("pre-sorted prefix %s", node.getPreSortedOrderPrefix()));
+            }
 
             print(indent, "- Window[%s] => [%s]", Joiner.on(", ").join(args), formatOutputs(node.getOutputSymbols()));
 
@@ -366,6 +395,23 @@ public class PlanPrinter
             return processChildren(node, indent + 1);
         }
 
+        private String formatFrame(WindowNode.Frame frame)
+        {
+            return format("%s BETWEEN %s AND %s",
+                    frame.getType(),
+                    formatFrameBound(frame.getStartType(), frame.getStartValue()),
+                    formatFrameBound(frame.getEndType(), frame.getEndValue()));
+        }
+
+        private String formatFrameBound(FrameBound.Type type, Optional<Symbol> value)
+        {
+            String bound = type.toString().replace('_', ' ');
+            if (value.isPresent()) {
+                return value.get() + " " + bound;
+            }
+            return bound;
+        }
+
         @Override
         public Void visitTopN(final TopNNode node, Integer indent)
         {
@@ -18,6 +18,7 @@ import com.facebook.presto.sql.planner.plan.DistinctLimitNode;
 import com.facebook.presto.sql.planner.plan.MaterializeSampleNode;
 import com.facebook.presto.sql.planner.plan.ExchangeNode;
 import com.facebook.presto.sql.planner.plan.FilterNode;
+import com.facebook.presto.sql.planner.plan.GroupIdNode;
 import com.facebook.presto.sql.planner.plan.IndexJoinNode;
 import com.facebook.presto.sql.planner.plan.IndexSourceNode;
 import com.facebook.presto.sql.planner.plan.JoinNode;
@@ -95,6 +96,20 @@ public final class PlanSanityChecker
             return null;
         }
 
+        @Override
+        public Void visitGroupId(GroupIdNode node, Void context)
+        {
+            PlanNode source = node.getSource();
+            source.accept(this, context); // visit child
+
+            verifyUniqueId(node);
+
+            Preconditions.checkArgument(source.getOutputSymbols().containsAll(node.getGroupingColumns().values()), "Invalid node. Grouping columns (%s) not in source plan output (%s)", node.getGroupingColumns().values(), source.getOutputSymbols());
+            Preconditions.checkArgument(source.getOutputSymbols().containsAll(node.getArgumentSymbols()), "Invalid node. Argument symbols (%s) not in source plan output (%s)", node.getArgumentSymbols(), source.getOutputSymbols());
+
+            return null;
+        }
+
         @Override
         public Void visitMarkDistinct(MarkDistinctNode node, Void context)
         {
@@ -24,6 +24,7 @@ import com.facebook.presto.sql.analyzer.FieldOrExpression;
 import com.facebook.presto.sql.analyzer.TupleDescriptor;
 import com.facebook.presto.sql.planner.plan.AggregationNode;
 import com.facebook.presto.sql.planner.plan.FilterNode;
+import com.facebook.presto.sql.planner.plan.GroupIdNode;
 import com.facebook.presto.sql.planner.plan.LimitNode;
 import com.facebook.presto.sql.planner.plan.MarkDistinctNode;
 import com.facebook.presto.sql.planner.plan.PlanNode;
@@ -34,10 +35,13 @@ import com.facebook.presto.sql.planner.plan.TopNNode;
 import com.facebook.presto.sql.planner.plan.ValuesNode;
 import com.facebook.presto.sql.planner.plan.WindowNode;
 import com.facebook.presto.sql.tree.Cast;
+import com.facebook.presto.sql.tree.ComparisonExpression;
 import com.facebook.presto.sql.tree.DefaultTraversalVisitor;
 import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.FrameBound;
 import com.facebook.presto.sql.tree.FunctionCall;
 import com.facebook.presto.sql.tree.InPredicate;
+import com.facebook.presto.sql.tree.LongLiteral;
 import com.facebook.presto.sql.tree.QualifiedNameReference;
 import com.facebook.presto.sql.tree.Query;
 import com.facebook.presto.sql.tree.QuerySpecification;
@@ -45,11 +49,14 @@ import com.facebook.presto.sql.tree.SortItem;
 import com.facebook.presto.sql.tree.SortItem.NullOrdering;
 import com.facebook.presto.sql.tree.SortItem.Ordering;
 import com.facebook.presto.sql.tree.SubqueryExpression;
+import com.facebook.presto.sql.tree.Window;
+import com.facebook.presto.sql.tree.WindowFrame;
 import com.facebook.presto.util.IterableTransformer;
 import com.google.common.base.Function;
 import com.google.common.base.Objects;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableBiMap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -59,11 +66,13 @@ import javax.annotation.Nullable;
 
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.sql.tree.FunctionCall.argumentsGetter;
 import static com.facebook.presto.sql.tree.FunctionCall.distinctPredicate;
@@ -73,6 +82,9 @@ import static com.google.common.base.Preconditions.checkState;
 class QueryPlanner
         extends DefaultTraversalVisitor<PlanBuilder, Void>
 {
+    // with fewer DISTINCT argument sets, a single MarkDistinct is cheaper than replicating the input
+    private static final int MIN_DISTINCT_ARGUMENT_SETS_FOR_EXPANSION = 2;
+
     private final Analysis analysis;
     private final SymbolAllocator symbolAllocator;
     private final PlanNodeIdAllocator idAllocator;
@@ -314,13 +326,93 @@ class QueryPlanner
 
         // 2.b. Rewrite group by expressions in terms of pre-projected inputs
         Set<Symbol> groupBySymbols = new LinkedHashSet<>();
-        for (FieldOrExpression fieldOrExpression : analysis.getGroupByExpressions(node)) {
-            Symbol symbol = subPlan.translate(fieldOrExpression);
-            groupBySymbols.add(symbol);
-            translations.put(fieldOrExpression, symbol);
+        List<Set<FieldOrExpression>> groupingSets = analysis.getGroupingSets(node);
+        if (groupingSets.size() > 1) {
+            // Replicate the input once per grouping set. The group by columns are replaced with new symbols,
+            // which are null when the column is not part of the set, so they can't be used as aggregate arguments.
+            Map<Symbol, Symbol> groupingColumns = new LinkedHashMap<>();
+            for (FieldOrExpression fieldOrExpression : analysis.getGroupByExpressions(node)) {
+                Symbol input = subPlan.translate(fieldOrExpression);
+                Symbol output = groupingColumns.get(input);
+                if (output == null) {
+                    output = symbolAllocator.newSymbol(input.getName(), symbolAllocator.getTypes().get(input));
+                    groupingColumns.put(input, output);
+                }
+                groupBySymbols.add(output);
+                translations.put(fieldOrExpression, output);
+            }
+
+            ImmutableList.Builder<List<Symbol>> groupIdSets = ImmutableList.builder();
+            for (Set<FieldOrExpression> groupingSet : groupingSets) {
+                ImmutableSet.Builder<Symbol> groupIdSet = ImmutableSet.builder();
+                for (FieldOrExpression fieldOrExpression : groupingSet) {
+                    groupIdSet.add(groupingColumns.get(subPlan.translate(fieldOrExpression)));
+                }
+                groupIdSets.add(ImmutableList.copyOf(groupIdSet.build()));
+            }
+
+            Set<Symbol> argumentSymbols = new LinkedHashSet<>();
+            for (FieldOrExpression argument : arguments) {
+                argumentSymbols.add(subPlan.translate(argument));
+            }
+
+            Symbol groupIdSymbol = symbolAllocator.newSymbol("groupId", BIGINT);
+            GroupIdNode groupId = new GroupIdNode(idAllocator.getNextId(),
+                    subPlan.getRoot(),
+                    groupIdSets.build(),
+                    ImmutableBiMap.copyOf(groupingColumns).inverse(),
+                    ImmutableList.copyOf(argumentSymbols),
+                    groupIdSymbol);
+            subPlan = new PlanBuilder(subPlan.getTranslations(), groupId);
+            groupBySymbols.add(groupIdSymbol);
+        }
+        else {
+            for (FieldOrExpression fieldOrExpression : analysis.getGroupByExpressions(node)) {
+                Symbol symbol = subPlan.translate(fieldOrExpression);
+                groupBySymbols.add(symbol);
+                translations.put(fieldOrExpression, symbol);
+            }
+        }
+
+        // 2.c. Compute aggregates with DISTINCT by expanding the input into one grouping set per distinct argument set
+        Set<Set<Expression>> distinctArguments = IterableTransformer.on(analysis.getAggregates(node))
+                .select(distinctPredicate())
+                .transform(new Function<FunctionCall, Set<Expression>>()
+                {
+                    @Override
+                    public Set<Expression> apply(FunctionCall input)
+                    {
+                        return ImmutableSet.copyOf(input.getArguments());
+                    }
+                })
+                .set();
+
+        if (distinctArguments.size() >= MIN_DISTINCT_ARGUMENT_SETS_FOR_EXPANSION &&
+                groupingSets.size() == 1 &&
+                Iterables.all(analysis.getAggregates(node), distinctPredicate()) &&
+                !analysis.getQuery().getApproximate().isPresent()) {
+            PlanNode root = planDistinctAggregationExpansion(subPlan, translations, groupBySymbols, distinctArguments, aggregationAssignments.build(), functions.build(), node);
+            subPlan = new PlanBuilder(translations, root);
+        }
+        else {
+            subPlan = planMarkDistinctAggregation(subPlan, translations, groupBySymbols, aggregationAssignments.build(), functions.build(), node);
+        }
+
+        // 3. Post-projection
+        // Add back the implicit casts that we removed in 2.a
+        // TODO: this is a hack, we should change type coercions to coerce the inputs to functions/operators instead of coercing the output
+        if (needPostProjectionCoercion) {
+            return explicitCoercionFields(subPlan, analysis.getGroupByExpressions(node), analysis.getAggregates(node));
         }
+        return subPlan;
+    }
 
-        // 2.c. Mark distinct rows for each aggregate that has DISTINCT
+    /**
+     * Marks the distinct rows of each DISTINCT argument set with a {@link MarkDistinctNode} and
+     * uses the markers as masks for the aggregation.
+     */
+    private PlanBuilder planMarkDistinctAggregation(PlanBuilder subPlan, TranslationMap translations, Set<Symbol> groupBySymbols, Map<Symbol, FunctionCall> aggregations, Map<Symbol, Signature> functions, QuerySpecification node)
+    {
         // Map from aggregate function arguments to marker symbols, so that we can reuse the markers, if two aggregates have the same argument
         Map<Set<Expression>, Symbol> argumentMarkers = new HashMap<>();
         // Map from aggregate functions to marker symbols
@@ -361,15 +453,102 @@ class QueryPlanner
             confidence = Double.valueOf(analysis.getQuery().getApproximate().get().getConfidence()) / 100.0;
         }
 
-        subPlan = new PlanBuilder(translations, new AggregationNode(idAllocator.getNextId(), subPlan.getRoot(), ImmutableList.copyOf(groupBySymbols), aggregationAssignments.build(), functions.build(), new ImmutableMap.Builder<Symbol, Symbol>().putAll(masks).build(), Optional.<Symbol>absent(), confidence));
+        return new PlanBuilder(translations, new AggregationNode(idAllocator.getNextId(), subPlan.getRoot(), ImmutableList.copyOf(groupBySymbols), aggregations, functions, new ImmutableMap.Builder<Symbol, Symbol>().putAll(masks).build(), Optional.<Symbol>absent(), confidence));
+    }
 
-        // 3. Post-projection
-        // Add back the implicit casts that we removed in 2.a
-        // TODO: this is a hack, we should change type coercions to coerce the inputs to functions/operators instead of coercing the output
-        if (needPostProjectionCoercion) {
-            return explicitCoercionFields(subPlan, analysis.getGroupByExpressions(node), analysis.getAggregates(node));
+    /**
+     * Computes aggregates with DISTINCT over several argument sets without holding a hash per argument set.
+     * Every input row is replicated once per argument set by a {@link GroupIdNode}, with the columns of the
+     * other argument sets set to null. A first aggregation removes the duplicates of each (group, argument set)
+     * and a second aggregation computes the aggregates over the rows of the matching argument set only.
+     * Both aggregations are ordinary hash aggregations, so the de-duplication is distributed by the
+     * grouping and argument columns instead of by the grouping columns alone.
+     */
+    private PlanNode planDistinctAggregationExpansion(PlanBuilder subPlan, TranslationMap translations, Set<Symbol> groupBySymbols, Set<Set<Expression>> distinctArguments, Map<Symbol, FunctionCall> aggregations, Map<Symbol, Signature> functions, QuerySpecification node)
+    {
+        Map<Symbol, Type> types = symbolAllocator.getTypes();
+
+        // Replicate the input once per distinct argument set
+        Map<Symbol, Symbol> groupingColumns = new LinkedHashMap<>();
+        Map<Set<Expression>, Integer> groupIds = new HashMap<>();
+        ImmutableList.Builder<List<Symbol>> groupingSets = ImmutableList.builder();
+        for (Set<Expression> arguments : distinctArguments) {
+            ImmutableList.Builder<Symbol> groupingSet = ImmutableList.builder();
+            for (Expression argument : arguments) {
+                Symbol input = subPlan.translate(argument);
+                Symbol output = groupingColumns.get(input);
+                if (output == null) {
+                    output = symbolAllocator.newSymbol(input.getName(), types.get(input));
+                    groupingColumns.put(input, output);
+                }
+                groupingSet.add(output);
+            }
+            groupIds.put(arguments, groupIds.size());
+            groupingSets.add(groupingSet.build());
         }
-        return subPlan;
+
+        Symbol groupIdSymbol = symbolAllocator.newSymbol("groupId", BIGINT);
+        GroupIdNode groupId = new GroupIdNode(idAllocator.getNextId(),
+                subPlan.getRoot(),
+                groupingSets.build(),
+                ImmutableBiMap.copyOf(groupingColumns).inverse(),
+                ImmutableList.copyOf(groupBySymbols),
+                groupIdSymbol);
+
+        // Remove duplicate rows within each group and argument set
+        List<Symbol> distinctSymbols = ImmutableList.<Symbol>builder()
+                .addAll(groupBySymbols)
+                .addAll(groupingColumns.values())
+                .add(groupIdSymbol)
+                .build();
+        PlanNode distinct = new AggregationNode(idAllocator.getNextId(),
+                groupId,
+                distinctSymbols,
+                ImmutableMap.<Symbol, FunctionCall>of(),
+                ImmutableMap.<Symbol, Signature>of(),
+                ImmutableMap.<Symbol, Symbol>of(),
+                Optional.<Symbol>absent(),
+                1.0);
+
+        // Compute a mask for each argument set
+        ImmutableMap.Builder<Symbol, Expression> projections = ImmutableMap.builder();
+        for (Symbol symbol : distinct.getOutputSymbols()) {
+            projections.put(symbol, new QualifiedNameReference(symbol.toQualifiedName()));
+        }
+        Map<Set<Expression>, Symbol> groupIdMasks = new HashMap<>();
+        for (Map.Entry<Set<Expression>, Integer> entry : groupIds.entrySet()) {
+            Symbol mask = symbolAllocator.newSymbol("mask", BOOLEAN);
+            projections.put(mask, new ComparisonExpression(ComparisonExpression.Type.EQUAL,
+                    new QualifiedNameReference(groupIdSymbol.toQualifiedName()),
+                    new LongLiteral(String.valueOf(entry.getValue()))));
+            groupIdMasks.put(entry.getKey(), mask);
+        }
+        PlanNode masked = new ProjectNode(idAllocator.getNextId(), distinct, projections.build());
+
+        // Aggregate the rows of each argument set, the duplicates have already been removed
+        ImmutableMap.Builder<Symbol, FunctionCall> rewrittenAggregations = ImmutableMap.builder();
+        ImmutableMap.Builder<Symbol, Symbol> masks = ImmutableMap.builder();
+        for (FunctionCall aggregate : analysis.getAggregates(node)) {
+            Symbol aggregateSymbol = translations.get(aggregate);
+            FunctionCall call = aggregations.get(aggregateSymbol);
+
+            ImmutableList.Builder<Expression> arguments = ImmutableList.builder();
+            for (Expression argument : call.getArguments()) {
+                Symbol symbol = groupingColumns.get(Symbol.fromQualifiedName(((QualifiedNameReference) argument).getName()));
+                arguments.add(new QualifiedNameReference(symbol.toQualifiedName()));
+            }
+            rewrittenAggregations.put(aggregateSymbol, new FunctionCall(call.getName(), call.getWindow().orNull(), false, arguments.build()));
+            masks.put(aggregateSymbol, groupIdMasks.get(ImmutableSet.copyOf(aggregate.getArguments())));
+        }
+
+        return new AggregationNode(idAllocator.getNextId(),
+                masked,
+                ImmutableList.copyOf(groupBySymbols),
+                rewrittenAggregations.build(),
+                functions,
+                masks.build(),
+                Optional.<Symbol>absent(),
+                1.0);
     }
 
     private PlanBuilder window(PlanBuilder subPlan, QuerySpecification node)
@@ -380,30 +559,70 @@ class QueryPlanner
         }
 
         for (FunctionCall windowFunction : windowFunctions) {
+            Window window = windowFunction.getWindow().get();
+
+            // Extract frame
+            WindowFrame.Type frameType = WindowFrame.Type.RANGE;
+            FrameBound.Type frameStartType = FrameBound.Type.UNBOUNDED_PRECEDING;
+            FrameBound.Type frameEndType = FrameBound.Type.CURRENT_ROW;
+            Expression frameStart = null;
+            Expression frameEnd = null;
+
+            if (window.getFrame().isPresent()) {
+                WindowFrame frame = window.getFrame().get();
+                frameType = frame.getType();
+
+                frameStartType = frame.getStart().getType();
+                frameStart = frame.getStart().getValue().orNull();
+
+                if (frame.getEnd().isPresent()) {
+                    frameEndType = frame.getEnd().get().getType();
+                    frameEnd = frame.getEnd().get().getValue().orNull();
+                }
+            }
+
             // Pre-project inputs
-            ImmutableList<Expression> inputs = ImmutableList.<Expression>builder()
+            ImmutableList.Builder<Expression> inputs = ImmutableList.<Expression>builder()
                     .addAll(windowFunction.getArguments())
-                    .addAll(windowFunction.getWindow().get().getPartitionBy())
-                    .addAll(Iterables.transform(windowFunction.getWindow().get().getOrderBy(), sortKeyGetter()))
-                    .build();
+                    .addAll(window.getPartitionBy())
+                    .addAll(Iterables.transform(window.getOrderBy(), sortKeyGetter()));
+
+            if (frameStart != null) {
+                inputs.add(frameStart);
+            }
+            if (frameEnd != null) {
+                inputs.add(frameEnd);
+            }
 
-            subPlan = appendProjections(subPlan, inputs);
+            subPlan = appendProjections(subPlan, inputs.build());
 
             // Rewrite PARTITION BY in terms of pre-projected inputs
             ImmutableList.Builder<Symbol> partitionBySymbols = ImmutableList.builder();
-            for (Expression expression : windowFunction.getWindow().get().getPartitionBy()) {
+            for (Expression expression : window.getPartitionBy()) {
                 partitionBySymbols.add(subPlan.translate(expression));
             }
 
             // Rewrite ORDER BY in terms of pre-projected inputs
             ImmutableList.Builder<Symbol> orderBySymbols = ImmutableList.builder();
             Map<Symbol, SortOrder> orderings = new HashMap<>();
-            for (SortItem item : windowFunction.getWindow().get().getOrderBy()) {
+            for (SortItem item : window.getOrderBy()) {
                 Symbol symbol = subPlan.translate(item.getSortKey());
                 orderBySymbols.add(symbol);
                 orderings.put(symbol, toSortOrder(item));
             }
 
+            // Rewrite frame bounds in terms of pre-projected inputs
+            Optional<Symbol> frameStartSymbol = Optional.absent();
+            Optional<Symbol> frameEndSymbol = Optional.absent();
+            if (frameStart != null) {
+                frameStartSymbol = Optional.of(subPlan.translate(frameStart));
+            }
+            if (frameEnd != null) {
+                frameEndSymbol = Optional.of(subPlan.translate(frameEnd));
+            }
+
+            WindowNode.Frame frame = new WindowNode.Frame(frameType, frameStartType, frameStartSymbol, frameEndType, frameEndSymbol);
+
             TranslationMap outputTranslations = new TranslationMap(subPlan.getRelationPlan(), analysis);
             outputTranslations.copyMappingsFrom(subPlan.getTranslations());
 
@@ -428,7 +647,7 @@ class QueryPlanner
 
             // create window node
             subPlan = new PlanBuilder(outputTranslations,
-                    new WindowNode(idAllocator.getNextId(), subPlan.getRoot(), partitionBySymbols.build(), orderBySymbols.build(), orderings, assignments.build(), signatures));
+                    new WindowNode(idAllocator.getNextId(), subPlan.getRoot(), partitionBySymbols.build(), orderBySymbols.build(), orderings, frame, assignments.build(), signatures, ImmutableSet.<Symbol>of(), 0));
 
             if (needCoercion) {
                 subPlan = explicitCoercionSymbols(subPlan, sourceSymbols, ImmutableList.of(windowFunction));
@@ -13,11 +13,13 @@
  */
 package com.facebook.presto.sql.planner;
 
+import com.facebook.presto.metadata.Bucketing;
 import com.facebook.presto.sql.planner.PlanFragment.OutputPartitioning;
 import com.facebook.presto.sql.planner.PlanFragment.PlanDistribution;
 import com.facebook.presto.sql.planner.plan.PlanFragmentId;
 import com.facebook.presto.sql.planner.plan.PlanNode;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -28,19 +30,23 @@ import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Predicates.in;
 
 public class SubPlanBuilder
 {
     private final PlanFragmentId id;
     private final SymbolAllocator allocator;
-    private final PlanDistribution distribution;
     private final PlanNodeId partitionedSource;
 
+    private PlanDistribution distribution;
     private PlanNode root;
     private List<Symbol> partitionBy = ImmutableList.of();
     private List<SubPlan> children = new ArrayList<>();
     private OutputPartitioning outputPartitioning = OutputPartitioning.NONE;
+    private List<PlanNodeId> colocatedSources = ImmutableList.of();
+    private Optional<Bucketing> bucketing = Optional.absent();
+    private List<Symbol> bucketSymbols = ImmutableList.of();
 
     public SubPlanBuilder(PlanFragmentId id, SymbolAllocator allocator, PlanDistribution distribution, PlanNode root, PlanNodeId partitionedSource)
     {
@@ -105,11 +111,68 @@ public class SubPlanBuilder
         return this;
     }
 
+    public PlanNodeId getPartitionedSource()
+    {
+        return partitionedSource;
+    }
+
+    public List<PlanNodeId> getColocatedSources()
+    {
+        return colocatedSources;
+    }
+
+    /**
+     * Gets the bucketing of the data produced by the current root, if the data is still
+     * split by bucket. The bucket symbols correspond positionally to the bucketing columns.
+     */
+    public Optional<Bucketing> getBucketing()
+    {
+        return bucketing;
+    }
+
+    public List<Symbol> getBucketSymbols()
+    {
+        return bucketSymbols;
+    }
+
+    public SubPlanBuilder setBucketing(Bucketing bucketing, List<Symbol> bucketSymbols)
+    {
+        checkNotNull(bucketing, "bucketing is null");
+        checkNotNull(bucketSymbols, "bucketSymbols is null");
+        checkArgument(bucketing.getColumns().size() == bucketSymbols.size(), "bucketSymbols does not match the bucketing columns");
+        checkState(distribution == PlanDistribution.SOURCE || distribution == PlanDistribution.BUCKETED, "only source partitioned plans can be bucketed");
+        this.bucketing = Optional.of(bucketing);
+        this.bucketSymbols = ImmutableList.copyOf(bucketSymbols);
+        return this;
+    }
+
+    public SubPlanBuilder clearBucketing()
+    {
+        this.bucketing = Optional.absent();
+        this.bucketSymbols = ImmutableList.of();
+        return this;
+    }
+
+    /**
+     * Requires the splits of the partitioned source and of the specified colocated sources to be assigned
+     * to tasks by bucket number, so that the current root can rely on the bucketing of its input.
+     */
+    public SubPlanBuilder setBucketedDistribution(Iterable<PlanNodeId> colocatedSources)
+    {
+        checkState(bucketing.isPresent(), "plan is not bucketed");
+        this.distribution = PlanDistribution.BUCKETED;
+        this.colocatedSources = ImmutableList.<PlanNodeId>builder()
+                .addAll(this.colocatedSources)
+                .addAll(colocatedSources)
+                .build();
+        return this;
+    }
+
     public SubPlan build()
     {
         Set<Symbol> dependencies = SymbolExtractor.extract(root);
 
-        PlanFragment fragment = new PlanFragment(id, root, Maps.filterKeys(allocator.getTypes(), in(dependencies)), distribution, partitionedSource, outputPartitioning, partitionBy);
+        PlanFragment fragment = new PlanFragment(id, root, Maps.filterKeys(allocator.getTypes(), in(dependencies)), distribution, partitionedSource, colocatedSources, outputPartitioning, partitionBy);
 
         return new SubPlan(fragment, children);
     }
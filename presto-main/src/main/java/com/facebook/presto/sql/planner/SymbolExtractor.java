@@ -18,6 +18,7 @@ import com.facebook.presto.sql.planner.plan.DistinctLimitNode;
 import com.facebook.presto.sql.planner.plan.MaterializeSampleNode;
 import com.facebook.presto.sql.planner.plan.ExchangeNode;
 import com.facebook.presto.sql.planner.plan.FilterNode;
+import com.facebook.presto.sql.planner.plan.GroupIdNode;
 import com.facebook.presto.sql.planner.plan.IndexJoinNode;
 import com.facebook.presto.sql.planner.plan.IndexSourceNode;
 import com.facebook.presto.sql.planner.plan.JoinNode;
@@ -97,6 +98,17 @@ public final class SymbolExtractor
             return null;
         }
 
+        @Override
+        public Void visitGroupId(GroupIdNode node, Void context)
+        {
+            node.getSource().accept(this, context);
+
+            builder.addAll(node.getGroupingColumns().keySet());
+            builder.add(node.getGroupIdSymbol());
+
+            return null;
+        }
+
         @Override
         public Void visitMarkDistinct(MarkDistinctNode node, Void context)
         {
@@ -0,0 +1,259 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.optimizations;
+
+import com.facebook.presto.spi.block.SortOrder;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.plan.FilterNode;
+import com.facebook.presto.sql.planner.plan.LimitNode;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.PlanVisitor;
+import com.facebook.presto.sql.planner.plan.ProjectNode;
+import com.facebook.presto.sql.planner.plan.SortNode;
+import com.facebook.presto.sql.planner.plan.TopNNode;
+import com.facebook.presto.sql.planner.plan.WindowNode;
+import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.QualifiedNameReference;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import javax.annotation.concurrent.Immutable;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Describes the order in which a plan node produces its rows within a single stream.
+ * All rows with equal values for the grouping symbols are contiguous, and the rows of
+ * each such group are sorted by the sort symbols.
+ */
+@Immutable
+public class LocalProperties
+{
+    private static final LocalProperties UNORDERED = new LocalProperties(ImmutableSet.<Symbol>of(), ImmutableList.<Symbol>of(), ImmutableMap.<Symbol, SortOrder>of());
+
+    private final Set<Symbol> groupingSymbols;
+    private final List<Symbol> sortSymbols;
+    private final Map<Symbol, SortOrder> sortOrders;
+
+    public LocalProperties(Set<Symbol> groupingSymbols, List<Symbol> sortSymbols, Map<Symbol, SortOrder> sortOrders)
+    {
+        checkNotNull(groupingSymbols, "groupingSymbols is null");
+        checkNotNull(sortSymbols, "sortSymbols is null");
+        checkNotNull(sortOrders, "sortOrders is null");
+        checkArgument(sortOrders.keySet().containsAll(sortSymbols), "sortOrders is missing sort symbols");
+
+        this.groupingSymbols = ImmutableSet.copyOf(groupingSymbols);
+        this.sortSymbols = ImmutableList.copyOf(sortSymbols);
+        this.sortOrders = ImmutableMap.copyOf(sortOrders);
+    }
+
+    public static LocalProperties unordered()
+    {
+        return UNORDERED;
+    }
+
+    public static LocalProperties derive(PlanNode node)
+    {
+        return node.accept(new Visitor(), null);
+    }
+
+    public Set<Symbol> getGroupingSymbols()
+    {
+        return groupingSymbols;
+    }
+
+    public List<Symbol> getSortSymbols()
+    {
+        return sortSymbols;
+    }
+
+    public Map<Symbol, SortOrder> getSortOrders()
+    {
+        return sortOrders;
+    }
+
+    /**
+     * Returns the subset of the partition symbols by which the rows are already grouped.
+     */
+    public Set<Symbol> getGroupedSubset(List<Symbol> partitionBy)
+    {
+        if (!partitionBy.containsAll(groupingSymbols)) {
+            return ImmutableSet.of();
+        }
+
+        // rows sorted by a symbol within a group are also grouped by that symbol
+        ImmutableSet.Builder<Symbol> grouped = ImmutableSet.<Symbol>builder().addAll(groupingSymbols);
+        for (Symbol symbol : sortSymbols) {
+            if (!partitionBy.contains(symbol)) {
+                break;
+            }
+            grouped.add(symbol);
+        }
+        return grouped.build();
+    }
+
+    /**
+     * Returns the number of leading order by symbols by which the rows of every partition
+     * are already sorted, or zero if the rows are not grouped by all of the partition symbols.
+     */
+    public int getSortedPrefix(List<Symbol> partitionBy, List<Symbol> orderBy, Map<Symbol, SortOrder> orderings)
+    {
+        if (!partitionBy.containsAll(groupingSymbols) || !getGroupedSubset(partitionBy).containsAll(partitionBy)) {
+            return 0;
+        }
+
+        // skip the sort symbols that are constant within a partition
+        int position = 0;
+        while (position < sortSymbols.size() && partitionBy.contains(sortSymbols.get(position))) {
+            position++;
+        }
+
+        int prefix = 0;
+        while (prefix < orderBy.size() && position < sortSymbols.size()) {
+            Symbol symbol = orderBy.get(prefix);
+            if (!symbol.equals(sortSymbols.get(position)) || orderings.get(symbol) != sortOrders.get(symbol)) {
+                break;
+            }
+            prefix++;
+            position++;
+        }
+        return prefix;
+    }
+
+    /**
+     * Translates the properties through a projection, keeping only what is still
+     * expressible in terms of the projected symbols.
+     */
+    public LocalProperties translate(Map<Symbol, Symbol> mappings)
+    {
+        ImmutableSet.Builder<Symbol> grouping = ImmutableSet.builder();
+        for (Symbol symbol : groupingSymbols) {
+            if (!mappings.containsKey(symbol)) {
+                // the rows are not grouped by any remaining subset of the symbols
+                return unordered();
+            }
+            grouping.add(mappings.get(symbol));
+        }
+
+        ImmutableList.Builder<Symbol> sort = ImmutableList.builder();
+        ImmutableMap.Builder<Symbol, SortOrder> orders = ImmutableMap.builder();
+        for (Symbol symbol : sortSymbols) {
+            if (!mappings.containsKey(symbol)) {
+                break;
+            }
+            sort.add(mappings.get(symbol));
+            orders.put(mappings.get(symbol), sortOrders.get(symbol));
+        }
+
+        return new LocalProperties(grouping.build(), sort.build(), orders.build());
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hashCode(groupingSymbols, sortSymbols, sortOrders);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        LocalProperties other = (LocalProperties) obj;
+        return Objects.equal(this.groupingSymbols, other.groupingSymbols) &&
+                Objects.equal(this.sortSymbols, other.sortSymbols) &&
+                Objects.equal(this.sortOrders, other.sortOrders);
+    }
+
+    @Override
+    public String toString()
+    {
+        return Objects.toStringHelper(this)
+                .add("groupingSymbols", groupingSymbols)
+                .add("sortSymbols", sortSymbols)
+                .add("sortOrders", sortOrders)
+                .toString();
+    }
+
+    private static class Visitor
+            extends PlanVisitor<Void, LocalProperties>
+    {
+        @Override
+        protected LocalProperties visitPlan(PlanNode node, Void context)
+        {
+            // exchanges, joins, aggregations, etc. do not guarantee any order
+            return unordered();
+        }
+
+        @Override
+        public LocalProperties visitSort(SortNode node, Void context)
+        {
+            return new LocalProperties(ImmutableSet.<Symbol>of(), node.getOrderBy(), node.getOrderings());
+        }
+
+        @Override
+        public LocalProperties visitTopN(TopNNode node, Void context)
+        {
+            return new LocalProperties(ImmutableSet.<Symbol>of(), node.getOrderBy(), node.getOrderings());
+        }
+
+        @Override
+        public LocalProperties visitWindow(WindowNode node, Void context)
+        {
+            return new LocalProperties(ImmutableSet.copyOf(node.getPartitionBy()), node.getOrderBy(), node.getOrderings());
+        }
+
+        @Override
+        public LocalProperties visitFilter(FilterNode node, Void context)
+        {
+            return node.getSource().accept(this, context);
+        }
+
+        @Override
+        public LocalProperties visitLimit(LimitNode node, Void context)
+        {
+            return node.getSource().accept(this, context);
+        }
+
+        @Override
+        public LocalProperties visitProject(ProjectNode node, Void context)
+        {
+            LocalProperties properties = node.getSource().accept(this, context);
+
+            Map<Symbol, Symbol> mappings = new HashMap<>();
+            for (Map.Entry<Symbol, Expression> entry : node.getOutputMap().entrySet()) {
+                Expression expression = entry.getValue();
+                if (expression instanceof QualifiedNameReference) {
+                    Symbol source = Symbol.fromQualifiedName(((QualifiedNameReference) expression).getName());
+                    if (!mappings.containsKey(source)) {
+                        mappings.put(source, entry.getKey());
+                    }
+                }
+            }
+            return properties.translate(mappings);
+        }
+    }
+}
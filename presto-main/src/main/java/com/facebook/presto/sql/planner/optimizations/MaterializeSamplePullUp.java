@@ -25,6 +25,7 @@ import com.facebook.presto.sql.planner.plan.DistinctLimitNode;
 import com.facebook.presto.sql.planner.plan.FilterNode;
 import com.facebook.presto.sql.planner.plan.JoinNode;
 import com.facebook.presto.sql.planner.plan.LimitNode;
+import com.facebook.presto.sql.planner.plan.GroupIdNode;
 import com.facebook.presto.sql.planner.plan.MarkDistinctNode;
 import com.facebook.presto.sql.planner.plan.MaterializeSampleNode;
 import com.facebook.presto.sql.planner.plan.PlanNode;
@@ -102,7 +103,7 @@ public class MaterializeSamplePullUp
             if (source instanceof MaterializeSampleNode) {
                 checkArgument(node.isSampleWeightSupported(), "Cannot write sampled data to a store that doesn't support sampling");
                 ConnectorTableMetadata connectorTableMetadata = node.getTableMetadata().getMetadata();
-                connectorTableMetadata = new ConnectorTableMetadata(connectorTableMetadata.getTable(), connectorTableMetadata.getColumns(), connectorTableMetadata.getOwner(), true);
+                connectorTableMetadata = new ConnectorTableMetadata(connectorTableMetadata.getTable(), connectorTableMetadata.getColumns(), connectorTableMetadata.getProperties(), connectorTableMetadata.getOwner(), true);
                 return new TableWriterNode(node.getId(),
                         ((MaterializeSampleNode) source).getSource(),
                         node.getTarget(),
@@ -208,6 +209,25 @@ public class MaterializeSamplePullUp
             }
         }
 
+        @Override
+        public PlanNode rewriteGroupId(GroupIdNode node, Void context, PlanRewriter<Void> planRewriter)
+        {
+            PlanNode source = planRewriter.rewrite(node.getSource(), null);
+            if (source instanceof MaterializeSampleNode) {
+                // every replicated row keeps the weight of the row it was copied from
+                Symbol sampleWeightSymbol = ((MaterializeSampleNode) source).getSampleWeightSymbol();
+                List<Symbol> arguments = ImmutableList.<Symbol>builder()
+                        .addAll(node.getArgumentSymbols())
+                        .add(sampleWeightSymbol)
+                        .build();
+                node = new GroupIdNode(node.getId(), ((MaterializeSampleNode) source).getSource(), node.getGroupingSets(), node.getGroupingColumns(), arguments, node.getGroupIdSymbol());
+                return new MaterializeSampleNode(source.getId(), node, sampleWeightSymbol);
+            }
+            else {
+                return new GroupIdNode(node.getId(), source, node.getGroupingSets(), node.getGroupingColumns(), node.getArgumentSymbols(), node.getGroupIdSymbol());
+            }
+        }
+
         @Override
         public PlanNode rewriteMarkDistinct(MarkDistinctNode node, Void context, PlanRewriter<Void> planRewriter)
         {
@@ -798,7 +798,7 @@ public class PredicatePushDown
 
             // Do some early partition pruning
             partitions = ImmutableList.copyOf(filter(partitions, not(shouldPrunePartition(postScanPredicate, node.getAssignments()))));
-            GeneratedPartitions generatedPartitions = new GeneratedPartitions(tupleDomain, partitions);
+            GeneratedPartitions generatedPartitions = new GeneratedPartitions(tupleDomain, partitions, matchingPartitions.getBucketing());
 
             PlanNode output = node;
             if (!node.getGeneratedPartitions().equals(Optional.of(generatedPartitions))) {
@@ -23,6 +23,7 @@ import com.facebook.presto.sql.planner.SymbolAllocator;
 import com.facebook.presto.sql.planner.plan.AggregationNode;
 import com.facebook.presto.sql.planner.plan.DistinctLimitNode;
 import com.facebook.presto.sql.planner.plan.FilterNode;
+import com.facebook.presto.sql.planner.plan.GroupIdNode;
 import com.facebook.presto.sql.planner.plan.IndexJoinNode;
 import com.facebook.presto.sql.planner.plan.IndexSourceNode;
 import com.facebook.presto.sql.planner.plan.JoinNode;
@@ -223,6 +224,13 @@ public class PruneUnreferencedOutputs
                     .addAll(node.getPartitionBy())
                     .addAll(node.getOrderBy());
 
+            if (node.getFrame().getStartValue().isPresent()) {
+                expectedInputs.add(node.getFrame().getStartValue().get());
+            }
+            if (node.getFrame().getEndValue().isPresent()) {
+                expectedInputs.add(node.getFrame().getEndValue().get());
+            }
+
             ImmutableMap.Builder<Symbol, Signature> functions = ImmutableMap.builder();
             ImmutableMap.Builder<Symbol, FunctionCall> functionCalls = ImmutableMap.builder();
             for (Map.Entry<Symbol, FunctionCall> entry : node.getWindowFunctions().entrySet()) {
@@ -239,7 +247,7 @@ public class PruneUnreferencedOutputs
 
             PlanNode source = planRewriter.rewrite(node.getSource(), expectedInputs.build());
 
-            return new WindowNode(node.getId(), source, node.getPartitionBy(), node.getOrderBy(), node.getOrderings(), functionCalls.build(), functions.build());
+            return new WindowNode(node.getId(), source, node.getPartitionBy(), node.getOrderBy(), node.getOrderings(), node.getFrame(), functionCalls.build(), functions.build(), node.getPrePartitionedInputs(), node.getPreSortedOrderPrefix());
         }
 
         @Override
@@ -302,6 +310,22 @@ public class PruneUnreferencedOutputs
             return new MaterializeSampleNode(node.getId(), source, node.getSampleWeightSymbol());
         }
 
+        @Override
+        public PlanNode rewriteGroupId(GroupIdNode node, Set<Symbol> expectedOutputs, PlanRewriter<Set<Symbol>> planRewriter)
+        {
+            // grouping columns are always kept, since they determine the rows of every grouping set
+            List<Symbol> arguments = ImmutableList.copyOf(Iterables.filter(node.getArgumentSymbols(), in(expectedOutputs)));
+
+            Set<Symbol> expectedInputs = ImmutableSet.<Symbol>builder()
+                    .addAll(node.getGroupingColumns().values())
+                    .addAll(arguments)
+                    .build();
+
+            PlanNode source = planRewriter.rewrite(node.getSource(), expectedInputs);
+
+            return new GroupIdNode(node.getId(), source, node.getGroupingSets(), node.getGroupingColumns(), arguments, node.getGroupIdSymbol());
+        }
+
         @Override
         public PlanNode rewriteMarkDistinct(MarkDistinctNode node, Set<Symbol> expectedOutputs, PlanRewriter<Set<Symbol>> planRewriter)
         {
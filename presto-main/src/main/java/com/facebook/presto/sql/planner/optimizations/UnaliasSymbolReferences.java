@@ -24,6 +24,7 @@ import com.facebook.presto.sql.planner.Symbol;
 import com.facebook.presto.sql.planner.SymbolAllocator;
 import com.facebook.presto.sql.planner.plan.AggregationNode;
 import com.facebook.presto.sql.planner.plan.FilterNode;
+import com.facebook.presto.sql.planner.plan.GroupIdNode;
 import com.facebook.presto.sql.planner.plan.IndexJoinNode;
 import com.facebook.presto.sql.planner.plan.IndexSourceNode;
 import com.facebook.presto.sql.planner.plan.JoinNode;
@@ -143,6 +144,25 @@ public class UnaliasSymbolReferences
             return new MarkDistinctNode(node.getId(), source, canonicalize(node.getMarkerSymbol()), symbols, canonicalize(node.getSampleWeightSymbol()));
         }
 
+        @Override
+        public PlanNode rewriteGroupId(GroupIdNode node, Void context, PlanRewriter<Void> planRewriter)
+        {
+            PlanNode source = planRewriter.rewrite(node.getSource(), context);
+
+            ImmutableMap.Builder<Symbol, Symbol> groupingColumns = ImmutableMap.builder();
+            for (Map.Entry<Symbol, Symbol> entry : node.getGroupingColumns().entrySet()) {
+                groupingColumns.put(canonicalize(entry.getKey()), canonicalize(entry.getValue()));
+            }
+
+            ImmutableList.Builder<List<Symbol>> groupingSets = ImmutableList.builder();
+            for (List<Symbol> groupingSet : node.getGroupingSets()) {
+                groupingSets.add(ImmutableList.copyOf(canonicalize(groupingSet)));
+            }
+
+            List<Symbol> arguments = ImmutableList.copyOf(ImmutableSet.copyOf(canonicalize(node.getArgumentSymbols())));
+            return new GroupIdNode(node.getId(), source, groupingSets.build(), groupingColumns.build(), arguments, canonicalize(node.getGroupIdSymbol()));
+        }
+
         @Override
         public PlanNode rewriteMaterializeSample(MaterializeSampleNode node, Void context, PlanRewriter<Void> planRewriter)
         {
@@ -169,7 +189,12 @@ public class UnaliasSymbolReferences
                 orderings.put(canonicalize(entry.getKey()), entry.getValue());
             }
 
-            return new WindowNode(node.getId(), source, canonicalize(node.getPartitionBy()), canonicalize(node.getOrderBy()), orderings.build(), functionCalls.build(), functionInfos.build());
+            WindowNode.Frame frame = node.getFrame();
+            frame = new WindowNode.Frame(frame.getType(),
+                    frame.getStartType(), canonicalize(frame.getStartValue()),
+                    frame.getEndType(), canonicalize(frame.getEndValue()));
+
+            return new WindowNode(node.getId(), source, canonicalize(node.getPartitionBy()), canonicalize(node.getOrderBy()), orderings.build(), frame, functionCalls.build(), functionInfos.build(), canonicalize(node.getPrePartitionedInputs()), node.getPreSortedOrderPrefix());
         }
 
         @Override
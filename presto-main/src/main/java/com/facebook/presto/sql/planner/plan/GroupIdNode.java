@@ -0,0 +1,119 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.plan;
+
+import com.facebook.presto.sql.planner.Symbol;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import javax.annotation.concurrent.Immutable;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+@Immutable
+public class GroupIdNode
+        extends PlanNode
+{
+    private final PlanNode source;
+    private final List<List<Symbol>> groupingSets;
+    // output grouping column -> source column
+    private final Map<Symbol, Symbol> groupingColumns;
+    private final List<Symbol> argumentSymbols;
+    private final Symbol groupIdSymbol;
+
+    @JsonCreator
+    public GroupIdNode(@JsonProperty("id") PlanNodeId id,
+            @JsonProperty("source") PlanNode source,
+            @JsonProperty("groupingSets") List<List<Symbol>> groupingSets,
+            @JsonProperty("groupingColumns") Map<Symbol, Symbol> groupingColumns,
+            @JsonProperty("argumentSymbols") List<Symbol> argumentSymbols,
+            @JsonProperty("groupIdSymbol") Symbol groupIdSymbol)
+    {
+        super(id);
+        this.source = checkNotNull(source, "source is null");
+        this.groupingColumns = ImmutableMap.copyOf(checkNotNull(groupingColumns, "groupingColumns is null"));
+        this.argumentSymbols = ImmutableList.copyOf(checkNotNull(argumentSymbols, "argumentSymbols is null"));
+        this.groupIdSymbol = checkNotNull(groupIdSymbol, "groupIdSymbol is null");
+
+        checkNotNull(groupingSets, "groupingSets is null");
+        checkArgument(!groupingSets.isEmpty(), "groupingSets is empty");
+        ImmutableList.Builder<List<Symbol>> sets = ImmutableList.builder();
+        for (List<Symbol> groupingSet : groupingSets) {
+            checkArgument(this.groupingColumns.keySet().containsAll(groupingSet), "Grouping set %s contains symbols that are not grouping columns", groupingSet);
+            sets.add(ImmutableList.copyOf(groupingSet));
+        }
+        this.groupingSets = sets.build();
+
+        checkArgument(source.getOutputSymbols().containsAll(this.groupingColumns.values()), "source does not output all grouping columns");
+        checkArgument(source.getOutputSymbols().containsAll(this.argumentSymbols), "source does not output all argument symbols");
+    }
+
+    @Override
+    public List<Symbol> getOutputSymbols()
+    {
+        return ImmutableList.<Symbol>builder()
+                .addAll(groupingColumns.keySet())
+                .addAll(argumentSymbols)
+                .add(groupIdSymbol)
+                .build();
+    }
+
+    @Override
+    public List<PlanNode> getSources()
+    {
+        return ImmutableList.of(source);
+    }
+
+    @JsonProperty
+    public PlanNode getSource()
+    {
+        return source;
+    }
+
+    @JsonProperty
+    public List<List<Symbol>> getGroupingSets()
+    {
+        return groupingSets;
+    }
+
+    @JsonProperty
+    public Map<Symbol, Symbol> getGroupingColumns()
+    {
+        return groupingColumns;
+    }
+
+    @JsonProperty
+    public List<Symbol> getArgumentSymbols()
+    {
+        return argumentSymbols;
+    }
+
+    @JsonProperty
+    public Symbol getGroupIdSymbol()
+    {
+        return groupIdSymbol;
+    }
+
+    @Override
+    public <C, R> R accept(PlanVisitor<C, R> visitor, C context)
+    {
+        return visitor.visitGroupId(this, context);
+    }
+}
@@ -148,6 +148,25 @@ public final class PlanRewriter<C>
             return node;
         }
 
+        @Override
+        public PlanNode visitGroupId(GroupIdNode node, Context<C> context)
+        {
+            if (!context.isDefaultRewrite()) {
+                PlanNode result = nodeRewriter.rewriteGroupId(node, context.get(), PlanRewriter.this);
+                if (result != null) {
+                    return result;
+                }
+            }
+
+            PlanNode source = rewrite(node.getSource(), context.get());
+
+            if (source != node.getSource()) {
+                return new GroupIdNode(node.getId(), source, node.getGroupingSets(), node.getGroupingColumns(), node.getArgumentSymbols(), node.getGroupIdSymbol());
+            }
+
+            return node;
+        }
+
         @Override
         public PlanNode visitWindow(WindowNode node, Context<C> context)
         {
@@ -161,7 +180,7 @@ public final class PlanRewriter<C>
             PlanNode source = rewrite(node.getSource(), context.get());
 
             if (source != node.getSource()) {
-                return new WindowNode(node.getId(), source, node.getPartitionBy(), node.getOrderBy(), node.getOrderings(), node.getWindowFunctions(), node.getSignatures());
+                return new WindowNode(node.getId(), source, node.getPartitionBy(), node.getOrderBy(), node.getOrderings(), node.getFrame(), node.getWindowFunctions(), node.getSignatures(), node.getPrePartitionedInputs(), node.getPreSortedOrderPrefix());
             }
 
             return node;
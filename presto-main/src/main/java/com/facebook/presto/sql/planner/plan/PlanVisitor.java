@@ -130,6 +130,11 @@ public class PlanVisitor<C, R>
         return visitPlan(node, context);
     }
 
+    public R visitGroupId(GroupIdNode node, C context)
+    {
+        return visitPlan(node, context);
+    }
+
     public R visitMaterializeSample(MaterializeSampleNode node, C context)
     {
         return visitPlan(node, context);
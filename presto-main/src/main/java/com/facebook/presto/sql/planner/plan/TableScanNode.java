@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.sql.planner.plan;
 
+import com.facebook.presto.metadata.Bucketing;
 import com.facebook.presto.metadata.ColumnHandle;
 import com.facebook.presto.metadata.Partition;
 import com.facebook.presto.metadata.TableHandle;
@@ -226,11 +227,18 @@ public class TableScanNode
     {
         private final TupleDomain<ColumnHandle> tupleDomainInput; // The TupleDomain used to generate the current list of Partitions
         private final List<Partition> partitions;
+        private final Optional<Bucketing> bucketing;
 
         public GeneratedPartitions(TupleDomain<ColumnHandle> tupleDomainInput, List<Partition> partitions)
+        {
+            this(tupleDomainInput, partitions, Optional.<Bucketing>absent());
+        }
+
+        public GeneratedPartitions(TupleDomain<ColumnHandle> tupleDomainInput, List<Partition> partitions, Optional<Bucketing> bucketing)
         {
             this.tupleDomainInput = checkNotNull(tupleDomainInput, "tupleDomainInput is null");
             this.partitions = ImmutableList.copyOf(checkNotNull(partitions, "partitions is null"));
+            this.bucketing = checkNotNull(bucketing, "bucketing is null");
         }
 
         public TupleDomain<ColumnHandle> getTupleDomainInput()
@@ -243,10 +251,15 @@ public class TableScanNode
             return partitions;
         }
 
+        public Optional<Bucketing> getBucketing()
+        {
+            return bucketing;
+        }
+
         @Override
         public int hashCode()
         {
-            return Objects.hashCode(tupleDomainInput, partitions);
+            return Objects.hashCode(tupleDomainInput, partitions, bucketing);
         }
 
         @Override
@@ -259,7 +272,8 @@ public class TableScanNode
                 return false;
             }
             final GeneratedPartitions other = (GeneratedPartitions) obj;
-            return Objects.equal(this.tupleDomainInput, other.tupleDomainInput) && Objects.equal(this.partitions, other.partitions);
+            return Objects.equal(this.tupleDomainInput, other.tupleDomainInput) && Objects.equal(this.partitions, other.partitions) &&
+                    Objects.equal(this.bucketing, other.bucketing);
         }
     }
 }
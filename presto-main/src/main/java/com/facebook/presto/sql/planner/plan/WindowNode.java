@@ -16,16 +16,22 @@ package com.facebook.presto.sql.planner.plan;
 import com.facebook.presto.metadata.Signature;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.tree.FrameBound;
 import com.facebook.presto.sql.tree.FunctionCall;
+import com.facebook.presto.sql.tree.WindowFrame;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 import javax.annotation.concurrent.Immutable;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -41,6 +47,9 @@ public class WindowNode
     private final Map<Symbol, SortOrder> orderings;
     private final Map<Symbol, FunctionCall> windowFunctions;
     private final Map<Symbol, Signature> functionHandles;
+    private final Frame frame;
+    private final Set<Symbol> prePartitionedInputs;
+    private final int preSortedOrderPrefix;
 
     @JsonCreator
     public WindowNode(
@@ -49,8 +58,11 @@ public class WindowNode
             @JsonProperty("partitionBy") List<Symbol> partitionBy,
             @JsonProperty("orderBy") List<Symbol> orderBy,
             @JsonProperty("orderings") Map<Symbol, SortOrder> orderings,
+            @JsonProperty("frame") Frame frame,
             @JsonProperty("windowFunctions") Map<Symbol, FunctionCall> windowFunctions,
-            @JsonProperty("signatures") Map<Symbol, Signature> signatures)
+            @JsonProperty("signatures") Map<Symbol, Signature> signatures,
+            @JsonProperty("prePartitionedInputs") Set<Symbol> prePartitionedInputs,
+            @JsonProperty("preSortedOrderPrefix") int preSortedOrderPrefix)
     {
         super(id);
 
@@ -58,16 +70,24 @@ public class WindowNode
         checkNotNull(partitionBy, "partitionBy is null");
         checkNotNull(orderBy, "orderBy is null");
         checkArgument(orderings.size() == orderBy.size(), "orderBy and orderings sizes don't match");
+        checkNotNull(frame, "frame is null");
         checkNotNull(windowFunctions, "windowFunctions is null");
         checkNotNull(signatures, "signatures is null");
         checkArgument(windowFunctions.keySet().equals(signatures.keySet()), "windowFunctions does not match signatures");
+        checkNotNull(prePartitionedInputs, "prePartitionedInputs is null");
+        checkArgument(partitionBy.containsAll(prePartitionedInputs), "prePartitionedInputs must be contained in partitionBy");
+        checkArgument(preSortedOrderPrefix >= 0 && preSortedOrderPrefix <= orderBy.size(), "preSortedOrderPrefix is out of range");
+        checkArgument(preSortedOrderPrefix == 0 || prePartitionedInputs.equals(ImmutableSet.copyOf(partitionBy)), "preSortedOrderPrefix requires all partitionBy symbols to be pre-partitioned");
 
         this.source = source;
         this.partitionBy = ImmutableList.copyOf(partitionBy);
         this.orderBy = ImmutableList.copyOf(orderBy);
         this.orderings = ImmutableMap.copyOf(orderings);
+        this.frame = frame;
         this.windowFunctions = ImmutableMap.copyOf(windowFunctions);
         this.functionHandles = ImmutableMap.copyOf(signatures);
+        this.prePartitionedInputs = ImmutableSet.copyOf(prePartitionedInputs);
+        this.preSortedOrderPrefix = preSortedOrderPrefix;
     }
 
     @Override
@@ -106,6 +126,12 @@ public class WindowNode
         return orderings;
     }
 
+    @JsonProperty
+    public Frame getFrame()
+    {
+        return frame;
+    }
+
     @JsonProperty
     public Map<Symbol, FunctionCall> getWindowFunctions()
     {
@@ -118,9 +144,127 @@ public class WindowNode
         return functionHandles;
     }
 
+    /**
+     * The partitionBy symbols by which the source output is already grouped.
+     */
+    @JsonProperty
+    public Set<Symbol> getPrePartitionedInputs()
+    {
+        return prePartitionedInputs;
+    }
+
+    /**
+     * The number of leading orderBy symbols by which each partition of the source output
+     * is already sorted. This is only non-zero if the input is grouped by all partitionBy symbols.
+     */
+    @JsonProperty
+    public int getPreSortedOrderPrefix()
+    {
+        return preSortedOrderPrefix;
+    }
+
     @Override
     public <C, R> R accept(PlanVisitor<C, R> visitor, C context)
     {
         return visitor.visitWindow(this, context);
     }
+
+    @Immutable
+    public static class Frame
+    {
+        private final WindowFrame.Type type;
+        private final FrameBound.Type startType;
+        private final Optional<Symbol> startValue;
+        private final FrameBound.Type endType;
+        private final Optional<Symbol> endValue;
+
+        @JsonCreator
+        public Frame(
+                @JsonProperty("type") WindowFrame.Type type,
+                @JsonProperty("startType") FrameBound.Type startType,
+                @JsonProperty("startValue") Optional<Symbol> startValue,
+                @JsonProperty("endType") FrameBound.Type endType,
+                @JsonProperty("endValue") Optional<Symbol> endValue)
+        {
+            this.type = checkNotNull(type, "type is null");
+            this.startType = checkNotNull(startType, "startType is null");
+            this.startValue = checkNotNull(startValue, "startValue is null");
+            this.endType = checkNotNull(endType, "endType is null");
+            this.endValue = checkNotNull(endValue, "endValue is null");
+        }
+
+        /**
+         * The frame used when the window specification has no frame clause:
+         * RANGE BETWEEN UNBOUNDED PRECEDING AND CURRENT ROW
+         */
+        public static Frame defaultFrame()
+        {
+            return new Frame(WindowFrame.Type.RANGE, FrameBound.Type.UNBOUNDED_PRECEDING, Optional.<Symbol>absent(), FrameBound.Type.CURRENT_ROW, Optional.<Symbol>absent());
+        }
+
+        @JsonProperty
+        public WindowFrame.Type getType()
+        {
+            return type;
+        }
+
+        @JsonProperty
+        public FrameBound.Type getStartType()
+        {
+            return startType;
+        }
+
+        @JsonProperty
+        public Optional<Symbol> getStartValue()
+        {
+            return startValue;
+        }
+
+        @JsonProperty
+        public FrameBound.Type getEndType()
+        {
+            return endType;
+        }
+
+        @JsonProperty
+        public Optional<Symbol> getEndValue()
+        {
+            return endValue;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            Frame other = (Frame) obj;
+            return Objects.equal(this.type, other.type) &&
+                    Objects.equal(this.startType, other.startType) &&
+                    Objects.equal(this.startValue, other.startValue) &&
+                    Objects.equal(this.endType, other.endType) &&
+                    Objects.equal(this.endValue, other.endValue);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hashCode(type, startType, startValue, endType, endValue);
+        }
+
+        @Override
+        public String toString()
+        {
+            return Objects.toStringHelper(this)
+                    .add("type", type)
+                    .add("startType", startType)
+                    .add("startValue", startValue)
+                    .add("endType", endType)
+                    .add("endValue", endValue)
+                    .toString();
+        }
+    }
 }
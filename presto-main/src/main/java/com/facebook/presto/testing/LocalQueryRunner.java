@@ -45,7 +45,7 @@ import com.facebook.presto.operator.Operator;
 import com.facebook.presto.operator.OperatorContext;
 import com.facebook.presto.operator.OperatorFactory;
 import com.facebook.presto.operator.OutputFactory;
-import com.facebook.presto.operator.RecordSinkManager;
+import com.facebook.presto.operator.PageSinkManager;
 import com.facebook.presto.operator.TaskContext;
 import com.facebook.presto.spi.ColumnMetadata;
 import com.facebook.presto.spi.Connector;
@@ -113,7 +113,7 @@ public class LocalQueryRunner
     private final SplitManager splitManager;
     private final DataStreamManager dataStreamProvider;
     private final IndexManager indexManager;
-    private final RecordSinkManager recordSinkManager;
+    private final PageSinkManager pageSinkManager;
 
     private final ExpressionCompiler compiler;
     private final ConnectorManager connectorManager;
@@ -132,7 +132,7 @@ public class LocalQueryRunner
         this.splitManager = new SplitManager();
         this.dataStreamProvider = new DataStreamManager();
         this.indexManager = new IndexManager();
-        this.recordSinkManager = new RecordSinkManager();
+        this.pageSinkManager = new PageSinkManager();
 
         this.compiler = new ExpressionCompiler(metadata, new CompilerConfig());
 
@@ -153,7 +153,7 @@ public class LocalQueryRunner
                 splitManager,
                 dataStreamProvider,
                 indexManager,
-                recordSinkManager,
+                pageSinkManager,
                 new HandleResolver(),
                 new OutputTableHandleResolver(),
                 ImmutableMap.<String, ConnectorFactory>of(),
@@ -336,7 +336,7 @@ public class LocalQueryRunner
                 sqlParser,
                 dataStreamProvider,
                 indexManager,
-                recordSinkManager,
+                pageSinkManager,
                 null,
                 compiler,
                 new CompilerConfig().setInterpreterEnabled(false) // make sure tests fail if compiler breaks
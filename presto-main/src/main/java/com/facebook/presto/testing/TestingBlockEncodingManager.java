@@ -15,7 +15,9 @@ package com.facebook.presto.testing;
 
 import com.facebook.presto.block.BlockEncodingManager;
 import com.facebook.presto.block.dictionary.DictionaryBlockEncoding;
+import com.facebook.presto.block.packed.PackedLongBlockEncoding;
 import com.facebook.presto.block.rle.RunLengthBlockEncoding;
+import com.facebook.presto.block.selection.SelectedPositionsBlockEncoding;
 import com.facebook.presto.block.snappy.SnappyBlockEncoding;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
 import com.facebook.presto.spi.type.BigintType;
@@ -61,6 +63,8 @@ public final class TestingBlockEncodingManager
                 RunLengthBlockEncoding.FACTORY,
                 DictionaryBlockEncoding.FACTORY,
                 SnappyBlockEncoding.FACTORY,
+                PackedLongBlockEncoding.FACTORY,
+                SelectedPositionsBlockEncoding.FACTORY,
                 HyperLogLogType.BLOCK_ENCODING_FACTORY,
                 ColorType.BLOCK_ENCODING_FACTORY);
     }
@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.type;
 
+import com.facebook.presto.spi.type.ArrayType;
+import com.facebook.presto.spi.type.MapType;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeManager;
 import com.google.common.collect.ImmutableSet;
@@ -22,6 +24,8 @@ import javax.inject.Inject;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -88,7 +92,75 @@ public final class TypeRegistry
     @Override
     public Type getType(String typeName)
     {
-        return types.get(typeName.toLowerCase());
+        String name = typeName.toLowerCase();
+        Type type = types.get(name);
+        if (type == null) {
+            type = getParametricType(name);
+            if (type != null) {
+                Type existingType = types.putIfAbsent(name, type);
+                if (existingType != null) {
+                    type = existingType;
+                }
+            }
+        }
+        return type;
+    }
+
+    /**
+     * Creates the array or map type with the specified name, such as
+     * {@code array<bigint>} or {@code map<varchar,array<double>>}, or
+     * returns null if the name is not the name of a parametric type.
+     */
+    private Type getParametricType(String name)
+    {
+        if (!name.endsWith(">")) {
+            return null;
+        }
+        int start = name.indexOf('<');
+        if (start < 0) {
+            return null;
+        }
+        String base = name.substring(0, start).trim();
+        List<String> parameters = splitTypeParameters(name.substring(start + 1, name.length() - 1));
+
+        List<Type> parameterTypes = new ArrayList<>();
+        for (String parameter : parameters) {
+            Type parameterType = getType(parameter);
+            if (parameterType == null || parameterType.equals(UNKNOWN)) {
+                return null;
+            }
+            parameterTypes.add(parameterType);
+        }
+
+        if (base.equals("array") && parameterTypes.size() == 1) {
+            return new ArrayType(parameterTypes.get(0));
+        }
+        if (base.equals("map") && parameterTypes.size() == 2) {
+            return new MapType(parameterTypes.get(0), parameterTypes.get(1));
+        }
+        return null;
+    }
+
+    private static List<String> splitTypeParameters(String parameters)
+    {
+        List<String> result = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < parameters.length(); i++) {
+            char c = parameters.charAt(i);
+            if (c == '<') {
+                depth++;
+            }
+            else if (c == '>') {
+                depth--;
+            }
+            else if (c == ',' && depth == 0) {
+                result.add(parameters.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        result.add(parameters.substring(start).trim());
+        return result;
     }
 
     public void addType(Type type)
@@ -20,6 +20,7 @@ import com.facebook.presto.sql.planner.plan.AggregationNode;
 import com.facebook.presto.sql.planner.plan.DistinctLimitNode;
 import com.facebook.presto.sql.planner.plan.ExchangeNode;
 import com.facebook.presto.sql.planner.plan.FilterNode;
+import com.facebook.presto.sql.planner.plan.GroupIdNode;
 import com.facebook.presto.sql.planner.plan.IndexJoinNode;
 import com.facebook.presto.sql.planner.plan.IndexSourceNode;
 import com.facebook.presto.sql.planner.plan.JoinNode;
@@ -78,6 +79,7 @@ public final class GraphvizPrinter
         UNION,
         SORT,
         MARK_DISTINCT,
+        GROUP_ID,
         MATERIALIZE_SAMPLE,
         INDEX_SOURCE
     }
@@ -98,6 +100,7 @@ public final class GraphvizPrinter
             .put(NodeType.WINDOW, "darkolivegreen4")
             .put(NodeType.UNION, "turquoise4")
             .put(NodeType.MARK_DISTINCT, "violet")
+            .put(NodeType.GROUP_ID, "darkolivegreen4")
             .put(NodeType.MATERIALIZE_SAMPLE, "hotpink")
             .put(NodeType.INDEX_SOURCE, "dodgerblue3")
             .build());
@@ -221,6 +224,13 @@ public final class GraphvizPrinter
             return node.getSource().accept(this, context);
         }
 
+        @Override
+        public Void visitGroupId(GroupIdNode node, Void context)
+        {
+            printNode(node, format("GroupId[%s]", node.getGroupIdSymbol()), format("%s", node.getGroupingSets()), NODE_COLORS.get(NodeType.GROUP_ID));
+            return node.getSource().accept(this, context);
+        }
+
         @Override
         public Void visitSink(SinkNode node, Void context)
         {
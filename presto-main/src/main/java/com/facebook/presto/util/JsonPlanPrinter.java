@@ -26,6 +26,7 @@ import com.facebook.presto.sql.planner.Symbol;
 import com.facebook.presto.sql.planner.plan.AggregationNode;
 import com.facebook.presto.sql.planner.plan.ExchangeNode;
 import com.facebook.presto.sql.planner.plan.FilterNode;
+import com.facebook.presto.sql.planner.plan.GroupIdNode;
 import com.facebook.presto.sql.planner.plan.IndexJoinNode;
 import com.facebook.presto.sql.planner.plan.IndexSourceNode;
 import com.facebook.presto.sql.planner.plan.JoinNode;
@@ -125,6 +126,12 @@ public final class JsonPlanPrinter
             return processChildren(node);
         }
 
+        @Override
+        public Void visitGroupId(GroupIdNode node, Void context)
+        {
+            return processChildren(node);
+        }
+
         @Override
         public Void visitMarkDistinct(MarkDistinctNode node, Void context)
         {
@@ -105,4 +105,24 @@ public class TestPackedLongSerde
                 )
         );
     }
+
+    @Test
+    public void testArray()
+            throws Exception
+    {
+        // only the first itemCount values are written, in the same format as a list
+        long[] array = {0L, -1L, 2L, 65535L, -65536L, 64L, -3L, Long.MAX_VALUE};
+        List<Long> list = Arrays.asList(0L, -1L, 2L, 65535L, -65536L, 64L, -3L);
+        new PackedLongSerde(17).serialize(array, 7, sliceOutput);
+
+        SliceOutput listOutput = new DynamicSliceOutput(128);
+        new PackedLongSerde(17).serialize(list, listOutput);
+        Assert.assertEquals(sliceOutput.slice(), listOutput.slice());
+        Assert.assertTrue(
+                Iterables.elementsEqual(
+                        PackedLongSerde.deserialize(sliceOutput.slice().getInput()),
+                        list
+                )
+        );
+    }
 }
@@ -0,0 +1,82 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.block.selection;
+
+import com.facebook.presto.block.AbstractTestBlock;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockEncoding;
+import com.facebook.presto.spi.block.VariableWidthBlockEncoding;
+import io.airlift.slice.DynamicSliceOutput;
+import org.testng.annotations.Test;
+
+import static com.facebook.presto.block.BlockAssertions.assertBlockEquals;
+import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
+import static com.facebook.presto.block.BlockAssertions.createStringsBlock;
+import static io.airlift.testing.Assertions.assertInstanceOf;
+import static org.testng.Assert.assertTrue;
+
+public class TestSelectedPositionsBlock
+        extends AbstractTestBlock
+{
+    @Override
+    protected Block createExpectedValues()
+    {
+        return createStringsBlock("apple", "banana", null, "date", "fig");
+    }
+
+    @Override
+    protected Block createTestBlock()
+    {
+        Block source = createStringsBlock("apple", "apricot", "banana", null, "cherry", "date", "elderberry", "fig", "grape");
+        return new SelectedPositionsBlock(source, new int[] {0, 2, 3, 5, 7, 0}, 5);
+    }
+
+    @Test
+    public void testBlockType()
+    {
+        assertInstanceOf(createTestBlock(), SelectedPositionsBlock.class);
+    }
+
+    @Test
+    public void testCopyPositions()
+    {
+        assertBlockEquals(((SelectedPositionsBlock) createTestBlock()).copyPositions(), createExpectedValues());
+    }
+
+    @Test
+    public void testEncoding()
+    {
+        SelectedPositionsBlockEncoding encoding = (SelectedPositionsBlockEncoding) createTestBlock().getEncoding();
+        assertInstanceOf(encoding.getValueBlockEncoding(), VariableWidthBlockEncoding.class);
+    }
+
+    @Test
+    public void testFixedWidthRoundTrip()
+    {
+        Block block = new SelectedPositionsBlock(createLongsBlock(10, 11, 12, 13), new int[] {3, 1}, 2);
+
+        DynamicSliceOutput sliceOutput = new DynamicSliceOutput(1024);
+        BlockEncoding encoding = block.getEncoding();
+        encoding.writeBlock(sliceOutput, block);
+
+        assertBlockEquals(encoding.readBlock(sliceOutput.slice().getInput()), createLongsBlock(13, 11));
+    }
+
+    @Test
+    public void testSizeOnlyCountsSelectedPositions()
+    {
+        SelectedPositionsBlock block = (SelectedPositionsBlock) createTestBlock();
+        assertTrue(block.getSizeInBytes() < block.getSource().getSizeInBytes());
+    }
+}
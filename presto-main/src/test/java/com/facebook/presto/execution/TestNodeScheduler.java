@@ -0,0 +1,110 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.metadata.InMemoryNodeManager;
+import com.facebook.presto.metadata.NodeVersion;
+import com.facebook.presto.metadata.PrestoNode;
+import com.facebook.presto.metadata.Split;
+import com.facebook.presto.spi.ConnectorSplit;
+import com.facebook.presto.spi.HostAddress;
+import com.facebook.presto.spi.Node;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimap;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+
+public class TestNodeScheduler
+{
+    private static final Node LOCAL_NODE = new PrestoNode("local", URI.create("http://10.0.1.1:11"), NodeVersion.UNKNOWN);
+    private static final Node OTHER_NODE1 = new PrestoNode("other1", URI.create("http://10.0.2.1:12"), NodeVersion.UNKNOWN);
+    private static final Node OTHER_NODE2 = new PrestoNode("other2", URI.create("http://10.0.3.1:13"), NodeVersion.UNKNOWN);
+
+    @Test
+    public void testLocalSplitsSpreadWithoutStrictLocality()
+    {
+        Multimap<Node, Split> assignment = computeAssignments(new NodeSchedulerConfig(), "10.0.1.1", 30);
+
+        assertEquals(assignment.size(), 30);
+        assertEquals(assignment.keySet(), ImmutableSet.of(LOCAL_NODE, OTHER_NODE1, OTHER_NODE2));
+    }
+
+    @Test
+    public void testStrictLocality()
+    {
+        Multimap<Node, Split> assignment = computeAssignments(new NodeSchedulerConfig().setStrictLocalityEnabled(true), "10.0.1.1", 30);
+
+        assertEquals(assignment.size(), 30);
+        assertEquals(assignment.keySet(), ImmutableSet.of(LOCAL_NODE));
+    }
+
+    @Test
+    public void testStrictLocalityWithoutLocalNode()
+    {
+        // splits whose data is not on any node are scheduled on all nodes
+        Multimap<Node, Split> assignment = computeAssignments(new NodeSchedulerConfig().setStrictLocalityEnabled(true), "10.0.9.1", 30);
+
+        assertEquals(assignment.size(), 30);
+        assertEquals(assignment.keySet(), ImmutableSet.of(LOCAL_NODE, OTHER_NODE1, OTHER_NODE2));
+    }
+
+    private static Multimap<Node, Split> computeAssignments(NodeSchedulerConfig config, String host, int splitCount)
+    {
+        InMemoryNodeManager nodeManager = new InMemoryNodeManager();
+        nodeManager.addNode("foo", LOCAL_NODE, OTHER_NODE1, OTHER_NODE2);
+        NodeScheduler nodeScheduler = new NodeScheduler(nodeManager, config);
+        NodeScheduler.NodeSelector nodeSelector = nodeScheduler.createNodeSelector("foo", ImmutableMap.<Node, RemoteTask>of(), 100);
+
+        ImmutableSet.Builder<Split> splits = ImmutableSet.builder();
+        for (int i = 0; i < splitCount; i++) {
+            splits.add(new Split("foo", new RemotelyAccessibleSplit(HostAddress.fromString(host))));
+        }
+        return nodeSelector.computeAssignments(splits.build());
+    }
+
+    private static class RemotelyAccessibleSplit
+            implements ConnectorSplit
+    {
+        private final HostAddress address;
+
+        private RemotelyAccessibleSplit(HostAddress address)
+        {
+            this.address = address;
+        }
+
+        @Override
+        public boolean isRemotelyAccessible()
+        {
+            return true;
+        }
+
+        @Override
+        public List<HostAddress> getAddresses()
+        {
+            return ImmutableList.of(address);
+        }
+
+        @Override
+        public Object getInfo()
+        {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.google.common.collect.ImmutableMap;
+import io.airlift.configuration.testing.ConfigAssertions;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+public class TestNodeSchedulerConfig
+{
+    @Test
+    public void testDefaults()
+    {
+        ConfigAssertions.assertRecordedDefaults(ConfigAssertions.recordDefaults(NodeSchedulerConfig.class)
+                .setMinCandidates(10)
+                .setLocationAwareSchedulingEnabled(true)
+                .setIncludeCoordinator(true)
+                .setStrictLocalityEnabled(false));
+    }
+
+    @Test
+    public void testExplicitPropertyMappings()
+    {
+        Map<String, String> properties = new ImmutableMap.Builder<String, String>()
+                .put("node-scheduler.min-candidates", "11")
+                .put("node-scheduler.location-aware-scheduling-enabled", "false")
+                .put("node-scheduler.include-coordinator", "false")
+                .put("node-scheduler.strict-locality-enabled", "true")
+                .build();
+
+        NodeSchedulerConfig expected = new NodeSchedulerConfig()
+                .setMinCandidates(11)
+                .setLocationAwareSchedulingEnabled(false)
+                .setIncludeCoordinator(false)
+                .setStrictLocalityEnabled(true);
+
+        ConfigAssertions.assertFullMapping(properties, expected);
+    }
+}
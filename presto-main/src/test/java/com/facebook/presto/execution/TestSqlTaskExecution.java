@@ -23,7 +23,7 @@ import com.facebook.presto.index.IndexManager;
 import com.facebook.presto.metadata.ColumnHandle;
 import com.facebook.presto.metadata.MetadataManager;
 import com.facebook.presto.metadata.TableHandle;
-import com.facebook.presto.operator.RecordSinkManager;
+import com.facebook.presto.operator.PageSinkManager;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.split.DataStreamManager;
@@ -92,7 +92,7 @@ public class TestSqlTaskExecution
                 new SqlParser(),
                 new DataStreamManager(),
                 new IndexManager(),
-                new RecordSinkManager(),
+                new PageSinkManager(),
                 new MockExchangeClientSupplier(),
                 new ExpressionCompiler(metadata, new CompilerConfig()),
                 new CompilerConfig());
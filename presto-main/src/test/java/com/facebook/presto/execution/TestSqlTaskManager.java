@@ -23,7 +23,7 @@ import com.facebook.presto.metadata.MetadataManager;
 import com.facebook.presto.metadata.Split;
 import com.facebook.presto.metadata.TableHandle;
 import com.facebook.presto.operator.ExchangeClient;
-import com.facebook.presto.operator.RecordSinkManager;
+import com.facebook.presto.operator.PageSinkManager;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.Node;
 import com.facebook.presto.spi.type.Type;
@@ -100,7 +100,7 @@ public class TestSqlTaskManager
                 new SqlParser(),
                 dataStreamProvider,
                 new IndexManager(),
-                new RecordSinkManager(),
+                new PageSinkManager(),
                 new MockExchangeClientSupplier(),
                 new ExpressionCompiler(metadata, new CompilerConfig()),
                 new CompilerConfig());
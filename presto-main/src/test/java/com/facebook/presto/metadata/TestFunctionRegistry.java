@@ -15,25 +15,34 @@ package com.facebook.presto.metadata;
 
 import com.facebook.presto.operator.scalar.CustomAdd;
 import com.facebook.presto.operator.scalar.ScalarFunction;
+import com.facebook.presto.spi.type.ArrayType;
 import com.facebook.presto.spi.type.BigintType;
+import com.facebook.presto.spi.type.MapType;
 import com.facebook.presto.sql.tree.QualifiedName;
 import com.facebook.presto.type.SqlType;
 import com.facebook.presto.type.TypeRegistry;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static com.facebook.presto.metadata.FunctionInfo.nameGetter;
 import static com.facebook.presto.metadata.FunctionRegistry.getMagicLiteralFunctionSignature;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.HyperLogLogType.HYPER_LOG_LOG;
 import static com.facebook.presto.spi.type.TimestampWithTimeZoneType.TIMESTAMP_WITH_TIME_ZONE;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.google.common.base.Functions.toStringFunction;
 import static com.google.common.collect.Lists.transform;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 public class TestFunctionRegistry
@@ -63,6 +72,39 @@ public class TestFunctionRegistry
         assertEquals(function.getReturnType(), TIMESTAMP_WITH_TIME_ZONE);
     }
 
+    @Test
+    public void testCollectionFunctions()
+            throws Throwable
+    {
+        TypeRegistry typeManager = new TypeRegistry();
+        ArrayType arrayType = (ArrayType) typeManager.getType("array<bigint>");
+        MapType mapType = (MapType) typeManager.getType("map<varchar,array<bigint>>");
+        assertEquals(mapType, new MapType(VARCHAR, arrayType));
+
+        Slice array = arrayType.toStackRepresentation(Arrays.asList(1L, null, 3L));
+        Map<Slice, Slice> entries = ImmutableMap.of(Slices.utf8Slice("a"), array);
+        Slice map = mapType.toStackRepresentation(entries);
+
+        FunctionRegistry registry = new FunctionRegistry(typeManager, true);
+
+        FunctionInfo arrayElementAt = registry.resolveFunction(new QualifiedName("element_at"), ImmutableList.of(arrayType, BIGINT), false);
+        assertEquals(arrayElementAt.getReturnType(), BIGINT);
+        assertEquals(registry.getExactFunction(arrayElementAt.getSignature()).getSignature(), arrayElementAt.getSignature());
+        assertEquals(arrayElementAt.getMethodHandle().invoke(array, 1L), 1L);
+        assertEquals(arrayElementAt.getMethodHandle().invoke(array, 2L), null);
+        assertEquals(arrayElementAt.getMethodHandle().invoke(array, 4L), null);
+
+        FunctionInfo mapElementAt = registry.resolveFunction(new QualifiedName("element_at"), ImmutableList.of(mapType, VARCHAR), false);
+        assertEquals(mapElementAt.getReturnType(), arrayType);
+        assertEquals(mapElementAt.getMethodHandle().invoke(map, Slices.utf8Slice("a")), array);
+        assertEquals(mapElementAt.getMethodHandle().invoke(map, Slices.utf8Slice("b")), null);
+
+        FunctionInfo cardinality = registry.resolveFunction(new QualifiedName("cardinality"), ImmutableList.of(mapType), false);
+        assertEquals(cardinality.getMethodHandle().invoke(map), 1L);
+        assertEquals(registry.getExactFunction(new Signature("cardinality", BIGINT, arrayType)).getMethodHandle().invoke(array), 3L);
+        assertNull(registry.getExactFunction(new Signature("cardinality", VARCHAR, arrayType)));
+    }
+
     @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "\\QFunction already registered: custom_add(bigint,bigint):bigint\\E")
     public void testDuplicateFunctions()
     {
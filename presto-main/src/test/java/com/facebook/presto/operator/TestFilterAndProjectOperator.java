@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.block.selection.SelectedPositionsBlock;
 import com.facebook.presto.execution.TaskId;
 import com.facebook.presto.operator.FilterAndProjectOperator.FilterAndProjectOperatorFactory;
 import com.facebook.presto.spi.ConnectorSession;
@@ -37,7 +38,12 @@ import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.TimeZoneKey.UTC_KEY;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.testing.Assertions.assertInstanceOf;
 import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestFilterAndProjectOperator
@@ -107,6 +113,77 @@ public class TestFilterAndProjectOperator
         assertOperatorEquals(operator, input, expected);
     }
 
+    @Test
+    public void testPassThroughChannelIsNotCopied()
+            throws Exception
+    {
+        Page input = rowPagesBuilder(VARCHAR, BIGINT)
+                .addSequencePage(100, 0, 0)
+                .build()
+                .get(0);
+
+        // most positions are selected, so the output references the input block
+        Operator operator = createModuloFilterOperator(false);
+        operator.addInput(input);
+        Page output = operator.getOutput();
+
+        assertEquals(output.getPositionCount(), 90);
+        assertInstanceOf(output.getBlock(0), SelectedPositionsBlock.class);
+        assertEquals(((SelectedPositionsBlock) output.getBlock(0)).getSource(), input.getBlock(0));
+        assertEquals(output.getBlock(0).getSlice(3).toStringUtf8(), "4");
+        assertEquals(output.getBlock(1).getLong(3), 9);
+    }
+
+    @Test
+    public void testSmallSelectionsAreCopied()
+            throws Exception
+    {
+        Page input = rowPagesBuilder(VARCHAR, BIGINT)
+                .addSequencePage(100, 0, 0)
+                .build()
+                .get(0);
+
+        // few positions are selected, so they are copied and the pages are combined
+        Operator operator = createModuloFilterOperator(true);
+        operator.addInput(input);
+        assertNull(operator.getOutput());
+        assertTrue(operator.needsInput());
+        operator.addInput(input);
+        assertNull(operator.getOutput());
+
+        operator.finish();
+        Page output = operator.getOutput();
+
+        assertEquals(output.getPositionCount(), 20);
+        assertFalse(output.getBlock(0) instanceof SelectedPositionsBlock);
+        assertEquals(output.getBlock(0).getSlice(13).toStringUtf8(), "30");
+        assertEquals(output.getBlock(1).getLong(13), 35);
+        assertTrue(operator.isFinished());
+    }
+
+    private Operator createModuloFilterOperator(final boolean selectMultiples)
+    {
+        OperatorFactory operatorFactory = new FilterAndProjectOperatorFactory(
+                0,
+                new FilterFunction()
+                {
+                    @Override
+                    public boolean filter(int position, Block... blocks)
+                    {
+                        return (blocks[1].getLong(position) % 10 == 0) == selectMultiples;
+                    }
+
+                    @Override
+                    public boolean filter(RecordCursor cursor)
+                    {
+                        return (cursor.getLong(1) % 10 == 0) == selectMultiples;
+                    }
+                },
+                ImmutableList.of(singleColumn(VARCHAR, 0), new Add5Projection(1)));
+
+        return operatorFactory.createOperator(driverContext);
+    }
+
     private static class Add5Projection
             implements ProjectionFunction
     {
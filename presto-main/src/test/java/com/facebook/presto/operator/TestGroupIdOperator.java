@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.execution.TaskId;
+import com.facebook.presto.operator.GroupIdOperator.GroupIdOperatorFactory;
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.testing.MaterializedResult;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEquals;
+import static com.facebook.presto.operator.RowPagesBuilder.rowPagesBuilder;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.TimeZoneKey.UTC_KEY;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+
+@Test(singleThreaded = true)
+public class TestGroupIdOperator
+{
+    private ExecutorService executor;
+    private DriverContext driverContext;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        executor = newCachedThreadPool(daemonThreadsNamed("test"));
+        ConnectorSession session = new ConnectorSession("user", "source", "catalog", "schema", UTC_KEY, Locale.ENGLISH, "address", "agent");
+        driverContext = new TaskContext(new TaskId("query", "stage", "task"), executor, session)
+                .addPipelineContext(true, true)
+                .addDriverContext();
+    }
+
+    @AfterMethod
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testGroupId()
+            throws Exception
+    {
+        List<Page> input = rowPagesBuilder(BOOLEAN, VARCHAR, BIGINT)
+                .row(true, "a", 1)
+                .row(false, "b", 2)
+                .pageBreak()
+                .row(true, "c", 3)
+                .build();
+
+        // grouping columns (varchar, bigint), argument (boolean), grouping sets {varchar}, {bigint}, {varchar, bigint}
+        List<Set<Integer>> groupingSets = ImmutableList.<Set<Integer>>of(ImmutableSet.of(0), ImmutableSet.of(1), ImmutableSet.of(0, 1));
+        OperatorFactory operatorFactory = new GroupIdOperatorFactory(0, ImmutableList.of(BOOLEAN, VARCHAR, BIGINT), ImmutableList.of(1, 2), groupingSets, ImmutableList.of(0));
+        Operator operator = operatorFactory.createOperator(driverContext);
+
+        MaterializedResult expected = resultBuilder(driverContext.getSession(), VARCHAR, BIGINT, BOOLEAN, BIGINT)
+                .row("a", null, true, 0)
+                .row("b", null, false, 0)
+                .row(null, 1, true, 1)
+                .row(null, 2, false, 1)
+                .row("a", 1, true, 2)
+                .row("b", 2, false, 2)
+                .row("c", null, true, 0)
+                .row(null, 3, true, 1)
+                .row("c", 3, true, 2)
+                .build();
+
+        assertOperatorEquals(operator, input, expected);
+    }
+}
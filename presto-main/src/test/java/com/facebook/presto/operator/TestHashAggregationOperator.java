@@ -57,6 +57,8 @@ import static io.airlift.slice.SizeOf.SIZE_OF_DOUBLE;
 import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestHashAggregationOperator
@@ -238,4 +240,74 @@ public class TestHashAggregationOperator
 
         assertEquals(toPages(operator, input).size(), 2);
     }
+
+    @Test
+    public void testPartialAggregationBypass()
+    {
+        List<Page> input = rowPagesBuilder(BIGINT, BIGINT)
+                .addSequencePage(10, 0, 0)
+                .addSequencePage(10, 10, 10)
+                .addSequencePage(10, 20, 20)
+                .build();
+
+        HashAggregationOperatorFactory operatorFactory = new HashAggregationOperatorFactory(
+                0,
+                ImmutableList.of(BIGINT),
+                Ints.asList(0),
+                Step.PARTIAL,
+                ImmutableList.of(aggregation(COUNT, ImmutableList.of(0), Optional.<Integer>absent(), Optional.<Integer>absent(), 1.0),
+                        aggregation(LONG_SUM, ImmutableList.of(1), Optional.<Integer>absent(), Optional.<Integer>absent(), 1.0)),
+                100_000,
+                10);
+
+        Operator operator = operatorFactory.createOperator(driverContext);
+
+        MaterializedResult.Builder expected = resultBuilder(driverContext.getSession(), BIGINT, BIGINT, BIGINT);
+        for (int i = 0; i < 30; i++) {
+            expected.row(i, 1, i);
+        }
+        assertOperatorEqualsIgnoreOrder(operator, input, expected.build());
+
+        HashAggregationInfo info = (HashAggregationInfo) operator.getOperatorContext().getOperatorStats().getInfo();
+        assertTrue(info.isPartialAggregationBypassed());
+        assertEquals(info.getAggregatedPositions(), 10);
+        assertEquals(info.getAggregatedGroups(), 10);
+        assertEquals(info.getBypassedPositions(), 20);
+    }
+
+    @Test
+    public void testPartialAggregationNotBypassed()
+    {
+        RowPagesBuilder pages = rowPagesBuilder(BIGINT, BIGINT);
+        for (int page = 0; page < 3; page++) {
+            for (int position = 0; position < 10; position++) {
+                pages.row(position % 2, 1);
+            }
+            pages.pageBreak();
+        }
+        List<Page> input = pages.build();
+
+        HashAggregationOperatorFactory operatorFactory = new HashAggregationOperatorFactory(
+                0,
+                ImmutableList.of(BIGINT),
+                Ints.asList(0),
+                Step.PARTIAL,
+                ImmutableList.of(aggregation(COUNT, ImmutableList.of(0), Optional.<Integer>absent(), Optional.<Integer>absent(), 1.0),
+                        aggregation(LONG_SUM, ImmutableList.of(1), Optional.<Integer>absent(), Optional.<Integer>absent(), 1.0)),
+                100_000,
+                10);
+
+        Operator operator = operatorFactory.createOperator(driverContext);
+
+        MaterializedResult expected = resultBuilder(driverContext.getSession(), BIGINT, BIGINT, BIGINT)
+                .row(0, 15, 15)
+                .row(1, 15, 15)
+                .build();
+        assertOperatorEqualsIgnoreOrder(operator, input, expected);
+
+        HashAggregationInfo info = (HashAggregationInfo) operator.getOperatorContext().getOperatorStats().getInfo();
+        assertFalse(info.isPartialAggregationBypassed());
+        assertEquals(info.getAggregatedPositions(), 30);
+        assertEquals(info.getBypassedPositions(), 0);
+    }
 }
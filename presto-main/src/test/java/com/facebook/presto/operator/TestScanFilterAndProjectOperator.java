@@ -0,0 +1,241 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.execution.TaskId;
+import com.facebook.presto.metadata.ColumnHandle;
+import com.facebook.presto.metadata.Split;
+import com.facebook.presto.operator.ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory;
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.ConnectorSplit;
+import com.facebook.presto.spi.HostAddress;
+import com.facebook.presto.spi.InMemoryRecordSet;
+import com.facebook.presto.spi.RecordCursor;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.split.DataStreamProvider;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.facebook.presto.testing.MaterializedResult;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.presto.operator.OperatorAssertion.toMaterializedResult;
+import static com.facebook.presto.operator.ProjectionFunctions.singleColumn;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.TimeZoneKey.UTC_KEY;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
+
+@Test(singleThreaded = true)
+public class TestScanFilterAndProjectOperator
+{
+    private ExecutorService executor;
+    private DriverContext driverContext;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        executor = newCachedThreadPool(daemonThreadsNamed("test"));
+        ConnectorSession session = new ConnectorSession("user", "source", "catalog", "schema", UTC_KEY, Locale.ENGLISH, "address", "agent");
+        driverContext = new TaskContext(new TaskId("query", "stage", "task"), executor, session)
+                .addPipelineContext(true, true)
+                .addDriverContext();
+    }
+
+    @AfterMethod
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testProjectedColumnsOnlyReadForSelectedRows()
+            throws Exception
+    {
+        InMemoryRecordSet.Builder records = InMemoryRecordSet.builder(ImmutableList.<Type>of(BIGINT, VARCHAR));
+        for (long i = 0; i < 100; i++) {
+            records.addRow(i, "value " + i);
+        }
+        final CountingRecordCursor cursor = new CountingRecordCursor(records.build().cursor());
+
+        DataStreamProvider dataStreamProvider = new DataStreamProvider()
+        {
+            @Override
+            public Operator createNewDataStream(OperatorContext operatorContext, Split split, List<ColumnHandle> columns)
+            {
+                return new RecordProjectOperator(operatorContext, ImmutableList.<Type>of(BIGINT, VARCHAR), cursor);
+            }
+        };
+
+        SourceOperatorFactory operatorFactory = new ScanFilterAndProjectOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                dataStreamProvider,
+                ImmutableList.<ColumnHandle>of(),
+                new FilterFunction()
+                {
+                    @Override
+                    public boolean filter(int position, Block... blocks)
+                    {
+                        return blocks[0].getLong(position) % 10 == 0;
+                    }
+
+                    @Override
+                    public boolean filter(RecordCursor cursor)
+                    {
+                        return cursor.getLong(0) % 10 == 0;
+                    }
+                },
+                ImmutableList.of(singleColumn(VARCHAR, 1)));
+
+        SourceOperator operator = operatorFactory.createOperator(driverContext);
+        operator.addSplit(new Split("test", new TestSplit()));
+        operator.noMoreSplits();
+
+        MaterializedResult.Builder expected = MaterializedResult.resultBuilder(driverContext.getSession(), VARCHAR);
+        for (int i = 0; i < 100; i += 10) {
+            expected.row("value " + i);
+        }
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        while (!operator.isFinished()) {
+            Page page = operator.getOutput();
+            if (page != null) {
+                pages.add(page);
+            }
+        }
+        assertEquals(toMaterializedResult(driverContext.getSession(), operator.getTypes(), pages.build()), expected.build());
+
+        // the filter column is read for every row, but the projected column only for the rows that pass the filter
+        assertEquals(cursor.getColumnReads(0), 100);
+        assertEquals(cursor.getColumnReads(1), 10);
+    }
+
+    private static class CountingRecordCursor
+            implements RecordCursor
+    {
+        private final RecordCursor delegate;
+        private final int[] columnReads = new int[2];
+
+        private CountingRecordCursor(RecordCursor delegate)
+        {
+            this.delegate = delegate;
+        }
+
+        public int getColumnReads(int field)
+        {
+            return columnReads[field];
+        }
+
+        @Override
+        public long getTotalBytes()
+        {
+            return delegate.getTotalBytes();
+        }
+
+        @Override
+        public long getCompletedBytes()
+        {
+            return delegate.getCompletedBytes();
+        }
+
+        @Override
+        public long getReadTimeNanos()
+        {
+            return delegate.getReadTimeNanos();
+        }
+
+        @Override
+        public Type getType(int field)
+        {
+            return delegate.getType(field);
+        }
+
+        @Override
+        public boolean advanceNextPosition()
+        {
+            return delegate.advanceNextPosition();
+        }
+
+        @Override
+        public boolean getBoolean(int field)
+        {
+            columnReads[field]++;
+            return delegate.getBoolean(field);
+        }
+
+        @Override
+        public long getLong(int field)
+        {
+            columnReads[field]++;
+            return delegate.getLong(field);
+        }
+
+        @Override
+        public double getDouble(int field)
+        {
+            columnReads[field]++;
+            return delegate.getDouble(field);
+        }
+
+        @Override
+        public Slice getSlice(int field)
+        {
+            columnReads[field]++;
+            return delegate.getSlice(field);
+        }
+
+        @Override
+        public boolean isNull(int field)
+        {
+            return delegate.isNull(field);
+        }
+
+        @Override
+        public void close()
+        {
+            delegate.close();
+        }
+    }
+
+    private static class TestSplit
+            implements ConnectorSplit
+    {
+        @Override
+        public boolean isRemotelyAccessible()
+        {
+            return false;
+        }
+
+        @Override
+        public List<HostAddress> getAddresses()
+        {
+            return ImmutableList.of();
+        }
+
+        @Override
+        public Object getInfo()
+        {
+            return this;
+        }
+    }
+}
@@ -17,6 +17,7 @@ import com.facebook.presto.ExceededMemoryLimitException;
 import com.facebook.presto.execution.TaskId;
 import com.facebook.presto.operator.WindowOperator.WindowOperatorFactory;
 import com.facebook.presto.operator.window.FirstValueFunction.VarcharFirstValueFunction;
+import com.facebook.presto.operator.window.FrameInfo;
 import com.facebook.presto.operator.window.LagFunction.VarcharLagFunction;
 import com.facebook.presto.operator.window.LastValueFunction.VarcharLastValueFunction;
 import com.facebook.presto.operator.window.LeadFunction.VarcharLeadFunction;
@@ -40,6 +41,7 @@ import java.util.Locale;
 import java.util.concurrent.ExecutorService;
 
 import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEquals;
+import static com.facebook.presto.operator.OperatorAssertion.toMaterializedResult;
 import static com.facebook.presto.operator.OperatorAssertion.toPages;
 import static com.facebook.presto.operator.RowPagesBuilder.rowPagesBuilder;
 import static com.facebook.presto.operator.WindowFunctionDefinition.window;
@@ -51,6 +53,10 @@ import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestWindowOperator
@@ -117,8 +123,11 @@ public class TestWindowOperator
                 Ints.asList(1, 0),
                 ROW_NUMBER,
                 Ints.asList(),
+                Ints.asList(),
                 Ints.asList(0),
                 ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}),
+                0,
+                FrameInfo.defaultFrame(),
                 10);
 
         Operator operator = operatorFactory.createOperator(driverContext);
@@ -153,8 +162,11 @@ public class TestWindowOperator
                 Ints.asList(0, 1, 2, 3),
                 ROW_NUMBER,
                 Ints.asList(0),
+                Ints.asList(),
                 Ints.asList(1),
                 ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}),
+                0,
+                FrameInfo.defaultFrame(),
                 10);
 
         Operator operator = operatorFactory.createOperator(driverContext);
@@ -193,7 +205,10 @@ public class TestWindowOperator
                 ROW_NUMBER,
                 Ints.asList(),
                 Ints.asList(),
+                Ints.asList(),
                 ImmutableList.copyOf(new SortOrder[] {}),
+                0,
+                FrameInfo.defaultFrame(),
                 10);
         Operator operator = operatorFactory.createOperator(driverContext);
 
@@ -211,6 +226,100 @@ public class TestWindowOperator
         assertOperatorEquals(operator, input, expected);
     }
 
+    @Test
+    public void testRowNumberPrePartitioned()
+            throws Exception
+    {
+        List<Page> input = rowPagesBuilder(VARCHAR, BIGINT)
+                .row("a", 3)
+                .row("a", 1)
+                .row("b", 2)
+                .pageBreak()
+                .row("b", 1)
+                .row("c", 5)
+                .pageBreak()
+                .row("c", 4)
+                .build();
+
+        WindowOperatorFactory operatorFactory = new WindowOperatorFactory(
+                0,
+                ImmutableList.of(VARCHAR, BIGINT),
+                Ints.asList(0, 1),
+                ROW_NUMBER,
+                Ints.asList(0),
+                Ints.asList(0),
+                Ints.asList(1),
+                ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}),
+                0,
+                FrameInfo.defaultFrame(),
+                10);
+
+        Operator operator = operatorFactory.createOperator(driverContext);
+
+        MaterializedResult expected = resultBuilder(driverContext.getSession(), VARCHAR, BIGINT, BIGINT)
+                .row("a", 1, 1)
+                .row("a", 3, 2)
+                .row("b", 1, 1)
+                .row("b", 2, 2)
+                .row("c", 4, 1)
+                .row("c", 5, 2)
+                .build();
+
+        assertOperatorEquals(operator, input, expected);
+    }
+
+    @Test
+    public void testRowNumberPreSortedStreaming()
+            throws Exception
+    {
+        List<Page> input = rowPagesBuilder(VARCHAR, BIGINT)
+                .row("a", 1)
+                .row("a", 2)
+                .row("b", 1)
+                .pageBreak()
+                .row("b", 2)
+                .build();
+
+        WindowOperatorFactory operatorFactory = new WindowOperatorFactory(
+                0,
+                ImmutableList.of(VARCHAR, BIGINT),
+                Ints.asList(0, 1),
+                ROW_NUMBER,
+                Ints.asList(0),
+                Ints.asList(0),
+                Ints.asList(1),
+                ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}),
+                1,
+                FrameInfo.defaultFrame(),
+                10);
+
+        Operator operator = operatorFactory.createOperator(driverContext);
+        List<Type> types = operator.getTypes();
+
+        // the first partition is complete as soon as the second one starts
+        operator.addInput(input.get(0));
+        assertFalse(operator.needsInput());
+        assertEquals(toMaterializedResult(driverContext.getSession(), types, ImmutableList.of(operator.getOutput())),
+                resultBuilder(driverContext.getSession(), VARCHAR, BIGINT, BIGINT)
+                        .row("a", 1, 1)
+                        .row("a", 2, 2)
+                        .build());
+
+        // the last partition is output when the input is finished
+        assertTrue(operator.needsInput());
+        operator.addInput(input.get(1));
+        assertTrue(operator.needsInput());
+        assertNull(operator.getOutput());
+
+        operator.finish();
+        assertEquals(toMaterializedResult(driverContext.getSession(), types, ImmutableList.of(operator.getOutput())),
+                resultBuilder(driverContext.getSession(), VARCHAR, BIGINT, BIGINT)
+                        .row("b", 1, 1)
+                        .row("b", 2, 2)
+                        .build());
+        assertTrue(operator.isFinished());
+    }
+
     @Test(expectedExceptions = ExceededMemoryLimitException.class, expectedExceptionsMessageRegExp = "Task exceeded max memory size of 10B")
     public void testMemoryLimit()
             throws Exception
@@ -234,8 +343,11 @@ public class TestWindowOperator
                 Ints.asList(1),
                 ROW_NUMBER,
                 Ints.asList(),
+                Ints.asList(),
                 Ints.asList(0),
                 ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}),
+                0,
+                FrameInfo.defaultFrame(),
                 10);
 
         Operator operator = operatorFactory.createOperator(driverContext);
@@ -263,8 +375,11 @@ public class TestWindowOperator
                 Ints.asList(0, 1, 2, 3),
                 FIRST_VALUE,
                 Ints.asList(0),
+                Ints.asList(),
                 Ints.asList(2),
                 ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}),
+                0,
+                FrameInfo.defaultFrame(),
                 100);
 
         Operator operator = operatorFactory.createOperator(driverContext);
@@ -301,8 +416,11 @@ public class TestWindowOperator
                 Ints.asList(0, 1, 2, 3),
                 LAST_VALUE,
                 Ints.asList(0),
+                Ints.asList(),
                 Ints.asList(2),
                 ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}),
+                0,
+                FrameInfo.defaultFrame(),
                 100);
 
         Operator operator = operatorFactory.createOperator(driverContext);
@@ -339,8 +457,11 @@ public class TestWindowOperator
                 Ints.asList(0, 1, 2, 4),
                 NTH_VALUE,
                 Ints.asList(0),
+                Ints.asList(),
                 Ints.asList(2),
                 ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}),
+                0,
+                FrameInfo.defaultFrame(),
                 100);
 
         Operator operator = operatorFactory.createOperator(driverContext);
@@ -377,8 +498,11 @@ public class TestWindowOperator
                 Ints.asList(0, 1, 2, 5),
                 LAG,
                 Ints.asList(0),
+                Ints.asList(),
                 Ints.asList(2),
                 ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}),
+                0,
+                FrameInfo.defaultFrame(),
                 100);
 
         Operator operator = operatorFactory.createOperator(driverContext);
@@ -415,8 +539,11 @@ public class TestWindowOperator
                 Ints.asList(0, 1, 2, 5),
                 LEAD,
                 Ints.asList(0),
+                Ints.asList(),
                 Ints.asList(2),
                 ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}),
+                0,
+                FrameInfo.defaultFrame(),
                 100);
 
         Operator operator = operatorFactory.createOperator(driverContext);
@@ -38,6 +38,9 @@ import com.facebook.presto.spi.HostAddress;
 import com.facebook.presto.spi.InMemoryRecordSet;
 import com.facebook.presto.spi.RecordSet;
 import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.type.ArrayType;
+import com.facebook.presto.spi.type.MapType;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.split.DataStreamProvider;
 import com.facebook.presto.sql.analyzer.ExpressionAnalysis;
@@ -63,12 +66,15 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -107,6 +113,11 @@ public final class FunctionAssertions
 
     private static final SqlParser SQL_PARSER = new SqlParser();
 
+    private static final ArrayType BOUND_ARRAY_TYPE = new ArrayType(BIGINT);
+    private static final MapType BOUND_MAP_TYPE = new MapType(VARCHAR, BIGINT);
+    private static final Slice BOUND_ARRAY = BOUND_ARRAY_TYPE.toStackRepresentation(Arrays.asList(1L, null, 3L));
+    private static final Slice BOUND_MAP = createBoundMap();
+
     private static final Page SOURCE_PAGE = new Page(
             createLongsBlock(1234L),
             createStringsBlock("hello"),
@@ -114,7 +125,9 @@ public final class FunctionAssertions
             createBooleansBlock(true),
             createLongsBlock(new DateTime(2001, 8, 22, 3, 4, 5, 321, DateTimeZone.UTC).getMillis()),
             createStringsBlock("%el%"),
-            createStringsBlock((String) null));
+            createStringsBlock((String) null),
+            createSlicesBlock(BOUND_ARRAY_TYPE, BOUND_ARRAY),
+            createSlicesBlock(BOUND_MAP_TYPE, BOUND_MAP));
 
     private static final Page ZERO_CHANNEL_PAGE = new Page(1);
 
@@ -126,6 +139,8 @@ public final class FunctionAssertions
             .put(4, BIGINT)
             .put(5, VARCHAR)
             .put(6, VARCHAR)
+            .put(7, BOUND_ARRAY_TYPE)
+            .put(8, BOUND_MAP_TYPE)
             .build();
 
     private static final Map<Symbol, Integer> INPUT_MAPPING = ImmutableMap.<Symbol, Integer>builder()
@@ -136,6 +151,8 @@ public final class FunctionAssertions
             .put(new Symbol("bound_timestamp"), 4)
             .put(new Symbol("bound_pattern"), 5)
             .put(new Symbol("bound_null_string"), 6)
+            .put(new Symbol("bound_array"), 7)
+            .put(new Symbol("bound_map"), 8)
             .build();
 
     private static final Map<Symbol, Type> SYMBOL_TYPES = ImmutableMap.<Symbol, Type>builder()
@@ -146,6 +163,8 @@ public final class FunctionAssertions
             .put(new Symbol("bound_timestamp"), BIGINT)
             .put(new Symbol("bound_pattern"), VARCHAR)
             .put(new Symbol("bound_null_string"), VARCHAR)
+            .put(new Symbol("bound_array"), BOUND_ARRAY_TYPE)
+            .put(new Symbol("bound_map"), BOUND_MAP_TYPE)
             .build();
 
     private static final DataStreamProvider DATA_STREAM_PROVIDER = new TestDataStreamProvider();
@@ -592,6 +611,21 @@ public final class FunctionAssertions
                 .addDriverContext();
     }
 
+    private static Slice createBoundMap()
+    {
+        Map<Slice, Long> map = new LinkedHashMap<>();
+        map.put(Slices.utf8Slice("a"), 1L);
+        map.put(Slices.utf8Slice("b"), null);
+        return BOUND_MAP_TYPE.toStackRepresentation(map);
+    }
+
+    private static Block createSlicesBlock(Type type, Slice value)
+    {
+        return type.createBlockBuilder(new BlockBuilderStatus())
+                .appendSlice(value)
+                .build();
+    }
+
     private static class TestDataStreamProvider
             implements DataStreamProvider
     {
@@ -601,14 +635,16 @@ public final class FunctionAssertions
             assertInstanceOf(split.getConnectorSplit(), FunctionAssertions.TestSplit.class);
             FunctionAssertions.TestSplit testSplit = (FunctionAssertions.TestSplit) split.getConnectorSplit();
             if (testSplit.isRecordSet()) {
-                RecordSet records = InMemoryRecordSet.builder(ImmutableList.of(BIGINT, VARCHAR, DOUBLE, BOOLEAN, BIGINT, VARCHAR, VARCHAR)).addRow(
+                RecordSet records = InMemoryRecordSet.builder(ImmutableList.of(BIGINT, VARCHAR, DOUBLE, BOOLEAN, BIGINT, VARCHAR, VARCHAR, BOUND_ARRAY_TYPE, BOUND_MAP_TYPE)).addRow(
                         1234L,
                         "hello",
                         12.34,
                         true,
                         new DateTime(2001, 8, 22, 3, 4, 5, 321, DateTimeZone.UTC).getMillis(),
                         "%el%",
-                        null
+                        null,
+                        BOUND_ARRAY.getBytes(),
+                        BOUND_MAP.getBytes()
                 ).build();
                 return new RecordProjectOperator(operatorContext, records);
             }
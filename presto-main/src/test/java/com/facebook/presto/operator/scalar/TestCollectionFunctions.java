@@ -0,0 +1,75 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.scalar;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class TestCollectionFunctions
+{
+    private FunctionAssertions functionAssertions;
+
+    @BeforeClass
+    public void setUp()
+    {
+        functionAssertions = new FunctionAssertions();
+    }
+
+    // bound_array is [1, null, 3] and bound_map is {'a': 1, 'b': null}
+
+    @Test
+    public void testSubscript()
+    {
+        assertFunction("bound_array[1]", 1L);
+        assertFunction("bound_array[3]", 3L);
+        assertFunction("bound_array[1] + bound_array[3]", 4L);
+        assertFunction("bound_map['a']", 1L);
+        assertFunctionNull("bound_array[2]");
+        assertFunctionNull("bound_array[0]");
+        assertFunctionNull("bound_array[4]");
+        assertFunctionNull("bound_map['b']");
+        assertFunctionNull("bound_map['c']");
+    }
+
+    @Test
+    public void testElementAt()
+    {
+        assertFunction("element_at(bound_array, 1)", 1L);
+        assertFunction("element_at(bound_array, bound_long - 1231)", 3L);
+        assertFunction("element_at(bound_map, 'a')", 1L);
+        assertFunction("element_at(bound_map, 'a') IS NULL", false);
+        assertFunction("element_at(bound_map, 'b') IS NULL", true);
+        assertFunction("COALESCE(element_at(bound_array, 2), -1)", -1L);
+        assertFunctionNull("element_at(bound_array, -1)");
+        assertFunctionNull("element_at(bound_map, 'c')");
+    }
+
+    @Test
+    public void testCardinality()
+    {
+        assertFunction("cardinality(bound_array)", 3L);
+        assertFunction("cardinality(bound_map)", 2L);
+        assertFunction("cardinality(bound_array) + cardinality(bound_map)", 5L);
+    }
+
+    private void assertFunction(String projection, Object expected)
+    {
+        functionAssertions.assertFunction(projection, expected);
+    }
+
+    private void assertFunctionNull(String projection)
+    {
+        functionAssertions.assertFunctionNull(projection);
+    }
+}
@@ -399,4 +399,201 @@ public class TestWindowFunctions
                         .build(), queryRunner);
 
     }
+
+    @Test
+    public void testMultipleWindowsSamePartitioning()
+    {
+        assertWindowQuery("row_number() OVER (PARTITION BY orderstatus ORDER BY orderkey), " +
+                        "row_number() OVER (PARTITION BY orderstatus ORDER BY orderkey DESC)",
+                resultBuilder(SESSION, BIGINT, VARCHAR, BIGINT, BIGINT)
+                        .row(3, "F", 1, 4)
+                        .row(5, "F", 2, 3)
+                        .row(6, "F", 3, 2)
+                        .row(33, "F", 4, 1)
+                        .row(1, "O", 1, 6)
+                        .row(2, "O", 2, 5)
+                        .row(4, "O", 3, 4)
+                        .row(7, "O", 4, 3)
+                        .row(32, "O", 5, 2)
+                        .row(34, "O", 6, 1)
+                        .build(), queryRunner);
+    }
+
+    @Test
+    public void testAggregateCumulativeFrame()
+    {
+        assertWindowQuery("sum(orderkey) OVER (PARTITION BY orderstatus ORDER BY orderkey)",
+                resultBuilder(SESSION, BIGINT, VARCHAR, BIGINT)
+                        .row(3, "F", 3)
+                        .row(5, "F", 8)
+                        .row(6, "F", 14)
+                        .row(33, "F", 47)
+                        .row(1, "O", 1)
+                        .row(2, "O", 3)
+                        .row(4, "O", 7)
+                        .row(7, "O", 14)
+                        .row(32, "O", 46)
+                        .row(34, "O", 80)
+                        .build(), queryRunner);
+
+        // peers are included in the default RANGE frame
+        assertWindowQuery("count(*) OVER (ORDER BY orderstatus)",
+                resultBuilder(SESSION, BIGINT, VARCHAR, BIGINT)
+                        .row(3, "F", 4)
+                        .row(5, "F", 4)
+                        .row(6, "F", 4)
+                        .row(33, "F", 4)
+                        .row(1, "O", 10)
+                        .row(2, "O", 10)
+                        .row(4, "O", 10)
+                        .row(7, "O", 10)
+                        .row(32, "O", 10)
+                        .row(34, "O", 10)
+                        .build(), queryRunner);
+
+        assertWindowQuery("count(*) OVER (PARTITION BY orderstatus)",
+                resultBuilder(SESSION, BIGINT, VARCHAR, BIGINT)
+                        .row(3, "F", 4)
+                        .row(5, "F", 4)
+                        .row(6, "F", 4)
+                        .row(33, "F", 4)
+                        .row(1, "O", 6)
+                        .row(2, "O", 6)
+                        .row(4, "O", 6)
+                        .row(7, "O", 6)
+                        .row(32, "O", 6)
+                        .row(34, "O", 6)
+                        .build(), queryRunner);
+    }
+
+    @Test
+    public void testAggregateSlidingFrame()
+    {
+        // sum does not support removal, so this uses the segment tree
+        assertWindowQuery("sum(orderkey) OVER (PARTITION BY orderstatus ORDER BY orderkey ROWS BETWEEN 1 PRECEDING AND CURRENT ROW)",
+                resultBuilder(SESSION, BIGINT, VARCHAR, BIGINT)
+                        .row(3, "F", 3)
+                        .row(5, "F", 8)
+                        .row(6, "F", 11)
+                        .row(33, "F", 39)
+                        .row(1, "O", 1)
+                        .row(2, "O", 3)
+                        .row(4, "O", 6)
+                        .row(7, "O", 11)
+                        .row(32, "O", 39)
+                        .row(34, "O", 66)
+                        .build(), queryRunner);
+
+        // count supports removal, so this adds and removes rows
+        assertWindowQuery("count(*) OVER (PARTITION BY orderstatus ORDER BY orderkey ROWS BETWEEN 1 PRECEDING AND 1 FOLLOWING)",
+                resultBuilder(SESSION, BIGINT, VARCHAR, BIGINT)
+                        .row(3, "F", 2)
+                        .row(5, "F", 3)
+                        .row(6, "F", 3)
+                        .row(33, "F", 2)
+                        .row(1, "O", 2)
+                        .row(2, "O", 3)
+                        .row(4, "O", 3)
+                        .row(7, "O", 3)
+                        .row(32, "O", 3)
+                        .row(34, "O", 2)
+                        .build(), queryRunner);
+
+        assertWindowQuery("avg(orderkey) OVER (PARTITION BY orderstatus ORDER BY orderkey ROWS BETWEEN CURRENT ROW AND UNBOUNDED FOLLOWING)",
+                resultBuilder(SESSION, BIGINT, VARCHAR, DOUBLE)
+                        .row(3, "F", 11.75)
+                        .row(5, "F", 44.0 / 3)
+                        .row(6, "F", 19.5)
+                        .row(33, "F", 33.0)
+                        .row(1, "O", 80.0 / 6)
+                        .row(2, "O", 15.8)
+                        .row(4, "O", 19.25)
+                        .row(7, "O", 73.0 / 3)
+                        .row(32, "O", 33.0)
+                        .row(34, "O", 34.0)
+                        .build(), queryRunner);
+    }
+
+    @Test
+    public void testAggregateSlidingFrameWithNaN()
+    {
+        // avg does not support removal, so a NaN only affects the frames that contain it
+        assertWindowQuery("avg(CASE WHEN orderkey = 1 THEN nan() ELSE orderkey END) OVER (PARTITION BY orderstatus ORDER BY orderkey ROWS BETWEEN 1 PRECEDING AND CURRENT ROW)",
+                resultBuilder(SESSION, BIGINT, VARCHAR, DOUBLE)
+                        .row(3, "F", 3.0)
+                        .row(5, "F", 4.0)
+                        .row(6, "F", 5.5)
+                        .row(33, "F", 19.5)
+                        .row(1, "O", Double.NaN)
+                        .row(2, "O", Double.NaN)
+                        .row(4, "O", 3.0)
+                        .row(7, "O", 5.5)
+                        .row(32, "O", 19.5)
+                        .row(34, "O", 33.0)
+                        .build(), queryRunner);
+    }
+
+    @Test
+    public void testAggregateEmptyFrame()
+    {
+        assertWindowQuery("sum(orderkey) OVER (PARTITION BY orderstatus ORDER BY orderkey ROWS BETWEEN UNBOUNDED PRECEDING AND 1 PRECEDING)",
+                resultBuilder(SESSION, BIGINT, VARCHAR, BIGINT)
+                        .row(3, "F", null)
+                        .row(5, "F", 3)
+                        .row(6, "F", 8)
+                        .row(33, "F", 14)
+                        .row(1, "O", null)
+                        .row(2, "O", 1)
+                        .row(4, "O", 3)
+                        .row(7, "O", 7)
+                        .row(32, "O", 14)
+                        .row(34, "O", 46)
+                        .build(), queryRunner);
+
+        assertWindowQuery("max(orderkey) OVER (PARTITION BY orderstatus ORDER BY orderkey ROWS BETWEEN 2 FOLLOWING AND 3 FOLLOWING)",
+                resultBuilder(SESSION, BIGINT, VARCHAR, BIGINT)
+                        .row(3, "F", 33)
+                        .row(5, "F", 33)
+                        .row(6, "F", null)
+                        .row(33, "F", null)
+                        .row(1, "O", 7)
+                        .row(2, "O", 32)
+                        .row(4, "O", 34)
+                        .row(7, "O", 34)
+                        .row(32, "O", null)
+                        .row(34, "O", null)
+                        .build(), queryRunner);
+    }
+
+    @Test
+    public void testAggregateLargeFrameOffset()
+    {
+        assertWindowQuery("sum(orderkey) OVER (PARTITION BY orderstatus ORDER BY orderkey ROWS BETWEEN 9223372036854775807 PRECEDING AND 9223372036854775807 FOLLOWING)",
+                resultBuilder(SESSION, BIGINT, VARCHAR, BIGINT)
+                        .row(3, "F", 47)
+                        .row(5, "F", 47)
+                        .row(6, "F", 47)
+                        .row(33, "F", 47)
+                        .row(1, "O", 80)
+                        .row(2, "O", 80)
+                        .row(4, "O", 80)
+                        .row(7, "O", 80)
+                        .row(32, "O", 80)
+                        .row(34, "O", 80)
+                        .build(), queryRunner);
+
+        assertWindowQuery("sum(orderkey) OVER (PARTITION BY orderstatus ORDER BY orderkey ROWS BETWEEN 9223372036854775807 FOLLOWING AND UNBOUNDED FOLLOWING)",
+                resultBuilder(SESSION, BIGINT, VARCHAR, BIGINT)
+                        .row(3, "F", null)
+                        .row(5, "F", null)
+                        .row(6, "F", null)
+                        .row(33, "F", null)
+                        .row(1, "O", null)
+                        .row(2, "O", null)
+                        .row(4, "O", null)
+                        .row(7, "O", null)
+                        .row(32, "O", null)
+                        .row(34, "O", null)
+                        .build(), queryRunner);
+    }
 }
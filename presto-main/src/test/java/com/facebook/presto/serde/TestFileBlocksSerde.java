@@ -14,6 +14,7 @@
 package com.facebook.presto.serde;
 
 import com.facebook.presto.block.BlockAssertions;
+import com.facebook.presto.block.dictionary.DictionaryEncodedBlock;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.google.common.collect.ImmutableList;
@@ -25,6 +26,7 @@ import org.testng.annotations.Test;
 
 import java.util.List;
 
+import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
 import static com.facebook.presto.serde.BlocksFileReader.readBlocks;
 import static com.facebook.presto.testing.TestingBlockEncodingManager.createTestingBlockEncodingManager;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
@@ -55,10 +57,24 @@ public class TestFileBlocksSerde
 
     @Test
     public void testRoundTrip()
+    {
+        testRoundTrip(expectedBlock);
+    }
+
+    @Test
+    public void testDictionaryEncodedInput()
+    {
+        testRoundTrip(new DictionaryEncodedBlock(expectedBlock, createLongsBlock(0, 1, 2, 3)));
+    }
+
+    private void testRoundTrip(Block block)
     {
         for (BlocksFileEncoding encoding : BlocksFileEncoding.values()) {
+            if (!encoding.supports(VARCHAR)) {
+                continue;
+            }
             try {
-                testRoundTrip(encoding);
+                testRoundTrip(encoding, block);
             }
             catch (Throwable e) {
                 throw new RuntimeException("Round trip failed for encoding: " + encoding, e);
@@ -66,15 +82,15 @@ public class TestFileBlocksSerde
         }
     }
 
-    public void testRoundTrip(BlocksFileEncoding encoding)
+    private void testRoundTrip(BlocksFileEncoding encoding, Block block)
     {
         DynamicSliceOutputSupplier sliceOutput = new DynamicSliceOutputSupplier(1024);
 
         // write 3 copies the expected block
         BlocksFileWriter fileWriter = new BlocksFileWriter(createTestingBlockEncodingManager(), encoding, sliceOutput);
-        fileWriter.append(expectedBlock);
-        fileWriter.append(expectedBlock);
-        fileWriter.append(expectedBlock);
+        fileWriter.append(block);
+        fileWriter.append(block);
+        fileWriter.append(block);
         fileWriter.close();
 
         // read the block
@@ -0,0 +1,111 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.serde;
+
+import com.facebook.presto.block.BlockAssertions;
+import com.facebook.presto.block.packed.PackedLongBlockEncoding;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.block.BlockEncoding;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.SliceInput;
+import org.testng.annotations.Test;
+
+import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.TimestampType.TIMESTAMP;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestPackedLongBlockSerde
+{
+    @Test
+    public void testSortedValues()
+    {
+        BlockBuilder blockBuilder = TIMESTAMP.createBlockBuilder(new BlockBuilderStatus());
+        for (int i = 0; i < 1000; i++) {
+            blockBuilder.appendLong(1_400_000_000_000L + (i * 17));
+        }
+        Block block = blockBuilder.build();
+
+        int size = assertRoundTrip(block);
+        // deltas fit in 6 bits
+        assertTrue(size < 1000, "size is " + size);
+    }
+
+    @Test
+    public void testNarrowValues()
+    {
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(new BlockBuilderStatus());
+        for (int i = 0; i < 1000; i++) {
+            blockBuilder.appendLong(5_000_000 + ((i * 7919) % 200));
+        }
+        Block block = blockBuilder.build();
+
+        int size = assertRoundTrip(block);
+        // offsets from the minimum fit in 9 bits
+        assertTrue(size < 1200, "size is " + size);
+    }
+
+    @Test
+    public void testExtremeValues()
+    {
+        assertRoundTrip(createLongsBlock(Long.MIN_VALUE, Long.MAX_VALUE, 0L, -1L, Long.MIN_VALUE, 1L, Long.MAX_VALUE));
+        assertRoundTrip(createLongsBlock(Long.MAX_VALUE, Long.MIN_VALUE));
+        assertRoundTrip(createLongsBlock(0L));
+        assertRoundTrip(createLongsBlock(-3L, -2L, -1L));
+    }
+
+    @Test
+    public void testNulls()
+    {
+        assertRoundTrip(createLongsBlock(null, 1L, null, null, 3L, 2L, null, 5L, 6L, 7L, null));
+        assertRoundTrip(createLongsBlock((Long) null));
+        assertRoundTrip(createLongsBlock(null, null, null));
+    }
+
+    @Test
+    public void testCreateBlockWriter()
+    {
+        Block expectedBlock = createLongsBlock(10L, 11L, null, 12L, 13L);
+
+        DynamicSliceOutput sliceOutput = new DynamicSliceOutput(1024);
+        BlockEncoding blockEncoding = new PackedLongEncoder(sliceOutput)
+                .append(expectedBlock)
+                .append(expectedBlock)
+                .finish();
+        SliceInput sliceInput = sliceOutput.slice().getInput();
+
+        Block block = blockEncoding.readBlock(sliceInput);
+        assertEquals(block.getType(), BIGINT);
+        assertEquals(BlockAssertions.toValues(block), BlockAssertions.toValues(createLongsBlock(10L, 11L, null, 12L, 13L, 10L, 11L, null, 12L, 13L)));
+        assertFalse(sliceInput.isReadable());
+    }
+
+    private static int assertRoundTrip(Block block)
+    {
+        PackedLongBlockEncoding encoding = new PackedLongBlockEncoding(block.getType());
+        DynamicSliceOutput sliceOutput = new DynamicSliceOutput(1024);
+        encoding.writeBlock(sliceOutput, block);
+
+        SliceInput sliceInput = sliceOutput.slice().getInput();
+        Block actual = encoding.readBlock(sliceInput);
+        assertFalse(sliceInput.isReadable());
+        assertEquals(actual.getPositionCount(), block.getPositionCount());
+        BlockAssertions.assertBlockEquals(actual, block);
+        return sliceOutput.size();
+    }
+}
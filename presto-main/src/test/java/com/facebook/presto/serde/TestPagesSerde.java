@@ -13,6 +13,9 @@
  */
 package com.facebook.presto.serde;
 
+import com.facebook.presto.block.dictionary.DictionaryEncodedBlock;
+import com.facebook.presto.block.rle.RunLengthEncodedBlock;
+import com.facebook.presto.block.selection.SelectedPositionsBlock;
 import com.facebook.presto.operator.Page;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
@@ -24,6 +27,8 @@ import org.testng.annotations.Test;
 
 import java.util.Iterator;
 
+import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
+import static com.facebook.presto.block.BlockAssertions.createStringsBlock;
 import static com.facebook.presto.operator.PageAssertions.assertPageEquals;
 import static com.facebook.presto.serde.PagesSerde.readPages;
 import static com.facebook.presto.serde.PagesSerde.writePages;
@@ -55,6 +60,54 @@ public class TestPagesSerde
         assertFalse(pageIterator.hasNext());
     }
 
+    @Test
+    public void testEncodedBlocks()
+    {
+        Block firstDictionary = createStringsBlock("alice", "bob");
+        Block secondDictionary = createStringsBlock("charlie", "dave");
+        Page firstPage = new Page(
+                new DictionaryEncodedBlock(firstDictionary, createLongsBlock(0, 1, 1)),
+                new RunLengthEncodedBlock(createLongsBlock(7), 3));
+        Page secondPage = new Page(
+                new DictionaryEncodedBlock(secondDictionary, createLongsBlock(1, 0, 0)),
+                createLongsBlock(8, 9, 10));
+
+        DynamicSliceOutput sliceOutput = new DynamicSliceOutput(1024);
+        writePages(createTestingBlockEncodingManager(), sliceOutput, firstPage, secondPage);
+        Iterator<Page> pageIterator = readPages(createTestingBlockEncodingManager(), sliceOutput.slice().getInput());
+        assertPageEquals(pageIterator.next(), new Page(createStringsBlock("alice", "bob", "bob"), createLongsBlock(7, 7, 7)));
+        assertPageEquals(pageIterator.next(), new Page(createStringsBlock("dave", "charlie", "charlie"), createLongsBlock(8, 9, 10)));
+        assertFalse(pageIterator.hasNext());
+    }
+
+    @Test
+    public void testSelectedPositionsBlocks()
+    {
+        Block longs = createLongsBlock(1, 2, 3, 4);
+        Block strings = createStringsBlock("alice", "bob", "charlie", "dave");
+        Page selectedPage = new Page(
+                new SelectedPositionsBlock(longs, new int[] {1, 3}, 2),
+                new SelectedPositionsBlock(strings, new int[] {1, 3}, 2));
+        Page plainPage = new Page(longs, strings);
+
+        // a filter emits the input block itself when every position is selected
+        DynamicSliceOutput sliceOutput = new DynamicSliceOutput(1024);
+        writePages(createTestingBlockEncodingManager(), sliceOutput, selectedPage, plainPage, selectedPage);
+        Iterator<Page> pageIterator = readPages(createTestingBlockEncodingManager(), sliceOutput.slice().getInput());
+        Page expectedSelectedPage = new Page(createLongsBlock(2, 4), createStringsBlock("bob", "dave"));
+        assertPageEquals(pageIterator.next(), expectedSelectedPage);
+        assertPageEquals(pageIterator.next(), plainPage);
+        assertPageEquals(pageIterator.next(), expectedSelectedPage);
+        assertFalse(pageIterator.hasNext());
+
+        sliceOutput = new DynamicSliceOutput(1024);
+        writePages(createTestingBlockEncodingManager(), sliceOutput, plainPage, selectedPage);
+        pageIterator = readPages(createTestingBlockEncodingManager(), sliceOutput.slice().getInput());
+        assertPageEquals(pageIterator.next(), plainPage);
+        assertPageEquals(pageIterator.next(), expectedSelectedPage);
+        assertFalse(pageIterator.hasNext());
+    }
+
     @Test
     public void testBigintSerializedSize()
     {
@@ -22,6 +22,8 @@ import com.facebook.presto.spi.ColumnMetadata;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.ConnectorTableMetadata;
 import com.facebook.presto.spi.SchemaTableName;
+import com.facebook.presto.spi.type.ArrayType;
+import com.facebook.presto.spi.type.MapType;
 import com.facebook.presto.sql.parser.SqlParser;
 import com.facebook.presto.sql.tree.Statement;
 import com.facebook.presto.type.TypeRegistry;
@@ -44,6 +46,8 @@ import static com.facebook.presto.sql.analyzer.SemanticErrorCode.COLUMN_NAME_NOT
 import static com.facebook.presto.sql.analyzer.SemanticErrorCode.DUPLICATE_COLUMN_NAME;
 import static com.facebook.presto.sql.analyzer.SemanticErrorCode.DUPLICATE_RELATION;
 import static com.facebook.presto.sql.analyzer.SemanticErrorCode.INVALID_ORDINAL;
+import static com.facebook.presto.sql.analyzer.SemanticErrorCode.INVALID_TABLE_PROPERTY;
+import static com.facebook.presto.sql.analyzer.SemanticErrorCode.INVALID_WINDOW_FRAME;
 import static com.facebook.presto.sql.analyzer.SemanticErrorCode.MISMATCHED_COLUMN_ALIASES;
 import static com.facebook.presto.sql.analyzer.SemanticErrorCode.MISMATCHED_SET_COLUMN_TYPES;
 import static com.facebook.presto.sql.analyzer.SemanticErrorCode.MISSING_ATTRIBUTE;
@@ -334,11 +338,39 @@ public class TestAnalyzer
     }
 
     @Test
-    public void testWindowFrameNotSupported()
+    public void testWindowFrame()
             throws Exception
     {
-        assertFails(NOT_SUPPORTED, "SELECT count(*) over (ORDER BY a ROWS UNBOUNDED PRECEDING) FROM t1");
-        assertFails(NOT_SUPPORTED, "SELECT count(*) over (ORDER BY a ROWS UNBOUNDED FOLLOWING) FROM t1");
+        analyze("SELECT count(*) over (ORDER BY a ROWS UNBOUNDED PRECEDING) FROM t1");
+        analyze("SELECT sum(a) over (ORDER BY a ROWS BETWEEN 2 PRECEDING AND b FOLLOWING) FROM t1");
+        analyze("SELECT avg(a) over (PARTITION BY b ORDER BY a RANGE BETWEEN CURRENT ROW AND UNBOUNDED FOLLOWING) FROM t1");
+
+        assertFails(INVALID_WINDOW_FRAME, "SELECT count(*) over (ORDER BY a ROWS UNBOUNDED FOLLOWING) FROM t1");
+        assertFails(INVALID_WINDOW_FRAME, "SELECT count(*) over (ORDER BY a ROWS BETWEEN CURRENT ROW AND UNBOUNDED PRECEDING) FROM t1");
+        assertFails(INVALID_WINDOW_FRAME, "SELECT count(*) over (ORDER BY a ROWS BETWEEN CURRENT ROW AND 1 PRECEDING) FROM t1");
+        assertFails(INVALID_WINDOW_FRAME, "SELECT count(*) over (ORDER BY a ROWS BETWEEN 1 FOLLOWING AND CURRENT ROW) FROM t1");
+        assertFails(NOT_SUPPORTED, "SELECT count(*) over (ORDER BY a RANGE 1 PRECEDING) FROM t1");
+        assertFails(TYPE_MISMATCH, "SELECT count(*) over (ORDER BY a ROWS 'foo' PRECEDING) FROM t1");
+        assertFails(INVALID_WINDOW_FRAME, "SELECT count(*) over (ORDER BY a ROWS -1 PRECEDING) FROM t1");
+        assertFails(INVALID_WINDOW_FRAME, "SELECT first_value(a) over (ORDER BY a ROWS BETWEEN 2 PRECEDING AND CURRENT ROW) FROM t1");
+        assertFails(INVALID_WINDOW_FRAME, "SELECT row_number() over (ORDER BY a ROWS UNBOUNDED PRECEDING) FROM t1");
+    }
+
+    @Test
+    public void testOrderByCollection()
+            throws Exception
+    {
+        analyze("SELECT b[1] FROM t5 ORDER BY b[1]");
+        analyze("SELECT cardinality(c) FROM t5 ORDER BY 1");
+        analyze("SELECT DISTINCT b FROM t5");
+
+        assertFails(TYPE_MISMATCH, "SELECT b FROM t5 ORDER BY b");
+        assertFails(TYPE_MISMATCH, "SELECT a FROM t5 ORDER BY c");
+        assertFails(TYPE_MISMATCH, "SELECT b x FROM t5 ORDER BY x");
+        assertFails(TYPE_MISMATCH, "SELECT b FROM t5 ORDER BY 1");
+        assertFails(TYPE_MISMATCH, "SELECT * FROM t5 ORDER BY 3");
+        assertFails(TYPE_MISMATCH, "SELECT b FROM t5 UNION ALL SELECT b FROM t5 ORDER BY 1");
+        assertFails(TYPE_MISMATCH, "SELECT rank() over (ORDER BY b) FROM t5");
     }
 
     @Test
@@ -569,6 +601,15 @@ public class TestAnalyzer
         assertFails(DUPLICATE_COLUMN_NAME, "CREATE VIEW test AS SELECT 1 a, 2 a");
     }
 
+    @Test
+    public void testCreateTableProperties()
+            throws Exception
+    {
+        analyze("CREATE TABLE test WITH (bucket_count = 2 * 16, bucketed_on = 'a') AS SELECT * FROM t1");
+        assertFails(INVALID_TABLE_PROPERTY, "CREATE TABLE test WITH (bucket_count = a) AS SELECT * FROM t1");
+        assertFails(INVALID_TABLE_PROPERTY, "CREATE TABLE test WITH (bucket_count = NULL) AS SELECT * FROM t1");
+    }
+
     @Test
     public void testStaleView()
             throws Exception
@@ -642,6 +683,13 @@ public class TestAnalyzer
                         new ColumnMetadata("a", BIGINT, 0, false),
                         new ColumnMetadata("b", BIGINT, 1, false)))));
 
+        SchemaTableName table5 = new SchemaTableName("default", "t5");
+        metadata.createTable(SESSION, "tpch", new TableMetadata("tpch", new ConnectorTableMetadata(table5,
+                ImmutableList.<ColumnMetadata>of(
+                        new ColumnMetadata("a", BIGINT, 0, false),
+                        new ColumnMetadata("b", new ArrayType(BIGINT), 1, false),
+                        new ColumnMetadata("c", new MapType(VARCHAR, BIGINT), 2, false)))));
+
         // table in different catalog
         SchemaTableName table4 = new SchemaTableName("s2", "t4");
         metadata.createTable(SESSION, "c2", new TableMetadata("tpch", new ConnectorTableMetadata(table4,
@@ -51,6 +51,7 @@ import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import org.testng.Assert;
@@ -280,8 +281,11 @@ public class TestEffectivePredicateExtractor
                 ImmutableList.of(A),
                 ImmutableList.of(A),
                 ImmutableMap.of(A, SortOrder.ASC_NULLS_LAST),
+                WindowNode.Frame.defaultFrame(),
                 ImmutableMap.<Symbol, FunctionCall>of(),
-                ImmutableMap.<Symbol, Signature>of());
+                ImmutableMap.<Symbol, Signature>of(),
+                ImmutableSet.<Symbol>of(),
+                0);
 
         Expression effectivePredicate = EffectivePredicateExtractor.extract(node, TYPES);
 
@@ -25,6 +25,9 @@ tokens {
     TERMINATOR;
     STATEMENT_LIST;
     GROUP_BY;
+    SIMPLE_GROUP_BY;
+    GROUPING_SETS;
+    GROUPING_SET;
     ORDER_BY;
     SORT_ITEM;
     QUERY;
@@ -74,6 +77,8 @@ tokens {
     USE_CATALOG;
     USE_SCHEMA;
     CREATE_TABLE;
+    TABLE_PROPERTIES;
+    TABLE_PROPERTY;
     DROP_TABLE;
     CREATE_VIEW;
     DROP_VIEW;
@@ -252,7 +257,20 @@ whereClause
     ;
 
 groupClause
-    : GROUP BY expr (',' expr)* -> ^(GROUP_BY expr+)
+    : GROUP BY groupingElement (',' groupingElement)* -> ^(GROUP_BY groupingElement+)
+    ;
+
+groupingElement
+    : ROLLUP '(' expr (',' expr)* ')'                            -> ^(ROLLUP expr+)
+    | CUBE '(' expr (',' expr)* ')'                              -> ^(CUBE expr+)
+    | GROUPING SETS '(' groupingSet (',' groupingSet)* ')'       -> ^(GROUPING_SETS groupingSet+)
+    | expr                                                       -> ^(SIMPLE_GROUP_BY expr)
+    ;
+
+groupingSet
+    : ('(' ')') => '(' ')'                                       -> ^(GROUPING_SET)
+    | ('(' expr ',') => '(' expr (',' expr)* ')'                 -> ^(GROUPING_SET expr+)
+    | expr                                                       -> ^(GROUPING_SET expr)
     ;
 
 havingClause
@@ -417,7 +435,7 @@ numericFactor
     ;
 
 exprWithTimeZone
-    : (exprPrimary -> exprPrimary)
+    : (exprSubscript -> exprSubscript)
       (
         // todo this should have a full tree node to preserve the syntax
         AT TIME ZONE STRING           -> ^(FUNCTION_CALL ^(QNAME IDENT["at_time_zone"]) $exprWithTimeZone STRING)
@@ -425,6 +443,11 @@ exprWithTimeZone
       )?
     ;
 
+exprSubscript
+    : (exprPrimary -> exprPrimary)
+      ( '[' e=expr ']' -> ^(FUNCTION_CALL ^(QNAME IDENT["element_at"]) $exprSubscript $e) )*
+    ;
+
 exprPrimary
     : NULL
     | (literal) => literal
@@ -630,7 +653,15 @@ dropTableStmt
     ;
 
 createTableStmt
-    : CREATE TABLE qname s=tableContentsSource -> ^(CREATE_TABLE qname $s)
+    : CREATE TABLE qname p=tableProperties? s=tableContentsSource -> ^(CREATE_TABLE qname $s $p?)
+    ;
+
+tableProperties
+    : WITH '(' tableProperty (',' tableProperty)* ')' -> ^(TABLE_PROPERTIES tableProperty+)
+    ;
+
+tableProperty
+    : ident EQ expr -> ^(TABLE_PROPERTY ident expr)
     ;
 
 createViewStmt
@@ -732,6 +763,7 @@ nonReserved
     | TABLESAMPLE | SYSTEM | BERNOULLI | POISSONIZED | USE | SCHEMA | CATALOG | JSON | TO
     | RESCALED | APPROXIMATE | AT | CONFIDENCE
     | VIEW | REPLACE
+    | SETS
     ;
 
 SELECT: 'SELECT';
@@ -742,6 +774,10 @@ DISTINCT: 'DISTINCT';
 WHERE: 'WHERE';
 GROUP: 'GROUP';
 BY: 'BY';
+ROLLUP: 'ROLLUP';
+CUBE: 'CUBE';
+GROUPING: 'GROUPING';
+SETS: 'SETS';
 ORDER: 'ORDER';
 HAVING: 'HAVING';
 LIMIT: 'LIMIT';
@@ -26,7 +26,9 @@ options {
     import com.facebook.presto.sql.tree.*;
 
     import java.util.ArrayList;
+    import java.util.LinkedHashMap;
     import java.util.List;
+    import java.util.Map;
     import com.google.common.collect.ImmutableList;
     import com.google.common.base.Objects;
     import com.google.common.base.Optional;
@@ -111,7 +113,7 @@ querySpec returns [QuerySpecification value]
             $selectClause.value,
             $fromClause.value,
             Optional.fromNullable($whereClause.value),
-            Objects.firstNonNull($groupClause.value, ImmutableList.<Expression>of()),
+            Objects.firstNonNull($groupClause.value, ImmutableList.<GroupingElement>of()),
             Optional.fromNullable($havingClause.value),
             Objects.firstNonNull($orderClause.value, ImmutableList.<SortItem>of()),
             Optional.fromNullable($limitClause.value));
@@ -132,7 +134,7 @@ restrictedSelectStmt returns [Query value]
                 $selectClause.value,
                 $fromClause.value,
                 Optional.<Expression>absent(),
-                ImmutableList.<Expression>of(),
+                ImmutableList.<GroupingElement>of(),
                 Optional.<Expression>absent(),
                 ImmutableList.<SortItem>of(),
                 Optional.<String>absent()),
@@ -193,8 +195,23 @@ whereClause returns [Expression value]
     : ^(WHERE expr) { $value = $expr.value; }
     ;
 
-groupClause returns [List<Expression> value]
-    : ^(GROUP_BY exprList) { $value = $exprList.value; }
+groupClause returns [List<GroupingElement> value = new ArrayList<>()]
+    : ^(GROUP_BY ( groupingElement { $value.add($groupingElement.value); } )+)
+    ;
+
+groupingElement returns [GroupingElement value]
+    : ^(SIMPLE_GROUP_BY expr)      { $value = new SimpleGroupBy(ImmutableList.of($expr.value)); }
+    | ^(ROLLUP exprList)           { $value = new Rollup($exprList.value); }
+    | ^(CUBE exprList)             { $value = new Cube($exprList.value); }
+    | ^(GROUPING_SETS groupingSets) { $value = new GroupingSets($groupingSets.value); }
+    ;
+
+groupingSets returns [List<List<Expression>> value = new ArrayList<>()]
+    : ( groupingSet { $value.add($groupingSet.value); } )+
+    ;
+
+groupingSet returns [List<Expression> value = new ArrayList<>()]
+    : ^(GROUPING_SET ( expr { $value.add($expr.value); } )*)
     ;
 
 havingClause returns [Expression value]
@@ -551,7 +568,20 @@ useCollection returns [Statement value]
     ;
 
 createTable returns [Statement value]
-    : ^(CREATE_TABLE qname query) { $value = new CreateTable($qname.value, $query.value); }
+    : ^(CREATE_TABLE qname query p=tableProperties?) { $value = new CreateTable($qname.value, $query.value, $p.value); }
+    ;
+
+tableProperties returns [Map<String, Expression> value = new LinkedHashMap<>()]
+    : ^(TABLE_PROPERTIES ( tableProperty[$value] )+ )
+    ;
+
+tableProperty[Map<String, Expression> properties]
+    : ^(TABLE_PROPERTY ident expr)
+        {
+            if ($properties.put($ident.value, $expr.value) != null) {
+                throw new ParsingException("Duplicate table property: " + $ident.value);
+            }
+        }
     ;
 
 dropTable returns [Statement value]
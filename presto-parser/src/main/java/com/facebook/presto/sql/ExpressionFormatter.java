@@ -19,6 +19,7 @@ import com.facebook.presto.sql.tree.AstVisitor;
 import com.facebook.presto.sql.tree.BetweenPredicate;
 import com.facebook.presto.sql.tree.BooleanLiteral;
 import com.facebook.presto.sql.tree.Cast;
+import com.facebook.presto.sql.tree.Cube;
 import com.facebook.presto.sql.tree.InputReference;
 import com.facebook.presto.sql.tree.CoalesceExpression;
 import com.facebook.presto.sql.tree.ComparisonExpression;
@@ -30,6 +31,8 @@ import com.facebook.presto.sql.tree.Extract;
 import com.facebook.presto.sql.tree.FrameBound;
 import com.facebook.presto.sql.tree.FunctionCall;
 import com.facebook.presto.sql.tree.GenericLiteral;
+import com.facebook.presto.sql.tree.GroupingElement;
+import com.facebook.presto.sql.tree.GroupingSets;
 import com.facebook.presto.sql.tree.IfExpression;
 import com.facebook.presto.sql.tree.InListExpression;
 import com.facebook.presto.sql.tree.InPredicate;
@@ -46,8 +49,10 @@ import com.facebook.presto.sql.tree.NullIfExpression;
 import com.facebook.presto.sql.tree.NullLiteral;
 import com.facebook.presto.sql.tree.QualifiedName;
 import com.facebook.presto.sql.tree.QualifiedNameReference;
+import com.facebook.presto.sql.tree.Rollup;
 import com.facebook.presto.sql.tree.SearchedCaseExpression;
 import com.facebook.presto.sql.tree.SimpleCaseExpression;
+import com.facebook.presto.sql.tree.SimpleGroupBy;
 import com.facebook.presto.sql.tree.SortItem;
 import com.facebook.presto.sql.tree.StringLiteral;
 import com.facebook.presto.sql.tree.SubqueryExpression;
@@ -502,6 +507,36 @@ public final class ExpressionFormatter
         return "'" + s.replace("'", "''") + "'";
     }
 
+    static String formatGroupBy(List<GroupingElement> groupingElements)
+    {
+        ImmutableList.Builder<String> resultStrings = ImmutableList.builder();
+
+        for (GroupingElement groupingElement : groupingElements) {
+            String result;
+            if (groupingElement instanceof SimpleGroupBy) {
+                result = Joiner.on(", ").join(transform(((SimpleGroupBy) groupingElement).getColumns(), expressionFormatterFunction()));
+            }
+            else if (groupingElement instanceof Rollup) {
+                result = "ROLLUP (" + Joiner.on(", ").join(transform(((Rollup) groupingElement).getColumns(), expressionFormatterFunction())) + ")";
+            }
+            else if (groupingElement instanceof Cube) {
+                result = "CUBE (" + Joiner.on(", ").join(transform(((Cube) groupingElement).getColumns(), expressionFormatterFunction())) + ")";
+            }
+            else if (groupingElement instanceof GroupingSets) {
+                List<String> sets = new ArrayList<>();
+                for (List<Expression> set : ((GroupingSets) groupingElement).getSets()) {
+                    sets.add("(" + Joiner.on(", ").join(transform(set, expressionFormatterFunction())) + ")");
+                }
+                result = "GROUPING SETS (" + Joiner.on(", ").join(sets) + ")";
+            }
+            else {
+                throw new UnsupportedOperationException("unknown grouping element: " + groupingElement);
+            }
+            resultStrings.add(result);
+        }
+        return Joiner.on(", ").join(resultStrings.build());
+    }
+
     static String formatSortItems(List<SortItem> sortItems)
     {
         return Joiner.on(", ").join(transform(sortItems, sortItemFormatterFunction()));
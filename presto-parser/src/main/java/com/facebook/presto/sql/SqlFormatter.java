@@ -59,9 +59,11 @@ import com.google.common.base.Strings;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import static com.facebook.presto.sql.ExpressionFormatter.expressionFormatterFunction;
 import static com.facebook.presto.sql.ExpressionFormatter.formatExpression;
+import static com.facebook.presto.sql.ExpressionFormatter.formatGroupBy;
 import static com.facebook.presto.sql.ExpressionFormatter.formatSortItems;
 import static com.facebook.presto.sql.ExpressionFormatter.formatStringLiteral;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -183,7 +185,7 @@ public final class SqlFormatter
             }
 
             if (!node.getGroupBy().isEmpty()) {
-                append(indent, "GROUP BY " + Joiner.on(", ").join(transform(node.getGroupBy(), expressionFormatterFunction())))
+                append(indent, "GROUP BY " + formatGroupBy(node.getGroupBy()))
                         .append('\n');
             }
 
@@ -569,8 +571,24 @@ public final class SqlFormatter
         protected Void visitCreateTable(CreateTable node, Integer indent)
         {
             builder.append("CREATE TABLE ")
-                    .append(node.getName())
-                    .append(" AS ");
+                    .append(node.getName());
+
+            if (!node.getProperties().isEmpty()) {
+                builder.append(" WITH (");
+                Iterator<Map.Entry<String, Expression>> properties = node.getProperties().entrySet().iterator();
+                while (properties.hasNext()) {
+                    Map.Entry<String, Expression> property = properties.next();
+                    builder.append(property.getKey())
+                            .append(" = ")
+                            .append(formatExpression(property.getValue()));
+                    if (properties.hasNext()) {
+                        builder.append(", ");
+                    }
+                }
+                builder.append(")");
+            }
+
+            builder.append(" AS ");
 
             process(node.getQuery(), indent);
 
@@ -22,6 +22,7 @@ import com.facebook.presto.sql.tree.ComparisonExpression;
 import com.facebook.presto.sql.tree.DefaultTraversalVisitor;
 import com.facebook.presto.sql.tree.Expression;
 import com.facebook.presto.sql.tree.FunctionCall;
+import com.facebook.presto.sql.tree.GroupingElement;
 import com.facebook.presto.sql.tree.InPredicate;
 import com.facebook.presto.sql.tree.LikePredicate;
 import com.facebook.presto.sql.tree.LogicalBinaryExpression;
@@ -47,6 +48,7 @@ import com.google.common.base.Strings;
 
 import java.io.PrintStream;
 import java.util.IdentityHashMap;
+import java.util.Set;
 
 public class TreePrinter
 {
@@ -116,8 +118,14 @@ public class TreePrinter
 
                 if (!node.getGroupBy().isEmpty()) {
                     print(indentLevel, "GroupBy");
-                    for (Expression expression : node.getGroupBy()) {
-                        process(expression, indentLevel + 1);
+                    for (GroupingElement groupingElement : node.getGroupBy()) {
+                        print(indentLevel + 1, groupingElement.getClass().getSimpleName());
+                        for (Set<Expression> groupingSet : groupingElement.enumerateGroupingSets()) {
+                            print(indentLevel + 2, "GroupingSet");
+                            for (Expression expression : groupingSet) {
+                                process(expression, indentLevel + 3);
+                            }
+                        }
                     }
                 }
 
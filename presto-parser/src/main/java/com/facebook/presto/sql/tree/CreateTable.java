@@ -14,6 +14,9 @@
 package com.facebook.presto.sql.tree;
 
 import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Map;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -22,11 +25,18 @@ public class CreateTable
 {
     private final QualifiedName name;
     private final Query query;
+    private final Map<String, Expression> properties;
 
     public CreateTable(QualifiedName name, Query query)
+    {
+        this(name, query, ImmutableMap.<String, Expression>of());
+    }
+
+    public CreateTable(QualifiedName name, Query query, Map<String, Expression> properties)
     {
         this.name = checkNotNull(name, "name is null");
         this.query = checkNotNull(query, "query is null");
+        this.properties = (properties == null) ? ImmutableMap.<String, Expression>of() : ImmutableMap.copyOf(properties);
     }
 
     public QualifiedName getName()
@@ -39,6 +49,11 @@ public class CreateTable
         return query;
     }
 
+    public Map<String, Expression> getProperties()
+    {
+        return properties;
+    }
+
     @Override
     public <R, C> R accept(AstVisitor<R, C> visitor, C context)
     {
@@ -48,7 +63,7 @@ public class CreateTable
     @Override
     public int hashCode()
     {
-        return Objects.hashCode(name, query);
+        return Objects.hashCode(name, query, properties);
     }
 
     @Override
@@ -62,7 +77,8 @@ public class CreateTable
         }
         CreateTable o = (CreateTable) obj;
         return Objects.equal(name, o.name)
-                && Objects.equal(query, o.query);
+                && Objects.equal(query, o.query)
+                && Objects.equal(properties, o.properties);
     }
 
     @Override
@@ -71,6 +87,7 @@ public class CreateTable
         return Objects.toStringHelper(this)
                 .add("name", name)
                 .add("query", query)
+                .add("properties", properties)
                 .toString();
     }
 }
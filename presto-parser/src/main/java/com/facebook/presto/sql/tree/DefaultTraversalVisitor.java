@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.sql.tree;
 
+import java.util.List;
+
 public abstract class DefaultTraversalVisitor<R, C>
         extends AstVisitor<R, C>
 {
@@ -312,8 +314,8 @@ public abstract class DefaultTraversalVisitor<R, C>
         if (node.getWhere().isPresent()) {
             process(node.getWhere().get(), context);
         }
-        for (Expression expression : node.getGroupBy()) {
-            process(expression, context);
+        for (GroupingElement groupingElement : node.getGroupBy()) {
+            process(groupingElement, context);
         }
         if (node.getHaving().isPresent()) {
             process(node.getHaving().get(), context);
@@ -324,6 +326,44 @@ public abstract class DefaultTraversalVisitor<R, C>
         return null;
     }
 
+    @Override
+    protected R visitSimpleGroupBy(SimpleGroupBy node, C context)
+    {
+        for (Expression expression : node.getColumns()) {
+            process(expression, context);
+        }
+        return null;
+    }
+
+    @Override
+    protected R visitRollup(Rollup node, C context)
+    {
+        for (Expression expression : node.getColumns()) {
+            process(expression, context);
+        }
+        return null;
+    }
+
+    @Override
+    protected R visitCube(Cube node, C context)
+    {
+        for (Expression expression : node.getColumns()) {
+            process(expression, context);
+        }
+        return null;
+    }
+
+    @Override
+    protected R visitGroupingSets(GroupingSets node, C context)
+    {
+        for (List<Expression> set : node.getSets()) {
+            for (Expression expression : set) {
+                process(expression, context);
+            }
+        }
+        return null;
+    }
+
     @Override
     protected R visitUnion(Union node, C context)
     {
@@ -407,10 +407,19 @@ public final class ExpressionTreeRewriter<C>
                     }
                 }
 
-                // TODO: rewrite frame
+                WindowFrame frame = rewrittenWindow.getFrame().orNull();
+                if (frame != null) {
+                    FrameBound start = rewriteFrameBound(frame.getStart(), context);
+                    FrameBound end = frame.getEnd().isPresent() ? rewriteFrameBound(frame.getEnd().get(), context) : null;
+                    if ((start != frame.getStart()) || (end != frame.getEnd().orNull())) {
+                        frame = new WindowFrame(frame.getType(), start, end);
+                    }
+                }
+
                 if (!sameElements(rewrittenWindow.getPartitionBy(), partitionBy.build()) ||
-                        !sameElements(rewrittenWindow.getOrderBy(), orderBy.build())) {
-                    rewrittenWindow = new Window(partitionBy.build(), orderBy.build(), rewrittenWindow.getFrame().orNull());
+                        !sameElements(rewrittenWindow.getOrderBy(), orderBy.build()) ||
+                        (frame != rewrittenWindow.getFrame().orNull())) {
+                    rewrittenWindow = new Window(partitionBy.build(), orderBy.build(), frame);
                 }
             }
 
@@ -427,6 +436,20 @@ public final class ExpressionTreeRewriter<C>
             return node;
         }
 
+        private FrameBound rewriteFrameBound(FrameBound bound, Context<C> context)
+        {
+            if (!bound.getValue().isPresent()) {
+                return bound;
+            }
+
+            Expression value = rewrite(bound.getValue().get(), context.get());
+            if (value != bound.getValue().get()) {
+                return new FrameBound(bound.getType(), value);
+            }
+
+            return bound;
+        }
+
         @Override
         public Expression visitLikePredicate(LikePredicate node, Context<C> context)
         {
@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.tree;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public class GroupingSets
+        extends GroupingElement
+{
+    private final List<List<Expression>> sets;
+
+    public GroupingSets(List<List<Expression>> sets)
+    {
+        checkNotNull(sets, "sets is null");
+        checkArgument(!sets.isEmpty(), "grouping sets cannot be empty");
+
+        ImmutableList.Builder<List<Expression>> builder = ImmutableList.builder();
+        for (List<Expression> set : sets) {
+            builder.add(ImmutableList.copyOf(checkNotNull(set, "set is null")));
+        }
+        this.sets = builder.build();
+    }
+
+    public List<List<Expression>> getSets()
+    {
+        return sets;
+    }
+
+    @Override
+    public List<Set<Expression>> enumerateGroupingSets()
+    {
+        ImmutableList.Builder<Set<Expression>> groupingSets = ImmutableList.builder();
+        for (List<Expression> set : sets) {
+            groupingSets.add(ImmutableSet.copyOf(set));
+        }
+        return groupingSets.build();
+    }
+
+    @Override
+    public <R, C> R accept(AstVisitor<R, C> visitor, C context)
+    {
+        return visitor.visitGroupingSets(this, context);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) {
+            return true;
+        }
+        if ((obj == null) || (getClass() != obj.getClass())) {
+            return false;
+        }
+        GroupingSets o = (GroupingSets) obj;
+        return Objects.equal(sets, o.sets);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hashCode(sets);
+    }
+
+    @Override
+    public String toString()
+    {
+        return Objects.toStringHelper(this)
+                .add("sets", sets)
+                .toString();
+    }
+}
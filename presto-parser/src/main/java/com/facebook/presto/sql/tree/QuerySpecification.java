@@ -28,7 +28,7 @@ public class QuerySpecification
     private final Select select;
     private final List<Relation> from;
     private final Optional<Expression> where;
-    private final List<Expression> groupBy;
+    private final List<GroupingElement> groupBy;
     private final Optional<Expression> having;
     private final List<SortItem> orderBy;
     private final Optional<String> limit;
@@ -37,7 +37,7 @@ public class QuerySpecification
             Select select,
             @Nullable List<Relation> from,
             Optional<Expression> where,
-            List<Expression> groupBy,
+            List<GroupingElement> groupBy,
             Optional<Expression> having,
             List<SortItem> orderBy,
             Optional<String> limit)
@@ -73,7 +73,7 @@ public class QuerySpecification
         return where;
     }
 
-    public List<Expression> getGroupBy()
+    public List<GroupingElement> getGroupBy()
     {
         return groupBy;
     }
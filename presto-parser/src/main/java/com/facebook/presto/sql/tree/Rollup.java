@@ -0,0 +1,83 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.tree;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public class Rollup
+        extends GroupingElement
+{
+    private final List<Expression> columns;
+
+    public Rollup(List<Expression> columns)
+    {
+        this.columns = ImmutableList.copyOf(checkNotNull(columns, "columns is null"));
+    }
+
+    public List<Expression> getColumns()
+    {
+        return columns;
+    }
+
+    @Override
+    public List<Set<Expression>> enumerateGroupingSets()
+    {
+        // (a, b, c), (a, b), (a), ()
+        ImmutableList.Builder<Set<Expression>> groupingSets = ImmutableList.builder();
+        for (int length = columns.size(); length >= 0; length--) {
+            groupingSets.add(ImmutableSet.copyOf(columns.subList(0, length)));
+        }
+        return groupingSets.build();
+    }
+
+    @Override
+    public <R, C> R accept(AstVisitor<R, C> visitor, C context)
+    {
+        return visitor.visitRollup(this, context);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) {
+            return true;
+        }
+        if ((obj == null) || (getClass() != obj.getClass())) {
+            return false;
+        }
+        Rollup o = (Rollup) obj;
+        return Objects.equal(columns, o.columns);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hashCode(columns);
+    }
+
+    @Override
+    public String toString()
+    {
+        return Objects.toStringHelper(this)
+                .add("columns", columns)
+                .toString();
+    }
+}
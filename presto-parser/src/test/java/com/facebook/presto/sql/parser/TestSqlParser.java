@@ -16,10 +16,15 @@ package com.facebook.presto.sql.parser;
 import com.facebook.presto.sql.tree.AllColumns;
 import com.facebook.presto.sql.tree.Approximate;
 import com.facebook.presto.sql.tree.Cast;
+import com.facebook.presto.sql.tree.CreateTable;
+import com.facebook.presto.sql.tree.Cube;
 import com.facebook.presto.sql.tree.CurrentTime;
 import com.facebook.presto.sql.tree.DoubleLiteral;
 import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.FunctionCall;
 import com.facebook.presto.sql.tree.GenericLiteral;
+import com.facebook.presto.sql.tree.GroupingElement;
+import com.facebook.presto.sql.tree.GroupingSets;
 import com.facebook.presto.sql.tree.IntervalLiteral;
 import com.facebook.presto.sql.tree.IntervalLiteral.IntervalField;
 import com.facebook.presto.sql.tree.IntervalLiteral.Sign;
@@ -27,11 +32,14 @@ import com.facebook.presto.sql.tree.LongLiteral;
 import com.facebook.presto.sql.tree.NegativeExpression;
 import com.facebook.presto.sql.tree.Node;
 import com.facebook.presto.sql.tree.QualifiedName;
+import com.facebook.presto.sql.tree.QualifiedNameReference;
 import com.facebook.presto.sql.tree.Query;
 import com.facebook.presto.sql.tree.QuerySpecification;
 import com.facebook.presto.sql.tree.Relation;
 import com.facebook.presto.sql.tree.Row;
+import com.facebook.presto.sql.tree.Rollup;
 import com.facebook.presto.sql.tree.SortItem;
+import com.facebook.presto.sql.tree.SimpleGroupBy;
 import com.facebook.presto.sql.tree.Statement;
 import com.facebook.presto.sql.tree.StringLiteral;
 import com.facebook.presto.sql.tree.TableSubquery;
@@ -42,8 +50,12 @@ import com.facebook.presto.sql.tree.With;
 import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import org.testng.annotations.Test;
 
+import java.util.List;
+
 import static com.facebook.presto.sql.SqlFormatter.formatSql;
 import static com.facebook.presto.sql.QueryUtil.selectList;
 import static com.facebook.presto.sql.QueryUtil.table;
@@ -137,6 +149,16 @@ public class TestSqlParser
         assertExpression("cast(123 as " + type + ")", new Cast(new LongLiteral("123"), type));
     }
 
+    @Test
+    public void testSubscript()
+            throws Exception
+    {
+        assertExpression("a[1]", new FunctionCall(new QualifiedName("element_at"), ImmutableList.<Expression>of(new QualifiedNameReference(new QualifiedName("a")), new LongLiteral("1"))));
+        assertExpression("a['x'][2]", new FunctionCall(new QualifiedName("element_at"), ImmutableList.<Expression>of(
+                new FunctionCall(new QualifiedName("element_at"), ImmutableList.<Expression>of(new QualifiedNameReference(new QualifiedName("a")), new StringLiteral("x"))),
+                new LongLiteral("2"))));
+    }
+
     @Test
     public void testPositiveSign()
             throws Exception
@@ -193,7 +215,7 @@ public class TestSqlParser
                                 selectList(new DoubleLiteral("123.456E7")),
                                 table(QualifiedName.of("DUAL")),
                                 Optional.<Expression>absent(),
-                                ImmutableList.<Expression>of(),
+                                ImmutableList.<GroupingElement>of(),
                                 Optional.<Expression>absent(),
                                 ImmutableList.<SortItem>of(),
                                 Optional.<String>absent()),
@@ -202,6 +224,79 @@ public class TestSqlParser
                         Optional.<Approximate>absent()));
     }
 
+    @Test
+    public void testCreateTableWithProperties()
+    {
+        assertStatement("CREATE TABLE foo WITH (bucket_count = 32, bucketed_on = 'a') AS SELECT * FROM t",
+                new CreateTable(
+                        QualifiedName.of("foo"),
+                        new Query(
+                                Optional.<With>absent(),
+                                new QuerySpecification(
+                                        selectList(new AllColumns()),
+                                        table(QualifiedName.of("t")),
+                                        Optional.<Expression>absent(),
+                                        ImmutableList.<GroupingElement>of(),
+                                        Optional.<Expression>absent(),
+                                        ImmutableList.<SortItem>of(),
+                                        Optional.<String>absent()),
+                                ImmutableList.<SortItem>of(),
+                                Optional.<String>absent(),
+                                Optional.<Approximate>absent()),
+                        ImmutableMap.<String, Expression>of(
+                                "bucket_count", new LongLiteral("32"),
+                                "bucketed_on", new StringLiteral("a"))));
+    }
+
+    @Test(expectedExceptions = ParsingException.class, expectedExceptionsMessageRegExp = "line 1:1: Duplicate table property: bucket_count")
+    public void testCreateTableDuplicateProperty()
+    {
+        SQL_PARSER.createStatement("CREATE TABLE foo WITH (bucket_count = 32, bucket_count = 64) AS SELECT * FROM t");
+    }
+
+    @Test
+    public void testGroupBy()
+    {
+        assertGroupBy("GROUP BY a, b",
+                new SimpleGroupBy(ImmutableList.<Expression>of(nameReference("a"))),
+                new SimpleGroupBy(ImmutableList.<Expression>of(nameReference("b"))));
+        assertGroupBy("GROUP BY ROLLUP (a, b)",
+                new Rollup(ImmutableList.<Expression>of(nameReference("a"), nameReference("b"))));
+        assertGroupBy("GROUP BY a, CUBE (b, c)",
+                new SimpleGroupBy(ImmutableList.<Expression>of(nameReference("a"))),
+                new Cube(ImmutableList.<Expression>of(nameReference("b"), nameReference("c"))));
+        assertGroupBy("GROUP BY GROUPING SETS ((a, b), a, (b), ())",
+                new GroupingSets(ImmutableList.<List<Expression>>of(
+                        ImmutableList.<Expression>of(nameReference("a"), nameReference("b")),
+                        ImmutableList.<Expression>of(nameReference("a")),
+                        ImmutableList.<Expression>of(nameReference("b")),
+                        ImmutableList.<Expression>of())));
+    }
+
+    @Test
+    public void testGroupingSetsEnumeration()
+    {
+        Expression a = nameReference("a");
+        Expression b = nameReference("b");
+
+        assertEquals(new Rollup(ImmutableList.of(a, b)).enumerateGroupingSets(),
+                ImmutableList.of(ImmutableSet.of(a, b), ImmutableSet.of(a), ImmutableSet.of()));
+        assertEquals(ImmutableSet.copyOf(new Cube(ImmutableList.of(a, b)).enumerateGroupingSets()),
+                ImmutableSet.of(ImmutableSet.of(a, b), ImmutableSet.of(a), ImmutableSet.of(b), ImmutableSet.of()));
+    }
+
+    private static void assertGroupBy(String groupBy, GroupingElement... expected)
+    {
+        Statement statement = SQL_PARSER.createStatement("SELECT count(*) FROM t " + groupBy);
+        QuerySpecification specification = (QuerySpecification) ((Query) statement).getQueryBody();
+        assertEquals(specification.getGroupBy(), ImmutableList.copyOf(expected));
+    }
+
+    private static QualifiedNameReference nameReference(String name)
+    {
+        return new QualifiedNameReference(QualifiedName.of(name));
+    }
+
     @Test
     public void testValues()
     {
@@ -249,7 +344,7 @@ public class TestSqlParser
                                                 Optional.<Approximate>absent()))
                                 ),
                                 Optional.<Expression>absent(),
-                                ImmutableList.<Expression>of(),
+                                ImmutableList.<GroupingElement>of(),
                                 Optional.<Expression>absent(),
                                 ImmutableList.<SortItem>of(),
                                 Optional.<String>absent()),
@@ -111,7 +111,15 @@ public class TestStatementBuilder
 
         printStatement("select * from foo approximate at 90 confidence");
 
+        printStatement("select a, sum(b) from foo group by a");
+        printStatement("select a, b, sum(c) from foo group by rollup (a, b)");
+        printStatement("select a, b, sum(c) from foo group by cube (a, b)");
+        printStatement("select a, b, sum(c) from foo group by grouping sets ((a, b), (a), ())");
+        printStatement("select a, b, c, sum(d) from foo group by a, rollup (b, c)");
+        printStatement("select sets from foo group by grouping sets (sets, (sets))");
+
         printStatement("create table foo as select * from abc");
+        printStatement("create table foo with (bucket_count = 32, bucketed_on = 'a, b') as select * from abc");
         printStatement("drop table foo");
 
         printStatement("values ('a', 1, 2.2), ('b', 2, 3.3)");
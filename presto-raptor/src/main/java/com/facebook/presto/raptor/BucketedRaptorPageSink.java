@@ -0,0 +1,252 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.raptor;
+
+import com.facebook.presto.operator.ConnectorPageSink;
+import com.facebook.presto.operator.Page;
+import com.facebook.presto.operator.PageBuilder;
+import com.facebook.presto.raptor.metadata.ShardInfo;
+import com.facebook.presto.raptor.storage.LocalStorageManager;
+import com.facebook.presto.raptor.storage.ShardTransferClient;
+import com.facebook.presto.spi.Node;
+import com.facebook.presto.spi.NodeManager;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import io.airlift.json.JsonCodec;
+import io.airlift.log.Logger;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.facebook.presto.metadata.PrestoNode.getIdentifierFunction;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.Maps.uniqueIndex;
+import static io.airlift.json.JsonCodec.listJsonCodec;
+
+/**
+ * Writes the rows of a bucketed table to one shard per bucket. When the sink is committed,
+ * the shard of each bucket is moved to the node owning the bucket, so that all shards of a
+ * bucket are stored on the same node. A shard that cannot be moved is kept on this node.
+ */
+public class BucketedRaptorPageSink
+        implements ConnectorPageSink
+{
+    private static final Logger log = Logger.get(BucketedRaptorPageSink.class);
+
+    private static final JsonCodec<List<ShardInfo>> SHARD_INFO_LIST_CODEC = listJsonCodec(ShardInfo.class);
+
+    private final String connectorId;
+    private final String nodeId;
+    private final NodeManager nodeManager;
+    private final LocalStorageManager storageManager;
+    private final ShardTransferClient transferClient;
+    private final List<RaptorColumnHandle> columnHandles;
+    private final RaptorColumnHandle sampleWeightColumnHandle;
+    private final int[] bucketChannels;
+    private final List<String> bucketNodes;
+    private final boolean sampled;
+    private final RaptorPageSink[] bucketSinks;
+    private final PageBuilder[] bucketPageBuilders;
+
+    public BucketedRaptorPageSink(
+            String connectorId,
+            String nodeId,
+            NodeManager nodeManager,
+            LocalStorageManager storageManager,
+            ShardTransferClient transferClient,
+            RaptorOutputTableHandle tableHandle)
+    {
+        this.connectorId = checkNotNull(connectorId, "connectorId is null");
+        this.nodeId = checkNotNull(nodeId, "nodeId is null");
+        this.nodeManager = checkNotNull(nodeManager, "nodeManager is null");
+        this.storageManager = checkNotNull(storageManager, "storageManager is null");
+        this.transferClient = checkNotNull(transferClient, "transferClient is null");
+
+        checkNotNull(tableHandle, "tableHandle is null");
+        checkArgument(tableHandle.getBucketCount() != null, "table is not bucketed");
+        this.columnHandles = tableHandle.getColumnHandles();
+        this.sampleWeightColumnHandle = tableHandle.getSampleWeightColumnHandle();
+        this.bucketNodes = tableHandle.getBucketNodes();
+        this.sampled = sampleWeightColumnHandle != null;
+        this.bucketSinks = new RaptorPageSink[tableHandle.getBucketCount()];
+        this.bucketPageBuilders = new PageBuilder[tableHandle.getBucketCount()];
+
+        List<RaptorColumnHandle> bucketColumnHandles = tableHandle.getBucketColumnHandles();
+        this.bucketChannels = new int[bucketColumnHandles.size()];
+        for (int i = 0; i < bucketChannels.length; i++) {
+            bucketChannels[i] = columnHandles.indexOf(bucketColumnHandles.get(i));
+            checkArgument(bucketChannels[i] >= 0, "bucket column %s is not a column of the table", bucketColumnHandles.get(i));
+        }
+    }
+
+    @Override
+    public void appendPage(Page page, Block sampleWeightBlock)
+    {
+        checkNotNull(page, "page is null");
+
+        int positionCount = page.getPositionCount();
+        int[] buckets = new int[positionCount];
+        int[] bucketPositionCounts = new int[bucketSinks.length];
+        for (int position = 0; position < positionCount; position++) {
+            buckets[position] = getBucket(page, position, bucketChannels, bucketSinks.length);
+            bucketPositionCounts[buckets[position]]++;
+        }
+
+        if (positionCount > 0 && bucketPositionCounts[buckets[0]] == positionCount) {
+            flushBucket(buckets[0]);
+            getBucketSink(buckets[0]).appendPage(page, sampleWeightBlock);
+            return;
+        }
+
+        // rows are buffered per bucket, so that each bucket sink receives full pages
+        for (int position = 0; position < positionCount; position++) {
+            int bucket = buckets[position];
+            PageBuilder pageBuilder = getBucketPageBuilder(bucket, page);
+            for (int channel = 0; channel < page.getChannelCount(); channel++) {
+                page.getBlock(channel).appendTo(position, pageBuilder.getBlockBuilder(channel));
+            }
+            if (sampled) {
+                BlockBuilder sampleWeightBuilder = pageBuilder.getBlockBuilder(page.getChannelCount());
+                if (sampleWeightBlock == null) {
+                    sampleWeightBuilder.appendLong(1);
+                }
+                else {
+                    sampleWeightBlock.appendTo(position, sampleWeightBuilder);
+                }
+            }
+            if (pageBuilder.isFull()) {
+                flushBucket(bucket);
+            }
+        }
+    }
+
+    @Override
+    public String commit()
+    {
+        Map<String, Node> activeNodes = uniqueIndex(nodeManager.getActiveDatasourceNodes(connectorId), getIdentifierFunction());
+
+        for (int bucket = 0; bucket < bucketSinks.length; bucket++) {
+            flushBucket(bucket);
+        }
+
+        ImmutableList.Builder<ShardInfo> shards = ImmutableList.builder();
+        for (RaptorPageSink bucketSink : bucketSinks) {
+            if (bucketSink != null) {
+                shards.add(moveToBucketNode(bucketSink.commitShard(), activeNodes));
+            }
+        }
+        return SHARD_INFO_LIST_CODEC.toJson(shards.build());
+    }
+
+    private ShardInfo moveToBucketNode(ShardInfo shard, Map<String, Node> activeNodes)
+    {
+        UUID shardUuid = shard.getShardUuid();
+        String bucketNode = bucketNodes.get(shard.getBucketNumber());
+        if (bucketNode.equals(nodeId)) {
+            return shard;
+        }
+
+        Node target = activeNodes.get(bucketNode);
+        if (target == null) {
+            log.warn("Node %s owning bucket %s is not active, keeping shard %s on this node", bucketNode, shard.getBucketNumber(), shardUuid);
+            return shard;
+        }
+        try {
+            transferClient.copyShard(shardUuid, target);
+        }
+        catch (RuntimeException e) {
+            log.warn(e, "Failed to move shard %s to node %s, keeping it on this node", shardUuid, bucketNode);
+            return shard;
+        }
+        storageManager.dropShard(shardUuid);
+        return new ShardInfo(shardUuid, bucketNode, shard.getColumnStats(), shard.getBucketNumber());
+    }
+
+    private RaptorPageSink getBucketSink(int bucket)
+    {
+        if (bucketSinks[bucket] == null) {
+            try {
+                bucketSinks[bucket] = new RaptorPageSink(
+                        nodeId,
+                        storageManager.createStagingFileHandles(UUID.randomUUID(), columnHandles),
+                        storageManager,
+                        sampleWeightColumnHandle,
+                        bucket);
+            }
+            catch (IOException e) {
+                throw Throwables.propagate(e);
+            }
+        }
+        return bucketSinks[bucket];
+    }
+
+    private PageBuilder getBucketPageBuilder(int bucket, Page page)
+    {
+        if (bucketPageBuilders[bucket] == null) {
+            ImmutableList.Builder<Type> types = ImmutableList.builder();
+            for (Block block : page.getBlocks()) {
+                types.add(block.getType());
+            }
+            if (sampled) {
+                // sample weight is buffered as the last channel
+                types.add(BIGINT);
+            }
+            bucketPageBuilders[bucket] = new PageBuilder(types.build());
+        }
+        return bucketPageBuilders[bucket];
+    }
+
+    private void flushBucket(int bucket)
+    {
+        PageBuilder pageBuilder = bucketPageBuilders[bucket];
+        if (pageBuilder == null || pageBuilder.isEmpty()) {
+            return;
+        }
+
+        Page page = pageBuilder.build();
+        pageBuilder.reset();
+
+        Block sampleWeightBlock = null;
+        if (sampled) {
+            int sampleWeightChannel = page.getChannelCount() - 1;
+            sampleWeightBlock = page.getBlock(sampleWeightChannel);
+            page = new Page(Arrays.copyOf(page.getBlocks(), sampleWeightChannel));
+        }
+        getBucketSink(bucket).appendPage(page, sampleWeightBlock);
+    }
+
+    /**
+     * Returns the bucket of a row, computed from the hashes of the values of the bucket columns.
+     * All writers of tables with the same bucket column types must assign equal rows to the same bucket.
+     */
+    @VisibleForTesting
+    static int getBucket(Page page, int position, int[] bucketChannels, int bucketCount)
+    {
+        int hash = 0;
+        for (int channel : bucketChannels) {
+            Block block = page.getBlock(channel);
+            hash = (31 * hash) + (block.isNull(position) ? 0 : block.hash(position));
+        }
+        return (hash & Integer.MAX_VALUE) % bucketCount;
+    }
+}
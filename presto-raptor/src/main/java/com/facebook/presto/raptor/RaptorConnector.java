@@ -14,6 +14,8 @@
 package com.facebook.presto.raptor;
 
 import com.facebook.presto.connector.InternalConnector;
+import com.facebook.presto.operator.ConnectorPageSinkProvider;
+import com.facebook.presto.raptor.storage.ShardResource;
 import com.facebook.presto.spi.ConnectorHandleResolver;
 import com.facebook.presto.spi.ConnectorIndexResolver;
 import com.facebook.presto.spi.ConnectorMetadata;
@@ -33,22 +35,25 @@ public class RaptorConnector
     private final RaptorMetadata metadata;
     private final RaptorSplitManager splitManager;
     private final RaptorDataStreamProvider dataStreamProvider;
-    private final RaptorRecordSinkProvider recordSinkProvider;
+    private final RaptorPageSinkProvider pageSinkProvider;
     private final RaptorHandleResolver handleResolver;
+    private final ShardResource shardResource;
 
     @Inject
     public RaptorConnector(
             RaptorMetadata metadata,
             RaptorSplitManager splitManager,
             RaptorDataStreamProvider dataStreamProvider,
-            RaptorRecordSinkProvider recordSinkProvider,
-            RaptorHandleResolver handleResolver)
+            RaptorPageSinkProvider pageSinkProvider,
+            RaptorHandleResolver handleResolver,
+            ShardResource shardResource)
     {
         this.metadata = checkNotNull(metadata, "metadata is null");
         this.splitManager = checkNotNull(splitManager, "splitManager is null");
         this.dataStreamProvider = checkNotNull(dataStreamProvider, "dataStreamProvider is null");
-        this.recordSinkProvider = checkNotNull(recordSinkProvider, "recordSinkProvider is null");
+        this.pageSinkProvider = checkNotNull(pageSinkProvider, "pageSinkProvider is null");
         this.handleResolver = checkNotNull(handleResolver, "handleResolver is null");
+        this.shardResource = checkNotNull(shardResource, "shardResource is null");
     }
 
     @Override
@@ -57,6 +62,12 @@ public class RaptorConnector
         return dataStreamProvider;
     }
 
+    @Override
+    public Object getHttpResource()
+    {
+        return shardResource;
+    }
+
     @Override
     public ConnectorHandleResolver getHandleResolver()
     {
@@ -75,10 +86,16 @@ public class RaptorConnector
         return splitManager;
     }
 
+    @Override
+    public ConnectorPageSinkProvider getPageSinkProvider()
+    {
+        return pageSinkProvider;
+    }
+
     @Override
     public ConnectorRecordSinkProvider getRecordSinkProvider()
     {
-        return recordSinkProvider;
+        throw new UnsupportedOperationException();
     }
 
     @Override
@@ -16,23 +16,30 @@ package com.facebook.presto.raptor;
 import com.facebook.presto.raptor.metadata.ForMetadata;
 import com.facebook.presto.raptor.metadata.MetadataDao;
 import com.facebook.presto.raptor.metadata.MetadataDaoUtils;
+import com.facebook.presto.raptor.metadata.ShardInfo;
 import com.facebook.presto.raptor.metadata.ShardManager;
 import com.facebook.presto.raptor.metadata.Table;
 import com.facebook.presto.raptor.metadata.TableColumn;
 import com.facebook.presto.raptor.metadata.TablePartition;
 import com.facebook.presto.raptor.metadata.ViewResult;
 import com.facebook.presto.spi.ColumnMetadata;
+import com.facebook.presto.spi.ConnectorBucketing;
 import com.facebook.presto.spi.ConnectorColumnHandle;
 import com.facebook.presto.spi.ConnectorMetadata;
 import com.facebook.presto.spi.ConnectorOutputTableHandle;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.ConnectorTableHandle;
 import com.facebook.presto.spi.ConnectorTableMetadata;
+import com.facebook.presto.spi.Node;
+import com.facebook.presto.spi.NodeManager;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.SchemaTablePrefix;
 import com.facebook.presto.spi.ViewNotFoundException;
 import com.facebook.presto.spi.type.Type;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Joiner;
+import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.base.Splitter;
 import com.google.common.collect.FluentIterable;
@@ -40,6 +47,8 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Multimaps;
+import com.google.common.primitives.Ints;
+import io.airlift.json.JsonCodec;
 import org.skife.jdbi.v2.Handle;
 import org.skife.jdbi.v2.IDBI;
 import org.skife.jdbi.v2.TransactionCallback;
@@ -50,35 +59,47 @@ import org.skife.jdbi.v2.exceptions.UnableToExecuteStatementException;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.UUID;
+import java.util.TreeSet;
 import java.util.concurrent.Callable;
 
 import static com.facebook.presto.raptor.RaptorColumnHandle.SAMPLE_WEIGHT_COLUMN_NAME;
 import static com.facebook.presto.raptor.metadata.MetadataDaoUtils.createMetadataTablesWithRetry;
 import static com.facebook.presto.raptor.metadata.SqlUtils.runIgnoringConstraintViolation;
 import static com.facebook.presto.spi.StandardErrorCode.ALREADY_EXISTS;
+import static com.facebook.presto.spi.StandardErrorCode.NO_NODES_AVAILABLE;
+import static com.facebook.presto.spi.StandardErrorCode.USER_ERROR;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.util.Types.checkType;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Predicates.not;
+import static io.airlift.json.JsonCodec.listJsonCodec;
+import static java.lang.String.format;
+import static java.util.Locale.ENGLISH;
 
 public class RaptorMetadata
         implements ConnectorMetadata
 {
+    private static final JsonCodec<List<ShardInfo>> SHARD_INFO_LIST_CODEC = listJsonCodec(ShardInfo.class);
+
+    private static final String BUCKET_COUNT_PROPERTY = "bucket_count";
+    private static final String BUCKETED_ON_PROPERTY = "bucketed_on";
+
     private final IDBI dbi;
     private final MetadataDao dao;
     private final ShardManager shardManager;
+    private final NodeManager nodeManager;
     private final String connectorId;
 
     @Inject
-    public RaptorMetadata(RaptorConnectorId connectorId, @ForMetadata IDBI dbi, ShardManager shardManager)
+    public RaptorMetadata(RaptorConnectorId connectorId, @ForMetadata IDBI dbi, ShardManager shardManager, NodeManager nodeManager)
     {
         checkNotNull(connectorId, "connectorId is null");
 
@@ -86,6 +107,7 @@ public class RaptorMetadata
         this.dbi = checkNotNull(dbi, "dbi is null");
         this.dao = dbi.onDemand(MetadataDao.class);
         this.shardManager = checkNotNull(shardManager, "shardManager is null");
+        this.nodeManager = checkNotNull(nodeManager, "nodeManager is null");
 
         createMetadataTablesWithRetry(dao);
     }
@@ -136,6 +158,28 @@ public class RaptorMetadata
         return new ConnectorTableMetadata(tableName, columns);
     }
 
+    /**
+     * Returns the bucketing of a table, or absent if the table is not bucketed.
+     */
+    public Optional<ConnectorBucketing> getBucketing(ConnectorTableHandle tableHandle)
+    {
+        RaptorTableHandle raptorTableHandle = checkType(tableHandle, RaptorTableHandle.class, "tableHandle");
+        Table table = dao.getTableInformation(connectorId, raptorTableHandle.getSchemaName(), raptorTableHandle.getTableName());
+        if ((table == null) || (table.getBucketCount() == null)) {
+            return Optional.absent();
+        }
+
+        ImmutableList.Builder<ConnectorColumnHandle> columnHandles = ImmutableList.builder();
+        ImmutableList.Builder<String> columnTypes = ImmutableList.builder();
+        for (TableColumn tableColumn : dao.getBucketColumns(table.getTableId())) {
+            columnHandles.add(new RaptorColumnHandle(connectorId, tableColumn.getColumnName(), tableColumn.getColumnId()));
+            columnTypes.add(tableColumn.getDataType().getName());
+        }
+        // each catalog assigns its buckets to nodes independently, so only tables of the same catalog are colocated
+        String bucketFunction = "raptor:" + connectorId + ":" + Joiner.on(',').join(columnTypes.build());
+        return Optional.of(new ConnectorBucketing(columnHandles.build(), table.getBucketCount(), bucketFunction));
+    }
+
     @Override
     public List<SchemaTableName> listTables(ConnectorSession session, @Nullable String schemaNameOrNull)
     {
@@ -210,6 +254,7 @@ public class RaptorMetadata
     @Override
     public ConnectorTableHandle createTable(ConnectorSession session, final ConnectorTableMetadata tableMetadata)
     {
+        final Optional<TableBucketing> bucketing = getTableBucketing(tableMetadata);
         Long tableId = dbi.inTransaction(new TransactionCallback<Long>()
         {
             @Override
@@ -234,6 +279,13 @@ public class RaptorMetadata
                         if (tableMetadata.isSampled()) {
                             dao.insertColumn(tableId, ordinalPosition + 1, SAMPLE_WEIGHT_COLUMN_NAME, ordinalPosition, BIGINT.getName());
                         }
+                        if (bucketing.isPresent()) {
+                            dao.insertTableBuckets(tableId, bucketing.get().getBucketCount());
+                            List<String> bucketColumns = bucketing.get().getColumnNames();
+                            for (int i = 0; i < bucketColumns.size(); i++) {
+                                dao.insertBucketColumn(tableId, getColumnId(tableMetadata, bucketColumns.get(i)), i);
+                            }
+                        }
                         return tableId;
                     }
                 }, null);
@@ -291,12 +343,27 @@ public class RaptorMetadata
             columnTypes.add(BIGINT);
         }
 
+        Integer bucketCount = null;
+        ImmutableList.Builder<RaptorColumnHandle> bucketColumnHandles = ImmutableList.builder();
+        List<String> bucketNodes = ImmutableList.of();
+        Optional<TableBucketing> bucketing = getTableBucketing(tableMetadata);
+        if (bucketing.isPresent()) {
+            bucketCount = bucketing.get().getBucketCount();
+            for (String columnName : bucketing.get().getColumnNames()) {
+                bucketColumnHandles.add(new RaptorColumnHandle(connectorId, columnName, getColumnId(tableMetadata, columnName)));
+            }
+            bucketNodes = assignBucketNodes(bucketCount);
+        }
+
         return new RaptorOutputTableHandle(
                 tableMetadata.getTable().getSchemaName(),
                 tableMetadata.getTable().getTableName(),
                 columnHandles.build(),
                 columnTypes.build(),
-                sampleWeightColumnHandle);
+                sampleWeightColumnHandle,
+                bucketCount,
+                bucketColumnHandles.build(),
+                bucketNodes);
     }
 
     @Override
@@ -316,15 +383,18 @@ public class RaptorMetadata
                     Type columnType = table.getColumnTypes().get(i);
                     dao.insertColumn(tableId, i + 1, column.getColumnName(), i, columnType.getName());
                 }
+                if (table.getBucketCount() != null) {
+                    dao.insertTableBuckets(tableId, table.getBucketCount());
+                    for (int i = 0; i < table.getBucketColumnHandles().size(); i++) {
+                        dao.insertBucketColumn(tableId, table.getBucketColumnHandles().get(i).getColumnId(), i);
+                    }
+                }
             }
         });
 
-        ImmutableMap.Builder<UUID, String> shards = ImmutableMap.builder();
+        ImmutableList.Builder<ShardInfo> shards = ImmutableList.builder();
         for (String fragment : fragments) {
-            Iterator<String> split = Splitter.on(':').split(fragment).iterator();
-            String nodeId = split.next();
-            UUID shardUuid = UUID.fromString(split.next());
-            shards.put(shardUuid, nodeId);
+            shards.addAll(SHARD_INFO_LIST_CODEC.fromJson(fragment));
         }
 
         ConnectorTableHandle tableHandle = getTableHandle(new SchemaTableName(table.getSchemaName(), table.getTableName()));
@@ -389,6 +459,103 @@ public class RaptorMetadata
         return map.build();
     }
 
+    private List<String> assignBucketNodes(int bucketCount)
+    {
+        Set<String> nodeIdentifiers = new TreeSet<>();
+        for (Node node : nodeManager.getActiveDatasourceNodes(connectorId)) {
+            nodeIdentifiers.add(node.getNodeIdentifier());
+        }
+        // this runs on the coordinator, which usually does not run table scans
+        if (nodeIdentifiers.size() > 1) {
+            nodeIdentifiers.remove(nodeManager.getCurrentNode().getNodeIdentifier());
+        }
+        if (nodeIdentifiers.isEmpty()) {
+            throw new PrestoException(NO_NODES_AVAILABLE.toErrorCode(), "No nodes available to store the buckets of the table");
+        }
+        return shardManager.assignBucketNodes(bucketCount, ImmutableList.copyOf(nodeIdentifiers));
+    }
+
+    private static long getColumnId(ConnectorTableMetadata tableMetadata, String columnName)
+    {
+        for (ColumnMetadata column : tableMetadata.getColumns()) {
+            if (column.getName().equals(columnName)) {
+                return column.getOrdinalPosition() + 1;
+            }
+        }
+        throw new IllegalArgumentException("Unknown column: " + columnName);
+    }
+
+    /**
+     * Returns the bucketing declared by the {@code bucket_count} and {@code bucketed_on}
+     * properties of a new table. These are the only table properties supported by Raptor.
+     */
+    @VisibleForTesting
+    static Optional<TableBucketing> getTableBucketing(ConnectorTableMetadata tableMetadata)
+    {
+        Map<String, Object> properties = tableMetadata.getProperties();
+        for (String name : properties.keySet()) {
+            if (!name.equals(BUCKET_COUNT_PROPERTY) && !name.equals(BUCKETED_ON_PROPERTY)) {
+                throw new PrestoException(USER_ERROR.toErrorCode(), "Unknown table property: " + name);
+            }
+        }
+
+        Object bucketCount = properties.get(BUCKET_COUNT_PROPERTY);
+        Object bucketedOn = properties.get(BUCKETED_ON_PROPERTY);
+        if ((bucketCount == null) && (bucketedOn == null)) {
+            return Optional.absent();
+        }
+        if ((bucketCount == null) || (bucketedOn == null)) {
+            throw new PrestoException(USER_ERROR.toErrorCode(), format("Table properties %s and %s must be specified together", BUCKET_COUNT_PROPERTY, BUCKETED_ON_PROPERTY));
+        }
+
+        if (!(bucketCount instanceof Long) || ((Long) bucketCount <= 0) || ((Long) bucketCount > Integer.MAX_VALUE)) {
+            throw new PrestoException(USER_ERROR.toErrorCode(), format("Table property %s must be a positive integer", BUCKET_COUNT_PROPERTY));
+        }
+        if (!(bucketedOn instanceof String)) {
+            throw new PrestoException(USER_ERROR.toErrorCode(), format("Table property %s must be a comma separated list of columns", BUCKETED_ON_PROPERTY));
+        }
+
+        Set<String> tableColumns = new HashSet<>();
+        for (ColumnMetadata column : tableMetadata.getColumns()) {
+            tableColumns.add(column.getName());
+        }
+        List<String> columnNames = new ArrayList<>();
+        for (String columnName : Splitter.on(',').trimResults().split(((String) bucketedOn).toLowerCase(ENGLISH))) {
+            if (!tableColumns.contains(columnName)) {
+                throw new PrestoException(USER_ERROR.toErrorCode(), format("Bucket column %s is not a column of the table", columnName));
+            }
+            if (columnNames.contains(columnName)) {
+                throw new PrestoException(USER_ERROR.toErrorCode(), format("Bucket column %s is specified more than once", columnName));
+            }
+            columnNames.add(columnName);
+        }
+
+        return Optional.of(new TableBucketing(Ints.checkedCast((Long) bucketCount), columnNames));
+    }
+
+    @VisibleForTesting
+    static class TableBucketing
+    {
+        private final int bucketCount;
+        private final List<String> columnNames;
+
+        public TableBucketing(int bucketCount, List<String> columnNames)
+        {
+            this.bucketCount = bucketCount;
+            this.columnNames = ImmutableList.copyOf(checkNotNull(columnNames, "columnNames is null"));
+        }
+
+        public int getBucketCount()
+        {
+            return bucketCount;
+        }
+
+        public List<String> getColumnNames()
+        {
+            return columnNames;
+        }
+    }
+
     private boolean viewExists(ConnectorSession session, SchemaTableName viewName)
     {
         return !getViews(session, viewName.toSchemaTablePrefix()).isEmpty();
@@ -37,7 +37,7 @@ public class RaptorModule
         binder.bind(RaptorMetadata.class).in(Scopes.SINGLETON);
         binder.bind(RaptorSplitManager.class).in(Scopes.SINGLETON);
         binder.bind(RaptorDataStreamProvider.class).in(Scopes.SINGLETON);
-        binder.bind(RaptorRecordSinkProvider.class).in(Scopes.SINGLETON);
+        binder.bind(RaptorPageSinkProvider.class).in(Scopes.SINGLETON);
         binder.bind(RaptorHandleResolver.class).in(Scopes.SINGLETON);
     }
 }
@@ -25,6 +25,7 @@ import java.util.List;
 
 import static com.facebook.presto.metadata.MetadataUtil.checkSchemaName;
 import static com.facebook.presto.metadata.MetadataUtil.checkTableName;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 public class RaptorOutputTableHandle
@@ -36,6 +37,10 @@ public class RaptorOutputTableHandle
     private final List<Type> columnTypes;
     @Nullable
     private final RaptorColumnHandle sampleWeightColumnHandle;
+    @Nullable
+    private final Integer bucketCount;
+    private final List<RaptorColumnHandle> bucketColumnHandles;
+    private final List<String> bucketNodes;
 
     @JsonCreator
     public RaptorOutputTableHandle(
@@ -43,13 +48,21 @@ public class RaptorOutputTableHandle
             @JsonProperty("tableName") String tableName,
             @JsonProperty("columnHandles") List<RaptorColumnHandle> columnHandles,
             @JsonProperty("columnTypes") List<Type> columnTypes,
-            @JsonProperty("sampleWeightColumnHandle") RaptorColumnHandle sampleWeightColumnHandle)
+            @JsonProperty("sampleWeightColumnHandle") RaptorColumnHandle sampleWeightColumnHandle,
+            @JsonProperty("bucketCount") @Nullable Integer bucketCount,
+            @JsonProperty("bucketColumnHandles") List<RaptorColumnHandle> bucketColumnHandles,
+            @JsonProperty("bucketNodes") List<String> bucketNodes)
     {
         this.schemaName = checkSchemaName(schemaName);
         this.tableName = checkTableName(tableName);
         this.columnHandles = ImmutableList.copyOf(checkNotNull(columnHandles, "columnHandles is null"));
         this.columnTypes = ImmutableList.copyOf(checkNotNull(columnTypes, "columnTypes is null"));
         this.sampleWeightColumnHandle = sampleWeightColumnHandle;
+        this.bucketCount = bucketCount;
+        this.bucketColumnHandles = ImmutableList.copyOf(checkNotNull(bucketColumnHandles, "bucketColumnHandles is null"));
+        this.bucketNodes = ImmutableList.copyOf(checkNotNull(bucketNodes, "bucketNodes is null"));
+        checkArgument((bucketCount == null) == this.bucketColumnHandles.isEmpty(), "bucketCount and bucketColumnHandles must be specified together");
+        checkArgument((bucketCount == null) || (bucketCount == this.bucketNodes.size()), "bucketNodes does not match bucketCount");
     }
 
     @JsonProperty
@@ -82,6 +95,31 @@ public class RaptorOutputTableHandle
         return sampleWeightColumnHandle;
     }
 
+    /**
+     * The number of buckets of the table, or null if the table is not bucketed.
+     */
+    @Nullable
+    @JsonProperty
+    public Integer getBucketCount()
+    {
+        return bucketCount;
+    }
+
+    @JsonProperty
+    public List<RaptorColumnHandle> getBucketColumnHandles()
+    {
+        return bucketColumnHandles;
+    }
+
+    /**
+     * The nodes owning the buckets of the table, indexed by bucket number.
+     */
+    @JsonProperty
+    public List<String> getBucketNodes()
+    {
+        return bucketNodes;
+    }
+
     @Override
     public String toString()
     {
@@ -0,0 +1,119 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.raptor;
+
+import com.facebook.presto.operator.ConnectorPageSink;
+import com.facebook.presto.operator.Page;
+import com.facebook.presto.raptor.metadata.ColumnStats;
+import com.facebook.presto.raptor.metadata.ShardInfo;
+import com.facebook.presto.raptor.storage.ColumnFileHandle;
+import com.facebook.presto.raptor.storage.LocalStorageManager;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ObjectArrays;
+import io.airlift.json.JsonCodec;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.List;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.airlift.json.JsonCodec.listJsonCodec;
+
+/**
+ * Writes the blocks of each page directly to the column files of a new shard.
+ */
+public class RaptorPageSink
+        implements ConnectorPageSink
+{
+    private static final JsonCodec<List<ShardInfo>> SHARD_INFO_LIST_CODEC = listJsonCodec(ShardInfo.class);
+
+    private final String nodeId;
+    private final ColumnFileHandle fileHandle;
+    private final LocalStorageManager storageManager;
+    private final boolean sampled;
+    @Nullable
+    private final Integer bucketNumber;
+
+    public RaptorPageSink(String nodeId, ColumnFileHandle fileHandle, LocalStorageManager storageManager, RaptorColumnHandle sampleWeightColumnHandle)
+    {
+        this(nodeId, fileHandle, storageManager, sampleWeightColumnHandle, null);
+    }
+
+    public RaptorPageSink(String nodeId, ColumnFileHandle fileHandle, LocalStorageManager storageManager, RaptorColumnHandle sampleWeightColumnHandle, @Nullable Integer bucketNumber)
+    {
+        this.nodeId = checkNotNull(nodeId, "nodeId is null");
+        this.fileHandle = checkNotNull(fileHandle, "fileHandle is null");
+        this.storageManager = checkNotNull(storageManager, "storageManager is null");
+        this.bucketNumber = bucketNumber;
+
+        if (sampleWeightColumnHandle != null) {
+            checkArgument(sampleWeightColumnHandle.getColumnName().equals(RaptorColumnHandle.SAMPLE_WEIGHT_COLUMN_NAME), "sample weight column handle has wrong name");
+        }
+        this.sampled = sampleWeightColumnHandle != null;
+    }
+
+    @Override
+    public void appendPage(Page page, Block sampleWeightBlock)
+    {
+        checkNotNull(page, "page is null");
+
+        if (sampled) {
+            if (sampleWeightBlock == null) {
+                sampleWeightBlock = createDefaultSampleWeights(page.getPositionCount());
+            }
+            // sample weight is always stored last in the table
+            page = new Page(page.getPositionCount(), ObjectArrays.concat(page.getBlocks(), sampleWeightBlock));
+        }
+
+        fileHandle.append(page);
+    }
+
+    @Override
+    public String commit()
+    {
+        return SHARD_INFO_LIST_CODEC.toJson(ImmutableList.of(commitShard()));
+    }
+
+    /**
+     * Commit the shard written by this sink on this node.
+     */
+    public ShardInfo commitShard()
+    {
+        List<ColumnStats> columnStats;
+        try {
+            columnStats = storageManager.commit(fileHandle);
+        }
+        catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+
+        return new ShardInfo(fileHandle.getShardUuid(), nodeId, columnStats, bucketNumber);
+    }
+
+    private static Block createDefaultSampleWeights(int positionCount)
+    {
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(new BlockBuilderStatus());
+        for (int position = 0; position < positionCount; position++) {
+            blockBuilder.appendLong(1);
+        }
+        return blockBuilder.build();
+    }
+}
@@ -13,12 +13,14 @@
  */
 package com.facebook.presto.raptor;
 
+import com.facebook.presto.operator.ConnectorPageSink;
+import com.facebook.presto.operator.ConnectorPageSinkProvider;
 import com.facebook.presto.raptor.storage.ColumnFileHandle;
 import com.facebook.presto.raptor.storage.LocalStorageManager;
+import com.facebook.presto.raptor.storage.ShardTransferClient;
 import com.facebook.presto.raptor.util.CurrentNodeId;
 import com.facebook.presto.spi.ConnectorOutputTableHandle;
-import com.facebook.presto.spi.ConnectorRecordSinkProvider;
-import com.facebook.presto.spi.RecordSink;
+import com.facebook.presto.spi.NodeManager;
 import com.google.common.base.Throwables;
 
 import javax.inject.Inject;
@@ -30,32 +32,42 @@ import static com.facebook.presto.util.Types.checkType;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.util.UUID.randomUUID;
 
-public class RaptorRecordSinkProvider
-        implements ConnectorRecordSinkProvider
+public class RaptorPageSinkProvider
+        implements ConnectorPageSinkProvider
 {
+    private final String connectorId;
     private final LocalStorageManager storageManager;
+    private final ShardTransferClient transferClient;
+    private final NodeManager nodeManager;
     private final String nodeId;
 
     @Inject
-    public RaptorRecordSinkProvider(LocalStorageManager storageManager, CurrentNodeId currentNodeId)
-    {
-        this(storageManager, currentNodeId.toString());
-    }
-
-    public RaptorRecordSinkProvider(LocalStorageManager storageManager, String nodeId)
+    public RaptorPageSinkProvider(
+            RaptorConnectorId connectorId,
+            LocalStorageManager storageManager,
+            ShardTransferClient transferClient,
+            NodeManager nodeManager,
+            CurrentNodeId currentNodeId)
     {
+        this.connectorId = checkNotNull(connectorId, "connectorId is null").toString();
         this.storageManager = checkNotNull(storageManager, "storageManager is null");
-        this.nodeId = checkNotNull(nodeId, "nodeId is null");
+        this.transferClient = checkNotNull(transferClient, "transferClient is null");
+        this.nodeManager = checkNotNull(nodeManager, "nodeManager is null");
+        this.nodeId = checkNotNull(currentNodeId, "currentNodeId is null").toString();
     }
 
     @Override
-    public RecordSink getRecordSink(ConnectorOutputTableHandle tableHandle)
+    public ConnectorPageSink getPageSink(ConnectorOutputTableHandle tableHandle)
     {
         RaptorOutputTableHandle handle = checkType(tableHandle, RaptorOutputTableHandle.class, "tableHandle");
 
+        if (handle.getBucketCount() != null) {
+            return new BucketedRaptorPageSink(connectorId, nodeId, nodeManager, storageManager, transferClient, handle);
+        }
+
         ColumnFileHandle fileHandle = createStagingFileHandle(handle.getColumnHandles());
 
-        return new RaptorRecordSink(nodeId, fileHandle, storageManager, handle.getColumnTypes(), handle.getSampleWeightColumnHandle());
+        return new RaptorPageSink(nodeId, fileHandle, storageManager, handle.getSampleWeightColumnHandle());
     }
 
     private ColumnFileHandle createStagingFileHandle(List<RaptorColumnHandle> columnHandles)
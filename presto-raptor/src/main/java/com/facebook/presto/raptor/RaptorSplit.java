@@ -13,33 +13,43 @@
  */
 package com.facebook.presto.raptor;
 
-import com.facebook.presto.spi.ConnectorSplit;
+import com.facebook.presto.spi.ConnectorBucketedSplit;
 import com.facebook.presto.spi.HostAddress;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Objects;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 
 import java.util.List;
 import java.util.UUID;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 
 public class RaptorSplit
-        implements ConnectorSplit
+        implements ConnectorBucketedSplit
 {
     private final UUID shardUuid;
     private final List<HostAddress> addresses;
+    private final Optional<Integer> bucketNumber;
+
+    public RaptorSplit(UUID shardUuid, List<HostAddress> addresses)
+    {
+        this(shardUuid, addresses, Optional.<Integer>absent());
+    }
 
     @JsonCreator
     public RaptorSplit(
             @JsonProperty("shardUuid") UUID shardUuid,
-            @JsonProperty("addresses") List<HostAddress> addresses)
+            @JsonProperty("addresses") List<HostAddress> addresses,
+            @JsonProperty("bucketNumber") Optional<Integer> bucketNumber)
     {
         this.shardUuid = checkNotNull(shardUuid, "shardUuid is null");
 
         checkNotNull(addresses, "addresses is null");
         this.addresses = ImmutableList.copyOf(addresses);
+        this.bucketNumber = checkNotNull(bucketNumber, "bucketNumber is null");
     }
 
     @Override
@@ -62,6 +72,19 @@ public class RaptorSplit
         return shardUuid;
     }
 
+    @JsonProperty("bucketNumber")
+    public Optional<Integer> getOptionalBucketNumber()
+    {
+        return bucketNumber;
+    }
+
+    @Override
+    public int getBucketNumber()
+    {
+        checkState(bucketNumber.isPresent(), "split of shard %s is not bucketed", shardUuid);
+        return bucketNumber.get();
+    }
+
     @Override
     public Object getInfo()
     {
@@ -74,6 +97,7 @@ public class RaptorSplit
         return Objects.toStringHelper(this)
                 .add("shardUuid", shardUuid)
                 .add("hosts", addresses)
+                .add("bucketNumber", bucketNumber)
                 .toString();
     }
 }
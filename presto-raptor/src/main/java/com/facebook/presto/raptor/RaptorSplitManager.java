@@ -13,8 +13,11 @@
  */
 package com.facebook.presto.raptor;
 
+import com.facebook.presto.raptor.metadata.ColumnStats;
 import com.facebook.presto.raptor.metadata.ShardManager;
+import com.facebook.presto.raptor.metadata.ShardNode;
 import com.facebook.presto.raptor.metadata.TablePartition;
+import com.facebook.presto.spi.ConnectorBucketing;
 import com.facebook.presto.spi.ConnectorColumnHandle;
 import com.facebook.presto.spi.ConnectorPartition;
 import com.facebook.presto.spi.ConnectorPartitionResult;
@@ -29,13 +32,18 @@ import com.facebook.presto.spi.HostAddress;
 import com.facebook.presto.spi.Node;
 import com.facebook.presto.spi.NodeManager;
 import com.facebook.presto.spi.PartitionKey;
+import com.facebook.presto.spi.Range;
+import com.facebook.presto.spi.SortedRangeSet;
 import com.facebook.presto.spi.TupleDomain;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Objects;
+import com.google.common.base.Optional;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import io.airlift.log.Logger;
 import io.airlift.slice.Slice;
@@ -45,6 +53,8 @@ import javax.inject.Inject;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -100,11 +110,21 @@ public class RaptorSplitManager
 
         log.debug("Partition key retrieval, raptor table %s (%d keys): %dms", tableHandle, allPartitionKeys.size(), partitionTimer.elapsed(TimeUnit.MILLISECONDS));
 
-        List<ConnectorPartition> partitions = ImmutableList.copyOf(transform(tablePartitions, partitionMapper(allPartitionKeys, columnHandles)));
+        Optional<ConnectorBucketing> bucketing = metadata.getBucketing(tableHandle);
+        List<String> bucketNodes = ImmutableList.of();
+        if (bucketing.isPresent()) {
+            bucketNodes = getColocatedBucketNodes(tableHandle, bucketing.get().getBucketCount());
+            if (bucketNodes.isEmpty()) {
+                log.debug("Shards of bucketed raptor table %s are not stored on the active bucket nodes, reading it unbucketed", tableHandle);
+                bucketing = Optional.absent();
+            }
+        }
+
+        List<ConnectorPartition> partitions = ImmutableList.copyOf(transform(tablePartitions, partitionMapper(allPartitionKeys, columnHandles, tupleDomain, bucketNodes)));
 
         log.debug("Partition generation, raptor table %s (%d partitions): %dms", tableHandle, partitions.size(), partitionTimer.elapsed(TimeUnit.MILLISECONDS));
 
-        return new ConnectorPartitionResult(partitions, tupleDomain);
+        return new ConnectorPartitionResult(partitions, tupleDomain, bucketing.orNull());
     }
 
     @Override
@@ -123,8 +143,16 @@ public class RaptorSplitManager
 
         Multimap<Long, Entry<UUID, String>> partitionShardNodes = shardManager.getShardNodesByPartition(tableHandle);
 
+        // statistics are loaded once per table for each column used in a predicate
+        Map<Long, Map<UUID, ColumnStats>> columnStats = new HashMap<>();
+        int prunedShards = 0;
+
+        // bucket numbers are only loaded for bucketed tables
+        Map<UUID, Integer> shardBuckets = null;
+
         for (ConnectorPartition partition : partitions) {
             RaptorPartition raptorPartition = checkType(partition, RaptorPartition.class, "partition");
+            TupleDomain<ConnectorColumnHandle> effectivePredicate = raptorPartition.getEffectivePredicate();
 
             ImmutableMultimap.Builder<UUID, String> shardNodes = ImmutableMultimap.builder();
             for (Entry<UUID, String> shardNode : partitionShardNodes.get(raptorPartition.getRaptorPartitionId())) {
@@ -132,6 +160,22 @@ public class RaptorSplitManager
             }
 
             for (Map.Entry<UUID, Collection<String>> entry : shardNodes.build().asMap().entrySet()) {
+                if (!shardMatches(tableHandle, entry.getKey(), effectivePredicate, columnStats)) {
+                    prunedShards++;
+                    continue;
+                }
+                if (raptorPartition.isBucketed()) {
+                    if (shardBuckets == null) {
+                        shardBuckets = getShardBuckets(tableHandle);
+                    }
+                    // the split must be scheduled on the owner of its bucket, which stores the shard
+                    int bucketNumber = shardBuckets.get(entry.getKey());
+                    String bucketNode = raptorPartition.getBucketNodes().get(bucketNumber);
+                    List<HostAddress> addresses = getAddressesForNodes(nodesById, ImmutableList.of(bucketNode));
+                    checkState(!addresses.isEmpty(), "no host for bucket %s of shard %s found: %s", bucketNumber, entry.getKey(), bucketNode);
+                    splits.add(new RaptorSplit(entry.getKey(), addresses, Optional.of(bucketNumber)));
+                    continue;
+                }
                 List<HostAddress> addresses = getAddressesForNodes(nodesById, entry.getValue());
                 checkState(!addresses.isEmpty(), "no host for shard %s found: %s", entry.getKey(), entry.getValue());
                 ConnectorSplit split = new RaptorSplit(entry.getKey(), addresses);
@@ -139,7 +183,7 @@ public class RaptorSplitManager
             }
         }
 
-        log.debug("Split retrieval for %d partitions (%d splits): %dms", partitions.size(), splits.size(), splitTimer.elapsed(TimeUnit.MILLISECONDS));
+        log.debug("Split retrieval for %d partitions (%d splits, %d shards pruned): %dms", partitions.size(), splits.size(), prunedShards, splitTimer.elapsed(TimeUnit.MILLISECONDS));
 
         // The query engine assumes that splits are returned in a somewhat random fashion. The Raptor split manager,
         // because it loads the data from a database table, will return the splits somewhat ordered by node ID,
@@ -149,6 +193,99 @@ public class RaptorSplitManager
         return new FixedSplitSource(connectorId, splits);
     }
 
+    /**
+     * Returns the owners of the buckets of a bucketed table, indexed by bucket number, if every
+     * shard of the table is stored on the owner of its bucket and all owners are active. Otherwise
+     * returns an empty list, as the table can not be read one bucket per node.
+     */
+    private List<String> getColocatedBucketNodes(ConnectorTableHandle tableHandle, int bucketCount)
+    {
+        List<String> bucketNodes = shardManager.getBucketNodes(bucketCount);
+        if (bucketNodes.size() != bucketCount) {
+            return ImmutableList.of();
+        }
+
+        Set<String> activeNodes = ImmutableSet.copyOf(transform(nodeManager.getActiveDatasourceNodes(connectorId), getIdentifierFunction()));
+        if (!activeNodes.containsAll(bucketNodes)) {
+            return ImmutableList.of();
+        }
+
+        Set<UUID> shards = new HashSet<>();
+        Set<UUID> colocatedShards = new HashSet<>();
+        for (ShardNode shardNode : shardManager.getShardNodes(tableHandle)) {
+            shards.add(shardNode.getShardUuid());
+            Integer bucketNumber = shardNode.getBucketNumber();
+            if ((bucketNumber != null) && (bucketNumber < bucketCount) && bucketNodes.get(bucketNumber).equals(shardNode.getNodeIdentifier())) {
+                colocatedShards.add(shardNode.getShardUuid());
+            }
+        }
+        if (colocatedShards.size() != shards.size()) {
+            return ImmutableList.of();
+        }
+        return bucketNodes;
+    }
+
+    private Map<UUID, Integer> getShardBuckets(ConnectorTableHandle tableHandle)
+    {
+        Map<UUID, Integer> shardBuckets = new HashMap<>();
+        for (ShardNode shardNode : shardManager.getShardNodes(tableHandle)) {
+            checkState(shardNode.getBucketNumber() != null, "shard %s of bucketed table %s has no bucket", shardNode.getShardUuid(), tableHandle);
+            shardBuckets.put(shardNode.getShardUuid(), shardNode.getBucketNumber());
+        }
+        return shardBuckets;
+    }
+
+    private boolean shardMatches(ConnectorTableHandle tableHandle, UUID shardUuid, TupleDomain<ConnectorColumnHandle> effectivePredicate, Map<Long, Map<UUID, ColumnStats>> columnStats)
+    {
+        if (effectivePredicate.isNone()) {
+            return false;
+        }
+
+        for (Entry<ConnectorColumnHandle, Domain> entry : effectivePredicate.getDomains().entrySet()) {
+            long columnId = checkType(entry.getKey(), RaptorColumnHandle.class, "columnHandle").getColumnId();
+
+            Map<UUID, ColumnStats> shardStats = columnStats.get(columnId);
+            if (shardStats == null) {
+                shardStats = shardManager.getShardColumnStats(tableHandle, columnId);
+                columnStats.put(columnId, shardStats);
+            }
+
+            ColumnStats stats = shardStats.get(shardUuid);
+            if (stats == null) {
+                continue;
+            }
+
+            Domain predicateDomain = entry.getValue();
+            Optional<Domain> shardDomain = getDomain(predicateDomain.getType(), stats);
+            if (shardDomain.isPresent() && !predicateDomain.overlaps(shardDomain.get())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the domain containing all values of a column in a shard, if the statistics describe it.
+     */
+    @VisibleForTesting
+    static Optional<Domain> getDomain(Class<?> type, ColumnStats stats)
+    {
+        Object min = stats.getMin();
+        Object max = stats.getMax();
+        boolean nullAllowed = stats.getNullCount() > 0;
+
+        if (type == Long.class && min instanceof Long) {
+            return Optional.of(Domain.create(SortedRangeSet.of(Range.range((Long) min, true, (Long) max, true)), nullAllowed));
+        }
+        if (type == Double.class && min instanceof Double) {
+            return Optional.of(Domain.create(SortedRangeSet.of(Range.range((Double) min, true, (Double) max, true)), nullAllowed));
+        }
+        if (type == Slice.class && min instanceof String) {
+            return Optional.of(Domain.create(SortedRangeSet.of(Range.range(utf8Slice((String) min), true, utf8Slice((String) max), true)), nullAllowed));
+        }
+        return Optional.absent();
+    }
+
     private static List<HostAddress> getAddressesForNodes(Map<String, Node> nodeMap, Iterable<String> nodeIdentifiers)
     {
         ImmutableList.Builder<HostAddress> nodes = ImmutableList.builder();
@@ -166,11 +303,15 @@ public class RaptorSplitManager
     {
         private final long partitionId;
         private final TupleDomain<ConnectorColumnHandle> tupleDomain;
+        private final TupleDomain<ConnectorColumnHandle> effectivePredicate;
+        private final List<String> bucketNodes;
 
-        public RaptorPartition(long partitionId, TupleDomain<ConnectorColumnHandle> tupleDomain)
+        public RaptorPartition(long partitionId, TupleDomain<ConnectorColumnHandle> tupleDomain, TupleDomain<ConnectorColumnHandle> effectivePredicate, List<String> bucketNodes)
         {
             this.partitionId = partitionId;
             this.tupleDomain = checkNotNull(tupleDomain, "tupleDomain is null");
+            this.effectivePredicate = checkNotNull(effectivePredicate, "effectivePredicate is null");
+            this.bucketNodes = ImmutableList.copyOf(checkNotNull(bucketNodes, "bucketNodes is null"));
         }
 
         @Override
@@ -190,10 +331,31 @@ public class RaptorSplitManager
             return tupleDomain;
         }
 
+        /**
+         * The predicate of the query, used to prune the shards of the partition.
+         */
+        public TupleDomain<ConnectorColumnHandle> getEffectivePredicate()
+        {
+            return effectivePredicate;
+        }
+
+        public boolean isBucketed()
+        {
+            return !bucketNodes.isEmpty();
+        }
+
+        /**
+         * The owners of the buckets of the table, indexed by bucket number, if the partition is read one bucket per node.
+         */
+        public List<String> getBucketNodes()
+        {
+            return bucketNodes;
+        }
+
         @Override
         public int hashCode()
         {
-            return Objects.hashCode(partitionId, tupleDomain);
+            return Objects.hashCode(partitionId, tupleDomain, effectivePredicate, bucketNodes);
         }
 
         @Override
@@ -207,7 +369,9 @@ public class RaptorSplitManager
             }
             RaptorPartition other = (RaptorPartition) obj;
             return this.partitionId == other.partitionId
-                    && Objects.equal(this.tupleDomain, other.tupleDomain);
+                    && Objects.equal(this.tupleDomain, other.tupleDomain)
+                    && Objects.equal(this.effectivePredicate, other.effectivePredicate)
+                    && Objects.equal(this.bucketNodes, other.bucketNodes);
         }
 
         @Override
@@ -216,13 +380,17 @@ public class RaptorSplitManager
             return Objects.toStringHelper(this)
                     .add("partitionId", partitionId)
                     .add("tupleDomain", tupleDomain)
+                    .add("effectivePredicate", effectivePredicate)
+                    .add("bucketNodes", bucketNodes)
                     .toString();
         }
     }
 
     private static Function<TablePartition, ConnectorPartition> partitionMapper(
             final Multimap<String, ? extends PartitionKey> allPartitionKeys,
-            final Map<String, ConnectorColumnHandle> columnHandles)
+            final Map<String, ConnectorColumnHandle> columnHandles,
+            final TupleDomain<ConnectorColumnHandle> effectivePredicate,
+            final List<String> bucketNodes)
     {
         return new Function<TablePartition, ConnectorPartition>()
         {
@@ -268,7 +436,7 @@ public class RaptorSplitManager
                     }
                 }
 
-                return new RaptorPartition(tablePartition.getPartitionId(), TupleDomain.withColumnDomains(builder.build()));
+                return new RaptorPartition(tablePartition.getPartitionId(), TupleDomain.withColumnDomains(builder.build()), effectivePredicate, bucketNodes);
             }
         };
     }
@@ -0,0 +1,153 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.raptor.metadata;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Objects;
+import org.skife.jdbi.v2.StatementContext;
+import org.skife.jdbi.v2.tweak.ResultSetMapper;
+
+import javax.annotation.Nullable;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Statistics of the values of a column in a shard. The minimum and maximum
+ * values are either both known or both unknown, and are a {@code Long},
+ * {@code Double} or {@code String} depending on the type of the column.
+ */
+public class ColumnStats
+{
+    private final long columnId;
+    private final long nullCount;
+    private final Object min;
+    private final Object max;
+
+    @JsonCreator
+    public ColumnStats(
+            @JsonProperty("columnId") long columnId,
+            @JsonProperty("nullCount") long nullCount,
+            @JsonProperty("min") @Nullable Object min,
+            @JsonProperty("max") @Nullable Object max)
+    {
+        checkArgument(nullCount >= 0, "nullCount is negative");
+        checkArgument((min == null) == (max == null), "min and max must both be set or both be null");
+        this.columnId = columnId;
+        this.nullCount = nullCount;
+        this.min = normalize(min);
+        this.max = normalize(max);
+    }
+
+    @JsonProperty
+    public long getColumnId()
+    {
+        return columnId;
+    }
+
+    @JsonProperty
+    public long getNullCount()
+    {
+        return nullCount;
+    }
+
+    @Nullable
+    @JsonProperty
+    public Object getMin()
+    {
+        return min;
+    }
+
+    @Nullable
+    @JsonProperty
+    public Object getMax()
+    {
+        return max;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hashCode(columnId, nullCount, min, max);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        ColumnStats other = (ColumnStats) obj;
+        return this.columnId == other.columnId &&
+                this.nullCount == other.nullCount &&
+                Objects.equal(this.min, other.min) &&
+                Objects.equal(this.max, other.max);
+    }
+
+    @Override
+    public String toString()
+    {
+        return Objects.toStringHelper(this)
+                .add("columnId", columnId)
+                .add("nullCount", nullCount)
+                .add("min", min)
+                .add("max", max)
+                .toString();
+    }
+
+    private static Object normalize(Object value)
+    {
+        // small longs are deserialized from JSON as integers
+        if (value instanceof Integer) {
+            return ((Integer) value).longValue();
+        }
+        checkArgument(value == null || value instanceof Long || value instanceof Double || value instanceof String, "unsupported value type: %s", value);
+        return value;
+    }
+
+    public static class Mapper
+            implements ResultSetMapper<ColumnStats>
+    {
+        @Override
+        public ColumnStats map(int index, ResultSet r, StatementContext ctx)
+                throws SQLException
+        {
+            return new ColumnStats(
+                    r.getLong("column_id"),
+                    r.getLong("null_count"),
+                    getValue(r, "min"),
+                    getValue(r, "max"));
+        }
+
+        private static Object getValue(ResultSet r, String prefix)
+                throws SQLException
+        {
+            long longValue = r.getLong(prefix + "_long");
+            if (!r.wasNull()) {
+                return longValue;
+            }
+            double doubleValue = r.getDouble(prefix + "_double");
+            if (!r.wasNull()) {
+                return doubleValue;
+            }
+            return r.getString(prefix + "_varchar");
+        }
+    }
+}
@@ -19,6 +19,7 @@ import com.facebook.presto.spi.ConnectorTableHandle;
 import com.facebook.presto.spi.PartitionKey;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
@@ -30,6 +31,8 @@ import org.skife.jdbi.v2.VoidTransactionCallback;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -39,7 +42,9 @@ import java.util.UUID;
 import static com.facebook.presto.raptor.metadata.ShardManagerDaoUtils.createShardTablesWithRetry;
 import static com.facebook.presto.raptor.metadata.SqlUtils.runIgnoringConstraintViolation;
 import static com.facebook.presto.util.Types.checkType;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Maps.immutableEntry;
 
 public class DatabaseShardManager
@@ -60,7 +65,7 @@ public class DatabaseShardManager
     }
 
     @Override
-    public void commitPartition(ConnectorTableHandle tableHandle, final String partition, final List<? extends PartitionKey> partitionKeys, final Map<UUID, String> shards)
+    public void commitPartition(ConnectorTableHandle tableHandle, final String partition, final List<? extends PartitionKey> partitionKeys, final Collection<ShardInfo> shards)
     {
         checkNotNull(partition, "partition is null");
         checkNotNull(partitionKeys, "partitionKeys is null");
@@ -80,23 +85,45 @@ public class DatabaseShardManager
                     dao.insertPartitionKey(tableId, partition, partitionKey.getName(), partitionKey.getType().toString(), partitionKey.getValue());
                 }
 
-                for (Map.Entry<UUID, String> entry : shards.entrySet()) {
-                    long nodeId = getOrCreateNodeId(entry.getValue());
-                    UUID shardUuid = entry.getKey();
-                    long shardId = dao.insertShard(shardUuid);
-                    dao.insertShardNode(shardId, nodeId);
-                    dao.insertPartitionShard(shardId, tableId, partitionId);
+                for (ShardInfo shard : shards) {
+                    insertShard(dao, tableId, partitionId, shard);
                 }
             }
         });
     }
 
     @Override
-    public void commitUnpartitionedTable(ConnectorTableHandle tableHandle, Map<UUID, String> shards)
+    public void commitUnpartitionedTable(ConnectorTableHandle tableHandle, Collection<ShardInfo> shards)
     {
         commitPartition(tableHandle, "<UNPARTITIONED>", ImmutableList.<PartitionKey>of(), shards);
     }
 
+    @Override
+    public void replaceShards(final long tableId, final long partitionId, final Collection<UUID> oldShardUuids, final ShardInfo newShard)
+    {
+        checkNotNull(oldShardUuids, "oldShardUuids is null");
+        checkNotNull(newShard, "newShard is null");
+
+        dbi.inTransaction(new VoidTransactionCallback()
+        {
+            @Override
+            protected void execute(Handle handle, TransactionStatus status)
+            {
+                ShardManagerDao dao = handle.attach(ShardManagerDao.class);
+                for (UUID shardUuid : oldShardUuids) {
+                    Long shardId = dao.getShardId(shardUuid);
+                    checkState((shardId != null) && dao.partitionShardExists(shardId, partitionId), "shard %s is no longer in partition %s", shardUuid, partitionId);
+                    dao.deleteShardFromPartitionShards(shardId);
+                    dao.dropShardNode(shardId, null);
+                    dao.deleteShardColumnStats(shardId);
+                    dao.deleteShardBucket(shardId);
+                    dao.deleteShard(shardId);
+                }
+                insertShard(dao, tableId, partitionId, newShard);
+            }
+        });
+    }
+
     @Override
     public void disassociateShard(long shardId, @Nullable String nodeIdentifier)
     {
@@ -113,6 +140,8 @@ public class DatabaseShardManager
             {
                 ShardManagerDao dao = handle.attach(ShardManagerDao.class);
                 dao.deleteShardFromPartitionShards(shardId);
+                dao.deleteShardColumnStats(shardId);
+                dao.deleteShardBucket(shardId);
                 dao.deleteShard(shardId);
             }
         });
@@ -151,6 +180,114 @@ public class DatabaseShardManager
         return map.build();
     }
 
+    @Override
+    public List<ShardNode> getShardNodes(ConnectorTableHandle tableHandle)
+    {
+        long tableId = checkType(tableHandle, RaptorTableHandle.class, "tableHandle").getTableId();
+        return dao.getShardNodes(tableId);
+    }
+
+    @Override
+    public List<ShardNode> getNodeShards(String nodeIdentifier)
+    {
+        checkNotNull(nodeIdentifier, "nodeIdentifier is null");
+        return dao.getNodeShards(nodeIdentifier);
+    }
+
+    @Override
+    public Multimap<UUID, String> getReplicaNodes(String nodeIdentifier)
+    {
+        checkNotNull(nodeIdentifier, "nodeIdentifier is null");
+
+        ImmutableMultimap.Builder<UUID, String> map = ImmutableMultimap.builder();
+        for (ShardNode shardNode : dao.getReplicaShardNodes(nodeIdentifier)) {
+            map.put(shardNode.getShardUuid(), shardNode.getNodeIdentifier());
+        }
+        return map.build();
+    }
+
+    @Override
+    public void addShardNode(UUID shardUuid, String nodeIdentifier)
+    {
+        checkNotNull(shardUuid, "shardUuid is null");
+        checkNotNull(nodeIdentifier, "nodeIdentifier is null");
+
+        final long nodeId = getOrCreateNodeId(nodeIdentifier);
+        final Long shardId = dao.getShardId(shardUuid);
+        checkState(shardId != null, "shard %s no longer exists", shardUuid);
+
+        // adding a node is idempotent, but the shard may be deleted concurrently
+        runIgnoringConstraintViolation(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                dao.insertShardNode(shardId, nodeId);
+            }
+        });
+        checkState(dao.shardNodeExists(shardId, nodeId), "shard %s no longer exists", shardUuid);
+    }
+
+    @Override
+    public List<String> getBucketNodes(int bucketCount)
+    {
+        return dao.getBucketNodes(bucketCount);
+    }
+
+    @Override
+    public List<String> assignBucketNodes(final int bucketCount, List<String> nodeIdentifiers)
+    {
+        checkArgument(bucketCount > 0, "bucketCount must be greater than zero");
+        checkNotNull(nodeIdentifiers, "nodeIdentifiers is null");
+
+        List<String> bucketNodes = dao.getBucketNodes(bucketCount);
+        if (!bucketNodes.isEmpty()) {
+            return bucketNodes;
+        }
+        checkArgument(!nodeIdentifiers.isEmpty(), "nodeIdentifiers is empty");
+
+        final List<Long> nodeIds = new ArrayList<>();
+        for (String nodeIdentifier : nodeIdentifiers) {
+            nodeIds.add(getOrCreateNodeId(nodeIdentifier));
+        }
+
+        // another query may assign the buckets concurrently
+        runIgnoringConstraintViolation(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                dbi.inTransaction(new VoidTransactionCallback()
+                {
+                    @Override
+                    protected void execute(Handle handle, TransactionStatus status)
+                    {
+                        ShardManagerDao dao = handle.attach(ShardManagerDao.class);
+                        for (int bucket = 0; bucket < bucketCount; bucket++) {
+                            dao.insertBucketNode(bucketCount, bucket, nodeIds.get(bucket % nodeIds.size()));
+                        }
+                    }
+                });
+            }
+        });
+
+        bucketNodes = dao.getBucketNodes(bucketCount);
+        checkState(bucketNodes.size() == bucketCount, "buckets were not assigned");
+        return bucketNodes;
+    }
+
+    @Override
+    public Map<UUID, ColumnStats> getShardColumnStats(ConnectorTableHandle tableHandle, long columnId)
+    {
+        long tableId = checkType(tableHandle, RaptorTableHandle.class, "tableHandle").getTableId();
+
+        ImmutableMap.Builder<UUID, ColumnStats> map = ImmutableMap.builder();
+        for (ShardColumnStats shardColumnStats : dao.getShardColumnStats(tableId, columnId)) {
+            map.put(shardColumnStats.getShardUuid(), shardColumnStats.getColumnStats());
+        }
+        return map.build();
+    }
+
     @Override
     public Set<String> getTableNodes(ConnectorTableHandle tableHandle)
     {
@@ -201,6 +338,36 @@ public class DatabaseShardManager
         dao.dropAllOrphanedPartitions();
     }
 
+    private void insertShard(ShardManagerDao dao, long tableId, long partitionId, ShardInfo shard)
+    {
+        long nodeId = getOrCreateNodeId(shard.getNodeIdentifier());
+        long shardId = dao.insertShard(shard.getShardUuid());
+        if (shard.getBucketNumber() != null) {
+            dao.insertShardBucket(shardId, shard.getBucketNumber());
+        }
+        dao.insertShardNode(shardId, nodeId);
+        dao.insertPartitionShard(shardId, tableId, partitionId);
+        for (ColumnStats stats : shard.getColumnStats()) {
+            insertShardColumnStats(dao, shardId, stats);
+        }
+    }
+
+    private static void insertShardColumnStats(ShardManagerDao dao, long shardId, ColumnStats stats)
+    {
+        Object min = stats.getMin();
+        Object max = stats.getMax();
+        dao.insertShardColumnStats(
+                shardId,
+                stats.getColumnId(),
+                stats.getNullCount(),
+                (min instanceof Long) ? (Long) min : null,
+                (max instanceof Long) ? (Long) max : null,
+                (min instanceof Double) ? (Double) min : null,
+                (max instanceof Double) ? (Double) max : null,
+                (min instanceof String) ? (String) min : null,
+                (max instanceof String) ? (String) max : null);
+    }
+
     private long getOrCreateNodeId(final String nodeIdentifier)
     {
         Long id = dao.getNodeId(nodeIdentifier);
@@ -47,6 +47,23 @@ public interface MetadataDao
             ")")
     void createColumnsTable();
 
+    @SqlUpdate("CREATE TABLE IF NOT EXISTS table_buckets (\n" +
+            "  table_id BIGINT PRIMARY KEY,\n" +
+            "  bucket_count INT NOT NULL,\n" +
+            "  FOREIGN KEY (table_id) REFERENCES tables (table_id)\n" +
+            ")")
+    void createTableBucketsTable();
+
+    @SqlUpdate("CREATE TABLE IF NOT EXISTS bucket_columns (\n" +
+            "  table_id BIGINT NOT NULL,\n" +
+            "  column_id BIGINT NOT NULL,\n" +
+            "  bucket_ordinal_position INT NOT NULL,\n" +
+            "  PRIMARY KEY (table_id, column_id),\n" +
+            "  UNIQUE (table_id, bucket_ordinal_position),\n" +
+            "  FOREIGN KEY (table_id, column_id) REFERENCES columns (table_id, column_id)\n" +
+            ")")
+    void createBucketColumnsTable();
+
     @SqlUpdate("CREATE TABLE IF NOT EXISTS views (\n" +
             "  catalog_name VARCHAR(255) NOT NULL,\n" +
             "  schema_name VARCHAR(255) NOT NULL,\n" +
@@ -56,10 +73,12 @@ public interface MetadataDao
             ")")
     void createViewsTable();
 
-    @SqlQuery("SELECT table_id FROM tables\n" +
-            "WHERE catalog_name = :catalogName\n" +
-            "  AND schema_name = :schemaName\n" +
-            "  AND table_name = :tableName")
+    @SqlQuery("SELECT t.table_id, b.bucket_count\n" +
+            "FROM tables t\n" +
+            "LEFT JOIN table_buckets b ON (t.table_id = b.table_id)\n" +
+            "WHERE t.catalog_name = :catalogName\n" +
+            "  AND t.schema_name = :schemaName\n" +
+            "  AND t.table_name = :tableName")
     @Mapper(TableMapper.class)
     Table getTableInformation(
             @Bind("catalogName") String catalogName,
@@ -85,6 +104,15 @@ public interface MetadataDao
             "ORDER BY c.ordinal_position")
     List<TableColumn> getTableColumns(@Bind("tableId") long tableId);
 
+    @SqlQuery("SELECT t.schema_name, t.table_name,\n" +
+            "  c.column_id, c.column_name, c.ordinal_position, c.data_type\n" +
+            "FROM tables t\n" +
+            "JOIN columns c ON (t.table_id = c.table_id)\n" +
+            "JOIN bucket_columns bc ON (c.table_id = bc.table_id AND c.column_id = bc.column_id)\n" +
+            "WHERE t.table_id = :tableId\n" +
+            "ORDER BY bc.bucket_ordinal_position")
+    List<TableColumn> getBucketColumns(@Bind("tableId") long tableId);
+
     @SqlQuery("SELECT column_id\n" +
             "FROM columns\n" +
             "WHERE table_id = :tableId AND column_name = :columnName")
@@ -162,6 +190,19 @@ public interface MetadataDao
             @Bind("ordinalPosition") int ordinalPosition,
             @Bind("dataType") String dataType);
 
+    @SqlUpdate("INSERT INTO table_buckets (table_id, bucket_count)\n" +
+            "VALUES (:tableId, :bucketCount)")
+    void insertTableBuckets(
+            @Bind("tableId") long tableId,
+            @Bind("bucketCount") int bucketCount);
+
+    @SqlUpdate("INSERT INTO bucket_columns (table_id, column_id, bucket_ordinal_position)\n" +
+            "VALUES (:tableId, :columnId, :bucketOrdinalPosition)")
+    void insertBucketColumn(
+            @Bind("tableId") long tableId,
+            @Bind("columnId") long columnId,
+            @Bind("bucketOrdinalPosition") int bucketOrdinalPosition);
+
     @SqlUpdate("INSERT INTO views (catalog_name, schema_name, table_name, data)\n" +
             "VALUES (:catalogName, :schemaName, :tableName, :data)")
     void insertView(
@@ -176,6 +217,12 @@ public interface MetadataDao
     @SqlUpdate("DELETE FROM columns WHERE table_id = :tableId")
     int dropColumns(@Bind("tableId") long tableId);
 
+    @SqlUpdate("DELETE FROM table_buckets WHERE table_id = :tableId")
+    int dropTableBuckets(@Bind("tableId") long tableId);
+
+    @SqlUpdate("DELETE FROM bucket_columns WHERE table_id = :tableId")
+    int dropBucketColumns(@Bind("tableId") long tableId);
+
     @SqlUpdate("DELETE FROM views\n" +
             "WHERE catalog_name = :catalogName\n" +
             "  AND schema_name = :schemaName\n" +
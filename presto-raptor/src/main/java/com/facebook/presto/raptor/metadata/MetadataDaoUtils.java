@@ -28,6 +28,8 @@ public final class MetadataDaoUtils
 
     public static void dropTable(MetadataDao dao, long tableId)
     {
+        dao.dropBucketColumns(tableId);
+        dao.dropTableBuckets(tableId);
         dao.dropColumns(tableId);
         dao.dropTable(tableId);
     }
@@ -51,6 +53,8 @@ public final class MetadataDaoUtils
     {
         dao.createTablesTable();
         dao.createColumnsTable();
+        dao.createTableBucketsTable();
+        dao.createBucketColumnsTable();
         dao.createViewsTable();
     }
 
@@ -43,6 +43,12 @@ public class MetadataModule
         bindConfig(binder).to(ShardCleanerConfig.class);
         binder.bind(ShardCleaner.class).in(Scopes.SINGLETON);
         httpClientBinder(binder).bindHttpClient("raptor-shard-cleaner", ForShardCleaner.class);
+
+        bindConfig(binder).to(ShardCompactorConfig.class);
+        binder.bind(ShardCompactor.class).in(Scopes.SINGLETON);
+
+        bindConfig(binder).to(ShardReplicatorConfig.class);
+        binder.bind(ShardReplicator.class).in(Scopes.SINGLETON);
     }
 
     @SafeVarargs
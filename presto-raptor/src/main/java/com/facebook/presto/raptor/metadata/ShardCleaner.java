@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.raptor.metadata;
 
+import com.facebook.presto.raptor.RaptorConnectorId;
 import com.facebook.presto.spi.Node;
 import com.facebook.presto.spi.NodeManager;
 import com.facebook.presto.util.KeyBoundedExecutor;
@@ -59,6 +60,7 @@ public class ShardCleaner
 {
     private static final Logger log = Logger.get(ShardCleaner.class);
 
+    private final String connectorId;
     private final NodeManager nodeManager;
     private final ShardManager shardManager;
     private final HttpClient httpClient;
@@ -75,11 +77,13 @@ public class ShardCleaner
     private final KeyBoundedExecutor<String> nodeBoundedExecutor;
 
     @Inject
-    public ShardCleaner(NodeManager nodeManager,
+    public ShardCleaner(RaptorConnectorId connectorId,
+            NodeManager nodeManager,
             ShardManager shardManager,
             @ForShardCleaner HttpClient httpClient,
             ShardCleanerConfig config)
     {
+        this.connectorId = checkNotNull(connectorId, "connectorId is null").toString();
         this.nodeManager = checkNotNull(nodeManager, "nodeManager is null");
         this.shardManager = checkNotNull(shardManager, "shardManager is null");
         this.httpClient = checkNotNull(httpClient, "httpClient is null");
@@ -195,7 +199,7 @@ public class ShardCleaner
 
         private boolean dropShardRequest()
         {
-            URI shardUri = uriAppendPaths(node.getHttpUri(), "/v1/shard/" + shardId);
+            URI shardUri = uriAppendPaths(node.getHttpUri(), "/v1/connector", connectorId, "shard", String.valueOf(shardId));
             Request request = Builder.prepareDelete().setUri(shardUri).build();
 
             StatusResponse response;
@@ -0,0 +1,71 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.raptor.metadata;
+
+import com.google.common.base.Objects;
+import org.skife.jdbi.v2.StatementContext;
+import org.skife.jdbi.v2.tweak.ResultSetMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import static com.facebook.presto.raptor.util.UuidArguments.uuidFromBytes;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public class ShardColumnStats
+{
+    private final UUID shardUuid;
+    private final ColumnStats columnStats;
+
+    public ShardColumnStats(UUID shardUuid, ColumnStats columnStats)
+    {
+        this.shardUuid = checkNotNull(shardUuid, "shardUuid is null");
+        this.columnStats = checkNotNull(columnStats, "columnStats is null");
+    }
+
+    public UUID getShardUuid()
+    {
+        return shardUuid;
+    }
+
+    public ColumnStats getColumnStats()
+    {
+        return columnStats;
+    }
+
+    @Override
+    public String toString()
+    {
+        return Objects.toStringHelper(this)
+                .add("shardUuid", shardUuid)
+                .add("columnStats", columnStats)
+                .toString();
+    }
+
+    public static class Mapper
+            implements ResultSetMapper<ShardColumnStats>
+    {
+        private final ColumnStats.Mapper columnStatsMapper = new ColumnStats.Mapper();
+
+        @Override
+        public ShardColumnStats map(int index, ResultSet r, StatementContext ctx)
+                throws SQLException
+        {
+            return new ShardColumnStats(
+                    uuidFromBytes(r.getBytes("shard_uuid")),
+                    columnStatsMapper.map(index, r, ctx));
+        }
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.raptor.metadata;
+
+import com.facebook.presto.raptor.RaptorColumnHandle;
+import com.facebook.presto.raptor.RaptorConnectorId;
+import com.facebook.presto.raptor.storage.LocalStorageManager;
+import com.facebook.presto.raptor.util.CurrentNodeId;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Ordering;
+import io.airlift.log.Logger;
+import io.airlift.units.Duration;
+import org.skife.jdbi.v2.IDBI;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+
+/**
+ * Periodically merges the small shards of each partition stored on this node into larger shards.
+ * Shards of bucketed tables are only merged with shards of the same bucket.
+ * <p/>
+ * The merged shard replaces the original shards in a single metadata transaction. The original
+ * shards are dropped from local storage after a delay, so queries that were scheduled before the
+ * swap can still read them.
+ */
+public class ShardCompactor
+{
+    private static final Logger log = Logger.get(ShardCompactor.class);
+
+    private final String connectorId;
+    private final String nodeIdentifier;
+    private final ShardManager shardManager;
+    private final MetadataDao metadataDao;
+    private final LocalStorageManager storageManager;
+
+    private final boolean enabled;
+    private final Duration interval;
+    private final long maxShardSize;
+    private final Duration dropDelay;
+
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final ScheduledExecutorService executor = newSingleThreadScheduledExecutor(daemonThreadsNamed("shard-compactor"));
+
+    @Inject
+    public ShardCompactor(
+            RaptorConnectorId connectorId,
+            CurrentNodeId currentNodeId,
+            ShardManager shardManager,
+            @ForMetadata IDBI dbi,
+            LocalStorageManager storageManager,
+            ShardCompactorConfig config)
+    {
+        this.connectorId = checkNotNull(connectorId, "connectorId is null").toString();
+        this.nodeIdentifier = checkNotNull(currentNodeId, "currentNodeId is null").toString();
+        this.shardManager = checkNotNull(shardManager, "shardManager is null");
+        this.metadataDao = checkNotNull(dbi, "dbi is null").onDemand(MetadataDao.class);
+        this.storageManager = checkNotNull(storageManager, "storageManager is null");
+
+        checkNotNull(config, "config is null");
+        this.enabled = config.isEnabled();
+        this.interval = config.getCompactionInterval();
+        this.maxShardSize = config.getMaxShardSize().toBytes();
+        this.dropDelay = config.getDropDelay();
+    }
+
+    @PostConstruct
+    public void start()
+    {
+        if (enabled && started.compareAndSet(false, true)) {
+            executor.scheduleWithFixedDelay(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try {
+                        compact();
+                    }
+                    catch (Throwable e) {
+                        log.error(e, "Error compacting shards");
+                    }
+                }
+            }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        executor.shutdownNow();
+    }
+
+    @VisibleForTesting
+    void compact()
+    {
+        // group the shards of this node by table partition and bucket, skipping shards
+        // that are also stored on other nodes, whose copies would be orphaned
+        Multimap<UUID, String> replicaNodes = shardManager.getReplicaNodes(nodeIdentifier);
+        ListMultimap<ShardGroup, UUID> groupShards = ArrayListMultimap.create();
+        for (ShardNode shardNode : shardManager.getNodeShards(nodeIdentifier)) {
+            if ((replicaNodes.get(shardNode.getShardUuid()).size() == 1) && storageManager.shardExists(shardNode.getShardUuid())) {
+                groupShards.put(new ShardGroup(shardNode.getTableId(), shardNode.getPartitionId(), shardNode.getBucketNumber()), shardNode.getShardUuid());
+            }
+        }
+
+        for (Map.Entry<ShardGroup, Collection<UUID>> entry : groupShards.asMap().entrySet()) {
+            if (entry.getValue().size() < 2) {
+                continue;
+            }
+            long tableId = entry.getKey().getTableId();
+            long partitionId = entry.getKey().getPartitionId();
+            Integer bucketNumber = entry.getKey().getBucketNumber();
+
+            List<ShardSize> shards = new ArrayList<>();
+            for (UUID shardUuid : entry.getValue()) {
+                shards.add(new ShardSize(shardUuid, storageManager.getShardSizeInBytes(shardUuid)));
+            }
+
+            for (List<UUID> group : selectShardsToMerge(shards, maxShardSize)) {
+                try {
+                    mergeShards(tableId, partitionId, bucketNumber, group);
+                }
+                catch (Exception e) {
+                    log.warn(e, "Failed to merge shards %s of table %s", group, tableId);
+                }
+            }
+        }
+    }
+
+    private void mergeShards(long tableId, long partitionId, Integer bucketNumber, final List<UUID> shardUuids)
+            throws Exception
+    {
+        ImmutableList.Builder<RaptorColumnHandle> columnHandles = ImmutableList.builder();
+        for (TableColumn column : metadataDao.getTableColumns(tableId)) {
+            columnHandles.add(new RaptorColumnHandle(connectorId, column.getColumnName(), column.getColumnId()));
+        }
+
+        UUID shardUuid = UUID.randomUUID();
+        List<ColumnStats> columnStats = storageManager.mergeShards(shardUuid, shardUuids, columnHandles.build());
+        try {
+            shardManager.replaceShards(tableId, partitionId, shardUuids, new ShardInfo(shardUuid, nodeIdentifier, columnStats, bucketNumber));
+        }
+        catch (RuntimeException e) {
+            storageManager.dropShard(shardUuid);
+            throw e;
+        }
+        log.info("Merged %s shards of table %s into shard %s", shardUuids.size(), tableId, shardUuid);
+
+        executor.schedule(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                for (UUID shardUuid : shardUuids) {
+                    storageManager.dropShard(shardUuid);
+                }
+            }
+        }, dropDelay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Group shards smaller than the maximum shard size so that the total size of each
+     * group does not exceed it. Only groups of at least two shards are returned.
+     */
+    @VisibleForTesting
+    static List<List<UUID>> selectShardsToMerge(List<ShardSize> shards, long maxShardSize)
+    {
+        checkArgument(maxShardSize > 0, "maxShardSize must be positive");
+
+        ImmutableList.Builder<List<UUID>> groups = ImmutableList.builder();
+        List<UUID> group = new ArrayList<>();
+        long groupSize = 0;
+        for (ShardSize shard : Ordering.natural().sortedCopy(shards)) {
+            if (shard.getSize() >= maxShardSize) {
+                break;
+            }
+            if (groupSize + shard.getSize() > maxShardSize) {
+                if (group.size() > 1) {
+                    groups.add(ImmutableList.copyOf(group));
+                }
+                group.clear();
+                groupSize = 0;
+            }
+            group.add(shard.getShardUuid());
+            groupSize += shard.getSize();
+        }
+        if (group.size() > 1) {
+            groups.add(ImmutableList.copyOf(group));
+        }
+        return groups.build();
+    }
+
+    private static final class ShardGroup
+    {
+        private final long tableId;
+        private final long partitionId;
+        private final Integer bucketNumber;
+
+        private ShardGroup(long tableId, long partitionId, Integer bucketNumber)
+        {
+            this.tableId = tableId;
+            this.partitionId = partitionId;
+            this.bucketNumber = bucketNumber;
+        }
+
+        public long getTableId()
+        {
+            return tableId;
+        }
+
+        public long getPartitionId()
+        {
+            return partitionId;
+        }
+
+        public Integer getBucketNumber()
+        {
+            return bucketNumber;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hashCode(tableId, partitionId, bucketNumber);
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+            if ((obj == null) || (getClass() != obj.getClass())) {
+                return false;
+            }
+            ShardGroup other = (ShardGroup) obj;
+            return (tableId == other.tableId) &&
+                    (partitionId == other.partitionId) &&
+                    Objects.equal(bucketNumber, other.bucketNumber);
+        }
+    }
+
+    @VisibleForTesting
+    static class ShardSize
+            implements Comparable<ShardSize>
+    {
+        private final UUID shardUuid;
+        private final long size;
+
+        ShardSize(UUID shardUuid, long size)
+        {
+            this.shardUuid = checkNotNull(shardUuid, "shardUuid is null");
+            this.size = size;
+        }
+
+        public UUID getShardUuid()
+        {
+            return shardUuid;
+        }
+
+        public long getSize()
+        {
+            return size;
+        }
+
+        @Override
+        public int compareTo(ShardSize other)
+        {
+            return Long.compare(size, other.size);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.raptor.metadata;
+
+import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import io.airlift.units.MinDuration;
+
+import javax.validation.constraints.NotNull;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+
+public class ShardCompactorConfig
+{
+    private boolean enabled;
+    private Duration compactionInterval = new Duration(1, TimeUnit.HOURS);
+    private DataSize maxShardSize = new DataSize(256, MEGABYTE);
+    private Duration dropDelay = new Duration(10, TimeUnit.MINUTES);
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    @Config("shard-compactor.enabled")
+    @ConfigDescription("Merge small shards of a partition stored on this node")
+    public ShardCompactorConfig setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+        return this;
+    }
+
+    @MinDuration("1m")
+    @NotNull
+    public Duration getCompactionInterval()
+    {
+        return compactionInterval;
+    }
+
+    @Config("shard-compactor.interval")
+    public ShardCompactorConfig setCompactionInterval(Duration compactionInterval)
+    {
+        this.compactionInterval = compactionInterval;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxShardSize()
+    {
+        return maxShardSize;
+    }
+
+    @Config("shard-compactor.max-shard-size")
+    @ConfigDescription("Maximum size of the shards created by merging")
+    public ShardCompactorConfig setMaxShardSize(DataSize maxShardSize)
+    {
+        this.maxShardSize = maxShardSize;
+        return this;
+    }
+
+    @NotNull
+    public Duration getDropDelay()
+    {
+        return dropDelay;
+    }
+
+    @Config("shard-compactor.drop-delay")
+    @ConfigDescription("Time to keep merged shards for queries that are still reading them")
+    public ShardCompactorConfig setDropDelay(Duration dropDelay)
+    {
+        this.dropDelay = dropDelay;
+        return this;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.raptor.metadata;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+
+import javax.annotation.Nullable;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A shard written by a node, as reported to the coordinator when the shard is committed.
+ */
+public class ShardInfo
+{
+    private final UUID shardUuid;
+    private final String nodeIdentifier;
+    private final List<ColumnStats> columnStats;
+    private final Integer bucketNumber;
+
+    public ShardInfo(UUID shardUuid, String nodeIdentifier, List<ColumnStats> columnStats)
+    {
+        this(shardUuid, nodeIdentifier, columnStats, null);
+    }
+
+    @JsonCreator
+    public ShardInfo(
+            @JsonProperty("shardUuid") UUID shardUuid,
+            @JsonProperty("nodeIdentifier") String nodeIdentifier,
+            @JsonProperty("columnStats") List<ColumnStats> columnStats,
+            @JsonProperty("bucketNumber") @Nullable Integer bucketNumber)
+    {
+        this.shardUuid = checkNotNull(shardUuid, "shardUuid is null");
+        this.nodeIdentifier = checkNotNull(nodeIdentifier, "nodeIdentifier is null");
+        this.columnStats = ImmutableList.copyOf(checkNotNull(columnStats, "columnStats is null"));
+        this.bucketNumber = bucketNumber;
+    }
+
+    @JsonProperty
+    public UUID getShardUuid()
+    {
+        return shardUuid;
+    }
+
+    @JsonProperty
+    public String getNodeIdentifier()
+    {
+        return nodeIdentifier;
+    }
+
+    @JsonProperty
+    public List<ColumnStats> getColumnStats()
+    {
+        return columnStats;
+    }
+
+    @Nullable
+    @JsonProperty
+    public Integer getBucketNumber()
+    {
+        return bucketNumber;
+    }
+
+    @Override
+    public String toString()
+    {
+        return Objects.toStringHelper(this)
+                .add("shardUuid", shardUuid)
+                .add("nodeIdentifier", nodeIdentifier)
+                .add("columnStats", columnStats)
+                .add("bucketNumber", bucketNumber)
+                .toString();
+    }
+}
@@ -20,6 +20,7 @@ import com.google.common.collect.Multimap;
 
 import javax.annotation.Nullable;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -42,12 +43,18 @@ public interface ShardManager
     /**
      * Commit a partition for a table.
      */
-    void commitPartition(ConnectorTableHandle tableHandle, String partition, List<? extends PartitionKey> partitionKeys, Map<UUID, String> shards);
+    void commitPartition(ConnectorTableHandle tableHandle, String partition, List<? extends PartitionKey> partitionKeys, Collection<ShardInfo> shards);
 
     /**
      * Commit an unpartitioned table.
      */
-    void commitUnpartitionedTable(ConnectorTableHandle tableHandle, Map<UUID, String> shards);
+    void commitUnpartitionedTable(ConnectorTableHandle tableHandle, Collection<ShardInfo> shards);
+
+    /**
+     * Atomically replace shards of a partition with a shard containing their rows.
+     * Fails if any of the shards is no longer part of the partition.
+     */
+    void replaceShards(long tableId, long partitionId, Collection<UUID> oldShardUuids, ShardInfo newShard);
 
     /**
      * Get the names of all partitions that have been successfully imported.
@@ -68,6 +75,48 @@ public interface ShardManager
      */
     Multimap<Long, Entry<UUID, String>> getShardNodesByPartition(ConnectorTableHandle tableHandle);
 
+    /**
+     * Return the nodes storing each shard of a given table.
+     */
+    List<ShardNode> getShardNodes(ConnectorTableHandle tableHandle);
+
+    /**
+     * Return the shards stored on a node.
+     */
+    List<ShardNode> getNodeShards(String nodeIdentifier);
+
+    /**
+     * Return all nodes storing each of the shards stored on a node, including that node.
+     *
+     * @return shardUuid -> nodeIdentifier
+     */
+    Multimap<UUID, String> getReplicaNodes(String nodeIdentifier);
+
+    /**
+     * Record that a copy of a shard is stored on a node. Fails if the shard no longer exists.
+     */
+    void addShardNode(UUID shardUuid, String nodeIdentifier);
+
+    /**
+     * Return the nodes owning the buckets of tables with the given bucket count, indexed
+     * by bucket number, or an empty list if the buckets have not been assigned yet.
+     */
+    List<String> getBucketNodes(int bucketCount);
+
+    /**
+     * Assign the buckets of tables with the given bucket count to the nodes in round robin
+     * order, unless they have already been assigned, and return the bucket owners. All
+     * tables with the same bucket count share the same assignment.
+     */
+    List<String> assignBucketNodes(int bucketCount, List<String> nodeIdentifiers);
+
+    /**
+     * Return the statistics of a column for all shards of a given table.
+     *
+     * @return shardUuid -> column statistics
+     */
+    Map<UUID, ColumnStats> getShardColumnStats(ConnectorTableHandle tableHandle, long columnId);
+
     /**
      * Return list of nodes used by table shards.
      *
@@ -32,6 +32,8 @@ import static com.facebook.presto.raptor.util.UuidArguments.UuidArgumentFactory;
 @RegisterArgumentFactory(UuidArgumentFactory.class)
 public interface ShardManagerDao
 {
+    int MAX_VARCHAR_STATS_LENGTH = 100;
+
     @SqlUpdate("CREATE TABLE IF NOT EXISTS nodes (\n" +
             "  node_id BIGINT PRIMARY KEY AUTO_INCREMENT,\n" +
             "  node_identifier VARCHAR(255) NOT NULL,\n" +
@@ -46,6 +48,13 @@ public interface ShardManagerDao
             ")")
     void createTableShards();
 
+    @SqlUpdate("CREATE TABLE IF NOT EXISTS shard_buckets (\n" +
+            "  shard_id BIGINT PRIMARY KEY,\n" +
+            "  bucket_number INT NOT NULL,\n" +
+            "  FOREIGN KEY (shard_id) REFERENCES shards (shard_id)\n" +
+            ")")
+    void createTableShardBuckets();
+
     @SqlUpdate("CREATE TABLE IF NOT EXISTS shard_nodes (\n" +
             "  shard_id BIGINT NOT NULL,\n" +
             "  node_id BIGINT NOT NULL,\n" +
@@ -83,6 +92,30 @@ public interface ShardManagerDao
             ")")
     void createPartitionShards();
 
+    @SqlUpdate("CREATE TABLE IF NOT EXISTS shard_column_stats (\n" +
+            "  shard_id BIGINT NOT NULL,\n" +
+            "  column_id BIGINT NOT NULL,\n" +
+            "  null_count BIGINT NOT NULL,\n" +
+            "  min_long BIGINT,\n" +
+            "  max_long BIGINT,\n" +
+            "  min_double DOUBLE,\n" +
+            "  max_double DOUBLE,\n" +
+            "  min_varchar VARCHAR(" + MAX_VARCHAR_STATS_LENGTH + "),\n" +
+            "  max_varchar VARCHAR(" + MAX_VARCHAR_STATS_LENGTH + "),\n" +
+            "  PRIMARY KEY (shard_id, column_id),\n" +
+            "  FOREIGN KEY (shard_id) REFERENCES shards (shard_id)\n" +
+            ")")
+    void createShardColumnStats();
+
+    @SqlUpdate("CREATE TABLE IF NOT EXISTS buckets (\n" +
+            "  bucket_count INT NOT NULL,\n" +
+            "  bucket_number INT NOT NULL,\n" +
+            "  node_id BIGINT NOT NULL,\n" +
+            "  PRIMARY KEY (bucket_count, bucket_number),\n" +
+            "  FOREIGN KEY (node_id) REFERENCES nodes (node_id)\n" +
+            ")")
+    void createTableBuckets();
+
     @SqlUpdate("INSERT INTO nodes (node_identifier) VALUES (:nodeIdentifier)")
     void insertNode(@Bind("nodeIdentifier") String nodeIdentifier);
 
@@ -90,6 +123,12 @@ public interface ShardManagerDao
     @GetGeneratedKeys
     long insertShard(@Bind("shardUuid") UUID shardUuid);
 
+    @SqlUpdate("INSERT INTO shard_buckets (shard_id, bucket_number)\n" +
+            "VALUES (:shardId, :bucketNumber)\n")
+    void insertShardBucket(
+            @Bind("shardId") long shardId,
+            @Bind("bucketNumber") int bucketNumber);
+
     @SqlUpdate("INSERT INTO shard_nodes (shard_id, node_id)\n" +
             "VALUES (:shardId, :nodeId)\n")
     void insertShardNode(
@@ -120,6 +159,33 @@ public interface ShardManagerDao
             @Bind("tableId") long tableId,
             @Bind("partitionId") long partitionId);
 
+    @SqlUpdate("INSERT INTO shard_column_stats (shard_id, column_id, null_count, min_long, max_long, min_double, max_double, min_varchar, max_varchar)\n" +
+            "VALUES (:shardId, :columnId, :nullCount, :minLong, :maxLong, :minDouble, :maxDouble, :minVarchar, :maxVarchar)\n")
+    void insertShardColumnStats(
+            @Bind("shardId") long shardId,
+            @Bind("columnId") long columnId,
+            @Bind("nullCount") long nullCount,
+            @Nullable @Bind("minLong") Long minLong,
+            @Nullable @Bind("maxLong") Long maxLong,
+            @Nullable @Bind("minDouble") Double minDouble,
+            @Nullable @Bind("maxDouble") Double maxDouble,
+            @Nullable @Bind("minVarchar") String minVarchar,
+            @Nullable @Bind("maxVarchar") String maxVarchar);
+
+    @SqlUpdate("INSERT INTO buckets (bucket_count, bucket_number, node_id)\n" +
+            "VALUES (:bucketCount, :bucketNumber, :nodeId)\n")
+    void insertBucketNode(
+            @Bind("bucketCount") int bucketCount,
+            @Bind("bucketNumber") int bucketNumber,
+            @Bind("nodeId") long nodeId);
+
+    @SqlQuery("SELECT n.node_identifier\n" +
+            "FROM buckets b\n" +
+            "JOIN nodes n ON (b.node_id = n.node_id)\n" +
+            "WHERE b.bucket_count = :bucketCount\n" +
+            "ORDER BY b.bucket_number")
+    List<String> getBucketNodes(@Bind("bucketCount") int bucketCount);
+
     @SqlQuery("SELECT node_id FROM nodes WHERE node_identifier = :nodeIdentifier")
     Long getNodeId(@Bind("nodeIdentifier") String nodeIdentifier);
 
@@ -134,15 +200,64 @@ public interface ShardManagerDao
     @Mapper(TablePartition.Mapper.class)
     Set<TablePartition> getPartitions(@Bind("tableId") long tableId);
 
-    @SqlQuery("SELECT s.shard_uuid, n.node_identifier, ps.table_id, ps.partition_id\n" +
+    @SqlQuery("SELECT s.shard_uuid, sb.bucket_number, n.node_identifier, ps.table_id, ps.partition_id\n" +
             "FROM shard_nodes sn\n" +
             "JOIN shards s ON (sn.shard_id = s.shard_id)\n" +
             "JOIN nodes n ON (sn.node_id = n.node_id)\n" +
             "JOIN partition_shards ps ON (ps.shard_id = s.shard_id)\n" +
+            "LEFT JOIN shard_buckets sb ON (sb.shard_id = s.shard_id)\n" +
             "WHERE ps.table_id = :tableId")
     @Mapper(ShardNode.Mapper.class)
     List<ShardNode> getShardNodes(@Bind("tableId") long tableId);
 
+    @SqlQuery("SELECT s.shard_uuid, sb.bucket_number, n.node_identifier, ps.table_id, ps.partition_id\n" +
+            "FROM shard_nodes sn\n" +
+            "JOIN shards s ON (sn.shard_id = s.shard_id)\n" +
+            "JOIN nodes n ON (sn.node_id = n.node_id)\n" +
+            "JOIN partition_shards ps ON (ps.shard_id = s.shard_id)\n" +
+            "LEFT JOIN shard_buckets sb ON (sb.shard_id = s.shard_id)\n" +
+            "WHERE n.node_identifier = :nodeIdentifier")
+    @Mapper(ShardNode.Mapper.class)
+    List<ShardNode> getNodeShards(@Bind("nodeIdentifier") String nodeIdentifier);
+
+    @SqlQuery("SELECT s.shard_uuid, sb.bucket_number, n.node_identifier, ps.table_id, ps.partition_id\n" +
+            "FROM shard_nodes sn\n" +
+            "JOIN shards s ON (sn.shard_id = s.shard_id)\n" +
+            "JOIN nodes n ON (sn.node_id = n.node_id)\n" +
+            "JOIN partition_shards ps ON (ps.shard_id = s.shard_id)\n" +
+            "LEFT JOIN shard_buckets sb ON (sb.shard_id = s.shard_id)\n" +
+            "WHERE sn.shard_id IN (\n" +
+            "  SELECT sn2.shard_id\n" +
+            "  FROM shard_nodes sn2\n" +
+            "  JOIN nodes n2 ON (sn2.node_id = n2.node_id)\n" +
+            "  WHERE n2.node_identifier = :nodeIdentifier)")
+    @Mapper(ShardNode.Mapper.class)
+    List<ShardNode> getReplicaShardNodes(@Bind("nodeIdentifier") String nodeIdentifier);
+
+    @SqlQuery("SELECT COUNT(*) > 0\n" +
+            "FROM shard_nodes\n" +
+            "WHERE shard_id = :shardId\n" +
+            "  AND node_id = :nodeId")
+    boolean shardNodeExists(@Bind("shardId") long shardId, @Bind("nodeId") long nodeId);
+
+    @SqlQuery("SELECT shard_id FROM shards WHERE shard_uuid = :shardUuid")
+    Long getShardId(@Bind("shardUuid") UUID shardUuid);
+
+    @SqlQuery("SELECT COUNT(*) > 0\n" +
+            "FROM partition_shards\n" +
+            "WHERE shard_id = :shardId\n" +
+            "  AND partition_id = :partitionId")
+    boolean partitionShardExists(@Bind("shardId") long shardId, @Bind("partitionId") long partitionId);
+
+    @SqlQuery("SELECT s.shard_uuid, cs.*\n" +
+            "FROM shard_column_stats cs\n" +
+            "JOIN shards s ON (cs.shard_id = s.shard_id)\n" +
+            "JOIN partition_shards ps ON (ps.shard_id = s.shard_id)\n" +
+            "WHERE ps.table_id = :tableId\n" +
+            "  AND cs.column_id = :columnId")
+    @Mapper(ShardColumnStats.Mapper.class)
+    List<ShardColumnStats> getShardColumnStats(@Bind("tableId") long tableId, @Bind("columnId") long columnId);
+
     @SqlQuery("SELECT DISTINCT n.node_identifier\n" +
             "FROM shard_nodes sn\n" +
             "JOIN shards s ON (sn.shard_id = s.shard_id)\n" +
@@ -165,6 +280,14 @@ public interface ShardManagerDao
             "WHERE shard_id = :shardId\n")
     void deleteShardFromPartitionShards(@Bind("shardId") long shardId);
 
+    @SqlUpdate("DELETE FROM shard_column_stats\n" +
+            "WHERE shard_id = :shardId\n")
+    void deleteShardColumnStats(@Bind("shardId") long shardId);
+
+    @SqlUpdate("DELETE FROM shard_buckets\n" +
+            "WHERE shard_id = :shardId\n")
+    void deleteShardBucket(@Bind("shardId") long shardId);
+
     @SqlUpdate("DELETE FROM shards\n" +
             "  WHERE shard_id = :shardId\n")
     void deleteShard(@Bind("shardId") long shardId);
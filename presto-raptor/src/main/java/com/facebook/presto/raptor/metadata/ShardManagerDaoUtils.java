@@ -45,9 +45,12 @@ public final class ShardManagerDaoUtils
     {
         dao.createTableNodes();
         dao.createTableShards();
+        dao.createTableShardBuckets();
         dao.createTableShardNodes();
         dao.createTablePartitions();
         dao.createPartitionKeys();
         dao.createPartitionShards();
+        dao.createShardColumnStats();
+        dao.createTableBuckets();
     }
 }
@@ -17,6 +17,8 @@ import com.google.common.base.Objects;
 import org.skife.jdbi.v2.StatementContext;
 import org.skife.jdbi.v2.tweak.ResultSetMapper;
 
+import javax.annotation.Nullable;
+
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.UUID;
@@ -30,13 +32,20 @@ public class ShardNode
     private final String nodeIdentifier;
     private final long tableId;
     private final long partitionId;
+    private final Integer bucketNumber;
 
     public ShardNode(UUID shardUuid, String nodeIdentifier, long tableId, long partitionId)
+    {
+        this(shardUuid, nodeIdentifier, tableId, partitionId, null);
+    }
+
+    public ShardNode(UUID shardUuid, String nodeIdentifier, long tableId, long partitionId, @Nullable Integer bucketNumber)
     {
         this.shardUuid = checkNotNull(shardUuid, "shardUuid is null");
         this.nodeIdentifier = checkNotNull(nodeIdentifier, "nodeIdentifier is null");
         this.tableId = tableId;
         this.partitionId = partitionId;
+        this.bucketNumber = bucketNumber;
     }
 
     public UUID getShardUuid()
@@ -59,6 +68,15 @@ public class ShardNode
         return partitionId;
     }
 
+    /**
+     * @return the bucket of the shard, or null if the table is not bucketed
+     */
+    @Nullable
+    public Integer getBucketNumber()
+    {
+        return bucketNumber;
+    }
+
     @Override
     public String toString()
     {
@@ -67,6 +85,7 @@ public class ShardNode
                 .add("nodeIdentifier", nodeIdentifier)
                 .add("tableId", tableId)
                 .add("partitionId", partitionId)
+                .add("bucketNumber", bucketNumber)
                 .toString();
     }
 
@@ -77,11 +96,16 @@ public class ShardNode
         public ShardNode map(int index, ResultSet r, StatementContext ctx)
                 throws SQLException
         {
+            Integer bucketNumber = r.getInt("bucket_number");
+            if (r.wasNull()) {
+                bucketNumber = null;
+            }
             return new ShardNode(
                     uuidFromBytes(r.getBytes("shard_uuid")),
                     r.getString("node_identifier"),
                     r.getLong("table_id"),
-                    r.getLong("partition_id"));
+                    r.getLong("partition_id"),
+                    bucketNumber);
         }
     }
 }
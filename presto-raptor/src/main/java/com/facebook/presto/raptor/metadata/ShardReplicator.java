@@ -0,0 +1,183 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.raptor.metadata;
+
+import com.facebook.presto.raptor.RaptorConnectorId;
+import com.facebook.presto.raptor.storage.LocalStorageManager;
+import com.facebook.presto.raptor.storage.ShardTransferClient;
+import com.facebook.presto.raptor.util.CurrentNodeId;
+import com.facebook.presto.spi.Node;
+import com.facebook.presto.spi.NodeManager;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Ordering;
+import io.airlift.log.Logger;
+import io.airlift.units.Duration;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.facebook.presto.metadata.PrestoNode.getIdentifierFunction;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.Maps.uniqueIndex;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+
+/**
+ * Periodically copies the shards stored on this node to other nodes until each shard
+ * is stored on as many active nodes as the replication factor.
+ * <p/>
+ * A shard is copied by only one of the active nodes that store it, the one with the
+ * lowest node identifier, so that nodes do not race to replicate the same shard. When a
+ * node fails, the surviving nodes that store its shards restore the replication factor.
+ */
+public class ShardReplicator
+{
+    private static final Logger log = Logger.get(ShardReplicator.class);
+
+    private final String connectorId;
+    private final String nodeIdentifier;
+    private final NodeManager nodeManager;
+    private final ShardManager shardManager;
+    private final LocalStorageManager storageManager;
+    private final ShardTransferClient transferClient;
+
+    private final int replicationFactor;
+    private final Duration interval;
+
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final ScheduledExecutorService executor = newSingleThreadScheduledExecutor(daemonThreadsNamed("shard-replicator"));
+
+    @Inject
+    public ShardReplicator(
+            RaptorConnectorId connectorId,
+            CurrentNodeId currentNodeId,
+            NodeManager nodeManager,
+            ShardManager shardManager,
+            LocalStorageManager storageManager,
+            ShardTransferClient transferClient,
+            ShardReplicatorConfig config)
+    {
+        this.connectorId = checkNotNull(connectorId, "connectorId is null").toString();
+        this.nodeIdentifier = checkNotNull(currentNodeId, "currentNodeId is null").toString();
+        this.nodeManager = checkNotNull(nodeManager, "nodeManager is null");
+        this.shardManager = checkNotNull(shardManager, "shardManager is null");
+        this.storageManager = checkNotNull(storageManager, "storageManager is null");
+        this.transferClient = checkNotNull(transferClient, "transferClient is null");
+
+        checkNotNull(config, "config is null");
+        this.replicationFactor = config.getReplicationFactor();
+        this.interval = config.getReplicationInterval();
+    }
+
+    @PostConstruct
+    public void start()
+    {
+        if ((replicationFactor > 1) && started.compareAndSet(false, true)) {
+            executor.scheduleWithFixedDelay(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try {
+                        replicate();
+                    }
+                    catch (Throwable e) {
+                        log.error(e, "Error replicating shards");
+                    }
+                }
+            }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        executor.shutdownNow();
+    }
+
+    @VisibleForTesting
+    void replicate()
+    {
+        Map<String, Node> activeNodes = uniqueIndex(nodeManager.getActiveDatasourceNodes(connectorId), getIdentifierFunction());
+
+        for (Map.Entry<UUID, Collection<String>> entry : shardManager.getReplicaNodes(nodeIdentifier).asMap().entrySet()) {
+            UUID shardUuid = entry.getKey();
+            Collection<String> shardNodes = entry.getValue();
+
+            Set<String> activeShardNodes = new HashSet<>();
+            activeShardNodes.add(nodeIdentifier);
+            for (String shardNode : shardNodes) {
+                if (activeNodes.containsKey(shardNode)) {
+                    activeShardNodes.add(shardNode);
+                }
+            }
+
+            if ((activeShardNodes.size() >= replicationFactor) || !Ordering.natural().min(activeShardNodes).equals(nodeIdentifier)) {
+                continue;
+            }
+            if (!storageManager.shardExists(shardUuid)) {
+                continue;
+            }
+
+            List<Node> targets = new ArrayList<>();
+            for (Node node : activeNodes.values()) {
+                if (!shardNodes.contains(node.getNodeIdentifier())) {
+                    targets.add(node);
+                }
+            }
+            Collections.shuffle(targets);
+
+            int copies = replicationFactor - activeShardNodes.size();
+            for (Node target : targets) {
+                if (copies == 0) {
+                    break;
+                }
+                try {
+                    copyShard(shardUuid, target);
+                    copies--;
+                }
+                catch (RuntimeException e) {
+                    log.warn(e, "Failed to copy shard %s to node %s", shardUuid, target.getNodeIdentifier());
+                }
+            }
+        }
+    }
+
+    private void copyShard(UUID shardUuid, Node target)
+    {
+        transferClient.copyShard(shardUuid, target);
+        try {
+            shardManager.addShardNode(shardUuid, target.getNodeIdentifier());
+        }
+        catch (RuntimeException e) {
+            // the shard was dropped or replaced while it was copied
+            transferClient.dropShard(shardUuid, target);
+            throw e;
+        }
+        log.info("Copied shard %s to node %s", shardUuid, target.getNodeIdentifier());
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.raptor.metadata;
+
+import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
+import io.airlift.units.Duration;
+import io.airlift.units.MinDuration;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import java.util.concurrent.TimeUnit;
+
+public class ShardReplicatorConfig
+{
+    private int replicationFactor = 1;
+    private Duration replicationInterval = new Duration(5, TimeUnit.MINUTES);
+
+    @Min(1)
+    public int getReplicationFactor()
+    {
+        return replicationFactor;
+    }
+
+    @Config("shard-replicator.replication-factor")
+    @ConfigDescription("Number of nodes that store a copy of each shard")
+    public ShardReplicatorConfig setReplicationFactor(int replicationFactor)
+    {
+        this.replicationFactor = replicationFactor;
+        return this;
+    }
+
+    @MinDuration("1s")
+    @NotNull
+    public Duration getReplicationInterval()
+    {
+        return replicationInterval;
+    }
+
+    @Config("shard-replicator.interval")
+    public ShardReplicatorConfig setReplicationInterval(Duration replicationInterval)
+    {
+        this.replicationInterval = replicationInterval;
+        return this;
+    }
+}
@@ -17,16 +17,20 @@ import com.google.common.base.Objects;
 import org.skife.jdbi.v2.StatementContext;
 import org.skife.jdbi.v2.tweak.ResultSetMapper;
 
+import javax.annotation.Nullable;
+
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
 public final class Table
 {
     private final long tableId;
+    private final Integer bucketCount;
 
-    public Table(long tableId)
+    public Table(long tableId, @Nullable Integer bucketCount)
     {
         this.tableId = tableId;
+        this.bucketCount = bucketCount;
     }
 
     public long getTableId()
@@ -34,10 +38,19 @@ public final class Table
         return tableId;
     }
 
+    /**
+     * @return the number of buckets of the table, or null if the table is not bucketed
+     */
+    @Nullable
+    public Integer getBucketCount()
+    {
+        return bucketCount;
+    }
+
     @Override
     public int hashCode()
     {
-        return Objects.hashCode(tableId);
+        return Objects.hashCode(tableId, bucketCount);
     }
 
     @Override
@@ -50,7 +63,8 @@ public final class Table
             return false;
         }
         Table o = (Table) obj;
-        return tableId == o.tableId;
+        return (tableId == o.tableId) &&
+                Objects.equal(bucketCount, o.bucketCount);
     }
 
     @Override
@@ -58,6 +72,7 @@ public final class Table
     {
         return Objects.toStringHelper(this)
                 .add("tableId", tableId)
+                .add("bucketCount", bucketCount)
                 .toString();
     }
 
@@ -67,7 +82,11 @@ public final class Table
         public Table map(int index, ResultSet r, StatementContext ctx)
                 throws SQLException
         {
-            return new Table(r.getLong("table_id"));
+            Integer bucketCount = r.getInt("bucket_count");
+            if (r.wasNull()) {
+                bucketCount = null;
+            }
+            return new Table(r.getLong("table_id"), bucketCount);
         }
     }
 }
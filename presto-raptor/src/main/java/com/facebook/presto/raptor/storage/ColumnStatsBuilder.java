@@ -0,0 +1,100 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.raptor.storage;
+
+import com.facebook.presto.raptor.metadata.ColumnStats;
+import com.facebook.presto.spi.block.Block;
+import io.airlift.slice.Slice;
+
+import static com.facebook.presto.raptor.metadata.ShardManagerDao.MAX_VARCHAR_STATS_LENGTH;
+
+/**
+ * Computes the null count and the range of the values of a column. The range is
+ * only recorded for BIGINT, DOUBLE and VARCHAR based types. It is unknown if a
+ * DOUBLE column contains NaN or if a VARCHAR bound is too long to be stored.
+ */
+class ColumnStatsBuilder
+{
+    private final long columnId;
+
+    private long nullCount;
+    private boolean rangeValid = true;
+
+    private long minLong = Long.MAX_VALUE;
+    private long maxLong = Long.MIN_VALUE;
+    private double minDouble = Double.POSITIVE_INFINITY;
+    private double maxDouble = Double.NEGATIVE_INFINITY;
+    private Slice minSlice;
+    private Slice maxSlice;
+    private boolean hasValues;
+
+    public ColumnStatsBuilder(long columnId)
+    {
+        this.columnId = columnId;
+    }
+
+    public void process(Block block)
+    {
+        Class<?> javaType = block.getType().getJavaType();
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (block.isNull(position)) {
+                nullCount++;
+                continue;
+            }
+            hasValues = true;
+
+            if (javaType == long.class) {
+                long value = block.getLong(position);
+                minLong = Math.min(minLong, value);
+                maxLong = Math.max(maxLong, value);
+            }
+            else if (javaType == double.class) {
+                double value = block.getDouble(position);
+                if (Double.isNaN(value)) {
+                    rangeValid = false;
+                }
+                minDouble = Math.min(minDouble, value);
+                maxDouble = Math.max(maxDouble, value);
+            }
+            else if (javaType == Slice.class) {
+                if (minSlice == null || block.compareTo(position, minSlice, 0, minSlice.length()) < 0) {
+                    minSlice = block.getSlice(position);
+                }
+                if (maxSlice == null || block.compareTo(position, maxSlice, 0, maxSlice.length()) > 0) {
+                    maxSlice = block.getSlice(position);
+                }
+            }
+            else {
+                rangeValid = false;
+            }
+        }
+    }
+
+    public ColumnStats build()
+    {
+        if (!hasValues || !rangeValid) {
+            return new ColumnStats(columnId, nullCount, null, null);
+        }
+        if (minSlice != null) {
+            if (minSlice.length() > MAX_VARCHAR_STATS_LENGTH || maxSlice.length() > MAX_VARCHAR_STATS_LENGTH) {
+                return new ColumnStats(columnId, nullCount, null, null);
+            }
+            return new ColumnStats(columnId, nullCount, minSlice.toStringUtf8(), maxSlice.toStringUtf8());
+        }
+        if (minLong <= maxLong) {
+            return new ColumnStats(columnId, nullCount, minLong, maxLong);
+        }
+        return new ColumnStats(columnId, nullCount, minDouble, maxDouble);
+    }
+}
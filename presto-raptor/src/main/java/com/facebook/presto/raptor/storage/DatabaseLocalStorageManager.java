@@ -21,6 +21,7 @@ import com.facebook.presto.operator.OperatorContext;
 import com.facebook.presto.operator.Page;
 import com.facebook.presto.operator.TaskContext;
 import com.facebook.presto.raptor.RaptorColumnHandle;
+import com.facebook.presto.raptor.metadata.ColumnStats;
 import com.facebook.presto.serde.BlocksFileEncoding;
 import com.facebook.presto.serde.BlocksFileReader;
 import com.facebook.presto.serde.BlocksFileStats;
@@ -28,20 +29,19 @@ import com.facebook.presto.spi.ConnectorColumnHandle;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
+import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.util.KeyBoundedExecutor;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
+import com.google.common.io.ByteStreams;
 import com.google.common.io.Files;
 import com.google.inject.Inject;
 import io.airlift.concurrent.ThreadPoolExecutorMBean;
 import io.airlift.log.Logger;
 import io.airlift.slice.Slice;
-import io.airlift.slice.Slices;
 import org.skife.jdbi.v2.Handle;
 import org.skife.jdbi.v2.IDBI;
 import org.skife.jdbi.v2.TransactionStatus;
@@ -51,8 +51,14 @@ import org.weakref.jmx.Nested;
 
 import javax.annotation.PreDestroy;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -73,8 +79,6 @@ import static java.util.concurrent.Executors.newFixedThreadPool;
 public class DatabaseLocalStorageManager
         implements LocalStorageManager
 {
-    private static final boolean ENABLE_OPTIMIZATION = false;
-
     private static final int RUN_LENGTH_AVERAGE_CUTOFF = 3;
     private static final int DICTIONARY_CARDINALITY_CUTOFF = 1000;
 
@@ -90,21 +94,9 @@ public class DatabaseLocalStorageManager
     private final File baseStagingDir;
     private final StorageManagerDao dao;
 
-    private final LoadingCache<File, Slice> mappedFileCache = CacheBuilder.newBuilder().build(new CacheLoader<File, Slice>()
-    {
-        @Override
-        public Slice load(File file)
-                throws Exception
-        {
-            checkArgument(file.isAbsolute(), "file is not absolute: %s", file);
-            checkArgument(file.canRead(), "file is not readable: %s", file);
-            if (file.length() == 0) {
-                return Slices.EMPTY_SLICE;
-            }
-            return Slices.mapFileReadOnly(file);
-        }
-    });
+    private final MappedFileCache mappedFileCache;
     private final BlocksFileEncoding defaultEncoding;
+    private final boolean optimizeEncodings;
 
     @Inject
     public DatabaseLocalStorageManager(@ForLocalStorageManager IDBI dbi, BlockEncodingSerde blockEncodingSerde, DatabaseLocalStorageManagerConfig config)
@@ -131,6 +123,8 @@ public class DatabaseLocalStorageManager
         else {
             defaultEncoding = BlocksFileEncoding.RAW;
         }
+        this.optimizeEncodings = config.isOptimizeEncodings();
+        this.mappedFileCache = new MappedFileCache(config.getMappedFileCacheMaxSize(), config.getMappedFileCacheMaxFiles(), config.isMappedFilePreload());
     }
 
     @PreDestroy
@@ -146,6 +140,13 @@ public class DatabaseLocalStorageManager
         return executorMBean;
     }
 
+    @Managed
+    @Nested
+    public MappedFileCache getMappedFileCache()
+    {
+        return mappedFileCache;
+    }
+
     @Override
     public ColumnFileHandle createStagingFileHandles(UUID shardUuid, List<? extends ConnectorColumnHandle> columnHandles)
             throws IOException
@@ -164,7 +165,7 @@ public class DatabaseLocalStorageManager
     }
 
     @Override
-    public void commit(ColumnFileHandle columnFileHandle)
+    public List<ColumnStats> commit(ColumnFileHandle columnFileHandle)
             throws IOException
     {
         checkNotNull(columnFileHandle, "columnFileHandle is null");
@@ -179,6 +180,28 @@ public class DatabaseLocalStorageManager
 
         // Delete empty staging directory
         deleteStagingDirectory(columnFileHandle);
+
+        return computeColumnStats(finalColumnFileHandle);
+    }
+
+    private List<ColumnStats> computeColumnStats(ColumnFileHandle columnFileHandle)
+    {
+        ImmutableList.Builder<ColumnStats> stats = ImmutableList.builder();
+        for (Map.Entry<ConnectorColumnHandle, File> entry : columnFileHandle.getFiles().entrySet()) {
+            File file = entry.getValue();
+            if (!file.exists() || file.length() == 0) {
+                continue;
+            }
+
+            long columnId = checkType(entry.getKey(), RaptorColumnHandle.class, "columnHandle").getColumnId();
+            ColumnStatsBuilder builder = new ColumnStatsBuilder(columnId);
+            Slice slice = mappedFileCache.get(file.getAbsoluteFile());
+            for (Block block : BlocksFileReader.readBlocks(blockEncodingSerde, slice)) {
+                builder.process(block);
+            }
+            stats.add(builder.build());
+        }
+        return stats.build();
     }
 
     private ColumnFileHandle optimizeEncodings(ColumnFileHandle columnFileHandle)
@@ -195,26 +218,14 @@ public class DatabaseLocalStorageManager
             ConnectorColumnHandle columnHandle = entry.getKey();
 
             if (file.length() > 0) {
-                Slice slice = mappedFileCache.getUnchecked(file.getAbsoluteFile());
+                Slice slice = mappedFileCache.get(file.getAbsoluteFile());
                 checkState(file.length() == slice.length(), "File %s, length %s was mapped to Slice length %s", file.getAbsolutePath(), file.length(), slice.length());
                 // Compute optimal encoding from stats
                 BlocksFileReader blocks = BlocksFileReader.readBlocks(blockEncodingSerde, slice);
-                BlocksFileStats stats = blocks.getStats();
-                boolean rleEncode = stats.getAvgRunLength() > RUN_LENGTH_AVERAGE_CUTOFF;
-                boolean dicEncode = stats.getUniqueCount() < DICTIONARY_CARDINALITY_CUTOFF;
 
                 BlocksFileEncoding encoding = defaultEncoding;
-
-                if (ENABLE_OPTIMIZATION) {
-                    if (dicEncode && rleEncode) {
-                        encoding = BlocksFileEncoding.DIC_RLE;
-                    }
-                    else if (dicEncode) {
-                        encoding = BlocksFileEncoding.DIC_RAW;
-                    }
-                    else if (rleEncode) {
-                        encoding = BlocksFileEncoding.RLE;
-                    }
+                if (optimizeEncodings) {
+                    encoding = selectEncoding(blocks.getType(), blocks.getStats(), defaultEncoding);
                 }
 
                 File outputFile = getColumnFile(shardPath, columnHandle, encoding);
@@ -245,14 +256,7 @@ public class DatabaseLocalStorageManager
         ColumnFileHandle targetFileHandle = builder.build();
 
         if (!sources.isEmpty()) {
-            // Throw out any stats generated by the optimization step
-            ConnectorSession session = new ConnectorSession("user", "source", "catalog", "schema", UTC_KEY, Locale.ENGLISH, "address", "agent");
-            OperatorContext operatorContext = new TaskContext(new TaskId("query", "stage", "task"), executor, session)
-                    .addPipelineContext(true, true)
-                    .addDriverContext()
-                    .addOperatorContext(0, "OptimizeEncodings");
-
-            AlignmentOperator source = new AlignmentOperator(operatorContext, sources);
+            AlignmentOperator source = new AlignmentOperator(createOperatorContext("OptimizeEncodings"), sources);
             importData(source, targetFileHandle);
         }
 
@@ -261,10 +265,170 @@ public class DatabaseLocalStorageManager
         return targetFileHandle;
     }
 
-    @SuppressWarnings("ResultOfMethodCallIgnored")
+    /**
+     * Select the encoding of a column from the statistics of its values. Dictionary
+     * encoding is used for columns with few unique values, run length encoding for
+     * columns with long runs of equal values, and bit packing for other long columns.
+     */
+    @VisibleForTesting
+    static BlocksFileEncoding selectEncoding(Type type, BlocksFileStats stats, BlocksFileEncoding defaultEncoding)
+    {
+        boolean rleEncode = stats.getAvgRunLength() > RUN_LENGTH_AVERAGE_CUTOFF;
+        boolean dicEncode = stats.getUniqueCount() < DICTIONARY_CARDINALITY_CUTOFF;
+
+        if (dicEncode && rleEncode) {
+            return BlocksFileEncoding.DIC_RLE;
+        }
+        if (dicEncode) {
+            return BlocksFileEncoding.DIC_PACKED;
+        }
+        if (rleEncode) {
+            return BlocksFileEncoding.RLE;
+        }
+        if (BlocksFileEncoding.PACKED.supports(type)) {
+            return BlocksFileEncoding.PACKED;
+        }
+        return defaultEncoding;
+    }
+
+    @Override
+    public List<ColumnStats> mergeShards(UUID shardUuid, List<UUID> sourceShardUuids, List<? extends ConnectorColumnHandle> columnHandles)
+            throws IOException
+    {
+        checkNotNull(shardUuid, "shardUuid is null");
+        checkNotNull(sourceShardUuids, "sourceShardUuids is null");
+        checkNotNull(columnHandles, "columnHandles is null");
+
+        ColumnFileHandle fileHandle = createStagingFileHandles(shardUuid, columnHandles);
+        for (UUID sourceShardUuid : sourceShardUuids) {
+            ImmutableList.Builder<BlockIterable> sources = ImmutableList.builder();
+            for (ConnectorColumnHandle columnHandle : columnHandles) {
+                sources.add(getBlocks(sourceShardUuid, columnHandle));
+            }
+            importData(new AlignmentOperator(createOperatorContext("MergeShards"), sources.build()), fileHandle);
+        }
+        return commit(fileHandle);
+    }
+
+    @Override
+    public void writeShard(UUID shardUuid, OutputStream output)
+            throws IOException
+    {
+        checkState(shardExists(shardUuid), "shard %s does not exist in local database", shardUuid);
+        File shardPath = getShardPath(baseStorageDir, shardUuid);
+
+        // column count, followed by the id, file name, file length and contents of each column
+        DataOutputStream out = new DataOutputStream(output);
+        List<Long> columnIds = dao.getShardColumnIds(shardUuid);
+        out.writeInt(columnIds.size());
+        for (long columnId : columnIds) {
+            String filename = dao.getColumnFilename(shardUuid, columnId);
+            File file = new File(shardPath, filename);
+            out.writeLong(columnId);
+            out.writeUTF(filename);
+
+            // columns without rows are registered without a file
+            if (!file.exists()) {
+                out.writeLong(-1);
+                continue;
+            }
+            out.writeLong(file.length());
+            Files.copy(file, out);
+        }
+        out.flush();
+    }
+
+    @Override
+    public void importShard(UUID shardUuid, InputStream input)
+            throws IOException
+    {
+        checkNotNull(shardUuid, "shardUuid is null");
+        checkNotNull(input, "input is null");
+
+        // the files are staged first, so a partially received shard is never visible
+        File stagingPath = getShardPath(baseStagingDir, shardUuid);
+        ImmutableMap.Builder<Long, String> columnFiles = ImmutableMap.builder();
+        ImmutableList.Builder<File> stagedFiles = ImmutableList.builder();
+
+        try {
+            DataInputStream in = new DataInputStream(input);
+            int columnCount = in.readInt();
+            for (int i = 0; i < columnCount; i++) {
+                long columnId = in.readLong();
+                String filename = in.readUTF();
+                checkArgument(new File(filename).getName().equals(filename), "invalid column file name: %s", filename);
+                columnFiles.put(columnId, filename);
+
+                long length = in.readLong();
+                if (length < 0) {
+                    continue;
+                }
+                File file = new File(stagingPath, filename);
+                stagedFiles.add(file);
+                Files.createParentDirs(file);
+                try (OutputStream out = new FileOutputStream(file)) {
+                    long copied = ByteStreams.copy(ByteStreams.limit(in, length), out);
+                    if (copied != length) {
+                        throw new EOFException(format("column file %s of shard %s is truncated", filename, shardUuid));
+                    }
+                }
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            deleteStagedFiles(shardUuid, stagedFiles.build());
+            throw e;
+        }
+
+        if (shardExists(shardUuid)) {
+            deleteStagedFiles(shardUuid, stagedFiles.build());
+            return;
+        }
+
+        File shardPath = getShardPath(baseStorageDir, shardUuid);
+        for (File file : stagedFiles.build()) {
+            File outputFile = new File(shardPath, file.getName());
+            Files.createParentDirs(outputFile);
+            Files.move(file, outputFile);
+        }
+        deleteStagingDirectory(shardUuid);
+
+        commitShardColumns(shardUuid, columnFiles.build());
+    }
+
+    private OperatorContext createOperatorContext(String operatorType)
+    {
+        // Throw out any stats generated by the operator
+        ConnectorSession session = new ConnectorSession("user", "source", "catalog", "schema", UTC_KEY, Locale.ENGLISH, "address", "agent");
+        return new TaskContext(new TaskId("query", "stage", "task"), executor, session)
+                .addPipelineContext(true, true)
+                .addDriverContext()
+                .addOperatorContext(0, operatorType);
+    }
+
     private void deleteStagingDirectory(ColumnFileHandle columnFileHandle)
     {
-        File path = getShardPath(baseStagingDir, columnFileHandle.getShardUuid());
+        // the staged files have been moved or rewritten
+        for (File file : columnFileHandle.getFiles().values()) {
+            mappedFileCache.invalidate(file.getAbsoluteFile());
+        }
+
+        deleteStagingDirectory(columnFileHandle.getShardUuid());
+    }
+
+    private void deleteStagedFiles(UUID shardUuid, List<File> stagedFiles)
+    {
+        for (File file : stagedFiles) {
+            if (!file.delete() && file.exists()) {
+                log.warn("failed to delete file: %s", file.getAbsolutePath());
+            }
+        }
+        deleteStagingDirectory(shardUuid);
+    }
+
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    private void deleteStagingDirectory(UUID shardUuid)
+    {
+        File path = getShardPath(baseStagingDir, shardUuid);
 
         while (path.delete() && !path.getParentFile().equals(baseStagingDir)) {
             path = path.getParentFile();
@@ -316,7 +480,17 @@ public class DatabaseLocalStorageManager
         return new File(shardPath, format("%s.%s.column", columnId, encoding.getName()));
     }
 
-    private void commitShardColumns(final ColumnFileHandle columnFileHandle)
+    private void commitShardColumns(ColumnFileHandle columnFileHandle)
+    {
+        ImmutableMap.Builder<Long, String> columnFiles = ImmutableMap.builder();
+        for (Map.Entry<ConnectorColumnHandle, File> entry : columnFileHandle.getFiles().entrySet()) {
+            long columnId = checkType(entry.getKey(), RaptorColumnHandle.class, "columnHandle").getColumnId();
+            columnFiles.put(columnId, entry.getValue().getName());
+        }
+        commitShardColumns(columnFileHandle.getShardUuid(), columnFiles.build());
+    }
+
+    private void commitShardColumns(final UUID shardUuid, final Map<Long, String> columnFiles)
     {
         dbi.inTransaction(new VoidTransactionCallback()
         {
@@ -325,14 +499,8 @@ public class DatabaseLocalStorageManager
                     throws Exception
             {
                 StorageManagerDao dao = handle.attach(StorageManagerDao.class);
-
-                for (Map.Entry<ConnectorColumnHandle, File> entry : columnFileHandle.getFiles().entrySet()) {
-                    ConnectorColumnHandle columnHandle = entry.getKey();
-                    File file = entry.getValue();
-
-                    long columnId = checkType(columnHandle, RaptorColumnHandle.class, "columnHandle").getColumnId();
-                    String filename = file.getName();
-                    dao.insertColumn(columnFileHandle.getShardUuid(), columnId, filename);
+                for (Map.Entry<Long, String> entry : columnFiles.entrySet()) {
+                    dao.insertColumn(shardUuid, entry.getKey(), entry.getValue());
                 }
             }
         });
@@ -364,7 +532,7 @@ public class DatabaseLocalStorageManager
             @Override
             public Iterable<? extends Block> apply(File file)
             {
-                Slice slice = mappedFileCache.getUnchecked(file.getAbsoluteFile());
+                Slice slice = mappedFileCache.get(file.getAbsoluteFile());
                 return BlocksFileReader.readBlocks(blockEncodingSerde, slice);
             }
         }));
@@ -378,6 +546,16 @@ public class DatabaseLocalStorageManager
         return dao.shardExists(shardUuid);
     }
 
+    @Override
+    public long getShardSizeInBytes(UUID shardUuid)
+    {
+        long size = 0;
+        for (String shardFile : dao.getShardFiles(shardUuid)) {
+            size += new File(getShardPath(baseStorageDir, shardUuid), shardFile).length();
+        }
+        return size;
+    }
+
     @Override
     public void dropShard(UUID shardUuid)
     {
@@ -414,6 +592,7 @@ public class DatabaseLocalStorageManager
             List<String> shardFiles = dao.getShardFiles(shardUuid);
             for (String shardFile : shardFiles) {
                 File file = new File(getShardPath(baseStorageDir, shardUuid), shardFile);
+                mappedFileCache.invalidate(file.getAbsoluteFile());
                 if (!file.delete()) {
                     log.warn("failed to delete file: %s", file.getAbsolutePath());
                 }
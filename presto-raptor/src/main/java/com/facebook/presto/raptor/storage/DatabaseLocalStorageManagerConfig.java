@@ -15,17 +15,24 @@ package com.facebook.presto.raptor.storage;
 
 import io.airlift.configuration.Config;
 import io.airlift.configuration.ConfigDescription;
+import io.airlift.units.DataSize;
 
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 import java.io.File;
 
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+
 public class DatabaseLocalStorageManagerConfig
 {
     private File dataDirectory = new File("var/data");
     private int tasksPerNode = 32;
     private boolean compressed = true;
+    private boolean optimizeEncodings = true;
+    private DataSize mappedFileCacheMaxSize = new DataSize(16, GIGABYTE);
+    private int mappedFileCacheMaxFiles = 10_000;
+    private boolean mappedFilePreload;
 
     @NotNull
     public File getDataDirectory()
@@ -55,6 +62,60 @@ public class DatabaseLocalStorageManagerConfig
         return this;
     }
 
+    public boolean isOptimizeEncodings()
+    {
+        return optimizeEncodings;
+    }
+
+    @Config("storage.optimize-encodings")
+    @ConfigDescription("Store columns with dictionary, run length or bit packed encodings when they are smaller")
+    public DatabaseLocalStorageManagerConfig setOptimizeEncodings(boolean optimizeEncodings)
+    {
+        this.optimizeEncodings = optimizeEncodings;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMappedFileCacheMaxSize()
+    {
+        return mappedFileCacheMaxSize;
+    }
+
+    @Config("storage.mapped-file-cache.max-size")
+    @ConfigDescription("Maximum total size of the column files kept memory mapped")
+    public DatabaseLocalStorageManagerConfig setMappedFileCacheMaxSize(DataSize mappedFileCacheMaxSize)
+    {
+        this.mappedFileCacheMaxSize = mappedFileCacheMaxSize;
+        return this;
+    }
+
+    @Min(1)
+    public int getMappedFileCacheMaxFiles()
+    {
+        return mappedFileCacheMaxFiles;
+    }
+
+    @Config("storage.mapped-file-cache.max-files")
+    @ConfigDescription("Maximum number of column files kept memory mapped")
+    public DatabaseLocalStorageManagerConfig setMappedFileCacheMaxFiles(int mappedFileCacheMaxFiles)
+    {
+        this.mappedFileCacheMaxFiles = mappedFileCacheMaxFiles;
+        return this;
+    }
+
+    public boolean isMappedFilePreload()
+    {
+        return mappedFilePreload;
+    }
+
+    @Config("storage.mapped-file-preload")
+    @ConfigDescription("Read column files into memory when they are mapped")
+    public DatabaseLocalStorageManagerConfig setMappedFilePreload(boolean mappedFilePreload)
+    {
+        this.mappedFilePreload = mappedFilePreload;
+        return this;
+    }
+
     @Deprecated
     public boolean isCompressed()
     {
@@ -14,9 +14,12 @@
 package com.facebook.presto.raptor.storage;
 
 import com.facebook.presto.block.BlockIterable;
+import com.facebook.presto.raptor.metadata.ColumnStats;
 import com.facebook.presto.spi.ConnectorColumnHandle;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.UUID;
 
@@ -30,9 +33,37 @@ public interface LocalStorageManager
 
     boolean isShardActive(UUID shardUuid);
 
+    /**
+     * Return the total size of the column files of a shard.
+     */
+    long getShardSizeInBytes(UUID shardUuid);
+
     ColumnFileHandle createStagingFileHandles(UUID shardUuid, List<? extends ConnectorColumnHandle> columnHandles)
             throws IOException;
 
-    void commit(ColumnFileHandle columnFileHandle)
+    /**
+     * Commit the shard and return the statistics of its columns.
+     */
+    List<ColumnStats> commit(ColumnFileHandle columnFileHandle)
+            throws IOException;
+
+    /**
+     * Create and commit a shard containing the rows of the given shards, and
+     * return the statistics of its columns. The source shards are not dropped.
+     */
+    List<ColumnStats> mergeShards(UUID shardUuid, List<UUID> sourceShardUuids, List<? extends ConnectorColumnHandle> columnHandles)
+            throws IOException;
+
+    /**
+     * Write the column files of a committed shard to a stream, in the format read by {@link #importShard}.
+     */
+    void writeShard(UUID shardUuid, OutputStream output)
+            throws IOException;
+
+    /**
+     * Store and commit a shard that was written by {@link #writeShard} on another node.
+     * Importing a shard that already exists on this node has no effect.
+     */
+    void importShard(UUID shardUuid, InputStream input)
             throws IOException;
 }
@@ -0,0 +1,182 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.raptor.storage;
+
+import com.google.common.base.Throwables;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import io.airlift.units.DataSize;
+import org.weakref.jmx.Managed;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+
+/**
+ * Memory maps column files, keeping at most a bounded number of files and bytes mapped.
+ * The least recently used files are evicted first.
+ * <p/>
+ * Evicted and invalidated files are not unmapped explicitly, as blocks of running queries
+ * can still reference the mapping. The mapping is released once it is no longer referenced.
+ */
+@ThreadSafe
+public class MappedFileCache
+{
+    private final long maxBytes;
+    private final int maxFiles;
+    private final boolean preload;
+
+    @GuardedBy("this")
+    private final LinkedHashMap<File, Slice> files = new LinkedHashMap<>(16, 0.75f, true);
+    @GuardedBy("this")
+    private long mappedBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public MappedFileCache(DataSize maxSize, int maxFiles, boolean preload)
+    {
+        this.maxBytes = checkNotNull(maxSize, "maxSize is null").toBytes();
+        checkArgument(maxFiles > 0, "maxFiles must be at least 1");
+        this.maxFiles = maxFiles;
+        this.preload = preload;
+    }
+
+    public Slice get(File file)
+    {
+        checkArgument(file.isAbsolute(), "file is not absolute: %s", file);
+
+        synchronized (this) {
+            Slice slice = files.get(file);
+            if (slice != null) {
+                hits.incrementAndGet();
+                return slice;
+            }
+        }
+
+        misses.incrementAndGet();
+        Slice slice = map(file);
+
+        synchronized (this) {
+            Slice existing = files.get(file);
+            if (existing != null) {
+                return existing;
+            }
+            files.put(file, slice);
+            mappedBytes += slice.length();
+            evict();
+        }
+        return slice;
+    }
+
+    public synchronized void invalidate(File file)
+    {
+        Slice slice = files.remove(file);
+        if (slice != null) {
+            mappedBytes -= slice.length();
+        }
+    }
+
+    @Managed
+    public synchronized long getMappedBytes()
+    {
+        return mappedBytes;
+    }
+
+    @Managed
+    public synchronized int getMappedFiles()
+    {
+        return files.size();
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return hits.get();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return misses.get();
+    }
+
+    @Managed
+    public double getHitRate()
+    {
+        long hitCount = hits.get();
+        long requestCount = hitCount + misses.get();
+        return (requestCount == 0) ? 1.0 : ((double) hitCount / requestCount);
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return evictions.get();
+    }
+
+    @GuardedBy("this")
+    private void evict()
+    {
+        Iterator<Map.Entry<File, Slice>> iterator = files.entrySet().iterator();
+        // always keep the most recently mapped file, even if it is larger than the limit
+        while ((files.size() > 1) && ((files.size() > maxFiles) || (mappedBytes > maxBytes))) {
+            Map.Entry<File, Slice> entry = iterator.next();
+            mappedBytes -= entry.getValue().length();
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private Slice map(File file)
+    {
+        checkArgument(file.canRead(), "file is not readable: %s", file);
+        if (file.length() == 0) {
+            return Slices.EMPTY_SLICE;
+        }
+        if (!preload) {
+            try {
+                return Slices.mapFileReadOnly(file);
+            }
+            catch (IOException e) {
+                throw Throwables.propagate(e);
+            }
+        }
+
+        // read the whole file ahead, as the columns of a shard are scanned sequentially
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+                FileChannel channel = randomAccessFile.getChannel()) {
+            MappedByteBuffer buffer = channel.map(READ_ONLY, 0, file.length());
+            buffer.load();
+            return Slices.wrappedBuffer(buffer);
+        }
+        catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+}
@@ -14,18 +14,25 @@
 package com.facebook.presto.raptor.storage;
 
 import javax.inject.Inject;
+import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
+import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.UUID;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static javax.ws.rs.core.MediaType.APPLICATION_OCTET_STREAM;
 
-@Path("/v1/shard")
+/**
+ * Served by the connector resource of the server, under {@code /v1/connector/{connectorId}}.
+ */
 public class ShardResource
 {
     private final LocalStorageManager storageManager;
@@ -36,8 +43,18 @@ public class ShardResource
         this.storageManager = checkNotNull(storageManager, "storageManager is null");
     }
 
+    @PUT
+    @Path("shard/{shardUuid}")
+    @Consumes(APPLICATION_OCTET_STREAM)
+    public Response importShard(@PathParam("shardUuid") UUID shardUuid, InputStream input)
+            throws IOException
+    {
+        storageManager.importShard(shardUuid, input);
+        return Response.noContent().build();
+    }
+
     @DELETE
-    @Path("{shardUuid}")
+    @Path("shard/{shardUuid}")
     public Response dropShard(@PathParam("shardUuid") UUID shardUuid)
     {
         storageManager.dropShard(shardUuid);
@@ -45,7 +62,7 @@ public class ShardResource
     }
 
     @GET
-    @Path("{shardUuid}")
+    @Path("shard/{shardUuid}")
     public Response shardStatus(@PathParam("shardUuid") UUID shardUuid)
     {
         if (storageManager.isShardActive(shardUuid)) {
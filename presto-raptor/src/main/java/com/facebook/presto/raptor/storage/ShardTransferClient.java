@@ -0,0 +1,97 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.raptor.storage;
+
+import com.facebook.presto.raptor.RaptorConnectorId;
+import com.facebook.presto.spi.Node;
+import io.airlift.http.client.BodyGenerator;
+import io.airlift.http.client.HttpClient;
+import io.airlift.http.client.HttpStatus;
+import io.airlift.http.client.Request;
+import io.airlift.http.client.StatusResponseHandler.StatusResponse;
+
+import javax.inject.Inject;
+
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.UUID;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static com.google.common.net.MediaType.OCTET_STREAM;
+import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
+import static io.airlift.http.client.Request.Builder.prepareDelete;
+import static io.airlift.http.client.Request.Builder.preparePut;
+import static io.airlift.http.client.StatusResponseHandler.createStatusResponseHandler;
+
+/**
+ * Copies the shards stored on this node to the {@link ShardResource} of other nodes.
+ */
+public class ShardTransferClient
+{
+    private final String connectorId;
+    private final LocalStorageManager storageManager;
+    private final HttpClient httpClient;
+
+    @Inject
+    public ShardTransferClient(RaptorConnectorId connectorId, LocalStorageManager storageManager, @ForShardTransfer HttpClient httpClient)
+    {
+        this.connectorId = checkNotNull(connectorId, "connectorId is null").toString();
+        this.storageManager = checkNotNull(storageManager, "storageManager is null");
+        this.httpClient = checkNotNull(httpClient, "httpClient is null");
+    }
+
+    /**
+     * Copy a committed shard to a node. The shard is committed on that node when this method returns.
+     */
+    public void copyShard(final UUID shardUuid, Node target)
+    {
+        Request request = preparePut()
+                .setUri(getShardUri(target, shardUuid))
+                .setHeader(CONTENT_TYPE, OCTET_STREAM.toString())
+                .setBodyGenerator(new BodyGenerator()
+                {
+                    @Override
+                    public void write(OutputStream out)
+                            throws Exception
+                    {
+                        storageManager.writeShard(shardUuid, out);
+                    }
+                })
+                .build();
+
+        StatusResponse response = httpClient.execute(request, createStatusResponseHandler());
+        if (response.getStatusCode() != HttpStatus.NO_CONTENT.code()) {
+            throw new RuntimeException("Unexpected response status: " + response.getStatusCode());
+        }
+    }
+
+    /**
+     * Drop a shard that was copied to a node.
+     */
+    public void dropShard(UUID shardUuid, Node target)
+    {
+        httpClient.execute(prepareDelete().setUri(getShardUri(target, shardUuid)).build(), createStatusResponseHandler());
+    }
+
+    private URI getShardUri(Node node, UUID shardUuid)
+    {
+        return uriBuilderFrom(node.getHttpUri())
+                .appendPath("/v1/connector")
+                .appendPath(connectorId)
+                .appendPath("shard")
+                .appendPath(shardUuid.toString())
+                .build();
+    }
+}
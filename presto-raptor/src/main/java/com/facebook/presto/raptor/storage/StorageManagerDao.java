@@ -49,6 +49,11 @@ public interface StorageManagerDao
             @Bind("shardUuid") UUID shardUuid,
             @Bind("columnId") long columnId);
 
+    @SqlQuery("SELECT column_id\n" +
+            "FROM columns\n" +
+            "WHERE shard_uuid = :shardUuid")
+    List<Long> getShardColumnIds(@Bind("shardUuid") UUID shardUuid);
+
     @SqlQuery("SELECT filename\n" +
             "FROM columns\n" +
             "WHERE shard_uuid = :shardUuid")
@@ -28,6 +28,7 @@ import javax.inject.Singleton;
 import java.io.File;
 
 import static io.airlift.configuration.ConfigurationModule.bindConfig;
+import static io.airlift.http.client.HttpClientBinder.httpClientBinder;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.weakref.jmx.guice.ExportBinder.newExporter;
 
@@ -41,8 +42,9 @@ public class StorageModule
         binder.bind(LocalStorageManager.class).to(DatabaseLocalStorageManager.class).in(Scopes.SINGLETON);
         newExporter(binder).export(LocalStorageManager.class).withGeneratedName();
 
-        // TODO: figure out how to add this dynamically
         binder.bind(ShardResource.class).in(Scopes.SINGLETON);
+        binder.bind(ShardTransferClient.class).in(Scopes.SINGLETON);
+        httpClientBinder(binder).bindHttpClient("raptor-shard-transfer", ForShardTransfer.class);
     }
 
     @Provides
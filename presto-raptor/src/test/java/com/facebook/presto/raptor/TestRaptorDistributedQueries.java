@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.raptor;
 
+import com.facebook.presto.server.testing.TestingPrestoServer;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.testing.QueryRunner;
 import com.facebook.presto.tests.AbstractTestDistributedQueries;
@@ -20,9 +21,11 @@ import com.facebook.presto.tests.DistributedQueryRunner;
 import com.facebook.presto.tpch.TpchMetadata;
 import com.facebook.presto.tpch.TpchPlugin;
 import com.facebook.presto.tpch.testing.SampledTpchPlugin;
+import com.google.common.base.Function;
 import com.google.common.collect.ImmutableMap;
 import io.airlift.log.Logger;
 import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
 
 import java.io.File;
 import java.util.Map;
@@ -51,6 +54,21 @@ public class TestRaptorDistributedQueries
         queryRunner.close();
     }
 
+    @Test
+    public void testBucketedTableJoin()
+            throws Exception
+    {
+        assertQuery("CREATE TABLE test_bucketed_orders WITH (bucket_count = 5, bucketed_on = 'orderkey') AS SELECT orderkey, custkey FROM orders", "SELECT count(*) FROM orders");
+        assertQuery("CREATE TABLE test_bucketed_lineitem WITH (bucket_count = 5, bucketed_on = 'orderkey') AS SELECT orderkey, quantity FROM lineitem", "SELECT count(*) FROM lineitem");
+
+        assertQuery(
+                "SELECT o.custkey, sum(l.quantity) FROM test_bucketed_orders o JOIN test_bucketed_lineitem l ON o.orderkey = l.orderkey GROUP BY o.custkey",
+                "SELECT o.custkey, sum(l.quantity) FROM orders o JOIN lineitem l ON o.orderkey = l.orderkey GROUP BY o.custkey");
+
+        assertQueryTrue("DROP TABLE test_bucketed_orders");
+        assertQueryTrue("DROP TABLE test_bucketed_lineitem");
+    }
+
     private static QueryRunner createQueryRunner()
             throws Exception
     {
@@ -63,14 +81,20 @@ public class TestRaptorDistributedQueries
         queryRunner.createCatalog("tpch_sampled", "tpch_sampled");
 
         queryRunner.installPlugin(new RaptorPlugin());
-        File baseDir = queryRunner.getCoordinator().getBaseDataDir().toFile();
-        Map<String, String> raptorProperties = ImmutableMap.<String, String>builder()
-                .put("metadata.db.type", "h2")
-                .put("metadata.db.filename", new File(baseDir, "db").getAbsolutePath())
-                .put("storage.data-directory", new File(baseDir, "data").getAbsolutePath())
-                .build();
-
-        queryRunner.createCatalog("default", "raptor", raptorProperties);
+        // the metadata database is shared by all nodes, but every node stores its shards locally
+        final File baseDir = queryRunner.getCoordinator().getBaseDataDir().toFile();
+        queryRunner.createCatalog("default", "raptor", new Function<TestingPrestoServer, Map<String, String>>()
+        {
+            @Override
+            public Map<String, String> apply(TestingPrestoServer server)
+            {
+                return ImmutableMap.<String, String>builder()
+                        .put("metadata.db.type", "h2")
+                        .put("metadata.db.filename", new File(baseDir, "db").getAbsolutePath())
+                        .put("storage.data-directory", new File(server.getBaseDataDir().toFile(), "data").getAbsolutePath())
+                        .build();
+            }
+        });
 
         log.info("Loading data...");
         long startTime = System.nanoTime();
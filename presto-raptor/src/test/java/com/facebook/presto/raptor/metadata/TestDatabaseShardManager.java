@@ -16,8 +16,10 @@ package com.facebook.presto.raptor.metadata;
 import com.facebook.presto.raptor.RaptorTableHandle;
 import com.facebook.presto.spi.ConnectorTableHandle;
 import com.facebook.presto.spi.PartitionKey;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.common.io.Files;
@@ -25,20 +27,26 @@ import io.airlift.testing.FileUtils;
 import org.skife.jdbi.v2.DBI;
 import org.skife.jdbi.v2.Handle;
 import org.skife.jdbi.v2.IDBI;
+import org.skife.jdbi.v2.exceptions.CallbackFailedException;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.io.File;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.UUID;
 
+import static java.lang.String.format;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 @Test(singleThreaded = true)
 public class TestDatabaseShardManager
@@ -78,8 +86,8 @@ public class TestDatabaseShardManager
         Set<String> nodes = shardManager.getTableNodes(tableHandle);
         assertTrue(nodes.isEmpty());
 
-        shardManager.commitPartition(tableHandle, "some-partition", ImmutableList.<PartitionKey>of(), ImmutableMap.of(shardId1, "some-node"));
-        shardManager.commitPartition(tableHandle, "some-other-partition", ImmutableList.<PartitionKey>of(), ImmutableMap.of(shardId2, "some-node"));
+        shardManager.commitPartition(tableHandle, "some-partition", ImmutableList.<PartitionKey>of(), ImmutableList.of(new ShardInfo(shardId1, "some-node", ImmutableList.<ColumnStats>of())));
+        shardManager.commitPartition(tableHandle, "some-other-partition", ImmutableList.<PartitionKey>of(), ImmutableList.of(new ShardInfo(shardId2, "some-node", ImmutableList.<ColumnStats>of())));
 
         nodes = shardManager.getTableNodes(tableHandle);
         assertEquals(nodes, ImmutableSet.of("some-node"));
@@ -95,4 +103,166 @@ public class TestDatabaseShardManager
         Collection<Entry<UUID, String>> partitionShards = allShardNodes.get(partitionId);
         assertEquals(partitionShards.size(), 1);
     }
+
+    @Test
+    public void testShardColumnStats()
+            throws Exception
+    {
+        ConnectorTableHandle tableHandle = new RaptorTableHandle("test", "demo", "test", 2, null);
+        UUID shardId1 = UUID.randomUUID();
+        UUID shardId2 = UUID.randomUUID();
+
+        ColumnStats longStats = new ColumnStats(1, 0, 5L, 10L);
+        ColumnStats doubleStats = new ColumnStats(2, 3, -1.5, 2.5);
+        ColumnStats varcharStats = new ColumnStats(3, 0, "abc", "xyz");
+        ColumnStats unknownStats = new ColumnStats(1, 7, null, null);
+
+        shardManager.commitUnpartitionedTable(tableHandle, ImmutableList.of(
+                new ShardInfo(shardId1, "some-node", ImmutableList.of(longStats, doubleStats, varcharStats)),
+                new ShardInfo(shardId2, "some-node", ImmutableList.of(unknownStats))));
+
+        assertEquals(shardManager.getShardColumnStats(tableHandle, 1), ImmutableMap.of(shardId1, longStats, shardId2, unknownStats));
+        assertEquals(shardManager.getShardColumnStats(tableHandle, 2), ImmutableMap.of(shardId1, doubleStats));
+        assertEquals(shardManager.getShardColumnStats(tableHandle, 3), ImmutableMap.of(shardId1, varcharStats));
+        assertEquals(shardManager.getShardColumnStats(tableHandle, 4), ImmutableMap.of());
+
+        shardManager.dropPartition(tableHandle, "<UNPARTITIONED>");
+        for (long shardId : shardManager.getOrphanedShardIds(Optional.of("other-node"))) {
+            shardManager.disassociateShard(shardId, null);
+        }
+        for (long shardId : shardManager.getOrphanedShardIds(Optional.<String>absent())) {
+            shardManager.dropShard(shardId);
+        }
+        assertEquals(shardManager.getShardColumnStats(tableHandle, 1), ImmutableMap.of());
+    }
+
+    @Test
+    public void testReplaceShards()
+            throws Exception
+    {
+        ConnectorTableHandle tableHandle = new RaptorTableHandle("test", "demo", "test", 3, null);
+        UUID shardId1 = UUID.randomUUID();
+        UUID shardId2 = UUID.randomUUID();
+        UUID shardId3 = UUID.randomUUID();
+        UUID mergedShardId = UUID.randomUUID();
+
+        shardManager.commitUnpartitionedTable(tableHandle, ImmutableList.of(
+                new ShardInfo(shardId1, "node1", ImmutableList.of(new ColumnStats(1, 0, 5L, 10L))),
+                new ShardInfo(shardId2, "node1", ImmutableList.of(new ColumnStats(1, 0, 20L, 30L))),
+                new ShardInfo(shardId3, "node2", ImmutableList.of(new ColumnStats(1, 0, 40L, 50L)))));
+
+        List<ShardNode> nodeShards = shardManager.getNodeShards("node1");
+        assertEquals(nodeShards.size(), 2);
+        long partitionId = nodeShards.get(0).getPartitionId();
+
+        ColumnStats mergedStats = new ColumnStats(1, 0, 5L, 30L);
+        shardManager.replaceShards(3, partitionId, ImmutableList.of(shardId1, shardId2), new ShardInfo(mergedShardId, "node1", ImmutableList.of(mergedStats)));
+
+        assertEquals(getShardUuids(shardManager.getNodeShards("node1")), ImmutableSet.of(mergedShardId));
+        assertEquals(getShardUuids(shardManager.getNodeShards("node2")), ImmutableSet.of(shardId3));
+        assertEquals(shardManager.getShardNodesByPartition(tableHandle).get(partitionId).size(), 2);
+        assertEquals(shardManager.getShardColumnStats(tableHandle, 1).get(mergedShardId), mergedStats);
+        assertEquals(shardManager.getShardColumnStats(tableHandle, 1).size(), 2);
+
+        // the replaced shards are no longer part of the partition
+        try {
+            shardManager.replaceShards(3, partitionId, ImmutableList.of(shardId1, shardId3), new ShardInfo(UUID.randomUUID(), "node1", ImmutableList.<ColumnStats>of()));
+            fail("expected exception");
+        }
+        catch (CallbackFailedException e) {
+            assertEquals(e.getCause().getMessage(), format("shard %s is no longer in partition %s", shardId1, partitionId));
+        }
+        assertEquals(getShardUuids(shardManager.getNodeShards("node2")), ImmutableSet.of(shardId3));
+    }
+
+    @Test
+    public void testShardReplicas()
+            throws Exception
+    {
+        ConnectorTableHandle tableHandle = new RaptorTableHandle("test", "demo", "test", 4, null);
+        UUID shardId1 = UUID.randomUUID();
+        UUID shardId2 = UUID.randomUUID();
+
+        shardManager.commitUnpartitionedTable(tableHandle, ImmutableList.of(
+                new ShardInfo(shardId1, "node1", ImmutableList.<ColumnStats>of()),
+                new ShardInfo(shardId2, "node2", ImmutableList.<ColumnStats>of())));
+
+        shardManager.addShardNode(shardId1, "node2");
+        shardManager.addShardNode(shardId1, "node3");
+
+        // adding a node is idempotent
+        shardManager.addShardNode(shardId1, "node3");
+
+        assertEquals(shardManager.getReplicaNodes("node1"), ImmutableMultimap.of(shardId1, "node1", shardId1, "node2", shardId1, "node3"));
+        assertEquals(shardManager.getReplicaNodes("node2").keySet(), ImmutableSet.of(shardId1, shardId2));
+        assertEquals(ImmutableSet.copyOf(shardManager.getReplicaNodes("node2").get(shardId2)), ImmutableSet.of("node2"));
+        assertEquals(getShardUuids(shardManager.getNodeShards("node3")), ImmutableSet.of(shardId1));
+        assertEquals(shardManager.getShardNodesByPartition(tableHandle).size(), 4);
+
+        try {
+            shardManager.addShardNode(UUID.randomUUID(), "node1");
+            fail("expected exception");
+        }
+        catch (IllegalStateException expected) {
+        }
+    }
+
+    @Test
+    public void testAssignBucketNodes()
+    {
+        assertEquals(shardManager.getBucketNodes(3), ImmutableList.of());
+
+        List<String> bucketNodes = shardManager.assignBucketNodes(3, ImmutableList.of("node1", "node2"));
+        assertEquals(bucketNodes, ImmutableList.of("node1", "node2", "node1"));
+        assertEquals(shardManager.getBucketNodes(3), bucketNodes);
+
+        // the buckets of tables with the same bucket count are always stored on the same nodes
+        assertEquals(shardManager.assignBucketNodes(3, ImmutableList.of("node3")), bucketNodes);
+        assertEquals(shardManager.assignBucketNodes(2, ImmutableList.of("node3")), ImmutableList.of("node3", "node3"));
+    }
+
+    @Test
+    public void testBucketNumberWithExistingShardsTable()
+            throws Exception
+    {
+        // the shards table of a metadata database created before tables could be bucketed
+        IDBI dbi = new DBI("jdbc:h2:mem:test" + System.nanoTime());
+        Handle handle = dbi.open();
+        try {
+            handle.execute("CREATE TABLE shards (\n" +
+                    "  shard_id BIGINT PRIMARY KEY AUTO_INCREMENT,\n" +
+                    "  shard_uuid BINARY(16) NOT NULL,\n" +
+                    "  UNIQUE (shard_uuid)\n" +
+                    ")");
+
+            ShardManager shardManager = new DatabaseShardManager(dbi);
+            ConnectorTableHandle tableHandle = new RaptorTableHandle("test", "demo", "test", 1, null);
+            UUID bucketShard = UUID.randomUUID();
+            UUID shard = UUID.randomUUID();
+            shardManager.commitUnpartitionedTable(tableHandle, ImmutableList.of(
+                    new ShardInfo(bucketShard, "node1", ImmutableList.<ColumnStats>of(), 2),
+                    new ShardInfo(shard, "node1", ImmutableList.<ColumnStats>of())));
+
+            Map<UUID, Integer> bucketNumbers = new HashMap<>();
+            for (ShardNode shardNode : shardManager.getNodeShards("node1")) {
+                bucketNumbers.put(shardNode.getShardUuid(), shardNode.getBucketNumber());
+            }
+            Map<UUID, Integer> expected = new HashMap<>();
+            expected.put(bucketShard, 2);
+            expected.put(shard, null);
+            assertEquals(bucketNumbers, expected);
+        }
+        finally {
+            handle.close();
+        }
+    }
+
+    private static Set<UUID> getShardUuids(List<ShardNode> shardNodes)
+    {
+        ImmutableSet.Builder<UUID> shardUuids = ImmutableSet.builder();
+        for (ShardNode shardNode : shardNodes) {
+            shardUuids.add(shardNode.getShardUuid());
+        }
+        return shardUuids.build();
+    }
 }
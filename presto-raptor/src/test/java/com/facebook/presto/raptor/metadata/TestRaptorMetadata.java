@@ -13,14 +13,20 @@
  */
 package com.facebook.presto.raptor.metadata;
 
+import com.facebook.presto.metadata.InMemoryNodeManager;
+import com.facebook.presto.metadata.NodeVersion;
+import com.facebook.presto.metadata.PrestoNode;
 import com.facebook.presto.raptor.RaptorColumnHandle;
 import com.facebook.presto.raptor.RaptorConnectorId;
 import com.facebook.presto.raptor.RaptorMetadata;
+import com.facebook.presto.raptor.RaptorOutputTableHandle;
 import com.facebook.presto.raptor.RaptorPartitionKey;
 import com.facebook.presto.raptor.RaptorTableHandle;
 import com.facebook.presto.spi.ColumnMetadata;
+import com.facebook.presto.spi.ConnectorBucketing;
 import com.facebook.presto.spi.ConnectorColumnHandle;
 import com.facebook.presto.spi.ConnectorMetadata;
+import com.facebook.presto.spi.ConnectorOutputTableHandle;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.ConnectorTableHandle;
 import com.facebook.presto.spi.ConnectorTableMetadata;
@@ -28,6 +34,7 @@ import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.SchemaTablePrefix;
 import com.facebook.presto.type.TypeRegistry;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -37,6 +44,7 @@ import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.net.URI;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -49,6 +57,7 @@ import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static io.airlift.testing.Assertions.assertEqualsIgnoreOrder;
 import static io.airlift.testing.Assertions.assertInstanceOf;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
@@ -72,7 +81,10 @@ public class TestRaptorMetadata
         dbi.registerMapper(new TableColumn.Mapper(typeRegistry));
         dbi.registerMapper(new RaptorPartitionKey.Mapper(typeRegistry));
         dummyHandle = dbi.open();
-        metadata = new RaptorMetadata(new RaptorConnectorId("default"), dbi, new DatabaseShardManager(dbi));
+        InMemoryNodeManager nodeManager = new InMemoryNodeManager();
+        nodeManager.addNode("default", new PrestoNode("node1", URI.create("http://node1:8080"), NodeVersion.UNKNOWN));
+        nodeManager.addNode("default", new PrestoNode("node2", URI.create("http://node2:8080"), NodeVersion.UNKNOWN));
+        metadata = new RaptorMetadata(new RaptorConnectorId("default"), dbi, new DatabaseShardManager(dbi), nodeManager);
     }
 
     @AfterMethod
@@ -89,6 +101,7 @@ public class TestRaptorMetadata
         ConnectorTableHandle tableHandle = metadata.createTable(SESSION, getOrdersTable());
         assertInstanceOf(tableHandle, RaptorTableHandle.class);
         assertEquals(((RaptorTableHandle) tableHandle).getTableId(), 1);
+        assertFalse(((RaptorMetadata) metadata).getBucketing(tableHandle).isPresent());
 
         ConnectorTableMetadata table = metadata.getTableMetadata(tableHandle);
         assertTableEqual(table, getOrdersTable());
@@ -104,6 +117,47 @@ public class TestRaptorMetadata
         assertEquals(columnMetadata.getOrdinalPosition(), 0);
     }
 
+    @Test
+    public void testCreateBucketedTable()
+    {
+        ConnectorTableMetadata table = getBucketedOrdersTable(ImmutableMap.<String, Object>of("bucket_count", 3L, "bucketed_on", "custkey, orderkey"));
+        ConnectorOutputTableHandle outputHandle = metadata.beginCreateTable(SESSION, table);
+
+        RaptorOutputTableHandle raptorOutputHandle = (RaptorOutputTableHandle) outputHandle;
+        assertEquals(raptorOutputHandle.getBucketCount(), (Integer) 3);
+        assertEquals(raptorOutputHandle.getBucketColumnHandles(), ImmutableList.of(
+                new RaptorColumnHandle("default", "custkey", 2),
+                new RaptorColumnHandle("default", "orderkey", 1)));
+        assertEquals(raptorOutputHandle.getBucketNodes(), ImmutableList.of("node1", "node2", "node1"));
+
+        metadata.commitCreateTable(outputHandle, ImmutableList.<String>of());
+
+        ConnectorTableHandle tableHandle = metadata.getTableHandle(SESSION, DEFAULT_TEST_ORDERS);
+        Optional<ConnectorBucketing> bucketing = ((RaptorMetadata) metadata).getBucketing(tableHandle);
+        assertTrue(bucketing.isPresent());
+        assertEquals(bucketing.get().getBucketCount(), 3);
+        assertEquals(bucketing.get().getBucketFunction(), "raptor:default:bigint,bigint");
+        assertEquals(bucketing.get().getColumns(), ImmutableList.<ConnectorColumnHandle>copyOf(raptorOutputHandle.getBucketColumnHandles()));
+    }
+
+    @Test(expectedExceptions = PrestoException.class, expectedExceptionsMessageRegExp = "Unknown table property: bucket_size")
+    public void testUnknownTableProperty()
+    {
+        metadata.beginCreateTable(SESSION, getBucketedOrdersTable(ImmutableMap.<String, Object>of("bucket_size", 3L)));
+    }
+
+    @Test(expectedExceptions = PrestoException.class, expectedExceptionsMessageRegExp = "Table properties bucket_count and bucketed_on must be specified together")
+    public void testMissingBucketColumns()
+    {
+        metadata.beginCreateTable(SESSION, getBucketedOrdersTable(ImmutableMap.<String, Object>of("bucket_count", 3L)));
+    }
+
+    @Test(expectedExceptions = PrestoException.class, expectedExceptionsMessageRegExp = "Bucket column shipdate is not a column of the table")
+    public void testInvalidBucketColumn()
+    {
+        metadata.beginCreateTable(SESSION, getBucketedOrdersTable(ImmutableMap.<String, Object>of("bucket_count", 3L, "bucketed_on", "shipdate")));
+    }
+
     @Test
     public void testListTables()
     {
@@ -203,6 +257,11 @@ public class TestRaptorMetadata
                 .build();
     }
 
+    private static ConnectorTableMetadata getBucketedOrdersTable(Map<String, Object> properties)
+    {
+        return new ConnectorTableMetadata(DEFAULT_TEST_ORDERS, getOrdersTable().getColumns(), properties, null, false);
+    }
+
     private static void assertTableEqual(ConnectorTableMetadata actual, ConnectorTableMetadata expected)
     {
         assertEquals(actual.getTable(), expected.getTable());
@@ -17,20 +17,25 @@ import com.facebook.presto.metadata.InMemoryNodeManager;
 import com.facebook.presto.metadata.MetadataUtil.TableMetadataBuilder;
 import com.facebook.presto.metadata.NodeVersion;
 import com.facebook.presto.metadata.PrestoNode;
+import com.facebook.presto.raptor.RaptorColumnHandle;
 import com.facebook.presto.raptor.RaptorConnectorId;
 import com.facebook.presto.raptor.RaptorMetadata;
 import com.facebook.presto.raptor.RaptorPartitionKey;
+import com.facebook.presto.raptor.RaptorSplit;
 import com.facebook.presto.raptor.RaptorSplitManager;
+import com.facebook.presto.spi.ColumnMetadata;
 import com.facebook.presto.spi.ConnectorColumnHandle;
 import com.facebook.presto.spi.ConnectorPartition;
 import com.facebook.presto.spi.ConnectorPartitionResult;
 import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.ConnectorSplit;
 import com.facebook.presto.spi.ConnectorSplitSource;
 import com.facebook.presto.spi.ConnectorTableHandle;
 import com.facebook.presto.spi.ConnectorTableMetadata;
 import com.facebook.presto.spi.Domain;
 import com.facebook.presto.spi.PartitionKey;
 import com.facebook.presto.spi.Range;
+import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.SortedRangeSet;
 import com.facebook.presto.spi.TupleDomain;
 import com.facebook.presto.spi.type.BigintType;
@@ -47,14 +52,19 @@ import org.testng.annotations.Test;
 
 import java.io.File;
 import java.net.URI;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
 
 import static com.facebook.presto.spi.type.TimeZoneKey.UTC_KEY;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.facebook.presto.util.Types.checkType;
 import static io.airlift.slice.Slices.utf8Slice;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
@@ -69,9 +79,13 @@ public class TestRaptorSplitManager
 
     private Handle dummyHandle;
     private File dataDir;
+    private String nodeName;
+    private ShardManager shardManager;
+    private RaptorMetadata metadata;
     private RaptorSplitManager raptorSplitManager;
     private ConnectorTableHandle tableHandle;
     private ConnectorColumnHandle dsColumnHandle;
+    private ConnectorColumnHandle barColumnHandle;
 
     @BeforeMethod
     public void setup()
@@ -83,17 +97,19 @@ public class TestRaptorSplitManager
         dbi.registerMapper(new RaptorPartitionKey.Mapper(typeRegistry));
         dummyHandle = dbi.open();
         dataDir = Files.createTempDir();
-        ShardManager shardManager = new DatabaseShardManager(dbi);
+        shardManager = new DatabaseShardManager(dbi);
         InMemoryNodeManager nodeManager = new InMemoryNodeManager();
 
-        String nodeName = UUID.randomUUID().toString();
+        nodeName = UUID.randomUUID().toString();
         nodeManager.addNode("raptor", new PrestoNode(nodeName, new URI("http://127.0.0.1/"), NodeVersion.UNKNOWN));
 
         RaptorConnectorId connectorId = new RaptorConnectorId("raptor");
-        RaptorMetadata metadata = new RaptorMetadata(connectorId, dbi, shardManager);
+        metadata = new RaptorMetadata(connectorId, dbi, shardManager, nodeManager);
 
         tableHandle = metadata.createTable(SESSION, TEST_TABLE);
         dsColumnHandle = metadata.getColumnHandle(tableHandle, "ds");
+        barColumnHandle = metadata.getColumnHandle(tableHandle, "bar");
+        long barColumnId = checkType(barColumnHandle, RaptorColumnHandle.class, "columnHandle").getColumnId();
 
         UUID shardUuid1 = UUID.randomUUID();
         UUID shardUuid2 = UUID.randomUUID();
@@ -104,19 +120,16 @@ public class TestRaptorSplitManager
                 tableHandle,
                 "ds=1",
                 ImmutableList.<PartitionKey>of(new RaptorPartitionKey("ds=1", "ds", VARCHAR, "1")),
-                ImmutableMap.<UUID, String>builder()
-                        .put(shardUuid1, nodeName)
-                        .put(shardUuid2, nodeName)
-                        .put(shardUuid3, nodeName)
-                        .build());
+                ImmutableList.of(
+                        new ShardInfo(shardUuid1, nodeName, ImmutableList.of(new ColumnStats(barColumnId, 0, 0L, 10L))),
+                        new ShardInfo(shardUuid2, nodeName, ImmutableList.of(new ColumnStats(barColumnId, 0, 20L, 30L))),
+                        new ShardInfo(shardUuid3, nodeName, ImmutableList.<ColumnStats>of())));
 
         shardManager.commitPartition(
                 tableHandle,
                 "ds=2",
                 ImmutableList.<PartitionKey>of(new RaptorPartitionKey("ds=2", "ds", VARCHAR, "2")),
-                ImmutableMap.<UUID, String>builder()
-                        .put(shardUuid4, nodeName)
-                        .build());
+                ImmutableList.of(new ShardInfo(shardUuid4, nodeName, ImmutableList.of(new ColumnStats(barColumnId, 3, 5L, 25L)))));
 
         raptorSplitManager = new RaptorSplitManager(connectorId, nodeManager, shardManager, metadata);
     }
@@ -140,11 +153,79 @@ public class TestRaptorSplitManager
         TupleDomain<ConnectorColumnHandle> columnUnionedTupleDomain = TupleDomain.columnWiseUnion(partitions.get(0).getTupleDomain(), partitions.get(1).getTupleDomain());
         assertEquals(columnUnionedTupleDomain, TupleDomain.withColumnDomains(ImmutableMap.of(dsColumnHandle, Domain.create(SortedRangeSet.of(Range.equal(utf8Slice("1")), Range.equal(utf8Slice("2"))), false))));
 
+        assertEquals(getSplitCount(partitions), 4);
+    }
+
+    @Test
+    public void testShardPruning()
+            throws InterruptedException
+    {
+        assertEquals(getSplitCount(TupleDomain.withColumnDomains(ImmutableMap.of(barColumnHandle, Domain.singleValue(25L)))), 3);
+        assertEquals(getSplitCount(TupleDomain.withColumnDomains(ImmutableMap.of(barColumnHandle, Domain.singleValue(8L)))), 3);
+        assertEquals(getSplitCount(TupleDomain.withColumnDomains(ImmutableMap.of(barColumnHandle, Domain.create(SortedRangeSet.of(Range.greaterThan(40L)), false)))), 1);
+        assertEquals(getSplitCount(TupleDomain.withColumnDomains(ImmutableMap.of(barColumnHandle, Domain.onlyNull(Long.class)))), 2);
+        assertEquals(getSplitCount(TupleDomain.withColumnDomains(ImmutableMap.of(
+                barColumnHandle, Domain.singleValue(25L),
+                dsColumnHandle, Domain.singleValue(utf8Slice("1"))))), 3);
+    }
+
+    @Test
+    public void testBucketedTable()
+            throws InterruptedException
+    {
+        ConnectorTableMetadata bucketedTable = new ConnectorTableMetadata(
+                new SchemaTableName("demo", "test_bucketed"),
+                ImmutableList.of(new ColumnMetadata("foo", VARCHAR, 0, false), new ColumnMetadata("bar", BigintType.BIGINT, 1, false)),
+                ImmutableMap.<String, Object>of("bucket_count", 2L, "bucketed_on", "bar"),
+                null,
+                false);
+        ConnectorTableHandle bucketedTableHandle = metadata.createTable(SESSION, bucketedTable);
+        shardManager.assignBucketNodes(2, ImmutableList.of(nodeName));
+
+        UUID shardUuid1 = UUID.randomUUID();
+        UUID shardUuid2 = UUID.randomUUID();
+        shardManager.commitUnpartitionedTable(bucketedTableHandle, ImmutableList.of(
+                new ShardInfo(shardUuid1, nodeName, ImmutableList.<ColumnStats>of(), 0),
+                new ShardInfo(shardUuid2, nodeName, ImmutableList.<ColumnStats>of(), 1)));
+
+        ConnectorPartitionResult partitionResult = raptorSplitManager.getPartitions(bucketedTableHandle, TupleDomain.<ConnectorColumnHandle>all());
+        assertNotNull(partitionResult.getBucketing());
+        assertEquals(partitionResult.getBucketing().getBucketCount(), 2);
+        assertEquals(partitionResult.getBucketing().getColumns(), ImmutableList.of(metadata.getColumnHandle(bucketedTableHandle, "bar")));
+
+        Map<UUID, Integer> splitBuckets = new HashMap<>();
+        ConnectorSplitSource splitSource = raptorSplitManager.getPartitionSplits(bucketedTableHandle, partitionResult.getPartitions());
+        while (!splitSource.isFinished()) {
+            for (ConnectorSplit split : splitSource.getNextBatch(1000)) {
+                RaptorSplit raptorSplit = checkType(split, RaptorSplit.class, "split");
+                splitBuckets.put(raptorSplit.getShardUuid(), raptorSplit.getBucketNumber());
+            }
+        }
+        assertEquals(splitBuckets, ImmutableMap.of(shardUuid1, 0, shardUuid2, 1));
+
+        // a shard stored on a node that does not own its bucket prevents reading the table one bucket per node
+        shardManager.commitPartition(
+                bucketedTableHandle,
+                "other",
+                ImmutableList.<PartitionKey>of(),
+                ImmutableList.of(new ShardInfo(UUID.randomUUID(), "other", ImmutableList.<ColumnStats>of(), 0)));
+        assertNull(raptorSplitManager.getPartitions(bucketedTableHandle, TupleDomain.<ConnectorColumnHandle>all()).getBucketing());
+    }
+
+    private int getSplitCount(TupleDomain<ConnectorColumnHandle> tupleDomain)
+            throws InterruptedException
+    {
+        return getSplitCount(raptorSplitManager.getPartitions(tableHandle, tupleDomain).getPartitions());
+    }
+
+    private int getSplitCount(List<ConnectorPartition> partitions)
+            throws InterruptedException
+    {
         ConnectorSplitSource splitSource = raptorSplitManager.getPartitionSplits(tableHandle, partitions);
         int splitCount = 0;
         while (!splitSource.isFinished()) {
             splitCount += splitSource.getNextBatch(1000).size();
         }
-        assertEquals(splitCount, 4);
+        return splitCount;
     }
 }
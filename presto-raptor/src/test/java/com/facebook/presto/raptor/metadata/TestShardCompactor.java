@@ -0,0 +1,168 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.raptor.metadata;
+
+import com.facebook.presto.operator.Page;
+import com.facebook.presto.raptor.RaptorColumnHandle;
+import com.facebook.presto.raptor.RaptorConnectorId;
+import com.facebook.presto.raptor.RaptorTableHandle;
+import com.facebook.presto.raptor.metadata.ShardCompactor.ShardSize;
+import com.facebook.presto.raptor.storage.ColumnFileHandle;
+import com.facebook.presto.raptor.storage.DatabaseLocalStorageManager;
+import com.facebook.presto.raptor.storage.DatabaseLocalStorageManagerConfig;
+import com.facebook.presto.raptor.storage.LocalStorageManager;
+import com.facebook.presto.raptor.util.CurrentNodeId;
+import com.facebook.presto.spi.ConnectorColumnHandle;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.type.TypeRegistry;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import io.airlift.testing.FileUtils;
+import io.airlift.units.DataSize;
+import org.skife.jdbi.v2.DBI;
+import org.skife.jdbi.v2.Handle;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static com.facebook.presto.operator.RowPagesBuilder.rowPagesBuilder;
+import static com.facebook.presto.raptor.metadata.MetadataDaoUtils.createMetadataTables;
+import static com.facebook.presto.raptor.metadata.ShardCompactor.selectShardsToMerge;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.testing.TestingBlockEncodingManager.createTestingBlockEncodingManager;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestShardCompactor
+{
+    private static final UUID SHARD_1 = UUID.randomUUID();
+    private static final UUID SHARD_2 = UUID.randomUUID();
+    private static final UUID SHARD_3 = UUID.randomUUID();
+    private static final UUID SHARD_4 = UUID.randomUUID();
+
+    private Handle dummyHandle;
+    private Handle storageHandle;
+    private File dataDir;
+    private ShardManager shardManager;
+    private LocalStorageManager storageManager;
+    private ShardCompactor compactor;
+    private long tableId;
+
+    @BeforeMethod
+    public void setup()
+            throws Exception
+    {
+        DBI dbi = new DBI("jdbc:h2:mem:test" + System.nanoTime());
+        dbi.registerMapper(new TableColumn.Mapper(new TypeRegistry()));
+        dummyHandle = dbi.open();
+        dataDir = Files.createTempDir();
+
+        MetadataDao metadataDao = dbi.onDemand(MetadataDao.class);
+        createMetadataTables(metadataDao);
+        tableId = metadataDao.insertTable("default", "test", "test");
+        metadataDao.insertColumn(tableId, 1, "value", 0, BIGINT.getName());
+
+        shardManager = new DatabaseShardManager(dbi);
+        DBI storageDbi = new DBI("jdbc:h2:mem:storage" + System.nanoTime());
+        storageHandle = storageDbi.open();
+        storageManager = new DatabaseLocalStorageManager(storageDbi, createTestingBlockEncodingManager(), new DatabaseLocalStorageManagerConfig().setDataDirectory(dataDir));
+
+        ShardCompactorConfig config = new ShardCompactorConfig().setMaxShardSize(new DataSize(1, MEGABYTE));
+        compactor = new ShardCompactor(new RaptorConnectorId("default"), new CurrentNodeId("node"), shardManager, dbi, storageManager, config);
+    }
+
+    @AfterMethod
+    public void teardown()
+    {
+        compactor.stop();
+        dummyHandle.close();
+        storageHandle.close();
+        FileUtils.deleteRecursively(dataDir);
+    }
+
+    @Test
+    public void testSelectShardsToMerge()
+    {
+        assertEquals(selectShardsToMerge(ImmutableList.<ShardSize>of(), 100), ImmutableList.of());
+        assertEquals(selectShardsToMerge(ImmutableList.of(new ShardSize(SHARD_1, 10)), 100), ImmutableList.of());
+
+        assertEquals(
+                selectShardsToMerge(ImmutableList.of(
+                        new ShardSize(SHARD_1, 60),
+                        new ShardSize(SHARD_2, 10),
+                        new ShardSize(SHARD_3, 100),
+                        new ShardSize(SHARD_4, 20)), 100),
+                ImmutableList.of(ImmutableList.of(SHARD_2, SHARD_4, SHARD_1)));
+
+        assertEquals(
+                selectShardsToMerge(ImmutableList.of(
+                        new ShardSize(SHARD_1, 60),
+                        new ShardSize(SHARD_2, 50),
+                        new ShardSize(SHARD_3, 40),
+                        new ShardSize(SHARD_4, 30)), 100),
+                ImmutableList.of(ImmutableList.of(SHARD_4, SHARD_3)));
+    }
+
+    @Test
+    public void testCompact()
+            throws Exception
+    {
+        RaptorTableHandle tableHandle = new RaptorTableHandle("default", "test", "test", tableId, null);
+        ConnectorColumnHandle columnHandle = new RaptorColumnHandle("default", "value", 1);
+
+        shardManager.commitUnpartitionedTable(tableHandle, ImmutableList.of(
+                createShard(SHARD_1, columnHandle, 1, 2, 3),
+                createShard(SHARD_2, columnHandle, 4, 5),
+                createShard(SHARD_3, columnHandle, 6)));
+
+        compactor.compact();
+
+        List<ShardNode> shards = shardManager.getNodeShards("node");
+        assertEquals(shards.size(), 1);
+        UUID shardUuid = shards.get(0).getShardUuid();
+        assertFalse(ImmutableList.of(SHARD_1, SHARD_2, SHARD_3).contains(shardUuid));
+        assertTrue(storageManager.shardExists(shardUuid));
+        assertEquals(shardManager.getShardColumnStats(tableHandle, 1).get(shardUuid), new ColumnStats(1, 0, 1L, 6L));
+
+        List<Long> values = new ArrayList<>();
+        for (Block block : storageManager.getBlocks(shardUuid, columnHandle)) {
+            for (int position = 0; position < block.getPositionCount(); position++) {
+                values.add(block.getLong(position));
+            }
+        }
+        Collections.sort(values);
+        assertEquals(values, ImmutableList.of(1L, 2L, 3L, 4L, 5L, 6L));
+    }
+
+    private ShardInfo createShard(UUID shardUuid, ConnectorColumnHandle columnHandle, long... values)
+            throws Exception
+    {
+        ColumnFileHandle fileHandle = storageManager.createStagingFileHandles(shardUuid, ImmutableList.of(columnHandle));
+        for (long value : values) {
+            for (Page page : rowPagesBuilder(BIGINT).row(value).build()) {
+                fileHandle.append(page);
+            }
+        }
+        return new ShardInfo(shardUuid, "node", storageManager.commit(fileHandle));
+    }
+}
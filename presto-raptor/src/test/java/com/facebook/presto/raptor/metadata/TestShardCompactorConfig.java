@@ -0,0 +1,58 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.raptor.metadata;
+
+import com.google.common.collect.ImmutableMap;
+import io.airlift.configuration.testing.ConfigAssertions;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+
+public class TestShardCompactorConfig
+{
+    @Test
+    public void testDefaults()
+    {
+        ConfigAssertions.assertRecordedDefaults(ConfigAssertions.recordDefaults(ShardCompactorConfig.class)
+                .setEnabled(false)
+                .setCompactionInterval(new Duration(1, TimeUnit.HOURS))
+                .setMaxShardSize(new DataSize(256, MEGABYTE))
+                .setDropDelay(new Duration(10, TimeUnit.MINUTES)));
+    }
+
+    @Test
+    public void testExplicitPropertyMappings()
+    {
+        Map<String, String> properties = new ImmutableMap.Builder<String, String>()
+                .put("shard-compactor.enabled", "true")
+                .put("shard-compactor.interval", "10m")
+                .put("shard-compactor.max-shard-size", "1GB")
+                .put("shard-compactor.drop-delay", "1h")
+                .build();
+
+        ShardCompactorConfig expected = new ShardCompactorConfig()
+                .setEnabled(true)
+                .setCompactionInterval(new Duration(10, TimeUnit.MINUTES))
+                .setMaxShardSize(new DataSize(1, GIGABYTE))
+                .setDropDelay(new Duration(1, TimeUnit.HOURS));
+
+        ConfigAssertions.assertFullMapping(properties, expected);
+    }
+}
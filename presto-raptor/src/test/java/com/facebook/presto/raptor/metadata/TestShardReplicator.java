@@ -0,0 +1,222 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.raptor.metadata;
+
+import com.facebook.presto.metadata.InMemoryNodeManager;
+import com.facebook.presto.metadata.NodeVersion;
+import com.facebook.presto.metadata.PrestoNode;
+import com.facebook.presto.operator.Page;
+import com.facebook.presto.raptor.RaptorColumnHandle;
+import com.facebook.presto.raptor.RaptorConnectorId;
+import com.facebook.presto.raptor.RaptorTableHandle;
+import com.facebook.presto.raptor.storage.ColumnFileHandle;
+import com.facebook.presto.raptor.storage.DatabaseLocalStorageManager;
+import com.facebook.presto.raptor.storage.DatabaseLocalStorageManagerConfig;
+import com.facebook.presto.raptor.storage.LocalStorageManager;
+import com.facebook.presto.raptor.storage.ShardResource;
+import com.facebook.presto.raptor.storage.ShardTransferClient;
+import com.facebook.presto.raptor.util.CurrentNodeId;
+import com.facebook.presto.spi.ConnectorColumnHandle;
+import com.facebook.presto.spi.Node;
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+import io.airlift.http.client.HttpStatus;
+import io.airlift.http.client.Request;
+import io.airlift.http.client.Response;
+import io.airlift.http.client.testing.TestingHttpClient;
+import io.airlift.http.client.testing.TestingResponse;
+import io.airlift.testing.FileUtils;
+import org.skife.jdbi.v2.DBI;
+import org.skife.jdbi.v2.Handle;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.facebook.presto.operator.RowPagesBuilder.rowPagesBuilder;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.testing.TestingBlockEncodingManager.createTestingBlockEncodingManager;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestShardReplicator
+{
+    private static final ConnectorColumnHandle COLUMN_HANDLE = new RaptorColumnHandle("raptor", "value", 1);
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private Handle dummyHandle;
+    private Handle sourceHandle;
+    private Handle targetHandle;
+    private File dataDir;
+    private InMemoryNodeManager nodeManager;
+    private ShardManager shardManager;
+    private LocalStorageManager sourceStorageManager;
+    private LocalStorageManager targetStorageManager;
+    private TestingHttpClient httpClient;
+    private ShardReplicator replicator;
+
+    @BeforeMethod
+    public void setup()
+            throws Exception
+    {
+        DBI dbi = new DBI("jdbc:h2:mem:test" + System.nanoTime());
+        dummyHandle = dbi.open();
+        requests.set(0);
+        shardManager = new DatabaseShardManager(dbi);
+        dataDir = Files.createTempDir();
+
+        DBI sourceDbi = new DBI("jdbc:h2:mem:source" + System.nanoTime());
+        sourceHandle = sourceDbi.open();
+        sourceStorageManager = new DatabaseLocalStorageManager(sourceDbi, createTestingBlockEncodingManager(), new DatabaseLocalStorageManagerConfig().setDataDirectory(new File(dataDir, "source")));
+
+        DBI targetDbi = new DBI("jdbc:h2:mem:target" + System.nanoTime());
+        targetHandle = targetDbi.open();
+        targetStorageManager = new DatabaseLocalStorageManager(targetDbi, createTestingBlockEncodingManager(), new DatabaseLocalStorageManagerConfig().setDataDirectory(new File(dataDir, "target")));
+
+        nodeManager = new InMemoryNodeManager();
+        nodeManager.addNode("raptor", createNode("node1"), createNode("node2"));
+
+        final ShardResource targetResource = new ShardResource(targetStorageManager);
+        httpClient = new TestingHttpClient(new Function<Request, Response>()
+        {
+            @Override
+            public Response apply(Request request)
+            {
+                requests.incrementAndGet();
+                assertEquals(request.getUri().getHost(), "node2");
+
+                String path = request.getUri().getPath();
+                assertTrue(path.startsWith("/v1/connector/raptor/shard/"), path);
+                UUID shardUuid = UUID.fromString(path.substring(path.lastIndexOf('/') + 1));
+
+                assertEquals(request.getMethod(), "PUT");
+                try {
+                    ByteArrayOutputStream output = new ByteArrayOutputStream();
+                    request.getBodyGenerator().write(output);
+                    targetResource.importShard(shardUuid, new ByteArrayInputStream(output.toByteArray()));
+                }
+                catch (Exception e) {
+                    throw Throwables.propagate(e);
+                }
+                return new TestingResponse(HttpStatus.NO_CONTENT, ImmutableListMultimap.<String, String>of(), new byte[0]);
+            }
+        });
+
+        ShardReplicatorConfig config = new ShardReplicatorConfig().setReplicationFactor(2);
+        replicator = createReplicator(config);
+    }
+
+    @AfterMethod
+    public void teardown()
+    {
+        replicator.stop();
+        dummyHandle.close();
+        sourceHandle.close();
+        targetHandle.close();
+        FileUtils.deleteRecursively(dataDir);
+    }
+
+    @Test
+    public void testReplicate()
+            throws Exception
+    {
+        UUID shardUuid = UUID.randomUUID();
+        commitShard(shardUuid, "node1");
+
+        replicator.replicate();
+
+        assertEquals(requests.get(), 1);
+        assertEquals(ImmutableSet.copyOf(shardManager.getReplicaNodes("node1").get(shardUuid)), ImmutableSet.of("node1", "node2"));
+        assertTrue(targetStorageManager.shardExists(shardUuid));
+        assertEquals(targetStorageManager.getShardSizeInBytes(shardUuid), sourceStorageManager.getShardSizeInBytes(shardUuid));
+
+        // the shard is stored on enough nodes
+        replicator.replicate();
+        assertEquals(requests.get(), 1);
+    }
+
+    @Test
+    public void testReplicateShardOfFailedNode()
+            throws Exception
+    {
+        // the copy on node0 is no longer available, so node1 is the lowest active node storing the shard
+        UUID shardUuid = UUID.randomUUID();
+        commitShard(shardUuid, "node1");
+        shardManager.addShardNode(shardUuid, "node0");
+
+        replicator.replicate();
+
+        assertEquals(requests.get(), 1);
+        assertEquals(ImmutableSet.copyOf(shardManager.getReplicaNodes("node1").get(shardUuid)), ImmutableSet.of("node0", "node1", "node2"));
+        assertTrue(targetStorageManager.shardExists(shardUuid));
+    }
+
+    @Test
+    public void testShardReplicatedByLowestNode()
+            throws Exception
+    {
+        nodeManager.addNode("raptor", createNode("node0"));
+
+        // node0 is active, so it is responsible for copying the shard
+        UUID shardUuid = UUID.randomUUID();
+        commitShard(shardUuid, "node1");
+        shardManager.addShardNode(shardUuid, "node0");
+
+        ShardReplicatorConfig config = new ShardReplicatorConfig().setReplicationFactor(3);
+        createReplicator(config).replicate();
+
+        assertEquals(requests.get(), 0);
+        assertFalse(targetStorageManager.shardExists(shardUuid));
+        assertEquals(ImmutableSet.copyOf(shardManager.getReplicaNodes("node1").get(shardUuid)), ImmutableSet.of("node0", "node1"));
+    }
+
+    private ShardReplicator createReplicator(ShardReplicatorConfig config)
+    {
+        RaptorConnectorId connectorId = new RaptorConnectorId("raptor");
+        ShardTransferClient transferClient = new ShardTransferClient(connectorId, sourceStorageManager, httpClient);
+        return new ShardReplicator(connectorId, new CurrentNodeId("node1"), nodeManager, shardManager, sourceStorageManager, transferClient, config);
+    }
+
+    private void commitShard(UUID shardUuid, String nodeIdentifier)
+            throws Exception
+    {
+        ColumnFileHandle fileHandle = sourceStorageManager.createStagingFileHandles(shardUuid, ImmutableList.of(COLUMN_HANDLE));
+        List<Page> pages = rowPagesBuilder(BIGINT).row(1).row(2).pageBreak().row(3).build();
+        for (Page page : pages) {
+            fileHandle.append(page);
+        }
+        List<ColumnStats> columnStats = sourceStorageManager.commit(fileHandle);
+
+        RaptorTableHandle tableHandle = new RaptorTableHandle("raptor", "test", "test", 1, null);
+        shardManager.commitUnpartitionedTable(tableHandle, ImmutableList.of(new ShardInfo(shardUuid, nodeIdentifier, columnStats)));
+    }
+
+    private static Node createNode(String nodeIdentifier)
+    {
+        return new PrestoNode(nodeIdentifier, URI.create("http://" + nodeIdentifier + ":8080"), NodeVersion.UNKNOWN);
+    }
+}
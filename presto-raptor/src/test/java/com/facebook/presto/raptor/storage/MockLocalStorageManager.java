@@ -14,13 +14,17 @@
 package com.facebook.presto.raptor.storage;
 
 import com.facebook.presto.block.BlockIterable;
+import com.facebook.presto.raptor.metadata.ColumnStats;
 import com.facebook.presto.raptor.storage.ColumnFileHandle.Builder;
 import com.facebook.presto.spi.ConnectorColumnHandle;
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
 import com.google.common.io.Files;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.UUID;
 
@@ -78,6 +82,30 @@ public class MockLocalStorageManager
         return false;
     }
 
+    @Override
+    public long getShardSizeInBytes(UUID shardUuid)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<ColumnStats> mergeShards(UUID shardUuid, List<UUID> sourceShardUuids, List<? extends ConnectorColumnHandle> columnHandles)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void writeShard(UUID shardUuid, OutputStream output)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void importShard(UUID shardUuid, InputStream input)
+    {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public ColumnFileHandle createStagingFileHandles(UUID shardUuid, List<? extends ConnectorColumnHandle> columnHandles)
             throws IOException
@@ -92,9 +120,10 @@ public class MockLocalStorageManager
     }
 
     @Override
-    public void commit(ColumnFileHandle columnFileHandle)
+    public List<ColumnStats> commit(ColumnFileHandle columnFileHandle)
             throws IOException
     {
         columnFileHandle.commit();
+        return ImmutableList.of();
     }
 }
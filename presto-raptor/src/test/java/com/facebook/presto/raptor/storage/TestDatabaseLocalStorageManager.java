@@ -13,14 +13,18 @@
  */
 package com.facebook.presto.raptor.storage;
 
+import com.facebook.presto.block.dictionary.DictionaryEncodedBlock;
 import com.facebook.presto.execution.TaskId;
 import com.facebook.presto.operator.AlignmentOperator.AlignmentOperatorFactory;
 import com.facebook.presto.operator.DriverContext;
 import com.facebook.presto.operator.Operator;
 import com.facebook.presto.operator.OperatorAssertion;
 import com.facebook.presto.operator.Page;
+import com.facebook.presto.operator.RowPagesBuilder;
 import com.facebook.presto.operator.TaskContext;
 import com.facebook.presto.raptor.RaptorColumnHandle;
+import com.facebook.presto.raptor.metadata.ColumnStats;
+import com.facebook.presto.serde.BlocksFileStats;
 import com.facebook.presto.spi.ConnectorColumnHandle;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.testing.MaterializedResult;
@@ -35,8 +39,12 @@ import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
@@ -45,15 +53,26 @@ import java.util.concurrent.ExecutorService;
 import static com.facebook.presto.operator.OperatorAssertion.toMaterializedResult;
 import static com.facebook.presto.operator.RowPagesBuilder.rowPagesBuilder;
 import static com.facebook.presto.raptor.storage.DatabaseLocalStorageManager.getShardPath;
+import static com.facebook.presto.raptor.storage.DatabaseLocalStorageManager.selectEncoding;
+import static com.facebook.presto.serde.BlocksFileEncoding.DIC_PACKED;
+import static com.facebook.presto.serde.BlocksFileEncoding.DIC_RLE;
+import static com.facebook.presto.serde.BlocksFileEncoding.PACKED;
+import static com.facebook.presto.serde.BlocksFileEncoding.RAW;
+import static com.facebook.presto.serde.BlocksFileEncoding.RLE;
+import static com.facebook.presto.serde.BlocksFileEncoding.SNAPPY;
 import static com.facebook.presto.testing.TestingBlockEncodingManager.createTestingBlockEncodingManager;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
 import static com.facebook.presto.spi.type.TimeZoneKey.UTC_KEY;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.testing.Assertions.assertInstanceOf;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 @Test(singleThreaded = true)
 public class TestDatabaseLocalStorageManager
@@ -120,7 +139,11 @@ public class TestDatabaseLocalStorageManager
         for (Page page : pages) {
             fileHandles.append(page);
         }
-        storageManager.commit(fileHandles);
+        List<ColumnStats> columnStats = storageManager.commit(fileHandles);
+
+        assertEquals(columnStats, ImmutableList.of(
+                new ColumnStats(7, 0, "alice", "dave"),
+                new ColumnStats(11, 0, 0L, 11L)));
 
         assertTrue(storageManager.shardExists(shardUuid));
 
@@ -143,13 +166,185 @@ public class TestDatabaseLocalStorageManager
         List<ConnectorColumnHandle> columnHandles = ImmutableList.<ConnectorColumnHandle>of(new RaptorColumnHandle("test", "column_13", 13L));
 
         ColumnFileHandle fileHandles = storageManager.createStagingFileHandles(shardUuid, columnHandles);
-        storageManager.commit(fileHandles);
+        assertEquals(storageManager.commit(fileHandles), ImmutableList.of());
 
         assertTrue(storageManager.shardExists(shardUuid));
 
         assertTrue(Iterables.isEmpty(storageManager.getBlocks(shardUuid, columnHandles.get(0))));
     }
 
+    @Test
+    public void testColumnStatsWithNulls()
+            throws IOException
+    {
+        UUID shardUuid = UUID.randomUUID();
+        List<ConnectorColumnHandle> columnHandles = ImmutableList.<ConnectorColumnHandle>of(
+                new RaptorColumnHandle("test", "column_1", 1L),
+                new RaptorColumnHandle("test", "column_2", 2L),
+                new RaptorColumnHandle("test", "column_3", 3L),
+                new RaptorColumnHandle("test", "column_4", 4L));
+
+        List<Page> pages = rowPagesBuilder(BIGINT, DOUBLE, DOUBLE, BOOLEAN)
+                .row(null, 1.5, 1.0, true)
+                .row(-3, null, Double.NaN, null)
+                .row(null, -2.5, null, false)
+                .build();
+
+        ColumnFileHandle fileHandles = storageManager.createStagingFileHandles(shardUuid, columnHandles);
+        for (Page page : pages) {
+            fileHandles.append(page);
+        }
+
+        assertEquals(storageManager.commit(fileHandles), ImmutableList.of(
+                new ColumnStats(1, 2, -3L, -3L),
+                new ColumnStats(2, 1, -2.5, 1.5),
+                new ColumnStats(3, 1, null, null),
+                new ColumnStats(4, 1, null, null)));
+    }
+
+    @Test
+    public void testOptimizedEncodings()
+            throws IOException
+    {
+        UUID shardUuid = UUID.randomUUID();
+        List<ConnectorColumnHandle> columnHandles = ImmutableList.<ConnectorColumnHandle>of(
+                new RaptorColumnHandle("test", "column_1", 1L),
+                new RaptorColumnHandle("test", "column_2", 2L),
+                new RaptorColumnHandle("test", "column_3", 3L));
+
+        RowPagesBuilder pagesBuilder = rowPagesBuilder(VARCHAR, BIGINT, BIGINT);
+        for (int i = 0; i < 5000; i++) {
+            pagesBuilder.row(i < 2500 ? "alice" : null, (i % 10 == 0) ? null : i % 7, 1_000_000L + (i * 3));
+            if (i % 1000 == 999) {
+                pagesBuilder.pageBreak();
+            }
+        }
+        List<Page> pages = pagesBuilder.build();
+
+        ColumnFileHandle fileHandles = storageManager.createStagingFileHandles(shardUuid, columnHandles);
+        for (Page page : pages) {
+            fileHandles.append(page);
+        }
+        storageManager.commit(fileHandles);
+
+        assertInstanceOf(storageManager.getBlocks(shardUuid, columnHandles.get(0)).iterator().next(), DictionaryEncodedBlock.class);
+        assertInstanceOf(storageManager.getBlocks(shardUuid, columnHandles.get(1)).iterator().next(), DictionaryEncodedBlock.class);
+
+        AlignmentOperatorFactory factory = new AlignmentOperatorFactory(0,
+                storageManager.getBlocks(shardUuid, columnHandles.get(0)),
+                storageManager.getBlocks(shardUuid, columnHandles.get(1)),
+                storageManager.getBlocks(shardUuid, columnHandles.get(2)));
+        Operator operator = factory.createOperator(driverContext);
+
+        MaterializedResult expected = toMaterializedResult(operator.getOperatorContext().getSession(), operator.getTypes(), pages);
+        OperatorAssertion.assertOperatorEquals(operator, expected);
+    }
+
+    @Test
+    public void testCopyShard()
+            throws IOException
+    {
+        UUID shardUuid = UUID.randomUUID();
+        List<ConnectorColumnHandle> columnHandles = ImmutableList.<ConnectorColumnHandle>of(
+                new RaptorColumnHandle("test", "column_1", 1L),
+                new RaptorColumnHandle("test", "column_2", 2L));
+
+        List<Page> pages = rowPagesBuilder(VARCHAR, BIGINT)
+                .row("alice", 0)
+                .row("bob", 1)
+                .pageBreak()
+                .row("charlie", 2)
+                .build();
+
+        ColumnFileHandle fileHandles = storageManager.createStagingFileHandles(shardUuid, columnHandles);
+        for (Page page : pages) {
+            fileHandles.append(page);
+        }
+        storageManager.commit(fileHandles);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        storageManager.writeShard(shardUuid, output);
+
+        File targetDataDir = Files.createTempDir();
+        DBI targetDbi = new DBI("jdbc:h2:mem:target" + System.nanoTime());
+        Handle targetHandle = targetDbi.open();
+        try {
+            DatabaseLocalStorageManagerConfig config = new DatabaseLocalStorageManagerConfig().setDataDirectory(targetDataDir);
+            LocalStorageManager targetStorageManager = new DatabaseLocalStorageManager(targetDbi, createTestingBlockEncodingManager(), config);
+
+            targetStorageManager.importShard(shardUuid, new ByteArrayInputStream(output.toByteArray()));
+            assertTrue(targetStorageManager.shardExists(shardUuid));
+            assertEquals(targetStorageManager.getShardSizeInBytes(shardUuid), storageManager.getShardSizeInBytes(shardUuid));
+
+            // importing an existing shard has no effect
+            targetStorageManager.importShard(shardUuid, new ByteArrayInputStream(output.toByteArray()));
+
+            AlignmentOperatorFactory factory = new AlignmentOperatorFactory(0,
+                    targetStorageManager.getBlocks(shardUuid, columnHandles.get(0)),
+                    targetStorageManager.getBlocks(shardUuid, columnHandles.get(1)));
+            Operator operator = factory.createOperator(driverContext);
+
+            MaterializedResult expected = toMaterializedResult(operator.getOperatorContext().getSession(), operator.getTypes(), pages);
+            OperatorAssertion.assertOperatorEquals(operator, expected);
+        }
+        finally {
+            targetHandle.close();
+            FileUtils.deleteRecursively(targetDataDir);
+        }
+    }
+
+    @Test
+    public void testImportTruncatedShard()
+            throws IOException
+    {
+        UUID shardUuid = UUID.randomUUID();
+        List<ConnectorColumnHandle> columnHandles = ImmutableList.<ConnectorColumnHandle>of(new RaptorColumnHandle("test", "column_1", 1L));
+
+        ColumnFileHandle fileHandles = storageManager.createStagingFileHandles(shardUuid, columnHandles);
+        for (Page page : rowPagesBuilder(VARCHAR).row("alice").row("bob").build()) {
+            fileHandles.append(page);
+        }
+        storageManager.commit(fileHandles);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        storageManager.writeShard(shardUuid, output);
+        byte[] truncated = Arrays.copyOf(output.toByteArray(), output.size() - 1);
+
+        File targetDataDir = Files.createTempDir();
+        DBI targetDbi = new DBI("jdbc:h2:mem:target" + System.nanoTime());
+        Handle targetHandle = targetDbi.open();
+        try {
+            DatabaseLocalStorageManagerConfig config = new DatabaseLocalStorageManagerConfig().setDataDirectory(targetDataDir);
+            LocalStorageManager targetStorageManager = new DatabaseLocalStorageManager(targetDbi, createTestingBlockEncodingManager(), config);
+
+            try {
+                targetStorageManager.importShard(shardUuid, new ByteArrayInputStream(truncated));
+                fail("expected EOFException");
+            }
+            catch (EOFException expected) {
+            }
+
+            // the partially received files are removed from the staging directory
+            assertFalse(targetStorageManager.shardExists(shardUuid));
+            assertEquals(new File(targetDataDir, "staging").list(), new String[0]);
+        }
+        finally {
+            targetHandle.close();
+            FileUtils.deleteRecursively(targetDataDir);
+        }
+    }
+
+    @Test
+    public void testSelectEncoding()
+    {
+        assertEquals(selectEncoding(VARCHAR, new BlocksFileStats(1000, 10, 100, 2), SNAPPY), DIC_RLE);
+        assertEquals(selectEncoding(VARCHAR, new BlocksFileStats(1000, 1000, 1, 10), SNAPPY), DIC_PACKED);
+        assertEquals(selectEncoding(VARCHAR, new BlocksFileStats(100_000, 1000, 100, 50_000), SNAPPY), RLE);
+        assertEquals(selectEncoding(BIGINT, new BlocksFileStats(100_000, 100_000, 1, 100_000), SNAPPY), PACKED);
+        assertEquals(selectEncoding(VARCHAR, new BlocksFileStats(100_000, 100_000, 1, 100_000), SNAPPY), SNAPPY);
+        assertEquals(selectEncoding(DOUBLE, new BlocksFileStats(100_000, 100_000, 1, 100_000), RAW), RAW);
+    }
+
     @Test
     public void testShardPath()
     {
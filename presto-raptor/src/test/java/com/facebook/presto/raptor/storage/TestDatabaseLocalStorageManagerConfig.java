@@ -15,6 +15,7 @@ package com.facebook.presto.raptor.storage;
 
 import com.google.common.collect.ImmutableMap;
 import io.airlift.configuration.testing.ConfigAssertions;
+import io.airlift.units.DataSize;
 import org.testng.annotations.Test;
 
 import javax.validation.constraints.NotNull;
@@ -23,6 +24,7 @@ import java.io.File;
 import java.util.Map;
 
 import static io.airlift.testing.ValidationAssertions.assertFailsValidation;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
 
 public class TestDatabaseLocalStorageManagerConfig
 {
@@ -32,6 +34,10 @@ public class TestDatabaseLocalStorageManagerConfig
         ConfigAssertions.assertRecordedDefaults(ConfigAssertions.recordDefaults(DatabaseLocalStorageManagerConfig.class)
                 .setDataDirectory(new File("var/data"))
                 .setTasksPerNode(32)
+                .setOptimizeEncodings(true)
+                .setMappedFileCacheMaxSize(new DataSize(16, GIGABYTE))
+                .setMappedFileCacheMaxFiles(10_000)
+                .setMappedFilePreload(false)
                 .setCompressed(true));
     }
 
@@ -41,12 +47,20 @@ public class TestDatabaseLocalStorageManagerConfig
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("storage.data-directory", "/data")
                 .put("storage.tasks-per-node", "16")
+                .put("storage.optimize-encodings", "false")
+                .put("storage.mapped-file-cache.max-size", "1GB")
+                .put("storage.mapped-file-cache.max-files", "500")
+                .put("storage.mapped-file-preload", "true")
                 .put("storage.compress", "false")
                 .build();
 
         DatabaseLocalStorageManagerConfig expected = new DatabaseLocalStorageManagerConfig()
                 .setDataDirectory(new File("/data"))
                 .setTasksPerNode(16)
+                .setOptimizeEncodings(false)
+                .setMappedFileCacheMaxSize(new DataSize(1, GIGABYTE))
+                .setMappedFileCacheMaxFiles(500)
+                .setMappedFilePreload(true)
                 .setCompressed(false);
 
         ConfigAssertions.assertFullMapping(properties, expected);
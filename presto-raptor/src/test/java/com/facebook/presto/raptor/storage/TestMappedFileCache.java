@@ -0,0 +1,137 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.raptor.storage;
+
+import com.google.common.io.Files;
+import io.airlift.slice.Slice;
+import io.airlift.units.DataSize;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static io.airlift.testing.FileUtils.deleteRecursively;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+@Test(singleThreaded = true)
+public class TestMappedFileCache
+{
+    private File tempDir;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        tempDir = Files.createTempDir();
+    }
+
+    @AfterMethod
+    public void tearDown()
+    {
+        deleteRecursively(tempDir);
+    }
+
+    @Test
+    public void testCached()
+            throws Exception
+    {
+        MappedFileCache cache = new MappedFileCache(new DataSize(1, MEGABYTE), 10, false);
+        File file = createFile("a", 100);
+
+        Slice slice = cache.get(file);
+        assertEquals(slice.length(), 100);
+        assertSame(cache.get(file), slice);
+
+        assertEquals(cache.getHitCount(), 1);
+        assertEquals(cache.getMissCount(), 1);
+        assertEquals(cache.getMappedFiles(), 1);
+        assertEquals(cache.getMappedBytes(), 100);
+    }
+
+    @Test
+    public void testMaxFiles()
+            throws Exception
+    {
+        MappedFileCache cache = new MappedFileCache(new DataSize(1, MEGABYTE), 2, false);
+        File a = createFile("a", 10);
+        File b = createFile("b", 20);
+        File c = createFile("c", 30);
+
+        cache.get(a);
+        cache.get(b);
+        cache.get(a);
+        cache.get(c);
+
+        // b is the least recently used file
+        assertEquals(cache.getMappedFiles(), 2);
+        assertEquals(cache.getMappedBytes(), 40);
+        assertEquals(cache.getEvictionCount(), 1);
+
+        cache.get(a);
+        assertEquals(cache.getMissCount(), 3);
+        cache.get(b);
+        assertEquals(cache.getMissCount(), 4);
+    }
+
+    @Test
+    public void testMaxSize()
+            throws Exception
+    {
+        MappedFileCache cache = new MappedFileCache(new DataSize(100, BYTE), 10, true);
+        File a = createFile("a", 60);
+        File b = createFile("b", 60);
+        File c = createFile("c", 200);
+
+        cache.get(a);
+        cache.get(b);
+        assertEquals(cache.getMappedFiles(), 1);
+        assertEquals(cache.getMappedBytes(), 60);
+
+        // a file larger than the limit is still mapped
+        assertEquals(cache.get(c).length(), 200);
+        assertEquals(cache.getMappedFiles(), 1);
+        assertEquals(cache.getMappedBytes(), 200);
+        assertEquals(cache.getEvictionCount(), 2);
+    }
+
+    @Test
+    public void testInvalidate()
+            throws Exception
+    {
+        MappedFileCache cache = new MappedFileCache(new DataSize(1, MEGABYTE), 10, false);
+        File file = createFile("a", 100);
+        File empty = createFile("empty", 0);
+
+        cache.get(file);
+        assertEquals(cache.get(empty).length(), 0);
+        cache.invalidate(file);
+        assertEquals(cache.getMappedFiles(), 1);
+        assertEquals(cache.getMappedBytes(), 0);
+
+        cache.get(file);
+        assertEquals(cache.getMissCount(), 3);
+    }
+
+    private File createFile(String name, int length)
+            throws IOException
+    {
+        File file = new File(tempDir, name).getAbsoluteFile();
+        Files.write(new byte[length], file);
+        return file;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Describes how the data of a table is divided into buckets. Every row is
+ * assigned to a bucket by hashing the values of the bucket columns, and every
+ * split returned for the table reads from a single bucket (see {@link ConnectorBucketedSplit}).
+ *
+ * Two bucketings with the same bucket function and bucket count place rows with
+ * equal bucket column values in buckets with the same number, which allows the
+ * engine to join or aggregate on the bucket columns without redistributing data.
+ */
+public final class ConnectorBucketing
+{
+    private final List<ConnectorColumnHandle> columns;
+    private final int bucketCount;
+    private final String bucketFunction;
+
+    /**
+     * @param bucketFunction identifies the hash function and the bucket column types, for example
+     * "hive:bigint,string". Connectors must use distinct names for functions that can assign equal
+     * values to different buckets.
+     */
+    public ConnectorBucketing(List<ConnectorColumnHandle> columns, int bucketCount, String bucketFunction)
+    {
+        requireNonNull(columns, "columns is null");
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("columns is empty");
+        }
+        if (bucketCount <= 0) {
+            throw new IllegalArgumentException("bucketCount must be greater than zero");
+        }
+        this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+        this.bucketCount = bucketCount;
+        this.bucketFunction = requireNonNull(bucketFunction, "bucketFunction is null");
+    }
+
+    public List<ConnectorColumnHandle> getColumns()
+    {
+        return columns;
+    }
+
+    public int getBucketCount()
+    {
+        return bucketCount;
+    }
+
+    public String getBucketFunction()
+    {
+        return bucketFunction;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(columns, bucketCount, bucketFunction);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final ConnectorBucketing other = (ConnectorBucketing) obj;
+        return Objects.equals(this.columns, other.columns) &&
+                this.bucketCount == other.bucketCount &&
+                Objects.equals(this.bucketFunction, other.bucketFunction);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ConnectorBucketing{" +
+                "columns=" + columns +
+                ", bucketCount=" + bucketCount +
+                ", bucketFunction=" + bucketFunction +
+                '}';
+    }
+}
@@ -24,16 +24,29 @@ import static java.util.Objects.requireNonNull;
  * 1) The actual partitions
  * 2) The TupleDomain that represents the values that the connector was not able to pre-evaluate
  * when generating the partitions and will need to be double-checked by the final execution plan.
+ *
+ * Connectors may also describe how the data in the partitions is bucketed (see {@link ConnectorBucketing}),
+ * in which case every split returned for the partitions must be a {@link ConnectorBucketedSplit}.
  */
 public class ConnectorPartitionResult
 {
     private final List<ConnectorPartition> partitions;
     private final TupleDomain<ConnectorColumnHandle> undeterminedTupleDomain;
+    private final ConnectorBucketing bucketing;
 
     public ConnectorPartitionResult(List<ConnectorPartition> partitions, TupleDomain<ConnectorColumnHandle> undeterminedTupleDomain)
+    {
+        this(partitions, undeterminedTupleDomain, null);
+    }
+
+    /**
+     * @param bucketing the bucketing of the data in the partitions, or null if the data is not bucketed
+     */
+    public ConnectorPartitionResult(List<ConnectorPartition> partitions, TupleDomain<ConnectorColumnHandle> undeterminedTupleDomain, ConnectorBucketing bucketing)
     {
         this.partitions = requireNonNull(partitions, "partitions is null");
         this.undeterminedTupleDomain = requireNonNull(undeterminedTupleDomain, "undeterminedTupleDomain is null");
+        this.bucketing = bucketing;
     }
 
     public List<ConnectorPartition> getPartitions()
@@ -45,4 +58,12 @@ public class ConnectorPartitionResult
     {
         return undeterminedTupleDomain;
     }
+
+    /**
+     * Returns the bucketing of the data in the partitions, or null if the data is not bucketed.
+     */
+    public ConnectorBucketing getBucketing()
+    {
+        return bucketing;
+    }
 }
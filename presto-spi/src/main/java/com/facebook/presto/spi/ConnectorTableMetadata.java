@@ -15,12 +15,15 @@ package com.facebook.presto.spi;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ConnectorTableMetadata
 {
     private final SchemaTableName table;
     private final List<ColumnMetadata> columns;
+    private final Map<String, Object> properties;
     /* nullable */
     private final String owner;
     private final boolean sampled;
@@ -36,6 +39,11 @@ public class ConnectorTableMetadata
     }
 
     public ConnectorTableMetadata(SchemaTableName table, List<ColumnMetadata> columns, String owner, boolean sampled)
+    {
+        this(table, columns, Collections.<String, Object>emptyMap(), owner, sampled);
+    }
+
+    public ConnectorTableMetadata(SchemaTableName table, List<ColumnMetadata> columns, Map<String, Object> properties, String owner, boolean sampled)
     {
         if (table == null) {
             throw new NullPointerException("table is null or empty");
@@ -43,9 +51,13 @@ public class ConnectorTableMetadata
         if (columns == null) {
             throw new NullPointerException("columns is null");
         }
+        if (properties == null) {
+            throw new NullPointerException("properties is null");
+        }
 
         this.table = table;
         this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+        this.properties = Collections.unmodifiableMap(new LinkedHashMap<>(properties));
         this.owner = owner;
         this.sampled = sampled;
     }
@@ -65,6 +77,15 @@ public class ConnectorTableMetadata
         return columns;
     }
 
+    /**
+     * @return the properties specified in the WITH clause of CREATE TABLE, keyed by name.
+     * The values are of type Long, Double, Boolean or String.
+     */
+    public Map<String, Object> getProperties()
+    {
+        return properties;
+    }
+
     /**
      * @return table owner or null
      */
@@ -79,6 +100,7 @@ public class ConnectorTableMetadata
         StringBuilder sb = new StringBuilder("ConnectorTableMetadata{");
         sb.append("table=").append(table);
         sb.append(", columns=").append(columns);
+        sb.append(", properties=").append(properties);
         sb.append(", owner=").append(owner);
         sb.append('}');
         return sb.toString();
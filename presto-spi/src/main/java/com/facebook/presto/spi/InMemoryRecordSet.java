@@ -222,6 +222,10 @@ public class InMemoryRecordSet
                     checkArgument(value instanceof String || value instanceof byte[],
                             "Expected value %d to be an instance of String or byte[], but is a %s", i, value.getClass().getSimpleName());
                 }
+                else if (type.getJavaType() == Slice.class) {
+                    checkArgument(value instanceof byte[],
+                            "Expected value %d to be an instance of byte[], but is a %s", i, value.getClass().getSimpleName());
+                }
                 else {
                     throw new IllegalStateException("Unsupported column type " + types.get(i));
                 }
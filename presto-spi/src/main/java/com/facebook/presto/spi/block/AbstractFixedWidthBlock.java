@@ -93,7 +93,8 @@ public abstract class AbstractFixedWidthBlock
 
         Slice copy = Slices.copyOf(getRawSlice(), valueOffset(position), entrySize);
 
-        return new FixedWidthBlock(type, 1, copy, new boolean[] {isNull(position)});
+        byte[] nullBits = isNull(position) ? new byte[] {(byte) 0b1000_0000} : null;
+        return new FixedWidthBlock(type, 1, copy, nullBits, 0);
     }
 
     @Override
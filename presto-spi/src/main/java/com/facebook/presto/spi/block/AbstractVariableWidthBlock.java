@@ -89,7 +89,7 @@ public abstract class AbstractVariableWidthBlock
     public Block getSingleValueBlock(int position)
     {
         if (isNull(position)) {
-            return new VariableWidthBlock(type, 1, Slices.wrappedBuffer(new byte[0]), new int[] {0, 0}, new boolean[] {true});
+            return new VariableWidthBlock(type, 1, Slices.wrappedBuffer(new byte[0]), new int[] {0, 0}, 0, new byte[] {(byte) 0b1000_0000}, 0);
         }
 
         int offset = getPositionOffset(position);
@@ -97,7 +97,7 @@ public abstract class AbstractVariableWidthBlock
 
         Slice copy = Slices.copyOf(getRawSlice(), offset, entrySize);
 
-        return new VariableWidthBlock(type, 1, copy, new int[] {0, copy.length()}, new boolean[] {false});
+        return new VariableWidthBlock(type, 1, copy, new int[] {0, copy.length()}, 0, null, 0);
     }
 
     @Override
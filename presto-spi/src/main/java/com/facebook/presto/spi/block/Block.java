@@ -101,7 +101,9 @@ public interface Block
     int getPositionCount();
 
     /**
-     * Returns the size of this block in memory.
+     * Returns the size of this block in memory. A block that shares memory with
+     * another block, such as a region, only reports the size of its own positions,
+     * so the shared memory is counted once by the block that owns it.
      */
     int getSizeInBytes();
 
@@ -128,4 +130,11 @@ public interface Block
      * @throws IllegalArgumentException if this position is not valid
      */
     boolean isNull(int position);
+
+    /**
+     * Returns false if no position in this block is null. Callers can then skip
+     * the per position null checks. A return value of true does not mean that
+     * any position is actually null.
+     */
+    boolean mayHaveNull();
 }
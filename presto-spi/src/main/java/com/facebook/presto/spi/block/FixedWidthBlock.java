@@ -14,10 +14,8 @@
 package com.facebook.presto.spi.block;
 
 import com.facebook.presto.spi.type.FixedWidthType;
-import io.airlift.slice.SizeOf;
 import io.airlift.slice.Slice;
 
-import java.util.Arrays;
 import java.util.Objects;
 
 public class FixedWidthBlock
@@ -25,9 +23,19 @@ public class FixedWidthBlock
 {
     private final int positionCount;
     private final Slice slice;
-    private final boolean[] valueIsNull;
+    private final byte[] nullBits;
+    private final int nullBitsOffset;
 
     public FixedWidthBlock(FixedWidthType type, int positionCount, Slice slice, boolean[] valueIsNull)
+    {
+        this(type, positionCount, slice, NullBits.pack(Objects.requireNonNull(valueIsNull, "valueIsNull is null"), positionCount), 0);
+    }
+
+    /**
+     * @param nullBits the packed null flags of the block, or null if the block has no nulls
+     * @param nullBitsOffset the position in nullBits of the first position of the block
+     */
+    FixedWidthBlock(FixedWidthType type, int positionCount, Slice slice, byte[] nullBits, int nullBitsOffset)
     {
         super(type);
 
@@ -38,10 +46,11 @@ public class FixedWidthBlock
 
         this.slice = Objects.requireNonNull(slice, "slice is null");
 
-        if (valueIsNull.length < positionCount) {
-            throw new IllegalArgumentException("valueIsNull length is less than positionCount");
+        if (nullBits != null && NullBits.sizeOf(nullBitsOffset + positionCount) > nullBits.length) {
+            throw new IllegalArgumentException("nullBits length is less than positionCount");
         }
-        this.valueIsNull = valueIsNull;
+        this.nullBits = nullBits;
+        this.nullBitsOffset = nullBitsOffset;
     }
 
     @Override
@@ -53,7 +62,13 @@ public class FixedWidthBlock
     @Override
     protected boolean isEntryNull(int position)
     {
-        return valueIsNull[position];
+        return nullBits != null && NullBits.isNull(nullBits, nullBitsOffset + position);
+    }
+
+    @Override
+    public boolean mayHaveNull()
+    {
+        return nullBits != null;
     }
 
     @Override
@@ -65,7 +80,10 @@ public class FixedWidthBlock
     @Override
     public int getSizeInBytes()
     {
-        long size = getRawSlice().length() + SizeOf.sizeOf(valueIsNull);
+        long size = getRawSlice().length();
+        if (nullBits != null) {
+            size += NullBits.sizeOf(positionCount);
+        }
         if (size > Integer.MAX_VALUE) {
             return Integer.MAX_VALUE;
         }
@@ -79,9 +97,9 @@ public class FixedWidthBlock
             throw new IndexOutOfBoundsException("Invalid position " + positionOffset + " in block with " + positionCount + " positions");
         }
 
+        // the region shares the values and null bits of this block
         Slice newSlice = slice.slice(positionOffset * entrySize, length * entrySize);
-        boolean[] newValueIsNull = Arrays.copyOfRange(valueIsNull, positionOffset, positionOffset + length);
-        return new FixedWidthBlock(type, length, newSlice, newValueIsNull);
+        return new FixedWidthBlock(type, length, newSlice, nullBits, nullBitsOffset + positionOffset);
     }
 
     @Override
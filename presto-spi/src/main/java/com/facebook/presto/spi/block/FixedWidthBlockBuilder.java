@@ -28,7 +28,8 @@ public class FixedWidthBlockBuilder
 {
     private final BlockBuilderStatus blockBuilderStatus;
     private final SliceOutput sliceOutput;
-    private boolean[] valueIsNull;
+    private byte[] nullBits;
+    private boolean hasNull;
     private int positionCount;
 
     public FixedWidthBlockBuilder(FixedWidthType type, BlockBuilderStatus blockBuilderStatus)
@@ -37,7 +38,7 @@ public class FixedWidthBlockBuilder
 
         this.blockBuilderStatus = blockBuilderStatus;
         this.sliceOutput = new DynamicSliceOutput(blockBuilderStatus.getMaxBlockSizeInBytes());
-        this.valueIsNull = new boolean[1024];
+        this.nullBits = new byte[NullBits.sizeOf(1024)];
     }
 
     public FixedWidthBlockBuilder(FixedWidthType type, int positionCount)
@@ -49,7 +50,7 @@ public class FixedWidthBlockBuilder
         this.blockBuilderStatus = new BlockBuilderStatus(slice.length(), slice.length());
         this.sliceOutput = slice.getOutput();
 
-        this.valueIsNull = new boolean[positionCount];
+        this.nullBits = new byte[NullBits.sizeOf(positionCount + 1)];
     }
 
     @Override
@@ -79,7 +80,7 @@ public class FixedWidthBlockBuilder
     @Override
     public int getSizeInBytes()
     {
-        long size = getRawSlice().length() + SizeOf.sizeOf(valueIsNull);
+        long size = getRawSlice().length() + SizeOf.sizeOf(nullBits);
         if (size > Integer.MAX_VALUE) {
             return Integer.MAX_VALUE;
         }
@@ -143,10 +144,13 @@ public class FixedWidthBlockBuilder
 
     private void entryAdded(boolean isNull)
     {
-        if (positionCount == valueIsNull.length - 1) {
-            valueIsNull = Arrays.copyOf(valueIsNull, valueIsNull.length * 2);
+        if (positionCount == nullBits.length * 8) {
+            nullBits = Arrays.copyOf(nullBits, nullBits.length * 2);
+        }
+        if (isNull) {
+            NullBits.setNull(nullBits, positionCount);
+            hasNull = true;
         }
-        valueIsNull[positionCount] = isNull;
 
         positionCount++;
         blockBuilderStatus.addBytes(entrySize);
@@ -158,7 +162,13 @@ public class FixedWidthBlockBuilder
     @Override
     protected boolean isEntryNull(int position)
     {
-        return valueIsNull[position];
+        return NullBits.isNull(nullBits, position);
+    }
+
+    @Override
+    public boolean mayHaveNull()
+    {
+        return hasNull;
     }
 
     @Override
@@ -169,15 +179,15 @@ public class FixedWidthBlockBuilder
             throw new IndexOutOfBoundsException("Invalid position " + positionOffset + " in block with " + positionCount + " positions");
         }
 
+        // the null bits of written positions never change, so they are shared with the block
         Slice newSlice = sliceOutput.slice().slice(positionOffset * entrySize, length * entrySize);
-        boolean[] newValueIsNull = Arrays.copyOfRange(valueIsNull, positionOffset, positionOffset + length);
-        return new FixedWidthBlock(type, length, newSlice, newValueIsNull);
+        return new FixedWidthBlock(type, length, newSlice, hasNull ? nullBits : null, positionOffset);
     }
 
     @Override
     public Block build()
     {
-        return new FixedWidthBlock(type, positionCount, sliceOutput.slice(), valueIsNull);
+        return new FixedWidthBlock(type, positionCount, sliceOutput.slice(), hasNull ? nullBits : null, 0);
     }
 
     @Override
@@ -55,30 +55,7 @@ public class FixedWidthBlockEncoding
         int positionCount = fixedWidthBlock.getPositionCount();
         sliceOutput.appendInt(positionCount);
 
-        // write null bits 8 at a time
-        for (int position = 0; position < (positionCount & ~0b111); position += 8) {
-            byte value = 0;
-            value |= fixedWidthBlock.isNull(position)     ? 0b1000_0000 : 0;
-            value |= fixedWidthBlock.isNull(position + 1) ? 0b0100_0000 : 0;
-            value |= fixedWidthBlock.isNull(position + 2) ? 0b0010_0000 : 0;
-            value |= fixedWidthBlock.isNull(position + 3) ? 0b0001_0000 : 0;
-            value |= fixedWidthBlock.isNull(position + 4) ? 0b0000_1000 : 0;
-            value |= fixedWidthBlock.isNull(position + 5) ? 0b0000_0100 : 0;
-            value |= fixedWidthBlock.isNull(position + 6) ? 0b0000_0010 : 0;
-            value |= fixedWidthBlock.isNull(position + 7) ? 0b0000_0001 : 0;
-            sliceOutput.appendByte(value);
-        }
-
-        // write last null bits
-        if ((positionCount & 0b111) > 0) {
-            byte value = 0;
-            int mask = 0b1000_0000;
-            for (int position = positionCount & ~0b111; position < positionCount; position++) {
-                value |= fixedWidthBlock.isNull(position) ? mask : 0;
-                mask >>>= 1;
-            }
-            sliceOutput.appendByte(value);
-        }
+        NullBits.writeNullBits(sliceOutput, fixedWidthBlock);
 
         Slice slice = fixedWidthBlock.getRawSlice();
         sliceOutput
@@ -91,35 +68,12 @@ public class FixedWidthBlockEncoding
     {
         int positionCount = sliceInput.readInt();
 
-        boolean[]  valueIsNull = new boolean[positionCount];
-
-        // read null bits 8 at a time
-        for (int position = 0; position < (positionCount & ~0b111); position += 8) {
-            byte value = sliceInput.readByte();
-            valueIsNull[position    ] = ((value & 0b1000_0000) != 0);
-            valueIsNull[position + 1] = ((value & 0b0100_0000) != 0);
-            valueIsNull[position + 2] = ((value & 0b0010_0000) != 0);
-            valueIsNull[position + 3] = ((value & 0b0001_0000) != 0);
-            valueIsNull[position + 4] = ((value & 0b0000_1000) != 0);
-            valueIsNull[position + 5] = ((value & 0b0000_0100) != 0);
-            valueIsNull[position + 6] = ((value & 0b0000_0010) != 0);
-            valueIsNull[position + 7] = ((value & 0b0000_0001) != 0);
-        }
-
-        // read last null bits
-        if ((positionCount & 0b111) > 0) {
-            byte value = sliceInput.readByte();
-            int mask = 0b1000_0000;
-            for (int position = positionCount & ~0b111; position < positionCount; position++) {
-                valueIsNull[position] = ((value & mask) != 0);
-                mask >>>= 1;
-            }
-        }
+        byte[] nullBits = NullBits.readNullBits(sliceInput, positionCount);
 
         int blockSize = sliceInput.readInt();
         Slice slice = sliceInput.readSlice(blockSize);
 
-        return new FixedWidthBlock(type, positionCount, slice, valueIsNull);
+        return new FixedWidthBlock(type, positionCount, slice, nullBits, 0);
     }
 
     public static class FixedWidthBlockEncodingFactory
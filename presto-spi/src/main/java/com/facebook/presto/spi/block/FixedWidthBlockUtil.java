@@ -49,6 +49,7 @@ public final class FixedWidthBlockUtil
                 AbstractFixedWidthBlock.class,
                 FixedWidthBlock.class,
                 FixedWidthBlockBuilder.class,
+                NullBits.class,
 
                 FixedWidthBlockEncoding.class);
 
@@ -0,0 +1,116 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.block;
+
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+
+/**
+ * Packed null flags, one bit per position with the first position in the high
+ * bit of the first byte. This is the same layout the block encodings use on the
+ * wire, so null bits are read without unpacking. A null array of bits means the
+ * block contains no nulls.
+ */
+final class NullBits
+{
+    private NullBits()
+    {
+    }
+
+    public static int sizeOf(int positionCount)
+    {
+        return (positionCount + 7) >>> 3;
+    }
+
+    public static boolean isNull(byte[] nullBits, int position)
+    {
+        return (nullBits[position >>> 3] & (0b1000_0000 >>> (position & 0b111))) != 0;
+    }
+
+    public static void setNull(byte[] nullBits, int position)
+    {
+        nullBits[position >>> 3] |= 0b1000_0000 >>> (position & 0b111);
+    }
+
+    /**
+     * Packs the null flags, or returns null if none of the positions is null.
+     */
+    public static byte[] pack(boolean[] valueIsNull, int positionCount)
+    {
+        if (valueIsNull.length < positionCount) {
+            throw new IllegalArgumentException("valueIsNull length is less than positionCount");
+        }
+
+        byte[] nullBits = null;
+        for (int position = 0; position < positionCount; position++) {
+            if (valueIsNull[position]) {
+                if (nullBits == null) {
+                    nullBits = new byte[sizeOf(positionCount)];
+                }
+                setNull(nullBits, position);
+            }
+        }
+        return nullBits;
+    }
+
+    public static void writeNullBits(SliceOutput sliceOutput, Block block)
+    {
+        int positionCount = block.getPositionCount();
+        if (!block.mayHaveNull()) {
+            sliceOutput.writeZero(sizeOf(positionCount));
+            return;
+        }
+
+        // write null bits 8 at a time
+        for (int position = 0; position < (positionCount & ~0b111); position += 8) {
+            byte value = 0;
+            value |= block.isNull(position)     ? 0b1000_0000 : 0;
+            value |= block.isNull(position + 1) ? 0b0100_0000 : 0;
+            value |= block.isNull(position + 2) ? 0b0010_0000 : 0;
+            value |= block.isNull(position + 3) ? 0b0001_0000 : 0;
+            value |= block.isNull(position + 4) ? 0b0000_1000 : 0;
+            value |= block.isNull(position + 5) ? 0b0000_0100 : 0;
+            value |= block.isNull(position + 6) ? 0b0000_0010 : 0;
+            value |= block.isNull(position + 7) ? 0b0000_0001 : 0;
+            sliceOutput.appendByte(value);
+        }
+
+        // write last null bits
+        if ((positionCount & 0b111) > 0) {
+            byte value = 0;
+            int mask = 0b1000_0000;
+            for (int position = positionCount & ~0b111; position < positionCount; position++) {
+                value |= block.isNull(position) ? mask : 0;
+                mask >>>= 1;
+            }
+            sliceOutput.appendByte(value);
+        }
+    }
+
+    /**
+     * Reads the null bits written by {@link #writeNullBits}, or returns null if none of the positions is null.
+     */
+    public static byte[] readNullBits(SliceInput sliceInput, int positionCount)
+    {
+        byte[] nullBits = new byte[sizeOf(positionCount)];
+        sliceInput.readBytes(nullBits);
+
+        for (byte value : nullBits) {
+            if (value != 0) {
+                return nullBits;
+            }
+        }
+        return null;
+    }
+}
@@ -14,10 +14,11 @@
 package com.facebook.presto.spi.block;
 
 import com.facebook.presto.spi.type.VariableWidthType;
-import io.airlift.slice.SizeOf;
 import io.airlift.slice.Slice;
 
-import java.util.Arrays;
+import java.util.Objects;
+
+import static io.airlift.slice.SizeOf.SIZE_OF_INT;
 
 public class VariableWidthBlock
         extends AbstractVariableWidthBlock
@@ -25,42 +26,65 @@ public class VariableWidthBlock
     private final int positionCount;
     private final Slice slice;
     private final int[] offsets;
-    private final boolean[] valueIsNull;
+    private final int offsetsOffset;
+    private final byte[] nullBits;
+    private final int nullBitsOffset;
 
     public VariableWidthBlock(VariableWidthType type, int positionCount, Slice slice, int[] offsets, boolean[] valueIsNull)
+    {
+        this(type, positionCount, slice, offsets, 0, NullBits.pack(Objects.requireNonNull(valueIsNull, "valueIsNull is null"), positionCount), 0);
+    }
+
+    /**
+     * @param offsetsOffset the index in offsets of the start offset of the first position of the block
+     * @param nullBits the packed null flags of the block, or null if the block has no nulls
+     * @param nullBitsOffset the position in nullBits of the first position of the block
+     */
+    VariableWidthBlock(VariableWidthType type, int positionCount, Slice slice, int[] offsets, int offsetsOffset, byte[] nullBits, int nullBitsOffset)
     {
         super(type);
 
+        if (positionCount < 0) {
+            throw new IllegalArgumentException("positionCount is negative");
+        }
         this.positionCount = positionCount;
-        this.slice = slice;
+        this.slice = Objects.requireNonNull(slice, "slice is null");
 
-        if (offsets.length < positionCount + 1) {
+        if (offsets.length < offsetsOffset + positionCount + 1) {
             throw new IllegalArgumentException("offsets length is less than positionCount");
         }
         this.offsets = offsets;
+        this.offsetsOffset = offsetsOffset;
 
-        if (valueIsNull.length < positionCount) {
-            throw new IllegalArgumentException("valueIsNull length is less than positionCount");
+        if (nullBits != null && NullBits.sizeOf(nullBitsOffset + positionCount) > nullBits.length) {
+            throw new IllegalArgumentException("nullBits length is less than positionCount");
         }
-        this.valueIsNull = valueIsNull;
+        this.nullBits = nullBits;
+        this.nullBitsOffset = nullBitsOffset;
     }
 
     @Override
     protected final int getPositionOffset(int position)
     {
-        return offsets[position];
+        return offsets[offsetsOffset + position];
     }
 
     @Override
     protected int getPositionLength(int position)
     {
-        return offsets[position + 1] - offsets[position];
+        return offsets[offsetsOffset + position + 1] - offsets[offsetsOffset + position];
     }
 
     @Override
     protected boolean isEntryNull(int position)
     {
-        return valueIsNull[position];
+        return nullBits != null && NullBits.isNull(nullBits, nullBitsOffset + position);
+    }
+
+    @Override
+    public boolean mayHaveNull()
+    {
+        return nullBits != null;
     }
 
     @Override
@@ -72,7 +96,11 @@ public class VariableWidthBlock
     @Override
     public int getSizeInBytes()
     {
-        long size = getRawSlice().length() + SizeOf.sizeOf(offsets) + SizeOf.sizeOf(valueIsNull);
+        // only count the part of the shared slice and arrays that belongs to this block
+        long size = (offsets[offsetsOffset + positionCount] - offsets[offsetsOffset]) + (long) (positionCount + 1) * SIZE_OF_INT;
+        if (nullBits != null) {
+            size += NullBits.sizeOf(positionCount);
+        }
         if (size > Integer.MAX_VALUE) {
             return Integer.MAX_VALUE;
         }
@@ -93,9 +121,8 @@ public class VariableWidthBlock
             throw new IndexOutOfBoundsException("Invalid position " + positionOffset + " in block with " + positionCount + " positions");
         }
 
-        int[] newOffsets = Arrays.copyOfRange(offsets, positionOffset, positionOffset + length + 1);
-        boolean[] newValueIsNull = Arrays.copyOfRange(valueIsNull, positionOffset, positionOffset + length);
-        return new VariableWidthBlock(type, length, slice, newOffsets, newValueIsNull);
+        // the region shares the slice, offsets and null bits of this block
+        return new VariableWidthBlock(type, length, slice, offsets, offsetsOffset + positionOffset, nullBits, nullBitsOffset + positionOffset);
     }
 
     @Override
@@ -34,7 +34,8 @@ public class VariableWidthBlockBuilder
 
     private int positions;
     private int[] offsets = new int[1024];
-    private boolean[] valueIsNull = new boolean[1024];
+    private byte[] nullBits = new byte[NullBits.sizeOf(1024)];
+    private boolean hasNull;
 
     public VariableWidthBlockBuilder(VariableWidthType type, BlockBuilderStatus blockBuilderStatus)
     {
@@ -89,7 +90,7 @@ public class VariableWidthBlockBuilder
     @Override
     public int getSizeInBytes()
     {
-        long size = getRawSlice().length() + SizeOf.sizeOf(offsets) + SizeOf.sizeOf(valueIsNull);
+        long size = getRawSlice().length() + SizeOf.sizeOf(offsets) + SizeOf.sizeOf(nullBits);
         if (size > Integer.MAX_VALUE) {
             return Integer.MAX_VALUE;
         }
@@ -142,10 +143,13 @@ public class VariableWidthBlockBuilder
     {
         if (positions + 1 >= offsets.length) {
             offsets = Arrays.copyOf(offsets, offsets.length * 2);
-            valueIsNull = Arrays.copyOf(valueIsNull, valueIsNull.length * 2);
+            nullBits = Arrays.copyOf(nullBits, nullBits.length * 2);
         }
 
-        valueIsNull[positions] = isNull;
+        if (isNull) {
+            NullBits.setNull(nullBits, positions);
+            hasNull = true;
+        }
 
         positions++;
 
@@ -160,7 +164,13 @@ public class VariableWidthBlockBuilder
     @Override
     protected boolean isEntryNull(int position)
     {
-        return valueIsNull[position];
+        return NullBits.isNull(nullBits, position);
+    }
+
+    @Override
+    public boolean mayHaveNull()
+    {
+        return hasNull;
     }
 
     @Override
@@ -171,15 +181,14 @@ public class VariableWidthBlockBuilder
             throw new IndexOutOfBoundsException("Invalid position " + positionOffset + " in block with " + positionCount + " positions");
         }
 
-        int[] newOffsets = Arrays.copyOfRange(offsets, positionOffset, positionOffset + length + 1);
-        boolean[] newValueIsNull = Arrays.copyOfRange(valueIsNull, positionOffset, positionOffset + length);
-        return new VariableWidthBlock(type, length, sliceOutput.slice(), newOffsets, newValueIsNull);
+        // the offsets and null bits of written positions never change, so they are shared with the block
+        return new VariableWidthBlock(type, length, sliceOutput.slice(), offsets, positionOffset, hasNull ? nullBits : null, positionOffset);
     }
 
     @Override
     public Block build()
     {
-        return new VariableWidthBlock(type, positions, sliceOutput.slice(), Arrays.copyOf(offsets, positions + 1), Arrays.copyOf(valueIsNull, positions));
+        return new VariableWidthBlock(type, positions, sliceOutput.slice(), offsets, 0, hasNull ? nullBits : null, 0);
     }
 
     @Override
@@ -0,0 +1,290 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.type;
+
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.block.VariableWidthBlockBuilder;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static io.airlift.slice.SizeOf.SIZE_OF_BYTE;
+import static io.airlift.slice.SizeOf.SIZE_OF_INT;
+import static java.util.Objects.requireNonNull;
+
+// Layout is <count>:<offsets>:<nulls>:<elements>, where
+//   count: is an int describing the number of elements
+//   offsets: are count + 1 ints describing the start of each element in the elements section
+//   nulls: are count bytes which are non-zero for null elements
+//   elements: are the elements in the encoding of the element type
+// An element is read directly from the value, so subscripts do not decode the whole array.
+public class ArrayType
+        implements VariableWidthType
+{
+    private static final int HEADER_SIZE = SIZE_OF_INT;
+
+    private final Type elementType;
+
+    public ArrayType(Type elementType)
+    {
+        this.elementType = requireNonNull(elementType, "elementType is null");
+    }
+
+    public Type getElementType()
+    {
+        return elementType;
+    }
+
+    @Override
+    public String getName()
+    {
+        return "array<" + elementType.getName() + ">";
+    }
+
+    @Override
+    public Class<?> getJavaType()
+    {
+        return Slice.class;
+    }
+
+    /**
+     * Encodes the specified elements, each of which is null or the stack
+     * representation of the element type, as a value of this type.
+     */
+    public Slice toStackRepresentation(List<?> elements)
+    {
+        int count = elements.size();
+        SliceOutput data = new DynamicSliceOutput(count * 8);
+        int[] offsets = new int[count + 1];
+        boolean[] nulls = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            Object element = elements.get(i);
+            if (element == null) {
+                nulls[i] = true;
+            }
+            else {
+                writeElement(data, element);
+            }
+            offsets[i + 1] = data.size();
+        }
+
+        SliceOutput output = new DynamicSliceOutput(getDataOffset(count) + data.size());
+        output.appendInt(count);
+        for (int offset : offsets) {
+            output.appendInt(offset);
+        }
+        for (boolean isNull : nulls) {
+            output.appendByte(isNull ? 1 : 0);
+        }
+        output.writeBytes(data.slice());
+        return output.slice();
+    }
+
+    private void writeElement(SliceOutput output, Object element)
+    {
+        if (elementType instanceof FixedWidthType) {
+            FixedWidthType fixedWidthType = (FixedWidthType) elementType;
+            Class<?> javaType = elementType.getJavaType();
+            if (javaType == boolean.class) {
+                fixedWidthType.writeBoolean(output, (Boolean) element);
+            }
+            else if (javaType == long.class) {
+                fixedWidthType.writeLong(output, ((Number) element).longValue());
+            }
+            else if (javaType == double.class) {
+                fixedWidthType.writeDouble(output, ((Number) element).doubleValue());
+            }
+            else {
+                Slice slice = (Slice) element;
+                fixedWidthType.writeSlice(output, slice, 0);
+            }
+        }
+        else {
+            Slice slice = (Slice) element;
+            ((VariableWidthType) elementType).writeSlice(output, slice, 0, slice.length());
+        }
+    }
+
+    /**
+     * Gets the number of elements in the specified array value.
+     */
+    public static int getElementCount(Slice array)
+    {
+        return array.getInt(0);
+    }
+
+    /**
+     * Is the element at the specified zero based index of the array value null?
+     */
+    public static boolean isElementNull(Slice array, int index)
+    {
+        int count = getElementCount(array);
+        checkIndex(index, count);
+        return array.getByte(HEADER_SIZE + ((count + 1) * SIZE_OF_INT) + index) != 0;
+    }
+
+    /**
+     * Gets the offset of the element at the specified zero based index within the array value.
+     */
+    public static int getElementOffset(Slice array, int index)
+    {
+        int count = getElementCount(array);
+        checkIndex(index, count);
+        return getDataOffset(count) + array.getInt(HEADER_SIZE + (index * SIZE_OF_INT));
+    }
+
+    /**
+     * Gets the length in bytes of the element at the specified zero based index.
+     */
+    public static int getElementLength(Slice array, int index)
+    {
+        int count = getElementCount(array);
+        checkIndex(index, count);
+        int offsetPosition = HEADER_SIZE + (index * SIZE_OF_INT);
+        return array.getInt(offsetPosition + SIZE_OF_INT) - array.getInt(offsetPosition);
+    }
+
+    public boolean getBoolean(Slice array, int index)
+    {
+        return ((FixedWidthType) elementType).getBoolean(array, getElementOffset(array, index));
+    }
+
+    public long getLong(Slice array, int index)
+    {
+        return ((FixedWidthType) elementType).getLong(array, getElementOffset(array, index));
+    }
+
+    public double getDouble(Slice array, int index)
+    {
+        return ((FixedWidthType) elementType).getDouble(array, getElementOffset(array, index));
+    }
+
+    public Slice getSlice(Slice array, int index)
+    {
+        if (elementType instanceof FixedWidthType) {
+            return ((FixedWidthType) elementType).getSlice(array, getElementOffset(array, index));
+        }
+        return ((VariableWidthType) elementType).getSlice(array, getElementOffset(array, index), getElementLength(array, index));
+    }
+
+    private static int getDataOffset(int count)
+    {
+        return HEADER_SIZE + ((count + 1) * SIZE_OF_INT) + (count * SIZE_OF_BYTE);
+    }
+
+    private static void checkIndex(int index, int count)
+    {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("index " + index + " must be less than element count " + count);
+        }
+    }
+
+    @Override
+    public Object getObjectValue(ConnectorSession session, Slice slice, int offset, int length)
+    {
+        Slice array = slice.slice(offset, length);
+        int count = getElementCount(array);
+        List<Object> values = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            values.add(getElementObjectValue(session, array, index));
+        }
+        return Collections.unmodifiableList(values);
+    }
+
+    Object getElementObjectValue(ConnectorSession session, Slice array, int index)
+    {
+        if (isElementNull(array, index)) {
+            return null;
+        }
+        if (elementType instanceof FixedWidthType) {
+            return ((FixedWidthType) elementType).getObjectValue(session, array, getElementOffset(array, index));
+        }
+        return ((VariableWidthType) elementType).getObjectValue(session, array, getElementOffset(array, index), getElementLength(array, index));
+    }
+
+    @Override
+    public Slice getSlice(Slice slice, int offset, int length)
+    {
+        return slice.slice(offset, length);
+    }
+
+    @Override
+    public int writeSlice(SliceOutput sliceOutput, Slice value, int offset, int length)
+    {
+        sliceOutput.writeBytes(value, offset, length);
+        return length;
+    }
+
+    @Override
+    public BlockBuilder createBlockBuilder(BlockBuilderStatus blockBuilderStatus)
+    {
+        return new VariableWidthBlockBuilder(this, blockBuilderStatus);
+    }
+
+    @Override
+    public boolean equalTo(Slice leftSlice, int leftOffset, int leftLength, Slice rightSlice, int rightOffset, int rightLength)
+    {
+        return leftSlice.equals(leftOffset, leftLength, rightSlice, rightOffset, rightLength);
+    }
+
+    @Override
+    public int hash(Slice slice, int offset, int length)
+    {
+        return slice.hashCode(offset, length);
+    }
+
+    @Override
+    public int compareTo(Slice leftSlice, int leftOffset, int leftLength, Slice rightSlice, int rightOffset, int rightLength)
+    {
+        throw new UnsupportedOperationException(getName() + " type is not ordered");
+    }
+
+    @Override
+    public void appendTo(Slice slice, int offset, int length, BlockBuilder blockBuilder)
+    {
+        blockBuilder.appendSlice(slice, offset, length);
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        ArrayType other = (ArrayType) o;
+        return elementType.equals(other.elementType);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return elementType.hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return getName();
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.type;
+
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.block.VariableWidthBlockBuilder;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.facebook.presto.spi.type.ArrayType.getElementCount;
+import static com.facebook.presto.spi.type.ArrayType.isElementNull;
+import static io.airlift.slice.SizeOf.SIZE_OF_INT;
+import static java.util.Objects.requireNonNull;
+
+// Layout is <size>:<keys>:<values>, where
+//   size: is an int describing the length of the keys
+//   keys: is an array of the map keys
+//   values: is an array of the map values in the same order as the keys
+public class MapType
+        implements VariableWidthType
+{
+    private final ArrayType keysType;
+    private final ArrayType valuesType;
+
+    public MapType(Type keyType, Type valueType)
+    {
+        this.keysType = new ArrayType(requireNonNull(keyType, "keyType is null"));
+        this.valuesType = new ArrayType(requireNonNull(valueType, "valueType is null"));
+    }
+
+    public Type getKeyType()
+    {
+        return keysType.getElementType();
+    }
+
+    public Type getValueType()
+    {
+        return valuesType.getElementType();
+    }
+
+    /**
+     * Gets the type of the array returned by {@link #getKeys}.
+     */
+    public ArrayType getKeysType()
+    {
+        return keysType;
+    }
+
+    /**
+     * Gets the type of the array returned by {@link #getValues}.
+     */
+    public ArrayType getValuesType()
+    {
+        return valuesType;
+    }
+
+    @Override
+    public String getName()
+    {
+        return "map<" + getKeyType().getName() + "," + getValueType().getName() + ">";
+    }
+
+    @Override
+    public Class<?> getJavaType()
+    {
+        return Slice.class;
+    }
+
+    /**
+     * Encodes the specified map, whose keys and values are the stack
+     * representations of the key and value types, as a value of this type.
+     * Entries with a null key are skipped.
+     */
+    public Slice toStackRepresentation(Map<?, ?> map)
+    {
+        List<Object> keys = new ArrayList<>(map.size());
+        List<Object> values = new ArrayList<>(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (entry.getKey() != null) {
+                keys.add(entry.getKey());
+                values.add(entry.getValue());
+            }
+        }
+
+        Slice keysSlice = keysType.toStackRepresentation(keys);
+        Slice valuesSlice = valuesType.toStackRepresentation(values);
+
+        SliceOutput output = new DynamicSliceOutput(SIZE_OF_INT + keysSlice.length() + valuesSlice.length());
+        output.appendInt(keysSlice.length());
+        output.writeBytes(keysSlice);
+        output.writeBytes(valuesSlice);
+        return output.slice();
+    }
+
+    /**
+     * Gets the keys of the specified map value as a value of the keys array type.
+     */
+    public static Slice getKeys(Slice map)
+    {
+        return map.slice(SIZE_OF_INT, map.getInt(0));
+    }
+
+    /**
+     * Gets the values of the specified map value as a value of the values array type.
+     */
+    public static Slice getValues(Slice map)
+    {
+        int valuesOffset = SIZE_OF_INT + map.getInt(0);
+        return map.slice(valuesOffset, map.length() - valuesOffset);
+    }
+
+    @Override
+    public Object getObjectValue(ConnectorSession session, Slice slice, int offset, int length)
+    {
+        Slice map = slice.slice(offset, length);
+        Slice keys = getKeys(map);
+        Slice values = getValues(map);
+
+        int count = getElementCount(keys);
+        Map<Object, Object> result = new LinkedHashMap<>();
+        for (int index = 0; index < count; index++) {
+            if (!isElementNull(keys, index)) {
+                result.put(keysType.getElementObjectValue(session, keys, index), valuesType.getElementObjectValue(session, values, index));
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    @Override
+    public Slice getSlice(Slice slice, int offset, int length)
+    {
+        return slice.slice(offset, length);
+    }
+
+    @Override
+    public int writeSlice(SliceOutput sliceOutput, Slice value, int offset, int length)
+    {
+        sliceOutput.writeBytes(value, offset, length);
+        return length;
+    }
+
+    @Override
+    public BlockBuilder createBlockBuilder(BlockBuilderStatus blockBuilderStatus)
+    {
+        return new VariableWidthBlockBuilder(this, blockBuilderStatus);
+    }
+
+    @Override
+    public boolean equalTo(Slice leftSlice, int leftOffset, int leftLength, Slice rightSlice, int rightOffset, int rightLength)
+    {
+        return leftSlice.equals(leftOffset, leftLength, rightSlice, rightOffset, rightLength);
+    }
+
+    @Override
+    public int hash(Slice slice, int offset, int length)
+    {
+        return slice.hashCode(offset, length);
+    }
+
+    @Override
+    public int compareTo(Slice leftSlice, int leftOffset, int leftLength, Slice rightSlice, int rightOffset, int rightLength)
+    {
+        throw new UnsupportedOperationException(getName() + " type is not ordered");
+    }
+
+    @Override
+    public void appendTo(Slice slice, int offset, int length, BlockBuilder blockBuilder)
+    {
+        blockBuilder.appendSlice(slice, offset, length);
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        MapType other = (MapType) o;
+        return keysType.equals(other.keysType) && valuesType.equals(other.valuesType);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * keysType.hashCode() + valuesType.hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return getName();
+    }
+}
@@ -13,10 +13,13 @@
  */
 package com.facebook.presto.spi.block;
 
+import io.airlift.slice.DynamicSliceOutput;
 import org.testng.annotations.Test;
 
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 public class TestFixedWidthBlockBuilder
@@ -33,6 +36,48 @@ public class TestFixedWidthBlockBuilder
         testIsFull(new FixedWidthBlockBuilder(BOOLEAN, new BlockBuilderStatus(1024, BOOLEAN_ENTRY_SIZE * EXPECTED_ENTRY_COUNT)));
     }
 
+    @Test
+    public void testNullBits()
+    {
+        BlockBuilder blockBuilder = new FixedWidthBlockBuilder(BIGINT, new BlockBuilderStatus(1024 * 1024, 1024 * 1024));
+        for (int position = 0; position < 2000; position++) {
+            blockBuilder.appendLong(position);
+        }
+        assertFalse(blockBuilder.build().mayHaveNull());
+
+        for (int position = 2000; position < 3000; position++) {
+            if (position % 3 == 0) {
+                blockBuilder.appendNull();
+            }
+            else {
+                blockBuilder.appendLong(position);
+            }
+        }
+        Block block = blockBuilder.build();
+        assertTrue(block.mayHaveNull());
+        assertNullBits(block, 0);
+        assertNullBits(block.getRegion(1990, 100), 1990);
+
+        // a region only counts its own positions, since the shared arrays are counted by the block: 100 values, 8 bytes each, and 13 bytes of null bits
+        assertEquals(block.getRegion(1990, 100).getSizeInBytes(), 813);
+
+        DynamicSliceOutput sliceOutput = new DynamicSliceOutput(1024);
+        block.getEncoding().writeBlock(sliceOutput, block);
+        assertNullBits(block.getEncoding().readBlock(sliceOutput.slice().getInput()), 0);
+    }
+
+    private static void assertNullBits(Block block, int offset)
+    {
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            int value = position + offset;
+            boolean isNull = value >= 2000 && value % 3 == 0;
+            assertEquals(block.isNull(position), isNull);
+            if (!isNull) {
+                assertEquals(block.getLong(position), value);
+            }
+        }
+    }
+
     private static void testIsFull(FixedWidthBlockBuilder blockBuilder)
     {
         assertTrue(blockBuilder.isEmpty());
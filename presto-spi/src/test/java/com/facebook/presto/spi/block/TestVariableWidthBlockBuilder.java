@@ -13,12 +13,14 @@
  */
 package com.facebook.presto.spi.block;
 
+import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slices;
 import org.testng.annotations.Test;
 
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static io.airlift.slice.SizeOf.SIZE_OF_INT;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 public class TestVariableWidthBlockBuilder
@@ -35,6 +37,48 @@ public class TestVariableWidthBlockBuilder
         testIsFull(new VariableWidthBlockBuilder(VARCHAR, new BlockBuilderStatus(1024, VARCHAR_ENTRY_SIZE * EXPECTED_ENTRY_COUNT)));
     }
 
+    @Test
+    public void testNullBits()
+    {
+        BlockBuilder blockBuilder = new VariableWidthBlockBuilder(VARCHAR, new BlockBuilderStatus(1024 * 1024, 1024 * 1024));
+        for (int position = 0; position < 2000; position++) {
+            blockBuilder.appendSlice(Slices.utf8Slice(String.valueOf(position)));
+        }
+        assertFalse(blockBuilder.build().mayHaveNull());
+
+        for (int position = 2000; position < 3000; position++) {
+            if (position % 3 == 0) {
+                blockBuilder.appendNull();
+            }
+            else {
+                blockBuilder.appendSlice(Slices.utf8Slice(String.valueOf(position)));
+            }
+        }
+        Block block = blockBuilder.build();
+        assertTrue(block.mayHaveNull());
+        assertNullBits(block, 0);
+        assertNullBits(block.getRegion(1990, 100), 1990);
+
+        // a region only counts its own positions, since the shared arrays are counted by the block: 280 bytes of values, 101 offsets and 13 bytes of null bits
+        assertEquals(block.getRegion(1990, 100).getSizeInBytes(), 697);
+
+        DynamicSliceOutput sliceOutput = new DynamicSliceOutput(1024);
+        block.getEncoding().writeBlock(sliceOutput, block);
+        assertNullBits(block.getEncoding().readBlock(sliceOutput.slice().getInput()), 0);
+    }
+
+    private static void assertNullBits(Block block, int offset)
+    {
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            int value = position + offset;
+            boolean isNull = value >= 2000 && value % 3 == 0;
+            assertEquals(block.isNull(position), isNull);
+            if (!isNull) {
+                assertEquals(block.getSlice(position).toStringUtf8(), String.valueOf(value));
+            }
+        }
+    }
+
     private void testIsFull(VariableWidthBlockBuilder blockBuilder)
     {
         assertTrue(blockBuilder.isEmpty());
@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.type;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.facebook.presto.spi.type.ArrayType.getElementCount;
+import static com.facebook.presto.spi.type.ArrayType.isElementNull;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static io.airlift.slice.Slices.utf8Slice;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestMapType
+{
+    @Test
+    public void testArray()
+    {
+        ArrayType type = new ArrayType(VARCHAR);
+        assertEquals(type.getName(), "array<varchar>");
+
+        Slice array = type.toStackRepresentation(Arrays.asList(utf8Slice("a"), null, utf8Slice("bc")));
+        assertEquals(getElementCount(array), 3);
+        assertFalse(isElementNull(array, 0));
+        assertTrue(isElementNull(array, 1));
+        assertEquals(type.getSlice(array, 0), utf8Slice("a"));
+        assertEquals(type.getSlice(array, 2), utf8Slice("bc"));
+        assertEquals(type.getObjectValue(null, array, 0, array.length()), Arrays.asList("a", null, "bc"));
+
+        Slice empty = type.toStackRepresentation(ImmutableList.of());
+        assertEquals(getElementCount(empty), 0);
+        assertEquals(type.getObjectValue(null, empty, 0, empty.length()), ImmutableList.of());
+    }
+
+    @Test
+    public void testNestedMap()
+    {
+        ArrayType arrayType = new ArrayType(DOUBLE);
+        MapType type = new MapType(BIGINT, arrayType);
+        assertEquals(type.getName(), "map<bigint,array<double>>");
+
+        Map<Long, Slice> map = new LinkedHashMap<>();
+        map.put(1L, arrayType.toStackRepresentation(ImmutableList.of(1.5, 2.5)));
+        map.put(2L, null);
+        map.put(null, arrayType.toStackRepresentation(ImmutableList.of(3.5)));
+        Slice value = type.toStackRepresentation(map);
+
+        Slice keys = MapType.getKeys(value);
+        Slice values = MapType.getValues(value);
+        assertEquals(getElementCount(keys), 2);
+        assertEquals(type.getKeysType().getLong(keys, 1), 2L);
+        assertEquals(arrayType.getDouble(type.getValuesType().getSlice(values, 0), 1), 2.5);
+        assertTrue(isElementNull(values, 1));
+
+        Map<Long, Object> expected = new LinkedHashMap<>();
+        expected.put(1L, ImmutableList.of(1.5, 2.5));
+        expected.put(2L, null);
+        assertEquals(type.getObjectValue(null, value, 0, value.length()), expected);
+
+        // values embedded in a larger slice are decoded in place
+        Slice other = type.toStackRepresentation(ImmutableMap.of(3L, arrayType.toStackRepresentation(ImmutableList.<Double>of())));
+        Slice both = Slices.allocate(other.length() + 2);
+        both.setBytes(2, other);
+        assertEquals(type.getObjectValue(null, both, 2, other.length()), ImmutableMap.of(3L, ImmutableList.of()));
+    }
+}
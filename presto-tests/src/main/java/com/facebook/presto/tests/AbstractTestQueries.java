@@ -376,6 +376,88 @@ public abstract class AbstractTestQueries
         assertQuery("SELECT COUNT(DISTINCT orderstatus), SUM(DISTINCT custkey) FROM orders");
     }
 
+    @Test
+    public void testMultipleDifferentDistinctGroupBy()
+            throws Exception
+    {
+        assertQuery("SELECT orderstatus, COUNT(DISTINCT custkey), SUM(DISTINCT totalprice), COUNT(DISTINCT orderpriority) FROM orders GROUP BY orderstatus");
+        assertQuery("SELECT orderpriority, COUNT(DISTINCT orderpriority), COUNT(DISTINCT custkey) FROM orders GROUP BY orderpriority");
+        assertQuery("SELECT custkey, COUNT(DISTINCT orderstatus), SUM(DISTINCT custkey + 1), COUNT(DISTINCT clerk) FROM orders WHERE custkey < 100 GROUP BY custkey");
+    }
+
+    @Test
+    public void testMultipleDifferentDistinctEmptyInput()
+            throws Exception
+    {
+        assertQuery("SELECT COUNT(DISTINCT orderstatus), SUM(DISTINCT custkey) FROM orders WHERE orderkey < 0");
+        assertQuery("SELECT orderstatus, COUNT(DISTINCT custkey), COUNT(DISTINCT clerk) FROM orders WHERE orderkey < 0 GROUP BY orderstatus");
+    }
+
+    @Test
+    public void testMultipleDifferentDistinctWithNonDistinct()
+            throws Exception
+    {
+        assertQuery("SELECT orderstatus, COUNT(*), COUNT(DISTINCT custkey), SUM(DISTINCT totalprice) FROM orders GROUP BY orderstatus");
+    }
+
+    @Test
+    public void testGroupingSets()
+            throws Exception
+    {
+        assertQuery(
+                "SELECT orderstatus, orderpriority, SUM(totalprice), COUNT(*) FROM orders GROUP BY GROUPING SETS ((orderstatus), (orderpriority))",
+                "SELECT orderstatus, NULL, SUM(totalprice), COUNT(*) FROM orders GROUP BY orderstatus " +
+                        "UNION ALL SELECT NULL, orderpriority, SUM(totalprice), COUNT(*) FROM orders GROUP BY orderpriority");
+        assertQuery(
+                "SELECT orderstatus, COUNT(*) FROM orders GROUP BY GROUPING SETS ((orderstatus), (orderstatus), ())",
+                "SELECT orderstatus, COUNT(*) FROM orders GROUP BY orderstatus " +
+                        "UNION ALL SELECT orderstatus, COUNT(*) FROM orders GROUP BY orderstatus " +
+                        "UNION ALL SELECT NULL, COUNT(*) FROM orders");
+    }
+
+    @Test
+    public void testRollup()
+            throws Exception
+    {
+        assertQuery(
+                "SELECT orderstatus, orderpriority, SUM(totalprice), COUNT(*) FROM orders GROUP BY ROLLUP (orderstatus, orderpriority)",
+                "SELECT orderstatus, orderpriority, SUM(totalprice), COUNT(*) FROM orders GROUP BY orderstatus, orderpriority " +
+                        "UNION ALL SELECT orderstatus, NULL, SUM(totalprice), COUNT(*) FROM orders GROUP BY orderstatus " +
+                        "UNION ALL SELECT NULL, NULL, SUM(totalprice), COUNT(*) FROM orders");
+    }
+
+    @Test
+    public void testCube()
+            throws Exception
+    {
+        assertQuery(
+                "SELECT orderstatus, orderpriority, COUNT(*) FROM orders GROUP BY CUBE (orderstatus, orderpriority)",
+                "SELECT orderstatus, orderpriority, COUNT(*) FROM orders GROUP BY orderstatus, orderpriority " +
+                        "UNION ALL SELECT orderstatus, NULL, COUNT(*) FROM orders GROUP BY orderstatus " +
+                        "UNION ALL SELECT NULL, orderpriority, COUNT(*) FROM orders GROUP BY orderpriority " +
+                        "UNION ALL SELECT NULL, NULL, COUNT(*) FROM orders");
+    }
+
+    @Test
+    public void testGroupingSetsWithSimpleGroupBy()
+            throws Exception
+    {
+        assertQuery(
+                "SELECT orderstatus, orderpriority, MAX(custkey) FROM orders GROUP BY orderstatus, ROLLUP (orderpriority)",
+                "SELECT orderstatus, orderpriority, MAX(custkey) FROM orders GROUP BY orderstatus, orderpriority " +
+                        "UNION ALL SELECT orderstatus, NULL, MAX(custkey) FROM orders GROUP BY orderstatus");
+    }
+
+    @Test
+    public void testGroupingSetsWithDistinct()
+            throws Exception
+    {
+        assertQuery(
+                "SELECT orderstatus, COUNT(DISTINCT custkey) FROM orders GROUP BY ROLLUP (orderstatus)",
+                "SELECT orderstatus, COUNT(DISTINCT custkey) FROM orders GROUP BY orderstatus " +
+                        "UNION ALL SELECT NULL, COUNT(DISTINCT custkey) FROM orders");
+    }
+
     @Test
     public void testMultipleDistinct()
             throws Exception
@@ -21,6 +21,8 @@ import com.facebook.presto.spi.Node;
 import com.facebook.presto.spi.Plugin;
 import com.facebook.presto.testing.MaterializedResult;
 import com.facebook.presto.testing.QueryRunner;
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -146,9 +148,17 @@ public class DistributedQueryRunner
     }
 
     public void createCatalog(String catalogName, String connectorName, Map<String, String> properties)
+    {
+        createCatalog(catalogName, connectorName, Functions.constant(properties));
+    }
+
+    /**
+     * Create a catalog whose properties differ between servers, such as the local data directory of a connector.
+     */
+    public void createCatalog(String catalogName, String connectorName, Function<? super TestingPrestoServer, Map<String, String>> serverProperties)
     {
         for (TestingPrestoServer server : servers) {
-            server.createCatalog(catalogName, connectorName, properties);
+            server.createCatalog(catalogName, connectorName, serverProperties.apply(server));
         }
 
         // wait for all nodes to announce the new catalog